@@ -172,7 +172,9 @@ public class CarbondataAutoVacuumThread
                         initialConfiguration, CompactionType.MINOR, majorVacuumSegSize, minorVacuumSegCount);
 
                 if (!allGroupedSegList.isEmpty()) {
-                    ConnectorVacuumTableInfo connectorVacuumTableInfo = new ConnectorVacuumTableInfo(dbNameTableName, false);
+                    // every segment is read separately by each scan, so tables with more segments to merge go first
+                    long segmentsToMerge = allGroupedSegList.stream().mapToLong(List::size).sum();
+                    ConnectorVacuumTableInfo connectorVacuumTableInfo = new ConnectorVacuumTableInfo(dbNameTableName, false, segmentsToMerge);
 
                     synchronized (connectorVacuumTableInfoList) {
                         //Selected Minor Vacuum tables are inserted in to list
@@ -52,6 +52,7 @@ import io.prestosql.plugin.hive.LocationHandle;
 import io.prestosql.plugin.hive.LocationService;
 import io.prestosql.plugin.hive.PartitionStatistics;
 import io.prestosql.plugin.hive.PartitionUpdate;
+import io.prestosql.plugin.hive.ReadAmplificationStats;
 import io.prestosql.plugin.hive.TypeTranslator;
 import io.prestosql.plugin.hive.authentication.HiveIdentity;
 import io.prestosql.plugin.hive.metastore.Column;
@@ -288,7 +289,7 @@ public class CarbondataMetadata
                 writesToNonManagedTablesEnabled, createsOfNonManagedTablesEnabled, tableCreatesWithLocationAllowed,
                 typeManager, locationService, partitionUpdateCodec, typeTranslator, hetuVersion,
                 hiveStatisticsProvider, accessControlMetadata, false, 2, 0.0, executorService,
-                Optional.of(new Duration(5, TimeUnit.MINUTES)), hiveMetastoreClientService, null);
+                Optional.of(new Duration(5, TimeUnit.MINUTES)), hiveMetastoreClientService, null, new ReadAmplificationStats());
         this.carbondataTableReader = carbondataTableReader;
         this.carbondataTableStore = carbondataTableStore;
         this.metadataLock = null;
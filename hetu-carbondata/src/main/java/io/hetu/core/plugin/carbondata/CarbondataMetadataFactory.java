@@ -30,6 +30,7 @@ import io.prestosql.plugin.hive.HivePartitionManager;
 import io.prestosql.plugin.hive.LocationService;
 import io.prestosql.plugin.hive.NodeVersion;
 import io.prestosql.plugin.hive.PartitionUpdate;
+import io.prestosql.plugin.hive.ReadAmplificationStats;
 import io.prestosql.plugin.hive.TypeTranslator;
 import io.prestosql.plugin.hive.metastore.CachingHiveMetastore;
 import io.prestosql.plugin.hive.metastore.HiveMetastore;
@@ -150,7 +151,7 @@ public class CarbondataMetadataFactory
                 accessControlMetadataFactory,
                 2, 0.0, false,
                 Optional.of(new Duration(5, TimeUnit.MINUTES)),
-                hmsWriteBatchSize, null);
+                hmsWriteBatchSize, null, new ReadAmplificationStats());
         this.skipDeletionForAlter = skipDeletionForAlter;
         this.skipTargetCleanupOnRollback = skipTargetCleanupOnRollback;
         this.writesToNonManagedTablesEnabled = writesToNonManagedTablesEnabled;
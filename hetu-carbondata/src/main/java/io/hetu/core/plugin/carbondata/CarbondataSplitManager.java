@@ -34,6 +34,7 @@ import io.prestosql.plugin.hive.HiveSplitWrapper;
 import io.prestosql.plugin.hive.HiveTableHandle;
 import io.prestosql.plugin.hive.HiveTransactionHandle;
 import io.prestosql.plugin.hive.NamenodeStats;
+import io.prestosql.plugin.hive.ReadAmplificationStats;
 import io.prestosql.plugin.hive.authentication.HiveIdentity;
 import io.prestosql.plugin.hive.metastore.MetastoreUtil;
 import io.prestosql.plugin.hive.metastore.SemiTransactionalHiveMetastore;
@@ -124,7 +125,7 @@ public class CarbondataSplitManager
             CarbondataConfig carbondataConfig)
     {
         super(hiveConfig, metastoreProvider, partitionManager, namenodeStats, hdfsEnvironment,
-                directoryLister, executorService, versionEmbedder, typeManager, coercionPolicy);
+                directoryLister, executorService, versionEmbedder, typeManager, coercionPolicy, new ReadAmplificationStats());
         this.carbonTableReader = requireNonNull(reader, "client is null");
         this.metastoreProvider = requireNonNull(metastoreProvider, "metastore is null");
         this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
@@ -46,6 +46,12 @@ public interface CubeMetadata
      */
     long getSourceTableLastUpdatedTime();
 
+    /**
+     * Returns the version of the source table data aggregated into the cube,
+     * or null if the source table cannot tell
+     */
+    String getSourceTableDataVersion();
+
     /**
      * Return the names of the dimension columns
      */
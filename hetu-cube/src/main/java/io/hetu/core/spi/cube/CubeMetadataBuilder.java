@@ -31,6 +31,8 @@ public interface CubeMetadataBuilder
 
     void setTableLastUpdatedTime(long tableLastUpdatedTime);
 
+    void setTableDataVersion(String tableDataVersion);
+
     void setCubeLastUpdatedTime(long cubeLastUpdatedTime);
 
     CubeMetadata build();
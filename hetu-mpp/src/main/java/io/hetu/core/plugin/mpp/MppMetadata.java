@@ -31,6 +31,7 @@ import io.prestosql.plugin.hive.HivePartitionManager;
 import io.prestosql.plugin.hive.HiveTableHandle;
 import io.prestosql.plugin.hive.LocationService;
 import io.prestosql.plugin.hive.PartitionUpdate;
+import io.prestosql.plugin.hive.ReadAmplificationStats;
 import io.prestosql.plugin.hive.TypeTranslator;
 import io.prestosql.plugin.hive.authentication.HiveIdentity;
 import io.prestosql.plugin.hive.metastore.MetastoreUtil;
@@ -90,7 +91,7 @@ public class MppMetadata
                 typeManager, locationService, partitionUpdateCodec, typeTranslator,
                 prestoVersion, hiveStatisticsProvider, accessControlMetadata,
                 autoVacuumEnabled, vacuumDeltaNumThreshold, vacuumDeltaPercentThreshold,
-                vacuumExecutorService, vacuumCollectorInterval, hiveMetastoreClientService, null);
+                vacuumExecutorService, vacuumCollectorInterval, hiveMetastoreClientService, null, new ReadAmplificationStats());
         this.scheduler = scheduler;
         this.mppConfig = mppConfig;
         this.createsOfNonManagedTablesEnabled = createsOfNonManagedTablesEnabled;
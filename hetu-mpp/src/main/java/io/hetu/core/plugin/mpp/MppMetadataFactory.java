@@ -29,6 +29,7 @@ import io.prestosql.plugin.hive.HivePartitionManager;
 import io.prestosql.plugin.hive.LocationService;
 import io.prestosql.plugin.hive.NodeVersion;
 import io.prestosql.plugin.hive.PartitionUpdate;
+import io.prestosql.plugin.hive.ReadAmplificationStats;
 import io.prestosql.plugin.hive.TypeTranslator;
 import io.prestosql.plugin.hive.metastore.CachingHiveMetastore;
 import io.prestosql.plugin.hive.metastore.HiveMetastore;
@@ -168,7 +169,7 @@ public class MppMetadataFactory
                 partitionUpdateCodec, executorService, hiveVacuumService, heartbeatService,
                 hiveMetastoreClientService, typeTranslator, prestoVersion, accessControlMetadataFactory,
                 vacuumDeltaNumThreshold, vacuumDeltaPercentThreshold, autoVacuumEnabled, vacuumCollectorInterval,
-                hmsWriteBatchSize, null);
+                hmsWriteBatchSize, null, new ReadAmplificationStats());
 
         this.skipDeletionForAlter = skipDeletionForAlter;
         this.skipTargetCleanupOnRollback = skipTargetCleanupOnRollback;
@@ -44,6 +44,7 @@ import io.prestosql.plugin.hive.HiveTransactionHandle;
 import io.prestosql.plugin.hive.HiveVacuumSplitSource;
 import io.prestosql.plugin.hive.HiveVacuumTableHandle;
 import io.prestosql.plugin.hive.NamenodeStats;
+import io.prestosql.plugin.hive.ReadAmplificationStats;
 import io.prestosql.plugin.hive.authentication.HiveIdentity;
 import io.prestosql.plugin.hive.metastore.SemiTransactionalHiveMetastore;
 import io.prestosql.plugin.hive.metastore.Table;
@@ -168,7 +169,7 @@ public class MppSplitManager
                 highMemorySplitSourceCounter, maxOutstandingSplits,
                 maxOutstandingSplitsSize, minPartitionBatchSize,
                 maxPartitionBatchSize, maxInitialSplits, splitLoaderConcurrency,
-                maxSplitsPerSecond, recursiveDfsWalkerEnabled, typeManager, hiveConfig);
+                maxSplitsPerSecond, recursiveDfsWalkerEnabled, typeManager, hiveConfig, new ReadAmplificationStats());
 
         this.metastoreProvider = requireNonNull(metastoreProvider, "metastore is null");
         this.partitionManager = requireNonNull(partitionManager, "partitionManager is null");
@@ -60,6 +60,7 @@ public class StarTreeMetaStore
     public static final String PREDICATE_STRING = "predicateString";
     public static final String CUBE_STATUS = "cubeStatus";
     public static final String SOURCE_TABLE_LAST_UPDATED_TIME = "sourceLastUpdatedTime";
+    public static final String SOURCE_TABLE_DATA_VERSION = "sourceDataVersion";
     public static final String CUBE_LAST_UPDATED_TIME = "cubeLastUpdatedTime";
 
     private final HetuMetastore metastore;
@@ -99,6 +100,7 @@ public class StarTreeMetaStore
             }
             builder.setCubeStatus(CubeStatus.forValue(Integer.parseInt(table.getParameters().get(CUBE_STATUS))));
             builder.setTableLastUpdatedTime(Long.parseLong(table.getParameters().get(SOURCE_TABLE_LAST_UPDATED_TIME)));
+            builder.setTableDataVersion(table.getParameters().get(SOURCE_TABLE_DATA_VERSION));
             builder.setCubeLastUpdatedTime(Long.parseLong(table.getParameters().get(CUBE_LAST_UPDATED_TIME)));
             cubeMetadataList.add(builder.build());
         });
@@ -221,6 +223,7 @@ public class StarTreeMetaStore
         parameters.put(CUBE_STATUS, String.valueOf(starTreeMetadata.getCubeStatus().getValue()));
         parameters.put(CUBE_LAST_UPDATED_TIME, String.valueOf(starTreeMetadata.getLastUpdatedTime()));
         parameters.put(SOURCE_TABLE_LAST_UPDATED_TIME, String.valueOf(starTreeMetadata.getSourceTableLastUpdatedTime()));
+        parameters.put(SOURCE_TABLE_DATA_VERSION, starTreeMetadata.getSourceTableDataVersion());
 
         return TableEntity.builder()
                 .setCatalogName(CUBE_CATALOG)
@@ -57,6 +57,8 @@ public class StarTreeMetadata
 
     private final long sourceTableLastUpdatedTime;
 
+    private final String sourceTableDataVersion;
+
     private final long lastUpdatedTime;
 
     private final CubeStatus cubeStatus;
@@ -68,6 +70,7 @@ public class StarTreeMetadata
             @JsonProperty("starTreeName") String starTreeName,
             @JsonProperty("sourceTableName") String sourceTableName,
             @JsonProperty("sourceTableLastUpdatedTime") long sourceTableLastUpdatedTime,
+            @JsonProperty("sourceTableDataVersion") String sourceTableDataVersion,
             @JsonProperty("columns") List<StarTreeColumn> columns,
             @JsonProperty("groups") List<Set<String>> groups,
             @JsonProperty("cubeFilter") CubeFilter cubeFilter,
@@ -83,6 +86,7 @@ public class StarTreeMetadata
         });
         this.cubeFilter = cubeFilter;
         this.sourceTableLastUpdatedTime = sourceTableLastUpdatedTime;
+        this.sourceTableDataVersion = sourceTableDataVersion;
         this.lastUpdatedTime = lastUpdatedTime;
         this.cubeStatus = cubeStatus;
     }
@@ -214,6 +218,13 @@ public class StarTreeMetadata
         return sourceTableLastUpdatedTime;
     }
 
+    @JsonProperty
+    @Override
+    public String getSourceTableDataVersion()
+    {
+        return sourceTableDataVersion;
+    }
+
     @JsonIgnore
     @Override
     public Optional<String> getColumn(AggregationSignature aggSignature)
@@ -280,6 +291,7 @@ public class StarTreeMetadata
         StarTreeMetadata that = (StarTreeMetadata) o;
 
         return Objects.equals(sourceTableLastUpdatedTime, that.sourceTableLastUpdatedTime)
+                && Objects.equals(sourceTableDataVersion, that.sourceTableDataVersion)
                 && Objects.equals(lastUpdatedTime, that.lastUpdatedTime)
                 && Objects.equals(starTreeName, that.starTreeName)
                 && Objects.equals(sourceTableName, that.sourceTableName)
@@ -292,7 +304,7 @@ public class StarTreeMetadata
     @Override
     public int hashCode()
     {
-        return Objects.hash(starTreeName, sourceTableName, columns, groups, cubeFilter, sourceTableLastUpdatedTime, lastUpdatedTime, cubeStatus);
+        return Objects.hash(starTreeName, sourceTableName, columns, groups, cubeFilter, sourceTableLastUpdatedTime, sourceTableDataVersion, lastUpdatedTime, cubeStatus);
     }
 
     @Override
@@ -305,6 +317,7 @@ public class StarTreeMetadata
                 ", groups=" + groups +
                 ", cubeFilter=" + cubeFilter + '\'' +
                 ", sourceTableLastUpdatedTime=" + sourceTableLastUpdatedTime +
+                ", sourceTableDataVersion='" + sourceTableDataVersion + '\'' +
                 ", lastUpdatedTime=" + lastUpdatedTime +
                 ", cubeStatus=" + cubeStatus +
                 '}';
@@ -35,6 +35,7 @@ public class StarTreeMetadataBuilder
     private CubeFilter cubeFilter;
     private CubeStatus cubeStatus;
     private long tableLastUpdatedTime;
+    private String tableDataVersion;
     private long cubeLastUpdatedTime;
 
     public StarTreeMetadataBuilder(String starTableName, String sourceTableName)
@@ -51,6 +52,7 @@ public class StarTreeMetadataBuilder
         this.groups.add(starTreeMetadata.getGroup());
         this.cubeFilter = starTreeMetadata.getCubeFilter();
         this.tableLastUpdatedTime = starTreeMetadata.getSourceTableLastUpdatedTime();
+        this.tableDataVersion = starTreeMetadata.getSourceTableDataVersion();
         this.cubeLastUpdatedTime = starTreeMetadata.getLastUpdatedTime();
         this.cubeStatus = starTreeMetadata.getCubeStatus();
     }
@@ -67,6 +69,12 @@ public class StarTreeMetadataBuilder
         this.tableLastUpdatedTime = tableLastUpdatedTime;
     }
 
+    @Override
+    public void setTableDataVersion(String tableDataVersion)
+    {
+        this.tableDataVersion = tableDataVersion;
+    }
+
     @Override
     public void setCubeLastUpdatedTime(long cubeLastUpdatedTime)
     {
@@ -104,6 +112,7 @@ public class StarTreeMetadataBuilder
                 starTableName,
                 sourceTableName,
                 tableLastUpdatedTime,
+                tableDataVersion,
                 columns,
                 groups,
                 cubeFilter,
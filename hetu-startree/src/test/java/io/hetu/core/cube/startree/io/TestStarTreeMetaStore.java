@@ -73,6 +73,7 @@ public class TestStarTreeMetaStore
         cubeMetadata1 = new StarTreeMetadata("star1",
                 "a",
                 1000,
+                "5f2c9e",
                 ImmutableList.of(
                         new AggregateColumn("sum_cost", "SUM", "cost", false),
                         new DimensionColumn("value", "value")),
@@ -83,6 +84,7 @@ public class TestStarTreeMetaStore
         cubeMetadata2 = new StarTreeMetadata("star2",
                 "a",
                 1000,
+                null,
                 ImmutableList.of(
                         new AggregateColumn("sum_cost", "SUM", "cost", false),
                         new DimensionColumn("value", "value")),
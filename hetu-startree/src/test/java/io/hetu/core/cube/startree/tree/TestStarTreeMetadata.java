@@ -35,6 +35,7 @@ public class TestStarTreeMetadata
             "memory.default.cube1",
             "tpch.tiny.lineitem",
             100,
+            null,
             ImmutableList.of(
                     new DimensionColumn("suppkey", "suppkey"),
                     new DimensionColumn("returnflag", "returnflag"),
@@ -57,6 +58,7 @@ public class TestStarTreeMetadata
             "memory.default.empty_group_cube",
             "tpch.tiny.lineitem",
             100,
+            null,
             ImmutableList.of(
                     new DimensionColumn("suppkey", "suppkey"),
                     new DimensionColumn("returnflag", "returnflag"),
@@ -79,6 +81,7 @@ public class TestStarTreeMetadata
             "memory.default.cube2",
             "tpch.tiny.lineitem2",
             100,
+            null,
             ImmutableList.of(
                     new DimensionColumn("suppkey", "suppkey"),
                     new DimensionColumn("returnflag", "returnflag"),
@@ -100,6 +103,7 @@ public class TestStarTreeMetadata
             "memory.default.cube3",
             "tpch.tiny.lineitem3",
             100,
+            null,
             ImmutableList.of(
                     new DimensionColumn("suppkey", "suppkey"),
                     new DimensionColumn("returnflag", "returnflag"),
@@ -122,6 +126,7 @@ public class TestStarTreeMetadata
             "memory.default.cube4",
             "tpch.tiny.lineitem4",
             100,
+            null,
             ImmutableList.of(
                     new DimensionColumn("suppkey", "suppkey"),
                     new DimensionColumn("returnflag", "returnflag"),
@@ -55,6 +55,8 @@ public class Base64CipherService<T extends Serializable>
             // Add whitelisting here to prevent security issue during deserialization
             // Add class to decrypt in the accept method so it's in the whitelist
             stream.accept("java.lang.*", "java.util.*", "io.hetu.core.*");
+            // binary values, e.g. query states written by coordinators with delta replication enabled
+            stream.accept(byte[].class);
             return (T) stream.readObject();
         }
         catch (IOException | ClassNotFoundException e) {
@@ -160,6 +160,12 @@ public class EncryptedStateMap<K, V extends Serializable>
         return encryptedValues.getName();
     }
 
+    @Override
+    public boolean isEncrypted()
+    {
+        return true;
+    }
+
     @Override
     public Type getType()
     {
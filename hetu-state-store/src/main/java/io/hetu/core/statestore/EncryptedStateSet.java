@@ -102,6 +102,12 @@ public class EncryptedStateSet<V extends Serializable>
         return encryptedValues.getName();
     }
 
+    @Override
+    public boolean isEncrypted()
+    {
+        return true;
+    }
+
     @Override
     public Type getType()
     {
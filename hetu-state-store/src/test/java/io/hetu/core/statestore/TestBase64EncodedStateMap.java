@@ -115,6 +115,24 @@ public class TestBase64EncodedStateMap
         assertNotEquals(originalMap.get(TEST_KEY_1), new Integer(value));
     }
 
+    /**
+     * Test binary values
+     */
+    @Test
+    public void testByteArray()
+    {
+        byte[] value = {0, 1, 2, (byte) 0xff};
+        StateMap<String, String> originalMap =
+                new HazelcastStateMap(hzInstance, "testByteArray");
+        EncryptedStateMap<String, byte[]> encryptedStateMap =
+                new EncryptedStateMap(originalMap, new Base64CipherService<byte[]>());
+        assertTrue(encryptedStateMap.isEncrypted());
+        encryptedStateMap.put(TEST_KEY_1, value);
+        assertEquals(encryptedStateMap.get(TEST_KEY_1), value);
+        assertEquals(encryptedStateMap.getAll(ImmutableSet.of(TEST_KEY_1)).get(TEST_KEY_1), value);
+        assertEquals(encryptedStateMap.getAll().get(TEST_KEY_1), value);
+    }
+
     /**
      * Test remove
      */
@@ -253,6 +253,16 @@ public abstract class AbstractOperatorBenchmark
                 getFilterAndProjectMinOutputPageRowCount(session));
     }
 
+    /**
+     * Session of the task the drivers of the benchmark run in
+     */
+    protected Session createTaskSession()
+    {
+        return testSessionBuilder()
+                .setSystemProperty("optimizer.optimize-hash-generation", "true")
+                .build();
+    }
+
     protected abstract List<Driver> createDrivers(TaskContext taskContext);
 
     protected Map<String, Long> execute(TaskContext taskContext)
@@ -282,9 +292,7 @@ public abstract class AbstractOperatorBenchmark
     @Override
     protected Map<String, Long> runOnce()
     {
-        Session setSession = testSessionBuilder()
-                .setSystemProperty("optimizer.optimize-hash-generation", "true")
-                .build();
+        Session setSession = createTaskSession();
         MemoryPool memoryPool = new MemoryPool(new MemoryPoolId("test"), new DataSize(1, GIGABYTE));
         SpillSpaceTracker spillSpaceTracker = new SpillSpaceTracker(new DataSize(1, GIGABYTE));
 
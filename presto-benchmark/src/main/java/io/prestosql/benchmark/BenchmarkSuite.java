@@ -54,6 +54,8 @@ public class BenchmarkSuite
                 new HashBuildAndJoinBenchmark(optimizeHashSession, localQueryRunner),
                 new HandTpchQuery1(localQueryRunner),
                 new HandTpchQuery6(localQueryRunner),
+                new SnapshotTpchBenchmark.SnapshotHandTpchQuery1(localQueryRunner, 10),
+                new SnapshotTpchBenchmark.SnapshotHandTpchQuery6(localQueryRunner, 10),
 
                 // sql benchmarks
                 new GroupBySumWithArithmeticSqlBenchmark(localQueryRunner),
@@ -60,7 +60,12 @@ public class HandTpchQuery1
 
     public HandTpchQuery1(LocalQueryRunner localQueryRunner)
     {
-        super(localQueryRunner, "hand_tpch_query_1", 1, 5);
+        this(localQueryRunner, "hand_tpch_query_1");
+    }
+
+    protected HandTpchQuery1(LocalQueryRunner localQueryRunner, String benchmarkName)
+    {
+        super(localQueryRunner, benchmarkName, 1, 5);
 
         longAverage = localQueryRunner.getMetadata().getFunctionAndTypeManager().getAggregateFunctionImplementation(
                 new Signature(QualifiedObjectName.valueOfDefaultFunction("avg"), AGGREGATE, DOUBLE.getTypeSignature(), BIGINT.getTypeSignature()));
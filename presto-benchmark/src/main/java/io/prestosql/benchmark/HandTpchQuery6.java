@@ -54,7 +54,12 @@ public class HandTpchQuery6
 
     public HandTpchQuery6(LocalQueryRunner localQueryRunner)
     {
-        super(localQueryRunner, "hand_tpch_query_6", 10, 100);
+        this(localQueryRunner, "hand_tpch_query_6");
+    }
+
+    protected HandTpchQuery6(LocalQueryRunner localQueryRunner, String benchmarkName)
+    {
+        super(localQueryRunner, benchmarkName, 10, 100);
 
         doubleSum = localQueryRunner.getMetadata().getFunctionAndTypeManager().getAggregateFunctionImplementation(
                 new Signature(QualifiedObjectName.valueOfDefaultFunction("sum"), AGGREGATE, DOUBLE.getTypeSignature(), DOUBLE.getTypeSignature()));
@@ -0,0 +1,227 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.benchmark;
+
+import com.google.common.collect.ImmutableList;
+import io.prestosql.Session;
+import io.prestosql.operator.DriverContext;
+import io.prestosql.operator.Operator;
+import io.prestosql.operator.OperatorContext;
+import io.prestosql.operator.OperatorFactory;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.plan.PlanNodeId;
+import io.prestosql.spi.snapshot.MarkerPage;
+import io.prestosql.testing.LocalQueryRunner;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static io.prestosql.SystemSessionProperties.SNAPSHOT_ENABLED;
+import static io.prestosql.benchmark.BenchmarkQueryRunner.createLocalQueryRunner;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Hand built TPC-H queries that take snapshots while they run, to compare with the same queries without snapshots.
+ * A marker is added to the output of the table scan every {@code markerInterval} pages, like the markers of marker
+ * splits, and every operator after the table scan captures its state when the marker reaches it. States are
+ * serialized, but the benchmark task does not write them to a file system.
+ * <p>
+ * A query runner only enables snapshots for inserts on multiple workers, so the SQL benchmarks can not be used for this.
+ */
+public abstract class SnapshotTpchBenchmark
+{
+    private static final int MARKER_SOURCE_OPERATOR_ID = 100;
+
+    public static void main(String... args)
+    {
+        LocalQueryRunner localQueryRunner = createLocalQueryRunner();
+        for (int markerInterval : new int[] {0, 10, 1}) {
+            new SnapshotHandTpchQuery1(localQueryRunner, markerInterval).runBenchmark(new SimpleLineBenchmarkResultWriter(System.out));
+            new SnapshotHandTpchQuery6(localQueryRunner, markerInterval).runBenchmark(new SimpleLineBenchmarkResultWriter(System.out));
+        }
+    }
+
+    public static class SnapshotHandTpchQuery1
+            extends HandTpchQuery1
+    {
+        private final int markerInterval;
+
+        public SnapshotHandTpchQuery1(LocalQueryRunner localQueryRunner, int markerInterval)
+        {
+            super(localQueryRunner, getBenchmarkName("hand_tpch_query_1", markerInterval));
+            this.markerInterval = markerInterval;
+        }
+
+        @Override
+        protected Session createTaskSession()
+        {
+            return createTaskSession(super.createTaskSession(), markerInterval);
+        }
+
+        @Override
+        protected List<? extends OperatorFactory> createOperatorFactories()
+        {
+            return addMarkerSource(super.createOperatorFactories(), markerInterval);
+        }
+    }
+
+    public static class SnapshotHandTpchQuery6
+            extends HandTpchQuery6
+    {
+        private final int markerInterval;
+
+        public SnapshotHandTpchQuery6(LocalQueryRunner localQueryRunner, int markerInterval)
+        {
+            super(localQueryRunner, getBenchmarkName("hand_tpch_query_6", markerInterval));
+            this.markerInterval = markerInterval;
+        }
+
+        @Override
+        protected Session createTaskSession()
+        {
+            return createTaskSession(super.createTaskSession(), markerInterval);
+        }
+
+        @Override
+        protected List<? extends OperatorFactory> createOperatorFactories()
+        {
+            return addMarkerSource(super.createOperatorFactories(), markerInterval);
+        }
+    }
+
+    private static String getBenchmarkName(String query, int markerInterval)
+    {
+        checkArgument(markerInterval >= 0, "markerInterval is negative");
+        if (markerInterval == 0) {
+            return query + "_snapshot_off";
+        }
+        return query + "_snapshot_every_" + markerInterval + "_pages";
+    }
+
+    private static Session createTaskSession(Session session, int markerInterval)
+    {
+        return Session.builder(session)
+                .setSystemProperty(SNAPSHOT_ENABLED, String.valueOf(markerInterval > 0))
+                .build();
+    }
+
+    private static List<OperatorFactory> addMarkerSource(List<? extends OperatorFactory> operatorFactories, int markerInterval)
+    {
+        if (markerInterval == 0) {
+            return ImmutableList.copyOf(operatorFactories);
+        }
+        // the first operator is the table scan
+        return ImmutableList.<OperatorFactory>builder()
+                .add(operatorFactories.get(0))
+                .add(new MarkerSourceOperatorFactory(markerInterval, operatorFactories.size() - 1))
+                .addAll(operatorFactories.subList(1, operatorFactories.size()))
+                .build();
+    }
+
+    private static class MarkerSourceOperatorFactory
+            implements OperatorFactory
+    {
+        private final int markerInterval;
+        private final int capturingOperators;
+
+        private MarkerSourceOperatorFactory(int markerInterval, int capturingOperators)
+        {
+            this.markerInterval = markerInterval;
+            this.capturingOperators = capturingOperators;
+        }
+
+        @Override
+        public Operator createOperator(DriverContext driverContext)
+        {
+            OperatorContext operatorContext = driverContext.addOperatorContext(MARKER_SOURCE_OPERATOR_ID, new PlanNodeId("test"), MarkerSourceOperator.class.getSimpleName());
+            // a snapshot of the task is complete once every operator after this one has captured its state
+            driverContext.getPipelineContext().getTaskContext().getSnapshotManager().setTotalComponents(capturingOperators);
+            return new MarkerSourceOperator(operatorContext, markerInterval);
+        }
+
+        @Override
+        public void noMoreOperators()
+        {
+        }
+
+        @Override
+        public OperatorFactory duplicate()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static class MarkerSourceOperator
+            implements Operator
+    {
+        private final OperatorContext operatorContext;
+        private final int markerInterval;
+        private final Queue<Page> outputPages = new ArrayDeque<>();
+        private long inputPages;
+        private long snapshotId;
+        private boolean finishing;
+
+        private MarkerSourceOperator(OperatorContext operatorContext, int markerInterval)
+        {
+            this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
+            this.markerInterval = markerInterval;
+        }
+
+        @Override
+        public OperatorContext getOperatorContext()
+        {
+            return operatorContext;
+        }
+
+        @Override
+        public boolean needsInput()
+        {
+            return !finishing && outputPages.isEmpty();
+        }
+
+        @Override
+        public void addInput(Page page)
+        {
+            requireNonNull(page, "page is null");
+            checkState(needsInput(), "Operator does not need input");
+
+            if (inputPages > 0 && inputPages % markerInterval == 0) {
+                outputPages.add(MarkerPage.snapshotPage(++snapshotId));
+            }
+            inputPages++;
+            outputPages.add(page);
+        }
+
+        @Override
+        public Page getOutput()
+        {
+            return outputPages.poll();
+        }
+
+        @Override
+        public void finish()
+        {
+            finishing = true;
+        }
+
+        @Override
+        public boolean isFinished()
+        {
+            return finishing && outputPages.isEmpty();
+        }
+    }
+}
@@ -52,6 +52,7 @@ public class ClientSession
     private final String transactionId;
     private final Duration clientRequestTimeout;
     private final boolean timeInMilliseconds;
+    private final ResultFormat resultFormat;
 
     public static Builder builder(ClientSession clientSession)
     {
@@ -108,6 +109,31 @@ public class ClientSession
             String transactionId,
             Duration clientRequestTimeout,
             boolean timeInMilliseconds)
+    {
+        this(server, user, source, traceToken, clientTags, clientInfo, catalog, schema, path, timeZone, locale, resourceEstimates, properties, preparedStatements, roles, extraCredentials, transactionId, clientRequestTimeout, timeInMilliseconds, ResultFormat.JSON);
+    }
+
+    public ClientSession(
+            URI server,
+            String user,
+            String source,
+            Optional<String> traceToken,
+            Set<String> clientTags,
+            String clientInfo,
+            String catalog,
+            String schema,
+            String path,
+            ZoneId timeZone,
+            Locale locale,
+            Map<String, String> resourceEstimates,
+            Map<String, String> properties,
+            Map<String, String> preparedStatements,
+            Map<String, ClientSelectedRole> roles,
+            Map<String, String> extraCredentials,
+            String transactionId,
+            Duration clientRequestTimeout,
+            boolean timeInMilliseconds,
+            ResultFormat resultFormat)
     {
         this.server = requireNonNull(server, "server is null");
         this.user = user;
@@ -128,6 +154,7 @@ public class ClientSession
         this.extraCredentials = ImmutableMap.copyOf(requireNonNull(extraCredentials, "extraCredentials is null"));
         this.clientRequestTimeout = clientRequestTimeout;
         this.timeInMilliseconds = timeInMilliseconds;
+        this.resultFormat = requireNonNull(resultFormat, "resultFormat is null");
 
         for (String clientTag : clientTags) {
             checkArgument(!clientTag.contains(","), "client tag cannot contain ','");
@@ -261,6 +288,11 @@ public class ClientSession
         return timeInMilliseconds;
     }
 
+    public ResultFormat getResultFormat()
+    {
+        return resultFormat;
+    }
+
     @Override
     public String toString()
     {
@@ -277,6 +309,7 @@ public class ClientSession
                 .add("locale", locale)
                 .add("properties", properties)
                 .add("transactionId", transactionId)
+                .add("resultFormat", resultFormat)
                 .omitNullValues()
                 .toString();
     }
@@ -302,6 +335,7 @@ public class ClientSession
         private String transactionId;
         private Duration clientRequestTimeout;
         private boolean timeInMilliseconds;
+        private ResultFormat resultFormat;
 
         private Builder(ClientSession clientSession)
         {
@@ -325,6 +359,7 @@ public class ClientSession
             transactionId = clientSession.getTransactionId();
             clientRequestTimeout = clientSession.getClientRequestTimeout();
             timeInMilliseconds = clientSession.isTimeInMilliseconds();
+            resultFormat = clientSession.getResultFormat();
         }
 
         public Builder withCatalog(String catalog)
@@ -381,6 +416,12 @@ public class ClientSession
             return this;
         }
 
+        public Builder withResultFormat(ResultFormat resultFormat)
+        {
+            this.resultFormat = requireNonNull(resultFormat, "resultFormat is null");
+            return this;
+        }
+
         public ClientSession build()
         {
             return new ClientSession(
@@ -402,7 +443,8 @@ public class ClientSession
                     credentials,
                     transactionId,
                     clientRequestTimeout,
-                    timeInMilliseconds);
+                    timeInMilliseconds,
+                    resultFormat);
         }
     }
 }
@@ -16,6 +16,8 @@ package io.prestosql.client;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.collect.ImmutableList;
+import io.hetu.core.transport.execution.buffer.SerializedPage;
+import io.prestosql.client.protocol.ColumnarQueryData;
 
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
@@ -40,6 +42,7 @@ public class QueryResults
     private final URI nextUri;
     private final List<Column> columns;
     private final Iterable<List<Object>> data;
+    private final List<SerializedPage> binaryData;
     private final StatementStats stats;
     private final QueryError error;
     private final List<Warning> warnings;
@@ -54,6 +57,7 @@ public class QueryResults
             @JsonProperty("nextUri") URI nextUri,
             @JsonProperty("columns") List<Column> columns,
             @JsonProperty("data") List<List<Object>> data,
+            @JsonProperty("binaryData") List<SerializedPage> binaryData,
             @JsonProperty("stats") StatementStats stats,
             @JsonProperty("error") QueryError error,
             @JsonProperty("warnings") List<Warning> warnings,
@@ -66,7 +70,8 @@ public class QueryResults
                 partialCancelUri,
                 nextUri,
                 columns,
-                fixData(columns, data),
+                (binaryData != null) ? ColumnarQueryData.decode(columns, binaryData) : fixData(columns, data),
+                null,
                 stats,
                 error,
                 firstNonNull(warnings, ImmutableList.of()),
@@ -86,6 +91,23 @@ public class QueryResults
             List<Warning> warnings,
             String updateType,
             Long updateCount)
+    {
+        this(id, infoUri, partialCancelUri, nextUri, columns, data, null, stats, error, warnings, updateType, updateCount);
+    }
+
+    public QueryResults(
+            String id,
+            URI infoUri,
+            URI partialCancelUri,
+            URI nextUri,
+            List<Column> columns,
+            Iterable<List<Object>> data,
+            List<SerializedPage> binaryData,
+            StatementStats stats,
+            QueryError error,
+            List<Warning> warnings,
+            String updateType,
+            Long updateCount)
     {
         this.id = requireNonNull(id, "id is null");
         this.infoUri = requireNonNull(infoUri, "infoUri is null");
@@ -93,7 +115,10 @@ public class QueryResults
         this.nextUri = nextUri;
         this.columns = (columns != null) ? ImmutableList.copyOf(columns) : null;
         this.data = (data != null) ? unmodifiableIterable(data) : null;
+        this.binaryData = (binaryData != null) ? ImmutableList.copyOf(binaryData) : null;
         checkArgument(data == null || columns != null, "data present without columns");
+        checkArgument(binaryData == null || columns != null, "binaryData present without columns");
+        checkArgument(data == null || binaryData == null, "data and binaryData are both present");
         this.stats = requireNonNull(stats, "stats is null");
         this.error = error;
         this.warnings = ImmutableList.copyOf(requireNonNull(warnings, "warnings is null"));
@@ -147,6 +172,17 @@ public class QueryResults
         return data;
     }
 
+    /**
+     * Serialized pages of a {@link ResultFormat#BINARY} result, only set on the server side.
+     * Clients see the decoded rows through {@link #getData()}.
+     */
+    @Nullable
+    @JsonProperty
+    public List<SerializedPage> getBinaryData()
+    {
+        return binaryData;
+    }
+
     @JsonProperty
     @Override
     public StatementStats getStats()
@@ -194,7 +230,7 @@ public class QueryResults
                 .add("partialCancelUri", partialCancelUri)
                 .add("nextUri", nextUri)
                 .add("columns", columns)
-                .add("hasData", data != null)
+                .add("hasData", data != null || binaryData != null)
                 .add("stats", stats)
                 .add("error", error)
                 .add("updateType", updateType)
@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2018-2022. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.client;
+
+/**
+ * Encoding of the rows returned in {@link QueryResults}, requested by the client
+ * through the {@link PrestoHeaders#PRESTO_RESULT_FORMAT} header.
+ */
+public enum ResultFormat
+{
+    /**
+     * Rows are encoded value by value as JSON arrays
+     */
+    JSON,
+    /**
+     * Rows are returned as serialized, compressed pages in columnar block encoding.
+     * The server falls back to {@link #JSON} when a column type cannot be decoded by the client.
+     */
+    BINARY;
+}
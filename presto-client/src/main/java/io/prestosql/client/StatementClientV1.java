@@ -97,6 +97,7 @@ class StatementClientV1
     private final String user;
     private final String clientCapabilities;
     private final boolean timeInMilliseconds;
+    private final ResultFormat resultFormat;
 
     private final AtomicReference<State> state = new AtomicReference<>(State.RUNNING);
 
@@ -113,6 +114,7 @@ class StatementClientV1
         this.user = session.getUser();
         this.clientCapabilities = Joiner.on(",").join(ClientCapabilities.values());
         this.timeInMilliseconds = session.isTimeInMilliseconds();
+        this.resultFormat = session.getResultFormat();
 
         Request request = buildQueryRequest(session, query);
 
@@ -363,10 +365,14 @@ class StatementClientV1
 
     private Request.Builder prepareRequest(HttpUrl url)
     {
-        return new Request.Builder()
+        Request.Builder builder = new Request.Builder()
                 .addHeader(PrestoHeaders.PRESTO_USER, user)
                 .addHeader(USER_AGENT, USER_AGENT_VALUE)
                 .url(url);
+        if (resultFormat != ResultFormat.JSON) {
+            builder.addHeader(PrestoHeaders.PRESTO_RESULT_FORMAT, resultFormat.name());
+        }
+        return builder;
     }
 
     @Override
@@ -48,7 +48,23 @@ public final class ExternalBlockEncodingSerde
 
     public ExternalBlockEncodingSerde(TypeManager typeManager)
     {
-        blockEncodings = ImmutableMap.<String, BlockEncoding>builder().put(VariableWidthBlockEncoding.NAME,
+        blockEncodings = baseBlockEncodings()
+                .put(MapBlockEncoding.NAME, new MapBlockEncoding(typeManager))
+                .put(SingleMapBlockEncoding.NAME, new SingleMapBlockEncoding(typeManager))
+                .build();
+    }
+
+    /**
+     * Creates a serde for clients that have no {@link TypeManager}, map blocks cannot be read or written.
+     */
+    public ExternalBlockEncodingSerde()
+    {
+        blockEncodings = baseBlockEncodings().build();
+    }
+
+    private static ImmutableMap.Builder<String, BlockEncoding> baseBlockEncodings()
+    {
+        return ImmutableMap.<String, BlockEncoding>builder().put(VariableWidthBlockEncoding.NAME,
                 new VariableWidthBlockEncoding())
                 .put(ByteArrayBlockEncoding.NAME, new ByteArrayBlockEncoding())
                 .put(ShortArrayBlockEncoding.NAME, new ShortArrayBlockEncoding())
@@ -57,13 +73,10 @@ public final class ExternalBlockEncodingSerde
                 .put(Int128ArrayBlockEncoding.NAME, new Int128ArrayBlockEncoding())
                 .put(DictionaryBlockEncoding.NAME, new DictionaryBlockEncoding())
                 .put(ArrayBlockEncoding.NAME, new ArrayBlockEncoding())
-                .put(MapBlockEncoding.NAME, new MapBlockEncoding(typeManager))
-                .put(SingleMapBlockEncoding.NAME, new SingleMapBlockEncoding(typeManager))
                 .put(RowBlockEncoding.NAME, new RowBlockEncoding())
                 .put(SingleRowBlockEncoding.NAME, new SingleRowBlockEncoding())
                 .put(RunLengthBlockEncoding.NAME, new RunLengthBlockEncoding())
-                .put(LazyBlockEncoding.NAME, new LazyBlockEncoding())
-                .build();
+                .put(LazyBlockEncoding.NAME, new LazyBlockEncoding());
     }
 
     @Override
@@ -0,0 +1,280 @@
+/*
+ * Copyright (C) 2018-2022. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.client.protocol;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.hetu.core.transport.execution.buffer.PagesSerde;
+import io.hetu.core.transport.execution.buffer.PagesSerdeFactory;
+import io.hetu.core.transport.execution.buffer.SerializedPage;
+import io.prestosql.client.Column;
+import io.prestosql.client.block.ExternalBlockEncodingSerde;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.Block;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.prestosql.client.ClientStandardTypes.BIGINT;
+import static io.prestosql.client.ClientStandardTypes.BOOLEAN;
+import static io.prestosql.client.ClientStandardTypes.DOUBLE;
+import static io.prestosql.client.ClientStandardTypes.INTEGER;
+import static io.prestosql.client.ClientStandardTypes.REAL;
+import static io.prestosql.client.ClientStandardTypes.SMALLINT;
+import static io.prestosql.client.ClientStandardTypes.TINYINT;
+import static io.prestosql.client.ClientStandardTypes.VARBINARY;
+import static io.prestosql.client.ClientStandardTypes.VARCHAR;
+import static java.lang.Double.longBitsToDouble;
+import static java.lang.Float.intBitsToFloat;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Rows of a binary (columnar) query result. Every serialized page is decoded once into
+ * typed column buffers, rows are then materialized from those buffers on iteration, so
+ * the values have the same Java types as the ones produced for JSON results.
+ */
+public class ColumnarQueryData
+        implements Iterable<List<Object>>
+{
+    private static final Set<String> SUPPORTED_TYPES = ImmutableSet.of(BOOLEAN, TINYINT, SMALLINT, INTEGER, BIGINT, REAL, DOUBLE, VARCHAR, VARBINARY);
+
+    private final List<ColumnBuffer[]> pages;
+
+    private ColumnarQueryData(List<ColumnBuffer[]> pages)
+    {
+        this.pages = pages;
+    }
+
+    /**
+     * Whether the result can be sent in binary format, the client only decodes types
+     * that do not need a type manager or session to be converted to Java values.
+     */
+    public static boolean isSupported(List<Column> columns)
+    {
+        return columns.stream().allMatch(column -> SUPPORTED_TYPES.contains(column.getTypeSignature().getRawType()));
+    }
+
+    public static ColumnarQueryData decode(List<Column> columns, List<SerializedPage> serializedPages)
+    {
+        requireNonNull(columns, "columns is null");
+        requireNonNull(serializedPages, "serializedPages is null");
+        checkArgument(isSupported(columns), "binary results are not supported for columns: %s", columns);
+
+        // serde is not thread safe, results are decoded on the caller's thread
+        PagesSerde serde = new PagesSerdeFactory(new ExternalBlockEncodingSerde(), true).createPagesSerde();
+        ImmutableList.Builder<ColumnBuffer[]> pages = ImmutableList.builder();
+        for (SerializedPage serializedPage : serializedPages) {
+            Page page = serde.deserialize(serializedPage);
+            checkArgument(page.getChannelCount() == columns.size(), "page/column size mismatch");
+            ColumnBuffer[] buffers = new ColumnBuffer[columns.size()];
+            for (int channel = 0; channel < columns.size(); channel++) {
+                buffers[channel] = ColumnBuffer.create(columns.get(channel).getTypeSignature().getRawType(), page.getBlock(channel));
+            }
+            pages.add(buffers);
+        }
+        return new ColumnarQueryData(pages.build());
+    }
+
+    @Override
+    public Iterator<List<Object>> iterator()
+    {
+        return new AbstractIterator<List<Object>>()
+        {
+            private final Iterator<ColumnBuffer[]> pageIterator = pages.iterator();
+            private ColumnBuffer[] page;
+            private int position;
+
+            @Override
+            protected List<Object> computeNext()
+            {
+                while (page == null || page.length == 0 || position >= page[0].getPositionCount()) {
+                    if (!pageIterator.hasNext()) {
+                        return endOfData();
+                    }
+                    page = pageIterator.next();
+                    position = 0;
+                }
+
+                List<Object> row = new ArrayList<>(page.length);
+                for (ColumnBuffer column : page) {
+                    row.add(column.get(position));
+                }
+                position++;
+                return Collections.unmodifiableList(row); // allow nulls in list
+            }
+        };
+    }
+
+    private abstract static class ColumnBuffer
+    {
+        protected final boolean[] nulls;
+
+        ColumnBuffer(Block block)
+        {
+            nulls = new boolean[block.getPositionCount()];
+            for (int position = 0; position < nulls.length; position++) {
+                nulls[position] = block.isNull(position);
+            }
+        }
+
+        static ColumnBuffer create(String rawType, Block block)
+        {
+            switch (rawType) {
+                case BOOLEAN:
+                case TINYINT:
+                case SMALLINT:
+                case INTEGER:
+                case BIGINT:
+                    return new LongColumnBuffer(rawType, block);
+                case REAL:
+                case DOUBLE:
+                    return new DoubleColumnBuffer(rawType, block);
+                case VARCHAR:
+                case VARBINARY:
+                    return new SliceColumnBuffer(rawType, block);
+                default:
+                    throw new IllegalArgumentException("Unsupported type for binary results: " + rawType);
+            }
+        }
+
+        int getPositionCount()
+        {
+            return nulls.length;
+        }
+
+        Object get(int position)
+        {
+            if (nulls[position]) {
+                return null;
+            }
+            return getValue(position);
+        }
+
+        abstract Object getValue(int position);
+    }
+
+    private static class LongColumnBuffer
+            extends ColumnBuffer
+    {
+        private final String rawType;
+        private final long[] values;
+
+        LongColumnBuffer(String rawType, Block block)
+        {
+            super(block);
+            this.rawType = rawType;
+            this.values = new long[block.getPositionCount()];
+            for (int position = 0; position < values.length; position++) {
+                if (nulls[position]) {
+                    continue;
+                }
+                switch (rawType) {
+                    case BOOLEAN:
+                    case TINYINT:
+                        values[position] = block.getByte(position, 0);
+                        break;
+                    case SMALLINT:
+                        values[position] = block.getShort(position, 0);
+                        break;
+                    case INTEGER:
+                        values[position] = block.getInt(position, 0);
+                        break;
+                    default:
+                        values[position] = block.getLong(position, 0);
+                }
+            }
+        }
+
+        @Override
+        Object getValue(int position)
+        {
+            long value = values[position];
+            switch (rawType) {
+                case BOOLEAN:
+                    return value != 0;
+                case TINYINT:
+                    return (byte) value;
+                case SMALLINT:
+                    return (short) value;
+                case INTEGER:
+                    return (int) value;
+                default:
+                    return value;
+            }
+        }
+    }
+
+    private static class DoubleColumnBuffer
+            extends ColumnBuffer
+    {
+        private final boolean real;
+        private final double[] values;
+
+        DoubleColumnBuffer(String rawType, Block block)
+        {
+            super(block);
+            this.real = REAL.equals(rawType);
+            this.values = new double[block.getPositionCount()];
+            for (int position = 0; position < values.length; position++) {
+                if (nulls[position]) {
+                    continue;
+                }
+                values[position] = real ? intBitsToFloat(block.getInt(position, 0)) : longBitsToDouble(block.getLong(position, 0));
+            }
+        }
+
+        @Override
+        Object getValue(int position)
+        {
+            return real ? (Object) (float) values[position] : (Object) values[position];
+        }
+    }
+
+    private static class SliceColumnBuffer
+            extends ColumnBuffer
+    {
+        private final Object[] values;
+
+        SliceColumnBuffer(String rawType, Block block)
+        {
+            super(block);
+            boolean varchar = VARCHAR.equals(rawType);
+            this.values = new Object[block.getPositionCount()];
+            for (int position = 0; position < values.length; position++) {
+                if (nulls[position]) {
+                    continue;
+                }
+                int length = block.getSliceLength(position);
+                if (varchar) {
+                    values[position] = block.getSlice(position, 0, length).toStringUtf8();
+                }
+                else {
+                    values[position] = block.getSlice(position, 0, length).getBytes();
+                }
+            }
+        }
+
+        @Override
+        Object getValue(int position)
+        {
+            return values[position];
+        }
+    }
+}
@@ -13,11 +13,29 @@
  */
 package io.prestosql.client;
 
+import com.google.common.collect.ImmutableList;
 import io.airlift.json.JsonCodec;
+import io.hetu.core.transport.execution.buffer.PagesSerde;
+import io.hetu.core.transport.execution.buffer.PagesSerdeFactory;
+import io.prestosql.client.block.ExternalBlockEncodingSerde;
+import io.prestosql.client.protocol.ColumnarQueryData;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.type.StandardTypes;
 import org.testng.annotations.Test;
 
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+
 import static io.airlift.json.JsonCodec.jsonCodec;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.DoubleType.DOUBLE;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
 
 public class TestQueryResults
 {
@@ -62,4 +80,56 @@ public class TestQueryResults
         QueryResults results = QUERY_RESULTS_CODEC.fromJson(goldenValue);
         assertEquals(results.getId(), "20160128_214710_00012_rk68b");
     }
+
+    @Test
+    public void testBinaryData()
+    {
+        List<Column> columns = ImmutableList.of(
+                new Column("id", StandardTypes.BIGINT, new ClientTypeSignature(StandardTypes.BIGINT)),
+                new Column("price", StandardTypes.DOUBLE, new ClientTypeSignature(StandardTypes.DOUBLE)),
+                new Column("name", StandardTypes.VARCHAR, new ClientTypeSignature(StandardTypes.VARCHAR)));
+
+        BlockBuilder ids = BIGINT.createBlockBuilder(null, 3);
+        BlockBuilder prices = DOUBLE.createBlockBuilder(null, 3);
+        BlockBuilder names = VARCHAR.createBlockBuilder(null, 3);
+        BIGINT.writeLong(ids, 1);
+        DOUBLE.writeDouble(prices, 1.5);
+        VARCHAR.writeString(names, "apple");
+        BIGINT.writeLong(ids, 2);
+        prices.appendNull();
+        VARCHAR.writeString(names, "banana");
+        Page page = new Page(ids.build(), prices.build(), names.build());
+
+        PagesSerde serde = new PagesSerdeFactory(new ExternalBlockEncodingSerde(), true).createPagesSerde();
+        QueryResults results = new QueryResults(
+                "20160128_214710_00012_rk68b",
+                URI.create("http://localhost:54855/query.html?20160128_214710_00012_rk68b"),
+                null,
+                null,
+                columns,
+                (Iterable<List<Object>>) null,
+                ImmutableList.of(serde.serialize(page)),
+                StatementStats.builder().setState("FINISHED").build(),
+                null,
+                ImmutableList.of(),
+                null,
+                null);
+        assertNull(results.getData());
+
+        QueryResults decoded = QUERY_RESULTS_CODEC.fromJson(QUERY_RESULTS_CODEC.toJson(results));
+        assertNull(decoded.getBinaryData());
+        assertEquals(ImmutableList.copyOf(decoded.getData()), ImmutableList.of(
+                ImmutableList.of(1L, 1.5, "apple"),
+                Arrays.asList(2L, null, "banana")));
+    }
+
+    @Test
+    public void testBinaryDataSupportedColumns()
+    {
+        assertTrue(ColumnarQueryData.isSupported(ImmutableList.of(
+                new Column("_col0", StandardTypes.INTEGER, new ClientTypeSignature(StandardTypes.INTEGER)),
+                new Column("_col1", StandardTypes.VARBINARY, new ClientTypeSignature(StandardTypes.VARBINARY)))));
+        assertFalse(ColumnarQueryData.isSupported(ImmutableList.of(
+                new Column("_col0", StandardTypes.DATE, new ClientTypeSignature(StandardTypes.DATE)))));
+    }
 }
@@ -90,6 +90,10 @@ public class HiveConfig
     private Duration metastoreDBCacheTtl = new Duration(0, TimeUnit.SECONDS);
     private Duration metastoreDBRefreshInterval = new Duration(1, TimeUnit.SECONDS);
 
+    private boolean metastoreCacheEventInvalidationEnabled;
+    private Duration metastoreCacheEventPollInterval = new Duration(10, TimeUnit.SECONDS);
+    private int metastoreCacheEventBatchSize = 1000;
+
     private long metastoreCacheMaximumSize = 10000;
     private long perTransactionMetastoreCacheMaximumSize = 1000;
     private int maxMetastoreRefreshThreads = 100;
@@ -156,6 +160,9 @@ public class HiveConfig
     private boolean orcRowDataCacheEnabled;
     private Duration orcRowDataCacheTtl = new Duration(4, HOURS);
     private DataSize orcRowDataCacheMaximumWeight = new DataSize(20, GIGABYTE);
+    private boolean orcDeleteDeltaCacheEnabled;
+    private Duration orcDeleteDeltaCacheTtl = new Duration(4, HOURS);
+    private DataSize orcDeleteDeltaCacheMaximumWeight = new DataSize(1, GIGABYTE);
 
     private String rcfileTimeZone = TimeZone.getDefault().getID();
     private boolean rcfileWriterValidate;
@@ -493,6 +500,47 @@ public class HiveConfig
         return this;
     }
 
+    public boolean isMetastoreCacheEventInvalidationEnabled()
+    {
+        return metastoreCacheEventInvalidationEnabled;
+    }
+
+    @Config("hive.metastore-cache.event-invalidation.enabled")
+    @ConfigDescription("Invalidate metastore cache entries from the Hive metastore notification log")
+    public HiveConfig setMetastoreCacheEventInvalidationEnabled(boolean metastoreCacheEventInvalidationEnabled)
+    {
+        this.metastoreCacheEventInvalidationEnabled = metastoreCacheEventInvalidationEnabled;
+        return this;
+    }
+
+    @NotNull
+    public @MinDuration("1ms") Duration getMetastoreCacheEventPollInterval()
+    {
+        return metastoreCacheEventPollInterval;
+    }
+
+    @Config("hive.metastore-cache.event-poll-interval")
+    @ConfigDescription("Interval between reads of the Hive metastore notification log")
+    public HiveConfig setMetastoreCacheEventPollInterval(Duration metastoreCacheEventPollInterval)
+    {
+        this.metastoreCacheEventPollInterval = metastoreCacheEventPollInterval;
+        return this;
+    }
+
+    @Min(1)
+    public int getMetastoreCacheEventBatchSize()
+    {
+        return metastoreCacheEventBatchSize;
+    }
+
+    @Config("hive.metastore-cache.event-batch-size")
+    @ConfigDescription("Maximum number of notification events read from the Hive metastore at a time")
+    public HiveConfig setMetastoreCacheEventBatchSize(int metastoreCacheEventBatchSize)
+    {
+        this.metastoreCacheEventBatchSize = metastoreCacheEventBatchSize;
+        return this;
+    }
+
     @Min(1)
     public long getMetastoreCacheMaximumSize()
     {
@@ -1681,6 +1729,46 @@ public class HiveConfig
         return this;
     }
 
+    public boolean isOrcDeleteDeltaCacheEnabled()
+    {
+        return orcDeleteDeltaCacheEnabled;
+    }
+
+    @Config("hive.orc.delete-delta.cache.enabled")
+    @ConfigDescription("Enable caching of deleted row ids read from Orc ACID delete delta files.")
+    public HiveConfig setOrcDeleteDeltaCacheEnabled(boolean orcDeleteDeltaCacheEnabled)
+    {
+        this.orcDeleteDeltaCacheEnabled = orcDeleteDeltaCacheEnabled;
+        return this;
+    }
+
+    @MinDuration("0ms")
+    public Duration getOrcDeleteDeltaCacheTtl()
+    {
+        return orcDeleteDeltaCacheTtl;
+    }
+
+    @Config("hive.orc.delete-delta.cache.ttl")
+    @ConfigDescription("Orc delete delta cache TTL.")
+    public HiveConfig setOrcDeleteDeltaCacheTtl(Duration orcDeleteDeltaCacheTtl)
+    {
+        this.orcDeleteDeltaCacheTtl = orcDeleteDeltaCacheTtl;
+        return this;
+    }
+
+    public DataSize getOrcDeleteDeltaCacheMaximumWeight()
+    {
+        return orcDeleteDeltaCacheMaximumWeight;
+    }
+
+    @Config("hive.orc.delete-delta.cache.max.weight")
+    @ConfigDescription("Orc delete delta cache max weight.")
+    public HiveConfig setOrcDeleteDeltaCacheMaximumWeight(DataSize orcDeleteDeltaCacheMaximumWeight)
+    {
+        this.orcDeleteDeltaCacheMaximumWeight = orcDeleteDeltaCacheMaximumWeight;
+        return this;
+    }
+
     @Config("hive.transaction-heartbeat-interval")
     @ConfigDescription("Interval after which heartbeat is sent for open Hive transaction")
     public HiveConfig setHiveTransactionHeartbeatInterval(Duration interval)
@@ -49,6 +49,7 @@ import io.prestosql.spi.connector.classloader.ClassLoaderSafeConnectorSplitManag
 import io.prestosql.spi.connector.classloader.ClassLoaderSafeNodePartitioningProvider;
 import io.prestosql.spi.heuristicindex.IndexClient;
 import io.prestosql.spi.procedure.Procedure;
+import io.prestosql.spi.statestore.StateStore;
 import io.prestosql.spi.type.TypeManager;
 import org.weakref.jmx.guice.MBeanModule;
 
@@ -116,6 +117,7 @@ public class HiveConnectorFactory
                         binder.bind(PageSorter.class).toInstance(context.getPageSorter());
                         binder.bind(HiveCatalogName.class).toInstance(new HiveCatalogName(catalogName));
                         binder.bind(IndexClient.class).toInstance(context.getIndexClient());
+                        binder.bind(new TypeLiteral<Optional<StateStore>>() {}).toInstance(getStateStore(context));
                     });
 
             Injector injector = app
@@ -159,4 +161,14 @@ public class HiveConnectorFactory
             throw new RuntimeException(e);
         }
     }
+
+    private static Optional<StateStore> getStateStore(ConnectorContext context)
+    {
+        try {
+            return Optional.ofNullable(context.getStateStore());
+        }
+        catch (UnsupportedOperationException e) {
+            return Optional.empty();
+        }
+    }
 }
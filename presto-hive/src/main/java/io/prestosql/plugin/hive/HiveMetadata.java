@@ -25,6 +25,7 @@ import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import com.google.common.hash.Hasher;
 import io.airlift.json.JsonCodec;
 import io.airlift.log.Logger;
 import io.airlift.slice.Slice;
@@ -100,7 +101,9 @@ import io.prestosql.spi.type.TypeManager;
 import io.prestosql.spi.type.VarcharType;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocatedFileStatus;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
 import org.apache.hadoop.hive.metastore.TableType;
 import org.apache.hadoop.hive.ql.exec.FileSinkOperator;
 import org.apache.hadoop.hive.ql.io.AcidUtils;
@@ -125,6 +128,7 @@ import java.util.OptionalInt;
 import java.util.OptionalLong;
 import java.util.Properties;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
@@ -144,6 +148,7 @@ import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static com.google.common.collect.Iterables.concat;
 import static com.google.common.collect.Iterables.getOnlyElement;
 import static com.google.common.collect.Streams.stream;
+import static com.google.common.hash.Hashing.sha256;
 import static io.prestosql.plugin.hive.HiveBucketing.bucketedOnTimestamp;
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_FILESYSTEM_ERROR;
 import static io.prestosql.plugin.hive.HiveStorageFormat.ORC;
@@ -186,6 +191,7 @@ import static io.prestosql.spi.statistics.TableStatisticType.ROW_COUNT;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.spi.type.VarcharType.createUnboundedVarcharType;
 import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.emptyMap;
 import static java.util.Locale.ENGLISH;
@@ -227,6 +233,9 @@ public class HiveMetadata
     private static final String CSV_QUOTE_KEY = OpenCSVSerde.QUOTECHAR;
     private static final String CSV_ESCAPE_KEY = OpenCSVSerde.ESCAPECHAR;
 
+    // listing the files of more partitions to derive a data version costs more than running most queries again
+    private static final int MAX_DATA_VERSION_PARTITIONS = 1000;
+
     protected final SemiTransactionalHiveMetastore metastore;
     protected final HdfsEnvironment hdfsEnvironment;
     private final HivePartitionManager partitionManager;
@@ -248,6 +257,7 @@ public class HiveMetadata
     protected final ScheduledExecutorService hiveMetastoreClientService;
     private final long vacuumCollectorInterval;
     private final HdfsStorageMonitor hdfsStorageMonitor;
+    private final ReadAmplificationStats readAmplificationStats;
 
     private boolean externalTable;
 
@@ -271,7 +281,8 @@ public class HiveMetadata
             ScheduledExecutorService vacuumExecutorService,
             Optional<Duration> vacuumCollectorInterval,
             ScheduledExecutorService hiveMetastoreClientService,
-            HdfsStorageMonitor hdfsStorageMonitor)
+            HdfsStorageMonitor hdfsStorageMonitor,
+            ReadAmplificationStats readAmplificationStats)
     {
         this.metastore = requireNonNull(metastore, "metastore is null");
         this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
@@ -296,6 +307,7 @@ public class HiveMetadata
                 .orElseThrow(() -> new PrestoException(GENERIC_INTERNAL_ERROR, "Vacuum collector interval is not set correctly"));
         this.hiveMetastoreClientService = hiveMetastoreClientService;
         this.hdfsStorageMonitor = hdfsStorageMonitor;
+        this.readAmplificationStats = requireNonNull(readAmplificationStats, "readAmplificationStats is null");
     }
 
     public SemiTransactionalHiveMetastore getMetastore()
@@ -690,6 +702,71 @@ public class HiveMetadata
         }
     }
 
+    /**
+     * The data version is a hash of the files in the partitions the table handle reads. The modification time of
+     * the table or partition directories does not change when files inside an existing partition are added or
+     * overwritten, and the metastore is not told about files written by other engines.
+     */
+    @Override
+    public Optional<String> getTableDataVersion(ConnectorSession session, ConnectorTableHandle tableHandle)
+    {
+        HiveTableHandle handle = (HiveTableHandle) tableHandle;
+        HiveIdentity identity = new HiveIdentity(session);
+        Table table = metastore.getTable(identity, handle.getSchemaName(), handle.getTableName())
+                .orElseThrow(() -> new TableNotFoundException(handle.getSchemaTableName()));
+
+        Map<String, Optional<String>> locations = new TreeMap<>();
+        if (table.getPartitionColumns().isEmpty()) {
+            locations.put(HivePartition.UNPARTITIONED_ID, Optional.of(table.getStorage().getLocation()));
+        }
+        else {
+            List<String> partitionNames = partitionManager.getOrLoadPartitions(session, metastore, identity, handle).stream()
+                    .map(HivePartition::getPartitionId)
+                    .collect(toImmutableList());
+            if (partitionNames.size() > MAX_DATA_VERSION_PARTITIONS) {
+                return Optional.empty();
+            }
+            if (!partitionNames.isEmpty()) {
+                metastore.getPartitionsByNames(identity, handle.getSchemaName(), handle.getTableName(), partitionNames)
+                        .forEach((name, partition) -> locations.put(name, partition.map(value -> value.getStorage().getLocation())));
+            }
+        }
+
+        Hasher hasher = sha256().newHasher();
+        try {
+            for (Map.Entry<String, Optional<String>> entry : locations.entrySet()) {
+                hasher.putString(entry.getKey(), UTF_8);
+                if (!entry.getValue().isPresent()) {
+                    hasher.putBoolean(false);
+                    continue;
+                }
+                Path location = new Path(entry.getValue().get());
+                FileSystem fileSystem = hdfsEnvironment.getFileSystem(new HdfsContext(session, handle.getSchemaName()), location);
+                if (!fileSystem.exists(location)) {
+                    hasher.putBoolean(false);
+                    continue;
+                }
+                hasher.putBoolean(true);
+                List<LocatedFileStatus> files = new ArrayList<>();
+                RemoteIterator<LocatedFileStatus> iterator = fileSystem.listFiles(location, true);
+                while (iterator.hasNext()) {
+                    files.add(iterator.next());
+                }
+                files.sort(Comparator.comparing(file -> file.getPath().toString()));
+                for (LocatedFileStatus file : files) {
+                    hasher.putString(file.getPath().toString(), UTF_8)
+                            .putLong(file.getLen())
+                            .putLong(file.getModificationTime());
+                }
+            }
+        }
+        catch (IOException | RuntimeException e) {
+            log.warn(e, "Failed to list the files of table %s", handle.getSchemaTableName());
+            return Optional.empty();
+        }
+        return Optional.of(hasher.hash().toString());
+    }
+
     @SuppressWarnings("TryWithIdenticalCatches")
     @Override
     public Map<SchemaTableName, List<ColumnMetadata>> listTableColumns(ConnectorSession session, SchemaTablePrefix prefix)
@@ -1926,6 +2003,7 @@ public class HiveMetadata
                         vacuumTableHandle.isUnifyVacuum() ? HiveACIDWriteType.VACUUM_UNIFY : HiveACIDWriteType.VACUUM);
 
         metastore.initiateVacuumCleanupTasks(vacuumTableHandle, session, partitionUpdates);
+        readAmplificationStats.reset(vacuumTableHandle.getSchemaName() + "." + vacuumTableHandle.getTableName());
         return connectorOutputMetadata;
     }
 
@@ -3233,7 +3311,7 @@ public class HiveMetadata
     public List<ConnectorVacuumTableInfo> getTablesForVacuum()
     {
         if (autoVacuumEnabled) {
-            return VacuumEligibleTableCollector.getVacuumTableList(metastore, hdfsEnvironment,
+            return VacuumEligibleTableCollector.getVacuumTableList(metastore, hdfsEnvironment, readAmplificationStats,
                     vacuumDeltaNumThreshold, vacuumDeltaPercentThreshold, vacuumExecutorService, vacuumCollectorInterval);
         }
         return null;
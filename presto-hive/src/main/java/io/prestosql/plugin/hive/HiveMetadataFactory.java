@@ -70,6 +70,7 @@ public class HiveMetadataFactory
     private Optional<Duration> vacuumCollectorInterval;
     protected final int hmsWriteBatchSize;
     protected final HdfsStorageMonitor hdfsStorageMonitor;
+    private final ReadAmplificationStats readAmplificationStats;
 
     @Inject
     @SuppressWarnings("deprecation")
@@ -88,7 +89,8 @@ public class HiveMetadataFactory
             TypeTranslator typeTranslator,
             NodeVersion nodeVersion,
             AccessControlMetadataFactory accessControlMetadataFactory,
-            HdfsStorageMonitor hdfsStorageMonitor)
+            HdfsStorageMonitor hdfsStorageMonitor,
+            ReadAmplificationStats readAmplificationStats)
     {
         this(
                 metastore,
@@ -118,7 +120,8 @@ public class HiveMetadataFactory
                 hiveConfig.getAutoVacuumEnabled(),
                 hiveConfig.getVacuumCollectorInterval(),
                 hiveConfig.getMetastoreWriteBatchSize(),
-                hdfsStorageMonitor);
+                hdfsStorageMonitor,
+                readAmplificationStats);
     }
 
     public HiveMetadataFactory(
@@ -148,7 +151,8 @@ public class HiveMetadataFactory
             double vacuumDeltaPercentThreshold,
             boolean autoVacuumEnabled,
             Optional<Duration> vacuumCollectorInterval,
-            int hmsWriteBatchSize, HdfsStorageMonitor hdfsStorageMonitor)
+            int hmsWriteBatchSize, HdfsStorageMonitor hdfsStorageMonitor,
+            ReadAmplificationStats readAmplificationStats)
     {
         this.skipDeletionForAlter = skipDeletionForAlter;
         this.skipTargetCleanupOnRollback = skipTargetCleanupOnRollback;
@@ -179,6 +183,7 @@ public class HiveMetadataFactory
         this.vacuumCollectorInterval = vacuumCollectorInterval;
         this.hmsWriteBatchSize = hmsWriteBatchSize;
         this.hdfsStorageMonitor = hdfsStorageMonitor;
+        this.readAmplificationStats = requireNonNull(readAmplificationStats, "readAmplificationStats is null");
     }
 
     @Override
@@ -217,6 +222,7 @@ public class HiveMetadataFactory
                 hiveVacuumService,
                 vacuumCollectorInterval,
                 hiveMetastoreClientService,
-                hdfsStorageMonitor);
+                hdfsStorageMonitor,
+                readAmplificationStats);
     }
 }
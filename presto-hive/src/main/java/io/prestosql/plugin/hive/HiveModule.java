@@ -32,6 +32,7 @@ import io.prestosql.orc.RowIndexCacheStatsLister;
 import io.prestosql.orc.StripeFooterCacheStatsLister;
 import io.prestosql.plugin.hive.metastore.SemiTransactionalHiveMetastore;
 import io.prestosql.plugin.hive.monitor.HdfsStorageMonitor;
+import io.prestosql.plugin.hive.orc.OrcDeletedRowsCache;
 import io.prestosql.plugin.hive.orc.OrcPageSourceFactory;
 import io.prestosql.plugin.hive.orc.OrcSelectivePageSourceFactory;
 import io.prestosql.plugin.hive.parquet.ParquetPageSourceFactory;
@@ -100,6 +101,7 @@ public class HiveModule
         binder.bind(HdfsStorageMonitor.class).in(Scopes.SINGLETON);
         binder.bind(HivePartitionManager.class).in(Scopes.SINGLETON);
         binder.bind(LocationService.class).to(HiveLocationService.class).in(Scopes.SINGLETON);
+        binder.bind(ReadAmplificationStats.class).in(Scopes.SINGLETON);
         binder.bind(HiveMetadataFactory.class).in(Scopes.SINGLETON);
         binder.bind(new TypeLiteral<Supplier<TransactionalMetadata>>() {}).to(HiveMetadataFactory.class).in(Scopes.SINGLETON);
         binder.bind(HiveTransactionManager.class).in(Scopes.SINGLETON);
@@ -144,6 +146,8 @@ public class HiveModule
         newExporter(binder).export(BloomFilterCacheStatsLister.class).withGeneratedName();
         binder.bind(RowDataCacheStatsLister.class).in(Scopes.SINGLETON);
         newExporter(binder).export(RowDataCacheStatsLister.class).withGeneratedName();
+        binder.bind(OrcDeletedRowsCache.class).in(Scopes.SINGLETON);
+        newExporter(binder).export(OrcDeletedRowsCache.class).withGeneratedName();
     }
 
     @ForHive
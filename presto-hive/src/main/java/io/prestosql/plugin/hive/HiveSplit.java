@@ -34,7 +34,9 @@ import static io.prestosql.spi.util.SizeOf.INTEGER_INSTANCE_SIZE;
 import static io.prestosql.spi.util.SizeOf.LONG_INSTANCE_SIZE;
 import static io.prestosql.spi.util.SizeOf.estimatedSizeOf;
 import static io.prestosql.spi.util.SizeOf.sizeOf;
+import static java.lang.Math.min;
 import static java.util.Objects.requireNonNull;
+import static org.apache.hadoop.hive.serde.serdeConstants.SERIALIZATION_LIB;
 
 public class HiveSplit
 {
@@ -291,6 +293,59 @@ public class HiveSplit
         return startRowOffsetOfFile;
     }
 
+    /**
+     * Divides the byte range of this split into at most {@code maxParts} sub-ranges of at least {@code minLength} bytes.
+     * ORC and Parquet readers only read the stripes or row groups that start within the range of a split, so the
+     * sub-splits together read exactly the rows of this split. Other formats, ACID and cached splits are not divided.
+     */
+    public List<HiveSplit> divide(int maxParts, long minLength)
+    {
+        int parts = (int) min(maxParts, length / minLength);
+        if (parts <= 1 || !isDivisible()) {
+            return ImmutableList.of(this);
+        }
+
+        ImmutableList.Builder<HiveSplit> subSplits = ImmutableList.builder();
+        for (int part = 0; part < parts; part++) {
+            long partStart = start + length * part / parts;
+            long partEnd = start + length * (part + 1) / parts;
+            subSplits.add(new HiveSplit(
+                    database,
+                    table,
+                    partitionName,
+                    path,
+                    partStart,
+                    partEnd - partStart,
+                    fileSize,
+                    lastModifiedTime,
+                    schema,
+                    partitionKeys,
+                    addresses,
+                    bucketNumber,
+                    forceLocalScheduling,
+                    columnCoercions,
+                    bucketConversion,
+                    s3SelectPushdownEnabled,
+                    deleteDeltaLocations,
+                    startRowOffsetOfFile,
+                    cacheable,
+                    customSplitInfo));
+        }
+        return subSplits.build();
+    }
+
+    private boolean isDivisible()
+    {
+        String serde = schema.getProperty(SERIALIZATION_LIB);
+        boolean columnarFormat = HiveStorageFormat.ORC.getSerDe().equals(serde) || HiveStorageFormat.PARQUET.getSerDe().equals(serde);
+        return columnarFormat
+                && !deleteDeltaLocations.isPresent()
+                && !startRowOffsetOfFile.isPresent()
+                && !s3SelectPushdownEnabled
+                && !cacheable
+                && customSplitInfo.isEmpty();
+    }
+
     public long getRetainedSizeInBytes()
     {
         return INSTANCE_SIZE
@@ -44,6 +44,7 @@ import io.prestosql.spi.dynamicfilter.DynamicFilter;
 import io.prestosql.spi.predicate.TupleDomain;
 import io.prestosql.spi.resourcegroups.QueryType;
 import io.prestosql.spi.type.TypeManager;
+import org.apache.hadoop.hive.ql.io.AcidUtils;
 import org.weakref.jmx.Managed;
 import org.weakref.jmx.Nested;
 
@@ -99,6 +100,7 @@ public class HiveSplitManager
     private final CounterStat highMemorySplitSourceCounter;
     private final TypeManager typeManager;
     private final HiveConfig hiveConfig;
+    private final ReadAmplificationStats readAmplificationStats;
 
     @Inject
     public HiveSplitManager(
@@ -111,7 +113,8 @@ public class HiveSplitManager
             @ForHive ExecutorService executorService,
             VersionEmbedder versionEmbedder,
             TypeManager typeManager,
-            CoercionPolicy coercionPolicy)
+            CoercionPolicy coercionPolicy,
+            ReadAmplificationStats readAmplificationStats)
     {
         this(
                 metastoreProvider,
@@ -131,7 +134,8 @@ public class HiveSplitManager
                 hiveConfig.getMaxSplitsPerSecond(),
                 hiveConfig.getRecursiveDirWalkerEnabled(),
                 typeManager,
-                hiveConfig);
+                hiveConfig,
+                readAmplificationStats);
     }
 
     public HiveSplitManager(
@@ -152,7 +156,8 @@ public class HiveSplitManager
             @Nullable Integer maxSplitsPerSecond,
             boolean recursiveDfsWalkerEnabled,
             TypeManager typeManager,
-            HiveConfig hiveConfig)
+            HiveConfig hiveConfig,
+            ReadAmplificationStats readAmplificationStats)
     {
         this.metastoreProvider = requireNonNull(metastoreProvider, "metastore is null");
         this.partitionManager = requireNonNull(partitionManager, "partitionManager is null");
@@ -173,6 +178,7 @@ public class HiveSplitManager
         this.recursiveDfsWalkerEnabled = recursiveDfsWalkerEnabled;
         this.typeManager = typeManager;
         this.hiveConfig = hiveConfig;
+        this.readAmplificationStats = requireNonNull(readAmplificationStats, "readAmplificationStats is null");
     }
 
     @Override
@@ -303,6 +309,9 @@ public class HiveSplitManager
             return new HiveVacuumSplitSource(splitSource, (HiveVacuumTableHandle) queryInfo.get("vacuumHandle"), hdfsEnvironment, hdfsContext, session);
         }
 
+        if (AcidUtils.isTransactionalTable(table.getParameters()) && !queryInfo.containsKey(PLANNING_SPLITS)) {
+            return new ReadAmplificationSplitSource(splitSource, readAmplificationStats, table.getDatabaseName() + "." + table.getTableName());
+        }
         return splitSource;
     }
 
@@ -18,23 +18,29 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import io.airlift.units.DataSize;
 import io.prestosql.spi.HostAddress;
 import io.prestosql.spi.connector.ConnectorSplit;
 import org.openjdk.jol.info.ClassLayout;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.OptionalInt;
 import java.util.stream.Collectors;
 
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.Iterables.getOnlyElement;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static io.prestosql.spi.util.SizeOf.estimatedSizeOf;
 import static io.prestosql.spi.util.SizeOf.sizeOf;
+import static java.lang.Math.min;
 import static java.util.Objects.requireNonNull;
 
 public class HiveSplitWrapper
         implements ConnectorSplit
 {
     private static final int INSTANCE_SIZE = ClassLayout.parseClass(HiveSplitWrapper.class).instanceSize();
+    private static final long MIN_DIVIDED_SPLIT_LENGTH = new DataSize(32, MEGABYTE).toBytes();
     private final List<HiveSplit> splits;
     private final OptionalInt bucketNumber;
 
@@ -77,6 +83,13 @@ public class HiveSplitWrapper
         return splits.stream().findFirst().orElseThrow(IllegalAccessError::new).isCacheable();
     }
 
+    @Override
+    public boolean isPageCacheable()
+    {
+        // the split key only identifies the first split of a group
+        return splits.size() == 1 && splits.get(0).isCacheable() && !splits.get(0).getDeleteDeltaLocations().isPresent();
+    }
+
     @JsonProperty
     public List<HiveSplit> getSplits()
     {
@@ -95,6 +108,30 @@ public class HiveSplitWrapper
         return splits.stream().map(x -> wrap(x)).collect(Collectors.toList());
     }
 
+    @Override
+    public List<ConnectorSplit> divide(int maxParts)
+    {
+        if (splits.size() > 1) {
+            // grouped splits are independent of each other, so deal them out round robin
+            int parts = min(maxParts, splits.size());
+            List<List<HiveSplit>> groups = new ArrayList<>(parts);
+            for (int part = 0; part < parts; part++) {
+                groups.add(new ArrayList<>());
+            }
+            for (int i = 0; i < splits.size(); i++) {
+                groups.get(i % parts).add(splits.get(i));
+            }
+            return groups.stream()
+                    .map(group -> wrap(group, bucketNumber))
+                    .collect(toImmutableList());
+        }
+
+        return splits.stream()
+                .flatMap(split -> split.divide(maxParts, MIN_DIVIDED_SPLIT_LENGTH).stream())
+                .map(HiveSplitWrapper::wrap)
+                .collect(toImmutableList());
+    }
+
     @JsonProperty
     public OptionalInt getBucketNumber()
     {
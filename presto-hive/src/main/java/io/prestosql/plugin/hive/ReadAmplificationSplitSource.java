@@ -0,0 +1,97 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive;
+
+import io.prestosql.spi.connector.ConnectorPartitionHandle;
+import io.prestosql.spi.connector.ConnectorSplit;
+import io.prestosql.spi.connector.ConnectorSplitSource;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Counts the read amplification of the splits a query scans into the {@link ReadAmplificationStats}
+ * of the catalog.
+ */
+public class ReadAmplificationSplitSource
+        implements ConnectorSplitSource
+{
+    private final ConnectorSplitSource delegate;
+    private final ReadAmplificationStats stats;
+    private final String schemaTable;
+
+    public ReadAmplificationSplitSource(ConnectorSplitSource delegate, ReadAmplificationStats stats, String schemaTable)
+    {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        this.stats = requireNonNull(stats, "stats is null");
+        this.schemaTable = requireNonNull(schemaTable, "schemaTable is null");
+    }
+
+    @Override
+    public CompletableFuture<ConnectorSplitBatch> getNextBatch(ConnectorPartitionHandle partitionHandle, int maxSize)
+    {
+        return delegate.getNextBatch(partitionHandle, maxSize).thenApply(batch -> {
+            recordSplits(batch.getSplits());
+            return batch;
+        });
+    }
+
+    private void recordSplits(List<ConnectorSplit> splits)
+    {
+        long hiveSplits = 0;
+        long deleteDeltaFiles = 0;
+        long deltaFileSplits = 0;
+        for (ConnectorSplit split : splits) {
+            for (HiveSplit hiveSplit : ((HiveSplitWrapper) split).getSplits()) {
+                hiveSplits++;
+                if (hiveSplit.getDeleteDeltaLocations().isPresent()) {
+                    deleteDeltaFiles += hiveSplit.getDeleteDeltaLocations().get().getDeleteDeltas().size();
+                }
+                if (ReadAmplificationStats.isInsertDeltaFile(hiveSplit.getPath())) {
+                    deltaFileSplits++;
+                }
+            }
+        }
+        if (deleteDeltaFiles > 0 || deltaFileSplits > 0) {
+            stats.recordSplits(schemaTable, hiveSplits, deleteDeltaFiles, deltaFileSplits);
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        delegate.close();
+    }
+
+    @Override
+    public boolean isFinished()
+    {
+        return delegate.isFinished();
+    }
+
+    @Override
+    public List<ConnectorSplit> groupSmallSplits(List<ConnectorSplit> pendingSplits, int maxGroupSize)
+    {
+        return delegate.groupSmallSplits(pendingSplits, maxGroupSize);
+    }
+
+    @Override
+    public Optional<List<Object>> getTableExecuteSplitsInfo()
+    {
+        return delegate.getTableExecuteSplitsInfo();
+    }
+}
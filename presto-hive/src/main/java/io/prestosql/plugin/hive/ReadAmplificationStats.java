@@ -0,0 +1,83 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.apache.hadoop.hive.ql.io.AcidUtils.DELTA_PREFIX;
+
+/**
+ * Read amplification of transactional tables, as seen while generating splits. Every split has
+ * to open the delete delta files of its bucket, and every split over an insert delta file reads a
+ * small file that vacuum would merge into the base. Both are counted per table of the catalog
+ * until the table is vacuumed, and rank the tables found by {@link VacuumEligibleTableCollector}.
+ * Splits enumerated while planning a query are not counted.
+ */
+@ThreadSafe
+public class ReadAmplificationStats
+{
+    private final Map<String, TableStats> tables = new ConcurrentHashMap<>();
+
+    public void recordSplits(String schemaTable, long splits, long deleteDeltaFiles, long deltaFileSplits)
+    {
+        TableStats stats = tables.computeIfAbsent(schemaTable, key -> new TableStats());
+        stats.splits.add(splits);
+        stats.deleteDeltaFiles.add(deleteDeltaFiles);
+        stats.deltaFileSplits.add(deltaFileSplits);
+    }
+
+    /**
+     * Number of extra files queries opened on the table since it was last vacuumed.
+     */
+    public double getWastedReadCost(String schemaTable)
+    {
+        TableStats stats = tables.get(schemaTable);
+        if (stats == null) {
+            return 0;
+        }
+        return stats.deleteDeltaFiles.sum() + stats.deltaFileSplits.sum();
+    }
+
+    public long getSplitCount(String schemaTable)
+    {
+        TableStats stats = tables.get(schemaTable);
+        return stats == null ? 0 : stats.splits.sum();
+    }
+
+    public void reset(String schemaTable)
+    {
+        tables.remove(schemaTable);
+    }
+
+    static boolean isInsertDeltaFile(String path)
+    {
+        int fileStart = path.lastIndexOf('/');
+        if (fileStart <= 0) {
+            return false;
+        }
+        int directoryStart = path.lastIndexOf('/', fileStart - 1) + 1;
+        return path.startsWith(DELTA_PREFIX, directoryStart);
+    }
+
+    private static class TableStats
+    {
+        private final LongAdder splits = new LongAdder();
+        private final LongAdder deleteDeltaFiles = new LongAdder();
+        private final LongAdder deltaFileSplits = new LongAdder();
+    }
+}
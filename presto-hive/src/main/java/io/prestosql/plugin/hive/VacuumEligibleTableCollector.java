@@ -52,6 +52,7 @@ public class VacuumEligibleTableCollector
 
     private SemiTransactionalHiveMetastore metastore;
     private HdfsEnvironment hdfsEnvironment;
+    private ReadAmplificationStats readAmplificationStats;
     private int vacuumDeltaNumThreshold;
     private double vacuumDeltaPercentThreshold;
     private List<ConnectorVacuumTableInfo> vacuumTableList = Collections.synchronizedList(new ArrayList<>());
@@ -61,23 +62,25 @@ public class VacuumEligibleTableCollector
 
     private VacuumEligibleTableCollector(SemiTransactionalHiveMetastore metastore,
             HdfsEnvironment hdfsEnvironment,
+            ReadAmplificationStats readAmplificationStats,
             int vacuumDeltaNumThreshold,
             double vacuumDeltaPercentThreshold,
             ScheduledExecutorService executorService)
     {
         this.metastore = metastore;
         this.hdfsEnvironment = hdfsEnvironment;
+        this.readAmplificationStats = readAmplificationStats;
         this.vacuumDeltaNumThreshold = vacuumDeltaNumThreshold;
         this.vacuumDeltaPercentThreshold = vacuumDeltaPercentThreshold;
         this.executorService = executorService;
     }
 
     public static synchronized void createInstance(SemiTransactionalHiveMetastore metastore,
-            HdfsEnvironment hdfsEnvironment, int vacuumDeltaNumThreshold, double vacuumDeltaPercentThreshold,
+            HdfsEnvironment hdfsEnvironment, ReadAmplificationStats readAmplificationStats, int vacuumDeltaNumThreshold, double vacuumDeltaPercentThreshold,
             ScheduledExecutorService executorService, long vacuumCollectorInterval)
     {
         if (instance == null) {
-            instance = new VacuumEligibleTableCollector(metastore, hdfsEnvironment, vacuumDeltaNumThreshold, vacuumDeltaPercentThreshold, executorService);
+            instance = new VacuumEligibleTableCollector(metastore, hdfsEnvironment, readAmplificationStats, vacuumDeltaNumThreshold, vacuumDeltaPercentThreshold, executorService);
             //Initialize the file systems
             HdfsEnvironment.HdfsContext context = new HdfsEnvironment.HdfsContext(new ConnectorIdentity("openLooKeng", Optional.empty(), Optional.empty()));
             try {
@@ -100,12 +103,13 @@ public class VacuumEligibleTableCollector
     }
 
     static List<ConnectorVacuumTableInfo> getVacuumTableList(SemiTransactionalHiveMetastore metastore,
-                    HdfsEnvironment hdfsEnvironment, int vacuumDeltaNumThreshold,
+                    HdfsEnvironment hdfsEnvironment, ReadAmplificationStats readAmplificationStats, int vacuumDeltaNumThreshold,
                     double vacuumDeltaPercentThreshold, ScheduledExecutorService executorService, long vacuumCollectorInterval)
     {
-        createInstance(metastore, hdfsEnvironment, vacuumDeltaNumThreshold, vacuumDeltaPercentThreshold, executorService, vacuumCollectorInterval);
+        createInstance(metastore, hdfsEnvironment, readAmplificationStats, vacuumDeltaNumThreshold, vacuumDeltaPercentThreshold, executorService, vacuumCollectorInterval);
         synchronized (instance) {
             instance.metastore = metastore;
+            instance.readAmplificationStats = readAmplificationStats;
             ImmutableList<ConnectorVacuumTableInfo> newList = ImmutableList.copyOf(instance.vacuumTableList);
             instance.vacuumTableList.clear();
             return newList;
@@ -255,7 +259,7 @@ public class VacuumEligibleTableCollector
             else {
                 boolean bigEnough = (float) deltaSize / (float) baseSize > vacuumDeltaPercentThreshold;
                 if (bigEnough) {
-                    ConnectorVacuumTableInfo vacuumTable = new ConnectorVacuumTableInfo(appendTableWithSchema(schema, table), true);
+                    ConnectorVacuumTableInfo vacuumTable = new ConnectorVacuumTableInfo(appendTableWithSchema(schema, table), true, getPriority(schema, table));
                     tablesForVacuum.add(vacuumTable);
                     return true;
                 }
@@ -266,7 +270,7 @@ public class VacuumEligibleTableCollector
                 if (AcidUtils.isInsertOnlyTable(parameters) || noBase) {
                     isFull = true;
                 }
-                ConnectorVacuumTableInfo vacuumTable = new ConnectorVacuumTableInfo(appendTableWithSchema(schema, table), isFull);
+                ConnectorVacuumTableInfo vacuumTable = new ConnectorVacuumTableInfo(appendTableWithSchema(schema, table), isFull, getPriority(schema, table));
                 tablesForVacuum.add(vacuumTable);
                 return true;
             }
@@ -282,6 +286,12 @@ public class VacuumEligibleTableCollector
                     numOfDeltaDir));
         }
 
+        private double getPriority(String schema, String table)
+        {
+            // rank by the extra files queries had to read since the last vacuum, tables nobody reads come last
+            return readAmplificationStats.getWastedReadCost(appendTableWithSchema(schema, table));
+        }
+
         private String appendTableWithSchema(String schema, String table)
         {
             return schema + "." + table;
@@ -22,6 +22,8 @@ import com.google.common.collect.Iterables;
 import com.google.common.collect.SetMultimap;
 import com.google.common.util.concurrent.UncheckedExecutionException;
 import io.airlift.log.Logger;
+import io.airlift.stats.CounterStat;
+import io.airlift.stats.TimeStat;
 import io.airlift.units.Duration;
 import io.prestosql.plugin.hive.ForCachingHiveMetastore;
 import io.prestosql.plugin.hive.ForCachingHiveMetastoreTableRefresh;
@@ -45,6 +47,7 @@ import org.apache.hadoop.hive.metastore.api.DataOperationType;
 import org.apache.hadoop.hive.metastore.api.ShowLocksRequest;
 import org.apache.hadoop.hive.metastore.api.ShowLocksResponse;
 import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
 
 import javax.annotation.concurrent.ThreadSafe;
 import javax.inject.Inject;
@@ -124,6 +127,9 @@ public class CachingHiveMetastore
 
     private final LoadingCache<TablesWithParameterCacheKey, List<String>> tablesWithParameterCache;
 
+    private final CounterStat eventRefreshes = new CounterStat();
+    private final TimeStat eventRefreshTime = new TimeStat(MILLISECONDS);
+
     @Inject
     public CachingHiveMetastore(@ForCachingHiveMetastore HiveMetastore delegate,
                                 @ForCachingHiveMetastore Executor executor,
@@ -140,12 +146,20 @@ public class CachingHiveMetastore
                 hiveConfig.getMetastoreDBCacheTtl(),
                 hiveConfig.getMetastoreDBRefreshInterval(),
                 hiveConfig.getMetastoreCacheMaximumSize(),
-                !(nodeManager.getCurrentNode().isCoordinator() || hiveConfig.getWorkerMetaStoreCacheEnabled()));
+                !(nodeManager.getCurrentNode().isCoordinator() || hiveConfig.getWorkerMetaStoreCacheEnabled()),
+                hiveConfig.isMetastoreCacheEventInvalidationEnabled());
     }
 
     public CachingHiveMetastore(HiveMetastore delegate, Executor executor, Executor tableRefreshExecutor, Duration cacheTtl, Duration refreshInterval,
                                 Duration dbCacheTtl, Duration dbRefreshInterval,
                                 long maximumSize, boolean skipCache)
+    {
+        this(delegate, executor, tableRefreshExecutor, cacheTtl, refreshInterval, dbCacheTtl, dbRefreshInterval, maximumSize, skipCache, false);
+    }
+
+    public CachingHiveMetastore(HiveMetastore delegate, Executor executor, Executor tableRefreshExecutor, Duration cacheTtl, Duration refreshInterval,
+                                Duration dbCacheTtl, Duration dbRefreshInterval,
+                                long maximumSize, boolean skipCache, boolean eventInvalidation)
     {
         this(
                 delegate,
@@ -155,7 +169,8 @@ public class CachingHiveMetastore
                 OptionalLong.of(dbCacheTtl.toMillis()),
                 dbRefreshInterval.toMillis() >= dbCacheTtl.toMillis() ? OptionalLong.empty() : OptionalLong.of(dbRefreshInterval.toMillis()),
                 maximumSize,
-                skipCache);
+                skipCache,
+                eventInvalidation);
     }
 
     public static CachingHiveMetastore memoizeMetastore(HiveMetastore delegate, long maximumSize)
@@ -170,13 +185,14 @@ public class CachingHiveMetastore
                 OptionalLong.empty(),
                 OptionalLong.empty(),
                 maximumSize,
-                false || delegate instanceof CachingHiveMetastore);
+                false || delegate instanceof CachingHiveMetastore,
+                false);
     }
 
     private CachingHiveMetastore(HiveMetastore delegate, Executor executor, Executor tableRefreshExecutor,
                                  OptionalLong expiresAfterWriteMillisTable, OptionalLong refreshMillsTable,
                                  OptionalLong expiresAfterWriteMillisDB, OptionalLong refreshMillsDB,
-                                 long maximumSize, boolean skipCache)
+                                 long maximumSize, boolean skipCache, boolean eventInvalidation)
     {
         boolean dontVerifyCache;
         this.delegate = requireNonNull(delegate, "delegate is null");
@@ -239,7 +255,12 @@ public class CachingHiveMetastore
                     }
                 }, executor));
 
-        partitionStatisticsCache = newCacheBuilder(expiresAfterWriteMillisTable, refreshMillsTable, maximumSize)
+        // Guava refreshes expired entries one key at a time, which turns into one metastore call per partition.
+        // With event invalidation the partition entries are dropped when they change instead, and the ones
+        // missing are loaded together through loadAll.
+        OptionalLong partitionRefreshMillis = eventInvalidation ? OptionalLong.empty() : refreshMillsTable;
+
+        partitionStatisticsCache = newCacheBuilder(expiresAfterWriteMillisTable, partitionRefreshMillis, maximumSize)
                 .build(asyncReloading(new CacheLoader<WithIdentity<HivePartitionName>, WithValidation<Table, PartitionStatistics>>()
                 {
                     @Override
@@ -258,7 +279,7 @@ public class CachingHiveMetastore
         partitionFilterCache = newCacheBuilder(expiresAfterWriteMillisTable, refreshMillsTable, maximumSize)
                 .build(asyncReloading(CacheLoader.from(this::loadPartitionNamesByParts), executor));
 
-        partitionCache = newCacheBuilder(expiresAfterWriteMillisTable, refreshMillsTable, maximumSize)
+        partitionCache = newCacheBuilder(expiresAfterWriteMillisTable, partitionRefreshMillis, maximumSize)
                 .build(asyncReloading(new CacheLoader<WithIdentity<HivePartitionName>, Optional<WithValidation<Table, Partition>>>()
                 {
                     @Override
@@ -301,6 +322,20 @@ public class CachingHiveMetastore
         flushCache();
     }
 
+    @Managed
+    @Nested
+    public CounterStat getEventRefreshes()
+    {
+        return eventRefreshes;
+    }
+
+    @Managed
+    @Nested
+    public TimeStat getEventRefreshTime()
+    {
+        return eventRefreshTime;
+    }
+
     @Managed
     public void flushCache()
     {
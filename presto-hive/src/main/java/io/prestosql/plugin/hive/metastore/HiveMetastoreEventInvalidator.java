@@ -0,0 +1,298 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive.metastore;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.airlift.log.Logger;
+import io.airlift.stats.TimeStat;
+import io.airlift.units.Duration;
+import io.prestosql.plugin.hive.HiveCatalogName;
+import io.prestosql.plugin.hive.HiveConfig;
+import io.prestosql.spi.NodeManager;
+import io.prestosql.spi.statestore.StateCollection;
+import io.prestosql.spi.statestore.StateMap;
+import io.prestosql.spi.statestore.StateStore;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Drops the entries of the metastore cache changed by the events of the metastore notification log,
+ * so that the cache can be kept for long without serving stale metadata.
+ * <p>
+ * Without a state store every coordinator reads the notification log on its own. With a state store
+ * only the coordinator holding the catalog lock reads it, and publishes the changed tables in a state
+ * map, keyed by table with the id of the event that changed it last. The other coordinators invalidate
+ * the entries published since their previous poll. The map holds one entry per changed table or schema.
+ */
+@ThreadSafe
+public class HiveMetastoreEventInvalidator
+{
+    private static final Logger log = Logger.get(HiveMetastoreEventInvalidator.class);
+
+    @VisibleForTesting
+    static final String FLUSH_ALL_KEY = "*";
+    @VisibleForTesting
+    static final String LAST_EVENT_ID_KEY = "$last_event_id";
+    private static final String STATE_PREFIX = "hive-metastore-events-";
+    private static final Duration STOP_TIMEOUT = new Duration(10, SECONDS);
+
+    private final CachingHiveMetastore metastore;
+    private final HiveMetastoreEventSource eventSource;
+    private final Optional<StateStore> stateStore;
+    private final String catalogName;
+    private final Duration pollInterval;
+    private final int batchSize;
+    private final boolean enabled;
+
+    private ScheduledExecutorService executor;
+
+    // id of the last event read from the notification log, -1 until the position in the log is known
+    @GuardedBy("this")
+    private long lastEventId = -1;
+    // id of the last event published in the state store which was applied to the local cache
+    @GuardedBy("this")
+    private long lastAppliedEventId = -1;
+    @GuardedBy("this")
+    private boolean leader;
+
+    @Inject
+    public HiveMetastoreEventInvalidator(
+            CachingHiveMetastore metastore,
+            HiveMetastoreEventSource eventSource,
+            Optional<StateStore> stateStore,
+            HiveCatalogName catalogName,
+            HiveConfig config,
+            NodeManager nodeManager)
+    {
+        this(
+                metastore,
+                eventSource,
+                stateStore,
+                catalogName.toString(),
+                config.getMetastoreCacheEventPollInterval(),
+                config.getMetastoreCacheEventBatchSize(),
+                nodeManager.getCurrentNode().isCoordinator() || config.getWorkerMetaStoreCacheEnabled());
+    }
+
+    public HiveMetastoreEventInvalidator(
+            CachingHiveMetastore metastore,
+            HiveMetastoreEventSource eventSource,
+            Optional<StateStore> stateStore,
+            String catalogName,
+            Duration pollInterval,
+            int batchSize,
+            boolean enabled)
+    {
+        this.metastore = requireNonNull(metastore, "metastore is null");
+        this.eventSource = requireNonNull(eventSource, "eventSource is null");
+        this.stateStore = requireNonNull(stateStore, "stateStore is null");
+        this.catalogName = requireNonNull(catalogName, "catalogName is null");
+        this.pollInterval = requireNonNull(pollInterval, "pollInterval is null");
+        this.batchSize = batchSize;
+        this.enabled = enabled;
+    }
+
+    @PostConstruct
+    public void start()
+    {
+        if (!enabled) {
+            return;
+        }
+        executor = newSingleThreadScheduledExecutor(daemonThreadsNamed("hive-metastore-events-" + catalogName + "-%s"));
+        executor.scheduleWithFixedDelay(this::poll, 0, pollInterval.toMillis(), MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop()
+    {
+        if (executor == null) {
+            return;
+        }
+        // the state store lock is owned by the thread which acquired it, so it is released on the poll thread
+        executor.execute(this::releaseLeadership);
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(STOP_TIMEOUT.toMillis(), MILLISECONDS)) {
+                executor.shutdownNow();
+            }
+        }
+        catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        executor = null;
+    }
+
+    @VisibleForTesting
+    synchronized void releaseLeadership()
+    {
+        if (!leader) {
+            return;
+        }
+        leader = false;
+        try {
+            stateStore.get().getLock(STATE_PREFIX + catalogName).unlock();
+        }
+        catch (RuntimeException e) {
+            log.debug(e, "Failed to release the metastore event lock of catalog %s", catalogName);
+        }
+    }
+
+    @VisibleForTesting
+    synchronized void poll()
+    {
+        try (TimeStat.BlockTimer ignored = metastore.getEventRefreshTime().time()) {
+            if (lastEventId < 0) {
+                lastEventId = eventSource.getCurrentEventId();
+                lastAppliedEventId = lastEventId;
+                // anything cached before the position in the log was known may be stale already
+                metastore.flushCache();
+            }
+            if (stateStore.isPresent()) {
+                pollShared(stateStore.get());
+            }
+            else {
+                Set<String> keys = new LinkedHashSet<>();
+                lastEventId = readEvents(lastEventId, keys);
+                keys.forEach(this::invalidate);
+            }
+        }
+        catch (RuntimeException e) {
+            log.warn(e, "Failed to refresh the metastore cache of catalog %s from the notification log", catalogName);
+        }
+    }
+
+    private void pollShared(StateStore stateStore)
+    {
+        StateMap<String, Long> invalidations = getInvalidations(stateStore);
+        if (isLeader(stateStore)) {
+            // continue from the position of the previous leader, if any
+            Long publishedEventId = invalidations.get(LAST_EVENT_ID_KEY);
+            Set<String> keys = new LinkedHashSet<>();
+            long eventId = readEvents(publishedEventId == null ? lastEventId : publishedEventId, keys);
+            if (publishedEventId == null || eventId != publishedEventId) {
+                Map<String, Long> updates = new HashMap<>();
+                for (String key : keys) {
+                    updates.put(key, eventId);
+                }
+                invalidations.putAll(updates);
+                // published after the keys, so the keys of every event up to it are in the map
+                invalidations.put(LAST_EVENT_ID_KEY, eventId);
+            }
+            lastEventId = eventId;
+        }
+
+        // read before the keys, as keys newer than it may still be incomplete
+        Long publishedEventId = invalidations.get(LAST_EVENT_ID_KEY);
+        if (publishedEventId == null) {
+            return;
+        }
+        for (Map.Entry<String, Long> entry : invalidations.getAll().entrySet()) {
+            if (!entry.getKey().equals(LAST_EVENT_ID_KEY) && entry.getValue() > lastAppliedEventId) {
+                invalidate(entry.getKey());
+            }
+        }
+        // keys of events after the published id are invalidated again by the next poll
+        lastAppliedEventId = Math.max(lastAppliedEventId, publishedEventId);
+    }
+
+    @SuppressWarnings("unchecked")
+    private StateMap<String, Long> getInvalidations(StateStore stateStore)
+    {
+        return (StateMap<String, Long>) stateStore.getOrCreateStateCollection(STATE_PREFIX + catalogName, StateCollection.Type.MAP);
+    }
+
+    private boolean isLeader(StateStore stateStore)
+    {
+        if (!leader) {
+            leader = stateStore.getLock(STATE_PREFIX + catalogName).tryLock();
+        }
+        return leader;
+    }
+
+    /**
+     * Reads the events logged after fromEventId and collects the cache keys they change.
+     *
+     * @return id of the last event read
+     */
+    private long readEvents(long fromEventId, Set<String> keys)
+    {
+        long eventId = fromEventId;
+        while (true) {
+            List<HiveMetastoreEvent> events = eventSource.getNextEvents(eventId, batchSize);
+            if (events.isEmpty()) {
+                return eventId;
+            }
+            if (events.get(0).getEventId() > eventId + 1) {
+                // the metastore removed events from the log before they were read
+                log.warn("Metastore notification events %s to %s of catalog %s are missing, flushing the metastore cache", eventId + 1, events.get(0).getEventId() - 1, catalogName);
+                keys.add(FLUSH_ALL_KEY);
+            }
+            for (HiveMetastoreEvent event : events) {
+                getInvalidationKey(event).ifPresent(keys::add);
+                eventId = Math.max(eventId, event.getEventId());
+            }
+            if (events.size() < batchSize) {
+                return eventId;
+            }
+        }
+    }
+
+    private static Optional<String> getInvalidationKey(HiveMetastoreEvent event)
+    {
+        if (!event.getDatabaseName().isPresent()) {
+            return Optional.empty();
+        }
+        if (!event.getTableName().isPresent()) {
+            return event.getDatabaseName();
+        }
+        return Optional.of(event.getDatabaseName().get() + "." + event.getTableName().get());
+    }
+
+    private void invalidate(String key)
+    {
+        if (key.equals(FLUSH_ALL_KEY)) {
+            metastore.flushCache();
+        }
+        else {
+            // Hive does not allow dots in schema names
+            int separator = key.indexOf('.');
+            if (separator < 0) {
+                metastore.invalidateDatabase(key);
+            }
+            else {
+                metastore.invalidateTable(key.substring(0, separator), key.substring(separator + 1));
+            }
+        }
+        metastore.getEventRefreshes().update(1);
+    }
+}
@@ -66,6 +66,8 @@ import org.apache.hadoop.hive.metastore.api.MetaException;
 import org.apache.hadoop.hive.metastore.api.NoSuchLockException;
 import org.apache.hadoop.hive.metastore.api.NoSuchObjectException;
 import org.apache.hadoop.hive.metastore.api.NoSuchTxnException;
+import org.apache.hadoop.hive.metastore.api.NotificationEvent;
+import org.apache.hadoop.hive.metastore.api.NotificationEventResponse;
 import org.apache.hadoop.hive.metastore.api.Partition;
 import org.apache.hadoop.hive.metastore.api.PrincipalType;
 import org.apache.hadoop.hive.metastore.api.PrivilegeBag;
@@ -1729,6 +1731,50 @@ public class ThriftHiveMetastore
         }
     }
 
+    @Override
+    public long getCurrentNotificationEventId()
+    {
+        try {
+            return retry()
+                    .stopOnIllegalExceptions()
+                    .run("getCurrentNotificationEventId", stats.getCurrentNotificationEventId().wrap(() -> {
+                        try (ThriftMetastoreClient metastoreClient = clientProvider.createMetastoreClient()) {
+                            return metastoreClient.getCurrentNotificationEventId();
+                        }
+                    }));
+        }
+        catch (TException e) {
+            throw new PrestoException(HiveErrorCode.HIVE_METASTORE_ERROR, e);
+        }
+        catch (Exception e) {
+            throw propagate(e);
+        }
+    }
+
+    @Override
+    public List<NotificationEvent> getNextNotification(long lastEventId, int maxEvents)
+    {
+        try {
+            return retry()
+                    .stopOnIllegalExceptions()
+                    .run("getNextNotification", stats.getNextNotification().wrap(() -> {
+                        try (ThriftMetastoreClient metastoreClient = clientProvider.createMetastoreClient()) {
+                            NotificationEventResponse response = metastoreClient.getNextNotification(lastEventId, maxEvents);
+                            if (response == null || response.getEvents() == null) {
+                                return ImmutableList.<NotificationEvent>of();
+                            }
+                            return response.getEvents();
+                        }
+                    }));
+        }
+        catch (TException e) {
+            throw new PrestoException(HiveErrorCode.HIVE_METASTORE_ERROR, e);
+        }
+        catch (Exception e) {
+            throw propagate(e);
+        }
+    }
+
     @Override
     public ShowLocksResponse showLocks(ShowLocksRequest rqst)
     {
@@ -43,6 +43,8 @@ import org.apache.hadoop.hive.metastore.api.HiveObjectRef;
 import org.apache.hadoop.hive.metastore.api.LockRequest;
 import org.apache.hadoop.hive.metastore.api.LockResponse;
 import org.apache.hadoop.hive.metastore.api.MetaException;
+import org.apache.hadoop.hive.metastore.api.NotificationEventRequest;
+import org.apache.hadoop.hive.metastore.api.NotificationEventResponse;
 import org.apache.hadoop.hive.metastore.api.OpenTxnRequest;
 import org.apache.hadoop.hive.metastore.api.Partition;
 import org.apache.hadoop.hive.metastore.api.PartitionsStatsRequest;
@@ -528,6 +530,22 @@ public class ThriftHiveMetastoreClient
         return client.show_locks(rqst);
     }
 
+    @Override
+    public long getCurrentNotificationEventId()
+            throws TException
+    {
+        return client.get_current_notificationEventId().getEventId();
+    }
+
+    @Override
+    public NotificationEventResponse getNextNotification(long lastEventId, int maxEvents)
+            throws TException
+    {
+        NotificationEventRequest request = new NotificationEventRequest(lastEventId);
+        request.setMaxEvents(maxEvents);
+        return client.get_next_notification(request);
+    }
+
     @Override
     public String get_config_value(String name, String defaultValue)
             throws TException
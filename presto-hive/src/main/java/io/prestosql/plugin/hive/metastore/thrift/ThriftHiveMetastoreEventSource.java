@@ -0,0 +1,66 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive.metastore.thrift;
+
+import io.prestosql.plugin.hive.metastore.HiveMetastoreEvent;
+import io.prestosql.plugin.hive.metastore.HiveMetastoreEventSource;
+import org.apache.hadoop.hive.metastore.api.NotificationEvent;
+
+import javax.inject.Inject;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.google.common.base.Strings.emptyToNull;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads the notification log of the Hive metastore. The log is only written when the metastore
+ * is configured with the DbNotificationListener.
+ */
+public class ThriftHiveMetastoreEventSource
+        implements HiveMetastoreEventSource
+{
+    private final ThriftMetastore delegate;
+
+    @Inject
+    public ThriftHiveMetastoreEventSource(ThriftMetastore delegate)
+    {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+    }
+
+    @Override
+    public long getCurrentEventId()
+    {
+        return delegate.getCurrentNotificationEventId();
+    }
+
+    @Override
+    public List<HiveMetastoreEvent> getNextEvents(long lastEventId, int maxEvents)
+    {
+        return delegate.getNextNotification(lastEventId, maxEvents).stream()
+                .map(ThriftHiveMetastoreEventSource::fromNotificationEvent)
+                .collect(toImmutableList());
+    }
+
+    private static HiveMetastoreEvent fromNotificationEvent(NotificationEvent event)
+    {
+        return new HiveMetastoreEvent(
+                event.getEventId(),
+                event.getEventType(),
+                Optional.ofNullable(emptyToNull(event.getDbName())),
+                Optional.ofNullable(emptyToNull(event.getTableName())));
+    }
+}
@@ -33,6 +33,7 @@ import io.prestosql.spi.type.Type;
 import org.apache.hadoop.hive.metastore.api.DataOperationType;
 import org.apache.hadoop.hive.metastore.api.Database;
 import org.apache.hadoop.hive.metastore.api.FieldSchema;
+import org.apache.hadoop.hive.metastore.api.NotificationEvent;
 import org.apache.hadoop.hive.metastore.api.Partition;
 import org.apache.hadoop.hive.metastore.api.ShowLocksRequest;
 import org.apache.hadoop.hive.metastore.api.ShowLocksResponse;
@@ -175,6 +176,16 @@ public interface ThriftMetastore
         throw new UnsupportedOperationException();
     }
 
+    default long getCurrentNotificationEventId()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    default List<NotificationEvent> getNextNotification(long lastEventId, int maxEvents)
+    {
+        throw new UnsupportedOperationException();
+    }
+
     default Optional<String> getConfigValue(String name)
     {
         return Optional.empty();
@@ -20,6 +20,7 @@ import org.apache.hadoop.hive.metastore.api.HiveObjectPrivilege;
 import org.apache.hadoop.hive.metastore.api.HiveObjectRef;
 import org.apache.hadoop.hive.metastore.api.LockRequest;
 import org.apache.hadoop.hive.metastore.api.LockResponse;
+import org.apache.hadoop.hive.metastore.api.NotificationEventResponse;
 import org.apache.hadoop.hive.metastore.api.Partition;
 import org.apache.hadoop.hive.metastore.api.PrincipalType;
 import org.apache.hadoop.hive.metastore.api.PrivilegeBag;
@@ -187,6 +188,12 @@ public interface ThriftMetastoreClient
     ShowLocksResponse showLocks(ShowLocksRequest rqst)
             throws TException;
 
+    long getCurrentNotificationEventId()
+            throws TException;
+
+    NotificationEventResponse getNextNotification(long lastEventId, int maxEvents)
+            throws TException;
+
     default void unlock(long lockId)
             throws TException
     {
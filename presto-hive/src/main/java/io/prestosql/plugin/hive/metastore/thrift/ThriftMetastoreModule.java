@@ -24,6 +24,8 @@ import io.prestosql.plugin.hive.HiveConfig;
 import io.prestosql.plugin.hive.HiveErrorCode;
 import io.prestosql.plugin.hive.metastore.CachingHiveMetastore;
 import io.prestosql.plugin.hive.metastore.HiveMetastore;
+import io.prestosql.plugin.hive.metastore.HiveMetastoreEventInvalidator;
+import io.prestosql.plugin.hive.metastore.HiveMetastoreEventSource;
 import io.prestosql.plugin.hive.metastore.MetastoreClientFactory;
 import io.prestosql.plugin.hive.metastore.MetastoreConfig;
 import io.prestosql.plugin.hive.metastore.RecordingHiveMetastore;
@@ -112,6 +114,11 @@ public class ThriftMetastoreModule
         }
 
         binder.bind(HiveMetastore.class).to(CachingHiveMetastore.class).in(Scopes.SINGLETON);
+        if (buildConfigObject(HiveConfig.class).isMetastoreCacheEventInvalidationEnabled()) {
+            binder.bind(CachingHiveMetastore.class).in(Scopes.SINGLETON);
+            binder.bind(HiveMetastoreEventSource.class).to(ThriftHiveMetastoreEventSource.class).in(Scopes.SINGLETON);
+            binder.bind(HiveMetastoreEventInvalidator.class).in(Scopes.SINGLETON);
+        }
         newExporter(binder).export(ThriftMetastore.class)
                 .as(generator -> generator.generatedNameOf(ThriftHiveMetastore.class));
         newExporter(binder).export(HiveMetastore.class)
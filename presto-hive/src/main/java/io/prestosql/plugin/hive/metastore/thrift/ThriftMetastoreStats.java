@@ -56,6 +56,8 @@ public class ThriftMetastoreStats
     private final ThriftMetastoreApiStats validWriteIds = new ThriftMetastoreApiStats();
     private final ThriftMetastoreApiStats tableWriteId = new ThriftMetastoreApiStats();
     private final ThriftMetastoreApiStats unlock = new ThriftMetastoreApiStats();
+    private final ThriftMetastoreApiStats currentNotificationEventId = new ThriftMetastoreApiStats();
+    private final ThriftMetastoreApiStats nextNotification = new ThriftMetastoreApiStats();
 
     @Managed
     @Nested
@@ -322,4 +324,18 @@ public class ThriftMetastoreStats
     {
         return unlock;
     }
+
+    @Managed
+    @Nested
+    public ThriftMetastoreApiStats getCurrentNotificationEventId()
+    {
+        return currentNotificationEventId;
+    }
+
+    @Managed
+    @Nested
+    public ThriftMetastoreApiStats getNextNotification()
+    {
+        return nextNotification;
+    }
 }
@@ -0,0 +1,189 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive.orc;
+
+import com.google.common.collect.ImmutableMap;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.Block;
+import org.openjdk.jol.info.ClassLayout;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+
+/**
+ * Row ids deleted by the delete delta files of one bucket, kept as a compressed bitmap
+ * of row ids per original transaction and bucket. It is immutable once built, so all
+ * splits reading the same bucket can share it.
+ */
+@ThreadSafe
+public final class OrcDeletedRowSet
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(OrcDeletedRowSet.class).instanceSize();
+    private static final long ORIGINAL_FILE_TRANSACTION = 0;
+
+    public static final OrcDeletedRowSet EMPTY = builder().build();
+
+    // Rows of original files have original transaction 0 and match regardless of the bucket,
+    // same as OrcAcidRowId#compareTo, so they are all kept under bucket 0.
+    private final Map<Long, Map<Integer, Roaring64NavigableMap>> deletedRowIds;
+    private final long deletedRowCount;
+    private final long retainedSizeInBytes;
+
+    private OrcDeletedRowSet(Map<Long, Map<Integer, Roaring64NavigableMap>> deletedRowIds, long deletedRowCount, long retainedSizeInBytes)
+    {
+        this.deletedRowIds = deletedRowIds;
+        this.deletedRowCount = deletedRowCount;
+        this.retainedSizeInBytes = retainedSizeInBytes;
+    }
+
+    public boolean isEmpty()
+    {
+        return deletedRowCount == 0;
+    }
+
+    public long getDeletedRowCount()
+    {
+        return deletedRowCount;
+    }
+
+    public long getRetainedSizeInBytes()
+    {
+        return retainedSizeInBytes;
+    }
+
+    /**
+     * Collects the positions of the rows that are not deleted, given the ACID row id columns of a page.
+     *
+     * @return number of positions written to validPositions
+     */
+    public int getValidPositions(Block originalTransactionBlock, Block bucketBlock, Block rowIdBlock, int positionCount, int[] validPositions)
+    {
+        int validPositionCount = 0;
+        Roaring64NavigableMap deleted = null;
+        long currentTransaction = 0;
+        int currentBucket = 0;
+        boolean lookedUp = false;
+        for (int position = 0; position < positionCount; position++) {
+            long originalTransaction = originalTransactionBlock.getLong(position, 0);
+            int bucket = bucketBlock.getInt(position, 0);
+            // rows of a page mostly share the transaction and bucket, only look the bitmap up when they change
+            if (!lookedUp || originalTransaction != currentTransaction || bucket != currentBucket) {
+                deleted = getDeletedRowIds(originalTransaction, bucket);
+                currentTransaction = originalTransaction;
+                currentBucket = bucket;
+                lookedUp = true;
+            }
+            if (deleted == null || !deleted.contains(rowIdBlock.getLong(position, 0))) {
+                validPositions[validPositionCount] = position;
+                validPositionCount++;
+            }
+        }
+        return validPositionCount;
+    }
+
+    /**
+     * Collects the positions of the rows that are not deleted, for a page of an original file
+     * whose row ids are consecutive starting at firstRowId.
+     *
+     * @return number of positions written to validPositions
+     */
+    public int getValidPositions(long firstRowId, int positionCount, int[] validPositions)
+    {
+        Roaring64NavigableMap deleted = getDeletedRowIds(ORIGINAL_FILE_TRANSACTION, 0);
+        int validPositionCount = 0;
+        for (int position = 0; position < positionCount; position++) {
+            if (deleted == null || !deleted.contains(firstRowId + position)) {
+                validPositions[validPositionCount] = position;
+                validPositionCount++;
+            }
+        }
+        return validPositionCount;
+    }
+
+    private Roaring64NavigableMap getDeletedRowIds(long originalTransaction, int bucket)
+    {
+        Map<Integer, Roaring64NavigableMap> buckets = deletedRowIds.get(originalTransaction);
+        if (buckets == null) {
+            return null;
+        }
+        return buckets.get(originalTransaction == ORIGINAL_FILE_TRANSACTION ? 0 : bucket);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("originalTransactions", deletedRowIds.size())
+                .add("deletedRowCount", deletedRowCount)
+                .add("retainedSizeInBytes", retainedSizeInBytes)
+                .toString();
+    }
+
+    public static Builder builder()
+    {
+        return new Builder();
+    }
+
+    public static class Builder
+    {
+        private final Map<Long, Map<Integer, Roaring64NavigableMap>> deletedRowIds = new HashMap<>();
+
+        private Builder()
+        {
+        }
+
+        /**
+         * Adds the rows of a page with the original transaction, bucket and row id columns of a delete delta file.
+         */
+        public Builder addPage(Page page)
+        {
+            Block originalTransactionBlock = page.getBlock(0);
+            Block bucketBlock = page.getBlock(1);
+            Block rowIdBlock = page.getBlock(2);
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                add(originalTransactionBlock.getLong(position, 0), bucketBlock.getInt(position, 0), rowIdBlock.getLong(position, 0));
+            }
+            return this;
+        }
+
+        public Builder add(long originalTransaction, int bucket, long rowId)
+        {
+            deletedRowIds.computeIfAbsent(originalTransaction, key -> new HashMap<>())
+                    .computeIfAbsent(originalTransaction == ORIGINAL_FILE_TRANSACTION ? 0 : bucket, key -> new Roaring64NavigableMap())
+                    .addLong(rowId);
+            return this;
+        }
+
+        public OrcDeletedRowSet build()
+        {
+            ImmutableMap.Builder<Long, Map<Integer, Roaring64NavigableMap>> transactions = ImmutableMap.builder();
+            long deletedRowCount = 0;
+            long retainedSizeInBytes = INSTANCE_SIZE;
+            for (Map.Entry<Long, Map<Integer, Roaring64NavigableMap>> transaction : deletedRowIds.entrySet()) {
+                for (Roaring64NavigableMap rowIds : transaction.getValue().values()) {
+                    rowIds.runOptimize();
+                    deletedRowCount += rowIds.getLongCardinality();
+                    retainedSizeInBytes += rowIds.getLongSizeInBytes();
+                }
+                transactions.put(transaction.getKey(), ImmutableMap.copyOf(transaction.getValue()));
+            }
+            return new OrcDeletedRowSet(transactions.build(), deletedRowCount, retainedSizeInBytes);
+        }
+    }
+}
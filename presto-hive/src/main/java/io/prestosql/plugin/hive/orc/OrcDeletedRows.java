@@ -13,22 +13,16 @@
  */
 package io.prestosql.plugin.hive.orc;
 
-import com.google.common.collect.ImmutableList;
 import io.prestosql.orc.OrcCorruptionException;
 import io.prestosql.plugin.hive.DeleteDeltaLocations;
 import io.prestosql.plugin.hive.HdfsEnvironment;
 import io.prestosql.plugin.hive.HiveErrorCode;
-import io.prestosql.plugin.hive.HiveUtil;
 import io.prestosql.plugin.hive.WriteIdInfo;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.PrestoException;
 import io.prestosql.spi.block.Block;
 import io.prestosql.spi.block.DictionaryBlock;
-import io.prestosql.spi.block.SortOrder;
 import io.prestosql.spi.connector.ConnectorPageSource;
-import io.prestosql.spi.type.BigintType;
-import io.prestosql.spi.type.IntegerType;
-import io.prestosql.spi.type.Type;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
@@ -39,37 +33,35 @@ import javax.annotation.concurrent.NotThreadSafe;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.UncheckedIOException;
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
 import java.util.Optional;
 import java.util.regex.Pattern;
 
 import static com.google.common.base.Verify.verify;
 import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
 import static org.apache.hadoop.hive.ql.io.AcidUtils.deleteDeltaSubdir;
 
 @NotThreadSafe
 public class OrcDeletedRows
 {
+    private static final int ORIGINAL_TRANSACTION_INDEX = 0;
+    private static final int BUCKET_ID_INDEX = 1;
+    private static final int ROW_ID_INDEX = 2;
+
     private final String sourceFileName;
     private final DeleteDeltaLocations deleteDeltaLocations;
     private final OrcDeleteDeltaPageSourceFactory pageSourceFactory;
     private final String sessionUser;
     private final Configuration configuration;
     private final HdfsEnvironment hdfsEnvironment;
+    private final OrcDeletedRowsCache deletedRowsCache;
     Optional<Long> startRowOffsetOfFile;
 
     private final Pattern originalFilePattern = Pattern.compile("[0-9]+_[0-9]+");
     private final Pattern originalCopyFilePattern = Pattern.compile("[0-9]+_[0-9]+" + "_copy_" + "[0-9]+");
     private final String bucketPrefix = "bucket_";
 
-    private final List<ConnectorPageSource> pageSources = new ArrayList<>();
-    private Iterator<Page> sortedRowsIterator;
-    private Page currentPage;
-    private int currentPageOffset;
-    private OrcAcidRowId deletedRowId = new OrcAcidRowId(0, 0, 0);
+    private OrcDeletedRowSet deletedRowSet;
 
     public OrcDeletedRows(
             String sourceFileName,
@@ -79,6 +71,19 @@ public class OrcDeletedRows
             Configuration configuration,
             HdfsEnvironment hdfsEnvironment,
             Optional<Long> startRowOffsetOfFile)
+    {
+        this(sourceFileName, deleteDeltaLocations, pageSourceFactory, sessionUser, configuration, hdfsEnvironment, startRowOffsetOfFile, OrcDeletedRowsCache.NO_CACHE);
+    }
+
+    public OrcDeletedRows(
+            String sourceFileName,
+            Optional<DeleteDeltaLocations> deleteDeltaLocations,
+            OrcDeleteDeltaPageSourceFactory pageSourceFactory,
+            String sessionUser,
+            Configuration configuration,
+            HdfsEnvironment hdfsEnvironment,
+            Optional<Long> startRowOffsetOfFile,
+            OrcDeletedRowsCache deletedRowsCache)
     {
         this.sourceFileName = sourceFileName;
         this.pageSourceFactory = pageSourceFactory;
@@ -92,6 +97,7 @@ public class OrcDeletedRows
             this.deleteDeltaLocations = null;
         }
         this.startRowOffsetOfFile = startRowOffsetOfFile;
+        this.deletedRowsCache = requireNonNull(deletedRowsCache, "deletedRowsCache is null");
     }
 
     public MaskDeletedRowsFunction getMaskDeletedRowsFunction(Page sourcePage, Optional<Long> pageRowOffset)
@@ -140,97 +146,78 @@ public class OrcDeletedRows
 
         private void loadValidPositions()
         {
-            if (deleteDeltaLocations == null) {
+            if (deleteDeltaLocations == null || getDeletedRowSet().isEmpty()) {
                 this.positionCount = sourcePage.getPositionCount();
                 this.sourcePage = null;
                 return;
             }
 
             int[] localValidPositions = new int[sourcePage.getPositionCount()];
-            OrcAcidRowId sourcePageRowId = new OrcAcidRowId(0, 0, 0);
-            int validPositionsIndex = 0;
-            for (int pagePosition = 0; pagePosition < sourcePage.getPositionCount(); pagePosition++) {
-                if (startRowOffsetOfFile.isPresent() && pageRowOffset.isPresent()) {
-                    long currRowId = startRowOffsetOfFile.get() + pageRowOffset.get() + pagePosition;
-                    sourcePageRowId.set(sourcePageRowId.getOriginalTransaction(), sourcePageRowId.getBucket(), currRowId);
-                }
-                else {
-                    sourcePageRowId.set(sourcePage, pagePosition);
-                }
-                boolean deleted = isDeleted(sourcePageRowId);
-                if (!deleted) {
-                    localValidPositions[validPositionsIndex] = pagePosition;
-                    validPositionsIndex++;
-                }
+            if (startRowOffsetOfFile.isPresent() && pageRowOffset.isPresent()) {
+                this.positionCount = deletedRowSet.getValidPositions(
+                        startRowOffsetOfFile.get() + pageRowOffset.get(),
+                        sourcePage.getPositionCount(),
+                        localValidPositions);
+            }
+            else {
+                this.positionCount = deletedRowSet.getValidPositions(
+                        sourcePage.getBlock(ORIGINAL_TRANSACTION_INDEX),
+                        sourcePage.getBlock(BUCKET_ID_INDEX),
+                        sourcePage.getBlock(ROW_ID_INDEX),
+                        sourcePage.getPositionCount(),
+                        localValidPositions);
             }
-            this.positionCount = validPositionsIndex;
             this.validPositions = localValidPositions;
             this.sourcePage = null;
         }
     }
 
-    private boolean isDeleted(OrcAcidRowId sourcePageRowId)
+    private OrcDeletedRowSet getDeletedRowSet()
     {
-        if (sortedRowsIterator == null) {
-            for (WriteIdInfo deleteDeltaInfo : deleteDeltaLocations.getDeleteDeltas()) {
-                Path path = createPath(deleteDeltaLocations.getPartitionLocation(), deleteDeltaInfo, sourceFileName);
-                try {
-                    FileSystem fileSystem = hdfsEnvironment.getFileSystem(sessionUser, path, configuration);
-                    FileStatus fileStatus = hdfsEnvironment.doAs(sessionUser, () -> fileSystem.getFileStatus(path));
+        if (deletedRowSet == null) {
+            // all files of a bucket share the delete delta files, so do splits of the same file
+            deletedRowSet = deletedRowsCache.get(
+                    deleteDeltaLocations.getPartitionLocation(),
+                    getBucketFileName(sourceFileName),
+                    deleteDeltaLocations.getDeleteDeltas(),
+                    this::loadDeletedRowSet);
+        }
+        return deletedRowSet;
+    }
 
-                    pageSources.add(pageSourceFactory.createPageSource(fileStatus.getPath(), fileStatus.getLen(), fileStatus.getModificationTime()));
-                }
-                catch (FileNotFoundException ignored) {
-                    // source file does not have a delta delete file in this location
-                    continue;
-                }
-                catch (PrestoException e) {
-                    throw e;
-                }
-                catch (OrcCorruptionException e) {
-                    throw new PrestoException(HiveErrorCode.HIVE_BAD_DATA, format("Failed to read ORC file: %s", path), e);
-                }
-                catch (RuntimeException | IOException e) {
-                    throw new PrestoException(HiveErrorCode.HIVE_CURSOR_ERROR, format("Failed to read ORC file: %s", path), e);
+    private OrcDeletedRowSet loadDeletedRowSet()
+    {
+        OrcDeletedRowSet.Builder builder = OrcDeletedRowSet.builder();
+        for (WriteIdInfo deleteDeltaInfo : deleteDeltaLocations.getDeleteDeltas()) {
+            Path path = createPath(deleteDeltaLocations.getPartitionLocation(), deleteDeltaInfo, sourceFileName);
+            try {
+                FileSystem fileSystem = hdfsEnvironment.getFileSystem(sessionUser, path, configuration);
+                FileStatus fileStatus = hdfsEnvironment.doAs(sessionUser, () -> fileSystem.getFileStatus(path));
+
+                try (ConnectorPageSource pageSource = pageSourceFactory.createPageSource(fileStatus.getPath(), fileStatus.getLen(), fileStatus.getModificationTime())) {
+                    while (!pageSource.isFinished()) {
+                        Page page = pageSource.getNextPage();
+                        if (page != null) {
+                            builder.addPage(page.getLoadedPage());
+                        }
+                    }
                 }
             }
-            List<Type> columnTypes = ImmutableList.of(BigintType.BIGINT, IntegerType.INTEGER, BigintType.BIGINT);
-            //Last index for rowIdHandle
-            List<Integer> sortFields = ImmutableList.of(0, 1, 2);
-            List<SortOrder> sortOrders = ImmutableList.of(SortOrder.ASC_NULLS_FIRST, SortOrder.ASC_NULLS_FIRST, SortOrder.ASC_NULLS_FIRST);
-            sortedRowsIterator = HiveUtil.getMergeSortedPages(pageSources, columnTypes, sortFields,
-                    sortOrders);
-        }
-        do {
-            if (currentPage == null || currentPageOffset >= currentPage.getPositionCount()) {
-                currentPage = null;
-                currentPageOffset = 0;
-                if (sortedRowsIterator.hasNext()) {
-                    currentPage = sortedRowsIterator.next();
-                }
-                else {
-                    //No more entries in deleted_delta
-                    return false;
-                }
+            catch (FileNotFoundException ignored) {
+                // source file does not have a delta delete file in this location
+                continue;
             }
-            do {
-                deletedRowId.set(currentPage, currentPageOffset);
-                if (deletedRowId.compareTo(sourcePageRowId) == 0) {
-                    //source row is deleted.
-                    return true;
-                }
-                else if (deletedRowId.compareTo(sourcePageRowId) > 0) {
-                    //source row entry not found, but next deleted entry is greater than current source row.
-                    //So current source row is not deleted.
-                    return false;
-                }
-                currentPageOffset++;
+            catch (PrestoException e) {
+                throw e;
+            }
+            catch (OrcCorruptionException e) {
+                throw new PrestoException(HiveErrorCode.HIVE_BAD_DATA, format("Failed to read ORC file: %s", path), e);
+            }
+            catch (RuntimeException | IOException e) {
+                throw new PrestoException(HiveErrorCode.HIVE_CURSOR_ERROR, format("Failed to read ORC file: %s", path), e);
             }
-            while (currentPageOffset < currentPage.getPositionCount());
         }
-        while (sortedRowsIterator.hasNext());
-        //No more entries;
-        return false;
+        return builder.build();
     }
 
     private int getBucketNumber(String fileName)
@@ -272,14 +259,6 @@ public class OrcDeletedRows
 
     void close()
     {
-        pageSources.forEach(pageSource ->
-        {
-            try {
-                pageSource.close();
-            }
-            catch (IOException e) {
-                throw new UncheckedIOException(e);
-            }
-        });
+        // delete delta page sources are closed as soon as their rows are loaded
     }
 }
@@ -0,0 +1,158 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive.orc;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
+import io.prestosql.plugin.hive.HiveConfig;
+import io.prestosql.plugin.hive.WriteIdInfo;
+import org.weakref.jmx.Managed;
+
+import javax.inject.Inject;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Throwables.throwIfUnchecked;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Per worker cache of the rows deleted from a bucket by a set of delete delta directories.
+ * Delete delta files are never modified once written, so entries only go away by eviction.
+ */
+public class OrcDeletedRowsCache
+{
+    public static final OrcDeletedRowsCache NO_CACHE = new OrcDeletedRowsCache(Optional.empty());
+
+    private final Optional<Cache<CacheKey, OrcDeletedRowSet>> cache;
+
+    @Inject
+    public OrcDeletedRowsCache(HiveConfig config)
+    {
+        this(config.isOrcDeleteDeltaCacheEnabled()
+                ? Optional.of(buildCache(config.getOrcDeleteDeltaCacheMaximumWeight(), config.getOrcDeleteDeltaCacheTtl()))
+                : Optional.empty());
+    }
+
+    private OrcDeletedRowsCache(Optional<Cache<CacheKey, OrcDeletedRowSet>> cache)
+    {
+        this.cache = requireNonNull(cache, "cache is null");
+    }
+
+    private static Cache<CacheKey, OrcDeletedRowSet> buildCache(DataSize maximumWeight, Duration ttl)
+    {
+        return CacheBuilder.newBuilder()
+                .maximumWeight(maximumWeight.toBytes())
+                .<CacheKey, OrcDeletedRowSet>weigher((key, deletedRows) -> (int) Math.min(deletedRows.getRetainedSizeInBytes(), Integer.MAX_VALUE))
+                .expireAfterAccess(ttl.toMillis(), MILLISECONDS)
+                .recordStats()
+                .build();
+    }
+
+    public OrcDeletedRowSet get(String partitionLocation, String bucketFileName, List<WriteIdInfo> deleteDeltas, Callable<OrcDeletedRowSet> loader)
+    {
+        try {
+            if (!cache.isPresent()) {
+                return loader.call();
+            }
+            return cache.get().get(new CacheKey(partitionLocation, bucketFileName, deleteDeltas), loader);
+        }
+        catch (ExecutionException | UncheckedExecutionException e) {
+            throwIfUnchecked(e.getCause());
+            throw new RuntimeException(e.getCause());
+        }
+        catch (Exception e) {
+            throwIfUnchecked(e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Managed
+    public long getSize()
+    {
+        return cache.map(Cache::size).orElse(0L);
+    }
+
+    @Managed
+    public long getHitCount()
+    {
+        return cache.map(value -> value.stats().hitCount()).orElse(0L);
+    }
+
+    @Managed
+    public long getMissCount()
+    {
+        return cache.map(value -> value.stats().missCount()).orElse(0L);
+    }
+
+    @Managed
+    public long getEvictionCount()
+    {
+        return cache.map(value -> value.stats().evictionCount()).orElse(0L);
+    }
+
+    private static final class CacheKey
+    {
+        private final String partitionLocation;
+        private final String bucketFileName;
+        private final List<WriteIdInfo> deleteDeltas;
+
+        private CacheKey(String partitionLocation, String bucketFileName, List<WriteIdInfo> deleteDeltas)
+        {
+            this.partitionLocation = requireNonNull(partitionLocation, "partitionLocation is null");
+            this.bucketFileName = requireNonNull(bucketFileName, "bucketFileName is null");
+            this.deleteDeltas = ImmutableList.copyOf(requireNonNull(deleteDeltas, "deleteDeltas is null"));
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            CacheKey that = (CacheKey) o;
+            return partitionLocation.equals(that.partitionLocation) &&
+                    bucketFileName.equals(that.bucketFileName) &&
+                    deleteDeltas.equals(that.deleteDeltas);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(partitionLocation, bucketFileName, deleteDeltas);
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("partitionLocation", partitionLocation)
+                    .add("bucketFileName", bucketFileName)
+                    .add("deleteDeltas", deleteDeltas)
+                    .toString();
+        }
+    }
+}
@@ -142,11 +142,17 @@ public class OrcPageSourceFactory
     private final HdfsEnvironment hdfsEnvironment;
     private final FileFormatDataSourceStats stats;
     private final OrcCacheStore orcCacheStore;
+    private final OrcDeletedRowsCache deletedRowsCache;
     private final int domainCompactionThreshold;
     private final DateTimeZone legacyTimeZone;
 
-    @Inject
     public OrcPageSourceFactory(TypeManager typeManager, HiveConfig config, HdfsEnvironment hdfsEnvironment, FileFormatDataSourceStats stats, OrcCacheStore orcCacheStore)
+    {
+        this(typeManager, config, hdfsEnvironment, stats, orcCacheStore, OrcDeletedRowsCache.NO_CACHE);
+    }
+
+    @Inject
+    public OrcPageSourceFactory(TypeManager typeManager, HiveConfig config, HdfsEnvironment hdfsEnvironment, FileFormatDataSourceStats stats, OrcCacheStore orcCacheStore, OrcDeletedRowsCache deletedRowsCache)
     {
         this(
                 typeManager,
@@ -154,10 +160,16 @@ public class OrcPageSourceFactory
                 hdfsEnvironment,
                 stats,
                 orcCacheStore,
+                deletedRowsCache,
                 requireNonNull(config, "hiveConfig is null").getDomainCompactionThreshold());
     }
 
     public OrcPageSourceFactory(TypeManager typeManager, HiveConfig config, HdfsEnvironment hdfsEnvironment, FileFormatDataSourceStats stats, OrcCacheStore orcCacheStore, int domainCompactionThreshold)
+    {
+        this(typeManager, config, hdfsEnvironment, stats, orcCacheStore, OrcDeletedRowsCache.NO_CACHE, domainCompactionThreshold);
+    }
+
+    public OrcPageSourceFactory(TypeManager typeManager, HiveConfig config, HdfsEnvironment hdfsEnvironment, FileFormatDataSourceStats stats, OrcCacheStore orcCacheStore, OrcDeletedRowsCache deletedRowsCache, int domainCompactionThreshold)
     {
         this.typeManager = requireNonNull(typeManager, "typeManager is null");
         requireNonNull(config, "config is null");
@@ -165,6 +177,7 @@ public class OrcPageSourceFactory
         this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
         this.stats = requireNonNull(stats, "stats is null");
         this.orcCacheStore = orcCacheStore;
+        this.deletedRowsCache = requireNonNull(deletedRowsCache, "deletedRowsCache is null");
         this.legacyTimeZone = requireNonNull(config, "hiveConfig is null").getOrcLegacyDateTimeZone();
         this.domainCompactionThreshold = domainCompactionThreshold;
     }
@@ -231,6 +244,7 @@ public class OrcPageSourceFactory
                 splitMetadata,
                 orcCacheStore,
                 orcCacheProperties,
+                deletedRowsCache,
                 domainCompactionThreshold,
                 session.isPageMetadataEnabled(),
                 dataSourceLastModifiedTime));
@@ -265,6 +279,7 @@ public class OrcPageSourceFactory
             SplitMetadata splitMetadata,
             OrcCacheStore orcCacheStore,
             OrcCacheProperties orcCacheProperties,
+            OrcDeletedRowsCache deletedRowsCache,
             int domainCompactionThreshold,
             boolean pageMetadataEnabled,
             long dataSourceLastModifiedTime)
@@ -442,7 +457,8 @@ public class OrcPageSourceFactory
                     sessionUser,
                     configuration,
                     hdfsEnvironment,
-                    startRowOffsetOfFile);
+                    startRowOffsetOfFile,
+                    deletedRowsCache);
 
             boolean eagerload = false;
             if (indexes.isPresent()) {
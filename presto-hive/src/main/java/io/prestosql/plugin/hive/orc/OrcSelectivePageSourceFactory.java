@@ -142,10 +142,16 @@ public class OrcSelectivePageSourceFactory
     private final HdfsEnvironment hdfsEnvironment;
     private final FileFormatDataSourceStats stats;
     private final OrcCacheStore orcCacheStore;
+    private final OrcDeletedRowsCache deletedRowsCache;
     private final DateTimeZone legacyTimeZone;
 
-    @Inject
     public OrcSelectivePageSourceFactory(TypeManager typeManager, HiveConfig config, HdfsEnvironment hdfsEnvironment, FileFormatDataSourceStats stats, OrcCacheStore orcCacheStore)
+    {
+        this(typeManager, config, hdfsEnvironment, stats, orcCacheStore, OrcDeletedRowsCache.NO_CACHE);
+    }
+
+    @Inject
+    public OrcSelectivePageSourceFactory(TypeManager typeManager, HiveConfig config, HdfsEnvironment hdfsEnvironment, FileFormatDataSourceStats stats, OrcCacheStore orcCacheStore, OrcDeletedRowsCache deletedRowsCache)
     {
         this.typeManager = requireNonNull(typeManager, "typeManager is null");
         requireNonNull(config, "config is null");
@@ -153,6 +159,7 @@ public class OrcSelectivePageSourceFactory
         this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
         this.stats = requireNonNull(stats, "stats is null");
         this.orcCacheStore = orcCacheStore;
+        this.deletedRowsCache = requireNonNull(deletedRowsCache, "deletedRowsCache is null");
         this.legacyTimeZone = requireNonNull(config, "hiveConfig is null").getOrcLegacyDateTimeZone();
     }
 
@@ -228,6 +235,7 @@ public class OrcSelectivePageSourceFactory
                     indexes,
                     orcCacheStore,
                     orcCacheProperties,
+                    deletedRowsCache,
                     additionPredicates.orElseGet(() -> ImmutableList.of()),
                     positions,
                     columnMappings,
@@ -268,6 +276,7 @@ public class OrcSelectivePageSourceFactory
                 indexes,
                 orcCacheStore,
                 orcCacheProperties,
+                deletedRowsCache,
                 ImmutableList.of(),
                 null,
                 columnMappings,
@@ -305,6 +314,7 @@ public class OrcSelectivePageSourceFactory
             Optional<List<IndexMetadata>> indexes,
             OrcCacheStore orcCacheStore,
             OrcCacheProperties orcCacheProperties,
+            OrcDeletedRowsCache deletedRowsCache,
             List<TupleDomain<HiveColumnHandle>> disjunctDomains,
             List<Integer> positions,
             List<HivePageSourceProvider.ColumnMapping> columnMappings,
@@ -514,7 +524,8 @@ public class OrcSelectivePageSourceFactory
                     sessionUser,
                     configuration,
                     hdfsEnvironment,
-                    startRowOffsetOfFile);
+                    startRowOffsetOfFile,
+                    deletedRowsCache);
 
             /* Todo(Nitin): Create a Separate OrcSelectivePageSource and Use MergingPageIterator
              *   to progressively scan and yeild pages. */
@@ -737,6 +737,7 @@ public abstract class AbstractTestHive
         hdfsEnvironment = new HdfsEnvironment(hdfsConfiguration, hiveConfig, new NoHdfsAuthentication());
         locationService = new HiveLocationService(hdfsEnvironment);
         JsonCodec<PartitionUpdate> partitionUpdateCodec = JsonCodec.jsonCodec(PartitionUpdate.class);
+        ReadAmplificationStats readAmplificationStats = new ReadAmplificationStats();
         metadataFactory = new HiveMetadataFactory(
                 metastoreClient,
                 hdfsEnvironment,
@@ -762,7 +763,8 @@ public abstract class AbstractTestHive
                 SqlStandardAccessControlMetadata::new,
                 10, 0.1, false,
                 Optional.of(Duration.valueOf("5m")), hiveConfig.getMetastoreWriteBatchSize(),
-                new HdfsStorageMonitor(hdfsEnvironment, MoreExecutors.listeningDecorator(newCachedThreadPool(daemonThreadsNamed("hdfs-monitor-" + "test" + "-%s")))));
+                new HdfsStorageMonitor(hdfsEnvironment, MoreExecutors.listeningDecorator(newCachedThreadPool(daemonThreadsNamed("hdfs-monitor-" + "test" + "-%s")))),
+                readAmplificationStats);
         transactionManager = new HiveTransactionManager();
         splitManager = new HiveSplitManager(
                 transactionHandle -> ((HiveMetadata) transactionManager.get(transactionHandle)).getMetastore(),
@@ -780,7 +782,7 @@ public abstract class AbstractTestHive
                 hiveConfig.getMaxInitialSplits(),
                 hiveConfig.getSplitLoaderConcurrency(),
                 hiveConfig.getMaxSplitsPerSecond(),
-                false, null, hiveConfig);
+                false, null, hiveConfig, readAmplificationStats);
         pageSinkProvider = new HivePageSinkProvider(
                 getDefaultHiveFileWriterFactories(hiveConfig),
                 hdfsEnvironment,
@@ -191,6 +191,7 @@ public abstract class AbstractTestHiveFileSystem
                 hdfsEnvironment);
         locationService = new HiveLocationService(hdfsEnvironment);
         JsonCodec<PartitionUpdate> partitionUpdateCodec = JsonCodec.jsonCodec(PartitionUpdate.class);
+        ReadAmplificationStats readAmplificationStats = new ReadAmplificationStats();
         metadataFactory = new HiveMetadataFactory(
                 config,
                 metastoreClient,
@@ -206,7 +207,8 @@ public abstract class AbstractTestHiveFileSystem
                 new HiveTypeTranslator(),
                 new NodeVersion("test_version"),
                 SqlStandardAccessControlMetadata::new,
-                new HdfsStorageMonitor(hdfsEnvironment, MoreExecutors.listeningDecorator(newCachedThreadPool(daemonThreadsNamed("hdfs-monitor-" + "test" + "-%s")))));
+                new HdfsStorageMonitor(hdfsEnvironment, MoreExecutors.listeningDecorator(newCachedThreadPool(daemonThreadsNamed("hdfs-monitor-" + "test" + "-%s")))),
+                readAmplificationStats);
         transactionManager = new HiveTransactionManager();
         splitManager = new HiveSplitManager(
                 transactionHandle -> ((HiveMetadata) transactionManager.get(transactionHandle)).getMetastore(),
@@ -224,7 +226,7 @@ public abstract class AbstractTestHiveFileSystem
                 config.getMaxInitialSplits(),
                 config.getSplitLoaderConcurrency(),
                 config.getMaxSplitsPerSecond(),
-                config.getRecursiveDirWalkerEnabled(), null, config);
+                config.getRecursiveDirWalkerEnabled(), null, config, readAmplificationStats);
         pageSinkProvider = new HivePageSinkProvider(
                 getDefaultHiveFileWriterFactories(config),
                 hdfsEnvironment,
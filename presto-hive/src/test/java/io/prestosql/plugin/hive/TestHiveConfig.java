@@ -49,6 +49,9 @@ public class TestHiveConfig
                 .setMetastoreRefreshInterval(new Duration(1, TimeUnit.SECONDS))
                 .setMetastoreDBCacheTtl(new Duration(0, TimeUnit.SECONDS))
                 .setMetastoreDBRefreshInterval(new Duration(1, TimeUnit.SECONDS))
+                .setMetastoreCacheEventInvalidationEnabled(false)
+                .setMetastoreCacheEventPollInterval(new Duration(10, TimeUnit.SECONDS))
+                .setMetastoreCacheEventBatchSize(1000)
                 .setMetastoreCacheMaximumSize(10000)
                 .setPerTransactionMetastoreCacheMaximumSize(1000)
                 .setMaxMetastoreRefreshThreads(100)
@@ -103,6 +106,7 @@ public class TestHiveConfig
                 .setOrcRowIndexCacheEnabled(false).setOrcRowIndexCacheTtl(new Duration(4, TimeUnit.HOURS)).setOrcRowIndexCacheLimit(250_000)
                 .setOrcBloomFiltersCacheEnabled(false).setOrcBloomFiltersCacheTtl(new Duration(4, TimeUnit.HOURS)).setOrcBloomFiltersCacheLimit(250_000)
                 .setOrcRowDataCacheEnabled(false).setOrcRowDataCacheTtl(new Duration(4, TimeUnit.HOURS)).setOrcRowDataCacheMaximumWeight(new DataSize(20, GIGABYTE))
+                .setOrcDeleteDeltaCacheEnabled(false).setOrcDeleteDeltaCacheTtl(new Duration(4, TimeUnit.HOURS)).setOrcDeleteDeltaCacheMaximumWeight(new DataSize(1, GIGABYTE))
                 .setOrcLazyReadSmallRanges(true)
                 .setRcfileTimeZone(TimeZone.getDefault().getID())
                 .setRcfileWriterValidate(false)
@@ -170,6 +174,9 @@ public class TestHiveConfig
                 .put("hive.metastore-refresh-interval", "30m")
                 .put("hive.metastore-db-cache-ttl", "2h")
                 .put("hive.metastore-db-refresh-interval", "30m")
+                .put("hive.metastore-cache.event-invalidation.enabled", "true")
+                .put("hive.metastore-cache.event-poll-interval", "30s")
+                .put("hive.metastore-cache.event-batch-size", "200")
                 .put("hive.metastore-cache-maximum-size", "5000")
                 .put("hive.per-transaction-metastore-cache-maximum-size", "500")
                 .put("hive.metastore-refresh-max-threads", "2500")
@@ -235,6 +242,9 @@ public class TestHiveConfig
                 .put("hive.orc.row-data.block.cache.enabled", "true")
                 .put("hive.orc.row-data.block.cache.ttl", "1h")
                 .put("hive.orc.row-data.block.cache.max.weight", "1MB")
+                .put("hive.orc.delete-delta.cache.enabled", "true")
+                .put("hive.orc.delete-delta.cache.ttl", "1h")
+                .put("hive.orc.delete-delta.cache.max.weight", "1MB")
                 .put("hive.orc.lazy-read-small-ranges", "false")
                 .put("hive.rcfile.time-zone", nonDefaultTimeZone().getID())
                 .put("hive.rcfile.writer.validate", "true")
@@ -298,6 +308,9 @@ public class TestHiveConfig
                 .setMetastoreRefreshInterval(new Duration(30, TimeUnit.MINUTES))
                 .setMetastoreDBCacheTtl(new Duration(2, TimeUnit.HOURS))
                 .setMetastoreDBRefreshInterval(new Duration(30, TimeUnit.MINUTES))
+                .setMetastoreCacheEventInvalidationEnabled(true)
+                .setMetastoreCacheEventPollInterval(new Duration(30, TimeUnit.SECONDS))
+                .setMetastoreCacheEventBatchSize(200)
                 .setMetastoreCacheMaximumSize(5000)
                 .setPerTransactionMetastoreCacheMaximumSize(500)
                 .setMaxMetastoreRefreshThreads(2500)
@@ -352,6 +365,7 @@ public class TestHiveConfig
                 .setOrcRowIndexCacheEnabled(true).setOrcRowIndexCacheTtl(new Duration(1, TimeUnit.HOURS)).setOrcRowIndexCacheLimit(100)
                 .setOrcBloomFiltersCacheEnabled(true).setOrcBloomFiltersCacheTtl(new Duration(1, TimeUnit.HOURS)).setOrcBloomFiltersCacheLimit(100)
                 .setOrcRowDataCacheEnabled(true).setOrcRowDataCacheTtl(new Duration(1, TimeUnit.HOURS)).setOrcRowDataCacheMaximumWeight(new DataSize(1, MEGABYTE))
+                .setOrcDeleteDeltaCacheEnabled(true).setOrcDeleteDeltaCacheTtl(new Duration(1, TimeUnit.HOURS)).setOrcDeleteDeltaCacheMaximumWeight(new DataSize(1, MEGABYTE))
                 .setOrcLazyReadSmallRanges(false)
                 .setRcfileTimeZone(nonDefaultTimeZone().getID())
                 .setRcfileWriterValidate(true)
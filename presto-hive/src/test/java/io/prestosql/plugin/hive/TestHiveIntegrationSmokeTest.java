@@ -2384,6 +2384,41 @@ public class TestHiveIntegrationSmokeTest
         assertFalse(getQueryRunner().tableExists(getSession(), "test_metadata_delete"));
     }
 
+    @Test
+    public void testTableDataVersion()
+    {
+        assertUpdate("CREATE TABLE test_table_data_version (a bigint, ds varchar) WITH (partitioned_by = ARRAY['ds'])");
+        assertUpdate("INSERT INTO test_table_data_version VALUES (1, 'x')", 1);
+        Optional<String> version = getTableDataVersion("test_table_data_version");
+        assertTrue(version.isPresent());
+        assertEquals(getTableDataVersion("test_table_data_version"), version);
+
+        // appending to an existing partition does not change the modification time of the table directory
+        assertUpdate("INSERT INTO test_table_data_version VALUES (2, 'x')", 1);
+        Optional<String> appended = getTableDataVersion("test_table_data_version");
+        assertTrue(appended.isPresent());
+        assertNotEquals(appended, version);
+
+        assertUpdate("INSERT INTO test_table_data_version VALUES (3, 'y')", 1);
+        assertNotEquals(getTableDataVersion("test_table_data_version"), appended);
+
+        assertUpdate("DROP TABLE test_table_data_version");
+    }
+
+    private Optional<String> getTableDataVersion(String tableName)
+    {
+        Session session = getSession();
+        Metadata metadata = ((DistributedQueryRunner) getQueryRunner()).getCoordinator().getMetadata();
+
+        return transaction(getQueryRunner().getTransactionManager(), getQueryRunner().getAccessControl())
+                .readOnly()
+                .execute(session, transactionSession -> {
+                    Optional<TableHandle> tableHandle = metadata.getTableHandle(transactionSession, new QualifiedObjectName(catalog, TPCH_SCHEMA, tableName));
+                    assertTrue(tableHandle.isPresent());
+                    return metadata.getTableDataVersion(transactionSession, tableHandle.get());
+                });
+    }
+
     private TableMetadata getTableMetadata(String catalog, String schema, String tableName)
     {
         Session session = getSession();
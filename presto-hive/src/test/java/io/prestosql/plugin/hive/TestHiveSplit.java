@@ -21,6 +21,7 @@ import io.prestosql.spi.HostAddress;
 import org.apache.hadoop.fs.Path;
 import org.testng.annotations.Test;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalInt;
@@ -30,10 +31,13 @@ import static io.prestosql.plugin.hive.HiveBucketing.BucketingVersion.BUCKETING_
 import static io.prestosql.plugin.hive.HiveType.HIVE_LONG;
 import static io.prestosql.plugin.hive.HiveType.HIVE_STRING;
 import static io.prestosql.spi.type.BigintType.BIGINT;
+import static org.apache.hadoop.hive.serde.serdeConstants.SERIALIZATION_LIB;
 import static org.testng.Assert.assertEquals;
 
 public class TestHiveSplit
 {
+    private static final long MEGABYTE = 1024 * 1024;
+
     private final JsonCodec<HiveSplit> codec = JsonCodec.jsonCodec(HiveSplit.class);
 
     @Test
@@ -99,4 +103,53 @@ public class TestHiveSplit
         assertEquals(actual.getDeleteDeltaLocations().get(), expected.getDeleteDeltaLocations().get());
         assertEquals(actual.getCustomSplitInfo(), expected.getCustomSplitInfo());
     }
+
+    @Test
+    public void testDivide()
+    {
+        Properties schema = new Properties();
+        schema.setProperty(SERIALIZATION_LIB, HiveStorageFormat.ORC.getSerDe());
+
+        HiveSplit split = createSplit(schema, 100 * MEGABYTE);
+        List<HiveSplit> subSplits = split.divide(4, 32 * MEGABYTE);
+        assertEquals(subSplits.size(), 3);
+        long expectedStart = split.getStart();
+        for (HiveSplit subSplit : subSplits) {
+            assertEquals(subSplit.getStart(), expectedStart);
+            expectedStart += subSplit.getLength();
+        }
+        assertEquals(expectedStart, split.getStart() + split.getLength());
+
+        assertEquals(split.divide(8, 200 * MEGABYTE), ImmutableList.of(split));
+
+        Properties textSchema = new Properties();
+        textSchema.setProperty(SERIALIZATION_LIB, HiveStorageFormat.TEXTFILE.getSerDe());
+        HiveSplit textSplit = createSplit(textSchema, 100 * MEGABYTE);
+        assertEquals(textSplit.divide(4, 32 * MEGABYTE), ImmutableList.of(textSplit));
+    }
+
+    private static HiveSplit createSplit(Properties schema, long length)
+    {
+        return new HiveSplit(
+                "db",
+                "table",
+                "partitionId",
+                "path",
+                42,
+                length,
+                length + 42,
+                0,
+                schema,
+                ImmutableList.of(),
+                ImmutableList.of(),
+                OptionalInt.empty(),
+                false,
+                ImmutableMap.of(),
+                Optional.empty(),
+                false,
+                Optional.empty(),
+                Optional.empty(),
+                false,
+                ImmutableMap.of());
+    }
 }
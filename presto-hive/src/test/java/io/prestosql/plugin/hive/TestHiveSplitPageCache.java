@@ -0,0 +1,80 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Key;
+import io.prestosql.cache.SplitPageCache;
+import io.prestosql.server.testing.TestingPrestoServer;
+import io.prestosql.tests.AbstractTestQueryFramework;
+import io.prestosql.tests.DistributedQueryRunner;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.Optional;
+import java.util.function.ToLongFunction;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestHiveSplitPageCache
+        extends AbstractTestQueryFramework
+{
+    public TestHiveSplitPageCache()
+    {
+        super(() -> HiveQueryRunner.createQueryRunner(
+                ImmutableList.of(),
+                ImmutableMap.of(
+                        "hetu.split-cache-map.enabled", "true",
+                        "hetu.split-cache-map.page-cache.enabled", "true",
+                        "hetu.split-cache-map.page-cache.max-memory", "16MB"),
+                Optional.empty()));
+    }
+
+    @BeforeClass
+    public void setUp()
+    {
+        assertUpdate("CREATE TABLE page_cache_orders(id INTEGER, price DOUBLE, region VARCHAR) WITH (partitioned_by = ARRAY['region'], format = 'ORC')");
+        assertUpdate("INSERT INTO page_cache_orders VALUES(0, DOUBLE '1.5', 'east'), (1, DOUBLE '20.0', 'east'), (2, DOUBLE '7.25', 'east')", 3);
+        assertUpdate("INSERT INTO page_cache_orders VALUES(3, DOUBLE '30.0', 'west'), (4, DOUBLE '2.0', 'west')", 2);
+        assertQuerySucceeds("CACHE TABLE page_cache_orders WHERE region = 'east'");
+    }
+
+    @Test
+    public void testFilteredQueryServedFromCache()
+    {
+        // the filter on a data column is evaluated by the scan, filter and project operator
+        String query = "SELECT id, price * 2 FROM page_cache_orders WHERE region = 'east' AND price > 5";
+
+        long stored = getSplitPageCacheCounter(SplitPageCache::getStoredSplits);
+        assertQuery(query, "VALUES (1, 40.0), (2, 14.5)");
+        assertTrue(getSplitPageCacheCounter(SplitPageCache::getStoredSplits) > stored, "splits of the cached partition were not recorded");
+
+        long hits = getSplitPageCacheCounter(SplitPageCache::getHits);
+        long misses = getSplitPageCacheCounter(SplitPageCache::getMisses);
+        assertQuery(query, "VALUES (1, 40.0), (2, 14.5)");
+        assertTrue(getSplitPageCacheCounter(SplitPageCache::getHits) > hits, "the second scan was not served from the split page cache");
+        assertEquals(getSplitPageCacheCounter(SplitPageCache::getMisses), misses);
+    }
+
+    private long getSplitPageCacheCounter(ToLongFunction<SplitPageCache> counter)
+    {
+        long total = 0;
+        for (TestingPrestoServer server : ((DistributedQueryRunner) getQueryRunner()).getServers()) {
+            total += counter.applyAsLong(server.getInstance(Key.get(SplitPageCache.class)));
+        }
+        return total;
+    }
+}
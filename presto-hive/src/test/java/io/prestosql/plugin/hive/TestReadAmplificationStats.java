@@ -0,0 +1,67 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestReadAmplificationStats
+{
+    @Test
+    public void testIsInsertDeltaFile()
+    {
+        assertTrue(ReadAmplificationStats.isInsertDeltaFile("hdfs://warehouse/t/delta_0000002_0000002_0000/bucket_00000"));
+        assertFalse(ReadAmplificationStats.isInsertDeltaFile("hdfs://warehouse/t/base_0000002/bucket_00000"));
+        assertFalse(ReadAmplificationStats.isInsertDeltaFile("hdfs://warehouse/t/delete_delta_0000003_0000003_0000/bucket_00000"));
+        assertFalse(ReadAmplificationStats.isInsertDeltaFile("hdfs://warehouse/t/000000_0"));
+        assertFalse(ReadAmplificationStats.isInsertDeltaFile("bucket_00000"));
+    }
+
+    @Test
+    public void testRecordAndReset()
+    {
+        ReadAmplificationStats stats = new ReadAmplificationStats();
+        String table = "test_schema.test_read_amplification";
+        assertEquals(stats.getWastedReadCost(table), 0.0);
+
+        stats.recordSplits(table, 4, 6, 2);
+        stats.recordSplits(table, 1, 1, 1);
+        assertEquals(stats.getSplitCount(table), 5);
+        assertEquals(stats.getWastedReadCost(table), 10.0);
+
+        stats.reset(table);
+        assertEquals(stats.getSplitCount(table), 0);
+        assertEquals(stats.getWastedReadCost(table), 0.0);
+    }
+
+    @Test
+    public void testCatalogsAreIndependent()
+    {
+        // every catalog has its own stats, a table of the same name in another catalog is a different table
+        ReadAmplificationStats catalog = new ReadAmplificationStats();
+        ReadAmplificationStats otherCatalog = new ReadAmplificationStats();
+        String table = "test_schema.test_read_amplification";
+
+        catalog.recordSplits(table, 2, 3, 1);
+        assertEquals(catalog.getWastedReadCost(table), 4.0);
+        assertEquals(otherCatalog.getWastedReadCost(table), 0.0);
+
+        otherCatalog.recordSplits(table, 1, 1, 0);
+        otherCatalog.reset(table);
+        assertEquals(catalog.getWastedReadCost(table), 4.0);
+    }
+}
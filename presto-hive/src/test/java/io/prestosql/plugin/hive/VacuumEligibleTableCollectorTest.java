@@ -94,7 +94,7 @@ public class VacuumEligibleTableCollectorTest
         final ScheduledExecutorService executorService = io.prestosql.hadoop.$internal.io.netty.util.concurrent.GlobalEventExecutor.INSTANCE;
 
         // Run the test
-        VacuumEligibleTableCollector.createInstance(metastore, hdfsEnvironment, 1, 1.0, executorService, 1L);
+        VacuumEligibleTableCollector.createInstance(metastore, hdfsEnvironment, new ReadAmplificationStats(), 1, 1.0, executorService, 1L);
 
         VacuumEligibleTableCollector.finishVacuum("schemaTable");
         // Verify the results
@@ -147,7 +147,7 @@ public class VacuumEligibleTableCollectorTest
 
         // Run the test
         final List<ConnectorVacuumTableInfo> result = VacuumEligibleTableCollector.getVacuumTableList(metastore,
-                hdfsEnvironment, 1, 1.0, executorService, 1L);
+                hdfsEnvironment, new ReadAmplificationStats(), 1, 1.0, executorService, 1L);
 
         // Verify the results
     }
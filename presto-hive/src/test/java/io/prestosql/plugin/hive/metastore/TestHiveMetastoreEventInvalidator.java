@@ -0,0 +1,256 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive.metastore;
+
+import io.airlift.units.Duration;
+import io.prestosql.plugin.hive.authentication.HiveIdentity;
+import io.prestosql.plugin.hive.metastore.thrift.BridgingHiveMetastore;
+import io.prestosql.plugin.hive.metastore.thrift.MetastoreLocator;
+import io.prestosql.plugin.hive.metastore.thrift.MockThriftMetastoreClient;
+import io.prestosql.plugin.hive.metastore.thrift.ThriftHiveMetastore;
+import io.prestosql.plugin.hive.metastore.thrift.ThriftHiveMetastoreConfig;
+import io.prestosql.spi.statestore.StateCollection;
+import io.prestosql.spi.statestore.StateStore;
+import io.prestosql.statestore.MockStateMap;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static io.prestosql.plugin.hive.metastore.HiveMetastoreEventInvalidator.FLUSH_ALL_KEY;
+import static io.prestosql.plugin.hive.metastore.HiveMetastoreEventInvalidator.LAST_EVENT_ID_KEY;
+import static io.prestosql.plugin.hive.metastore.thrift.MockThriftMetastoreClient.TEST_DATABASE;
+import static io.prestosql.plugin.hive.metastore.thrift.MockThriftMetastoreClient.TEST_TABLE;
+import static io.prestosql.testing.TestingConnectorSession.SESSION;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+
+@Test(singleThreaded = true)
+public class TestHiveMetastoreEventInvalidator
+{
+    private static final HiveIdentity IDENTITY = new HiveIdentity(SESSION);
+    private static final String CATALOG = "hive";
+
+    private MockThriftMetastoreClient mockClient;
+    private CachingHiveMetastore metastore;
+    private TestingHiveMetastoreEventSource eventSource;
+
+    @BeforeMethod
+    public void setUp()
+    {
+        mockClient = new MockThriftMetastoreClient();
+        metastore = createCachingMetastore(mockClient);
+        eventSource = new TestingHiveMetastoreEventSource();
+    }
+
+    @Test
+    public void testTableEvent()
+    {
+        HiveMetastoreEventInvalidator invalidator = createInvalidator(metastore, Optional.empty());
+        invalidator.poll();
+
+        metastore.getTable(IDENTITY, TEST_DATABASE, TEST_TABLE);
+        assertEquals(mockClient.getAccessCount(), 1);
+
+        eventSource.addTableEvent("ALTER_TABLE", TEST_DATABASE, "other_table");
+        invalidator.poll();
+        metastore.getTable(IDENTITY, TEST_DATABASE, TEST_TABLE);
+        assertEquals(mockClient.getAccessCount(), 1);
+
+        eventSource.addTableEvent("ALTER_TABLE", TEST_DATABASE, TEST_TABLE);
+        invalidator.poll();
+        metastore.getTable(IDENTITY, TEST_DATABASE, TEST_TABLE);
+        assertEquals(mockClient.getAccessCount(), 2);
+
+        // events already read are not applied again
+        invalidator.poll();
+        metastore.getTable(IDENTITY, TEST_DATABASE, TEST_TABLE);
+        assertEquals(mockClient.getAccessCount(), 2);
+
+        assertEquals(metastore.getEventRefreshes().getTotalCount(), 2);
+        assertEquals(metastore.getEventRefreshTime().getAllTime().getCount(), 4.0);
+    }
+
+    @Test
+    public void testDatabaseEvent()
+    {
+        HiveMetastoreEventInvalidator invalidator = createInvalidator(metastore, Optional.empty());
+        invalidator.poll();
+
+        metastore.getDatabase(TEST_DATABASE);
+        assertEquals(mockClient.getAccessCount(), 1);
+
+        eventSource.addDatabaseEvent("ALTER_DATABASE", TEST_DATABASE);
+        invalidator.poll();
+        metastore.getDatabase(TEST_DATABASE);
+        assertEquals(mockClient.getAccessCount(), 2);
+    }
+
+    @Test
+    public void testMissingEvents()
+    {
+        HiveMetastoreEventInvalidator invalidator = createInvalidator(metastore, Optional.empty());
+        invalidator.poll();
+
+        metastore.getTable(IDENTITY, TEST_DATABASE, TEST_TABLE);
+        assertEquals(mockClient.getAccessCount(), 1);
+
+        // the event of the cached table is dropped from the log before it is read
+        eventSource.addTableEvent("ALTER_TABLE", TEST_DATABASE, TEST_TABLE);
+        eventSource.addTableEvent("ALTER_TABLE", TEST_DATABASE, "other_table");
+        eventSource.removeEvents(1);
+        invalidator.poll();
+
+        metastore.getTable(IDENTITY, TEST_DATABASE, TEST_TABLE);
+        assertEquals(mockClient.getAccessCount(), 2);
+    }
+
+    @Test
+    public void testSharedInvalidation()
+    {
+        MockStateMap<String, Long> invalidations = new MockStateMap<>("invalidations", new HashMap<>());
+        HiveMetastoreEventInvalidator leader = createInvalidator(metastore, Optional.of(createStateStore(invalidations, true)));
+
+        MockThriftMetastoreClient followerClient = new MockThriftMetastoreClient();
+        CachingHiveMetastore followerMetastore = createCachingMetastore(followerClient);
+        HiveMetastoreEventInvalidator follower = createInvalidator(followerMetastore, Optional.of(createStateStore(invalidations, false)));
+
+        leader.poll();
+        follower.poll();
+        followerMetastore.getTable(IDENTITY, TEST_DATABASE, TEST_TABLE);
+        assertEquals(followerClient.getAccessCount(), 1);
+
+        eventSource.addTableEvent("ALTER_TABLE", TEST_DATABASE, TEST_TABLE);
+        eventSource.addTableEvent("DROP_TABLE", TEST_DATABASE, "other_table");
+
+        // only the leader reads the notification log
+        follower.poll();
+        followerMetastore.getTable(IDENTITY, TEST_DATABASE, TEST_TABLE);
+        assertEquals(followerClient.getAccessCount(), 1);
+
+        leader.poll();
+        assertEquals(invalidations.get(TEST_DATABASE + "." + TEST_TABLE), Long.valueOf(2));
+        assertEquals(invalidations.get(TEST_DATABASE + ".other_table"), Long.valueOf(2));
+        assertEquals(invalidations.get(LAST_EVENT_ID_KEY), Long.valueOf(2));
+        assertFalse(invalidations.containsKey(FLUSH_ALL_KEY));
+
+        follower.poll();
+        followerMetastore.getTable(IDENTITY, TEST_DATABASE, TEST_TABLE);
+        assertEquals(followerClient.getAccessCount(), 2);
+
+        // published invalidations are applied once
+        follower.poll();
+        followerMetastore.getTable(IDENTITY, TEST_DATABASE, TEST_TABLE);
+        assertEquals(followerClient.getAccessCount(), 2);
+    }
+
+    @Test
+    public void testSharedInvalidationBeforeEventIdIsPublished()
+    {
+        MockStateMap<String, Long> invalidations = new MockStateMap<>("invalidations", new HashMap<>());
+        HiveMetastoreEventInvalidator follower = createInvalidator(metastore, Optional.of(createStateStore(invalidations, false)));
+        invalidations.put(LAST_EVENT_ID_KEY, 0L);
+        follower.poll();
+        metastore.getTable(IDENTITY, TEST_DATABASE, TEST_TABLE);
+        metastore.getDatabase(TEST_DATABASE);
+        assertEquals(mockClient.getAccessCount(), 2);
+
+        // the leader published the table of event 1, but not the event id yet
+        invalidations.put(TEST_DATABASE + "." + TEST_TABLE, 1L);
+        follower.poll();
+        metastore.getTable(IDENTITY, TEST_DATABASE, TEST_TABLE);
+        metastore.getDatabase(TEST_DATABASE);
+        assertEquals(mockClient.getAccessCount(), 3);
+
+        // the whole event 1 is applied once its id is published, although a key of it was applied before
+        invalidations.put(TEST_DATABASE, 1L);
+        invalidations.put(LAST_EVENT_ID_KEY, 1L);
+        follower.poll();
+        metastore.getTable(IDENTITY, TEST_DATABASE, TEST_TABLE);
+        metastore.getDatabase(TEST_DATABASE);
+        assertEquals(mockClient.getAccessCount(), 5);
+
+        follower.poll();
+        metastore.getTable(IDENTITY, TEST_DATABASE, TEST_TABLE);
+        metastore.getDatabase(TEST_DATABASE);
+        assertEquals(mockClient.getAccessCount(), 5);
+    }
+
+    @Test
+    public void testLockIsReleasedOnPollThread()
+    {
+        MockStateMap<String, Long> invalidations = new MockStateMap<>("invalidations", new HashMap<>());
+        StateStore stateStore = createStateStore(invalidations, true);
+        AtomicReference<Thread> pollThread = new AtomicReference<>();
+        AtomicReference<Thread> unlockThread = new AtomicReference<>();
+        Lock lock = stateStore.getLock(CATALOG);
+        when(lock.tryLock()).thenAnswer(invocation -> {
+            pollThread.set(Thread.currentThread());
+            return true;
+        });
+        doAnswer(invocation -> {
+            unlockThread.set(Thread.currentThread());
+            return null;
+        }).when(lock).unlock();
+
+        HiveMetastoreEventInvalidator invalidator = createInvalidator(metastore, Optional.of(stateStore));
+        invalidator.start();
+        invalidator.stop();
+
+        assertNotNull(pollThread.get());
+        assertEquals(unlockThread.get(), pollThread.get());
+    }
+
+    private HiveMetastoreEventInvalidator createInvalidator(CachingHiveMetastore cachingMetastore, Optional<StateStore> stateStore)
+    {
+        return new HiveMetastoreEventInvalidator(cachingMetastore, eventSource, stateStore, CATALOG, new Duration(1, TimeUnit.SECONDS), 1, true);
+    }
+
+    private static StateStore createStateStore(MockStateMap<String, Long> invalidations, boolean leader)
+    {
+        Lock lock = mock(Lock.class);
+        when(lock.tryLock()).thenReturn(leader);
+        StateStore stateStore = mock(StateStore.class);
+        when(stateStore.getLock(anyString())).thenReturn(lock);
+        when(stateStore.getOrCreateStateCollection(anyString(), eq(StateCollection.Type.MAP))).thenReturn(invalidations);
+        return stateStore;
+    }
+
+    private static CachingHiveMetastore createCachingMetastore(MockThriftMetastoreClient client)
+    {
+        MetastoreLocator metastoreLocator = () -> client;
+        return new CachingHiveMetastore(
+                new BridgingHiveMetastore(new ThriftHiveMetastore(metastoreLocator, new ThriftHiveMetastoreConfig())),
+                directExecutor(),
+                directExecutor(),
+                new Duration(1, TimeUnit.MINUTES),
+                new Duration(1, TimeUnit.MINUTES),
+                new Duration(1, TimeUnit.MINUTES),
+                new Duration(1, TimeUnit.MINUTES),
+                1000,
+                false,
+                true);
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive.metastore;
+
+import javax.annotation.concurrent.GuardedBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+
+/**
+ * In memory notification log, standing in for the log of the Hive metastore.
+ */
+public class TestingHiveMetastoreEventSource
+        implements HiveMetastoreEventSource
+{
+    @GuardedBy("this")
+    private final List<HiveMetastoreEvent> events = new ArrayList<>();
+    @GuardedBy("this")
+    private long currentEventId;
+
+    public synchronized void addTableEvent(String eventType, String databaseName, String tableName)
+    {
+        currentEventId++;
+        events.add(new HiveMetastoreEvent(currentEventId, eventType, Optional.of(databaseName), Optional.of(tableName)));
+    }
+
+    public synchronized void addDatabaseEvent(String eventType, String databaseName)
+    {
+        currentEventId++;
+        events.add(new HiveMetastoreEvent(currentEventId, eventType, Optional.of(databaseName), Optional.empty()));
+    }
+
+    /**
+     * Removes the events up to eventId, like the metastore does once they are older than their time to live
+     */
+    public synchronized void removeEvents(long eventId)
+    {
+        events.removeIf(event -> event.getEventId() <= eventId);
+    }
+
+    @Override
+    public synchronized long getCurrentEventId()
+    {
+        return currentEventId;
+    }
+
+    @Override
+    public synchronized List<HiveMetastoreEvent> getNextEvents(long lastEventId, int maxEvents)
+    {
+        return events.stream()
+                .filter(event -> event.getEventId() > lastEventId)
+                .limit(maxEvents)
+                .collect(toImmutableList());
+    }
+}
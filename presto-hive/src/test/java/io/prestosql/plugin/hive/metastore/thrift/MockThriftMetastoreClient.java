@@ -30,6 +30,7 @@ import org.apache.hadoop.hive.metastore.api.LockResponse;
 import org.apache.hadoop.hive.metastore.api.LongColumnStatsData;
 import org.apache.hadoop.hive.metastore.api.MetaException;
 import org.apache.hadoop.hive.metastore.api.NoSuchObjectException;
+import org.apache.hadoop.hive.metastore.api.NotificationEventResponse;
 import org.apache.hadoop.hive.metastore.api.Partition;
 import org.apache.hadoop.hive.metastore.api.PrincipalType;
 import org.apache.hadoop.hive.metastore.api.PrivilegeBag;
@@ -559,6 +560,18 @@ public class MockThriftMetastoreClient
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public long getCurrentNotificationEventId()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public NotificationEventResponse getNextNotification(long lastEventId, int maxEvents)
+    {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public String get_config_value(String name, String defaultValue)
             throws TException
@@ -175,7 +175,7 @@ public class OrcSelectivePageSourceFactoryTest
                 session, configuration, path, 1L, 1L, 1L, columns, false, false, prefilledValues,
                 Arrays.asList(1), domainPredicate, hiveStorageTimeZone, typeManager, maxMergeDistance, maxBufferSize,
                 streamBufferSize, tinyStripeThreshold, maxReadBlockSize, false, false, stats, deleteDeltaLocations,
-                Optional.of(1L), indexes, orcCacheStore, orcCacheProperties, disjunctDomains, Arrays.asList(1),
+                Optional.of(1L), indexes, orcCacheStore, orcCacheProperties, OrcDeletedRowsCache.NO_CACHE, disjunctDomains, Arrays.asList(1),
                 columnMappings, coercers, 1L, Optional.empty());
 
         // Verify the results
@@ -17,6 +17,7 @@ import com.google.common.collect.ImmutableSet;
 import io.airlift.units.DataSize;
 import io.prestosql.plugin.hive.DeleteDeltaLocations;
 import io.prestosql.plugin.hive.FileFormatDataSourceStats;
+import io.prestosql.plugin.hive.HiveConfig;
 import io.prestosql.plugin.hive.HiveTestUtils;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.block.Block;
@@ -92,6 +93,54 @@ public class TestOrcDeletedRows
         assertEquals(block.getPositionCount(), 10);
     }
 
+    @Test
+    public void testDeletedRowsShared()
+    {
+        DeleteDeltaLocations.Builder deleteDeltaLocationsBuilder = DeleteDeltaLocations.builder(partitionDirectory);
+        addDeleteDelta(deleteDeltaLocationsBuilder, 4L, 4L, 0);
+        addDeleteDelta(deleteDeltaLocationsBuilder, 7L, 7L, 0);
+        Optional<DeleteDeltaLocations> deleteDeltaLocations = deleteDeltaLocationsBuilder.build();
+        OrcDeletedRowsCache cache = new OrcDeletedRowsCache(new HiveConfig().setOrcDeleteDeltaCacheEnabled(true));
+
+        // splits of the same bucket read the delete deltas once
+        for (int split = 0; split < 3; split++) {
+            OrcDeletedRows deletedRows = createOrcDeletedRows(deleteDeltaLocations, cache);
+            Page testPage = createTestPage(0, 10);
+            Block block = deletedRows.getMaskDeletedRowsFunction(testPage, Optional.empty()).apply(testPage.getBlock(0));
+            assertEquals(block.getPositionCount(), 8);
+        }
+        assertEquals(cache.getMissCount(), 1);
+        assertEquals(cache.getHitCount(), 2);
+        assertEquals(cache.getSize(), 1);
+    }
+
+    @Test
+    public void testDeletedRowSet()
+    {
+        OrcDeletedRowSet deletedRowSet = OrcDeletedRowSet.builder()
+                .add(0, 536870912, 3)
+                .add(0, 536936448, 5)
+                .add(2, 536870912, 7)
+                .build();
+        assertEquals(deletedRowSet.getDeletedRowCount(), 3);
+
+        // rows of original files are deleted whatever the bucket of the delete event
+        int[] validPositions = new int[10];
+        assertEquals(deletedRowSet.getValidPositions(0, 10, validPositions), 8);
+        assertEquals(validPositions[3], 4);
+        assertEquals(validPositions[4], 6);
+
+        // rows of transactional files must match the bucket as well
+        BlockBuilder originalTransaction = BIGINT.createFixedSizeBlockBuilder(2);
+        BlockBuilder bucket = INTEGER.createFixedSizeBlockBuilder(2);
+        BlockBuilder rowId = BIGINT.createFixedSizeBlockBuilder(2);
+        originalTransaction.writeLong(2).writeLong(2);
+        bucket.writeInt(536870912).writeInt(536936448);
+        rowId.writeLong(7).writeLong(7);
+        assertEquals(deletedRowSet.getValidPositions(originalTransaction.build(), bucket.build(), rowId.build(), 2, validPositions), 1);
+        assertEquals(validPositions[0], 1);
+    }
+
     private void addDeleteDelta(DeleteDeltaLocations.Builder deleteDeltaLocationsBuilder, long minWriteId, long maxWriteId, int statementId)
     {
         Path deleteDeltaPath = new Path(partitionDirectory, AcidUtils.deleteDeltaSubdir(minWriteId, maxWriteId, statementId));
@@ -99,6 +148,11 @@ public class TestOrcDeletedRows
     }
 
     private OrcDeletedRows createOrcDeletedRows(Optional<DeleteDeltaLocations> deleteDeltaLocations)
+    {
+        return createOrcDeletedRows(deleteDeltaLocations, OrcDeletedRowsCache.NO_CACHE);
+    }
+
+    private OrcDeletedRows createOrcDeletedRows(Optional<DeleteDeltaLocations> deleteDeltaLocations, OrcDeletedRowsCache deletedRowsCache)
     {
         JobConf configuration = new JobConf(new Configuration(false));
         OrcDeleteDeltaPageSourceFactory pageSourceFactory = new OrcDeleteDeltaPageSourceFactory(
@@ -121,7 +175,8 @@ public class TestOrcDeletedRows
                 "test",
                 configuration,
                 HiveTestUtils.HDFS_ENVIRONMENT,
-                Optional.empty());
+                Optional.empty(),
+                deletedRowsCache);
     }
 
     private Page createTestPage(int originalTransactionStart, int originalTransactionEnd)
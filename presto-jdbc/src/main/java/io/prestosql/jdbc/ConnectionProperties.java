@@ -18,6 +18,7 @@ import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.net.HostAndPort;
+import io.prestosql.client.ResultFormat;
 
 import java.io.File;
 import java.util.List;
@@ -31,6 +32,7 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.collect.ImmutableMap.toImmutableMap;
 import static io.prestosql.jdbc.AbstractConnectionProperty.checkedPredicate;
 import static java.util.Collections.unmodifiableMap;
+import static java.util.Locale.ENGLISH;
 import static java.util.function.Function.identity;
 import static java.util.stream.Collectors.toMap;
 
@@ -55,6 +57,7 @@ final class ConnectionProperties
     public static final ConnectionProperty<File> KERBEROS_CREDENTIAL_CACHE_PATH = new KerberosCredentialCachePath();
     public static final ConnectionProperty<String> ACCESS_TOKEN = new AccessToken();
     public static final ConnectionProperty<Map<String, String>> EXTRA_CREDENTIALS = new ExtraCredentials();
+    public static final ConnectionProperty<ResultFormat> RESULT_FORMAT = new ResultFormatProperty();
 
     private static final Set<ConnectionProperty<?>> ALL_PROPERTIES = ImmutableSet.<ConnectionProperty<?>>builder()
             .add(USER)
@@ -76,6 +79,7 @@ final class ConnectionProperties
             .add(KERBEROS_CREDENTIAL_CACHE_PATH)
             .add(ACCESS_TOKEN)
             .add(EXTRA_CREDENTIALS)
+            .add(RESULT_FORMAT)
             .build();
 
     private static final Map<String, ConnectionProperty<?>> KEY_LOOKUP = unmodifiableMap(ALL_PROPERTIES.stream()
@@ -293,6 +297,15 @@ final class ConnectionProperties
         }
     }
 
+    private static class ResultFormatProperty
+            extends AbstractConnectionProperty<ResultFormat>
+    {
+        public ResultFormatProperty()
+        {
+            super("resultFormat", NOT_REQUIRED, ALLOWED, value -> ResultFormat.valueOf(value.toUpperCase(ENGLISH)));
+        }
+    }
+
     private static class ExtraCredentials
             extends AbstractConnectionProperty<Map<String, String>>
     {
@@ -21,6 +21,7 @@ import com.google.common.primitives.Ints;
 import io.airlift.units.Duration;
 import io.prestosql.client.ClientSelectedRole;
 import io.prestosql.client.ClientSession;
+import io.prestosql.client.ResultFormat;
 import io.prestosql.client.ServerInfo;
 import io.prestosql.client.StatementClient;
 
@@ -87,6 +88,7 @@ public class PrestoConnection
     private final String user;
     private final Map<String, String> extraCredentials;
     private final Optional<String> applicationNamePrefix;
+    private final ResultFormat resultFormat;
     private final Map<String, String> clientInfo = new ConcurrentHashMap<>();
     private final Map<String, String> sessionProperties = new ConcurrentHashMap<>();
     private final Map<String, String> preparedStatements = new ConcurrentHashMap<>();
@@ -106,6 +108,7 @@ public class PrestoConnection
         this.user = uri.getUser();
         this.applicationNamePrefix = uri.getApplicationNamePrefix();
         this.extraCredentials = uri.getExtraCredentials();
+        this.resultFormat = uri.getResultFormat();
         this.queryExecutor = requireNonNull(queryExecutor, "queryExecutor is null");
 
         timeZoneId.set(ZoneId.systemDefault());
@@ -703,7 +706,9 @@ public class PrestoConnection
                 ImmutableMap.copyOf(roles),
                 extraCredentials,
                 transactionId.get(),
-                timeout);
+                timeout,
+                false,
+                resultFormat);
 
         return queryExecutor.startQuery(session, sql);
     }
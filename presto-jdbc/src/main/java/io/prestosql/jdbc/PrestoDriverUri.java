@@ -18,6 +18,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
 import com.google.common.net.HostAndPort;
 import io.prestosql.client.ClientException;
+import io.prestosql.client.ResultFormat;
 import okhttp3.OkHttpClient;
 
 import java.io.File;
@@ -52,6 +53,7 @@ import static io.prestosql.jdbc.ConnectionProperties.KERBEROS_REMOTE_SERVICE_NAM
 import static io.prestosql.jdbc.ConnectionProperties.KERBEROS_SERVICE_PRINCIPAL_PATTERN;
 import static io.prestosql.jdbc.ConnectionProperties.KERBEROS_USE_CANONICAL_HOSTNAME;
 import static io.prestosql.jdbc.ConnectionProperties.PASSWORD;
+import static io.prestosql.jdbc.ConnectionProperties.RESULT_FORMAT;
 import static io.prestosql.jdbc.ConnectionProperties.SOCKS_PROXY;
 import static io.prestosql.jdbc.ConnectionProperties.SSL;
 import static io.prestosql.jdbc.ConnectionProperties.SSL_KEY_STORE_PASSWORD;
@@ -135,6 +137,12 @@ final class PrestoDriverUri
         return APPLICATION_NAME_PREFIX.getValue(properties);
     }
 
+    public ResultFormat getResultFormat()
+            throws SQLException
+    {
+        return RESULT_FORMAT.getValue(properties).orElse(ResultFormat.JSON);
+    }
+
     public Properties getProperties()
     {
         return properties;
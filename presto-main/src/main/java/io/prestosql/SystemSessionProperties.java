@@ -103,6 +103,7 @@ public final class SystemSessionProperties
     public static final String SKIP_REORDERING_THRESHOLD = "skip_reordering_threshold";
     public static final String INITIAL_SPLITS_PER_NODE = "initial_splits_per_node";
     public static final String SPLIT_CONCURRENCY_ADJUSTMENT_INTERVAL = "split_concurrency_adjustment_interval";
+    public static final String SPLIT_DIVISION_ENABLED = "split_division_enabled";
     public static final String OPTIMIZE_METADATA_QUERIES = "optimize_metadata_queries";
     public static final String FAST_INEQUALITY_JOINS = "fast_inequality_joins";
     public static final String QUERY_PRIORITY = "query_priority";
@@ -159,6 +160,7 @@ public final class SystemSessionProperties
     public static final String ENABLE_CROSS_REGION_DYNAMIC_FILTER = "cross_region_dynamic_filter_enabled";
     public static final String ENABLE_HEURISTICINDEX_FILTER = "heuristicindex_filter_enabled";
     public static final String ENABLE_STAR_TREE_INDEX = "enable_star_tree_index";
+    public static final String CUBE_INCREMENTAL_INSERT_ENABLED = "cube_incremental_insert_enabled";
     public static final String PUSH_TABLE_THROUGH_SUBQUERY = "push_table_through_subquery";
     public static final String OPTIMIZE_DYNAMIC_FILTER_GENERATION = "optimize_dynamic_filter_generation";
     public static final String TRANSFORM_SELF_JOIN_TO_GROUPBY = "transform_self_join_to_groupby";
@@ -169,6 +171,7 @@ public final class SystemSessionProperties
     public static final String PRCNT_DRIVERS_FOR_PARTIAL_AGGR = "prcnt_drivers_for_partial_aggr";
     public static final String SPILL_TO_HDFS_ENABLED = "spill_to_hdfs_enabled";
     public static final String CTE_MATERIALIZATION_ENABLED = "cte_materialization_enabled";
+    public static final String QUERY_RESULT_CACHE_ENABLED = "query_result_cache_enabled";
     public static final String CTE_MATERIALIZATION_THRESHOLD_SIZE = "cte_materialization_threshold_size";
     // CTE Optimization configurations
     public static final String CTE_REUSE_ENABLED = "cte_reuse_enabled";
@@ -202,6 +205,7 @@ public final class SystemSessionProperties
     public static final String FAULT_TOLERANT_EXECUTION_MAX_TASK_SPLIT_COUNT = "fault_tolerant_execution_max_task_split_count";
     public static final String FAULT_TOLERANT_EXECUTION_TASK_MEMORY = "fault_tolerant_execution_task_memory";
     public static final String FAULT_TOLERANT_EXECUTION_PARTITION_COUNT = "fault_tolerant_execution_partition_count";
+    public static final String FAULT_TOLERANT_EXECUTION_ADAPTIVE_JOIN_ENABLED = "fault_tolerant_execution_adaptive_join_enabled";
     public static final String FAULT_TOLERANT_EXECUTION_TASK_MEMORY_GROWTH_FACTOR = "fault_tolerant_execution_task_memory_growth_factor";
     public static final String FAULT_TOLERANT_EXECUTION_TASK_MEMORY_ESTIMATION_QUANTILE = "fault_tolerant_execution_task_memory_estimation_quantile";
 
@@ -221,6 +225,10 @@ public final class SystemSessionProperties
     public static final String TRANSFORM_SELF_JOIN_CTE_TO_WINDOW_AGGREGATE = "transform_self_join_to_window_aggregate";
 
     public static final String USE_EXACT_PARTITIONING = "use_exact_partitioning";
+    public static final String SKEWED_JOIN_REPLICATION_ENABLED = "skewed_join_replication_enabled";
+    public static final String SKEWED_JOIN_HOT_KEY_FRACTION = "skewed_join_hot_key_fraction";
+    public static final String SKEWED_JOIN_SAMPLE_ROWS = "skewed_join_sample_rows";
+    public static final String SKEWED_JOIN_SAMPLE_TIMEOUT = "skewed_join_sample_timeout";
 
     public static final String CTE_MATERIALIZATION_CATALOG_NAME = "cte_materialization_catalog_name";
     public static final String CTE_MATERIALIZATION_SCHEMA_NAME = "cte_materialization_schema_name";
@@ -450,6 +458,11 @@ public final class SystemSessionProperties
                         "Experimental: Interval between changes to the number of concurrent splits per node",
                         taskManagerConfig.getSplitConcurrencyAdjustmentInterval(),
                         false),
+                booleanProperty(
+                        SPLIT_DIVISION_ENABLED,
+                        "Divide large splits into sub-ranges when a worker has idle runner threads",
+                        taskManagerConfig.isSplitDivisionEnabled(),
+                        false),
                 booleanProperty(
                         OPTIMIZE_METADATA_QUERIES,
                         "Enable optimization for metadata queries",
@@ -826,6 +839,11 @@ public final class SystemSessionProperties
                         "Enable star-tree index",
                         featuresConfig.isEnableStarTreeIndex(),
                         false),
+                booleanProperty(
+                        CUBE_INCREMENTAL_INSERT_ENABLED,
+                        "Insert only new source table partitions into cube when INSERT INTO CUBE has no WHERE clause",
+                        featuresConfig.isCubeIncrementalInsertEnabled(),
+                        false),
                 booleanProperty(
                         LIST_BUILT_IN_FUNCTIONS_ONLY,
                         "Only List built-in functions in SHOW FUNCTIONS",
@@ -929,6 +947,12 @@ public final class SystemSessionProperties
                         hetuConfig.isCteMaterializationEnabled(),
                         value -> validateFeatureDisable(value, hetuConfig.isCteMaterializationEnabled(), CTE_MATERIALIZATION_ENABLED),
                         false),
+                booleanProperty(
+                        QUERY_RESULT_CACHE_ENABLED,
+                        "Serve and store final query results in the coordinator result cache",
+                        hetuConfig.isQueryResultCacheEnabled(),
+                        value -> validateFeatureDisable(value, hetuConfig.isQueryResultCacheEnabled(), QUERY_RESULT_CACHE_ENABLED),
+                        false),
                 booleanProperty(
                         ELIMINATE_DUPLICATE_SPILL_FILES,
                         "Eliminates back up of spill files",
@@ -1017,6 +1041,11 @@ public final class SystemSessionProperties
                         "Number of partitions for distributed joins and aggregations executed with fault tolerant execution enabled",
                         queryManagerConfig.getFaultTolerantExecutionPartitionCount(),
                         false),
+                booleanProperty(
+                        FAULT_TOLERANT_EXECUTION_ADAPTIVE_JOIN_ENABLED,
+                        "Re-plan partitioned joins from actual upstream output sizes when fault tolerant execution is enabled",
+                        queryManagerConfig.isFaultTolerantExecutionAdaptiveJoinEnabled(),
+                        false),
                 doubleProperty(
                         FAULT_TOLERANT_EXECUTION_TASK_MEMORY_GROWTH_FACTOR,
                         "Factor by which estimated task memory is increased if task execution runs out of memory; value is used allocating nodes for tasks execution",
@@ -1074,6 +1103,26 @@ public final class SystemSessionProperties
                         "When enabled this forces data repartitioning unless the partitioning of upstream stage matches exactly what downstream stage expects",
                         featuresConfig.isUseExactPartitioning(),
                         false),
+                booleanProperty(
+                        SKEWED_JOIN_REPLICATION_ENABLED,
+                        "Spread hot probe keys of partitioned joins across tasks and replicate the matching build rows",
+                        featuresConfig.isSkewedJoinReplicationEnabled(),
+                        false),
+                doubleProperty(
+                        SKEWED_JOIN_HOT_KEY_FRACTION,
+                        "Minimum fraction of the probe rows sharing a join key for the key to be considered hot",
+                        featuresConfig.getSkewedJoinHotKeyFraction(),
+                        false),
+                integerProperty(
+                        SKEWED_JOIN_SAMPLE_ROWS,
+                        "Number of probe rows sampled to detect hot join keys",
+                        featuresConfig.getSkewedJoinSampleRows(),
+                        false),
+                durationProperty(
+                        SKEWED_JOIN_SAMPLE_TIMEOUT,
+                        "Maximum time planning waits for the sample of the probe rows",
+                        featuresConfig.getSkewedJoinSampleTimeout(),
+                        false),
                 dataSizeProperty(CTE_MATERIALIZATION_THRESHOLD_SIZE,
                         "Maximum allowed size to be stored as part of cte result cache per CTE per query",
                         featuresConfig.getCteMaterializationThresholdSize(),
@@ -1370,6 +1419,11 @@ public final class SystemSessionProperties
         return session.getSystemProperty(SPLIT_CONCURRENCY_ADJUSTMENT_INTERVAL, Duration.class);
     }
 
+    public static boolean isSplitDivisionEnabled(Session session)
+    {
+        return session.getSystemProperty(SPLIT_DIVISION_ENABLED, Boolean.class);
+    }
+
     public static Duration getQueryMaxCpuTime(Session session)
     {
         return session.getSystemProperty(QUERY_MAX_CPU_TIME, Duration.class);
@@ -1676,6 +1730,11 @@ public final class SystemSessionProperties
         return session.getSystemProperty(ENABLE_STAR_TREE_INDEX, Boolean.class);
     }
 
+    public static boolean isCubeIncrementalInsertEnabled(Session session)
+    {
+        return session.getSystemProperty(CUBE_INCREMENTAL_INSERT_ENABLED, Boolean.class);
+    }
+
     public static boolean isListBuiltInFunctionsOnly(Session session)
     {
         return session.getSystemProperty(LIST_BUILT_IN_FUNCTIONS_ONLY, Boolean.class);
@@ -1838,6 +1897,11 @@ public final class SystemSessionProperties
         return session.getSystemProperty(FAULT_TOLERANT_EXECUTION_PARTITION_COUNT, Integer.class);
     }
 
+    public static boolean isFaultTolerantExecutionAdaptiveJoinEnabled(Session session)
+    {
+        return session.getSystemProperty(FAULT_TOLERANT_EXECUTION_ADAPTIVE_JOIN_ENABLED, Boolean.class);
+    }
+
     public static double getFaultTolerantExecutionTaskMemoryGrowthFactor(Session session)
     {
         return session.getSystemProperty(FAULT_TOLERANT_EXECUTION_TASK_MEMORY_GROWTH_FACTOR, Double.class);
@@ -1908,11 +1972,36 @@ public final class SystemSessionProperties
         return session.getSystemProperty(USE_EXACT_PARTITIONING, Boolean.class);
     }
 
+    public static boolean isSkewedJoinReplicationEnabled(Session session)
+    {
+        return session.getSystemProperty(SKEWED_JOIN_REPLICATION_ENABLED, Boolean.class);
+    }
+
+    public static double getSkewedJoinHotKeyFraction(Session session)
+    {
+        return session.getSystemProperty(SKEWED_JOIN_HOT_KEY_FRACTION, Double.class);
+    }
+
+    public static int getSkewedJoinSampleRows(Session session)
+    {
+        return session.getSystemProperty(SKEWED_JOIN_SAMPLE_ROWS, Integer.class);
+    }
+
+    public static Duration getSkewedJoinSampleTimeout(Session session)
+    {
+        return session.getSystemProperty(SKEWED_JOIN_SAMPLE_TIMEOUT, Duration.class);
+    }
+
     public static boolean isCTEResultCacheEnabled(Session session)
     {
         return session.getSystemProperty(CTE_MATERIALIZATION_ENABLED, Boolean.class);
     }
 
+    public static boolean isQueryResultCacheEnabled(Session session)
+    {
+        return session.getSystemProperty(QUERY_RESULT_CACHE_ENABLED, Boolean.class);
+    }
+
     public static String getDataCacheSchemaName(Session session)
     {
         return session.getSystemProperty(CTE_MATERIALIZATION_SCHEMA_NAME, String.class);
@@ -0,0 +1,79 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.cache;
+
+import io.prestosql.spi.Page;
+import io.prestosql.spi.connector.ConnectorPageSource;
+
+import java.util.Iterator;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Serves the pages of a split from the {@link SplitPageCache}, in place of the page source of the connector.
+ */
+public class CachedSplitPageSource
+        implements ConnectorPageSource
+{
+    private final Iterator<Page> pages;
+    private long completedBytes;
+    private boolean closed;
+
+    public CachedSplitPageSource(Iterator<Page> pages)
+    {
+        this.pages = requireNonNull(pages, "pages is null");
+    }
+
+    @Override
+    public long getCompletedBytes()
+    {
+        return completedBytes;
+    }
+
+    @Override
+    public long getReadTimeNanos()
+    {
+        return 0;
+    }
+
+    @Override
+    public boolean isFinished()
+    {
+        return closed || !pages.hasNext();
+    }
+
+    @Override
+    public Page getNextPage()
+    {
+        if (isFinished()) {
+            return null;
+        }
+        // pages are deserialized one at a time
+        Page page = pages.next();
+        completedBytes += page.getSizeInBytes();
+        return page;
+    }
+
+    @Override
+    public long getSystemMemoryUsage()
+    {
+        return 0;
+    }
+
+    @Override
+    public void close()
+    {
+        closed = true;
+    }
+}
@@ -0,0 +1,566 @@
+/*
+ * Copyright (C) 2018-2022. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.cache;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Suppliers;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.Hasher;
+import io.airlift.log.Logger;
+import io.airlift.slice.InputStreamSliceInput;
+import io.airlift.slice.OutputStreamSliceOutput;
+import io.hetu.core.transport.execution.buffer.PagesSerde;
+import io.hetu.core.transport.execution.buffer.PagesSerdeFactory;
+import io.hetu.core.transport.execution.buffer.SerializedPage;
+import io.prestosql.Session;
+import io.prestosql.cost.StatsAndCosts;
+import io.prestosql.expressions.DefaultRowExpressionTraversalVisitor;
+import io.prestosql.filesystem.FileSystemClientManager;
+import io.prestosql.metadata.Metadata;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.QueryId;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockEncodingSerde;
+import io.prestosql.spi.filesystem.HetuFileSystemClient;
+import io.prestosql.spi.plan.PlanNode;
+import io.prestosql.spi.plan.PlanNodeIdAllocator;
+import io.prestosql.spi.plan.Symbol;
+import io.prestosql.spi.plan.TableScanNode;
+import io.prestosql.spi.plan.ValuesNode;
+import io.prestosql.spi.relation.CallExpression;
+import io.prestosql.spi.relation.ConstantExpression;
+import io.prestosql.spi.relation.RowExpression;
+import io.prestosql.spi.type.Type;
+import io.prestosql.sql.planner.Plan;
+import io.prestosql.sql.planner.plan.OutputNode;
+import io.prestosql.sql.relational.RowExpressionDeterminismEvaluator;
+import io.prestosql.utils.HetuConfig;
+import org.weakref.jmx.Managed;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.inject.Inject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.hash.Hashing.sha256;
+import static io.hetu.core.transport.execution.buffer.PagesSerdeUtil.readSerializedPages;
+import static io.hetu.core.transport.execution.buffer.PagesSerdeUtil.writeSerializedPages;
+import static io.prestosql.spi.type.TypeUtils.readNativeValue;
+import static io.prestosql.sql.planner.ExpressionExtractor.extractExpressions;
+import static io.prestosql.sql.planner.optimizations.PlanNodeSearcher.searchFrom;
+import static io.prestosql.sql.planner.planprinter.PlanPrinter.textLogicalPlan;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Locale.ENGLISH;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Keeps the final results of read-only queries on the coordinator. Results are keyed on a hash of the
+ * canonical text of the optimized plan, the session settings that change how values are rendered, and
+ * the data version the connector reports for every scanned table, so a write to any of the tables
+ * leads to a different key and the stale entry simply ages out. Plans reading a table whose connector
+ * cannot report a data version, or evaluating non-deterministic expressions, are never cached.
+ * <p>
+ * A query that misses the cache registers a pending entry; the client protocol hands over the pages
+ * it returns, and the entry is committed once the output is drained and the query finished. A query
+ * that hits the cache is planned as a {@link ValuesNode} holding the cached rows.
+ * <p>
+ * Results are kept in memory, or written to the configured filesystem profile when one is set.
+ * Either way the total size is bounded and the least recently used results are evicted first.
+ */
+public class QueryResultCache
+{
+    private static final Logger LOG = Logger.get(QueryResultCache.class);
+    // deterministic within a query, but evaluated against the query start time
+    private static final Set<String> SESSION_TIME_FUNCTIONS = ImmutableSet.of("current_date", "current_time", "current_timestamp", "now", "localtime", "localtimestamp");
+    private static final String FILE_SUFFIX = ".pages";
+
+    private final boolean enabled;
+    private final long maxEntrySize;
+    private final Metadata metadata;
+    private final PagesSerde serde;
+    private final Optional<Supplier<HetuFileSystemClient>> fileSystemClient;
+    private final Path directory;
+    private final Cache<String, CachedResult> results;
+    private final Cache<QueryId, PendingResult> pendingResults;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong uncacheable = new AtomicLong();
+    private final AtomicLong stored = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    @Inject
+    public QueryResultCache(HetuConfig hetuConfig, Metadata metadata, BlockEncodingSerde blockEncodingSerde, FileSystemClientManager fileSystemClientManager)
+    {
+        this(hetuConfig, metadata, blockEncodingSerde, createFileSystemClient(hetuConfig, fileSystemClientManager));
+    }
+
+    @VisibleForTesting
+    QueryResultCache(HetuConfig hetuConfig, Metadata metadata, BlockEncodingSerde blockEncodingSerde, Optional<Supplier<HetuFileSystemClient>> fileSystemClient)
+    {
+        requireNonNull(hetuConfig, "hetuConfig is null");
+        this.enabled = hetuConfig.isQueryResultCacheEnabled();
+        this.maxEntrySize = hetuConfig.getQueryResultCacheMaxEntrySize().toBytes();
+        this.metadata = metadata;
+        this.fileSystemClient = requireNonNull(fileSystemClient, "fileSystemClient is null");
+        this.directory = Paths.get(hetuConfig.getQueryResultCacheDirectory());
+        long ttlMillis = hetuConfig.getQueryResultCacheTtl().toMillis();
+        this.results = CacheBuilder.newBuilder()
+                .maximumWeight(hetuConfig.getQueryResultCacheMaxSize().toBytes())
+                .weigher((String key, CachedResult result) -> (int) Math.min(Integer.MAX_VALUE, result.getSizeInBytes()))
+                .expireAfterWrite(ttlMillis, MILLISECONDS)
+                .removalListener(this::onRemoval)
+                .build();
+        // queries whose output is never drained through the client protocol must not leak their pages
+        this.pendingResults = CacheBuilder.newBuilder()
+                .expireAfterAccess(ttlMillis, MILLISECONDS)
+                .build();
+
+        if (enabled) {
+            requireNonNull(metadata, "metadata is null");
+            this.serde = new PagesSerdeFactory(requireNonNull(blockEncodingSerde, "blockEncodingSerde is null"), true).createPagesSerde();
+        }
+        else {
+            this.serde = null;
+        }
+    }
+
+    public static QueryResultCache disabled()
+    {
+        return new QueryResultCache(new HetuConfig(), null, null, Optional.empty());
+    }
+
+    private static Optional<Supplier<HetuFileSystemClient>> createFileSystemClient(HetuConfig hetuConfig, FileSystemClientManager fileSystemClientManager)
+    {
+        String profile = hetuConfig.getQueryResultCacheFileSystemProfile();
+        if (profile == null) {
+            return Optional.empty();
+        }
+        Path root = Paths.get(hetuConfig.getQueryResultCacheDirectory());
+        // filesystem profiles are only loaded once the server started, so the client is created on first use
+        return Optional.of(Suppliers.memoize(() -> {
+            try {
+                HetuFileSystemClient client = fileSystemClientManager.getFileSystemClient(profile, root);
+                client.createDirectories(root);
+                return client;
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * Computes the key of the results of the plan, or returns empty if the results may change without
+     * any of the scanned tables being modified.
+     */
+    public Optional<String> getCacheKey(Session session, Plan plan)
+    {
+        if (!enabled || !(plan.getRoot() instanceof OutputNode)) {
+            return Optional.empty();
+        }
+        OutputNode output = (OutputNode) plan.getRoot();
+        if (ImmutableSet.copyOf(output.getOutputSymbols()).size() != output.getOutputSymbols().size()) {
+            // the cached rows are planned as values, which cannot produce a symbol twice
+            return Optional.empty();
+        }
+        if (!isRepeatable(plan.getRoot())) {
+            uncacheable.incrementAndGet();
+            return Optional.empty();
+        }
+
+        Hasher hasher = sha256().newHasher()
+                .putString(textLogicalPlan(plan.getRoot(), plan.getTypes(), metadata, StatsAndCosts.empty(), session, 0, false), UTF_8)
+                .putString(session.getUser(), UTF_8)
+                .putString(session.getTimeZoneKey().getId(), UTF_8)
+                .putString(session.getLocale().toLanguageTag(), UTF_8);
+
+        List<TableScanNode> tableScans = searchFrom(plan.getRoot())
+                .where(TableScanNode.class::isInstance)
+                .findAll();
+        if (tableScans.isEmpty()) {
+            return Optional.empty();
+        }
+        for (TableScanNode tableScan : tableScans) {
+            Optional<String> version = getTableVersion(session, tableScan);
+            if (!version.isPresent()) {
+                uncacheable.incrementAndGet();
+                return Optional.empty();
+            }
+            hasher.putString(tableScan.getTable().toString(), UTF_8).putString(version.get(), UTF_8);
+        }
+        return Optional.of(hasher.hash().toString());
+    }
+
+    private boolean isRepeatable(PlanNode root)
+    {
+        RowExpressionDeterminismEvaluator determinismEvaluator = new RowExpressionDeterminismEvaluator(metadata);
+        AtomicBoolean usesSessionTime = new AtomicBoolean();
+        DefaultRowExpressionTraversalVisitor<Void> sessionTimeVisitor = new DefaultRowExpressionTraversalVisitor<Void>()
+        {
+            @Override
+            public Void visitCall(CallExpression call, Void context)
+            {
+                if (SESSION_TIME_FUNCTIONS.contains(call.getDisplayName().toLowerCase(ENGLISH))) {
+                    usesSessionTime.set(true);
+                }
+                return super.visitCall(call, context);
+            }
+        };
+        for (RowExpression expression : extractExpressions(root)) {
+            if (!determinismEvaluator.isDeterministic(expression)) {
+                return false;
+            }
+            expression.accept(sessionTimeVisitor, null);
+            if (usesSessionTime.get()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Optional<String> getTableVersion(Session session, TableScanNode tableScan)
+    {
+        try {
+            return metadata.getTableDataVersion(session, tableScan.getTable());
+        }
+        catch (PrestoException e) {
+            LOG.debug(e, "Failed to get the data version of table %s", tableScan.getTable());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns the plan answering the query from the cached results, if there are any for the key.
+     */
+    public Optional<Plan> getCachedPlan(String key, Plan plan, PlanNodeIdAllocator idAllocator)
+    {
+        Optional<List<Page>> pages = getResult(key);
+        if (!pages.isPresent()) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+        hits.incrementAndGet();
+
+        OutputNode output = (OutputNode) plan.getRoot();
+        List<Symbol> symbols = output.getOutputSymbols();
+        List<Type> types = symbols.stream()
+                .map(plan.getTypes()::get)
+                .collect(toImmutableList());
+        ImmutableList.Builder<List<RowExpression>> rows = ImmutableList.builder();
+        for (Page page : pages.get()) {
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                ImmutableList.Builder<RowExpression> row = ImmutableList.builder();
+                for (int channel = 0; channel < symbols.size(); channel++) {
+                    Type type = types.get(channel);
+                    Block block = page.getBlock(channel);
+                    row.add(new ConstantExpression(readNativeValue(type, block, position), type));
+                }
+                rows.add(row.build());
+            }
+        }
+        ValuesNode values = new ValuesNode(idAllocator.getNextId(), symbols, rows.build());
+        OutputNode root = new OutputNode(output.getId(), values, output.getColumnNames(), symbols);
+        return Optional.of(new Plan(root, plan.getTypes(), StatsAndCosts.empty()));
+    }
+
+    @VisibleForTesting
+    Optional<List<Page>> getResult(String key)
+    {
+        CachedResult result = results.getIfPresent(key);
+        if (result == null) {
+            return Optional.empty();
+        }
+        try {
+            ImmutableList.Builder<Page> pages = ImmutableList.builder();
+            for (SerializedPage page : result.getPages()) {
+                pages.add(serde.deserialize(page));
+            }
+            return Optional.of(pages.build());
+        }
+        catch (RuntimeException e) {
+            LOG.warn(e, "Failed to read cached query result %s", key);
+            results.invalidate(key);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Starts collecting the output of the query, to be stored under the key once the query finished.
+     */
+    public void registerPending(QueryId queryId, String key)
+    {
+        if (enabled) {
+            pendingResults.put(queryId, new PendingResult(key));
+        }
+    }
+
+    /**
+     * Hands over a page returned to the client. The page is encoded with the serde of the query's exchange.
+     */
+    public void addPage(QueryId queryId, SerializedPage page, PagesSerde exchangeSerde)
+    {
+        if (!enabled) {
+            return;
+        }
+        PendingResult pending = pendingResults.getIfPresent(queryId);
+        if (pending != null && !pending.addPage(serde.serialize(exchangeSerde.deserialize(page)), maxEntrySize)) {
+            pendingResults.invalidate(queryId);
+            rejected.incrementAndGet();
+        }
+    }
+
+    /**
+     * Marks that every page of the query output was handed over.
+     */
+    public void outputFinished(QueryId queryId)
+    {
+        if (!enabled) {
+            return;
+        }
+        PendingResult pending = pendingResults.getIfPresent(queryId);
+        if (pending != null) {
+            pending.outputFinished();
+            commitIfComplete(queryId, pending);
+        }
+    }
+
+    /**
+     * Marks that the query is done. Results of queries that did not succeed are discarded.
+     */
+    public void queryFinished(QueryId queryId, boolean succeeded)
+    {
+        if (!enabled) {
+            return;
+        }
+        PendingResult pending = pendingResults.getIfPresent(queryId);
+        if (pending == null) {
+            return;
+        }
+        if (!succeeded) {
+            pendingResults.invalidate(queryId);
+            return;
+        }
+        pending.queryFinished();
+        commitIfComplete(queryId, pending);
+    }
+
+    private void commitIfComplete(QueryId queryId, PendingResult pending)
+    {
+        Optional<List<SerializedPage>> pages = pending.takeIfComplete();
+        if (!pages.isPresent()) {
+            return;
+        }
+        pendingResults.invalidate(queryId);
+        try {
+            results.put(pending.getKey(), store(pending.getKey(), pages.get()));
+            stored.incrementAndGet();
+        }
+        catch (RuntimeException e) {
+            LOG.warn(e, "Failed to store result of query %s", queryId);
+        }
+    }
+
+    private CachedResult store(String key, List<SerializedPage> pages)
+    {
+        long size = pages.stream().mapToLong(SerializedPage::getSizeInBytes).sum();
+        if (!fileSystemClient.isPresent()) {
+            return new CachedResult(Optional.of(pages), Optional.empty(), size);
+        }
+        HetuFileSystemClient client = fileSystemClient.get().get();
+        Path file = directory.resolve(key + FILE_SUFFIX);
+        try (OutputStreamSliceOutput output = new OutputStreamSliceOutput(client.newOutputStream(file))) {
+            writeSerializedPages(output, pages);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new CachedResult(Optional.empty(), Optional.of(file), size);
+    }
+
+    private void onRemoval(RemovalNotification<String, CachedResult> notification)
+    {
+        Optional<Path> file = notification.getValue().getFile();
+        if (!file.isPresent() || notification.getCause() == RemovalCause.REPLACED) {
+            // the replacing entry was written to the same file
+            return;
+        }
+        try {
+            fileSystemClient.get().get().deleteIfExists(file.get());
+        }
+        catch (IOException | RuntimeException e) {
+            LOG.warn(e, "Failed to delete cached query result %s", file.get());
+        }
+    }
+
+    @Managed
+    public long getHits()
+    {
+        return hits.get();
+    }
+
+    @Managed
+    public long getMisses()
+    {
+        return misses.get();
+    }
+
+    @Managed
+    public long getUncacheableQueries()
+    {
+        return uncacheable.get();
+    }
+
+    @Managed
+    public long getStoredResults()
+    {
+        return stored.get();
+    }
+
+    @Managed
+    public long getRejectedResults()
+    {
+        return rejected.get();
+    }
+
+    @Managed
+    public long getCachedResults()
+    {
+        return results.size();
+    }
+
+    @Managed
+    public long getPendingResults()
+    {
+        return pendingResults.size();
+    }
+
+    private class CachedResult
+    {
+        private final Optional<List<SerializedPage>> pages;
+        private final Optional<Path> file;
+        private final long sizeInBytes;
+
+        CachedResult(Optional<List<SerializedPage>> pages, Optional<Path> file, long sizeInBytes)
+        {
+            this.pages = requireNonNull(pages, "pages is null");
+            this.file = requireNonNull(file, "file is null");
+            this.sizeInBytes = sizeInBytes;
+        }
+
+        List<SerializedPage> getPages()
+        {
+            if (pages.isPresent()) {
+                return pages.get();
+            }
+            try (InputStream input = fileSystemClient.get().get().newInputStream(file.get())) {
+                return ImmutableList.copyOf(readSerializedPages(new InputStreamSliceInput(input)));
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        Optional<Path> getFile()
+        {
+            return file;
+        }
+
+        long getSizeInBytes()
+        {
+            return sizeInBytes;
+        }
+    }
+
+    private static class PendingResult
+    {
+        private final String key;
+
+        @GuardedBy("this")
+        private final List<SerializedPage> pages = new ArrayList<>();
+        @GuardedBy("this")
+        private long sizeInBytes;
+        @GuardedBy("this")
+        private boolean outputFinished;
+        @GuardedBy("this")
+        private boolean queryFinished;
+        @GuardedBy("this")
+        private boolean taken;
+
+        PendingResult(String key)
+        {
+            this.key = requireNonNull(key, "key is null");
+        }
+
+        String getKey()
+        {
+            return key;
+        }
+
+        synchronized boolean addPage(SerializedPage page, long maxSizeInBytes)
+        {
+            sizeInBytes += page.getSizeInBytes();
+            if (sizeInBytes > maxSizeInBytes) {
+                pages.clear();
+                return false;
+            }
+            pages.add(page);
+            return true;
+        }
+
+        synchronized void outputFinished()
+        {
+            outputFinished = true;
+        }
+
+        synchronized void queryFinished()
+        {
+            queryFinished = true;
+        }
+
+        synchronized Optional<List<SerializedPage>> takeIfComplete()
+        {
+            if (taken || !outputFinished || !queryFinished) {
+                return Optional.empty();
+            }
+            taken = true;
+            return Optional.of(ImmutableList.copyOf(pages));
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.cache;
+
+import io.prestosql.spi.Page;
+import io.prestosql.spi.connector.ConnectorPageSource;
+import io.prestosql.spi.metrics.Metrics;
+
+import java.io.IOException;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Passes the pages of a split that missed the {@link SplitPageCache} through, and caches them
+ * once the split was read to the end.
+ */
+public class RecordingSplitPageSource
+        implements ConnectorPageSource
+{
+    private final ConnectorPageSource delegate;
+    private SplitPageCache.Recorder recorder;
+
+    public RecordingSplitPageSource(ConnectorPageSource delegate, SplitPageCache.Recorder recorder)
+    {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        this.recorder = requireNonNull(recorder, "recorder is null");
+    }
+
+    @Override
+    public long getCompletedBytes()
+    {
+        return delegate.getCompletedBytes();
+    }
+
+    @Override
+    public OptionalLong getCompletedPositionCount()
+    {
+        return delegate.getCompletedPositionCount();
+    }
+
+    @Override
+    public long getReadTimeNanos()
+    {
+        return delegate.getReadTimeNanos();
+    }
+
+    @Override
+    public boolean isFinished()
+    {
+        boolean finished = delegate.isFinished();
+        if (finished) {
+            finishRecording();
+        }
+        return finished;
+    }
+
+    @Override
+    public CompletableFuture<?> isBlocked()
+    {
+        return delegate.isBlocked();
+    }
+
+    @Override
+    public Page getNextPage()
+    {
+        Page page = delegate.getNextPage();
+        if (page != null && recorder != null) {
+            recorder.addPage(page);
+        }
+        if (delegate.isFinished()) {
+            finishRecording();
+        }
+        return page;
+    }
+
+    private void finishRecording()
+    {
+        if (recorder != null) {
+            recorder.finish();
+            recorder = null;
+        }
+    }
+
+    @Override
+    public long getSystemMemoryUsage()
+    {
+        long recorderBytes = recorder == null ? 0 : recorder.getRetainedSizeInBytes();
+        return delegate.getSystemMemoryUsage() + recorderBytes;
+    }
+
+    @Override
+    public Metrics getMetrics()
+    {
+        return delegate.getMetrics();
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        // the split was not read to the end
+        recorder = null;
+        delegate.close();
+    }
+}
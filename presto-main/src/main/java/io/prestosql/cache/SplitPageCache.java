@@ -0,0 +1,577 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.cache;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.sun.management.HotSpotDiagnosticMXBean;
+import io.airlift.log.Logger;
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import io.hetu.core.transport.execution.buffer.PagesSerde;
+import io.hetu.core.transport.execution.buffer.PagesSerdeFactory;
+import io.prestosql.metadata.Split;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.BlockEncodingSerde;
+import io.prestosql.spi.connector.ColumnHandle;
+import io.prestosql.spi.connector.ConnectorSplit;
+import io.prestosql.spi.connector.ConnectorTableHandle;
+import io.prestosql.spi.metadata.TableHandle;
+import io.prestosql.utils.HetuConfig;
+import org.weakref.jmx.Managed;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static io.hetu.core.transport.execution.buffer.PagesSerdeUtil.readPages;
+import static io.hetu.core.transport.execution.buffer.PagesSerdeUtil.writePages;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Worker side cache of the pages read from the splits of cached tables (see CACHE TABLE). The split
+ * cache map already schedules such a split on the same worker every time, so keeping its pages lets
+ * later scans skip the connector. Pages are kept serialized and compressed in off-heap memory, and
+ * moved to local disk when memory runs out. Tables whose cached splits are read the least give up
+ * their space first, least recently used split first.
+ */
+@ThreadSafe
+public class SplitPageCache
+{
+    private static final Logger LOG = Logger.get(SplitPageCache.class);
+    private static final String FILE_SUFFIX = ".pages";
+
+    private final boolean enabled;
+    private final PagesSerde serde;
+    private final long maxMemoryBytes;
+    private final long maxDiskBytes;
+    private final Path diskPath;
+
+    @GuardedBy("this")
+    private final Map<String, TableEntries> tables = new HashMap<>();
+    @GuardedBy("this")
+    private long memoryBytes;
+    @GuardedBy("this")
+    private long diskBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong stored = new AtomicLong();
+    private final AtomicLong spilled = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+
+    @Inject
+    public SplitPageCache(HetuConfig hetuConfig, BlockEncodingSerde blockEncodingSerde)
+    {
+        this(hetuConfig, blockEncodingSerde, getMaxDirectMemory());
+    }
+
+    @VisibleForTesting
+    SplitPageCache(HetuConfig hetuConfig, BlockEncodingSerde blockEncodingSerde, long maxDirectMemory)
+    {
+        requireNonNull(hetuConfig, "hetuConfig is null");
+        this.enabled = hetuConfig.isSplitCacheMapEnabled() && hetuConfig.isSplitPageCacheEnabled();
+        this.maxMemoryBytes = hetuConfig.getSplitPageCacheMaxMemory().toBytes();
+        this.maxDiskBytes = hetuConfig.getSplitPageCacheMaxDiskSize().toBytes();
+        this.diskPath = Paths.get(hetuConfig.getSplitPageCacheDiskPath());
+
+        if (enabled) {
+            // cached pages are kept in direct buffers, which must not take all of the direct memory of the JVM
+            if (maxMemoryBytes >= maxDirectMemory) {
+                throw new IllegalArgumentException(format(
+                        "Invalid split page cache configuration. The max memory of the split page cache (%s) must be less than the max direct memory of the JVM (%s), see -XX:MaxDirectMemorySize",
+                        maxMemoryBytes,
+                        maxDirectMemory));
+            }
+            this.serde = new PagesSerdeFactory(requireNonNull(blockEncodingSerde, "blockEncodingSerde is null"), true).createPagesSerde();
+            if (maxDiskBytes > 0) {
+                cleanDiskPath(diskPath);
+            }
+        }
+        else {
+            this.serde = null;
+        }
+    }
+
+    public static SplitPageCache disabled()
+    {
+        return new SplitPageCache(new HetuConfig(), null);
+    }
+
+    private static long getMaxDirectMemory()
+    {
+        try {
+            HotSpotDiagnosticMXBean diagnostics = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+            long maxDirectMemory = Long.parseLong(diagnostics.getVMOption("MaxDirectMemorySize").getValue());
+            if (maxDirectMemory > 0) {
+                return maxDirectMemory;
+            }
+        }
+        catch (RuntimeException e) {
+            LOG.debug(e, "Failed to get MaxDirectMemorySize of the JVM");
+        }
+        // without the option, the JVM allows as much direct memory as heap
+        return Runtime.getRuntime().maxMemory();
+    }
+
+    private static void cleanDiskPath(Path diskPath)
+    {
+        // pages left behind by a previous run of the worker are not tracked by anyone
+        try {
+            Files.createDirectories(diskPath);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(diskPath, "*" + FILE_SUFFIX)) {
+                for (Path file : files) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Failed to prepare split page cache directory " + diskPath, e);
+        }
+    }
+
+    /**
+     * Returns the cache key of the pages read from the split with the given table handle and columns,
+     * or empty if pages of the split cannot be cached.
+     */
+    public Optional<Key> createKey(Split split, TableHandle table, List<ColumnHandle> columns)
+    {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        ConnectorSplit connectorSplit = split.getConnectorSplit();
+        if (!connectorSplit.isPageCacheable()) {
+            return Optional.empty();
+        }
+        return Optional.of(new Key(
+                table.getFullyQualifiedName(),
+                connectorSplit.getFilePath(),
+                connectorSplit.getStartIndex(),
+                connectorSplit.getEndIndex(),
+                connectorSplit.getLastModifiedTime(),
+                table.getConnectorHandle(),
+                columns));
+    }
+
+    /**
+     * Returns the cached pages of the split, or empty if they are not cached.
+     */
+    public Optional<Iterator<Page>> getPages(Key key)
+    {
+        Entry entry;
+        synchronized (this) {
+            TableEntries table = tables.get(key.getTable());
+            entry = table == null ? null : table.entries.get(key);
+            if (entry == null) {
+                misses.incrementAndGet();
+                return Optional.empty();
+            }
+            table.hits++;
+        }
+
+        Slice data;
+        if (entry.memory.isPresent()) {
+            data = entry.memory.get();
+        }
+        else {
+            try {
+                data = Slices.wrappedBuffer(Files.readAllBytes(entry.file.get()));
+            }
+            catch (IOException e) {
+                // the entry was evicted while it was read
+                LOG.debug(e, "Failed to read cached pages of %s", key);
+                misses.incrementAndGet();
+                return Optional.empty();
+            }
+        }
+        hits.incrementAndGet();
+        return Optional.of(readPages(serde, data.getInput()));
+    }
+
+    /**
+     * Starts recording the pages read from a split that missed the cache.
+     */
+    public Recorder newRecorder(Key key)
+    {
+        return new Recorder(key);
+    }
+
+    private void put(Key key, Slice data, int pageCount)
+    {
+        // allocating direct memory can wait for a GC to free buffers, so it is not done while holding the lock
+        Optional<Slice> memory = data.length() <= maxMemoryBytes ? copyToDirectMemory(data) : Optional.empty();
+        synchronized (this) {
+            put(key, data, memory, pageCount);
+        }
+    }
+
+    @GuardedBy("this")
+    private void put(Key key, Slice data, Optional<Slice> memory, int pageCount)
+    {
+        TableEntries table = tables.computeIfAbsent(key.getTable(), ignored -> new TableEntries());
+        if (table.entries.containsKey(key)) {
+            // another driver read the same split concurrently
+            return;
+        }
+
+        long size = data.length();
+        Optional<Entry> entry;
+        if (memory.isPresent() && makeRoom(size, table.hits, false)) {
+            memoryBytes += size;
+            entry = Optional.of(new Entry(memory, Optional.empty(), size));
+        }
+        else {
+            entry = writeToDisk(data, table.hits);
+        }
+
+        if (entry.isPresent()) {
+            addEntry(table, key, entry.get());
+            stored.incrementAndGet();
+            LOG.debug("Cached %s pages (%s bytes) of %s", pageCount, size, key);
+        }
+        else if (table.entries.isEmpty()) {
+            tables.remove(key.getTable());
+        }
+    }
+
+    private static Optional<Slice> copyToDirectMemory(Slice data)
+    {
+        Slice memory;
+        try {
+            memory = Slices.wrappedBuffer(ByteBuffer.allocateDirect(data.length()));
+        }
+        catch (OutOfMemoryError e) {
+            // the direct memory is used by others, the pages are not admitted to memory
+            LOG.warn("Failed to allocate %s bytes of direct memory for split pages: %s", data.length(), e.getMessage());
+            return Optional.empty();
+        }
+        memory.setBytes(0, data);
+        return Optional.of(memory);
+    }
+
+    @GuardedBy("this")
+    private Optional<Entry> writeToDisk(Slice data, long hits)
+    {
+        long size = data.length();
+        if (size > maxDiskBytes || !makeRoom(size, hits, true)) {
+            return Optional.empty();
+        }
+        Path file = diskPath.resolve(UUID.randomUUID() + FILE_SUFFIX);
+        try {
+            Files.write(file, data.getBytes());
+        }
+        catch (IOException e) {
+            LOG.warn(e, "Failed to write split pages to %s", file);
+            deleteFile(file);
+            return Optional.empty();
+        }
+        diskBytes += size;
+        return Optional.of(new Entry(Optional.empty(), Optional.of(file), size));
+    }
+
+    /**
+     * Evicts entries from memory or disk until there is room for an entry of the given size.
+     * Only entries of tables that were not read more often than the table of the new entry are
+     * evicted, so the new entry is not admitted when that is not enough.
+     */
+    @GuardedBy("this")
+    private boolean makeRoom(long size, long hits, boolean disk)
+    {
+        long max = disk ? maxDiskBytes : maxMemoryBytes;
+        while ((disk ? diskBytes : memoryBytes) + size > max) {
+            TableEntries victimTable = null;
+            Key victimKey = null;
+            for (TableEntries table : tables.values()) {
+                if (table.hits > hits || (victimTable != null && table.hits >= victimTable.hits)) {
+                    continue;
+                }
+                // entries are in access order, the first one of the tier is the least recently used
+                for (Map.Entry<Key, Entry> entry : table.entries.entrySet()) {
+                    if (entry.getValue().memory.isPresent() != disk) {
+                        victimTable = table;
+                        victimKey = entry.getKey();
+                        break;
+                    }
+                }
+            }
+            if (victimKey == null) {
+                return false;
+            }
+            evict(victimTable, victimKey, disk);
+        }
+        return true;
+    }
+
+    @GuardedBy("this")
+    private void evict(TableEntries table, Key key, boolean disk)
+    {
+        Entry entry = table.entries.remove(key);
+        if (disk) {
+            diskBytes -= entry.sizeInBytes;
+            deleteFile(entry.file.get());
+            evicted.incrementAndGet();
+        }
+        else {
+            memoryBytes -= entry.sizeInBytes;
+            Optional<Entry> spilledEntry = maxDiskBytes > 0 ? writeToDisk(entry.memory.get(), table.hits) : Optional.empty();
+            if (spilledEntry.isPresent()) {
+                addEntry(table, key, spilledEntry.get());
+                spilled.incrementAndGet();
+            }
+            else {
+                evicted.incrementAndGet();
+            }
+        }
+        if (table.entries.isEmpty()) {
+            tables.remove(key.getTable());
+        }
+    }
+
+    @GuardedBy("this")
+    private void addEntry(TableEntries table, Key key, Entry entry)
+    {
+        // making room may have evicted the last entry of the table and removed it
+        tables.putIfAbsent(key.getTable(), table);
+        table.entries.put(key, entry);
+    }
+
+    private static void deleteFile(Path file)
+    {
+        try {
+            Files.deleteIfExists(file);
+        }
+        catch (IOException e) {
+            LOG.warn(e, "Failed to delete cached split pages %s", file);
+        }
+    }
+
+    @VisibleForTesting
+    synchronized List<Key> getMemoryKeys()
+    {
+        return getKeys(false);
+    }
+
+    @VisibleForTesting
+    synchronized List<Key> getDiskKeys()
+    {
+        return getKeys(true);
+    }
+
+    @GuardedBy("this")
+    private List<Key> getKeys(boolean disk)
+    {
+        ImmutableList.Builder<Key> keys = ImmutableList.builder();
+        for (TableEntries table : tables.values()) {
+            table.entries.forEach((key, entry) -> {
+                if (entry.file.isPresent() == disk) {
+                    keys.add(key);
+                }
+            });
+        }
+        return keys.build();
+    }
+
+    @Managed
+    public long getHits()
+    {
+        return hits.get();
+    }
+
+    @Managed
+    public long getMisses()
+    {
+        return misses.get();
+    }
+
+    @Managed
+    public long getStoredSplits()
+    {
+        return stored.get();
+    }
+
+    @Managed
+    public long getSpilledSplits()
+    {
+        return spilled.get();
+    }
+
+    @Managed
+    public long getEvictedSplits()
+    {
+        return evicted.get();
+    }
+
+    @Managed
+    public synchronized long getMemoryBytes()
+    {
+        return memoryBytes;
+    }
+
+    @Managed
+    public synchronized long getDiskBytes()
+    {
+        return diskBytes;
+    }
+
+    /**
+     * Collects the pages read from a split, and caches them once the whole split was read.
+     * Recording is given up when the pages cannot fit in the cache.
+     */
+    public class Recorder
+    {
+        private final Key key;
+        private DynamicSliceOutput output = new DynamicSliceOutput(0);
+        private int pageCount;
+
+        private Recorder(Key key)
+        {
+            this.key = requireNonNull(key, "key is null");
+        }
+
+        public void addPage(Page page)
+        {
+            if (output == null) {
+                return;
+            }
+            writePages(serde, output, page);
+            pageCount++;
+            // pages are always offered to memory first, larger splits are not cached at all
+            if (output.size() > maxMemoryBytes) {
+                output = null;
+            }
+        }
+
+        public long getRetainedSizeInBytes()
+        {
+            return output == null ? 0 : output.getRetainedSize();
+        }
+
+        public void finish()
+        {
+            if (output != null) {
+                put(key, output.slice(), pageCount);
+                output = null;
+            }
+        }
+    }
+
+    private static class TableEntries
+    {
+        // access ordered, so iteration starts at the least recently used split
+        private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private long hits;
+    }
+
+    private static class Entry
+    {
+        private final Optional<Slice> memory;
+        private final Optional<Path> file;
+        private final long sizeInBytes;
+
+        Entry(Optional<Slice> memory, Optional<Path> file, long sizeInBytes)
+        {
+            this.memory = requireNonNull(memory, "memory is null");
+            this.file = requireNonNull(file, "file is null");
+            this.sizeInBytes = sizeInBytes;
+        }
+    }
+
+    public static final class Key
+    {
+        private final String table;
+        private final String path;
+        private final long start;
+        private final long end;
+        private final long lastModifiedTime;
+        private final ConnectorTableHandle tableHandle;
+        private final List<ColumnHandle> columns;
+
+        @VisibleForTesting
+        Key(String table, String path, long start, long end, long lastModifiedTime, ConnectorTableHandle tableHandle, List<ColumnHandle> columns)
+        {
+            this.table = requireNonNull(table, "table is null");
+            this.path = requireNonNull(path, "path is null");
+            this.start = start;
+            this.end = end;
+            this.lastModifiedTime = lastModifiedTime;
+            // the table handle carries the predicates pushed into the connector
+            this.tableHandle = requireNonNull(tableHandle, "tableHandle is null");
+            this.columns = ImmutableList.copyOf(requireNonNull(columns, "columns is null"));
+        }
+
+        public String getTable()
+        {
+            return table;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key that = (Key) o;
+            return start == that.start &&
+                    end == that.end &&
+                    lastModifiedTime == that.lastModifiedTime &&
+                    table.equals(that.table) &&
+                    path.equals(that.path) &&
+                    tableHandle.equals(that.tableHandle) &&
+                    columns.equals(that.columns);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(table, path, start, end, lastModifiedTime, tableHandle, columns);
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("table", table)
+                    .add("path", path)
+                    .add("start", start)
+                    .add("end", end)
+                    .add("lastModifiedTime", lastModifiedTime)
+                    .add("columns", columns)
+                    .toString();
+        }
+    }
+}
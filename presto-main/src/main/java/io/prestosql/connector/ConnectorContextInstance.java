@@ -25,6 +25,7 @@ import io.prestosql.spi.heuristicindex.IndexClient;
 import io.prestosql.spi.metastore.HetuMetastore;
 import io.prestosql.spi.plan.FilterStatsCalculatorService;
 import io.prestosql.spi.relation.RowExpressionService;
+import io.prestosql.spi.statestore.StateStore;
 import io.prestosql.spi.type.TypeManager;
 
 import static java.util.Objects.requireNonNull;
@@ -45,6 +46,7 @@ public class ConnectorContextInstance
     private final StandardFunctionResolution functionResolution;
     private final BlockEncodingSerde blockEncodingSerde;
     private final FilterStatsCalculatorService filterStatsCalculatorService;
+    private final StateStore stateStore;
 
     public ConnectorContextInstance(
             NodeManager nodeManager,
@@ -58,7 +60,8 @@ public class ConnectorContextInstance
             FunctionMetadataManager functionMetadataManager,
             StandardFunctionResolution functionResolution,
             BlockEncodingSerde blockEncodingSerde,
-            FilterStatsCalculatorService filterStatsCalculatorService)
+            FilterStatsCalculatorService filterStatsCalculatorService,
+            StateStore stateStore)
     {
         this.nodeManager = requireNonNull(nodeManager, "nodeManager is null");
         this.versionEmbedder = requireNonNull(versionEmbedder, "versionEmbedder is null");
@@ -72,6 +75,7 @@ public class ConnectorContextInstance
         this.functionResolution = requireNonNull(functionResolution, "functionResolution is null");
         this.blockEncodingSerde = requireNonNull(blockEncodingSerde, "blockEncodingSerde is null");
         this.filterStatsCalculatorService = requireNonNull(filterStatsCalculatorService, "filterStatsCalculatorService is null");
+        this.stateStore = stateStore;
     }
 
     @Override
@@ -116,6 +120,12 @@ public class ConnectorContextInstance
         return hetuMetastore;
     }
 
+    @Override
+    public StateStore getStateStore()
+    {
+        return stateStore;
+    }
+
     @Override
     public RowExpressionService getRowExpressionService()
     {
@@ -77,6 +77,7 @@ import io.prestosql.sql.planner.ConnectorPlanOptimizerManager;
 import io.prestosql.sql.planner.NodePartitioningManager;
 import io.prestosql.sql.relational.ConnectorRowExpressionService;
 import io.prestosql.sql.relational.FunctionResolution;
+import io.prestosql.statestore.StateStoreProvider;
 import io.prestosql.transaction.TransactionManager;
 import io.prestosql.type.InternalTypeManager;
 import io.prestosql.version.EmbedVersion;
@@ -153,6 +154,7 @@ public class ConnectorManager
     private final TableProceduresRegistry tableProceduresRegistry;
     private final TableProceduresPropertyManager tableProceduresPropertyManager;
     private final MaterializedViewPropertyManager materializedViewPropertyManager;
+    private final StateStoreProvider stateStoreProvider;
 
     @Inject
     public ConnectorManager(
@@ -181,7 +183,8 @@ public class ConnectorManager
             HeuristicIndexerManager heuristicIndexerManager,
             DomainTranslator domainTranslator,
             DeterminismEvaluator determinismEvaluator,
-            FilterStatsCalculator filterStatsCalculator)
+            FilterStatsCalculator filterStatsCalculator,
+            StateStoreProvider stateStoreProvider)
     {
         this.materializedViewPropertyManager = materializedViewPropertyManager;
         this.hetuMetaStoreManager = hetuMetaStoreManager;
@@ -209,6 +212,7 @@ public class ConnectorManager
         this.domainTranslator = domainTranslator;
         this.determinismEvaluator = determinismEvaluator;
         this.filterStatsCalculator = filterStatsCalculator;
+        this.stateStoreProvider = stateStoreProvider;
         this.tableProceduresRegistry = TableProceduresRegistry.getInstance();
         this.tableProceduresPropertyManager = TableProceduresPropertyManager.getInstance();
     }
@@ -477,7 +481,8 @@ public class ConnectorManager
                 metadataManager.getFunctionAndTypeManager(),
                 new FunctionResolution(metadataManager.getFunctionAndTypeManager()),
                 metadataManager.getFunctionAndTypeManager().getBlockEncodingSerde(),
-                new ConnectorFilterStatsCalculatorService(filterStatsCalculator));
+                new ConnectorFilterStatsCalculatorService(filterStatsCalculator),
+                stateStoreProvider == null ? null : stateStoreProvider.getStateStore());
 
         try (ThreadContextClassLoader ignored = new ThreadContextClassLoader(factory.getClass().getClassLoader())) {
             Connector connector = factory.create(catalogName.getCatalogName(), properties, context);
@@ -0,0 +1,389 @@
+/*
+ * Copyright (C) 2018-2022. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.cube;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Sets;
+import io.prestosql.spi.queryhistory.QueryHistoryEntity;
+import io.prestosql.sql.parser.ParsingException;
+import io.prestosql.sql.parser.ParsingOptions;
+import io.prestosql.sql.parser.SqlParser;
+import io.prestosql.sql.tree.AliasedRelation;
+import io.prestosql.sql.tree.DefaultExpressionTraversalVisitor;
+import io.prestosql.sql.tree.Expression;
+import io.prestosql.sql.tree.FunctionCall;
+import io.prestosql.sql.tree.GroupingElement;
+import io.prestosql.sql.tree.Identifier;
+import io.prestosql.sql.tree.LongLiteral;
+import io.prestosql.sql.tree.Query;
+import io.prestosql.sql.tree.QueryBody;
+import io.prestosql.sql.tree.QuerySpecification;
+import io.prestosql.sql.tree.Relation;
+import io.prestosql.sql.tree.SelectItem;
+import io.prestosql.sql.tree.SimpleGroupBy;
+import io.prestosql.sql.tree.SingleColumn;
+import io.prestosql.sql.tree.Statement;
+import io.prestosql.sql.tree.SubqueryExpression;
+import io.prestosql.sql.tree.Table;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Strings.isNullOrEmpty;
+import static io.hetu.core.spi.cube.CubeAggregateFunction.COUNT;
+import static io.hetu.core.spi.cube.CubeAggregateFunction.SUPPORTED_FUNCTIONS;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Recommends cubes from the aggregation queries recorded in the query history.
+ * <p>
+ * Every single-table aggregation query that the star-tree optimizer could answer from a cube
+ * is reduced to its source table, the columns a cube must group by (group by and filter columns)
+ * and its aggregations. Per source table, cubes are then picked greedily: each step picks the
+ * group column set that answers most of the remaining queries, preferring fewer columns as a
+ * smaller group leads to a smaller cube. A cube can answer a query grouping by a subset of its
+ * columns, except for count distinct that needs an exact match.
+ */
+public class CubeAdvisor
+{
+    // limit the candidate column sets combined from two query patterns
+    private static final int MAX_COMBINED_PATTERNS = 50;
+
+    private final SqlParser sqlParser;
+
+    public CubeAdvisor(SqlParser sqlParser)
+    {
+        this.sqlParser = requireNonNull(sqlParser, "sqlParser is null");
+    }
+
+    public List<CuboidRecommendation> recommend(List<QueryHistoryEntity> queries, int maxCubesPerTable, int maxGroupSize)
+    {
+        checkArgument(maxCubesPerTable > 0, "maxCubesPerTable must be positive");
+        checkArgument(maxGroupSize > 0, "maxGroupSize must be positive");
+
+        Map<String, Map<List<Object>, QueryPattern>> tablePatterns = new TreeMap<>();
+        for (QueryHistoryEntity query : queries) {
+            extractPattern(query).ifPresent(pattern -> tablePatterns
+                    .computeIfAbsent(pattern.getSourceTable(), table -> new HashMap<>())
+                    .merge(pattern.getKey(), pattern, QueryPattern::merge));
+        }
+
+        ImmutableList.Builder<CuboidRecommendation> recommendations = ImmutableList.builder();
+        tablePatterns.forEach((table, patterns) -> recommendations.addAll(recommendForTable(table, patterns.values(), maxCubesPerTable, maxGroupSize)));
+        return recommendations.build();
+    }
+
+    private static List<CuboidRecommendation> recommendForTable(String table, Iterable<QueryPattern> patterns, int maxCubes, int maxGroupSize)
+    {
+        List<QueryPattern> remaining = new ArrayList<>();
+        for (QueryPattern pattern : patterns) {
+            if (pattern.getGroup().size() <= maxGroupSize) {
+                remaining.add(pattern);
+            }
+        }
+        remaining.sort(Comparator.comparingInt(QueryPattern::getCount).reversed());
+
+        Set<Set<String>> candidates = new LinkedHashSet<>();
+        remaining.forEach(pattern -> candidates.add(pattern.getGroup()));
+        List<QueryPattern> frequent = remaining.subList(0, Math.min(MAX_COMBINED_PATTERNS, remaining.size()));
+        for (int i = 0; i < frequent.size(); i++) {
+            for (int j = i + 1; j < frequent.size(); j++) {
+                Set<String> combined = Sets.union(frequent.get(i).getGroup(), frequent.get(j).getGroup());
+                if (combined.size() <= maxGroupSize) {
+                    candidates.add(ImmutableSortedSet.copyOf(combined));
+                }
+            }
+        }
+
+        List<CuboidRecommendation> recommendations = new ArrayList<>();
+        while (recommendations.size() < maxCubes && !remaining.isEmpty()) {
+            Set<String> best = null;
+            int bestCoveredQueries = 0;
+            for (Set<String> candidate : candidates) {
+                int coveredQueries = remaining.stream()
+                        .filter(pattern -> pattern.isAnsweredBy(candidate))
+                        .mapToInt(QueryPattern::getCount)
+                        .sum();
+                if (coveredQueries > bestCoveredQueries || (coveredQueries == bestCoveredQueries && best != null && candidate.size() < best.size())) {
+                    best = candidate;
+                    bestCoveredQueries = coveredQueries;
+                }
+            }
+            if (best == null) {
+                break;
+            }
+            Set<String> group = best;
+            List<QueryPattern> covered = remaining.stream()
+                    .filter(pattern -> pattern.isAnsweredBy(group))
+                    .collect(Collectors.toList());
+            remaining.removeAll(covered);
+            candidates.remove(group);
+
+            Set<String> aggregations = new TreeSet<>();
+            covered.forEach(pattern -> aggregations.addAll(pattern.getAggregations()));
+            String cubeName = format("%s_cube_%d", table, recommendations.size() + 1);
+            String createCubeStatement = format("CREATE CUBE %s ON %s WITH (AGGREGATIONS = (%s), GROUP = (%s))",
+                    cubeName,
+                    table,
+                    String.join(", ", aggregations),
+                    String.join(", ", group));
+            recommendations.add(new CuboidRecommendation(table, ImmutableList.copyOf(group), ImmutableList.copyOf(aggregations), bestCoveredQueries, createCubeStatement));
+        }
+        return recommendations;
+    }
+
+    private Optional<QueryPattern> extractPattern(QueryHistoryEntity query)
+    {
+        if (isNullOrEmpty(query.getQuery())) {
+            return Optional.empty();
+        }
+        Statement statement;
+        try {
+            statement = sqlParser.createStatement(query.getQuery(), new ParsingOptions());
+        }
+        catch (ParsingException e) {
+            return Optional.empty();
+        }
+        if (!(statement instanceof Query)) {
+            return Optional.empty();
+        }
+        QueryBody queryBody = ((Query) statement).getQueryBody();
+        if (!(queryBody instanceof QuerySpecification)) {
+            return Optional.empty();
+        }
+        QuerySpecification specification = (QuerySpecification) queryBody;
+        if (!specification.getFrom().isPresent()) {
+            return Optional.empty();
+        }
+        Relation relation = specification.getFrom().get();
+        if (relation instanceof AliasedRelation) {
+            relation = ((AliasedRelation) relation).getRelation();
+        }
+        if (!(relation instanceof Table)) {
+            return Optional.empty();
+        }
+        Optional<String> sourceTable = qualifyTableName(((Table) relation).getName().getParts(), query.getCatalog(), query.getSchemata());
+        if (!sourceTable.isPresent()) {
+            return Optional.empty();
+        }
+
+        Set<String> group = new TreeSet<>();
+        if (specification.getGroupBy().isPresent()) {
+            for (GroupingElement groupingElement : specification.getGroupBy().get().getGroupingElements()) {
+                if (!(groupingElement instanceof SimpleGroupBy)) {
+                    return Optional.empty();
+                }
+                for (Expression expression : groupingElement.getExpressions()) {
+                    Optional<String> column = getGroupingColumn(expression, specification.getSelect().getSelectItems());
+                    if (!column.isPresent()) {
+                        return Optional.empty();
+                    }
+                    group.add(column.get());
+                }
+            }
+        }
+
+        // the cube has to contain the filter columns as well
+        if (specification.getWhere().isPresent()) {
+            AggregationExtractor whereExtractor = new AggregationExtractor();
+            whereExtractor.process(specification.getWhere().get(), null);
+            if (!whereExtractor.isSupported() || !whereExtractor.getAggregations().isEmpty()) {
+                return Optional.empty();
+            }
+            group.addAll(whereExtractor.getColumns());
+        }
+
+        AggregationExtractor selectExtractor = new AggregationExtractor();
+        for (SelectItem selectItem : specification.getSelect().getSelectItems()) {
+            if (!(selectItem instanceof SingleColumn)) {
+                return Optional.empty();
+            }
+            selectExtractor.process(((SingleColumn) selectItem).getExpression(), null);
+        }
+        specification.getHaving().ifPresent(having -> selectExtractor.process(having, null));
+        if (!selectExtractor.isSupported() || selectExtractor.getAggregations().isEmpty() || group.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(new QueryPattern(sourceTable.get(), group, selectExtractor.hasDistinct(), selectExtractor.getAggregations()));
+    }
+
+    private static Optional<String> qualifyTableName(List<String> parts, String catalog, String schema)
+    {
+        if (parts.size() == 3) {
+            return Optional.of(String.join(".", parts));
+        }
+        if (parts.size() == 2 && !isNullOrEmpty(catalog)) {
+            return Optional.of(catalog + "." + String.join(".", parts));
+        }
+        if (parts.size() == 1 && !isNullOrEmpty(catalog) && !isNullOrEmpty(schema)) {
+            return Optional.of(catalog + "." + schema + "." + parts.get(0));
+        }
+        return Optional.empty();
+    }
+
+    private static Optional<String> getGroupingColumn(Expression expression, List<SelectItem> selectItems)
+    {
+        Expression column = expression;
+        if (expression instanceof LongLiteral) {
+            // GROUP BY ordinal
+            long ordinal = ((LongLiteral) expression).getValue();
+            if (ordinal < 1 || ordinal > selectItems.size() || !(selectItems.get((int) ordinal - 1) instanceof SingleColumn)) {
+                return Optional.empty();
+            }
+            column = ((SingleColumn) selectItems.get((int) ordinal - 1)).getExpression();
+        }
+        if (column instanceof Identifier) {
+            return Optional.of(((Identifier) column).getValue().toLowerCase(Locale.ENGLISH));
+        }
+        return Optional.empty();
+    }
+
+    private static class AggregationExtractor
+            extends DefaultExpressionTraversalVisitor<Void, Void>
+    {
+        private final Set<String> aggregations = new TreeSet<>();
+        private final Set<String> columns = new TreeSet<>();
+        private boolean supported = true;
+        private boolean distinct;
+
+        @Override
+        protected Void visitFunctionCall(FunctionCall node, Void context)
+        {
+            String function = node.getName().toString().toLowerCase(Locale.ENGLISH);
+            if (!SUPPORTED_FUNCTIONS.contains(function)) {
+                return super.visitFunctionCall(node, context);
+            }
+            if (node.getWindow().isPresent() || node.getFilter().isPresent() || node.getArguments().size() > 1
+                    || (node.isDistinct() && !COUNT.getName().equals(function))) {
+                supported = false;
+                return null;
+            }
+            if (node.getArguments().isEmpty()) {
+                aggregations.add(function + "(*)");
+                return null;
+            }
+            Expression argument = node.getArguments().get(0);
+            if (!(argument instanceof Identifier)) {
+                supported = false;
+                return null;
+            }
+            String column = ((Identifier) argument).getValue().toLowerCase(Locale.ENGLISH);
+            distinct |= node.isDistinct();
+            aggregations.add(node.isDistinct() ? format("%s(DISTINCT %s)", function, column) : format("%s(%s)", function, column));
+            return null;
+        }
+
+        @Override
+        protected Void visitIdentifier(Identifier node, Void context)
+        {
+            columns.add(node.getValue().toLowerCase(Locale.ENGLISH));
+            return null;
+        }
+
+        @Override
+        protected Void visitSubqueryExpression(SubqueryExpression node, Void context)
+        {
+            supported = false;
+            return null;
+        }
+
+        public Set<String> getAggregations()
+        {
+            return aggregations;
+        }
+
+        public Set<String> getColumns()
+        {
+            return columns;
+        }
+
+        public boolean isSupported()
+        {
+            return supported;
+        }
+
+        public boolean hasDistinct()
+        {
+            return distinct;
+        }
+    }
+
+    private static class QueryPattern
+    {
+        private final String sourceTable;
+        private final Set<String> group;
+        private final boolean exactGroup;
+        private final Set<String> aggregations;
+        private int count = 1;
+
+        QueryPattern(String sourceTable, Set<String> group, boolean exactGroup, Set<String> aggregations)
+        {
+            this.sourceTable = sourceTable;
+            this.group = ImmutableSortedSet.copyOf(group);
+            this.exactGroup = exactGroup;
+            this.aggregations = new TreeSet<>(aggregations);
+        }
+
+        String getSourceTable()
+        {
+            return sourceTable;
+        }
+
+        Set<String> getGroup()
+        {
+            return group;
+        }
+
+        Set<String> getAggregations()
+        {
+            return aggregations;
+        }
+
+        int getCount()
+        {
+            return count;
+        }
+
+        List<Object> getKey()
+        {
+            return ImmutableList.of(sourceTable, group, exactGroup);
+        }
+
+        boolean isAnsweredBy(Set<String> cubeGroup)
+        {
+            return exactGroup ? cubeGroup.equals(group) : cubeGroup.containsAll(group);
+        }
+
+        QueryPattern merge(QueryPattern other)
+        {
+            count += other.count;
+            aggregations.addAll(other.aggregations);
+            return this;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2018-2022. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.cube;
+
+import com.google.inject.Inject;
+import io.prestosql.queryhistory.QueryHistoryService;
+import io.prestosql.spi.queryhistory.QueryHistoryEntity;
+import io.prestosql.sql.parser.SqlParser;
+
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+import static javax.ws.rs.core.Response.Status.BAD_REQUEST;
+
+@Path("/v1/cube")
+public class CubeAdvisorResource
+{
+    private final QueryHistoryService queryHistoryService;
+    private final CubeAdvisor cubeAdvisor;
+
+    @Inject
+    public CubeAdvisorResource(QueryHistoryService queryHistoryService, SqlParser sqlParser)
+    {
+        this.queryHistoryService = requireNonNull(queryHistoryService, "queryHistoryService is null");
+        this.cubeAdvisor = new CubeAdvisor(requireNonNull(sqlParser, "sqlParser is null"));
+    }
+
+    @GET
+    @Path("advisor")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getRecommendations(
+            @QueryParam("queries") @DefaultValue("1000") int queries,
+            @QueryParam("maxCubesPerTable") @DefaultValue("3") int maxCubesPerTable,
+            @QueryParam("maxGroupSize") @DefaultValue("8") int maxGroupSize)
+    {
+        if (queries <= 0 || maxCubesPerTable <= 0 || maxGroupSize <= 0) {
+            return Response.status(BAD_REQUEST).build();
+        }
+        List<QueryHistoryEntity> history = queryHistoryService.getRecentFinishedQueries(queries);
+        return Response.ok(cubeAdvisor.recommend(history, maxCubesPerTable, maxGroupSize)).build();
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2018-2022. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.cube;
+
+import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
+import io.airlift.units.Duration;
+import io.airlift.units.MaxDuration;
+import io.airlift.units.MinDuration;
+
+import javax.validation.constraints.NotNull;
+
+import java.util.concurrent.TimeUnit;
+
+public class CubeAutoRefreshConfig
+{
+    private boolean autoRefreshEnabled;
+    private Duration autoRefreshInterval = new Duration(10, TimeUnit.MINUTES);
+    private String autoRefreshUser = "openLooKeng";
+
+    @Config("cube.auto-refresh.enabled")
+    @ConfigDescription("Whether to insert new source table partitions into cubes automatically.")
+    public CubeAutoRefreshConfig setAutoRefreshEnabled(boolean autoRefreshEnabled)
+    {
+        this.autoRefreshEnabled = autoRefreshEnabled;
+        return this;
+    }
+
+    public boolean isAutoRefreshEnabled()
+    {
+        return autoRefreshEnabled;
+    }
+
+    @Config("cube.auto-refresh.interval")
+    @ConfigDescription("Interval of checking cubes for updated source tables, default value is 10m.")
+    public CubeAutoRefreshConfig setAutoRefreshInterval(Duration autoRefreshInterval)
+    {
+        this.autoRefreshInterval = autoRefreshInterval;
+        return this;
+    }
+
+    @NotNull
+    public @MinDuration("15s") @MaxDuration("24h") Duration getAutoRefreshInterval()
+    {
+        return autoRefreshInterval;
+    }
+
+    @Config("cube.auto-refresh.user")
+    @ConfigDescription("User running the cube inserts, must be allowed to read the source tables and to insert into the cubes.")
+    public CubeAutoRefreshConfig setAutoRefreshUser(String autoRefreshUser)
+    {
+        this.autoRefreshUser = autoRefreshUser;
+        return this;
+    }
+
+    @NotNull
+    public String getAutoRefreshUser()
+    {
+        return autoRefreshUser;
+    }
+}
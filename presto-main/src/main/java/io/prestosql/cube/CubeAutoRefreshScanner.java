@@ -0,0 +1,298 @@
+/*
+ * Copyright (C) 2018-2022. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.cube;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.inject.Inject;
+import io.airlift.log.Logger;
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
+import io.hetu.core.spi.cube.CubeFilter;
+import io.hetu.core.spi.cube.CubeMetadata;
+import io.hetu.core.spi.cube.CubeStatus;
+import io.hetu.core.spi.cube.io.CubeMetaStore;
+import io.prestosql.Session;
+import io.prestosql.dispatcher.DispatchManager;
+import io.prestosql.dispatcher.DispatchQuery;
+import io.prestosql.exchange.ExchangeId;
+import io.prestosql.execution.QueryManager;
+import io.prestosql.memory.context.SimpleLocalMemoryContext;
+import io.prestosql.metadata.Metadata;
+import io.prestosql.metadata.SessionPropertyManager;
+import io.prestosql.operator.ExchangeClient;
+import io.prestosql.operator.ExchangeClientSupplier;
+import io.prestosql.security.AccessControl;
+import io.prestosql.server.ForStatementResource;
+import io.prestosql.server.SessionContext;
+import io.prestosql.server.protocol.Query;
+import io.prestosql.spi.QueryId;
+import io.prestosql.spi.block.BlockEncodingSerde;
+import io.prestosql.spi.connector.QualifiedObjectName;
+import io.prestosql.spi.metadata.TableHandle;
+import io.prestosql.spi.security.Identity;
+import io.prestosql.sql.parser.SqlParser;
+import io.prestosql.sql.tree.Expression;
+import io.prestosql.transaction.TransactionManager;
+
+import javax.annotation.Nullable;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.LongSupplier;
+
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.prestosql.SystemSessionProperties.getRetryPolicy;
+import static io.prestosql.cube.CubeManager.STAR_TREE;
+import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
+import static io.prestosql.sql.tree.BooleanLiteral.FALSE_LITERAL;
+import static io.prestosql.transaction.TransactionBuilder.transaction;
+import static java.lang.String.format;
+import static java.util.Locale.ENGLISH;
+import static java.util.Objects.requireNonNull;
+import static java.util.UUID.randomUUID;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Periodically looks for star-tree cubes whose source table has been modified since the cube
+ * was last updated, and submits an incremental INSERT INTO CUBE for them. The insert only
+ * aggregates the source table partitions that are not covered by the cube yet, merges them
+ * into the cube and records the new source table modification time, so the cube can be used
+ * by the optimizer again.
+ */
+@ThreadSafe
+public class CubeAutoRefreshScanner
+{
+    private static final Logger log = Logger.get(CubeAutoRefreshScanner.class);
+
+    private final ScheduledExecutorService autoRefreshExecutor = newSingleThreadScheduledExecutor(daemonThreadsNamed("cube-auto-refresh"));
+    private final Duration autoRefreshInterval;
+    private final Identity identity;
+    private final CubeManager cubeManager;
+    private final Metadata metadata;
+    private final CubeDeltaDetector cubeDeltaDetector;
+    private final TransactionManager transactionManager;
+    private final AccessControl accessControl;
+    private final DispatchManager dispatchManager;
+    private final SessionPropertyManager sessionPropertyManager;
+    private final QueryManager queryManager;
+    private final ExchangeClientSupplier exchangeClientSupplier;
+    private final BlockEncodingSerde blockEncodingSerde;
+    private final ScheduledExecutorService timeoutExecutor;
+    private final Map<String, Long> refreshInProgressMap = new ConcurrentHashMap<>();
+
+    @Inject
+    public CubeAutoRefreshScanner(CubeAutoRefreshConfig config,
+            CubeManager cubeManager,
+            Metadata metadata,
+            SqlParser sqlParser,
+            TransactionManager transactionManager,
+            AccessControl accessControl,
+            DispatchManager dispatchManager,
+            SessionPropertyManager sessionPropertyManager,
+            QueryManager queryManager,
+            ExchangeClientSupplier exchangeClientSupplier,
+            BlockEncodingSerde blockEncodingSerde,
+            @ForStatementResource ScheduledExecutorService timeoutExecutor)
+    {
+        this.autoRefreshInterval = requireNonNull(config, "config is null").getAutoRefreshInterval();
+        this.identity = new Identity(config.getAutoRefreshUser(), Optional.empty());
+        this.cubeManager = requireNonNull(cubeManager, "cubeManager is null");
+        this.metadata = requireNonNull(metadata, "metadata is null");
+        this.cubeDeltaDetector = new CubeDeltaDetector(metadata, sqlParser);
+        this.transactionManager = requireNonNull(transactionManager, "transactionManager is null");
+        this.accessControl = requireNonNull(accessControl, "accessControl is null");
+        this.dispatchManager = requireNonNull(dispatchManager, "dispatchManager is null");
+        this.sessionPropertyManager = requireNonNull(sessionPropertyManager, "sessionPropertyManager is null");
+        this.queryManager = requireNonNull(queryManager, "queryManager is null");
+        this.exchangeClientSupplier = requireNonNull(exchangeClientSupplier, "exchangeClientSupplier is null");
+        this.blockEncodingSerde = requireNonNull(blockEncodingSerde, "blockEncodingSerde is null");
+        this.timeoutExecutor = requireNonNull(timeoutExecutor, "timeoutExecutor is null");
+    }
+
+    @PostConstruct
+    public void start()
+    {
+        checkState(!autoRefreshExecutor.isShutdown(), "Cube auto refresh scanner has been destroyed");
+        log.debug("Start the cube auto refresh scan.");
+
+        autoRefreshExecutor.scheduleWithFixedDelay(() -> {
+            try {
+                scan();
+            }
+            catch (Throwable e) {
+                log.error(e, "Cube auto refresh scan failed.");
+            }
+        }, autoRefreshInterval.toMillis(), autoRefreshInterval.toMillis(), MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop()
+    {
+        autoRefreshExecutor.shutdownNow();
+    }
+
+    void scan()
+    {
+        Optional<CubeMetaStore> cubeMetaStore = cubeManager.getMetaStore(STAR_TREE);
+        if (!cubeMetaStore.isPresent()) {
+            return;
+        }
+        for (CubeMetadata cubeMetadata : cubeMetaStore.get().getAllCubes()) {
+            if (!isIncrementallyRefreshable(cubeMetadata) || refreshInProgressMap.containsKey(cubeMetadata.getCubeName())) {
+                continue;
+            }
+            try {
+                if (hasNewPartitions(cubeMetadata)) {
+                    startRefresh(cubeMetadata.getCubeName());
+                }
+            }
+            catch (Exception e) {
+                log.error("error in refreshing cube %s: %s", cubeMetadata.getCubeName(), e.getMessage());
+            }
+        }
+    }
+
+    private static boolean isIncrementallyRefreshable(CubeMetadata cubeMetadata)
+    {
+        // cubes built on the entire dataset cannot be extended with new partitions
+        CubeFilter cubeFilter = cubeMetadata.getCubeFilter();
+        return cubeMetadata.getCubeStatus() == CubeStatus.READY && cubeFilter != null && cubeFilter.getCubePredicate() != null;
+    }
+
+    private boolean hasNewPartitions(CubeMetadata cubeMetadata)
+    {
+        Session session = Session.builder(sessionPropertyManager)
+                .setQueryId(dispatchManager.createQueryId())
+                .setIdentity(identity)
+                .setSource(CubeAutoRefreshSessionContext.SOURCE)
+                .build();
+        return transaction(transactionManager, accessControl)
+                .readOnly()
+                .singleStatement()
+                .execute(session, transactionSession -> {
+                    QualifiedObjectName sourceTableName = QualifiedObjectName.valueOf(cubeMetadata.getSourceTableName());
+                    Optional<TableHandle> sourceTableHandle = metadata.getTableHandle(transactionSession, sourceTableName);
+                    if (!sourceTableHandle.isPresent()) {
+                        return false;
+                    }
+                    LongSupplier tableLastModifiedTime = metadata.getTableLastModifiedTimeSupplier(transactionSession, sourceTableHandle.get());
+                    if (tableLastModifiedTime == null || tableLastModifiedTime.getAsLong() <= cubeMetadata.getSourceTableLastUpdatedTime()) {
+                        return false;
+                    }
+                    Optional<Expression> newPartitionsPredicate = cubeDeltaDetector.getNewPartitionsPredicate(transactionSession, cubeMetadata, sourceTableHandle.get());
+                    if (!newPartitionsPredicate.isPresent()) {
+                        // this includes cubes whose partitions were modified, which stay outdated until they are rebuilt
+                        log.debug("Cube %s is outdated but its new data cannot be identified by partitions, or partitions it already contains were modified", cubeMetadata.getCubeName());
+                        return false;
+                    }
+                    return !FALSE_LITERAL.equals(newPartitionsPredicate.get());
+                });
+    }
+
+    private void startRefresh(String cubeName)
+    {
+        QualifiedObjectName cube = QualifiedObjectName.valueOf(cubeName);
+        String refreshQuery = format("INSERT INTO CUBE \"%s\".\"%s\".\"%s\"", cube.getCatalogName(), cube.getSchemaName(), cube.getObjectName());
+        QueryId queryId = dispatchManager.createQueryId();
+        String slug = "x" + randomUUID().toString().toLowerCase(ENGLISH).replace("-", "");
+        SessionContext sessionContext = new CubeAutoRefreshSessionContext(identity);
+        refreshInProgressMap.put(cubeName, System.currentTimeMillis());
+        log.debug("Query.create queryId %s cube: %s", queryId, cubeName);
+        ListenableFuture<?> lf = waitForDispatched(queryId, slug, sessionContext, refreshQuery);
+        Futures.addCallback(lf, new FutureCallback<Object>()
+        {
+            @Override
+            public void onSuccess(@Nullable Object result)
+            {
+                try {
+                    DispatchQuery dispatchQuery = dispatchManager.getQuery(queryId);
+                    dispatchQuery.addStateChangeListener(state -> {
+                        Query query = getQuery(queryId, slug);
+                        if ((null != query) && (!dispatchManager.getQueryInfo(queryId).getState().isDone())) {
+                            query.waitForResults(0, Duration.valueOf("1s"), DataSize.valueOf("1MB"));
+                        }
+
+                        if (state.isDone()) {
+                            log.debug("STATUS %s QueryID %s Query %s", state.name(), queryId, refreshQuery);
+                            refreshInProgressMap.remove(cubeName);
+                        }
+                    });
+                }
+                catch (Throwable e) {
+                    refreshInProgressMap.remove(cubeName);
+                    log.error("Failed to refresh cube %s QueryID %s: %s", cubeName, queryId, e.getMessage());
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable t)
+            {
+                refreshInProgressMap.remove(cubeName);
+                log.error("Query %s request to refresh cube failed at queryId[%s]: %s", refreshQuery, queryId, t.getMessage());
+            }
+        }, directExecutor());
+    }
+
+    private ListenableFuture<?> waitForDispatched(QueryId queryId, String slug, SessionContext sessionContext, String query)
+    {
+        ListenableFuture<?> querySubmissionFuture;
+        // if query query submission has not finished, wait for it to finish
+        synchronized (this) {
+            querySubmissionFuture = dispatchManager.createQuery(queryId, slug, sessionContext, query);
+        }
+
+        if (!querySubmissionFuture.isDone()) {
+            return querySubmissionFuture;
+        }
+        // otherwise, wait for the query to finish
+        return dispatchManager.waitForDispatched(queryId);
+    }
+
+    private synchronized Query getQuery(QueryId queryId, String slug)
+    {
+        Session session;
+        try {
+            if (!queryManager.isQuerySlugValid(queryId, slug)) {
+                return null;
+            }
+            session = queryManager.getQuerySession(queryId);
+            if (null == session) {
+                return null;
+            }
+        }
+        catch (NoSuchElementException e) {
+            return null;
+        }
+
+        ExchangeClient exchangeClient = this.exchangeClientSupplier.get(
+                new SimpleLocalMemoryContext(newSimpleAggregatedMemoryContext(), CubeAutoRefreshScanner.class.getSimpleName()),
+                null,
+                getRetryPolicy(session),
+                new ExchangeId("direct-exchange-cube-auto-refresh-scanner"),
+                session.getQueryId());
+        return Query.create(session, slug, queryManager, exchangeClient, directExecutor(), timeoutExecutor, blockEncodingSerde);
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2018-2022. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.cube;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.prestosql.server.SessionContext;
+import io.prestosql.spi.security.Identity;
+import io.prestosql.spi.session.ResourceEstimates;
+import io.prestosql.transaction.TransactionId;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static io.prestosql.SystemSessionProperties.CUBE_INCREMENTAL_INSERT_ENABLED;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Session of the cube inserts submitted by the {@link CubeAutoRefreshScanner}. The inserts run as the
+ * configured user with the default session properties, except that incremental inserts are enabled.
+ */
+public class CubeAutoRefreshSessionContext
+        implements SessionContext
+{
+    public static final String SOURCE = "cube-auto-refresh";
+
+    private final Identity identity;
+
+    public CubeAutoRefreshSessionContext(Identity identity)
+    {
+        this.identity = requireNonNull(identity, "identity is null");
+    }
+
+    @Override
+    public Optional<Identity> getAuthenticatedIdentity()
+    {
+        return Optional.empty();
+    }
+
+    @Override
+    public Identity getIdentity()
+    {
+        return identity;
+    }
+
+    @Override
+    public String getCatalog()
+    {
+        // the cube names of the inserts are fully qualified
+        return null;
+    }
+
+    @Override
+    public String getSchema()
+    {
+        return null;
+    }
+
+    @Override
+    public String getPath()
+    {
+        return null;
+    }
+
+    @Override
+    public String getSource()
+    {
+        return SOURCE;
+    }
+
+    @Override
+    public String getRemoteUserAddress()
+    {
+        return null;
+    }
+
+    @Override
+    public String getUserAgent()
+    {
+        return null;
+    }
+
+    @Override
+    public String getClientInfo()
+    {
+        return null;
+    }
+
+    @Override
+    public Set<String> getClientTags()
+    {
+        return ImmutableSet.of();
+    }
+
+    @Override
+    public Set<String> getClientCapabilities()
+    {
+        return ImmutableSet.of();
+    }
+
+    @Override
+    public ResourceEstimates getResourceEstimates()
+    {
+        return new ResourceEstimates(Optional.empty(), Optional.empty(), Optional.empty());
+    }
+
+    @Override
+    public String getTimeZoneId()
+    {
+        return null;
+    }
+
+    @Override
+    public String getLanguage()
+    {
+        return null;
+    }
+
+    @Override
+    public Map<String, String> getSystemProperties()
+    {
+        return ImmutableMap.of(CUBE_INCREMENTAL_INSERT_ENABLED, "true");
+    }
+
+    @Override
+    public Map<String, Map<String, String>> getCatalogSessionProperties()
+    {
+        return ImmutableMap.of();
+    }
+
+    @Override
+    public Map<String, String> getPreparedStatements()
+    {
+        return ImmutableMap.of();
+    }
+
+    @Override
+    public Optional<TransactionId> getTransactionId()
+    {
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<String> getTraceToken()
+    {
+        return Optional.empty();
+    }
+
+    @Override
+    public boolean supportClientTransaction()
+    {
+        return false;
+    }
+}
@@ -0,0 +1,317 @@
+/*
+ * Copyright (C) 2018-2022. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.cube;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import io.hetu.core.spi.cube.CubeFilter;
+import io.hetu.core.spi.cube.CubeMetadata;
+import io.prestosql.Session;
+import io.prestosql.metadata.Metadata;
+import io.prestosql.spi.connector.ColumnHandle;
+import io.prestosql.spi.connector.ColumnMetadata;
+import io.prestosql.spi.connector.Constraint;
+import io.prestosql.spi.connector.ConstraintApplicationResult;
+import io.prestosql.spi.connector.DiscretePredicates;
+import io.prestosql.spi.metadata.TableHandle;
+import io.prestosql.spi.plan.Symbol;
+import io.prestosql.spi.predicate.TupleDomain;
+import io.prestosql.spi.type.Type;
+import io.prestosql.sql.ExpressionUtils;
+import io.prestosql.sql.parser.SqlParser;
+import io.prestosql.sql.planner.ExpressionDomainTranslator;
+import io.prestosql.sql.planner.LiteralEncoder;
+import io.prestosql.sql.planner.SymbolsExtractor;
+import io.prestosql.sql.planner.TypeProvider;
+import io.prestosql.sql.tree.Expression;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static io.prestosql.sql.ParsingUtil.createParsingOptions;
+import static io.prestosql.sql.tree.BooleanLiteral.FALSE_LITERAL;
+import static io.prestosql.sql.tree.BooleanLiteral.TRUE_LITERAL;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Finds the partitions of a cube source table that have not been aggregated into the cube yet.
+ * <p>
+ * A cube that was populated through predicate inserts records the union of those predicates as
+ * its cube predicate. When that predicate only references partition columns of the source table,
+ * every partition either is fully covered by the cube or not covered at all, so the partitions
+ * added since the last insert can be selected without scanning the already aggregated data.
+ * <p>
+ * This relies on the partitions covered by the cube not being changed. Every cube insert records the
+ * data version of the covered partitions, and no delta is reported once the covered partitions have
+ * a different version, for example after rows were appended to one of them.
+ */
+public class CubeDeltaDetector
+{
+    private final Metadata metadata;
+    private final SqlParser sqlParser;
+
+    public CubeDeltaDetector(Metadata metadata, SqlParser sqlParser)
+    {
+        this.metadata = requireNonNull(metadata, "metadata is null");
+        this.sqlParser = requireNonNull(sqlParser, "sqlParser is null");
+    }
+
+    /**
+     * Builds the predicate that selects the source table partitions not covered by the cube predicate.
+     *
+     * @param session the session, must be part of an active transaction
+     * @param cubeMetadata the cube to be refreshed
+     * @param sourceTableHandle handle of the table the cube was built on
+     * @return the predicate on the cube predicate columns, {@link io.prestosql.sql.tree.BooleanLiteral#FALSE_LITERAL}
+     * if there are no new partitions, or empty if the delta cannot be expressed as a predicate that
+     * the cube insert accepts or the partitions covered by the cube were modified
+     */
+    public Optional<Expression> getNewPartitionsPredicate(Session session, CubeMetadata cubeMetadata, TableHandle sourceTableHandle)
+    {
+        Optional<PartitionDelta> delta = getPartitionDelta(session, cubeMetadata, sourceTableHandle);
+        if (!delta.isPresent() || delta.get().isCoveredDataModified()) {
+            return Optional.empty();
+        }
+        if (delta.get().getNewPartitions().isNone()) {
+            return Optional.of(FALSE_LITERAL);
+        }
+        Expression deltaPredicate = new ExpressionDomainTranslator(new LiteralEncoder(metadata)).toPredicate(delta.get().getNewPartitions());
+        return Optional.of(ExpressionUtils.rewriteSymbolReferencesToIdentifiers(deltaPredicate));
+    }
+
+    /**
+     * Checks whether an insert predicate only selects source table partitions not covered by the cube predicate,
+     * that is whether the insert cannot add rows of partitions that were aggregated into the cube before.
+     *
+     * @param session the session, must be part of an active transaction
+     * @param cubeMetadata the cube the rows are inserted into
+     * @param sourceTableHandle handle of the table the cube was built on
+     * @param predicate the predicate of the cube insert
+     * @return true if every row selected by the predicate belongs to a new partition, and the partitions
+     * covered by the cube were not modified
+     */
+    public boolean isNewPartitionsPredicate(Session session, CubeMetadata cubeMetadata, TableHandle sourceTableHandle, Expression predicate)
+    {
+        Optional<PartitionDelta> delta = getPartitionDelta(session, cubeMetadata, sourceTableHandle);
+        if (!delta.isPresent() || delta.get().isCoveredDataModified() || delta.get().getNewPartitions().isNone()) {
+            return false;
+        }
+        Expression insertPredicate = ExpressionUtils.rewriteIdentifiersToSymbolReferences(predicate);
+        if (!delta.get().getColumnTypes().keySet().containsAll(SymbolsExtractor.extractUnique(insertPredicate))) {
+            return false;
+        }
+        ExpressionDomainTranslator.ExtractionResult decomposedPredicate = ExpressionDomainTranslator.fromPredicate(metadata, session, insertPredicate, TypeProvider.copyOf(delta.get().getColumnTypes()));
+        return TRUE_LITERAL.equals(decomposedPredicate.getRemainingExpression())
+                && delta.get().getNewPartitions().contains(decomposedPredicate.getTupleDomain());
+    }
+
+    /**
+     * Checks whether the source table partitions covered by the cube predicate were modified since the cube was
+     * last updated, that is whether their data version differs from the one recorded in the cube.
+     *
+     * @param session the session, must be part of an active transaction
+     * @param cubeMetadata the cube to be refreshed
+     * @param sourceTableHandle handle of the table the cube was built on
+     * @return true if the cube covers partitions whose data changed, or whose data version is unknown. False if the
+     * data is unchanged, or if the cube does not qualify for partition deltas at all
+     */
+    public boolean isCoveredDataModified(Session session, CubeMetadata cubeMetadata, TableHandle sourceTableHandle)
+    {
+        Optional<PartitionDelta> delta = getPartitionDelta(session, cubeMetadata, sourceTableHandle);
+        return delta.isPresent() && delta.get().isCoveredDataModified();
+    }
+
+    /**
+     * Returns the data version of the source table partitions selected by a cube predicate.
+     *
+     * @param session the session, must be part of an active transaction
+     * @param sourceTableHandle handle of the table the cube was built on
+     * @param cubePredicate the predicate on partition columns the cube covers
+     * @return the data version, or empty if the predicate does not select whole partitions or the connector
+     * cannot tell the version of the selected data
+     */
+    public Optional<String> getCoveredDataVersion(Session session, TableHandle sourceTableHandle, Expression cubePredicate)
+    {
+        Optional<PartitionColumns> partitionColumns = getPartitionColumns(session, sourceTableHandle);
+        if (!partitionColumns.isPresent()) {
+            return Optional.empty();
+        }
+        Expression predicate = ExpressionUtils.rewriteIdentifiersToSymbolReferences(cubePredicate);
+        if (!partitionColumns.get().getTypes().keySet().containsAll(SymbolsExtractor.extractUnique(predicate))) {
+            return Optional.empty();
+        }
+        ExpressionDomainTranslator.ExtractionResult decomposedPredicate = ExpressionDomainTranslator.fromPredicate(metadata, session, predicate, TypeProvider.copyOf(partitionColumns.get().getTypes()));
+        if (!TRUE_LITERAL.equals(decomposedPredicate.getRemainingExpression())) {
+            return Optional.empty();
+        }
+        return getDataVersion(session, sourceTableHandle, partitionColumns.get(), decomposedPredicate.getTupleDomain());
+    }
+
+    private Optional<String> getDataVersion(Session session, TableHandle sourceTableHandle, PartitionColumns partitionColumns, TupleDomain<Symbol> partitions)
+    {
+        if (partitions.isNone()) {
+            return Optional.empty();
+        }
+        TableHandle tableHandle = sourceTableHandle;
+        if (!partitions.isAll()) {
+            Constraint constraint = new Constraint(partitions.transform(partitionColumns.getHandles()::get));
+            Optional<ConstraintApplicationResult<TableHandle>> result = metadata.applyFilter(session, sourceTableHandle, constraint);
+            if (!result.isPresent()) {
+                // the version of the whole table would also change with every new partition
+                return Optional.empty();
+            }
+            tableHandle = result.get().getHandle();
+        }
+        return metadata.getTableDataVersion(session, tableHandle);
+    }
+
+    private Optional<PartitionColumns> getPartitionColumns(Session session, TableHandle sourceTableHandle)
+    {
+        Optional<DiscretePredicates> discretePredicates = metadata.getTableProperties(session, sourceTableHandle).getDiscretePredicates();
+        if (!discretePredicates.isPresent()) {
+            return Optional.empty();
+        }
+
+        Map<ColumnHandle, Symbol> symbols = new HashMap<>();
+        Map<Symbol, ColumnHandle> handles = new HashMap<>();
+        Map<Symbol, Type> types = new HashMap<>();
+        for (ColumnHandle columnHandle : discretePredicates.get().getColumns()) {
+            ColumnMetadata columnMetadata = metadata.getColumnMetadata(session, sourceTableHandle, columnHandle);
+            Symbol symbol = new Symbol(columnMetadata.getName());
+            symbols.put(columnHandle, symbol);
+            handles.put(symbol, columnHandle);
+            types.put(symbol, columnMetadata.getType());
+        }
+        return Optional.of(new PartitionColumns(discretePredicates.get(), symbols, handles, types));
+    }
+
+    private Optional<PartitionDelta> getPartitionDelta(Session session, CubeMetadata cubeMetadata, TableHandle sourceTableHandle)
+    {
+        CubeFilter cubeFilter = cubeMetadata.getCubeFilter();
+        if (cubeFilter == null || cubeFilter.getCubePredicate() == null) {
+            // cube was built on the entire dataset
+            return Optional.empty();
+        }
+        Optional<PartitionColumns> partitionColumns = getPartitionColumns(session, sourceTableHandle);
+        if (!partitionColumns.isPresent()) {
+            return Optional.empty();
+        }
+        Map<Symbol, Type> partitionColumnTypes = partitionColumns.get().getTypes();
+
+        Expression cubePredicate = ExpressionUtils.rewriteIdentifiersToSymbolReferences(sqlParser.createExpression(cubeFilter.getCubePredicate(), createParsingOptions(session)));
+        Set<Symbol> cubePredicateColumns = SymbolsExtractor.extractUnique(cubePredicate);
+        // cube predicates can only be merged on a single column, for which the
+        // column-wise union of the new partitions is exact
+        if (cubePredicateColumns.size() != 1 || !partitionColumnTypes.keySet().containsAll(cubePredicateColumns)) {
+            return Optional.empty();
+        }
+        Map<Symbol, Type> cubePredicateColumnTypes = Maps.filterKeys(partitionColumnTypes, cubePredicateColumns::contains);
+        ExpressionDomainTranslator.ExtractionResult decomposedCubePredicate = ExpressionDomainTranslator.fromPredicate(metadata, session, cubePredicate, TypeProvider.copyOf(cubePredicateColumnTypes));
+        if (!TRUE_LITERAL.equals(decomposedCubePredicate.getRemainingExpression())) {
+            return Optional.empty();
+        }
+        TupleDomain<Symbol> cubeDomain = decomposedCubePredicate.getTupleDomain();
+
+        // rows added to a partition that is already aggregated into the cube can only be picked up by rebuilding the cube
+        Optional<String> coveredDataVersion = getDataVersion(session, sourceTableHandle, partitionColumns.get(), cubeDomain);
+        boolean coveredDataModified = cubeMetadata.getSourceTableDataVersion() == null
+                || !coveredDataVersion.isPresent()
+                || !coveredDataVersion.get().equals(cubeMetadata.getSourceTableDataVersion());
+
+        Set<TupleDomain<Symbol>> newPartitions = new LinkedHashSet<>();
+        for (TupleDomain<ColumnHandle> partition : partitionColumns.get().getPartitions().getPredicates()) {
+            TupleDomain<Symbol> partitionDomain = partition.transform(columnHandle -> {
+                Symbol symbol = partitionColumns.get().getSymbols().get(columnHandle);
+                return cubePredicateColumns.contains(symbol) ? symbol : null;
+            });
+            if (!partitionDomain.isNone() && !partitionDomain.overlaps(cubeDomain)) {
+                newPartitions.add(partitionDomain);
+            }
+        }
+        if (newPartitions.isEmpty()) {
+            return Optional.of(new PartitionDelta(TupleDomain.none(), cubePredicateColumnTypes, coveredDataModified));
+        }
+        return Optional.of(new PartitionDelta(TupleDomain.columnWiseUnion(ImmutableList.copyOf(newPartitions)), cubePredicateColumnTypes, coveredDataModified));
+    }
+
+    private static class PartitionColumns
+    {
+        private final DiscretePredicates partitions;
+        private final Map<ColumnHandle, Symbol> symbols;
+        private final Map<Symbol, ColumnHandle> handles;
+        private final Map<Symbol, Type> types;
+
+        private PartitionColumns(DiscretePredicates partitions, Map<ColumnHandle, Symbol> symbols, Map<Symbol, ColumnHandle> handles, Map<Symbol, Type> types)
+        {
+            this.partitions = requireNonNull(partitions, "partitions is null");
+            this.symbols = ImmutableMap.copyOf(requireNonNull(symbols, "symbols is null"));
+            this.handles = ImmutableMap.copyOf(requireNonNull(handles, "handles is null"));
+            this.types = ImmutableMap.copyOf(requireNonNull(types, "types is null"));
+        }
+
+        public DiscretePredicates getPartitions()
+        {
+            return partitions;
+        }
+
+        public Map<ColumnHandle, Symbol> getSymbols()
+        {
+            return symbols;
+        }
+
+        public Map<Symbol, ColumnHandle> getHandles()
+        {
+            return handles;
+        }
+
+        public Map<Symbol, Type> getTypes()
+        {
+            return types;
+        }
+    }
+
+    private static class PartitionDelta
+    {
+        private final TupleDomain<Symbol> newPartitions;
+        private final Map<Symbol, Type> columnTypes;
+        private final boolean coveredDataModified;
+
+        private PartitionDelta(TupleDomain<Symbol> newPartitions, Map<Symbol, Type> columnTypes, boolean coveredDataModified)
+        {
+            this.newPartitions = requireNonNull(newPartitions, "newPartitions is null");
+            this.columnTypes = ImmutableMap.copyOf(requireNonNull(columnTypes, "columnTypes is null"));
+            this.coveredDataModified = coveredDataModified;
+        }
+
+        public TupleDomain<Symbol> getNewPartitions()
+        {
+            return newPartitions;
+        }
+
+        public Map<Symbol, Type> getColumnTypes()
+        {
+            return columnTypes;
+        }
+
+        public boolean isCoveredDataModified()
+        {
+            return coveredDataModified;
+        }
+    }
+}
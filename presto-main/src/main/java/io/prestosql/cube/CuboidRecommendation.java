@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2018-2022. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.cube;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A cube suggested by {@link CubeAdvisor}, together with the number of analyzed
+ * queries that the cube could have answered.
+ */
+public class CuboidRecommendation
+{
+    private final String sourceTable;
+    private final List<String> group;
+    private final List<String> aggregations;
+    private final int coveredQueries;
+    private final String createCubeStatement;
+
+    @JsonCreator
+    public CuboidRecommendation(
+            @JsonProperty("sourceTable") String sourceTable,
+            @JsonProperty("group") List<String> group,
+            @JsonProperty("aggregations") List<String> aggregations,
+            @JsonProperty("coveredQueries") int coveredQueries,
+            @JsonProperty("createCubeStatement") String createCubeStatement)
+    {
+        this.sourceTable = requireNonNull(sourceTable, "sourceTable is null");
+        this.group = ImmutableList.copyOf(requireNonNull(group, "group is null"));
+        this.aggregations = ImmutableList.copyOf(requireNonNull(aggregations, "aggregations is null"));
+        this.coveredQueries = coveredQueries;
+        this.createCubeStatement = requireNonNull(createCubeStatement, "createCubeStatement is null");
+    }
+
+    @JsonProperty
+    public String getSourceTable()
+    {
+        return sourceTable;
+    }
+
+    @JsonProperty
+    public List<String> getGroup()
+    {
+        return group;
+    }
+
+    @JsonProperty
+    public List<String> getAggregations()
+    {
+        return aggregations;
+    }
+
+    @JsonProperty
+    public int getCoveredQueries()
+    {
+        return coveredQueries;
+    }
+
+    @JsonProperty
+    public String getCreateCubeStatement()
+    {
+        return createCubeStatement;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("sourceTable", sourceTable)
+                .add("group", group)
+                .add("aggregations", aggregations)
+                .add("coveredQueries", coveredQueries)
+                .toString();
+    }
+}
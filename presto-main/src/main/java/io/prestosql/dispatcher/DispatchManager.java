@@ -403,11 +403,11 @@ public class DispatchManager
         }
 
         if (stateUpdater == null) {
-            stateUpdater = new StateUpdater(stateStoreProvider, hetuConfig.getStateUpdateInterval());
+            stateUpdater = new StateUpdater(stateStoreProvider, hetuConfig.getStateUpdateInterval(), hetuConfig.getStateExpireTime(), hetuConfig.isStateDeltaReplicationEnabled());
         }
 
         if (stateFetcher == null) {
-            stateFetcher = new StateFetcher(stateStoreProvider, hetuConfig.getStateFetchInterval(), hetuConfig.getStateExpireTime());
+            stateFetcher = new StateFetcher(stateStoreProvider, hetuConfig.getStateFetchInterval(), hetuConfig.getStateExpireTime(), hetuConfig.isStateDeltaReplicationEnabled());
         }
 
         // Start state updater
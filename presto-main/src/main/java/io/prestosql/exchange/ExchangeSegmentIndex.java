@@ -0,0 +1,106 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.exchange;
+
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.slice.Slice;
+import io.airlift.slice.SliceInput;
+
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Locations of the small partitions a {@link FileSystemExchangeSink} coalesced into one segment file.
+ * Every partition is encoded on its own within the segment, so it can be read back without the others.
+ */
+public class ExchangeSegmentIndex
+{
+    /**
+     * A segment file starts with this header, so a section never begins at offset 0
+     */
+    public static final int SEGMENT_FILE_HEADER = 0x53454731;
+
+    private final List<Section> sections;
+
+    public ExchangeSegmentIndex(List<Section> sections)
+    {
+        this.sections = ImmutableList.copyOf(requireNonNull(sections, "sections is null"));
+    }
+
+    public List<Section> getSections()
+    {
+        return sections;
+    }
+
+    public Slice serialize()
+    {
+        DynamicSliceOutput output = new DynamicSliceOutput(Integer.BYTES + sections.size() * (Integer.BYTES + 2 * Long.BYTES));
+        output.writeInt(sections.size());
+        for (Section section : sections) {
+            output.writeInt(section.getPartitionId());
+            output.writeLong(section.getOffset());
+            output.writeLong(section.getLength());
+        }
+        return output.slice();
+    }
+
+    public static ExchangeSegmentIndex deserialize(Slice slice)
+    {
+        SliceInput input = slice.getInput();
+        int sectionCount = input.readInt();
+        ImmutableList.Builder<Section> sections = ImmutableList.builder();
+        for (int i = 0; i < sectionCount; i++) {
+            sections.add(new Section(input.readInt(), input.readLong(), input.readLong()));
+        }
+        return new ExchangeSegmentIndex(sections.build());
+    }
+
+    public static class Section
+    {
+        private final int partitionId;
+        private final long offset;
+        private final long length;
+
+        public Section(int partitionId, long offset, long length)
+        {
+            checkArgument(offset > 0, "offset must be positive: %s", offset);
+            this.partitionId = partitionId;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        public int getPartitionId()
+        {
+            return partitionId;
+        }
+
+        public long getOffset()
+        {
+            return offset;
+        }
+
+        public long getLength()
+        {
+            return length;
+        }
+
+        public FileStatus toFileStatus(String segmentFilePath)
+        {
+            return new FileStatus(segmentFilePath, length, offset);
+        }
+    }
+}
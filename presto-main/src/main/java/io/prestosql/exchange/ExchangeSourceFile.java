@@ -28,13 +28,20 @@ public class ExchangeSourceFile
     private final Optional<SecretKey> secretKey;
     private final boolean exchangeCompressionEnabled;
     private final long fileSize;
+    private final long offset;
 
     public ExchangeSourceFile(URI fileUri, Optional<SecretKey> secretKey, boolean exchangeCompressionEnabled, long fileSize)
+    {
+        this(fileUri, secretKey, exchangeCompressionEnabled, fileSize, 0);
+    }
+
+    public ExchangeSourceFile(URI fileUri, Optional<SecretKey> secretKey, boolean exchangeCompressionEnabled, long fileSize, long offset)
     {
         this.fileUri = requireNonNull(fileUri, "fileUri is null");
         this.secretKey = requireNonNull(secretKey, "secretKey is null");
         this.exchangeCompressionEnabled = exchangeCompressionEnabled;
         this.fileSize = fileSize;
+        this.offset = offset;
     }
 
     public URI getFileUri()
@@ -56,4 +63,12 @@ public class ExchangeSourceFile
     {
         return fileSize;
     }
+
+    /**
+     * Start of the section to read when the file is a segment file holding several partitions, otherwise 0
+     */
+    public long getOffset()
+    {
+        return offset;
+    }
 }
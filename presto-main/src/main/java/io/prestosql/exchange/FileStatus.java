@@ -31,12 +31,22 @@ public class FileStatus
 
     private final String filePath;
     private final long fileSize;
+    private final long offset;
 
+    public FileStatus(String filePath, long fileSize)
+    {
+        this(filePath, fileSize, 0);
+    }
+
+    /**
+     * A non-zero offset refers to a section of a segment file, which starts at the offset and spans fileSize bytes.
+     */
     @JsonCreator
-    public FileStatus(@JsonProperty("filePath") String filePath, @JsonProperty("fileSize") long fileSize)
+    public FileStatus(@JsonProperty("filePath") String filePath, @JsonProperty("fileSize") long fileSize, @JsonProperty("offset") long offset)
     {
         this.filePath = filePath;
         this.fileSize = fileSize;
+        this.offset = offset;
     }
 
     @JsonProperty
@@ -51,6 +61,12 @@ public class FileStatus
         return fileSize;
     }
 
+    @JsonProperty
+    public long getOffset()
+    {
+        return offset;
+    }
+
     @Override
     public boolean equals(Object o)
     {
@@ -61,13 +77,13 @@ public class FileStatus
             return false;
         }
         FileStatus that = (FileStatus) o;
-        return fileSize == that.fileSize && filePath.equals(that.filePath);
+        return fileSize == that.fileSize && offset == that.offset && filePath.equals(that.filePath);
     }
 
     @Override
     public int hashCode()
     {
-        return Objects.hash(filePath, fileSize);
+        return Objects.hash(filePath, fileSize, offset);
     }
 
     @Override
@@ -76,6 +92,7 @@ public class FileStatus
         return toStringHelper(this)
                 .add("filePath", filePath)
                 .add("fileSize", fileSize)
+                .add("offset", offset)
                 .toString();
     }
 
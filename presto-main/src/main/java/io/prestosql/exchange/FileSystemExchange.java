@@ -47,10 +47,13 @@ import java.util.regex.Pattern;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Verify.verify;
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
 import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static io.prestosql.exchange.FileSystemExchangeManager.PATH_SEPARATOR;
 import static io.prestosql.exchange.FileSystemExchangeSink.COMMITTED_MARKER_FILE_NAME;
 import static io.prestosql.exchange.FileSystemExchangeSink.DATA_FILE_SUFFIX;
+import static io.prestosql.exchange.FileSystemExchangeSink.SEGMENT_FILE_NAME;
+import static io.prestosql.exchange.FileSystemExchangeSink.SEGMENT_INDEX_FILE_NAME;
 import static io.prestosql.exchange.util.AsyncSemaphore.processAll;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
@@ -206,7 +209,7 @@ public class FileSystemExchange
     private ListenableFuture<Multimap<Integer, FileStatus>> getCommittedPartitions(int taskPartitionId)
     {
         URI sinkOutputPath = getTaskOutputDirectory(taskPartitionId);
-        return stats.getGetCommittedPartitions().record(Futures.transform(
+        return stats.getGetCommittedPartitions().record(Futures.transformAsync(
                 exchangeStorage.listFilesRecursively(sinkOutputPath),
                 sinkOutputFiles -> {
                     String committedMarkerFilePath = sinkOutputFiles.stream()
@@ -219,17 +222,36 @@ public class FileSystemExchange
                     String committedAttemptId = parts[parts.length - 2];
                     int attemptIdOffset = committedMarkerFilePath.length() - committedAttemptId.length()
                             - PATH_SEPARATOR.length() - COMMITTED_MARKER_FILE_NAME.length();
-                    List<FileStatus> partitionFiles = sinkOutputFiles.stream()
-                            .filter(file -> file.getFilePath().startsWith(committedAttemptId + PATH_SEPARATOR, attemptIdOffset) && file.getFilePath().endsWith(DATA_FILE_SUFFIX))
+                    List<FileStatus> committedFiles = sinkOutputFiles.stream()
+                            .filter(file -> file.getFilePath().startsWith(committedAttemptId + PATH_SEPARATOR, attemptIdOffset))
                             .collect(toImmutableList());
                     ImmutableMultimap.Builder<Integer, FileStatus> result = ImmutableMultimap.builder();
-                    for (FileStatus partitionFile : partitionFiles) {
+                    for (FileStatus partitionFile : committedFiles) {
+                        if (!partitionFile.getFilePath().endsWith(DATA_FILE_SUFFIX)) {
+                            continue;
+                        }
                         Matcher matcher = PARTITION_FILE_NAME_PATTERN.matcher(new File(partitionFile.getFilePath()).getName());
                         checkState(matcher.matches(), "Unexpected partition file: %s", partitionFile);
                         int partitionId = Integer.parseInt(matcher.group(1));
                         result.put(partitionId, partitionFile);
                     }
-                    return result.build();
+                    Optional<FileStatus> segmentIndexFile = committedFiles.stream()
+                            .filter(file -> file.getFilePath().endsWith(SEGMENT_INDEX_FILE_NAME))
+                            .findFirst();
+                    if (!segmentIndexFile.isPresent()) {
+                        return immediateFuture(result.build());
+                    }
+                    String indexFilePath = segmentIndexFile.get().getFilePath();
+                    String segmentFilePath = indexFilePath.substring(0, indexFilePath.length() - SEGMENT_INDEX_FILE_NAME.length()) + SEGMENT_FILE_NAME;
+                    return Futures.transform(
+                            exchangeStorage.readFile(URI.create(indexFilePath)),
+                            index -> {
+                                for (ExchangeSegmentIndex.Section section : ExchangeSegmentIndex.deserialize(index).getSections()) {
+                                    result.put(section.getPartitionId(), section.toFileStatus(segmentFilePath));
+                                }
+                                return result.build();
+                            },
+                            executor);
                 },
                 executor));
     }
@@ -17,6 +17,7 @@ import com.google.common.collect.ImmutableList;
 import io.airlift.configuration.Config;
 import io.airlift.configuration.ConfigDescription;
 import io.airlift.units.DataSize;
+import io.airlift.units.MaxDataSize;
 
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotEmpty;
@@ -27,6 +28,7 @@ import java.util.Arrays;
 import java.util.List;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
+import static io.airlift.units.DataSize.Unit.BYTE;
 import static io.airlift.units.DataSize.Unit.GIGABYTE;
 import static io.airlift.units.DataSize.Unit.KILOBYTE;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
@@ -42,12 +44,18 @@ public class FileSystemExchangeConfig
     private int exchangeSinkBufferPoolMinSize = 10;
     private int exchangeSinkBuffersPerPartition = 2;
     private DataSize exchangeSinkMaxFileSize = new DataSize(1, GIGABYTE);
+    private DataSize exchangeSinkSegmentPartitionThreshold = new DataSize(0, BYTE);
+    private DataSize exchangeSinkSegmentBufferSize = new DataSize(32, MEGABYTE);
     private int exchangeSourceConcurrentReaders = 4;
     private int maxOutputPartitionCount = 50;
     private int exchangeFileListingParallelism = 50;
     private String exchangeFilesystemType = "local";
     DirectSerialisationType directSerialisationType = DirectSerialisationType.JAVA;
     private DataSize directSerialisationBufferSize = new DataSize(16, KILOBYTE);
+    private boolean exchangeMmapEnabled;
+    private DataSize exchangeMmapRegionSize = new DataSize(64, MEGABYTE);
+    private DataSize exchangeMmapMaxDirtySize = new DataSize(512, MEGABYTE);
+    private DataSize exchangeMmapMinFreeSpace = new DataSize(1, GIGABYTE);
 
     public enum DirectSerialisationType
     {
@@ -155,6 +163,33 @@ public class FileSystemExchangeConfig
         return this;
     }
 
+    public DataSize getExchangeSinkSegmentPartitionThreshold()
+    {
+        return exchangeSinkSegmentPartitionThreshold;
+    }
+
+    @Config("exchange.sink-segment-partition-threshold")
+    @ConfigDescription("Partitions of a sink smaller than this are written together into one segment file instead of a file each, 0 disables segment files")
+    public FileSystemExchangeConfig setExchangeSinkSegmentPartitionThreshold(DataSize exchangeSinkSegmentPartitionThreshold)
+    {
+        this.exchangeSinkSegmentPartitionThreshold = exchangeSinkSegmentPartitionThreshold;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getExchangeSinkSegmentBufferSize()
+    {
+        return exchangeSinkSegmentBufferSize;
+    }
+
+    @Config("exchange.sink-segment-buffer-size")
+    @ConfigDescription("Max memory a sink uses to hold small partitions for its segment file, partitions are written to files of their own beyond it")
+    public FileSystemExchangeConfig setExchangeSinkSegmentBufferSize(DataSize exchangeSinkSegmentBufferSize)
+    {
+        this.exchangeSinkSegmentBufferSize = exchangeSinkSegmentBufferSize;
+        return this;
+    }
+
     @Min(1)
     public int getExchangeSourceConcurrentReaders()
     {
@@ -234,4 +269,60 @@ public class FileSystemExchangeConfig
     {
         return directSerialisationBufferSize;
     }
+
+    public boolean isExchangeMmapEnabled()
+    {
+        return exchangeMmapEnabled;
+    }
+
+    @Config("exchange.mmap-enabled")
+    @ConfigDescription("Write and read exchange files through memory mappings, base directories must be on local disk")
+    public FileSystemExchangeConfig setExchangeMmapEnabled(boolean exchangeMmapEnabled)
+    {
+        this.exchangeMmapEnabled = exchangeMmapEnabled;
+        return this;
+    }
+
+    @NotNull
+    @MaxDataSize("1GB")
+    public DataSize getExchangeMmapRegionSize()
+    {
+        return exchangeMmapRegionSize;
+    }
+
+    @Config("exchange.mmap-region-size")
+    @ConfigDescription("Size of the regions exchange files are preallocated and mapped in")
+    public FileSystemExchangeConfig setExchangeMmapRegionSize(DataSize exchangeMmapRegionSize)
+    {
+        this.exchangeMmapRegionSize = exchangeMmapRegionSize;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getExchangeMmapMaxDirtySize()
+    {
+        return exchangeMmapMaxDirtySize;
+    }
+
+    @Config("exchange.mmap-max-dirty-size")
+    @ConfigDescription("Mapped exchange data not yet written back to disk, beyond which writers flush their regions before continuing")
+    public FileSystemExchangeConfig setExchangeMmapMaxDirtySize(DataSize exchangeMmapMaxDirtySize)
+    {
+        this.exchangeMmapMaxDirtySize = exchangeMmapMaxDirtySize;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getExchangeMmapMinFreeSpace()
+    {
+        return exchangeMmapMinFreeSpace;
+    }
+
+    @Config("exchange.mmap-min-free-space")
+    @ConfigDescription("Free disk space to keep when preallocating exchange files, writers fail instead of filling the disk")
+    public FileSystemExchangeConfig setExchangeMmapMinFreeSpace(DataSize exchangeMmapMinFreeSpace)
+    {
+        this.exchangeMmapMinFreeSpace = exchangeMmapMinFreeSpace;
+        return this;
+    }
 }
@@ -17,12 +17,14 @@ import io.prestosql.spi.ErrorCode;
 import io.prestosql.spi.ErrorCodeSupplier;
 import io.prestosql.spi.ErrorType;
 
+import static io.prestosql.spi.ErrorType.INSUFFICIENT_RESOURCES;
 import static io.prestosql.spi.ErrorType.USER_ERROR;
 
 public enum FileSystemExchangeErrorCode
         implements ErrorCodeSupplier
 {
-    MAX_OUTPUT_PARTITION_COUNT_EXCEEDED(0, USER_ERROR),;
+    MAX_OUTPUT_PARTITION_COUNT_EXCEEDED(0, USER_ERROR),
+    EXCHANGE_DISK_SPACE_EXHAUSTED(1, INSUFFICIENT_RESOURCES),;
     private static final int BASE_CODE = 0x0510_0000;
     private final ErrorCode errorCode;
 
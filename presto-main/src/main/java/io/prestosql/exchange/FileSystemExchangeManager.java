@@ -55,6 +55,8 @@ public class FileSystemExchangeManager
     private final int exchangeSinkBufferPoolMinSize;
     private final int exchangeSinkBuffersPerPartition;
     private final long exchangeSinkMaxFileSizeInBytes;
+    private final long exchangeSinkSegmentPartitionThresholdInBytes;
+    private final long exchangeSinkSegmentBufferSizeInBytes;
     private final int exchangeSourceConcurrentReaders;
     private final int maxOutputPartitionCount;
     private final int exchangeFileListingParallelism;
@@ -80,6 +82,8 @@ public class FileSystemExchangeManager
         this.exchangeSinkBufferPoolMinSize = config.getExchangeSinkBufferPoolMinSize();
         this.exchangeSinkBuffersPerPartition = config.getExchangeSinkBuffersPerPartition();
         this.exchangeSinkMaxFileSizeInBytes = config.getExchangeSinkMaxFileSize().toBytes();
+        this.exchangeSinkSegmentPartitionThresholdInBytes = config.getExchangeSinkSegmentPartitionThreshold().toBytes();
+        this.exchangeSinkSegmentBufferSizeInBytes = config.getExchangeSinkSegmentBufferSize().toBytes();
         this.exchangeSourceConcurrentReaders = config.getExchangeSourceConcurrentReaders();
         this.maxOutputPartitionCount = config.getMaxOutputPartitionCount();
         this.exchangeFileListingParallelism = config.getExchangeFileListingParallelism();
@@ -136,6 +140,8 @@ public class FileSystemExchangeManager
                 exchangeSinkBufferPoolMinSize,
                 exchangeSinkBuffersPerPartition,
                 exchangeSinkMaxFileSizeInBytes,
+                exchangeSinkSegmentPartitionThresholdInBytes,
+                exchangeSinkSegmentBufferSizeInBytes,
                 directSerialisationType,
                 directSerialisationBufferSize);
     }
@@ -156,6 +162,8 @@ public class FileSystemExchangeManager
                 exchangeSinkBufferPoolMinSize,
                 exchangeSinkBuffersPerPartition,
                 exchangeSinkMaxFileSizeInBytes,
+                exchangeSinkSegmentPartitionThresholdInBytes,
+                exchangeSinkSegmentBufferSizeInBytes,
                 serType,
                 directSerialisationBufferSize);
     }
@@ -176,7 +184,8 @@ public class FileSystemExchangeManager
                                 URI.create(fileStatus.getFilePath()),
                                 (Optional<SecretKey>) entry.getValue()[0],
                                 (boolean) entry.getValue()[1],
-                                fileStatus.getFileSize())))
+                                fileStatus.getFileSize(),
+                                fileStatus.getOffset())))
                 .collect(toImmutableList());
         return new FileSystemExchangeSource(
                 exchangeStorage,
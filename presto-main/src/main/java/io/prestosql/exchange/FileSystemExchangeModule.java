@@ -18,6 +18,7 @@ import com.google.inject.Scopes;
 import io.airlift.configuration.AbstractConfigurationAwareModule;
 import io.prestosql.exchange.storage.FileSystemExchangeStorage;
 import io.prestosql.exchange.storage.HetuFileSystemExchangeStorage;
+import io.prestosql.exchange.storage.MmapFileSystemExchangeStorage;
 
 import static org.weakref.jmx.guice.ExportBinder.newExporter;
 
@@ -30,8 +31,13 @@ public class FileSystemExchangeModule
         binder.bind(FileSystemExchangeStats.class).in(Scopes.SINGLETON);
         newExporter(binder).export(FileSystemExchangeStats.class).withGeneratedName();
 
-        buildConfigObject(FileSystemExchangeConfig.class);
-        binder.bind(FileSystemExchangeStorage.class).to(HetuFileSystemExchangeStorage.class).in(Scopes.SINGLETON);
+        FileSystemExchangeConfig config = buildConfigObject(FileSystemExchangeConfig.class);
+        if (config.isExchangeMmapEnabled()) {
+            binder.bind(FileSystemExchangeStorage.class).to(MmapFileSystemExchangeStorage.class).in(Scopes.SINGLETON);
+        }
+        else {
+            binder.bind(FileSystemExchangeStorage.class).to(HetuFileSystemExchangeStorage.class).in(Scopes.SINGLETON);
+        }
 
         binder.bind(FileSystemExchangeManager.class).in(Scopes.SINGLETON);
     }
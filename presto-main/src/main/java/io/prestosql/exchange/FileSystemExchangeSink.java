@@ -13,11 +13,13 @@
  */
 package io.prestosql.exchange;
 
+import com.esotericsoftware.kryo.io.Output;
 import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.log.Logger;
+import io.airlift.slice.DynamicSliceOutput;
 import io.airlift.slice.Slice;
 import io.airlift.slice.Slices;
 import io.hetu.core.transport.execution.buffer.PagesSerde;
@@ -40,8 +42,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static com.google.common.base.Preconditions.checkArgument;
@@ -67,6 +71,8 @@ public class FileSystemExchangeSink
     private static final Logger LOG = Logger.get(FileSystemExchangeSink.class);
     public static final String COMMITTED_MARKER_FILE_NAME = "committed";
     public static final String DATA_FILE_SUFFIX = ".data";
+    public static final String SEGMENT_FILE_NAME = "partitions.segment";
+    public static final String SEGMENT_INDEX_FILE_NAME = "partitions.index";
 
     private static final int INSTANCE_SIZE = ClassLayout.parseClass(FileSystemExchangeSink.class).instanceSize();
 
@@ -79,9 +85,12 @@ public class FileSystemExchangeSink
     private final boolean preserveRecordsOrder;
     private final int maxPageStorageSizeInBytes;
     private final long maxFileSizeInBytes;
+    private final long segmentPartitionThresholdInBytes;
+    private final long segmentBufferSizeInBytes;
 
     private final Map<Integer, BufferedStorageWriter> writerMap = new ConcurrentHashMap<>();
     private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final AtomicLong segmentBufferedBytes = new AtomicLong();
     private boolean closed;
     private final DirectSerialisationType directSerialisationType;
     private final int directSerialisationBufferSize;
@@ -98,6 +107,8 @@ public class FileSystemExchangeSink
             int exchangeSinkBufferPoolMinSize,
             int exchangeSinkBuffersPerPartition,
             long maxFileSizeInBytes,
+            long segmentPartitionThresholdInBytes,
+            long segmentBufferSizeInBytes,
             DirectSerialisationType directSerialisationType,
             int directSerialisationBufferSize)
     {
@@ -112,6 +123,8 @@ public class FileSystemExchangeSink
         this.preserveRecordsOrder = preserveRecordsOrder;
         this.maxPageStorageSizeInBytes = maxPageStorageSizeInBytes;
         this.maxFileSizeInBytes = maxFileSizeInBytes;
+        this.segmentPartitionThresholdInBytes = segmentPartitionThresholdInBytes;
+        this.segmentBufferSizeInBytes = segmentBufferSizeInBytes;
         this.directSerialisationType = directSerialisationType;
         this.directSerialisationBufferSize = directSerialisationBufferSize;
     }
@@ -175,6 +188,9 @@ public class FileSystemExchangeSink
                 failure,
                 maxPageStorageSizeInBytes,
                 maxFileSizeInBytes,
+                segmentPartitionThresholdInBytes,
+                segmentBufferSizeInBytes,
+                segmentBufferedBytes,
                 directSerialisationType,
                 directSerialisationBufferSize);
     }
@@ -201,8 +217,20 @@ public class FileSystemExchangeSink
         if (closed) {
             return new CompletableFuture<>();
         }
-        ListenableFuture<Void> finishFuture = Futures.transform(Futures.allAsList(
-                        writerMap.values().stream().map(BufferedStorageWriter::finish).collect(toImmutableList())),
+        ImmutableList.Builder<ListenableFuture<Void>> writerFutures = ImmutableList.builder();
+        writerMap.values().stream().map(BufferedStorageWriter::finish).forEach(writerFutures::add);
+        Map<Integer, Slice> segmentPartitions = new TreeMap<>();
+        writerMap.forEach((partitionId, writer) -> writer.getSegmentData().ifPresent(data -> segmentPartitions.put(partitionId, data)));
+        if (!segmentPartitions.isEmpty()) {
+            stats.getPartitionsPerSegment().add(segmentPartitions.size());
+            writerFutures.add(exchangeStorage.writeSegmentFile(
+                    outputDirectory.resolve(SEGMENT_FILE_NAME),
+                    outputDirectory.resolve(SEGMENT_INDEX_FILE_NAME),
+                    segmentPartitions,
+                    secretKey,
+                    exchangeCompressionEnabled));
+        }
+        ListenableFuture<Void> finishFuture = Futures.transform(Futures.allAsList(writerFutures.build()),
                 val -> null,
                 directExecutor());
         addSuccessCallback(finishFuture, this::destroy);
@@ -275,7 +303,14 @@ public class FileSystemExchangeSink
         private final AtomicReference<Throwable> failure;
         private final int maxPageStorageSizeInBytes;
         private final long maxFileSizeInBytes;
+        private final long segmentPartitionThresholdInBytes;
+        private final long segmentBufferSizeInBytes;
+        private final AtomicLong segmentBufferedBytes;
 
+        @GuardedBy("this")
+        private DynamicSliceOutput segmentBuffer;
+        @GuardedBy("this")
+        private Output segmentKryoOutput;
         @GuardedBy("this")
         private ExchangeStorageWriter currentWriter;
         @GuardedBy("this")
@@ -299,6 +334,9 @@ public class FileSystemExchangeSink
                                      AtomicReference<Throwable> failure,
                                      int maxPageStorageSizeInBytes,
                                      long maxFileSizeInBytes,
+                                     long segmentPartitionThresholdInBytes,
+                                     long segmentBufferSizeInBytes,
+                                     AtomicLong segmentBufferedBytes,
                                      DirectSerialisationType directSerialisationType,
                                      int directSerialisationBufferSize)
         {
@@ -312,10 +350,22 @@ public class FileSystemExchangeSink
             this.failure = requireNonNull(failure, "failure is null");
             this.maxPageStorageSizeInBytes = maxPageStorageSizeInBytes;
             this.maxFileSizeInBytes = maxFileSizeInBytes;
+            this.segmentPartitionThresholdInBytes = segmentPartitionThresholdInBytes;
+            this.segmentBufferSizeInBytes = segmentBufferSizeInBytes;
+            this.segmentBufferedBytes = requireNonNull(segmentBufferedBytes, "segmentBufferedBytes is null");
             this.directSerialisationType = directSerialisationType;
             this.directSerialisationBufferSize = directSerialisationBufferSize;
 
-            addExchangeStorageWriter();
+            if (segmentPartitionThresholdInBytes > 0) {
+                // small partitions stay in memory until the sink finishes and go to the shared segment file
+                segmentBuffer = new DynamicSliceOutput(directSerialisationBufferSize);
+                if (directSerialisationType == DirectSerialisationType.KRYO) {
+                    segmentKryoOutput = new Output(segmentBuffer, directSerialisationBufferSize);
+                }
+            }
+            else {
+                addExchangeStorageWriter();
+            }
         }
 
         private void addExchangeStorageWriter()
@@ -352,6 +402,13 @@ public class FileSystemExchangeSink
                         succinctBytes(requiredPageStorageSize)));
             }
 
+            if (segmentBuffer != null) {
+                segmentBuffer.writeInt(data.length());
+                segmentBuffer.writeBytes(data);
+                updateSegmentBuffer(requiredPageStorageSize);
+                return;
+            }
+
             if (currentFileSize + requiredPageStorageSize > maxFileSizeInBytes && !preserveRecordsOrder) {
                 stats.getFileSizeInBytes().add(currentFileSize);
                 addExchangeStorageWriter();
@@ -377,6 +434,19 @@ public class FileSystemExchangeSink
                         succinctBytes(requiredPageStorageSize)));
             }
 
+            if (segmentBuffer != null) {
+                long bufferedBytes = segmentBuffer.size();
+                if (segmentKryoOutput != null) {
+                    directSerde.serialize(segmentKryoOutput, page);
+                    segmentKryoOutput.flush();
+                }
+                else {
+                    directSerde.serialize(segmentBuffer, page);
+                }
+                updateSegmentBuffer(segmentBuffer.size() - bufferedBytes);
+                return;
+            }
+
             if (currentFileSize + requiredPageStorageSize > maxFileSizeInBytes && !preserveRecordsOrder) {
                 stats.getFileSizeInBytes().add(currentFileSize);
                 addExchangeStorageWriter();
@@ -387,6 +457,38 @@ public class FileSystemExchangeSink
             currentFileSize += requiredPageStorageSize;
         }
 
+        private void updateSegmentBuffer(long addedBytes)
+        {
+            long sinkBufferedBytes = segmentBufferedBytes.addAndGet(addedBytes);
+            if (segmentBuffer.size() > segmentPartitionThresholdInBytes || sinkBufferedBytes > segmentBufferSizeInBytes) {
+                // the partition is not small after all, or the sink holds too much, move it to files of its own
+                Slice bufferedData = releaseSegmentBuffer();
+                addExchangeStorageWriter();
+                writeInternal(bufferedData);
+                currentFileSize = bufferedData.length();
+            }
+        }
+
+        private Slice releaseSegmentBuffer()
+        {
+            Slice bufferedData = segmentBuffer.slice();
+            segmentBufferedBytes.addAndGet(-bufferedData.length());
+            segmentBuffer = null;
+            segmentKryoOutput = null;
+            return bufferedData;
+        }
+
+        /**
+         * Data of a partition which stayed below the segment threshold, to be written into the segment file of the sink
+         */
+        public synchronized Optional<Slice> getSegmentData()
+        {
+            if (closed || segmentBuffer == null) {
+                return Optional.empty();
+            }
+            return Optional.of(releaseSegmentBuffer());
+        }
+
         private void writeInternal(Slice slice)
         {
             ListenableFuture<Void> writeFuture = currentWriter.write(slice);
@@ -399,6 +501,9 @@ public class FileSystemExchangeSink
                 return immediateFailedFuture(new IllegalStateException("BufferedStorageWriter has closed"));
             }
 
+            if (writers.isEmpty()) {
+                return immediateFuture(null);
+            }
             stats.getFileSizeInBytes().add(currentFileSize);
             if (writers.size() == 1) {
                 return currentWriter.finish();
@@ -413,6 +518,12 @@ public class FileSystemExchangeSink
             }
             closed = true;
 
+            if (segmentBuffer != null) {
+                releaseSegmentBuffer();
+            }
+            if (writers.isEmpty()) {
+                return immediateFuture(null);
+            }
             if (writers.size() == 1) {
                 return currentWriter.abort();
             }
@@ -421,7 +532,9 @@ public class FileSystemExchangeSink
 
         public synchronized long getRetainedSize()
         {
-            return INSTANCE_SIZE + estimatedSizeOf(writers, ExchangeStorageWriter::getRetainedSize);
+            return INSTANCE_SIZE
+                    + (segmentBuffer == null ? 0 : segmentBuffer.getRetainedSize())
+                    + estimatedSizeOf(writers, ExchangeStorageWriter::getRetainedSize);
         }
     }
 }
@@ -27,6 +27,7 @@ public class FileSystemExchangeStats
     private final ExecutionStats exchangeSinkAborted = new ExecutionStats();
     private final ExecutionStats exchangeSourceBlocked = new ExecutionStats();
     private final DistributionStat fileSizeInBytes = new DistributionStat();
+    private final DistributionStat partitionsPerSegment = new DistributionStat();
 
     @Managed
     @Nested
@@ -83,4 +84,11 @@ public class FileSystemExchangeStats
     {
         return fileSizeInBytes;
     }
+
+    @Managed
+    @Nested
+    public DistributionStat getPartitionsPerSegment()
+    {
+        return partitionsPerSegment;
+    }
 }
@@ -14,6 +14,7 @@
 package io.prestosql.exchange.storage;
 
 import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.slice.Slice;
 import io.prestosql.exchange.ExchangeSourceFile;
 import io.prestosql.exchange.FileStatus;
 import io.prestosql.exchange.FileSystemExchangeConfig.DirectSerialisationType;
@@ -24,6 +25,7 @@ import javax.crypto.SecretKey;
 import java.io.IOException;
 import java.net.URI;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Queue;
 
@@ -40,6 +42,14 @@ public interface FileSystemExchangeStorage
 
     ListenableFuture<Void> createEmptyFile(URI file);
 
+    /**
+     * Writes the given partitions one after another into a single segment file, each encoded on its own,
+     * and their locations into the index file as a serialized {@link io.prestosql.exchange.ExchangeSegmentIndex}.
+     */
+    ListenableFuture<Void> writeSegmentFile(URI segmentFile, URI indexFile, Map<Integer, Slice> partitions, Optional<SecretKey> secretKey, boolean exchangeCompressionEnabled);
+
+    ListenableFuture<Slice> readFile(URI file);
+
     ListenableFuture<Void> deleteRecursively(List<URI> directories);
 
     ListenableFuture<List<FileStatus>> listFilesRecursively(URI dir);
@@ -14,6 +14,7 @@
 package io.prestosql.exchange.storage;
 
 import com.esotericsoftware.kryo.io.Input;
+import com.google.common.io.ByteStreams;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.compress.snappy.SnappyFramedInputStream;
 import io.airlift.log.Logger;
@@ -35,6 +36,7 @@ import javax.crypto.NoSuchPaddingException;
 import javax.crypto.SecretKey;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.security.InvalidAlgorithmParameterException;
@@ -194,21 +196,27 @@ public class HetuFileSystemExchangeReader
             Path file = Paths.get(sourceFile.getFileUri());
             Optional<SecretKey> secretKey = sourceFile.getSecretKey();
             boolean exchangeCompressionEnabled = sourceFile.isExchangeCompressionEnabled();
+            InputStream inputStream = fsClient.newInputStream(file);
+            if (sourceFile.getOffset() > 0) {
+                // a section of a segment file, see ExchangeSegmentIndex
+                ByteStreams.skipFully(inputStream, sourceFile.getOffset());
+                inputStream = ByteStreams.limit(inputStream, sourceFile.getFileSize());
+            }
             if (secretKey.isPresent() && exchangeCompressionEnabled) {
                 Cipher cipher = Cipher.getInstance(CIPHER_TRANSFORMATION);
                 cipher.init(Cipher.DECRYPT_MODE, secretKey.get(), algorithmParameterSpec);
-                return new InputStreamSliceInput(new SnappyFramedInputStream(new CipherInputStream(fsClient.newInputStream(file), cipher)), BUFFER_SIZE_IN_BYTES);
+                return new InputStreamSliceInput(new SnappyFramedInputStream(new CipherInputStream(inputStream, cipher)), BUFFER_SIZE_IN_BYTES);
             }
             else if (secretKey.isPresent()) {
                 Cipher cipher = Cipher.getInstance(CIPHER_TRANSFORMATION);
                 cipher.init(Cipher.DECRYPT_MODE, secretKey.get(), algorithmParameterSpec);
-                return new InputStreamSliceInput(new CipherInputStream(fsClient.newInputStream(file), cipher), BUFFER_SIZE_IN_BYTES);
+                return new InputStreamSliceInput(new CipherInputStream(inputStream, cipher), BUFFER_SIZE_IN_BYTES);
             }
             else if (exchangeCompressionEnabled) {
-                return new InputStreamSliceInput(new SnappyFramedInputStream(fsClient.newInputStream(file)), BUFFER_SIZE_IN_BYTES);
+                return new InputStreamSliceInput(new SnappyFramedInputStream(inputStream), BUFFER_SIZE_IN_BYTES);
             }
             else {
-                return new InputStreamSliceInput(fsClient.newInputStream(file), BUFFER_SIZE_IN_BYTES);
+                return new InputStreamSliceInput(inputStream, BUFFER_SIZE_IN_BYTES);
             }
         }
         catch (NoSuchAlgorithmException | InvalidAlgorithmParameterException | NoSuchPaddingException |
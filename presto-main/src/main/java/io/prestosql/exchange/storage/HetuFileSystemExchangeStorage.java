@@ -14,29 +14,43 @@
 package io.prestosql.exchange.storage;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingOutputStream;
 import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.compress.snappy.SnappyFramedOutputStream;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
 import io.airlift.units.DataSize;
+import io.prestosql.exchange.ExchangeSegmentIndex;
+import io.prestosql.exchange.ExchangeSegmentIndex.Section;
 import io.prestosql.exchange.ExchangeSourceFile;
 import io.prestosql.exchange.FileStatus;
 import io.prestosql.exchange.FileSystemExchangeConfig.DirectSerialisationType;
 import io.prestosql.spi.filesystem.HetuFileSystemClient;
 
+import javax.crypto.Cipher;
+import javax.crypto.CipherOutputStream;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.IvParameterSpec;
 import javax.inject.Inject;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
 import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
 import java.security.SecureRandom;
 import java.security.spec.AlgorithmParameterSpec;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Queue;
 
 import static com.google.common.util.concurrent.Futures.immediateFailedFuture;
 import static com.google.common.util.concurrent.Futures.immediateFuture;
 import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static io.prestosql.exchange.ExchangeSegmentIndex.SEGMENT_FILE_HEADER;
 import static java.lang.Math.toIntExact;
 
 public class HetuFileSystemExchangeStorage
@@ -45,6 +59,7 @@ public class HetuFileSystemExchangeStorage
     private HetuFileSystemClient fileSystemClient;
     private final AlgorithmParameterSpec algorithmParameterSpec;
     private static final int BUFFER_SIZE_IN_BYTES = toIntExact(new DataSize(4, KILOBYTE).toBytes());
+    private static final String CIPHER_TRANSFORMATION = "AES/CBC/PKCS5Padding";
 
     @Inject
     public HetuFileSystemExchangeStorage()
@@ -77,6 +92,57 @@ public class HetuFileSystemExchangeStorage
         return immediateFuture(null);
     }
 
+    @Override
+    public ListenableFuture<Void> writeSegmentFile(URI segmentFile, URI indexFile, Map<Integer, Slice> partitions, Optional<SecretKey> secretKey, boolean exchangeCompressionEnabled)
+    {
+        ImmutableList.Builder<Section> sections = ImmutableList.builder();
+        try {
+            try (CountingOutputStream output = new CountingOutputStream(fileSystemClient.newOutputStream(Paths.get(segmentFile.toString())))) {
+                output.write(Slices.wrappedIntArray(SEGMENT_FILE_HEADER).getBytes());
+                for (Map.Entry<Integer, Slice> partition : partitions.entrySet()) {
+                    long offset = output.getCount();
+                    // every section gets its own cipher and compression frame, so it can be decoded without its neighbours
+                    try (OutputStream sectionOutput = createSectionOutputStream(new UnclosableOutputStream(output), secretKey, exchangeCompressionEnabled, algorithmParameterSpec)) {
+                        partition.getValue().getBytes(0, sectionOutput, partition.getValue().length());
+                    }
+                    sections.add(new Section(partition.getKey(), offset, output.getCount() - offset));
+                }
+            }
+            try (OutputStream output = fileSystemClient.newOutputStream(Paths.get(indexFile.toString()))) {
+                output.write(new ExchangeSegmentIndex(sections.build()).serialize().getBytes());
+            }
+        }
+        catch (IOException | GeneralSecurityException e) {
+            return immediateFailedFuture(e);
+        }
+        return immediateFuture(null);
+    }
+
+    static OutputStream createSectionOutputStream(OutputStream output, Optional<SecretKey> secretKey, boolean exchangeCompressionEnabled, AlgorithmParameterSpec algorithmParameterSpec) throws IOException, GeneralSecurityException
+    {
+        OutputStream sectionOutput = output;
+        if (secretKey.isPresent()) {
+            Cipher cipher = Cipher.getInstance(CIPHER_TRANSFORMATION);
+            cipher.init(Cipher.ENCRYPT_MODE, secretKey.get(), algorithmParameterSpec);
+            sectionOutput = new CipherOutputStream(sectionOutput, cipher);
+        }
+        if (exchangeCompressionEnabled) {
+            sectionOutput = new SnappyFramedOutputStream(sectionOutput);
+        }
+        return sectionOutput;
+    }
+
+    @Override
+    public ListenableFuture<Slice> readFile(URI file)
+    {
+        try (InputStream input = fileSystemClient.newInputStream(Paths.get(file.toString()))) {
+            return immediateFuture(Slices.wrappedBuffer(ByteStreams.toByteArray(input)));
+        }
+        catch (IOException e) {
+            return immediateFailedFuture(e);
+        }
+    }
+
     @Override
     public ListenableFuture<Void> deleteRecursively(List<URI> directories)
     {
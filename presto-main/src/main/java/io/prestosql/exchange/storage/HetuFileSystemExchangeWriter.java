@@ -57,33 +57,40 @@ public class HetuFileSystemExchangeWriter
     private final int directSerialisationBufferSize;
 
     public HetuFileSystemExchangeWriter(URI file, HetuFileSystemClient fileSystemClient, Optional<SecretKey> secretKey, boolean exchangeCompressionEnabled, AlgorithmParameterSpec algorithmParameterSpec, FileSystemExchangeConfig.DirectSerialisationType directSerialisationType, int directSerialisationBufferSize)
+    {
+        this(newOutputStream(file, fileSystemClient), secretKey, exchangeCompressionEnabled, algorithmParameterSpec, directSerialisationType, directSerialisationBufferSize);
+    }
+
+    /**
+     * Encodes exchange data into the given raw output, which is closed when the writer finishes
+     */
+    public HetuFileSystemExchangeWriter(OutputStream rawOutputStream, Optional<SecretKey> secretKey, boolean exchangeCompressionEnabled, AlgorithmParameterSpec algorithmParameterSpec, FileSystemExchangeConfig.DirectSerialisationType directSerialisationType, int directSerialisationBufferSize)
     {
         this.directSerialisationBufferSize = directSerialisationBufferSize;
         this.directSerialisationType = directSerialisationType;
         try {
-            Path path = Paths.get(file.toString());
             if (secretKey.isPresent() && exchangeCompressionEnabled) {
                 Cipher cipher = Cipher.getInstance(CIPHER_TRANSFORMATION);
                 cipher.init(Cipher.ENCRYPT_MODE, secretKey.get(), algorithmParameterSpec);
-                this.outputStream = new SnappyFramedOutputStream(new CipherOutputStream(fileSystemClient.newOutputStream(path), cipher));
+                this.outputStream = new SnappyFramedOutputStream(new CipherOutputStream(rawOutputStream, cipher));
             }
             else if (secretKey.isPresent()) {
                 Cipher cipher = Cipher.getInstance(CIPHER_TRANSFORMATION);
                 cipher.init(Cipher.ENCRYPT_MODE, secretKey.get(), algorithmParameterSpec);
-                this.outputStream = new CipherOutputStream(fileSystemClient.newOutputStream(path), cipher);
+                this.outputStream = new CipherOutputStream(rawOutputStream, cipher);
             }
             else if (exchangeCompressionEnabled) {
-                this.outputStream = new SnappyFramedOutputStream(new OutputStreamSliceOutput(fileSystemClient.newOutputStream(path), directSerialisationBufferSize));
+                this.outputStream = new SnappyFramedOutputStream(new OutputStreamSliceOutput(rawOutputStream, directSerialisationBufferSize));
             }
             else {
                 if (directSerialisationType == DirectSerialisationType.KRYO) {
-                    this.outputStream = new Output(fileSystemClient.newOutputStream(path), directSerialisationBufferSize);
+                    this.outputStream = new Output(rawOutputStream, directSerialisationBufferSize);
                 }
                 else if (directSerialisationType == DirectSerialisationType.JAVA) {
-                    this.outputStream = new OutputStreamSliceOutput(fileSystemClient.newOutputStream(path), directSerialisationBufferSize);
+                    this.outputStream = new OutputStreamSliceOutput(rawOutputStream, directSerialisationBufferSize);
                 }
                 else {
-                    this.outputStream = new OutputStreamSliceOutput(fileSystemClient.newOutputStream(path), directSerialisationBufferSize);
+                    this.outputStream = new OutputStreamSliceOutput(rawOutputStream, directSerialisationBufferSize);
                 }
             }
         }
@@ -93,6 +100,17 @@ public class HetuFileSystemExchangeWriter
         }
     }
 
+    private static OutputStream newOutputStream(URI file, HetuFileSystemClient fileSystemClient)
+    {
+        try {
+            Path path = Paths.get(file.toString());
+            return fileSystemClient.newOutputStream(path);
+        }
+        catch (IOException e) {
+            throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to create OutputStream: " + e.getMessage(), e);
+        }
+    }
+
     @Override
     public ListenableFuture<Void> write(Slice slice)
     {
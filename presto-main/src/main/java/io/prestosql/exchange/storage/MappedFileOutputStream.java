@@ -0,0 +1,152 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.exchange.storage;
+
+import io.prestosql.spi.PrestoException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.airlift.units.DataSize.succinctBytes;
+import static io.prestosql.exchange.FileSystemExchangeErrorCode.EXCHANGE_DISK_SPACE_EXHAUSTED;
+import static java.lang.Math.min;
+import static java.lang.String.format;
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Writes a file through memory mappings of fixed size regions, which preallocate the file ahead of the data.
+ * The file is truncated to the written size on close.
+ */
+class MappedFileOutputStream
+        extends OutputStream
+{
+    private final Path file;
+    private final FileChannel channel;
+    private final long regionSize;
+    private final AtomicLong dirtyBytes;
+    private final long maxDirtyBytes;
+    private final long minFreeSpaceInBytes;
+
+    private final List<MappedByteBuffer> unforcedRegions = new ArrayList<>();
+    private long unforcedBytes;
+    private MappedByteBuffer region;
+    private long size;
+    private boolean closed;
+
+    /**
+     * @param dirtyBytes mapped bytes of all open writers that may not have been written back to disk yet
+     */
+    public MappedFileOutputStream(Path file, long regionSize, AtomicLong dirtyBytes, long maxDirtyBytes, long minFreeSpaceInBytes) throws IOException
+    {
+        this.file = requireNonNull(file, "file is null");
+        this.channel = FileChannel.open(file, CREATE_NEW, READ, WRITE);
+        this.regionSize = regionSize;
+        this.dirtyBytes = requireNonNull(dirtyBytes, "dirtyBytes is null");
+        this.maxDirtyBytes = maxDirtyBytes;
+        this.minFreeSpaceInBytes = minFreeSpaceInBytes;
+    }
+
+    @Override
+    public void write(int b) throws IOException
+    {
+        if (region == null || !region.hasRemaining()) {
+            nextRegion();
+        }
+        region.put((byte) b);
+        size++;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException
+    {
+        while (length > 0) {
+            if (region == null || !region.hasRemaining()) {
+                nextRegion();
+            }
+            int chunk = min(length, region.remaining());
+            region.put(bytes, offset, chunk);
+            offset += chunk;
+            length -= chunk;
+            size += chunk;
+        }
+    }
+
+    private void nextRegion() throws IOException
+    {
+        if (closed) {
+            throw new IOException("Stream is closed: " + file);
+        }
+        if (region != null) {
+            retireRegion(region, region.capacity());
+        }
+        long usableSpace = Files.getFileStore(file).getUsableSpace();
+        if (usableSpace - regionSize < minFreeSpaceInBytes) {
+            throw new PrestoException(EXCHANGE_DISK_SPACE_EXHAUSTED, format("Cannot preallocate %s for exchange file %s, only %s of disk space left",
+                    succinctBytes(regionSize), file, succinctBytes(usableSpace)));
+        }
+        // mapping past the end of the file extends it
+        region = channel.map(READ_WRITE, size, regionSize);
+    }
+
+    private void retireRegion(MappedByteBuffer retiredRegion, int writtenBytes)
+    {
+        unforcedRegions.add(retiredRegion);
+        unforcedBytes += writtenBytes;
+        if (dirtyBytes.addAndGet(writtenBytes) > maxDirtyBytes) {
+            // too much data sits in the page cache only, write this stream's regions back before producing more
+            for (MappedByteBuffer unforcedRegion : unforcedRegions) {
+                unforcedRegion.force();
+            }
+            unforcedRegions.clear();
+            dirtyBytes.addAndGet(-unforcedBytes);
+            unforcedBytes = 0;
+        }
+    }
+
+    public long getSize()
+    {
+        return size;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            channel.truncate(size);
+        }
+        finally {
+            // the finished file is left to the regular page cache write back
+            dirtyBytes.addAndGet(-unforcedBytes);
+            unforcedBytes = 0;
+            unforcedRegions.clear();
+            region = null;
+            channel.close();
+        }
+    }
+}
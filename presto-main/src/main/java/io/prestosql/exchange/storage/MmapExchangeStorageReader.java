@@ -0,0 +1,217 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.exchange.storage;
+
+import com.esotericsoftware.kryo.io.Input;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.compress.snappy.SnappyFramedInputStream;
+import io.airlift.slice.InputStreamSliceInput;
+import io.airlift.slice.Slice;
+import io.airlift.slice.SliceInput;
+import io.airlift.slice.Slices;
+import io.airlift.units.DataSize;
+import io.hetu.core.transport.execution.buffer.PagesSerde;
+import io.prestosql.exchange.ExchangeSourceFile;
+import io.prestosql.exchange.FileSystemExchangeConfig.DirectSerialisationType;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.PrestoException;
+import org.openjdk.jol.info.ClassLayout;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.crypto.Cipher;
+import javax.crypto.CipherInputStream;
+import javax.crypto.SecretKey;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.security.GeneralSecurityException;
+import java.security.spec.AlgorithmParameterSpec;
+import java.util.Optional;
+import java.util.Queue;
+
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static io.airlift.units.DataSize.succinctBytes;
+import static io.prestosql.exchange.storage.MmapFileSystemExchangeStorage.toPath;
+import static io.prestosql.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
+import static io.prestosql.spi.StandardErrorCode.NOT_SUPPORTED;
+import static java.lang.Math.toIntExact;
+import static java.lang.String.format;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads exchange files through read only memory mappings. Plain files are served as slices of the mapping
+ * without copying, encrypted or compressed files are decoded from the mapping.
+ */
+public class MmapExchangeStorageReader
+        implements ExchangeStorageReader
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(MmapExchangeStorageReader.class).instanceSize();
+    private static final String CIPHER_TRANSFORMATION = "AES/CBC/PKCS5Padding";
+    private static final int BUFFER_SIZE_IN_BYTES = toIntExact(new DataSize(4, KILOBYTE).toBytes());
+
+    private final Queue<ExchangeSourceFile> sourceFiles;
+    private final AlgorithmParameterSpec algorithmParameterSpec;
+    private final DirectSerialisationType directSerialisationType;
+    private final int directSerialisationBufferSize;
+
+    @GuardedBy("this")
+    private SliceInput sliceInput;
+    @GuardedBy("this")
+    private long decodeBufferRetainedSize;
+    @GuardedBy("this")
+    private Input kryoInput;
+    @GuardedBy("this")
+    private boolean closed;
+
+    public MmapExchangeStorageReader(Queue<ExchangeSourceFile> sourceFiles, AlgorithmParameterSpec algorithmParameterSpec, DirectSerialisationType directSerialisationType, int directSerialisationBufferSize)
+    {
+        this.sourceFiles = requireNonNull(sourceFiles, "sourceFiles is null");
+        this.algorithmParameterSpec = requireNonNull(algorithmParameterSpec, "algorithmParameterSpec is null");
+        this.directSerialisationType = requireNonNull(directSerialisationType, "directSerialisationType is null");
+        this.directSerialisationBufferSize = directSerialisationBufferSize;
+    }
+
+    @Override
+    public synchronized Slice read()
+    {
+        if (closed) {
+            return null;
+        }
+
+        while (sliceInput == null || !sliceInput.isReadable()) {
+            ExchangeSourceFile sourceFile = sourceFiles.poll();
+            if (sourceFile == null) {
+                close();
+                return null;
+            }
+            sliceInput = getSliceInput(sourceFile);
+        }
+
+        // Currently marker contains size of serialized page
+        int markerData = sliceInput.readInt();
+        return sliceInput.readSlice(markerData);
+    }
+
+    @Override
+    public synchronized Page read(PagesSerde serde)
+    {
+        if (closed) {
+            return null;
+        }
+
+        if (directSerialisationType == DirectSerialisationType.KRYO) {
+            while (kryoInput == null || kryoInput.end()) {
+                ExchangeSourceFile sourceFile = sourceFiles.poll();
+                if (sourceFile == null) {
+                    close();
+                    return null;
+                }
+                sliceInput = getSliceInput(sourceFile);
+                kryoInput = new Input(sliceInput, directSerialisationBufferSize);
+            }
+            return serde.deserialize(kryoInput);
+        }
+
+        while (sliceInput == null || !sliceInput.isReadable()) {
+            ExchangeSourceFile sourceFile = sourceFiles.poll();
+            if (sourceFile == null) {
+                close();
+                return null;
+            }
+            sliceInput = getSliceInput(sourceFile);
+        }
+        return serde.deserialize(sliceInput);
+    }
+
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        return immediateFuture(null);
+    }
+
+    @Override
+    public synchronized long getRetainedSize()
+    {
+        // mapped pages belong to the page cache, only decoding buffers are on the heap
+        return INSTANCE_SIZE + decodeBufferRetainedSize;
+    }
+
+    @Override
+    public synchronized boolean isFinished()
+    {
+        return closed;
+    }
+
+    @Override
+    public synchronized void close()
+    {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (kryoInput != null) {
+            kryoInput.close();
+            kryoInput = null;
+        }
+        sliceInput = null;
+        decodeBufferRetainedSize = 0;
+    }
+
+    private SliceInput getSliceInput(ExchangeSourceFile sourceFile)
+    {
+        try {
+            Slice mapped = map(sourceFile);
+            Optional<SecretKey> secretKey = sourceFile.getSecretKey();
+            boolean exchangeCompressionEnabled = sourceFile.isExchangeCompressionEnabled();
+            if (!secretKey.isPresent() && !exchangeCompressionEnabled) {
+                decodeBufferRetainedSize = 0;
+                return mapped.getInput();
+            }
+
+            InputStream inputStream = mapped.getInput();
+            if (secretKey.isPresent()) {
+                Cipher cipher = Cipher.getInstance(CIPHER_TRANSFORMATION);
+                cipher.init(Cipher.DECRYPT_MODE, secretKey.get(), algorithmParameterSpec);
+                inputStream = new CipherInputStream(inputStream, cipher);
+            }
+            if (exchangeCompressionEnabled) {
+                inputStream = new SnappyFramedInputStream(inputStream);
+            }
+            InputStreamSliceInput decodedInput = new InputStreamSliceInput(inputStream, BUFFER_SIZE_IN_BYTES);
+            decodeBufferRetainedSize = decodedInput.getRetainedSize();
+            return decodedInput;
+        }
+        catch (GeneralSecurityException | IOException e) {
+            throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to create InputStream: " + e.getMessage(), e);
+        }
+    }
+
+    private static Slice map(ExchangeSourceFile sourceFile) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(toPath(sourceFile.getFileUri()), READ)) {
+            // a non-zero offset is a section of a segment file, see ExchangeSegmentIndex
+            long offset = sourceFile.getOffset();
+            long length = offset > 0 ? sourceFile.getFileSize() : channel.size();
+            if (length > Integer.MAX_VALUE) {
+                throw new PrestoException(NOT_SUPPORTED, format("Exchange file %s of %s is too large to be mapped", sourceFile.getFileUri(), succinctBytes(length)));
+            }
+            // the mapping stays valid after the channel is closed
+            return Slices.wrappedBuffer(channel.map(READ_ONLY, offset, length));
+        }
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.exchange.storage;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import io.airlift.units.DataSize;
+import io.prestosql.exchange.ExchangeSegmentIndex;
+import io.prestosql.exchange.ExchangeSegmentIndex.Section;
+import io.prestosql.exchange.ExchangeSourceFile;
+import io.prestosql.exchange.FileStatus;
+import io.prestosql.exchange.FileSystemExchangeConfig;
+import io.prestosql.exchange.FileSystemExchangeConfig.DirectSerialisationType;
+import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.filesystem.HetuFileSystemClient;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.IvParameterSpec;
+import javax.inject.Inject;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.security.spec.AlgorithmParameterSpec;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static com.google.common.util.concurrent.Futures.immediateFailedFuture;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static io.prestosql.exchange.ExchangeSegmentIndex.SEGMENT_FILE_HEADER;
+import static io.prestosql.exchange.storage.HetuFileSystemExchangeStorage.createSectionOutputStream;
+import static io.prestosql.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
+import static java.lang.Math.toIntExact;
+
+/**
+ * Exchange storage for base directories on local disk. Files are written through preallocated memory mappings
+ * and read back from read only mappings, bypassing the stream copies of the {@link HetuFileSystemClient}.
+ */
+public class MmapFileSystemExchangeStorage
+        implements FileSystemExchangeStorage
+{
+    private static final int BUFFER_SIZE_IN_BYTES = toIntExact(new DataSize(4, KILOBYTE).toBytes());
+
+    private final AlgorithmParameterSpec algorithmParameterSpec;
+    private final long regionSizeInBytes;
+    private final long maxDirtySizeInBytes;
+    private final long minFreeSpaceInBytes;
+    private final AtomicLong dirtyBytes = new AtomicLong();
+
+    @Inject
+    public MmapFileSystemExchangeStorage(FileSystemExchangeConfig config)
+    {
+        byte[] iv = new byte[16];
+        new SecureRandom().nextBytes(iv);
+        this.algorithmParameterSpec = new IvParameterSpec(iv);
+        this.regionSizeInBytes = config.getExchangeMmapRegionSize().toBytes();
+        this.maxDirtySizeInBytes = config.getExchangeMmapMaxDirtySize().toBytes();
+        this.minFreeSpaceInBytes = config.getExchangeMmapMinFreeSpace().toBytes();
+    }
+
+    @Override
+    public void setFileSystemClient(HetuFileSystemClient fsClient)
+    {
+        // files are accessed directly on local disk
+    }
+
+    @Override
+    public void createDirectories(URI dir) throws IOException
+    {
+        Files.createDirectories(toPath(dir));
+    }
+
+    @Override
+    public ExchangeStorageReader createExchangeReader(Queue<ExchangeSourceFile> sourceFiles, int maxPageSize, DirectSerialisationType directSerialisationType, int directSerialisationBufferSize)
+    {
+        return new MmapExchangeStorageReader(sourceFiles, algorithmParameterSpec, directSerialisationType, directSerialisationBufferSize);
+    }
+
+    @Override
+    public ExchangeStorageWriter createExchangeWriter(URI file, Optional<SecretKey> secretKey, boolean exchangeCompressionEnabled, DirectSerialisationType directSerialisationType, int directSerialisationBufferSize)
+    {
+        OutputStream output;
+        try {
+            Path path = toPath(file);
+            Files.createDirectories(path.getParent());
+            output = new MappedFileOutputStream(path, regionSizeInBytes, dirtyBytes, maxDirtySizeInBytes, minFreeSpaceInBytes);
+        }
+        catch (IOException e) {
+            throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to create OutputStream: " + e.getMessage(), e);
+        }
+        return new HetuFileSystemExchangeWriter(output, secretKey, exchangeCompressionEnabled, algorithmParameterSpec, directSerialisationType, directSerialisationBufferSize);
+    }
+
+    @Override
+    public ListenableFuture<Void> createEmptyFile(URI file)
+    {
+        try {
+            Path path = toPath(file);
+            Files.createDirectories(path.getParent());
+            Files.createFile(path);
+        }
+        catch (IOException e) {
+            return immediateFailedFuture(e);
+        }
+        return immediateFuture(null);
+    }
+
+    @Override
+    public ListenableFuture<Void> writeSegmentFile(URI segmentFile, URI indexFile, Map<Integer, Slice> partitions, Optional<SecretKey> secretKey, boolean exchangeCompressionEnabled)
+    {
+        ImmutableList.Builder<Section> sections = ImmutableList.builder();
+        try {
+            Path segmentPath = toPath(segmentFile);
+            Files.createDirectories(segmentPath.getParent());
+            try (MappedFileOutputStream output = new MappedFileOutputStream(segmentPath, regionSizeInBytes, dirtyBytes, maxDirtySizeInBytes, minFreeSpaceInBytes)) {
+                output.write(Slices.wrappedIntArray(SEGMENT_FILE_HEADER).getBytes());
+                for (Map.Entry<Integer, Slice> partition : partitions.entrySet()) {
+                    long offset = output.getSize();
+                    try (OutputStream sectionOutput = createSectionOutputStream(new UnclosableOutputStream(output), secretKey, exchangeCompressionEnabled, algorithmParameterSpec)) {
+                        partition.getValue().getBytes(0, sectionOutput, partition.getValue().length());
+                    }
+                    sections.add(new Section(partition.getKey(), offset, output.getSize() - offset));
+                }
+            }
+            Files.write(toPath(indexFile), new ExchangeSegmentIndex(sections.build()).serialize().getBytes());
+        }
+        catch (IOException | GeneralSecurityException | RuntimeException e) {
+            return immediateFailedFuture(e);
+        }
+        return immediateFuture(null);
+    }
+
+    @Override
+    public ListenableFuture<Slice> readFile(URI file)
+    {
+        try {
+            return immediateFuture(Slices.wrappedBuffer(Files.readAllBytes(toPath(file))));
+        }
+        catch (IOException e) {
+            return immediateFailedFuture(e);
+        }
+    }
+
+    @Override
+    public ListenableFuture<Void> deleteRecursively(List<URI> directories)
+    {
+        try {
+            for (URI directory : directories) {
+                try {
+                    deleteRecursively(toPath(directory), ALLOW_INSECURE);
+                }
+                catch (NoSuchFileException ignored) {
+                    // never written, or already deleted
+                }
+            }
+        }
+        catch (IOException e) {
+            return immediateFailedFuture(e);
+        }
+        return immediateFuture(null);
+    }
+
+    @Override
+    public ListenableFuture<List<FileStatus>> listFilesRecursively(URI dir)
+    {
+        try (Stream<Path> files = Files.walk(toPath(dir))) {
+            List<Path> regularFiles = files.filter(Files::isRegularFile).collect(toImmutableList());
+            ImmutableList.Builder<FileStatus> fileStatuses = ImmutableList.builder();
+            for (Path file : regularFiles) {
+                fileStatuses.add(new FileStatus(file.toUri().toString(), Files.size(file)));
+            }
+            return immediateFuture(fileStatuses.build());
+        }
+        catch (IOException e) {
+            return immediateFailedFuture(e);
+        }
+    }
+
+    @Override
+    public int getWriterBufferSize()
+    {
+        return BUFFER_SIZE_IN_BYTES;
+    }
+
+    @Override
+    public void close()
+    {
+    }
+
+    static Path toPath(URI uri)
+    {
+        // base directories may be configured as plain paths
+        if (uri.getScheme() == null) {
+            return Paths.get(uri.getPath());
+        }
+        return Paths.get(uri);
+    }
+}
@@ -88,6 +88,7 @@ public class QueryManagerConfig
     private int faultTolerantExecutionMinTaskSplitCount = 16;
     private int faultTolerantExecutionMaxTaskSplitCount = 256;
     private int faultTolerantExecutionPartitionCount = 50;
+    private boolean faultTolerantExecutionAdaptiveJoinEnabled;
 
     private DataSize faultTolerantExecutionTaskDescriptorStorageMaxMemory = new DataSize(Math.round(AVAILABLE_HEAP_MEMORY * 0.15), DataSize.Unit.BYTE);
 
@@ -561,6 +562,19 @@ public class QueryManagerConfig
         return this;
     }
 
+    public boolean isFaultTolerantExecutionAdaptiveJoinEnabled()
+    {
+        return faultTolerantExecutionAdaptiveJoinEnabled;
+    }
+
+    @Config("fault-tolerant-execution-adaptive-join-enabled")
+    @ConfigDescription("Re-plan partitioned joins from actual upstream output sizes: replicate small build sides and split oversized probe partitions")
+    public QueryManagerConfig setFaultTolerantExecutionAdaptiveJoinEnabled(boolean faultTolerantExecutionAdaptiveJoinEnabled)
+    {
+        this.faultTolerantExecutionAdaptiveJoinEnabled = faultTolerantExecutionAdaptiveJoinEnabled;
+        return this;
+    }
+
     @NotNull
     public DataSize getFaultTolerantExecutionTaskDescriptorStorageMaxMemory()
     {
@@ -15,10 +15,11 @@ package io.prestosql.execution;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import com.google.common.primitives.Longs;
 import io.prestosql.metadata.Split;
 import io.prestosql.spi.plan.PlanNodeId;
 
+import java.util.Objects;
+
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static java.util.Objects.requireNonNull;
 
@@ -27,16 +28,34 @@ public class ScheduledSplit
     private final long sequenceId;
     private final PlanNodeId planNodeId;
     private final Split split;
+    // position among the parts of a split divided by the worker, see SqlTaskExecution
+    private final int subSplitId;
 
     @JsonCreator
     public ScheduledSplit(
             @JsonProperty("sequenceId") long sequenceId,
             @JsonProperty("planNodeId") PlanNodeId planNodeId,
             @JsonProperty("split") Split split)
+    {
+        this(sequenceId, planNodeId, split, 0);
+    }
+
+    private ScheduledSplit(long sequenceId, PlanNodeId planNodeId, Split split, int subSplitId)
     {
         this.sequenceId = sequenceId;
         this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
         this.split = requireNonNull(split, "split is null");
+        this.subSplitId = subSplitId;
+    }
+
+    /**
+     * Part of this split after the worker divided it. Sub-splits keep the sequence id of the split, so the
+     * acknowledged split ids reported to the coordinator do not change, but are distinct from each other.
+     * They only exist on the worker and are never serialized.
+     */
+    public ScheduledSplit subSplit(int subSplitId, Split split)
+    {
+        return new ScheduledSplit(sequenceId, planNodeId, split, subSplitId);
     }
 
     @JsonProperty
@@ -57,10 +76,15 @@ public class ScheduledSplit
         return split;
     }
 
+    public int getSubSplitId()
+    {
+        return subSplitId;
+    }
+
     @Override
     public int hashCode()
     {
-        return Longs.hashCode(sequenceId);
+        return Objects.hash(sequenceId, subSplitId);
     }
 
     @Override
@@ -73,7 +97,7 @@ public class ScheduledSplit
             return false;
         }
         final ScheduledSplit other = (ScheduledSplit) obj;
-        return this.sequenceId == other.sequenceId;
+        return this.sequenceId == other.sequenceId && this.subSplitId == other.subSplitId;
     }
 
     @Override
@@ -81,6 +105,7 @@ public class ScheduledSplit
     {
         return toStringHelper(this)
                 .add("sequenceId", sequenceId)
+                .add("subSplitId", subSplitId)
                 .add("planNodeId", planNodeId)
                 .add("split", split)
                 .toString();
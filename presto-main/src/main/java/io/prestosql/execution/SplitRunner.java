@@ -27,6 +27,11 @@ public interface SplitRunner
 
     String getInfo();
 
+    /**
+     * Called by the task executor profiler with a stack sample of the thread currently running this split.
+     */
+    default void recordStackSample(StackTraceElement[] stackTrace) {}
+
     @Override
     void close();
 }
@@ -25,6 +25,7 @@ import io.prestosql.Session;
 import io.prestosql.SystemSessionProperties;
 import io.prestosql.cache.CachedDataManager;
 import io.prestosql.cache.CachedDataStorageProvider;
+import io.prestosql.cache.QueryResultCache;
 import io.prestosql.cost.CostCalculator;
 import io.prestosql.cost.PlanCostEstimate;
 import io.prestosql.cost.StatsCalculator;
@@ -136,6 +137,7 @@ import static io.prestosql.SystemSessionProperties.isCTEResultCacheEnabled;
 import static io.prestosql.SystemSessionProperties.isCrossRegionDynamicFilterEnabled;
 import static io.prestosql.SystemSessionProperties.isEnableDynamicFiltering;
 import static io.prestosql.SystemSessionProperties.isQueryResourceTrackingEnabled;
+import static io.prestosql.SystemSessionProperties.isQueryResultCacheEnabled;
 import static io.prestosql.SystemSessionProperties.isSnapshotEnabled;
 import static io.prestosql.execution.buffer.OutputBuffers.BROADCAST_PARTITION_ID;
 import static io.prestosql.execution.buffer.OutputBuffers.createInitialEmptyOutputBuffers;
@@ -204,6 +206,7 @@ public class SqlQueryExecution
     private AtomicInteger tryCount = new AtomicInteger(0);
     private final TableExecuteContextManager tableExecuteContextManager;
     private final boolean isMultiCoordinatorEnabled;
+    private final QueryResultCache queryResultCache;
 
     public SqlQueryExecution(
             TableExecuteContextManager tableExecuteContextManager,
@@ -245,7 +248,8 @@ public class SqlQueryExecution
             TaskExecutionStats taskExecutionStats,
             QueryResourceManagerService queryResourceManager,
             boolean isMultiCoordinatorEnabled,
-            String cachingUserName)
+            String cachingUserName,
+            QueryResultCache queryResultCache)
     {
         try (SetThreadName ignored = new SetThreadName("Query-%s", stateMachine.getQueryId())) {
             this.slug = requireNonNull(slug, "slug is null");
@@ -335,6 +339,7 @@ public class SqlQueryExecution
             this.partitionMemoryEstimatorFactory = requireNonNull(partitionMemoryEstimatorFactory, "partitionMemoryEstimatorFactory is null");
             this.taskExecutionStats = requireNonNull(taskExecutionStats, "taskExecutionStats is null");
             this.isMultiCoordinatorEnabled = isMultiCoordinatorEnabled;
+            this.queryResultCache = requireNonNull(queryResultCache, "queryResultCache is null");
         }
     }
 
@@ -798,6 +803,7 @@ public class SqlQueryExecution
         }
 
         Plan localPlan = createPlan(analysis, stateMachine.getSession(), planOptimizers, idAllocator, metadata, new TypeAnalyzer(sqlParser, metadata), statsCalculator, costCalculator, stateMachine.getWarningCollector(), CachedDataStorageProvider.NULL_PROVIDER);
+        localPlan = useQueryResultCache(localPlan, idAllocator);
         queryPlan.set(localPlan);
 
         // extract inputs
@@ -819,6 +825,27 @@ public class SqlQueryExecution
         return new PlanRoot(fragmentedPlan, !explainAnalyze, extractConnectors(analysis));
     }
 
+    private Plan useQueryResultCache(Plan plan, PlanNodeIdAllocator idAllocator)
+    {
+        Session session = getSession();
+        // results are captured from the client protocol, which replays pages when tasks are retried or resumed
+        if (!queryResultCache.isEnabled() || !isQueryResultCacheEnabled(session) || !(analysis.getStatement() instanceof Query)
+                || getRetryPolicy(session) != RetryPolicy.NONE || isSnapshotEnabled(session) || isMultiCoordinatorEnabled) {
+            return plan;
+        }
+
+        Optional<String> key = queryResultCache.getCacheKey(session, plan);
+        if (!key.isPresent()) {
+            return plan;
+        }
+        Optional<Plan> cachedPlan = queryResultCache.getCachedPlan(key.get(), plan, idAllocator);
+        if (cachedPlan.isPresent()) {
+            return cachedPlan.get();
+        }
+        queryResultCache.registerPending(stateMachine.getQueryId(), key.get());
+        return plan;
+    }
+
     // This method was introduced separate logical planning from query analyzing stage
     // and allow plans to be overwritten by CachedSqlQueryExecution
     protected Plan createPlan(Analysis analysis,
@@ -832,7 +859,7 @@ public class SqlQueryExecution
             WarningCollector warningCollector,
             CachedDataStorageProvider cachedData)
     {
-        LogicalPlanner logicalPlanner = new LogicalPlanner(session, planOptimizers, idAllocator, metadata, typeAnalyzer, statsCalculator, costCalculator, warningCollector, cachedData, snapshotManager, nodeScheduler);
+        LogicalPlanner logicalPlanner = new LogicalPlanner(session, planOptimizers, idAllocator, metadata, sqlParser, typeAnalyzer, statsCalculator, costCalculator, warningCollector, cachedData, snapshotManager, nodeScheduler);
         return logicalPlanner.plan(analysis, !isQueryResourceTrackingEnabled(session));
     }
 
@@ -1256,6 +1283,7 @@ public class SqlQueryExecution
         private final CachedDataManager dataCache;
         private final boolean isMultiCoordinatorEnabled;
         private final String cachingUserName;
+        private final QueryResultCache queryResultCache;
 
         @Inject
         SqlQueryExecutionFactory(QueryManagerConfig config,
@@ -1293,7 +1321,8 @@ public class SqlQueryExecution
                 TaskExecutionStats taskExecutionStats,
                 QueryResourceManagerService queryResourceManagerService,
                 TableExecuteContextManager tableExecuteContextManager,
-                CachedDataManager cachedDataManager)
+                CachedDataManager cachedDataManager,
+                QueryResultCache queryResultCache)
         {
             requireNonNull(config, "config is null");
             this.schedulerStats = requireNonNull(schedulerStats, "schedulerStats is null");
@@ -1344,6 +1373,7 @@ public class SqlQueryExecution
             this.taskExecutionStats = requireNonNull(taskExecutionStats, "taskExecutionStats is null");
             this.isMultiCoordinatorEnabled = hetuConfig.isMultipleCoordinatorEnabled();
             this.cachingUserName = hetuConfig.getCachingUserName();
+            this.queryResultCache = requireNonNull(queryResultCache, "queryResultCache is null");
         }
 
         // Loading properties into PropertyService for later reference
@@ -1406,7 +1436,8 @@ public class SqlQueryExecution
                     tableExecuteContextManager,
                     this.dataCache,
                     isMultiCoordinatorEnabled,
-                    cachingUserName);
+                    cachingUserName,
+                    queryResultCache);
         }
     }
 
@@ -33,6 +33,7 @@ import io.prestosql.execution.buffer.BufferState;
 import io.prestosql.execution.buffer.OutputBuffer;
 import io.prestosql.execution.executor.TaskExecutor;
 import io.prestosql.execution.executor.TaskHandle;
+import io.prestosql.metadata.Split;
 import io.prestosql.operator.Driver;
 import io.prestosql.operator.DriverContext;
 import io.prestosql.operator.DriverFactory;
@@ -85,6 +86,7 @@ import static com.google.common.collect.ImmutableMap.toImmutableMap;
 import static io.prestosql.SystemSessionProperties.getInitialSplitsPerNode;
 import static io.prestosql.SystemSessionProperties.getMaxDriversPerTask;
 import static io.prestosql.SystemSessionProperties.getSplitConcurrencyAdjustmentInterval;
+import static io.prestosql.SystemSessionProperties.isSplitDivisionEnabled;
 import static io.prestosql.execution.SqlTaskExecution.SplitsState.ADDING_SPLITS;
 import static io.prestosql.execution.SqlTaskExecution.SplitsState.FINISHED;
 import static io.prestosql.execution.SqlTaskExecution.SplitsState.NO_MORE_SPLITS;
@@ -139,6 +141,8 @@ public class SqlTaskExecution
     @GuardedBy("this")
     private final Map<PlanNodeId, LinkedList<TaskSource>> pendingSources = new HashMap<>();
     private final boolean recoveryEnabled;
+    // split division replaces a split by several ones, which would confuse the in-progress split tracking of recovery
+    private final boolean splitDivisionEnabled;
 
     private final TaskHandle taskHandle;
     private final TaskExecutor taskExecutor;
@@ -212,6 +216,7 @@ public class SqlTaskExecution
         this.taskContext = requireNonNull(taskContext, "taskContext is null");
         this.outputBuffer = requireNonNull(outputBuffer, "outputBuffer is null");
         recoveryEnabled = SystemSessionProperties.isRecoveryEnabled(taskContext.getSession());
+        splitDivisionEnabled = isSplitDivisionEnabled(taskContext.getSession()) && !recoveryEnabled;
 
         this.taskExecutor = requireNonNull(taskExecutor, "driverExecutor is null");
         this.notificationExecutor = requireNonNull(notificationExecutor, "notificationExecutor is null");
@@ -589,7 +594,7 @@ public class SqlTaskExecution
 
                     // Enqueue driver runners with split lifecycle for this plan node and driver life cycle combination.
                     ImmutableList.Builder<DriverSplitRunner> runners = ImmutableList.builder();
-                    for (ScheduledSplit scheduledSplit : pendingSplits.removeAllSplits()) {
+                    for (ScheduledSplit scheduledSplit : divideSplitsForIdleRunners(pendingSplits.removeAllSplits())) {
                         // create a new driver for the split
                         runners.add(partitionedDriverRunnerFactory.createDriverRunner(scheduledSplit, lifespan, 0));
                     }
@@ -621,6 +626,39 @@ public class SqlTaskExecution
         }
     }
 
+    /**
+     * A driver processes a single split, so a large split at the end of a scan leaves one straggling driver while
+     * the other runner threads are idle. When the task executor has idle runner threads, divide the splits so the
+     * idle threads can share the remaining work.
+     */
+    private List<ScheduledSplit> divideSplitsForIdleRunners(Set<ScheduledSplit> splits)
+    {
+        if (!splitDivisionEnabled || splits.isEmpty() || taskHandle == null) {
+            return ImmutableList.copyOf(splits);
+        }
+
+        int idleRunners = taskExecutor.getIdleRunnerThreads() - taskHandle.getQueuedLeafSplitCount() - splits.size();
+        if (idleRunners <= 0) {
+            return ImmutableList.copyOf(splits);
+        }
+
+        int maxParts = 1 + (idleRunners + splits.size() - 1) / splits.size();
+        ImmutableList.Builder<ScheduledSplit> dividedSplits = ImmutableList.builder();
+        for (ScheduledSplit scheduledSplit : splits) {
+            List<Split> parts = scheduledSplit.getSplit().divide(maxParts);
+            if (parts.size() == 1) {
+                dividedSplits.add(scheduledSplit);
+                continue;
+            }
+            for (int i = 0; i < parts.size(); i++) {
+                dividedSplits.add(scheduledSplit.subSplit(i + 1, parts.get(i)));
+            }
+            // every part gets a driver of its own, count them like splits so the queued drivers stay correct
+            driverRunnerFactoriesWithSplitLifeCycle.get(scheduledSplit.getPlanNodeId()).splitsAdded(parts.size() - 1);
+        }
+        return dividedSplits.build();
+    }
+
     private synchronized void scheduleUnpartitionedSource(TaskSource sourceUpdate, Map<PlanNodeId, TaskSource> updatedUnpartitionedSources)
     {
         // create new source
@@ -1320,6 +1358,19 @@ public class SqlTaskExecution
             return (partitionedSplit == null) ? "" : partitionedSplit.getSplit().getInfo().toString();
         }
 
+        @Override
+        public void recordStackSample(StackTraceElement[] stackTrace)
+        {
+            Driver localDriver;
+            synchronized (this) {
+                localDriver = this.driver;
+            }
+
+            if (localDriver != null) {
+                localDriver.recordStackSample(stackTrace);
+            }
+        }
+
         @Override
         public void close()
         {
@@ -54,6 +54,7 @@ public class TaskManagerConfig
     private int minDriversPerTask = 3;
     private int maxDriversPerTask = Integer.MAX_VALUE;
     private Duration splitConcurrencyAdjustmentInterval = new Duration(100, TimeUnit.MILLISECONDS);
+    private boolean splitDivisionEnabled;
 
     private DataSize sinkMaxBufferSize = new DataSize(32, Unit.MEGABYTE);
     private DataSize maxPagePartitioningBufferSize = new DataSize(32, Unit.MEGABYTE);
@@ -72,6 +73,9 @@ public class TaskManagerConfig
     private int taskNotificationThreads = 5;
     private int taskYieldThreads = 3;
 
+    private boolean profilerEnabled;
+    private Duration profilerSamplingInterval = new Duration(10, TimeUnit.MILLISECONDS);
+
     private BigDecimal levelTimeMultiplier = new BigDecimal(2.0);
 
     @MinDuration("1ms")
@@ -431,4 +435,46 @@ public class TaskManagerConfig
         this.taskYieldThreads = taskYieldThreads;
         return this;
     }
+
+    public boolean isSplitDivisionEnabled()
+    {
+        return splitDivisionEnabled;
+    }
+
+    @Config("task.split-division-enabled")
+    @ConfigDescription("Divide large splits into sub-ranges when a worker has idle runner threads")
+    public TaskManagerConfig setSplitDivisionEnabled(boolean splitDivisionEnabled)
+    {
+        this.splitDivisionEnabled = splitDivisionEnabled;
+        return this;
+    }
+
+    public boolean isProfilerEnabled()
+    {
+        return profilerEnabled;
+    }
+
+    @Config("task.profiler.enabled")
+    @ConfigDescription("Periodically sample the stacks of running splits and attribute them to operators")
+    public TaskManagerConfig setProfilerEnabled(boolean profilerEnabled)
+    {
+        this.profilerEnabled = profilerEnabled;
+        return this;
+    }
+
+    @MinDuration("1ms")
+    @MaxDuration("10s")
+    @NotNull
+    public Duration getProfilerSamplingInterval()
+    {
+        return profilerSamplingInterval;
+    }
+
+    @Config("task.profiler.sampling-interval")
+    @ConfigDescription("Interval between two stack samples of the running splits")
+    public TaskManagerConfig setProfilerSamplingInterval(Duration profilerSamplingInterval)
+    {
+        this.profilerSamplingInterval = profilerSamplingInterval;
+        return this;
+    }
 }
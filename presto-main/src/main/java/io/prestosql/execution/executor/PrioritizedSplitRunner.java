@@ -245,6 +245,11 @@ public class PrioritizedSplitRunner
         return priority.get();
     }
 
+    public void recordStackSample(StackTraceElement[] stackTrace)
+    {
+        split.recordStackSample(stackTrace);
+    }
+
     public String getInfo()
     {
         return format("Split %-15s-%d %s (start = %s, wall = %s ms, cpu = %s ms, wait = %s ms, calls = %s)",
@@ -68,6 +68,7 @@ import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.airlift.concurrent.Threads.threadsNamed;
 import static io.prestosql.execution.executor.MultilevelSplitQueue.computeLevel;
 import static io.prestosql.util.MoreMath.min;
+import static java.lang.Math.max;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.Executors.newCachedThreadPool;
@@ -96,6 +97,9 @@ public class TaskExecutor
 
     private final Ticker ticker;
 
+    private final boolean profilerEnabled;
+    private final Duration profilerSamplingInterval;
+
     private final ScheduledExecutorService splitMonitorExecutor = newSingleThreadScheduledExecutor(daemonThreadsNamed("TaskExecutor"));
     private final SortedSet<RunningSplitInfo> runningSplitInfos = new ConcurrentSkipListSet<>();
 
@@ -171,19 +175,21 @@ public class TaskExecutor
                 config.getMaxDriversPerTask(),
                 embedVersion,
                 splitQueue,
+                config.isProfilerEnabled(),
+                config.getProfilerSamplingInterval(),
                 Ticker.systemTicker());
     }
 
     @VisibleForTesting
     public TaskExecutor(int runnerThreads, int minDrivers, int guaranteedNumberOfDriversPerTask, int maximumNumberOfDriversPerTask, Ticker ticker)
     {
-        this(runnerThreads, minDrivers, guaranteedNumberOfDriversPerTask, maximumNumberOfDriversPerTask, new EmbedVersion(new ServerConfig()), new MultilevelSplitQueue(2), ticker);
+        this(runnerThreads, minDrivers, guaranteedNumberOfDriversPerTask, maximumNumberOfDriversPerTask, new EmbedVersion(new ServerConfig()), new MultilevelSplitQueue(2), false, new Duration(10, TimeUnit.MILLISECONDS), ticker);
     }
 
     @VisibleForTesting
     public TaskExecutor(int runnerThreads, int minDrivers, int guaranteedNumberOfDriversPerTask, int maximumNumberOfDriversPerTask, MultilevelSplitQueue splitQueue, Ticker ticker)
     {
-        this(runnerThreads, minDrivers, guaranteedNumberOfDriversPerTask, maximumNumberOfDriversPerTask, new EmbedVersion(new ServerConfig()), splitQueue, ticker);
+        this(runnerThreads, minDrivers, guaranteedNumberOfDriversPerTask, maximumNumberOfDriversPerTask, new EmbedVersion(new ServerConfig()), splitQueue, false, new Duration(10, TimeUnit.MILLISECONDS), ticker);
     }
 
     @VisibleForTesting
@@ -194,6 +200,8 @@ public class TaskExecutor
             int maximumNumberOfDriversPerTask,
             EmbedVersion embedVersion,
             MultilevelSplitQueue splitQueue,
+            boolean profilerEnabled,
+            Duration profilerSamplingInterval,
             Ticker ticker)
     {
         checkArgument(runnerThreads > 0, "runnerThreads must be at least 1");
@@ -208,6 +216,8 @@ public class TaskExecutor
         this.embedVersion = requireNonNull(embedVersion, "embedVersion is null");
 
         this.ticker = requireNonNull(ticker, "ticker is null");
+        this.profilerEnabled = profilerEnabled;
+        this.profilerSamplingInterval = requireNonNull(profilerSamplingInterval, "profilerSamplingInterval is null");
 
         this.minimumNumberOfDrivers = minDrivers;
         this.guaranteedNumberOfDriversPerTask = guaranteedNumberOfDriversPerTask;
@@ -224,6 +234,10 @@ public class TaskExecutor
         for (int i = 0; i < runnerThreads; i++) {
             addRunnerThread();
         }
+        if (profilerEnabled) {
+            long intervalNanos = profilerSamplingInterval.roundTo(NANOSECONDS);
+            splitMonitorExecutor.scheduleWithFixedDelay(this::sampleRunningSplits, intervalNanos, intervalNanos, NANOSECONDS);
+        }
     }
 
     @PreDestroy
@@ -544,7 +558,7 @@ public class TaskExecutor
 
                     String threadId = split.getTaskHandle().getTaskId() + "-" + split.getSplitId();
                     try (SetThreadName splitName = new SetThreadName(threadId)) {
-                        RunningSplitInfo splitInfo = new RunningSplitInfo(ticker.read(), threadId, Thread.currentThread());
+                        RunningSplitInfo splitInfo = new RunningSplitInfo(ticker.read(), threadId, Thread.currentThread(), split);
                         runningSplitInfos.add(splitInfo);
                         runningSplits.add(split);
 
@@ -888,6 +902,32 @@ public class TaskExecutor
         return format(message, maxActiveSplitCount, LONG_SPLIT_WARNING_THRESHOLD).concat(stackTrace.toString());
     }
 
+    private void sampleRunningSplits()
+    {
+        try {
+            for (RunningSplitInfo splitInfo : runningSplitInfos) {
+                StackTraceElement[] stackTrace = splitInfo.getThread().getStackTrace();
+                // the runner thread may have moved on to another split while its stack was captured
+                if (runningSplitInfos.contains(splitInfo)) {
+                    splitInfo.getSplit().recordStackSample(stackTrace);
+                }
+            }
+        }
+        catch (RuntimeException e) {
+            // an exception would cancel the periodic sampling
+            log.warn(e, "Error sampling running splits");
+        }
+    }
+
+    /**
+     * Number of runner threads which would have nothing to do if every split which is
+     * currently running or waiting for a thread was assigned one.
+     */
+    public int getIdleRunnerThreads()
+    {
+        return max(0, runnerThreads - runningSplits.size() - waitingSplits.size());
+    }
+
     @Managed
     public long getRunAwaySplitCount()
     {
@@ -907,13 +947,15 @@ public class TaskExecutor
         private final long startTime;
         private final String threadId;
         private final Thread thread;
+        private final PrioritizedSplitRunner split;
         private boolean printed;
 
-        public RunningSplitInfo(long startTime, String threadId, Thread thread)
+        public RunningSplitInfo(long startTime, String threadId, Thread thread, PrioritizedSplitRunner split)
         {
             this.startTime = startTime;
             this.threadId = threadId;
             this.thread = thread;
+            this.split = split;
             this.printed = false;
         }
 
@@ -932,6 +974,11 @@ public class TaskExecutor
             return thread;
         }
 
+        public PrioritizedSplitRunner getSplit()
+        {
+            return split;
+        }
+
         public boolean isPrinted()
         {
             return printed;
@@ -227,6 +227,11 @@ public class TaskHandle
         return builder.build();
     }
 
+    public synchronized int getQueuedLeafSplitCount()
+    {
+        return queuedLeafSplits.size();
+    }
+
     public List<PrioritizedSplitRunner> getRunningIntermediateSplits()
     {
         ImmutableList.Builder<PrioritizedSplitRunner> builder = ImmutableList.builder();
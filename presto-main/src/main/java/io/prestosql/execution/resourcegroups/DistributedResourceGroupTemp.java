@@ -17,6 +17,7 @@ package io.prestosql.execution.resourcegroups;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import io.airlift.json.ObjectMapperProvider;
 import io.airlift.log.Logger;
 import io.airlift.stats.CounterStat;
@@ -48,6 +49,7 @@ import javax.annotation.concurrent.ThreadSafe;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -143,16 +145,56 @@ public class DistributedResourceGroupTemp
     @GuardedBy("root")
     private long globalCpuUsageMillis;
 
+    // Quota lease mode: each coordinator admits queries against its own share of the group quota,
+    // shares are recomputed from the stats published by all coordinators every rebalance interval
+    private final boolean quotaLeaseEnabled;
+    private final long quotaRebalanceIntervalMillis;
+    @GuardedBy("root")
+    private long lastQuotaRebalanceMillis;
+    @GuardedBy("root")
+    private boolean quotaLeased;
+    @GuardedBy("root")
+    private long leasedConcurrency;
+    @GuardedBy("root")
+    private long leasedMemoryBytes;
+    // Queued queries of other coordinators and cluster cpu usage as of the last rebalance
+    @GuardedBy("root")
+    private int remoteQueuedQueries;
+    @GuardedBy("root")
+    private long leaseCpuUsageMillis;
+    // Usage of other coordinators above their leases as of the last rebalance, which this coordinator leaves unused
+    @GuardedBy("root")
+    private long remoteConcurrencyOvershoot;
+    @GuardedBy("root")
+    private long remoteMemoryOvershootBytes;
+    // Concurrency leases of all coordinators by node identifier as of the last rebalance
+    @GuardedBy("root")
+    private Map<String, Long> coordinatorConcurrencyLeases = ImmutableMap.of();
+
     protected DistributedResourceGroupTemp(Optional<BaseResourceGroup> parent,
             String name,
             BiConsumer<BaseResourceGroup, Boolean> jmxExportListener,
             Executor executor,
             StateStore stateStore,
             InternalNodeManager internalNodeManager)
+    {
+        this(parent, name, jmxExportListener, executor, stateStore, internalNodeManager, false, 0);
+    }
+
+    protected DistributedResourceGroupTemp(Optional<BaseResourceGroup> parent,
+            String name,
+            BiConsumer<BaseResourceGroup, Boolean> jmxExportListener,
+            Executor executor,
+            StateStore stateStore,
+            InternalNodeManager internalNodeManager,
+            boolean quotaLeaseEnabled,
+            long quotaRebalanceIntervalMillis)
     {
         super(parent, name, jmxExportListener, executor);
         this.stateStore = requireNonNull(stateStore, "state store is null");
         this.internalNodeManager = requireNonNull(internalNodeManager, "internalNodeManager is null");
+        this.quotaLeaseEnabled = quotaLeaseEnabled;
+        this.quotaRebalanceIntervalMillis = quotaRebalanceIntervalMillis;
     }
 
     @Override
@@ -312,7 +354,7 @@ public class DistributedResourceGroupTemp
             if (subGroups.containsKey(name)) {
                 return (DistributedResourceGroupTemp) subGroups.get(name);
             }
-            DistributedResourceGroupTemp subGroup = new DistributedResourceGroupTemp(Optional.of(this), name, jmxExportListener, executor, stateStore, internalNodeManager);
+            DistributedResourceGroupTemp subGroup = new DistributedResourceGroupTemp(Optional.of(this), name, jmxExportListener, executor, stateStore, internalNodeManager, quotaLeaseEnabled, quotaRebalanceIntervalMillis);
             subGroup.setMemoryMarginPercent(memoryMarginPercent);
             subGroup.setQueryProgressMarginPercent(queryProgressMarginPercent);
             subGroups.put(name, subGroup);
@@ -335,6 +377,8 @@ public class DistributedResourceGroupTemp
     {
         synchronized (root) {
             root.internalRefreshStats();
+            // groups created since the last rebalance have no lease yet
+            ((DistributedResourceGroupTemp) root).rebalanceQuotaLeasesIfDue(!quotaLeased);
             super.run(query);
         }
     }
@@ -554,37 +598,46 @@ public class DistributedResourceGroupTemp
                 return false;
             }
 
-            // Only start the query if it exists locally
-            Optional<SharedResourceGroupState> resourceGroupState = getSharedResourceGroupState();
-            PriorityQueue<SharedQueryState> globalQueuedQueries = resourceGroupState.isPresent() ? resourceGroupState.get().getQueuedQueries() : new PriorityQueue<>();
-            if (!globalQueuedQueries.isEmpty() && !localQueuedQueries.isEmpty()) {
-                // Get queued query with longest queued time from state cache store.
-                // Remove it if local queued queries contains it.
-                SharedQueryState nextQuery = globalQueuedQueries.peek();
-                for (ManagedQueryExecution localQuery : localQueuedQueries) {
-                    if (nextQuery.getBasicQueryInfo().getQueryId().equals(localQuery.getBasicQueryInfo().getQueryId())) {
-                        Lock lock = stateStore.getLock(id.toString());
-                        boolean locked = false;
-                        try {
-                            locked = lock.tryLock(MILLISECONDS_PER_SECOND, TimeUnit.MILLISECONDS);
-                            if (locked) {
-                                // Get the most recent cached state store status and check canRunMore again
-                                // Avoid the race condition that state store is updated by other process
-                                // Make sure queued query start is synchronized
-                                DistributedResourceGroupUtils.mapCachedStates();
-                                if (canRunMore()) {
-                                    startInBackground(localQuery);
-                                    return true;
+            if (quotaLeaseEnabled) {
+                // The query fits in the share leased to this coordinator, start the oldest local one
+                if (!localQueuedQueries.isEmpty()) {
+                    startInBackground(localQueuedQueries.peek());
+                    return true;
+                }
+            }
+            else {
+                // Only start the query if it exists locally
+                Optional<SharedResourceGroupState> resourceGroupState = getSharedResourceGroupState();
+                PriorityQueue<SharedQueryState> globalQueuedQueries = resourceGroupState.isPresent() ? resourceGroupState.get().getQueuedQueries() : new PriorityQueue<>();
+                if (!globalQueuedQueries.isEmpty() && !localQueuedQueries.isEmpty()) {
+                    // Get queued query with longest queued time from state cache store.
+                    // Remove it if local queued queries contains it.
+                    SharedQueryState nextQuery = globalQueuedQueries.peek();
+                    for (ManagedQueryExecution localQuery : localQueuedQueries) {
+                        if (nextQuery.getBasicQueryInfo().getQueryId().equals(localQuery.getBasicQueryInfo().getQueryId())) {
+                            Lock lock = stateStore.getLock(id.toString());
+                            boolean locked = false;
+                            try {
+                                locked = lock.tryLock(MILLISECONDS_PER_SECOND, TimeUnit.MILLISECONDS);
+                                if (locked) {
+                                    // Get the most recent cached state store status and check canRunMore again
+                                    // Avoid the race condition that state store is updated by other process
+                                    // Make sure queued query start is synchronized
+                                    DistributedResourceGroupUtils.mapCachedStates();
+                                    if (canRunMore()) {
+                                        startInBackground(localQuery);
+                                        return true;
+                                    }
                                 }
+                                return false;
                             }
-                            return false;
-                        }
-                        catch (InterruptedException | RuntimeException e) {
-                            return false;
-                        }
-                        finally {
-                            if (locked) {
-                                lock.unlock();
+                            catch (InterruptedException | RuntimeException e) {
+                                return false;
+                            }
+                            finally {
+                                if (locked) {
+                                    lock.unlock();
+                                }
                             }
                         }
                     }
@@ -615,6 +668,9 @@ public class DistributedResourceGroupTemp
     {
         checkState(Thread.holdsLock(root), "Must hold lock");
         synchronized (root) {
+            if (quotaLeaseEnabled) {
+                return remoteQueuedQueries + getLocalQueuedQueryCount() < maxQueuedQueries;
+            }
             return getQueuedQueries() < maxQueuedQueries;
         }
     }
@@ -624,6 +680,9 @@ public class DistributedResourceGroupTemp
     {
         checkState(Thread.holdsLock(root), "Must hold lock");
         synchronized (root) {
+            if (quotaLeaseEnabled) {
+                return canRunMoreWithinLease();
+            }
             refreshGlobalValues();
             if (globalCpuUsageMillis >= hardCpuLimitMillis) {
                 return false;
@@ -669,6 +728,137 @@ public class DistributedResourceGroupTemp
         return true;
     }
 
+    private boolean canRunMoreWithinLease()
+    {
+        if (leaseCpuUsageMillis >= hardCpuLimitMillis) {
+            return false;
+        }
+        // queries of other coordinators running above their leases, for example after their demand dropped,
+        // use up part of this lease until they finish
+        return getLocalRunningQueryCount() < leasedConcurrency - remoteConcurrencyOvershoot
+                && localCachedMemoryUsageBytes <= leasedMemoryBytes - remoteMemoryOvershootBytes;
+    }
+
+    private int getLocalRunningQueryCount()
+    {
+        int runningQueries = localRunningQueries.size();
+        for (BaseResourceGroup group : subGroups.values()) {
+            runningQueries += ((DistributedResourceGroupTemp) group).getLocalRunningQueryCount();
+        }
+        return runningQueries;
+    }
+
+    private int getSchedulableQueuedQueries()
+    {
+        // with quota leases only local queued queries can be started by this coordinator
+        return quotaLeaseEnabled ? getLocalQueuedQueryCount() : getQueuedQueries();
+    }
+
+    private int getLocalQueuedQueryCount()
+    {
+        int queuedQueries = localQueuedQueries.size();
+        for (BaseResourceGroup group : subGroups.values()) {
+            queuedQueries += ((DistributedResourceGroupTemp) group).getLocalQueuedQueryCount();
+        }
+        return queuedQueries;
+    }
+
+    private void rebalanceQuotaLeasesIfDue(boolean force)
+    {
+        if (!quotaLeaseEnabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (!force && lastQuotaRebalanceMillis != 0 && now - lastQuotaRebalanceMillis < quotaRebalanceIntervalMillis) {
+            return;
+        }
+        try {
+            rebalanceQuotaLeases();
+            lastQuotaRebalanceMillis = now;
+        }
+        catch (RuntimeException e) {
+            // keep admitting against the previous leases until the state store is reachable again
+            LOG.warn("Error rebalancing quota leases of resource group %s: %s", id, e.getMessage());
+        }
+    }
+
+    /**
+     * Recompute the share of the concurrency and memory quota of this group and all its sub groups leased to
+     * this coordinator. Demand of a coordinator is the number of queries it runs or queues in the group, read
+     * from the stats every coordinator publishes, including this one, so that all coordinators compute the
+     * same split from the same snapshot without taking a state store lock.
+     */
+    private void rebalanceQuotaLeases()
+    {
+        checkState(Thread.holdsLock(root), "Must hold lock to rebalance quota leases");
+        Map<InternalNode, DistributedResourceGroupAggrStats> publishedStats = getAggrStats(true);
+        InternalNode currentNode = internalNodeManager.getCurrentNode();
+        Set<InternalNode> coordinators = new HashSet<>(internalNodeManager.getCoordinators());
+        coordinators.add(currentNode);
+
+        // coordinators which have not published stats, or whose stats are gone, may still run the queries
+        // admitted against their last lease, so that lease is not handed out to the others
+        long reservedConcurrency = 0;
+        long cpuUsageMillis = 0;
+        int remoteQueued = 0;
+        List<InternalNode> publishingCoordinators = new ArrayList<>();
+        Map<String, Long> leases = new HashMap<>();
+        for (InternalNode coordinator : coordinators) {
+            DistributedResourceGroupAggrStats stats = publishedStats.get(coordinator);
+            if (stats == null) {
+                long lastLease = coordinatorConcurrencyLeases.getOrDefault(coordinator.getNodeIdentifier(), 0L);
+                reservedConcurrency += lastLease;
+                leases.put(coordinator.getNodeIdentifier(), lastLease);
+                continue;
+            }
+            publishingCoordinators.add(coordinator);
+            cpuUsageMillis += stats.getCpuUsageMillis();
+            if (!coordinator.equals(currentNode)) {
+                remoteQueued += stats.getQueuedQueries() + stats.getDescendantQueuedQueries();
+            }
+        }
+        publishingCoordinators.sort(Comparator.comparing(InternalNode::getNodeIdentifier));
+        long[] demands = new long[publishingCoordinators.size()];
+        for (int i = 0; i < demands.length; i++) {
+            DistributedResourceGroupAggrStats stats = publishedStats.get(publishingCoordinators.get(i));
+            demands[i] = stats.getRunningQueries() + stats.getQueuedQueries() + stats.getDescendantRunningQueries() + stats.getDescendantQueuedQueries();
+        }
+
+        leaseCpuUsageMillis = cpuUsageMillis;
+        remoteQueuedQueries = remoteQueued;
+        long concurrencyQuota = adjustHardConcurrency(hardConcurrencyLimit, leaseCpuUsageMillis);
+        long[] shares = ResourceGroupQuotaLeases.allocate(Math.max(0, concurrencyQuota - reservedConcurrency), demands);
+        long concurrencyOvershoot = 0;
+        long memoryOvershootBytes = 0;
+        leasedConcurrency = leases.getOrDefault(currentNode.getNodeIdentifier(), 0L);
+        for (int i = 0; i < shares.length; i++) {
+            InternalNode coordinator = publishingCoordinators.get(i);
+            leases.put(coordinator.getNodeIdentifier(), shares[i]);
+            if (coordinator.equals(currentNode)) {
+                leasedConcurrency = shares[i];
+                continue;
+            }
+            DistributedResourceGroupAggrStats stats = publishedStats.get(coordinator);
+            concurrencyOvershoot += Math.max(0, stats.getRunningQueries() + stats.getDescendantRunningQueries() - shares[i]);
+            memoryOvershootBytes += Math.max(0, stats.getCachedMemoryUsageBytes() - getLeasedMemoryBytes(shares[i], concurrencyQuota));
+        }
+        leasedMemoryBytes = getLeasedMemoryBytes(leasedConcurrency, concurrencyQuota);
+        remoteConcurrencyOvershoot = concurrencyOvershoot;
+        remoteMemoryOvershootBytes = memoryOvershootBytes;
+        coordinatorConcurrencyLeases = ImmutableMap.copyOf(leases);
+        quotaLeased = true;
+
+        for (BaseResourceGroup group : subGroups.values()) {
+            ((DistributedResourceGroupTemp) group).rebalanceQuotaLeases();
+        }
+    }
+
+    private long getLeasedMemoryBytes(long concurrencyLease, long concurrencyQuota)
+    {
+        // memory follows the concurrency share, a coordinator running more queries gets more memory
+        return concurrencyQuota == 0 ? 0 : (long) ((double) softMemoryLimitBytes * concurrencyLease / concurrencyQuota);
+    }
+
     protected void internalGenerateCpuQuota(long elapsedSeconds)
     {
         checkState(Thread.holdsLock(root), "Must hold lock to generate cpu quota");
@@ -723,9 +913,9 @@ public class DistributedResourceGroupTemp
     private DistributedResourceGroupTemp findLeastRecentlyExecutedSubgroup()
     {
         List<DistributedResourceGroupTemp> eligibleGroups = subGroups().stream()
-                .filter(group -> group.getQueuedQueries() > 0 && group.canRunMore())
-                .sorted(Comparator.comparing(group -> group.getId().toString()))
                 .map(DistributedResourceGroupTemp.class::cast)
+                .filter(group -> group.getSchedulableQueuedQueries() > 0 && group.canRunMore())
+                .sorted(Comparator.comparing(group -> group.getId().toString()))
                 .collect(Collectors.toList());
 
         DateTime leastRecentlyExecutionTime = null;
@@ -752,6 +942,7 @@ public class DistributedResourceGroupTemp
     public synchronized void processQueuedQueries()
     {
         internalRefreshStats();
+        rebalanceQuotaLeasesIfDue(false);
         internalCancelQuery();
         while (internalStartNext()) {
             // start all the queries we can
@@ -857,28 +1048,51 @@ public class DistributedResourceGroupTemp
             globalCachedMemoryUsageBytes = localCachedMemoryUsageBytes;
             globalCpuUsageMillis = localCpuUsageMillis;
 
-            internalNodeManager.refreshNodes();
-            try {
-                for (InternalNode coordinator : internalNodeManager.getCoordinators()) {
-                    if (coordinator.equals(internalNodeManager.getCurrentNode())) {
-                        continue;
-                    }
-                    StateMap<String, String> resourceGroupMap = ((StateMap) stateStore.getOrCreateStateCollection(createCoordinatorCollectionName(coordinator), StateCollection.Type.MAP));
-                    DistributedResourceGroupAggrStats groupAggrStats = resourceGroupMap.containsKey(getId().toString()) ? MAPPER.readerFor(DistributedResourceGroupAggrStats.class)
-                            .readValue(resourceGroupMap.get(getId().toString())) : null;
-                    if (groupAggrStats != null) {
-                        globalTotalRunningQueries += groupAggrStats.getRunningQueries();
-                        globalTotalQueuedQueries += groupAggrStats.getQueuedQueries();
-                        globalDescendantQueuedQueries += groupAggrStats.getDescendantQueuedQueries();
-                        globalDescendantRunningQueries += groupAggrStats.getDescendantRunningQueries();
-                        globalCachedMemoryUsageBytes += groupAggrStats.getCachedMemoryUsageBytes();
-                        globalCpuUsageMillis += groupAggrStats.getCachedMemoryUsageBytes();
-                    }
-                }
+            for (DistributedResourceGroupAggrStats groupAggrStats : getRemoteAggrStats().values()) {
+                globalTotalRunningQueries += groupAggrStats.getRunningQueries();
+                globalTotalQueuedQueries += groupAggrStats.getQueuedQueries();
+                globalDescendantQueuedQueries += groupAggrStats.getDescendantQueuedQueries();
+                globalDescendantRunningQueries += groupAggrStats.getDescendantRunningQueries();
+                globalCachedMemoryUsageBytes += groupAggrStats.getCachedMemoryUsageBytes();
+                globalCpuUsageMillis += groupAggrStats.getCachedMemoryUsageBytes();
             }
-            catch (JsonProcessingException e) {
-                throw new RuntimeException(String.format("Error fetching resource group state with group id = %s, caused by ObjectMapper: %s", id, e.getMessage()));
+        }
+    }
+
+    /**
+     * Read the stats of this group published by the other coordinators
+     *
+     * @return stats by coordinator, coordinators that have not published stats for this group are left out
+     */
+    private Map<InternalNode, DistributedResourceGroupAggrStats> getRemoteAggrStats()
+    {
+        return getAggrStats(false);
+    }
+
+    private Map<InternalNode, DistributedResourceGroupAggrStats> getAggrStats(boolean includeCurrentNode)
+    {
+        Map<InternalNode, DistributedResourceGroupAggrStats> aggrStats = new HashMap<>();
+        internalNodeManager.refreshNodes();
+        try {
+            Set<InternalNode> coordinators = new HashSet<>(internalNodeManager.getCoordinators());
+            if (includeCurrentNode) {
+                coordinators.add(internalNodeManager.getCurrentNode());
             }
+            for (InternalNode coordinator : coordinators) {
+                if (!includeCurrentNode && coordinator.equals(internalNodeManager.getCurrentNode())) {
+                    continue;
+                }
+                StateMap<String, String> resourceGroupMap = ((StateMap) stateStore.getOrCreateStateCollection(createCoordinatorCollectionName(coordinator), StateCollection.Type.MAP));
+                DistributedResourceGroupAggrStats groupAggrStats = resourceGroupMap.containsKey(getId().toString()) ? MAPPER.readerFor(DistributedResourceGroupAggrStats.class)
+                        .readValue(resourceGroupMap.get(getId().toString())) : null;
+                if (groupAggrStats != null) {
+                    aggrStats.put(coordinator, groupAggrStats);
+                }
+            }
+        }
+        catch (JsonProcessingException e) {
+            throw new RuntimeException(String.format("Error fetching resource group state with group id = %s, caused by ObjectMapper: %s", id, e.getMessage()));
         }
+        return aggrStats;
     }
 }
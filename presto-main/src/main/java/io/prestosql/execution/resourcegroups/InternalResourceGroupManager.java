@@ -95,6 +95,8 @@ public final class InternalResourceGroupManager<C>
     // status refresh interval
     private final long statusRefreshInterval;
     private final boolean isMultiCoordinatorEnabled;
+    private final boolean isResourceGroupQuotaLeaseEnabled;
+    private final long resourceGroupQuotaRebalanceInterval;
     private final StateStoreProvider stateStoreProvider;
     private int memoryMarginPercent;
     private int queryProgressMarginPercent;
@@ -117,6 +119,8 @@ public final class InternalResourceGroupManager<C>
         // check if multiple coordinators is enabled
         this.statusRefreshInterval = getStatusRefreshInterval(hetuConfig);
         this.isMultiCoordinatorEnabled = hetuConfig.isMultipleCoordinatorEnabled();
+        this.isResourceGroupQuotaLeaseEnabled = hetuConfig.isResourceGroupQuotaLeaseEnabled();
+        this.resourceGroupQuotaRebalanceInterval = hetuConfig.getResourceGroupQuotaRebalanceInterval().toMillis();
         this.stateStoreProvider = requireNonNull(stateStoreProvider, "stateStoreProvider is null");
         this.memoryMarginPercent = 10;
         this.queryProgressMarginPercent = 5;
@@ -144,7 +148,12 @@ public final class InternalResourceGroupManager<C>
         checkState(configurationManager.get() != null, "configurationManager not set");
         createGroupIfNecessary(selectionContext, executor);
         // Update shared resource group states before submitting new query
-        if (isMultiCoordinatorEnabled) {
+        if (isMultiCoordinatorEnabled && isResourceGroupQuotaLeaseEnabled) {
+            // Admission is checked against the quota leased to this coordinator, no cluster-wide lock is needed
+            DistributedResourceGroupUtils.mapCachedStates();
+            groups.get(selectionContext.getResourceGroupId()).run(queryExecution);
+        }
+        else if (isMultiCoordinatorEnabled) {
             DistributedResourceGroupUtils.mapCachedStates();
             BaseResourceGroup currentRoot = groups.get(selectionContext.getResourceGroupId().getRoot());
             checkState(currentRoot != null, "currentRoot should not be null");
@@ -384,7 +393,8 @@ public final class InternalResourceGroupManager<C>
     private BaseResourceGroup createNewRootGroup(String name, Executor executor)
     {
         if (isMultiCoordinatorEnabled) {
-            return new DistributedResourceGroupTemp(Optional.empty(), name, this::exportGroup, executor, stateStoreProvider.getStateStore(), internalNodeManager);
+            return new DistributedResourceGroupTemp(Optional.empty(), name, this::exportGroup, executor, stateStoreProvider.getStateStore(), internalNodeManager,
+                    isResourceGroupQuotaLeaseEnabled, resourceGroupQuotaRebalanceInterval);
         }
         else {
             return new InternalResourceGroup(Optional.empty(), name, this::exportGroup, executor, noResourceRetry);
@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2018-2022. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution.resourcegroups;
+
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Splits a resource group quota among coordinators by max-min fairness on their demand.
+ * Every coordinator runs the same computation on the same published demands, so the shares
+ * add up to the quota without any coordination between them.
+ */
+final class ResourceGroupQuotaLeases
+{
+    private ResourceGroupQuotaLeases()
+    {
+    }
+
+    /**
+     * Coordinators asking for less than their fair share get what they ask for, the rest is split
+     * evenly among the others. Quota left over once every demand is met is split evenly as well,
+     * so that new queries can be admitted before the next rebalance.
+     *
+     * @param quota quota to split, for example the concurrency limit of a group
+     * @param demands demand of each coordinator, in a coordinator order all coordinators agree on
+     * @return share of each coordinator, in the same order as demands
+     */
+    static long[] allocate(long quota, long[] demands)
+    {
+        checkArgument(quota >= 0, "quota is negative");
+        int coordinators = demands.length;
+        long[] shares = new long[coordinators];
+        if (coordinators == 0) {
+            return shares;
+        }
+
+        int[] byDemand = IntStream.range(0, coordinators)
+                .boxed()
+                .sorted(Comparator.comparingLong(index -> demands[index]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        long remaining = quota;
+        for (int i = 0; i < coordinators; i++) {
+            int coordinator = byDemand[i];
+            long fairShare = remaining / (coordinators - i);
+            shares[coordinator] = Math.max(0, Math.min(demands[coordinator], fairShare));
+            remaining -= shares[coordinator];
+        }
+
+        long surplus = remaining / coordinators;
+        long extra = remaining % coordinators;
+        for (int coordinator = 0; coordinator < coordinators; coordinator++) {
+            shares[coordinator] += surplus + (coordinator < extra ? 1 : 0);
+        }
+        return shares;
+    }
+}
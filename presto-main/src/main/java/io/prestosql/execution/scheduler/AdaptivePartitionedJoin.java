@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2018-2022. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution.scheduler;
+
+import io.prestosql.spi.plan.AggregationNode;
+import io.prestosql.spi.plan.FilterNode;
+import io.prestosql.spi.plan.JoinNode;
+import io.prestosql.spi.plan.PlanNode;
+import io.prestosql.spi.plan.PlanNodeId;
+import io.prestosql.spi.plan.ProjectNode;
+import io.prestosql.sql.planner.PlanFragment;
+import io.prestosql.sql.planner.plan.ExchangeNode;
+import io.prestosql.sql.planner.plan.InternalPlanVisitor;
+import io.prestosql.sql.planner.plan.RemoteSourceNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static io.prestosql.spi.plan.AggregationNode.Step.PARTIAL;
+import static io.prestosql.spi.plan.JoinNode.DistributionType.PARTITIONED;
+import static io.prestosql.spi.plan.JoinNode.Type.INNER;
+import static io.prestosql.spi.plan.JoinNode.Type.LEFT;
+import static io.prestosql.sql.planner.SystemPartitioningHandle.FIXED_HASH_DISTRIBUTION;
+import static io.prestosql.sql.planner.plan.ExchangeNode.Scope.LOCAL;
+import static io.prestosql.sql.planner.plan.ExchangeNode.Type.REPARTITION;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A partitioned join whose distribution can be changed once the sizes of both inputs are known.
+ * <p>
+ * The fragment must consist of a single inner or left join reading both sides directly from
+ * repartitioned remote sources, with nothing but projections, filters, local exchanges and partial
+ * aggregations around it. The join is then the only operator relying on hash partitioning, so
+ * <ul>
+ * <li>the build side can be replicated to every task, which lets the probe side be distributed arbitrarily</li>
+ * <li>a probe partition can be split across several tasks, as long as each of them reads the whole
+ * build partition</li>
+ * </ul>
+ */
+final class AdaptivePartitionedJoin
+{
+    private final PlanNodeId probeSource;
+    private final PlanNodeId buildSource;
+
+    private AdaptivePartitionedJoin(PlanNodeId probeSource, PlanNodeId buildSource)
+    {
+        this.probeSource = requireNonNull(probeSource, "probeSource is null");
+        this.buildSource = requireNonNull(buildSource, "buildSource is null");
+    }
+
+    public PlanNodeId getProbeSource()
+    {
+        return probeSource;
+    }
+
+    public PlanNodeId getBuildSource()
+    {
+        return buildSource;
+    }
+
+    public static Optional<AdaptivePartitionedJoin> find(PlanFragment fragment)
+    {
+        if (!fragment.getPartitioning().equals(FIXED_HASH_DISTRIBUTION) || !fragment.getPartitionedSources().isEmpty()) {
+            return Optional.empty();
+        }
+
+        List<JoinNode> joins = new ArrayList<>();
+        if (!fragment.getRoot().accept(new SupportedNodesVisitor(joins), null) || joins.size() != 1) {
+            return Optional.empty();
+        }
+
+        JoinNode join = joins.get(0);
+        Optional<RemoteSourceNode> probe = findRemoteSource(join.getLeft());
+        Optional<RemoteSourceNode> build = findRemoteSource(join.getRight());
+        if (!probe.isPresent() || !build.isPresent()) {
+            return Optional.empty();
+        }
+        return Optional.of(new AdaptivePartitionedJoin(probe.get().getId(), build.get().getId()));
+    }
+
+    private static Optional<RemoteSourceNode> findRemoteSource(PlanNode node)
+    {
+        if (node instanceof RemoteSourceNode) {
+            RemoteSourceNode remoteSource = (RemoteSourceNode) node;
+            return remoteSource.getExchangeType() == REPARTITION ? Optional.of(remoteSource) : Optional.empty();
+        }
+        if (node instanceof ProjectNode || node instanceof FilterNode || node instanceof ExchangeNode) {
+            if (node.getSources().size() == 1) {
+                return findRemoteSource(node.getSources().get(0));
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static class SupportedNodesVisitor
+            extends InternalPlanVisitor<Boolean, Void>
+    {
+        private final List<JoinNode> joins;
+
+        public SupportedNodesVisitor(List<JoinNode> joins)
+        {
+            this.joins = requireNonNull(joins, "joins is null");
+        }
+
+        @Override
+        public Boolean visitPlan(PlanNode node, Void context)
+        {
+            return false;
+        }
+
+        @Override
+        public Boolean visitRemoteSource(RemoteSourceNode node, Void context)
+        {
+            return true;
+        }
+
+        @Override
+        public Boolean visitProject(ProjectNode node, Void context)
+        {
+            return node.getSource().accept(this, context);
+        }
+
+        @Override
+        public Boolean visitFilter(FilterNode node, Void context)
+        {
+            return node.getSource().accept(this, context);
+        }
+
+        @Override
+        public Boolean visitAggregation(AggregationNode node, Void context)
+        {
+            return node.getStep() == PARTIAL && node.getSource().accept(this, context);
+        }
+
+        @Override
+        public Boolean visitExchange(ExchangeNode node, Void context)
+        {
+            return node.getScope() == LOCAL && visitSources(node, context);
+        }
+
+        @Override
+        public Boolean visitJoin(JoinNode node, Void context)
+        {
+            joins.add(node);
+            return (node.getType() == INNER || node.getType() == LEFT)
+                    && node.getDistributionType().equals(Optional.of(PARTITIONED))
+                    && visitSources(node, context);
+        }
+
+        private boolean visitSources(PlanNode node, Void context)
+        {
+            for (PlanNode source : node.getSources()) {
+                if (!source.accept(this, context)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -92,6 +92,8 @@ import static io.prestosql.SystemSessionProperties.getFaultTolerantExecutionMinT
 import static io.prestosql.SystemSessionProperties.getFaultTolerantExecutionTargetTaskInputSize;
 import static io.prestosql.SystemSessionProperties.getFaultTolerantExecutionTargetTaskSplitCount;
 import static io.prestosql.SystemSessionProperties.getFaultTolerantPreserveInputPartitionsInWriteStage;
+import static io.prestosql.SystemSessionProperties.getJoinMaxBroadcastTableSize;
+import static io.prestosql.SystemSessionProperties.isFaultTolerantExecutionAdaptiveJoinEnabled;
 import static io.prestosql.spi.connector.CatalogName.isInternalSystemConnector;
 import static io.prestosql.spi.connector.NotPartitionedPartitionHandle.NOT_PARTITIONED;
 import static io.prestosql.sql.planner.SystemPartitioningHandle.FIXED_ARBITRARY_DISTRIBUTION;
@@ -169,6 +171,8 @@ public class StageTaskSourceFactory
                     getFaultTolerantExecutionTargetTaskSplitCount(session) * SplitWeight.standard().getRawValue(),
                     getFaultTolerantExecutionTargetTaskInputSize(session),
                     getFaultTolerantPreserveInputPartitionsInWriteStage(session),
+                    isFaultTolerantExecutionAdaptiveJoinEnabled(session),
+                    getJoinMaxBroadcastTableSize(session),
                     executor);
         }
         if (partitioning.equals(SOURCE_DISTRIBUTION)) {
@@ -376,6 +380,7 @@ public class StageTaskSourceFactory
         private final Optional<CatalogName> catalogRequirement;
         private final long targetPartitionSourceSizeInBytes; // compared data read from ExchangeSources
         private final long targetPartitionSplitWeight; // compared against splits from SplitSources
+        private final Optional<PlanNodeId> splittableSource; // remote source whose handles may be spread over several tasks of one partition
         private final Executor executor;
 
         @GuardedBy("this")
@@ -398,16 +403,41 @@ public class StageTaskSourceFactory
                 long targetPartitionSplitWeight,
                 DataSize targetPartitionSourceSize,
                 boolean preserveInputPartitionsInWriteStage,
+                boolean adaptiveJoinEnabled,
+                Optional<DataSize> maxBroadcastSize,
                 Executor executor)
         {
             checkArgument(bucketNodeMap.isPresent() || fragment.getPartitionedSources().isEmpty(), "bucketNodeMap is expected to be set when the fragment reads partitioned sources (tables)");
             Map<PlanNodeId, SplitSource> hashDistributionSplitSources = splitSourceFactory.createSplitSources(session, fragment);
 
+            IdentityHashMap<ExchangeSourceHandle, Exchange> exchangeForHandle = getExchangeForHandleMap(sourceExchanges, exchangeSourceHandles);
+            ListMultimap<PlanNodeId, ExchangeSourceHandle> partitionedExchangeSourceHandles = getPartitionedExchangeSourceHandles(fragment, exchangeSourceHandles);
+            ListMultimap<PlanNodeId, ExchangeSourceHandle> replicatedExchangeSourceHandles = getReplicatedExchangeSourceHandles(fragment, exchangeSourceHandles);
+            Optional<PlanNodeId> splittableSource = Optional.empty();
+
+            Optional<AdaptivePartitionedJoin> adaptiveJoin = adaptiveJoinEnabled ? AdaptivePartitionedJoin.find(fragment) : Optional.empty();
+            if (adaptiveJoin.isPresent()) {
+                // upstream stages have finished, so the actual size of the build side is known here
+                PlanNodeId buildSource = adaptiveJoin.get().getBuildSource();
+                long buildSize = partitionedExchangeSourceHandles.get(buildSource).stream()
+                        .mapToLong(handle -> exchangeForHandle.get(handle).getExchangeSourceStatistics(handle).getSizeInBytes())
+                        .sum();
+                if (maxBroadcastSize.isPresent() && buildSize <= maxBroadcastSize.get().toBytes()) {
+                    log.debug("Replicating build side of partitioned join in fragment %s, actual size is %s bytes", fragment.getId(), buildSize);
+                    replicatedExchangeSourceHandles = ImmutableListMultimap.<PlanNodeId, ExchangeSourceHandle>builder()
+                            .putAll(replicatedExchangeSourceHandles)
+                            .putAll(buildSource, partitionedExchangeSourceHandles.get(buildSource))
+                            .build();
+                    partitionedExchangeSourceHandles = ImmutableListMultimap.copyOf(Multimaps.filterKeys(partitionedExchangeSourceHandles, planNodeId -> !planNodeId.equals(buildSource)));
+                }
+                splittableSource = Optional.of(adaptiveJoin.get().getProbeSource());
+            }
+
             return new HashDistributionTaskSource(
                     hashDistributionSplitSources,
-                    getExchangeForHandleMap(sourceExchanges, exchangeSourceHandles),
-                    getPartitionedExchangeSourceHandles(fragment, exchangeSourceHandles),
-                    getReplicatedExchangeSourceHandles(fragment, exchangeSourceHandles),
+                    exchangeForHandle,
+                    partitionedExchangeSourceHandles,
+                    replicatedExchangeSourceHandles,
                     splitBatchSize,
                     getSplitTimeRecorder,
                     bucketToPartitionMap,
@@ -416,6 +446,7 @@ public class StageTaskSourceFactory
                     targetPartitionSplitWeight,
                     (preserveInputPartitionsInWriteStage && isWriteFragment(fragment)) ? new DataSize(0, BYTE) : targetPartitionSourceSize,
                     getFaultTolerantExecutionDefaultTaskMemory(session),
+                    splittableSource,
                     executor);
         }
 
@@ -458,6 +489,7 @@ public class StageTaskSourceFactory
                 long targetPartitionSplitWeight,
                 DataSize targetPartitionSourceSize,
                 DataSize taskMemory,
+                Optional<PlanNodeId> splittableSource,
                 Executor executor)
         {
             this.splitSources = ImmutableMap.copyOf(requireNonNull(splitSources, "splitSources is null"));
@@ -474,6 +506,8 @@ public class StageTaskSourceFactory
             this.catalogRequirement = requireNonNull(catalogRequirement, "catalogRequirement is null");
             this.targetPartitionSourceSizeInBytes = requireNonNull(targetPartitionSourceSize, "targetPartitionSourceSize is null").toBytes();
             this.targetPartitionSplitWeight = targetPartitionSplitWeight;
+            this.splittableSource = requireNonNull(splittableSource, "splittableSource is null");
+            checkArgument(!splittableSource.isPresent() || splitSources.isEmpty(), "only exchange sources can be split");
             this.executor = requireNonNull(executor, "executor is null");
         }
 
@@ -559,6 +593,7 @@ public class StageTaskSourceFactory
 
                             int taskPartitionId = 0;
                             ImmutableList.Builder<TaskDescriptor> partitionTasks = ImmutableList.builder();
+                            ImmutableList.Builder<TaskDescriptor> splitPartitionTasks = ImmutableList.builder();
                             for (Integer partition : union(partitionToSplitsMap.keySet(), partitionToExchangeSourceHandlesMap.keySet())) {
                                 ListMultimap<PlanNodeId, Split> splits = partitionToSplitsMap.getOrDefault(partition, ImmutableListMultimap.of());
                                 ListMultimap<PlanNodeId, ExchangeSourceHandle> exchangeSourceHandles = ImmutableListMultimap.<PlanNodeId, ExchangeSourceHandle>builder()
@@ -566,12 +601,23 @@ public class StageTaskSourceFactory
                                         // replicated exchange source will be added in postprocessTasks below
                                         .build();
                                 Set<HostAddress> hostRequirement = partitionToNodeMap.get(partition);
-                                partitionTasks.add(new TaskDescriptor(taskPartitionId++, splits, exchangeSourceHandles, new NodeRequirements(catalogRequirement, hostRequirement, taskMemory)));
+                                NodeRequirements nodeRequirements = new NodeRequirements(catalogRequirement, hostRequirement, taskMemory);
+                                Optional<List<ListMultimap<PlanNodeId, ExchangeSourceHandle>>> splitPartition = splitPartition(exchangeSourceHandles);
+                                if (splitPartition.isPresent()) {
+                                    for (ListMultimap<PlanNodeId, ExchangeSourceHandle> subPartition : splitPartition.get()) {
+                                        splitPartitionTasks.add(new TaskDescriptor(taskPartitionId++, splits, subPartition, nodeRequirements));
+                                    }
+                                    continue;
+                                }
+                                partitionTasks.add(new TaskDescriptor(taskPartitionId++, splits, exchangeSourceHandles, nodeRequirements));
                             }
 
-                            List<TaskDescriptor> result = postprocessTasks(partitionTasks.build());
+                            List<TaskDescriptor> result = ImmutableList.<TaskDescriptor>builder()
+                                    .addAll(postprocessTasks(partitionTasks.build()))
+                                    .addAll(splitPartitionTasks.build())
+                                    .build();
                             finished = true;
-                            return result;
+                            return renumberTasks(result);
                         }
                     },
                     executor);
@@ -627,6 +673,80 @@ public class StageTaskSourceFactory
             return joinedTasks.build();
         }
 
+        /**
+         * Splits a partition whose splittable source is larger than the target partition size. Every
+         * sub partition gets a share of the splittable source and all other handles of the partition.
+         * Sub partitions must not be merged again, or the other handles would be read more than once.
+         */
+        private Optional<List<ListMultimap<PlanNodeId, ExchangeSourceHandle>>> splitPartition(ListMultimap<PlanNodeId, ExchangeSourceHandle> partitionHandles)
+        {
+            if (!splittableSource.isPresent()) {
+                return Optional.empty();
+            }
+            List<ExchangeSourceHandle> splittableHandles = partitionHandles.get(splittableSource.get());
+            long splittableSize = splittableHandles.stream().mapToLong(this::sourceHandleSize).sum();
+            long otherSize = partitionHandles.entries().stream()
+                    .filter(entry -> !entry.getKey().equals(splittableSource.get()))
+                    .mapToLong(entry -> sourceHandleSize(entry.getValue()))
+                    .sum()
+                    + replicatedExchangeSourceHandles.values().stream().mapToLong(this::sourceHandleSize).sum();
+            // every sub partition repeats the other handles, so only split when they take up at most half of a task
+            if (splittableSize + otherSize <= targetPartitionSourceSizeInBytes || otherSize > targetPartitionSourceSizeInBytes / 2) {
+                return Optional.empty();
+            }
+            long subPartitionSize = targetPartitionSourceSizeInBytes - otherSize;
+
+            ListMultimap<PlanNodeId, ExchangeSourceHandle> otherHandles = ImmutableListMultimap.copyOf(Multimaps.filterKeys(partitionHandles, planNodeId -> !planNodeId.equals(splittableSource.get())));
+            ImmutableList.Builder<ListMultimap<PlanNodeId, ExchangeSourceHandle>> subPartitions = ImmutableList.builder();
+            ImmutableList.Builder<ExchangeSourceHandle> assignedHandles = ImmutableList.builder();
+            long assignedSize = 0;
+            for (ExchangeSourceHandle originalHandle : splittableHandles) {
+                Exchange exchange = exchangeForHandle.get(originalHandle);
+                try (ExchangeSourceSplitter splitter = exchange.split(originalHandle, subPartitionSize)) {
+                    while (true) {
+                        checkState(splitter.isBlocked().isDone(), "not supported");
+                        Optional<ExchangeSourceHandle> next = splitter.getNext();
+                        if (!next.isPresent()) {
+                            break;
+                        }
+                        ExchangeSourceHandle handle = next.get();
+                        exchangeForHandle.put(handle, exchange);
+                        long size = sourceHandleSize(handle);
+                        if (assignedSize != 0 && assignedSize + size > subPartitionSize) {
+                            subPartitions.add(subPartition(assignedHandles.build(), otherHandles));
+                            assignedHandles = ImmutableList.builder();
+                            assignedSize = 0;
+                        }
+                        assignedHandles.add(handle);
+                        assignedSize += size;
+                    }
+                }
+            }
+            if (assignedSize != 0) {
+                subPartitions.add(subPartition(assignedHandles.build(), otherHandles));
+            }
+            return Optional.of(subPartitions.build());
+        }
+
+        private ListMultimap<PlanNodeId, ExchangeSourceHandle> subPartition(List<ExchangeSourceHandle> splittableHandles, ListMultimap<PlanNodeId, ExchangeSourceHandle> otherHandles)
+        {
+            return ImmutableListMultimap.<PlanNodeId, ExchangeSourceHandle>builder()
+                    .putAll(splittableSource.get(), splittableHandles)
+                    .putAll(otherHandles)
+                    .putAll(replicatedExchangeSourceHandles)
+                    .build();
+        }
+
+        private static List<TaskDescriptor> renumberTasks(List<TaskDescriptor> tasks)
+        {
+            ImmutableList.Builder<TaskDescriptor> result = ImmutableList.builder();
+            int taskPartitionId = 0;
+            for (TaskDescriptor task : tasks) {
+                result.add(new TaskDescriptor(taskPartitionId++, task.getSplits(), task.getExchangeSourceHandles(), task.getNodeRequirements()));
+            }
+            return result.build();
+        }
+
         private long sourceHandleSize(ExchangeSourceHandle handle)
         {
             Exchange exchange = exchangeForHandle.get(handle);
@@ -33,7 +33,9 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkArgument;
@@ -41,6 +43,12 @@ import static com.google.common.base.Preconditions.checkState;
 import static io.prestosql.operator.Operator.NOT_BLOCKED;
 import static java.util.Objects.requireNonNull;
 
+/**
+ * Reservations are accounted with atomic counters and concurrent maps, so queries reserving and freeing
+ * memory do not serialize on the pool. Updates of a single query are already serialized by its
+ * {@link QueryContext}. The pool monitor is only taken to create or complete the future callers block on
+ * once the pool is exhausted, and to move queries between pools.
+ */
 public class MemoryPool
 {
     private static final String MOVE_QUERY_TAG = "MOVE_QUERY_OPERATION";
@@ -48,25 +56,21 @@ public class MemoryPool
     private final MemoryPoolId id;
     private final long maxBytes;
 
-    @GuardedBy("this")
-    private long reservedBytes;
-    @GuardedBy("this")
-    private long reservedRevocableBytes;
+    private final AtomicLong reservedBytes = new AtomicLong();
+    private final AtomicLong reservedRevocableBytes = new AtomicLong();
 
+    // written under the pool monitor, read without it on the free path
     @Nullable
     @GuardedBy("this")
-    private NonCancellableMemoryFuture<?> future;
+    private volatile NonCancellableMemoryFuture<?> future;
 
-    @GuardedBy("this")
     // TODO: It would be better if we just tracked QueryContexts, but their lifecycle is managed by a weak reference, so we can't do that
-    private final Map<QueryId, Long> queryMemoryReservations = new HashMap<>();
+    private final Map<QueryId, Long> queryMemoryReservations = new ConcurrentHashMap<>();
 
     // This map keeps track of all the tagged allocations, e.g., query-1 -> ['TableScanOperator': 10MB, 'LazyOutputBuffer': 5MB, ...]
-    @GuardedBy("this")
-    private final Map<QueryId, Map<String, Long>> taggedMemoryAllocations = new HashMap<>();
+    private final Map<QueryId, Map<String, Long>> taggedMemoryAllocations = new ConcurrentHashMap<>();
 
-    @GuardedBy("this")
-    private final Map<QueryId, Long> queryMemoryRevocableReservations = new HashMap<>();
+    private final Map<QueryId, Long> queryMemoryRevocableReservations = new ConcurrentHashMap<>();
 
     private final List<MemoryPoolListener> listeners = new CopyOnWriteArrayList<>();
 
@@ -82,7 +86,7 @@ public class MemoryPool
         return id;
     }
 
-    public synchronized MemoryPoolInfo getInfo()
+    public MemoryPoolInfo getInfo()
     {
         Map<QueryId, List<MemoryAllocation>> memoryAllocations = new HashMap<>();
         for (Entry<QueryId, Map<String, Long>> entry : taggedMemoryAllocations.entrySet()) {
@@ -92,7 +96,7 @@ public class MemoryPool
             }
             memoryAllocations.put(entry.getKey(), allocations);
         }
-        return new MemoryPoolInfo(maxBytes, reservedBytes, reservedRevocableBytes, queryMemoryReservations, memoryAllocations, queryMemoryRevocableReservations);
+        return new MemoryPoolInfo(maxBytes, reservedBytes.get(), reservedRevocableBytes.get(), queryMemoryReservations, memoryAllocations, queryMemoryRevocableReservations);
     }
 
     public void addListener(MemoryPoolListener listener)
@@ -112,27 +116,56 @@ public class MemoryPool
     {
         checkArgument(bytes >= 0, "bytes is negative");
 
-        ListenableFuture<?> result;
+        if (bytes != 0) {
+            queryMemoryReservations.merge(queryId, bytes, Long::sum);
+            updateTaggedMemoryAllocations(queryId, allocationTag, bytes);
+        }
+        reservedBytes.addAndGet(bytes);
+        ListenableFuture<?> result = getReservationFuture();
+
+        onMemoryReserved();
+        return result;
+    }
+
+    private ListenableFuture<?> getReservationFuture()
+    {
+        if (getFreeBytes() > 0) {
+            return NOT_BLOCKED;
+        }
         synchronized (this) {
-            if (bytes != 0) {
-                queryMemoryReservations.merge(queryId, bytes, Long::sum);
-                updateTaggedMemoryAllocations(queryId, allocationTag, bytes);
+            if (future == null) {
+                future = NonCancellableMemoryFuture.create();
             }
-            reservedBytes += bytes;
-            if (getFreeBytes() <= 0) {
-                if (future == null) {
-                    future = NonCancellableMemoryFuture.create();
-                }
-                checkState(!future.isDone(), "future is already completed");
-                result = future;
+            NonCancellableMemoryFuture<?> result = future;
+            checkState(!result.isDone(), "future is already completed");
+            // memory may have been freed before the future was published, in which case
+            // the freeing thread did not see the future and will not complete it
+            if (getFreeBytes() > 0) {
+                completeFuture();
+                return NOT_BLOCKED;
             }
-            else {
-                result = NOT_BLOCKED;
+            return result;
+        }
+    }
+
+    private void onMemoryFreed()
+    {
+        if (future == null || getFreeBytes() <= 0) {
+            return;
+        }
+        synchronized (this) {
+            if (future != null && getFreeBytes() > 0) {
+                completeFuture();
             }
         }
+    }
 
-        onMemoryReserved();
-        return result;
+    @GuardedBy("this")
+    private void completeFuture()
+    {
+        NonCancellableMemoryFuture<?> completed = future;
+        future = null;
+        completed.set(null);
     }
 
     private void onMemoryReserved()
@@ -144,23 +177,11 @@ public class MemoryPool
     {
         checkArgument(bytes >= 0, "bytes is negative");
 
-        ListenableFuture<?> result;
-        synchronized (this) {
-            if (bytes != 0) {
-                queryMemoryRevocableReservations.merge(queryId, bytes, Long::sum);
-            }
-            reservedRevocableBytes += bytes;
-            if (getFreeBytes() <= 0) {
-                if (future == null) {
-                    future = NonCancellableMemoryFuture.create();
-                }
-                checkState(!future.isDone(), "future is already completed");
-                result = future;
-            }
-            else {
-                result = NOT_BLOCKED;
-            }
+        if (bytes != 0) {
+            queryMemoryRevocableReservations.merge(queryId, bytes, Long::sum);
         }
+        reservedRevocableBytes.addAndGet(bytes);
+        ListenableFuture<?> result = getReservationFuture();
 
         onMemoryReserved();
         return result;
@@ -172,73 +193,63 @@ public class MemoryPool
     public boolean tryReserve(QueryId queryId, String allocationTag, long bytes)
     {
         checkArgument(bytes >= 0, "bytes is negative");
-        synchronized (this) {
-            if (getFreeBytes() - bytes < 0) {
+        long reserved;
+        do {
+            reserved = reservedBytes.get();
+            if (maxBytes - reserved - reservedRevocableBytes.get() - bytes < 0) {
                 return false;
             }
-            reservedBytes += bytes;
-            if (bytes != 0) {
-                queryMemoryReservations.merge(queryId, bytes, Long::sum);
-                updateTaggedMemoryAllocations(queryId, allocationTag, bytes);
-            }
+        }
+        while (!reservedBytes.compareAndSet(reserved, reserved + bytes));
+        if (bytes != 0) {
+            queryMemoryReservations.merge(queryId, bytes, Long::sum);
+            updateTaggedMemoryAllocations(queryId, allocationTag, bytes);
         }
 
         onMemoryReserved();
         return true;
     }
 
-    public synchronized void free(QueryId queryId, String allocationTag, long bytes)
+    public void free(QueryId queryId, String allocationTag, long bytes)
     {
         checkArgument(bytes >= 0, "bytes is negative");
-        checkArgument(reservedBytes >= bytes, "tried to free more memory than is reserved");
+        checkArgument(reservedBytes.get() >= bytes, "tried to free more memory than is reserved");
         if (bytes == 0) {
             // Freeing zero bytes is a no-op
             return;
         }
 
-        Long queryReservation = queryMemoryReservations.get(queryId);
-        requireNonNull(queryReservation, "queryReservation is null");
-        checkArgument(queryReservation - bytes >= 0, "tried to free more memory than is reserved by query");
-        queryReservation -= bytes;
-        if (queryReservation == 0) {
-            queryMemoryReservations.remove(queryId);
+        Long queryReservation = queryMemoryReservations.compute(queryId, (ignored, reservation) -> {
+            requireNonNull(reservation, "queryReservation is null");
+            checkArgument(reservation - bytes >= 0, "tried to free more memory than is reserved by query");
+            return reservation == bytes ? null : reservation - bytes;
+        });
+        if (queryReservation == null) {
             taggedMemoryAllocations.remove(queryId);
         }
         else {
-            queryMemoryReservations.put(queryId, queryReservation);
             updateTaggedMemoryAllocations(queryId, allocationTag, -bytes);
         }
-        reservedBytes -= bytes;
-        if (getFreeBytes() > 0 && future != null) {
-            future.set(null);
-            future = null;
-        }
+        reservedBytes.addAndGet(-bytes);
+        onMemoryFreed();
     }
 
-    public synchronized void freeRevocable(QueryId queryId, long bytes)
+    public void freeRevocable(QueryId queryId, long bytes)
     {
         checkArgument(bytes >= 0, "bytes is negative");
-        checkArgument(reservedRevocableBytes >= bytes, "tried to free more revocable memory than is reserved");
+        checkArgument(reservedRevocableBytes.get() >= bytes, "tried to free more revocable memory than is reserved");
         if (bytes == 0) {
             // Freeing zero bytes is a no-op
             return;
         }
 
-        Long queryReservation = queryMemoryRevocableReservations.get(queryId);
-        requireNonNull(queryReservation, "queryReservation is null");
-        checkArgument(queryReservation - bytes >= 0, "tried to free more revocable memory than is reserved by query");
-        queryReservation -= bytes;
-        if (queryReservation == 0) {
-            queryMemoryRevocableReservations.remove(queryId);
-        }
-        else {
-            queryMemoryRevocableReservations.put(queryId, queryReservation);
-        }
-        reservedRevocableBytes -= bytes;
-        if (getFreeBytes() > 0 && future != null) {
-            future.set(null);
-            future = null;
-        }
+        queryMemoryRevocableReservations.compute(queryId, (ignored, reservation) -> {
+            requireNonNull(reservation, "queryReservation is null");
+            checkArgument(reservation - bytes >= 0, "tried to free more revocable memory than is reserved by query");
+            return reservation == bytes ? null : reservation - bytes;
+        });
+        reservedRevocableBytes.addAndGet(-bytes);
+        onMemoryFreed();
     }
 
     // When this method returns the MOVE_QUERY_TAG won't be visible in the tagged memory allocations map.
@@ -267,35 +278,35 @@ public class MemoryPool
      * Returns the number of free bytes. This value may be negative, which indicates that the pool is over-committed.
      */
     @Managed
-    public synchronized long getFreeBytes()
+    public long getFreeBytes()
     {
-        return maxBytes - reservedBytes - reservedRevocableBytes;
+        return maxBytes - reservedBytes.get() - reservedRevocableBytes.get();
     }
 
     @Managed
-    public synchronized long getMaxBytes()
+    public long getMaxBytes()
     {
         return maxBytes;
     }
 
     @Managed
-    public synchronized long getReservedBytes()
+    public long getReservedBytes()
     {
-        return reservedBytes;
+        return reservedBytes.get();
     }
 
     @Managed
-    public synchronized long getReservedRevocableBytes()
+    public long getReservedRevocableBytes()
     {
-        return reservedRevocableBytes;
+        return reservedRevocableBytes.get();
     }
 
-    synchronized long getQueryMemoryReservation(QueryId queryId)
+    long getQueryMemoryReservation(QueryId queryId)
     {
         return queryMemoryReservations.getOrDefault(queryId, 0L);
     }
 
-    synchronized long getQueryRevocableMemoryReservation(QueryId queryId)
+    long getQueryRevocableMemoryReservation(QueryId queryId)
     {
         return queryMemoryRevocableReservations.getOrDefault(queryId, 0L);
     }
@@ -307,8 +318,8 @@ public class MemoryPool
                 .add("id", id)
                 .add("maxBytes", maxBytes)
                 .add("freeBytes", getFreeBytes())
-                .add("reservedBytes", reservedBytes)
-                .add("reservedRevocableBytes", reservedRevocableBytes)
+                .add("reservedBytes", reservedBytes.get())
+                .add("reservedRevocableBytes", reservedRevocableBytes.get())
                 .add("future", future)
                 .toString();
     }
@@ -334,13 +345,13 @@ public class MemoryPool
         }
     }
 
-    private synchronized void updateTaggedMemoryAllocations(QueryId queryId, String allocationTag, long delta)
+    private void updateTaggedMemoryAllocations(QueryId queryId, String allocationTag, long delta)
     {
         if (delta == 0) {
             return;
         }
 
-        Map<String, Long> allocations = taggedMemoryAllocations.computeIfAbsent(queryId, ignored -> new HashMap<>());
+        Map<String, Long> allocations = taggedMemoryAllocations.computeIfAbsent(queryId, ignored -> new ConcurrentHashMap<>());
         allocations.compute(allocationTag, (ignored, oldValue) -> {
             if (oldValue == null) {
                 return delta;
@@ -354,7 +365,7 @@ public class MemoryPool
     }
 
     @VisibleForTesting
-    synchronized Map<QueryId, Map<String, Long>> getTaggedMemoryAllocations()
+    Map<QueryId, Map<String, Long>> getTaggedMemoryAllocations()
     {
         return ImmutableMap.copyOf(taggedMemoryAllocations);
     }
@@ -544,6 +544,15 @@ public interface Metadata
         return null;
     }
 
+    /**
+     * Returns a version of the data read through the table handle, which changes whenever the data changes,
+     * or empty if the connector can not tell.
+     */
+    default Optional<String> getTableDataVersion(Session session, TableHandle tableHandle)
+    {
+        return Optional.empty();
+    }
+
     FunctionAndTypeManager getFunctionAndTypeManager();
 
     ProcedureRegistry getProcedureRegistry();
@@ -1626,6 +1626,14 @@ public final class MetadataManager
         return () -> modificationTime;
     }
 
+    @Override
+    public Optional<String> getTableDataVersion(Session session, TableHandle tableHandle)
+    {
+        CatalogName catalogName = tableHandle.getCatalogName();
+        ConnectorMetadata connectorMetadata = getMetadata(session, catalogName);
+        return connectorMetadata.getTableDataVersion(session.toConnectorSession(catalogName), tableHandle.getConnectorHandle());
+    }
+
     public List<SqlFunction> listFunctions(Optional<Session> session)
     {
         // TODO: transactional when FunctionManager is made transactional
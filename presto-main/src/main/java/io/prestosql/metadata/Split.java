@@ -64,6 +64,11 @@ public final class Split
         return connectorSplit.getUnwrappedSplits().stream().map(x -> new Split(catalogName, x, lifespan)).collect(Collectors.toList());
     }
 
+    public List<Split> divide(int maxParts)
+    {
+        return connectorSplit.divide(maxParts).stream().map(x -> new Split(catalogName, x, lifespan)).collect(Collectors.toList());
+    }
+
     @JsonProperty
     public Lifespan getLifespan()
     {
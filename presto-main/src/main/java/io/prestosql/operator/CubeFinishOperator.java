@@ -160,6 +160,7 @@ public class CubeFinishOperator
             CubeMetadataBuilder builder = cubeMetastore.getBuilder(cubeMetadata);
             builder.withCubeFilter(mergePredicates(cubeMetadata.getCubeFilter(), updateMetadata.getDataPredicateString()));
             builder.setTableLastUpdatedTime(updateMetadata.getTableLastUpdatedTime());
+            builder.setTableDataVersion(updateMetadata.getTableDataVersion());
             builder.setCubeLastUpdatedTime(System.currentTimeMillis());
             builder.setCubeStatus(READY);
             cubeMetastore.persist(builder.build());
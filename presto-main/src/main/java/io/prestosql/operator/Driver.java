@@ -98,6 +98,9 @@ public class Driver
 
     private final AtomicReference<SettableFuture<?>> driverBlockedFuture = new AtomicReference<>();
 
+    // operator currently called by processInternal, used to attribute profiler stack samples
+    private volatile OperatorContext runningOperator;
+
     private enum State
     {
         ALIVE, NEED_DESTRUCTION, CANCEL_TO_RESUME, DESTROYED
@@ -177,6 +180,17 @@ public class Driver
         return driverContext;
     }
 
+    /**
+     * Attributes a stack sample of the thread running this driver to the operator being called.
+     */
+    public void recordStackSample(StackTraceElement[] stackTrace)
+    {
+        OperatorContext operatorContext = runningOperator;
+        if (operatorContext != null) {
+            operatorContext.recordStackSample(stackTrace);
+        }
+    }
+
     public Optional<PlanNodeId> getSourceId()
     {
         return sourceOperator.map(SourceOperator::getSourceId);
@@ -394,6 +408,7 @@ public class Driver
             // Note: finish should not be called on the natural source of the pipeline as this could cause the task to finish early
             if (!activeOperators.isEmpty() && activeOperators.size() != allOperators.size()) {
                 Operator rootOperator = activeOperators.get(0);
+                runningOperator = rootOperator.getOperatorContext();
                 rootOperator.finish();
                 rootOperator.getOperatorContext().recordFinish(operationTimer);
             }
@@ -420,6 +435,7 @@ public class Driver
                     // get an output page from current operator
                     Page page = null;
                     if (next.needsInput()) {
+                        runningOperator = current.getOperatorContext();
                         page = current.getOutput();
                         current.getOperatorContext().recordGetOutput(operationTimer, page);
                         if (current instanceof SourceOperator) {
@@ -430,6 +446,7 @@ public class Driver
                         // Snapshot: even when operators don't need (data) input, they may still allow markers to pass through.
                         // In particular, when join operators wait for build side to finish, they don't need inputs,
                         // but they need to receive and process markers, for snapshots to complete.
+                        runningOperator = current.getOperatorContext();
                         page = current.pollMarker();
                         current.getOperatorContext().recordGetOutput(operationTimer, page);
                         if (current instanceof SourceOperator) {
@@ -450,6 +467,7 @@ public class Driver
                                 receivedRows.compute(next, (o, v) -> v == null ? p.getPositionCount() : v + p.getPositionCount());
                             }
                         }
+                        runningOperator = next.getOperatorContext();
                         next.addInput(page);
                         next.getOperatorContext().recordAddInput(operationTimer, page);
                         movedPage = true;
@@ -459,11 +477,13 @@ public class Driver
                 // if current operator is finished...
                 if (current.isFinished()) {
                     // let next operator know there will be no more data
+                    runningOperator = next.getOperatorContext();
                     next.finish();
                     next.getOperatorContext().recordFinish(operationTimer);
                 }
             }
 
+            runningOperator = null;
             for (int index = activeOperators.size() - 1; index >= 0; index--) {
                 Operator operator = activeOperators.get(index);
                 if (operator.isFinished()) {
@@ -478,6 +498,7 @@ public class Driver
                     // Finish the next operator, which is now the first operator.
                     if (!activeOperators.isEmpty()) {
                         Operator newRootOperator = activeOperators.get(0);
+                        runningOperator = newRootOperator.getOperatorContext();
                         newRootOperator.finish();
                         newRootOperator.getOperatorContext().recordFinish(operationTimer);
                         if (isSnapshotEnabled) {
@@ -539,6 +560,9 @@ public class Driver
             driverContext.failed(newException);
             throw newException;
         }
+        finally {
+            runningOperator = null;
+        }
     }
 
     private boolean isOperatorBlocked(Operator current, Operator next)
@@ -28,9 +28,12 @@ import io.prestosql.spi.snapshot.RestorableConfig;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
 import static com.google.common.base.Preconditions.checkState;
+import static io.prestosql.execution.StageInfo.getAllStages;
+import static io.prestosql.operator.StackSampleFormatter.formatHotFrames;
 import static io.prestosql.spi.type.VarcharType.VARCHAR;
 import static io.prestosql.sql.planner.planprinter.PlanPrinter.textDistributedPlan;
 import static java.util.Objects.requireNonNull;
@@ -39,6 +42,8 @@ import static java.util.Objects.requireNonNull;
 public class ExplainAnalyzeOperator
         implements Operator
 {
+    private static final int HOT_FRAMES_PER_OPERATOR = 5;
+
     public static class ExplainAnalyzeOperatorFactory
             implements OperatorFactory
     {
@@ -170,7 +175,14 @@ public class ExplainAnalyzeOperator
             return null;
         }
 
-        String plan = textDistributedPlan(queryInfo.getOutputStage().get().getSubStages().get(0), metadata, operatorContext.getSession(), verbose);
+        StageInfo explainedStage = queryInfo.getOutputStage().get().getSubStages().get(0);
+        String plan = textDistributedPlan(explainedStage, metadata, operatorContext.getSession(), verbose);
+        if (verbose) {
+            String hotFrames = formatHotFrames(getAllStages(Optional.of(explainedStage)), HOT_FRAMES_PER_OPERATOR);
+            if (!hotFrames.isEmpty()) {
+                plan += "\nHot frames:\n" + hotFrames;
+            }
+        }
         BlockBuilder builder = VARCHAR.createBlockBuilder(null, 1);
         VARCHAR.writeString(builder, plan);
 
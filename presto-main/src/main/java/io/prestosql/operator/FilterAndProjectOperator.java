@@ -14,6 +14,7 @@
 package io.prestosql.operator;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.units.DataSize;
 import io.prestosql.memory.context.LocalMemoryContext;
 import io.prestosql.operator.project.MergingPageOutput;
@@ -88,6 +89,13 @@ public class FilterAndProjectOperator
         return finished;
     }
 
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        // pages are only added once the filter and projections compiled in the background are ready
+        return processor.isBlocked();
+    }
+
     @Override
     public final boolean needsInput()
     {
@@ -107,11 +115,14 @@ public class FilterAndProjectOperator
         requireNonNull(page, "page is null");
         checkState(mergingOutput.needsInput(), "Page buffer is full");
 
+        long interpretedPages = processor.getInterpretedPages();
+        long compiledPages = processor.getCompiledPages();
         mergingOutput.addInput(processor.process(
                 operatorContext.getSession().toConnectorSession(),
                 operatorContext.getDriverContext().getYieldSignal(),
                 pageProcessorMemoryContext,
                 page));
+        operatorContext.recordProcessedPages(processor.getInterpretedPages() - interpretedPages, processor.getCompiledPages() - compiledPages);
         outputMemoryContext.setBytes(mergingOutput.getRetainedSizeInBytes() + pageProcessorMemoryContext.getBytes());
     }
 
@@ -15,13 +15,17 @@ package io.prestosql.operator;
 
 import io.prestosql.spi.Page;
 import io.prestosql.spi.PageBuilder;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.DictionaryBlock;
 import org.openjdk.jol.info.ClassLayout;
 
 import javax.annotation.Nullable;
 
+import java.util.Arrays;
 import java.util.Optional;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.slice.SizeOf.sizeOf;
 import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
 
@@ -30,6 +34,8 @@ public final class JoinHash
         implements LookupSource
 {
     private static final int INSTANCE_SIZE = ClassLayout.parseClass(JoinHash.class).instanceSize();
+    private static final int UNKNOWN_ADDRESS = -2;
+
     private final IPagesHash pagesHash;
 
     // we unwrap Optional<JoinFilterFunction> to actual verifier or null in constructor for performance reasons
@@ -42,6 +48,15 @@ public final class JoinHash
     @Nullable
     private final PositionLinks positionLinks;
 
+    // address indexes of the entries of the last probe dictionary, which are independent of the join filter.
+    // Each probe operator gets its own JoinHash, so the cache is kept across the pages sharing the dictionary.
+    @Nullable
+    private Block lookBackDictionary;
+    @Nullable
+    private int[] addressIndexByDictionaryId;
+    @Nullable
+    private Block lastDictionary;
+
     public JoinHash(IPagesHash pagesHash, Optional<JoinFilterFunction> filterFunction, Optional<PositionLinks> positionLinks)
     {
         this.pagesHash = requireNonNull(pagesHash, "pagesHash is null");
@@ -70,7 +85,19 @@ public final class JoinHash
     @Override
     public long getInMemorySizeInBytes()
     {
-        return INSTANCE_SIZE + pagesHash.getInMemorySizeInBytes() + (positionLinks == null ? 0 : positionLinks.getSizeInBytes());
+        return INSTANCE_SIZE + pagesHash.getInMemorySizeInBytes() + (positionLinks == null ? 0 : positionLinks.getSizeInBytes()) + getDictionaryCacheSizeInBytes();
+    }
+
+    private long getDictionaryCacheSizeInBytes()
+    {
+        long size = sizeOf(addressIndexByDictionaryId);
+        if (lookBackDictionary != null) {
+            size += lookBackDictionary.getRetainedSizeInBytes();
+        }
+        if (lastDictionary != null && lastDictionary != lookBackDictionary) {
+            size += lastDictionary.getRetainedSizeInBytes();
+        }
+        return size;
     }
 
     @Override
@@ -144,6 +171,45 @@ public final class JoinHash
         startJoinPosition(addressIndexex, positions, allChannelsPage, result);
     }
 
+    @Override
+    public void getJoinPosition(int[] positions, DictionaryBlock probeBlock, Page allChannelsPage, @Nullable long[] rawHashes, long[] result)
+    {
+        Block dictionary = probeBlock.getDictionary();
+        if (dictionary != lookBackDictionary) {
+            // a dictionary larger than the page only pays off if the next pages share it
+            boolean seenBefore = dictionary == lastDictionary;
+            lastDictionary = dictionary;
+            if (!seenBefore && dictionary.getPositionCount() > positions.length) {
+                // the cached dictionary is not used anymore
+                lookBackDictionary = null;
+                addressIndexByDictionaryId = null;
+                LookupSource.super.getJoinPosition(positions, probeBlock, allChannelsPage, rawHashes, result);
+                return;
+            }
+            lookBackDictionary = dictionary;
+            addressIndexByDictionaryId = new int[dictionary.getPositionCount()];
+            Arrays.fill(addressIndexByDictionaryId, UNKNOWN_ADDRESS);
+        }
+
+        Page dictionaryPage = new Page(dictionary);
+        int[] addressIndexes = new int[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            int id = probeBlock.getId(positions[i]);
+            int addressIndex = addressIndexByDictionaryId[id];
+            if (addressIndex == UNKNOWN_ADDRESS) {
+                if (rawHashes == null) {
+                    addressIndex = pagesHash.getAddressIndex(id, dictionaryPage);
+                }
+                else {
+                    addressIndex = pagesHash.getAddressIndex(id, dictionaryPage, rawHashes[positions[i]]);
+                }
+                addressIndexByDictionaryId[id] = addressIndex;
+            }
+            addressIndexes[i] = addressIndex;
+        }
+        startJoinPosition(addressIndexes, positions, allChannelsPage, result);
+    }
+
     private long[] startJoinPosition(int[] currentJoinPositions, int[] probePositions, Page allProbeChannelsPage, long[] result)
     {
         checkArgument(currentJoinPositions.length == probePositions.length,
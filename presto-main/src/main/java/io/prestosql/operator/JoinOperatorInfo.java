@@ -32,16 +32,20 @@ public class JoinOperatorInfo
     private final long[] logHistogramProbes;
     private final long[] logHistogramOutput;
     private final Optional<Long> lookupSourcePositions;
+    private final long operatorCount;
+    private final long maxOperatorProbePositions;
 
     public static JoinOperatorInfo createJoinOperatorInfo(JoinType joinType, long[] logHistogramCounters, Optional<Long> lookupSourcePositions)
     {
         long[] logHistogramBucketsProbes = new long[HISTOGRAM_BUCKETS];
         long[] logHistogramBucketsOutput = new long[HISTOGRAM_BUCKETS];
+        long probePositions = 0;
         for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
             logHistogramBucketsProbes[i] = logHistogramCounters[2 * i];
             logHistogramBucketsOutput[i] = logHistogramCounters[2 * i + 1];
+            probePositions += logHistogramBucketsProbes[i];
         }
-        return new JoinOperatorInfo(joinType, logHistogramBucketsProbes, logHistogramBucketsOutput, lookupSourcePositions);
+        return new JoinOperatorInfo(joinType, logHistogramBucketsProbes, logHistogramBucketsOutput, lookupSourcePositions, 1, probePositions);
     }
 
     @JsonCreator
@@ -49,7 +53,9 @@ public class JoinOperatorInfo
             @JsonProperty("joinType") JoinType joinType,
             @JsonProperty("logHistogramProbes") long[] logHistogramProbes,
             @JsonProperty("logHistogramOutput") long[] logHistogramOutput,
-            @JsonProperty("lookupSourcePositions") Optional<Long> lookupSourcePositions)
+            @JsonProperty("lookupSourcePositions") Optional<Long> lookupSourcePositions,
+            @JsonProperty("operatorCount") long operatorCount,
+            @JsonProperty("maxOperatorProbePositions") long maxOperatorProbePositions)
     {
         checkArgument(logHistogramProbes.length == HISTOGRAM_BUCKETS);
         checkArgument(logHistogramOutput.length == HISTOGRAM_BUCKETS);
@@ -57,6 +63,8 @@ public class JoinOperatorInfo
         this.logHistogramProbes = logHistogramProbes;
         this.logHistogramOutput = logHistogramOutput;
         this.lookupSourcePositions = lookupSourcePositions;
+        this.operatorCount = operatorCount;
+        this.maxOperatorProbePositions = maxOperatorProbePositions;
     }
 
     @JsonProperty
@@ -86,6 +94,47 @@ public class JoinOperatorInfo
         return lookupSourcePositions;
     }
 
+    /**
+     * Number of join operators whose statistics were merged into this info
+     */
+    @JsonProperty
+    public long getOperatorCount()
+    {
+        return operatorCount;
+    }
+
+    /**
+     * Largest number of probe positions handled by a single join operator
+     */
+    @JsonProperty
+    public long getMaxOperatorProbePositions()
+    {
+        return maxOperatorProbePositions;
+    }
+
+    public long getTotalProbePositions()
+    {
+        long total = 0;
+        for (long probes : logHistogramProbes) {
+            total += probes;
+        }
+        return total;
+    }
+
+    /**
+     * Ratio of the probe positions handled by the busiest join operator to the average across operators.
+     * A join whose keys are evenly distributed is close to 1.
+     */
+    public double getProbeSkew()
+    {
+        long total = getTotalProbePositions();
+        // infos of workers that do not report the operator count carry no skew
+        if (total == 0 || operatorCount == 0) {
+            return 1.0;
+        }
+        return maxOperatorProbePositions / ((double) total / operatorCount);
+    }
+
     @Override
     public String toString()
     {
@@ -94,6 +143,8 @@ public class JoinOperatorInfo
                 .add("logHistogramProbes", logHistogramProbes)
                 .add("logHistogramOutput", logHistogramOutput)
                 .add("lookupSourcePositions", lookupSourcePositions)
+                .add("operatorCount", operatorCount)
+                .add("maxOperatorProbePositions", maxOperatorProbePositions)
                 .toString();
     }
 
@@ -113,7 +164,13 @@ public class JoinOperatorInfo
             mergedSourcePositions = Optional.of(this.lookupSourcePositions.orElse(0L) + other.lookupSourcePositions.orElse(0L));
         }
 
-        return new JoinOperatorInfo(this.joinType, logHistogramBucketsProbes, logHistogramBucketsOutput, mergedSourcePositions);
+        return new JoinOperatorInfo(
+                this.joinType,
+                logHistogramBucketsProbes,
+                logHistogramBucketsOutput,
+                mergedSourcePositions,
+                this.operatorCount + other.operatorCount,
+                Math.max(this.maxOperatorProbePositions, other.maxOperatorProbePositions));
     }
 
     @Override
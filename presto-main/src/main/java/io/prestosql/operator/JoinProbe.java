@@ -40,7 +40,7 @@ public class JoinProbe
         public JoinProbe createJoinProbe(Page page, boolean isSpilled, LookupSourceProvider lookupSourceProvider)
         {
             LookupSource lookupSource = lookupSourceProvider.withLease((lookupSourceLease -> lookupSourceLease.getLookupSource()));
-            if (isSpilled || !(lookupSource instanceof JoinHash || lookupSource instanceof OuterLookupSource)) {
+            if (isSpilled || !(lookupSource instanceof JoinHash || lookupSource instanceof OuterLookupSource || lookupSource instanceof PartitionedLookupSource)) {
                 return new JoinProbe(probeOutputChannels, page, probeJoinChannels, probeHashChannel);
             }
             else {
@@ -15,7 +15,9 @@ package io.prestosql.operator;
 
 import io.prestosql.spi.Page;
 import io.prestosql.spi.PageBuilder;
+import io.prestosql.spi.block.DictionaryBlock;
 
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.NotThreadSafe;
 
 import java.io.Closeable;
@@ -68,4 +70,20 @@ public interface LookupSource
             result[positions[i]] = getJoinPosition(positions[i], hashChannelsPage, allChannelsPage);
         }
     }
+
+    /**
+     * Same as the methods above for a probe whose only join channel is the dictionary encoded `probeBlock`,
+     * so implementations may search the hash once per dictionary entry. `rawHashes` is null if the probe
+     * has no precomputed hash channel
+     */
+    default void getJoinPosition(int[] positions, DictionaryBlock probeBlock, Page allChannelsPage, @Nullable long[] rawHashes, long[] result)
+    {
+        Page hashChannelsPage = new Page(probeBlock);
+        if (rawHashes == null) {
+            getJoinPosition(positions, hashChannelsPage, allChannelsPage, result);
+        }
+        else {
+            getJoinPosition(positions, hashChannelsPage, allChannelsPage, rawHashes, result);
+        }
+    }
 }
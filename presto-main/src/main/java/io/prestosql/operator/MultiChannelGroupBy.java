@@ -56,6 +56,7 @@ public abstract class MultiChannelGroupBy
 
     protected DictionaryLookBack dictionaryLookBack;
     protected boolean processDictionary;
+    private Block lastDictionary;
     protected long currentPageSizeInBytes;
 
     public MultiChannelGroupBy(List<? extends Type> hashTypes, int[] hashChannels, Optional<Integer> inputHashChannel, int expectedSize,
@@ -98,23 +99,42 @@ public abstract class MultiChannelGroupBy
 
     protected boolean canProcessDictionary(Page page)
     {
-        if (!this.processDictionary || channels.length > 1 || !(page.getBlock(channels[0]) instanceof DictionaryBlock)) {
+        if (channels.length > 1 || !(page.getBlock(channels[0]) instanceof DictionaryBlock)) {
             return false;
         }
+        DictionaryBlock inputDataBlock = (DictionaryBlock) page.getBlock(channels[0]);
 
         if (inputHashChannel.isPresent()) {
             Block inputHashBlock = page.getBlock(inputHashChannel.get());
-            DictionaryBlock inputDataBlock = (DictionaryBlock) page.getBlock(channels[0]);
 
             if (!(inputHashBlock instanceof DictionaryBlock)) {
                 // data channel is dictionary encoded but hash channel is not
                 return false;
             }
-            // dictionarySourceIds of data block and hash block do not match
-            return ((DictionaryBlock) inputHashBlock).getDictionarySourceId().equals(inputDataBlock.getDictionarySourceId());
+            if (!((DictionaryBlock) inputHashBlock).getDictionarySourceId().equals(inputDataBlock.getDictionarySourceId())) {
+                // dictionarySourceIds of data block and hash block do not match
+                return false;
+            }
         }
 
-        return true;
+        return this.processDictionary || isDictionaryWorthProcessing(inputDataBlock);
+    }
+
+    private boolean isDictionaryWorthProcessing(DictionaryBlock block)
+    {
+        Block dictionary = block.getDictionary();
+        if (dictionaryLookBack != null && dictionaryLookBack.getDictionary() == dictionary) {
+            // the group ids of this dictionary are already known
+            return true;
+        }
+        if (dictionary.getPositionCount() <= block.getPositionCount()) {
+            return true;
+        }
+        // ORC and Parquet readers share a dictionary between all pages of a stripe or row group, so even a
+        // dictionary larger than the page pays off once it is seen for the second time
+        boolean seenBefore = dictionary == lastDictionary;
+        lastDictionary = dictionary;
+        return seenBefore;
     }
 
     protected boolean isRunLengthEncoded(Page page)
@@ -49,7 +49,7 @@ import static java.util.Objects.requireNonNull;
 
 // This implementation assumes arrays used in the hash are always a power of 2
 @RestorableConfig(uncapturedFields = {"types", "hashTypes", "channels", "hashStrategy",
-        "inputHashChannel", "processDictionary", "hashGenerator", "updateMemory"})
+        "inputHashChannel", "processDictionary", "lastDictionary", "hashGenerator", "updateMemory"})
 public class MultiChannelGroupByHash
         extends MultiChannelGroupBy implements GroupByHash
 {
@@ -41,6 +41,7 @@ import javax.annotation.concurrent.ThreadSafe;
 
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicLong;
@@ -72,7 +73,7 @@ import static java.util.concurrent.TimeUnit.NANOSECONDS;
         "internalNetworkInputDataSize", "internalNetworkPositions", "addInputTiming", "inputDataSize", "inputPositions", "getOutputTiming", "outputDataSize", "outputPositions",
         "physicalWrittenDataSize", "memoryFuture", "revocableMemoryFuture", "blockedMonitor", "blockedWallNanos", "finishTiming", "spillContext", "infoSupplier",
         "nestedOperatorStatsSupplier", "peakUserMemoryReservation", "peakSystemMemoryReservation", "peakRevocableMemoryReservation", "peakTotalMemoryReservation",
-        "memoryRevokingRequested", "memoryRevocationRequestListener", "operatorMemoryContext"})
+        "memoryRevokingRequested", "memoryRevocationRequestListener", "operatorMemoryContext", "stackSamples", "interpretedPages", "compiledPages"})
 public class OperatorContext
         implements Restorable
 {
@@ -98,6 +99,9 @@ public class OperatorContext
 
     private final AtomicLong physicalWrittenDataSize = new AtomicLong();
 
+    private final AtomicLong interpretedPages = new AtomicLong();
+    private final AtomicLong compiledPages = new AtomicLong();
+
     private final AtomicReference<SettableFuture<?>> memoryFuture;
     private final AtomicReference<SettableFuture<?>> revocableMemoryFuture;
     private final AtomicReference<BlockedMonitor> blockedMonitor = new AtomicReference<>();
@@ -108,6 +112,7 @@ public class OperatorContext
     private final OperatorSpillContext spillContext;
     private final AtomicReference<Supplier<OperatorInfo>> infoSupplier = new AtomicReference<>();
     private final AtomicReference<Supplier<List<OperatorStats>>> nestedOperatorStatsSupplier = new AtomicReference<>();
+    private final OperatorStackSamples stackSamples = new OperatorStackSamples();
 
     private final AtomicLong peakUserMemoryReservation = new AtomicLong();
     private final AtomicLong peakSystemMemoryReservation = new AtomicLong();
@@ -238,6 +243,15 @@ public class OperatorContext
         physicalWrittenDataSize.getAndAdd(sizeInBytes);
     }
 
+    /**
+     * Records pages processed with interpreted and with compiled filters and projections.
+     */
+    public void recordProcessedPages(long interpretedPages, long compiledPages)
+    {
+        this.interpretedPages.getAndAdd(interpretedPages);
+        this.compiledPages.getAndAdd(compiledPages);
+    }
+
     public void recordBlocked(ListenableFuture<?> blocked)
     {
         requireNonNull(blocked, "blocked is null");
@@ -515,6 +529,16 @@ public class OperatorContext
         return physicalWrittenDataSize.get();
     }
 
+    public void recordStackSample(StackTraceElement[] stackTrace)
+    {
+        stackSamples.record(stackTrace);
+    }
+
+    public Map<String, Long> getStackSamples()
+    {
+        return stackSamples.getSamples();
+    }
+
     @Override
     public String toString()
     {
@@ -577,6 +601,9 @@ public class OperatorContext
                 new Duration(spillContext.getSpillReadTime(), MILLISECONDS).convertToMostSuccinctTimeUnit(),
                 new Duration(spillContext.getSpillWriteTime(), MILLISECONDS).convertToMostSuccinctTimeUnit(),
                 memoryFuture.get().isDone() ? Optional.empty() : Optional.of(WAITING_FOR_MEMORY),
+                stackSamples.getSamples(),
+                interpretedPages.get(),
+                compiledPages.get(),
                 info);
     }
 
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2018-2022. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+
+/**
+ * Stack samples of the threads running an operator, folded into
+ * root-first {@code frame;frame;...} strings as consumed by flame graph tools.
+ */
+@ThreadSafe
+public class OperatorStackSamples
+{
+    public static final String OTHER_STACKS = "[other]";
+
+    @VisibleForTesting
+    static final int MAX_DISTINCT_STACKS = 1000;
+    private static final int MAX_STACK_DEPTH = 128;
+    private static final String DRIVER_CLASS_NAME = Driver.class.getName();
+
+    private final Map<String, Long> samples = new ConcurrentHashMap<>();
+
+    public void record(StackTraceElement[] stackTrace)
+    {
+        String stack = fold(stackTrace);
+        if (stack.isEmpty()) {
+            return;
+        }
+        if (samples.size() >= MAX_DISTINCT_STACKS && !samples.containsKey(stack)) {
+            stack = OTHER_STACKS;
+        }
+        samples.merge(stack, 1L, Long::sum);
+    }
+
+    public Map<String, Long> getSamples()
+    {
+        return ImmutableMap.copyOf(samples);
+    }
+
+    /**
+     * Folds a stack trace into a root-first string, dropping the driver and
+     * task executor frames which are the same for every sample.
+     */
+    @VisibleForTesting
+    static String fold(StackTraceElement[] stackTrace)
+    {
+        int end = stackTrace.length;
+        for (int i = 0; i < stackTrace.length; i++) {
+            if (stackTrace[i].getClassName().equals(DRIVER_CLASS_NAME)) {
+                end = i;
+                break;
+            }
+        }
+
+        StringBuilder builder = new StringBuilder();
+        for (int i = end - 1; i >= 0 && end - i <= MAX_STACK_DEPTH; i--) {
+            if (builder.length() > 0) {
+                builder.append(';');
+            }
+            builder.append(stackTrace[i].getClassName()).append('.').append(stackTrace[i].getMethodName());
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Keeps the most sampled stacks and folds the remaining ones into {@link #OTHER_STACKS}.
+     */
+    public static Map<String, Long> limit(Map<String, Long> samples)
+    {
+        if (samples.size() <= MAX_DISTINCT_STACKS) {
+            return ImmutableMap.copyOf(samples);
+        }
+
+        Map<String, Long> top = samples.entrySet().stream()
+                .filter(entry -> !entry.getKey().equals(OTHER_STACKS))
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(MAX_DISTINCT_STACKS - 1)
+                .collect(toImmutableMap(Map.Entry::getKey, Map.Entry::getValue));
+        long total = samples.values().stream().mapToLong(Long::longValue).sum();
+        long kept = top.values().stream().mapToLong(Long::longValue).sum();
+
+        return ImmutableMap.<String, Long>builder()
+                .putAll(top)
+                .put(OTHER_STACKS, total - kept)
+                .build();
+    }
+}
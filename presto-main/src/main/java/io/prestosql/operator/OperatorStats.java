@@ -16,6 +16,7 @@ package io.prestosql.operator;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 import io.prestosql.spi.plan.PlanNodeId;
@@ -24,6 +25,8 @@ import io.prestosql.util.Mergeable;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 
 import static com.google.common.base.Preconditions.checkArgument;
@@ -83,6 +86,11 @@ public class OperatorStats
 
     private final Optional<BlockedReason> blockedReason;
 
+    private final Map<String, Long> stackSamples;
+
+    private final long interpretedPages;
+    private final long compiledPages;
+
     private final OperatorInfo info;
 
     @JsonCreator
@@ -135,6 +143,11 @@ public class OperatorStats
 
             @JsonProperty("blockedReason") Optional<BlockedReason> blockedReason,
 
+            @JsonProperty("stackSamples") Map<String, Long> stackSamples,
+
+            @JsonProperty("interpretedPages") long interpretedPages,
+            @JsonProperty("compiledPages") long compiledPages,
+
             @JsonProperty("info") OperatorInfo info)
     {
         this.stageId = stageId;
@@ -190,6 +203,13 @@ public class OperatorStats
 
         this.blockedReason = blockedReason;
 
+        this.stackSamples = stackSamples == null ? ImmutableMap.of() : ImmutableMap.copyOf(stackSamples);
+
+        checkArgument(interpretedPages >= 0, "interpretedPages is negative");
+        this.interpretedPages = interpretedPages;
+        checkArgument(compiledPages >= 0, "compiledPages is negative");
+        this.compiledPages = compiledPages;
+
         this.info = info;
     }
 
@@ -421,6 +441,30 @@ public class OperatorStats
         return blockedReason;
     }
 
+    /**
+     * Folded stacks sampled while this operator was running, see {@link OperatorStackSamples}.
+     */
+    @JsonProperty
+    public Map<String, Long> getStackSamples()
+    {
+        return stackSamples;
+    }
+
+    /**
+     * Pages processed while the filter or a projection was interpreted because its compiled form was not ready yet.
+     */
+    @JsonProperty
+    public long getInterpretedPages()
+    {
+        return interpretedPages;
+    }
+
+    @JsonProperty
+    public long getCompiledPages()
+    {
+        return compiledPages;
+    }
+
     @Nullable
     @JsonProperty
     public OperatorInfo getInfo()
@@ -477,6 +521,11 @@ public class OperatorStats
 
         Optional<BlockedReason> blockedReasonOptional = this.blockedReason;
 
+        Map<String, Long> mergedStackSamples = new HashMap<>(this.stackSamples);
+
+        long interpretedPages = this.interpretedPages;
+        long compiledPages = this.compiledPages;
+
         Mergeable<OperatorInfo> base = getMergeableInfoOrNull(info);
         for (OperatorStats operator : operators) {
             checkArgument(operator.getOperatorId() == operatorId, "Expected operatorId to be %s but was %s", operatorId, operator.getOperatorId());
@@ -526,6 +575,11 @@ public class OperatorStats
                 blockedReasonOptional = operator.getBlockedReason();
             }
 
+            operator.getStackSamples().forEach((stack, count) -> mergedStackSamples.merge(stack, count, Long::sum));
+
+            interpretedPages += operator.getInterpretedPages();
+            compiledPages += operator.getCompiledPages();
+
             OperatorInfo operatorInfo = operator.getInfo();
             if (base != null && operatorInfo != null && base.getClass() == operatorInfo.getClass()) {
                 base = mergeInfo(base, operatorInfo);
@@ -580,6 +634,11 @@ public class OperatorStats
                 new Duration(spillWrite, NANOSECONDS).convertToMostSuccinctTimeUnit(),
                 blockedReasonOptional,
 
+                OperatorStackSamples.limit(mergedStackSamples),
+
+                interpretedPages,
+                compiledPages,
+
                 (OperatorInfo) base);
     }
 
@@ -640,6 +699,9 @@ public class OperatorStats
                 spillReadTime,
                 spillWriteTime,
                 blockedReason,
+                stackSamples,
+                interpretedPages,
+                compiledPages,
                 (info != null && info.isFinal()) ? info : null);
     }
 }
@@ -15,7 +15,9 @@ package io.prestosql.operator;
 
 import io.prestosql.spi.Page;
 import io.prestosql.spi.PageBuilder;
+import io.prestosql.spi.block.DictionaryBlock;
 
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.NotThreadSafe;
 import javax.annotation.concurrent.ThreadSafe;
@@ -88,6 +90,12 @@ public final class OuterLookupSource
         return lookupSource.getJoinPosition(position, hashChannelsPage, allChannelsPage);
     }
 
+    @Override
+    public void getJoinPosition(int[] positions, DictionaryBlock probeBlock, Page allChannelsPage, @Nullable long[] rawHashes, long[] result)
+    {
+        lookupSource.getJoinPosition(positions, probeBlock, allChannelsPage, rawHashes, result);
+    }
+
     @Override
     public long getNextJoinPosition(long currentJoinPosition, int probePosition, Page allProbeChannelsPage)
     {
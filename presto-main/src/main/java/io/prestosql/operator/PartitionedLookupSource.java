@@ -20,6 +20,8 @@ import com.google.common.util.concurrent.SettableFuture;
 import io.prestosql.operator.exchange.LocalPartitionGenerator;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.PageBuilder;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.DictionaryBlock;
 import io.prestosql.spi.type.Type;
 import org.roaringbitmap.RoaringBitmap;
 import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
@@ -47,6 +49,7 @@ import static com.google.common.base.Verify.verify;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.util.concurrent.Futures.immediateFuture;
 import static io.airlift.concurrent.MoreFutures.whenAnyComplete;
+import static io.airlift.slice.SizeOf.sizeOf;
 import static java.lang.Integer.numberOfTrailingZeros;
 import static java.lang.Math.toIntExact;
 
@@ -54,6 +57,8 @@ import static java.lang.Math.toIntExact;
 public class PartitionedLookupSource
         implements LookupSource
 {
+    private static final int UNKNOWN_PARTITION = -1;
+
     public static TrackingLookupSourceSupplier createPartitionedLookupSourceSupplier(List<Supplier<LookupSource>> partitions,
             List<Type> hashChannelTypes, boolean outer, Object restoredJoinPositions)
     {
@@ -129,6 +134,10 @@ public class PartitionedLookupSource
 
     private boolean closed;
 
+    @Nullable
+    private Block lookBackDictionary;
+    private int[] dictionaryPartitions;
+
     private PartitionedLookupSource(List<? extends LookupSource> lookupSources, List<Type> hashChannelTypes, Optional<OuterPositionTracker> outerPositionTracker)
     {
         this.lookupSources = lookupSources.toArray(new LookupSource[lookupSources.size()]);
@@ -169,7 +178,8 @@ public class PartitionedLookupSource
     @Override
     public long getInMemorySizeInBytes()
     {
-        return Arrays.stream(lookupSources).mapToLong(LookupSource::getInMemorySizeInBytes).sum();
+        long dictionaryCacheSize = sizeOf(dictionaryPartitions) + (lookBackDictionary == null ? 0 : lookBackDictionary.getRetainedSizeInBytes());
+        return Arrays.stream(lookupSources).mapToLong(LookupSource::getInMemorySizeInBytes).sum() + dictionaryCacheSize;
     }
 
     @Override
@@ -193,16 +203,65 @@ public class PartitionedLookupSource
     @Override
     public void getJoinPosition(int[] positions, Page hashChannelsPage, Page allChannelsPage, long[] rawHashes, long[] result)
     {
-        int positionCount = positions.length;
+        int[] partitions = new int[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            partitions[i] = partitionGenerator.getPartition(rawHashes[positions[i]]);
+        }
+
+        // Delegate partitioned positions to designated lookup sources
+        int[][] positionsPerPartition = getPositionsPerPartition(positions, partitions);
+        for (int partition = 0; partition < positionsPerPartition.length; partition++) {
+            lookupSources[partition].getJoinPosition(positionsPerPartition[partition], hashChannelsPage, allChannelsPage, rawHashes, result);
+        }
+        encodePartitionedJoinPositions(positions, partitions, result);
+    }
+
+    @Override
+    public void getJoinPosition(int[] positions, DictionaryBlock probeBlock, Page allChannelsPage, @Nullable long[] rawHashes, long[] result)
+    {
+        int[] partitions = new int[positions.length];
+        if (rawHashes != null) {
+            for (int i = 0; i < positions.length; i++) {
+                partitions[i] = partitionGenerator.getPartition(rawHashes[positions[i]]);
+            }
+        }
+        else {
+            // the partition only depends on the dictionary entry, so it is computed once per entry
+            // and kept while the following pages share the dictionary
+            Block dictionary = probeBlock.getDictionary();
+            if (dictionary != lookBackDictionary) {
+                lookBackDictionary = dictionary;
+                dictionaryPartitions = new int[dictionary.getPositionCount()];
+                Arrays.fill(dictionaryPartitions, UNKNOWN_PARTITION);
+            }
+            int[] partitionByDictionaryId = dictionaryPartitions;
+            Page dictionaryPage = new Page(dictionary);
+            for (int i = 0; i < positions.length; i++) {
+                int id = probeBlock.getId(positions[i]);
+                if (partitionByDictionaryId[id] == UNKNOWN_PARTITION) {
+                    partitionByDictionaryId[id] = partitionGenerator.getPartition(dictionaryPage, id);
+                }
+                partitions[i] = partitionByDictionaryId[id];
+            }
+        }
+
+        // every lookup source gets the dictionary block, so it can search its hash once per dictionary entry
+        int[][] positionsPerPartition = getPositionsPerPartition(positions, partitions);
+        for (int partition = 0; partition < positionsPerPartition.length; partition++) {
+            if (positionsPerPartition[partition].length > 0) {
+                lookupSources[partition].getJoinPosition(positionsPerPartition[partition], probeBlock, allChannelsPage, rawHashes, result);
+            }
+        }
+        encodePartitionedJoinPositions(positions, partitions, result);
+    }
+
+    private int[][] getPositionsPerPartition(int[] positions, int[] partitions)
+    {
         int partitionCount = partitionGenerator.getPartitionCount();
 
-        int[] partitions = new int[positionCount];
+        // Calculate the size of every partition
         int[] partitionPositionsCount = new int[partitionCount];
-
-        // Get the partitions for every position and calculate the size of every partition
-        for (int i = 0; i < positionCount; i++) {
-            int partition = partitionGenerator.getPartition(rawHashes[positions[i]]);
-            partitions[i] = partition;
+        for (int partition : partitions) {
             partitionPositionsCount[partition]++;
         }
 
@@ -213,20 +272,21 @@ public class PartitionedLookupSource
 
         // Split input positions into partitions
         int[] positionsPerPartitionCount = new int[partitionCount];
-        for (int i = 0; i < positionCount; i++) {
+        for (int i = 0; i < positions.length; i++) {
             int partition = partitions[i];
             positionsPerPartition[partition][positionsPerPartitionCount[partition]] = positions[i];
             positionsPerPartitionCount[partition]++;
         }
+        return positionsPerPartition;
+    }
 
-        // Delegate partitioned positions to designated lookup sources
-        for (int partition = 0; partition < partitionCount; partition++) {
-            lookupSources[partition].getJoinPosition(positionsPerPartition[partition], hashChannelsPage, allChannelsPage, rawHashes, result);
-        }
-
-        for (int i = 0; i < positionCount; i++) {
-            int partition = partitions[i];
-            result[positions[i]] = encodePartitionedJoinPosition(partition, (int) result[positions[i]]);
+    private void encodePartitionedJoinPositions(int[] positions, int[] partitions, long[] result)
+    {
+        for (int i = 0; i < positions.length; i++) {
+            long joinPosition = result[positions[i]];
+            if (joinPosition >= 0) {
+                result[positions[i]] = encodePartitionedJoinPosition(partitions[i], toIntExact(joinPosition));
+            }
         }
     }
 
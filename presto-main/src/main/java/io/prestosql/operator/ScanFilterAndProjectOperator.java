@@ -18,6 +18,9 @@ import io.airlift.log.Logger;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 import io.prestosql.Session;
+import io.prestosql.cache.CachedSplitPageSource;
+import io.prestosql.cache.RecordingSplitPageSource;
+import io.prestosql.cache.SplitPageCache;
 import io.prestosql.connector.DataCenterUtility;
 import io.prestosql.dynamicfilter.DynamicFilterCacheManager;
 import io.prestosql.memory.context.AggregatedMemoryContext;
@@ -56,6 +59,7 @@ import io.prestosql.statestore.StateStoreProvider;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -80,6 +84,7 @@ public class ScanFilterAndProjectOperator
         implements WorkProcessorSourceOperator
 {
     private final WorkProcessor<Page> pages;
+    private final PageProcessor pageProcessor;
 
     private RecordCursor cursor;
     private ConnectorPageSource pageSource;
@@ -109,8 +114,10 @@ public class ScanFilterAndProjectOperator
             Optional<StateStoreProvider> stateStoreProviderOptional,
             Optional<QueryId> queryIdOptional,
             Optional<Metadata> metadataOptional,
-            Optional<DynamicFilterCacheManager> dynamicFilterCacheManagerOptional)
+            Optional<DynamicFilterCacheManager> dynamicFilterCacheManagerOptional,
+            Optional<SplitPageCache> splitPageCacheOptional)
     {
+        this.pageProcessor = requireNonNull(pageProcessor, "pageProcessor is null");
         pages = splits.flatTransform(
                 new SplitToPages(
                         session,
@@ -129,7 +136,8 @@ public class ScanFilterAndProjectOperator
                         stateStoreProviderOptional,
                         queryIdOptional,
                         metadataOptional,
-                        dynamicFilterCacheManagerOptional));
+                        dynamicFilterCacheManagerOptional,
+                        splitPageCacheOptional));
     }
 
     @Override
@@ -173,6 +181,18 @@ public class ScanFilterAndProjectOperator
         return new Duration(readTimeNanos, NANOSECONDS);
     }
 
+    @Override
+    public long getInterpretedPages()
+    {
+        return pageProcessor.getInterpretedPages();
+    }
+
+    @Override
+    public long getCompiledPages()
+    {
+        return pageProcessor.getCompiledPages();
+    }
+
     @Override
     public WorkProcessor<Page> getOutputPages()
     {
@@ -219,6 +239,7 @@ public class ScanFilterAndProjectOperator
         final Optional<QueryId> queryIdOptional;
         final Optional<Metadata> metadataOptional;
         final Optional<DynamicFilterCacheManager> dynamicFilterCacheManagerOptional;
+        final Optional<SplitPageCache> splitPageCacheOptional;
         final int minOutputPageRowCount;
 
         SplitToPages(
@@ -238,7 +259,8 @@ public class ScanFilterAndProjectOperator
                 Optional<StateStoreProvider> stateStoreProviderOptional,
                 Optional<QueryId> queryIdOptional,
                 Optional<Metadata> metadataOptional,
-                Optional<DynamicFilterCacheManager> dynamicFilterCacheManagerOptional)
+                Optional<DynamicFilterCacheManager> dynamicFilterCacheManagerOptional,
+                Optional<SplitPageCache> splitPageCacheOptional)
         {
             this.session = requireNonNull(session, "session is null");
             this.yieldSignal = requireNonNull(yieldSignal, "yieldSignal is null");
@@ -260,6 +282,7 @@ public class ScanFilterAndProjectOperator
             this.queryIdOptional = queryIdOptional;
             this.metadataOptional = metadataOptional;
             this.dynamicFilterCacheManagerOptional = dynamicFilterCacheManagerOptional;
+            this.splitPageCacheOptional = requireNonNull(splitPageCacheOptional, "splitPageCacheOptional is null");
         }
 
         @Override
@@ -277,7 +300,7 @@ public class ScanFilterAndProjectOperator
                 source = new EmptySplitPageSource();
             }
             else {
-                source = pageSourceProvider.createPageSource(session, split, table, columns, dynamicFilter);
+                source = createPageSource(split);
             }
 
             if (source instanceof RecordPageSource) {
@@ -290,6 +313,28 @@ public class ScanFilterAndProjectOperator
             }
         }
 
+        private ConnectorPageSource createPageSource(Split split)
+        {
+            // pages read with dynamic filters applied only hold the rows needed by this query
+            Optional<SplitPageCache.Key> key = Optional.empty();
+            if (splitPageCacheOptional.isPresent() && !dynamicFilter.isPresent()) {
+                key = splitPageCacheOptional.get().createKey(split, table, columns);
+            }
+            if (key.isPresent()) {
+                Optional<Iterator<Page>> cachedPages = splitPageCacheOptional.get().getPages(key.get());
+                if (cachedPages.isPresent()) {
+                    return new CachedSplitPageSource(cachedPages.get());
+                }
+            }
+
+            ConnectorPageSource source = pageSourceProvider.createPageSource(session, split, table, columns, dynamicFilter);
+            // pages of sources updated through the scan are never cached, so scans feeding an update never hit the cache
+            if (key.isPresent() && !(source instanceof RecordPageSource) && !(source instanceof UpdatablePageSource)) {
+                return new RecordingSplitPageSource(source, splitPageCacheOptional.get().newRecorder(key.get()));
+            }
+            return source;
+        }
+
         WorkProcessor<Page> processColumnSource()
         {
             return WorkProcessor
@@ -549,6 +594,7 @@ public class ScanFilterAndProjectOperator
         private Optional<QueryId> queryIdOptional = Optional.empty();
         private Optional<Metadata> metadataOptional = Optional.empty();
         private Optional<DynamicFilterCacheManager> dynamicFilterCacheManagerOptional = Optional.empty();
+        private Optional<SplitPageCache> splitPageCacheOptional = Optional.empty();
         private final ReuseExchangeOperator.STRATEGY strategy;
         private final UUID reuseTableScanMappingId;
         private final boolean spillEnabled;
@@ -578,7 +624,8 @@ public class ScanFilterAndProjectOperator
                 boolean spillEnabled,
                 Optional<SpillerFactory> spillerFactory,
                 Integer spillerThreshold,
-                Integer consumerTableScanNodeCount)
+                Integer consumerTableScanNodeCount,
+                SplitPageCache splitPageCache)
         {
             this(operatorId, planNodeId, sourceNode.getId(), pageSourceProvider, cursorProcessor, pageProcessor, table, columns, dynamicFilter, types, minOutputPageSize, minOutputPageRowCount, strategy, reuseTableScanMappingId, spillEnabled, spillerFactory, spillerThreshold, consumerTableScanNodeCount);
 
@@ -593,6 +640,7 @@ public class ScanFilterAndProjectOperator
                 this.metadataOptional = Optional.of(metadata);
                 this.dynamicFilterCacheManagerOptional = Optional.of(dynamicFilterCacheManager);
             }
+            this.splitPageCacheOptional = Optional.of(requireNonNull(splitPageCache, "splitPageCache is null"));
         }
 
         public ScanFilterAndProjectOperatorFactory(
@@ -686,7 +734,8 @@ public class ScanFilterAndProjectOperator
                     this.stateStoreProviderOptional,
                     queryIdOptional,
                     metadataOptional,
-                    dynamicFilterCacheManagerOptional);
+                    dynamicFilterCacheManagerOptional,
+                    splitPageCacheOptional);
         }
 
         @Override
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2018-2022. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import io.prestosql.execution.StageInfo;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.lang.String.format;
+
+public final class StackSampleFormatter
+{
+    private StackSampleFormatter() {}
+
+    /**
+     * Formats the stack samples of all operators in the collapsed format read by flamegraph.pl,
+     * one {@code fragment;pipeline;operator;frame;...;frame count} line per distinct stack.
+     */
+    public static String formatCollapsedStacks(List<StageInfo> stages)
+    {
+        StringBuilder builder = new StringBuilder();
+        for (StageInfo stage : stages) {
+            for (OperatorStats operator : stage.getStageStats().getOperatorSummaries()) {
+                String prefix = format("Fragment %s;Pipeline %s;%s[%s]", stage.getStageId().getId(), operator.getPipelineId(), operator.getOperatorType(), operator.getPlanNodeId());
+                operator.getStackSamples().forEach((stack, count) -> builder.append(prefix).append(';').append(stack).append(' ').append(count).append('\n'));
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Formats, for every sampled operator, the leaf frames in which most of its samples were taken.
+     */
+    public static String formatHotFrames(List<StageInfo> stages, int maxFramesPerOperator)
+    {
+        StringBuilder builder = new StringBuilder();
+        for (StageInfo stage : stages) {
+            for (OperatorStats operator : stage.getStageStats().getOperatorSummaries()) {
+                if (operator.getStackSamples().isEmpty()) {
+                    continue;
+                }
+
+                long totalSamples = 0;
+                Map<String, Long> leafFrames = new HashMap<>();
+                for (Map.Entry<String, Long> entry : operator.getStackSamples().entrySet()) {
+                    String stack = entry.getKey();
+                    leafFrames.merge(stack.substring(stack.lastIndexOf(';') + 1), entry.getValue(), Long::sum);
+                    totalSamples += entry.getValue();
+                }
+
+                builder.append(format("Fragment %s, pipeline %s, %s [%s]: %s samples\n",
+                        stage.getStageId().getId(), operator.getPipelineId(), operator.getOperatorType(), operator.getPlanNodeId(), totalSamples));
+                long operatorSamples = totalSamples;
+                leafFrames.entrySet().stream()
+                        .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                        .limit(maxFramesPerOperator)
+                        .forEach(entry -> builder.append(format("    %5.1f%% %s\n", 100.0 * entry.getValue() / operatorSamples, entry.getKey())));
+            }
+        }
+        return builder.toString();
+    }
+}
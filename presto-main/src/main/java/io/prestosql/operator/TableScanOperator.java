@@ -19,6 +19,7 @@ import com.google.common.util.concurrent.SettableFuture;
 import io.airlift.log.Logger;
 import io.airlift.units.DataSize;
 import io.prestosql.Session;
+import io.prestosql.cache.SplitPageCache;
 import io.prestosql.connector.DataCenterUtility;
 import io.prestosql.dynamicfilter.DynamicFilterCacheManager;
 import io.prestosql.memory.context.LocalMemoryContext;
@@ -97,6 +98,7 @@ public class TableScanOperator
         private Optional<QueryId> queryIdOptional = Optional.empty();
         private Optional<Metadata> metadataOptional = Optional.empty();
         private Optional<DynamicFilterCacheManager> dynamicFilterCacheManagerOptional = Optional.empty();
+        private Optional<SplitPageCache> splitPageCacheOptional = Optional.empty();
         private final ReuseExchangeOperator.STRATEGY strategy;
         private final UUID reuseTableScanMappingId;
         private final boolean spillEnabled;
@@ -122,7 +124,8 @@ public class TableScanOperator
                 boolean spillEnabled,
                 Optional<SpillerFactory> spillerFactory,
                 Integer spillerThreshold,
-                Integer consumerTableScanNodeCount)
+                Integer consumerTableScanNodeCount,
+                SplitPageCache splitPageCache)
         {
             this(operatorId, sourceNode.getId(), pageSourceProvider, table, columns, types, minOutputPageSize, minOutputPageRowCount, strategy, reuseTableScanMappingId, spillEnabled, spillerFactory, spillerThreshold, consumerTableScanNodeCount);
             if (isCrossRegionDynamicFilterEnabled(session)) {
@@ -136,6 +139,7 @@ public class TableScanOperator
                 this.metadataOptional = Optional.of(metadata);
                 this.dynamicFilterCacheManagerOptional = Optional.of(dynamicFilterCacheManager);
             }
+            this.splitPageCacheOptional = Optional.of(requireNonNull(splitPageCache, "splitPageCache is null"));
         }
 
         public TableScanOperatorFactory(
@@ -214,6 +218,7 @@ public class TableScanOperator
                     queryIdOptional,
                     metadataOptional,
                     dynamicFilterCacheManagerOptional,
+                    splitPageCacheOptional,
                     strategy,
                     reuseTableScanMappingId,
                     types,
@@ -265,6 +270,9 @@ public class TableScanOperator
 
     private Split split;
     private ConnectorPageSource source;
+    // pages of the split served from the split page cache, instead of the source
+    private Iterator<Page> cachedPages;
+    private SplitPageCache.Recorder pageRecorder;
 
     private boolean finished;
 
@@ -279,6 +287,7 @@ public class TableScanOperator
     Map<Integer, BloomFilter> bloomFilters = new ConcurrentHashMap<>();
     Optional<Metadata> metadataOptional;
     Optional<DynamicFilterCacheManager> dynamicFilterCacheManagerOptional;
+    Optional<SplitPageCache> splitPageCacheOptional = Optional.empty();
     boolean existsCrossFilter;
     boolean isDcTable;
 
@@ -305,6 +314,7 @@ public class TableScanOperator
             Optional<QueryId> queryIdOptional,
             Optional<Metadata> metadataOptional,
             Optional<DynamicFilterCacheManager> dynamicFilterCacheManagerOptional,
+            Optional<SplitPageCache> splitPageCacheOptional,
             ReuseExchangeOperator.STRATEGY strategy,
             UUID reuseTableScanMappingId,
             List<Type> types,
@@ -319,6 +329,7 @@ public class TableScanOperator
         this.queryIdOptional = queryIdOptional;
         this.metadataOptional = metadataOptional;
         this.dynamicFilterCacheManagerOptional = dynamicFilterCacheManagerOptional;
+        this.splitPageCacheOptional = requireNonNull(splitPageCacheOptional, "splitPageCacheOptional is null");
 
         if (queryIdOptional.isPresent() && stateStoreProviderOptional.isPresent() && stateStoreProviderOptional.get().getStateStore() != null) {
             existsCrossFilter = true;
@@ -645,6 +656,8 @@ public class TableScanOperator
     {
         finished = true;
         blocked.set(null);
+        // the split was not read to the end
+        pageRecorder = null;
 
         if (source != null) {
             try {
@@ -664,6 +677,9 @@ public class TableScanOperator
             if (strategy.equals(REUSE_STRATEGY_CONSUMER)) {
                 finished = checkFinished();
             }
+            else if (cachedPages != null) {
+                finished = !cachedPages.hasNext();
+            }
             else {
                 finished = (source != null) && source.isFinished();
                 if (source != null) {
@@ -697,19 +713,76 @@ public class TableScanOperator
         if (split == null) {
             return null;
         }
-        if (source == null) {
-            if (isDcTable) {
-                source = pageSourceProvider.createPageSource(operatorContext.getSession(),
-                        split,
-                        table,
-                        columns,
-                        Optional.of(new DynamicFilterSupplier(BloomFilterUtils.getCrossRegionDynamicFilterSupplier(dynamicFilterCacheManagerOptional.get(), queryIdOptional.get().getId(), tableScanNodeOptional.get()), System.currentTimeMillis(), 0L)));
+        if (source == null && cachedPages == null) {
+            cachedPages = getCachedPages().orElse(null);
+            if (cachedPages == null) {
+                createSource();
             }
-            else {
-                source = pageSourceProvider.createPageSource(operatorContext.getSession(), split, table, columns, Optional.empty());
+        }
+
+        Page page = cachedPages != null ? getCachedPage() : getSourcePage();
+
+        // pull bloomFilter from stateStore and filter page
+        if (page != null && existsCrossFilter) {
+            try {
+                page = filter(page);
+            }
+            catch (Throwable e) {
+                // ignore
             }
         }
 
+        if (strategy.equals(REUSE_STRATEGY_PRODUCER) && page != null) {
+            setPage(page);
+        }
+
+        return page;
+    }
+
+    private Optional<Iterator<Page>> getCachedPages()
+    {
+        // splits of data center tables are read with the cross region dynamic filters applied
+        if (isDcTable || !splitPageCacheOptional.isPresent()) {
+            return Optional.empty();
+        }
+        SplitPageCache splitPageCache = splitPageCacheOptional.get();
+        Optional<SplitPageCache.Key> key = splitPageCache.createKey(split, table, columns);
+        if (!key.isPresent()) {
+            return Optional.empty();
+        }
+        Optional<Iterator<Page>> pages = splitPageCache.getPages(key.get());
+        if (!pages.isPresent()) {
+            pageRecorder = splitPageCache.newRecorder(key.get());
+        }
+        return pages;
+    }
+
+    private void createSource()
+    {
+        if (isDcTable) {
+            source = pageSourceProvider.createPageSource(operatorContext.getSession(),
+                    split,
+                    table,
+                    columns,
+                    Optional.of(new DynamicFilterSupplier(BloomFilterUtils.getCrossRegionDynamicFilterSupplier(dynamicFilterCacheManagerOptional.get(), queryIdOptional.get().getId(), tableScanNodeOptional.get()), System.currentTimeMillis(), 0L)));
+        }
+        else {
+            source = pageSourceProvider.createPageSource(operatorContext.getSession(), split, table, columns, Optional.empty());
+        }
+    }
+
+    private Page getCachedPage()
+    {
+        if (!cachedPages.hasNext()) {
+            return null;
+        }
+        Page page = cachedPages.next();
+        operatorContext.recordProcessedInput(page.getSizeInBytes(), page.getPositionCount());
+        return page;
+    }
+
+    private Page getSourcePage()
+    {
         Page page = source.getNextPage();
 
         // if pageSource.getCompletedPositionCount is present, get operator statistics from pageSource
@@ -740,24 +813,25 @@ public class TableScanOperator
                 readTimeNanos = endReadTimeNanos;
             }
 
-            // pull bloomFilter from stateStore and filter page
-            if (existsCrossFilter) {
-                try {
-                    page = filter(page);
-                }
-                catch (Throwable e) {
-                    // ignore
-                }
+            if (pageRecorder != null) {
+                pageRecorder.addPage(page);
             }
         }
 
-        // updating system memory usage should happen after page is loaded.
-        systemMemoryContext.setBytes(source.getSystemMemoryUsage());
-
-        if (strategy.equals(REUSE_STRATEGY_PRODUCER) && page != null) {
-            setPage(page);
+        long pageRecorderBytes = 0;
+        if (pageRecorder != null) {
+            if (source.isFinished()) {
+                pageRecorder.finish();
+                pageRecorder = null;
+            }
+            else {
+                pageRecorderBytes = pageRecorder.getRetainedSizeInBytes();
+            }
         }
 
+        // updating system memory usage should happen after page is loaded.
+        systemMemoryContext.setBytes(source.getSystemMemoryUsage() + pageRecorderBytes);
+
         return page;
     }
 
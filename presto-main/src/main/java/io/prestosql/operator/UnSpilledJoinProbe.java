@@ -16,6 +16,7 @@ package io.prestosql.operator;
 
 import io.prestosql.spi.Page;
 import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.DictionaryBlock;
 
 import javax.annotation.Nullable;
 
@@ -112,16 +113,7 @@ public class UnSpilledJoinProbe
                     // This way less code is in the if branch and CPU should be able to optimize branch prediction better
                     nonNullCount += isNull[i] ? 0 : 1;
                 }
-                if (probeHashBlock != null) {
-                    long[] hashes = new long[positionCount];
-                    for (int i = 0; i < positionCount; i++) {
-                        hashes[i] = BIGINT.getLong(probeHashBlock, i);
-                    }
-                    lookupSource.getJoinPosition(positions, probePage, page, hashes, joinPositionsCache);
-                }
-                else {
-                    lookupSource.getJoinPosition(positions, probePage, page, joinPositionsCache);
-                }
+                getJoinPositions(lookupSource, positions, page, probeHashBlock, probePage, joinPositionsCache);
                 return joinPositionsCache;
             } // else fall back to non-null path
         }
@@ -129,18 +121,37 @@ public class UnSpilledJoinProbe
         for (int i = 0; i < positionCount; i++) {
             positions[i] = i;
         }
+        getJoinPositions(lookupSource, positions, page, probeHashBlock, probePage, joinPositionsCache);
+        return joinPositionsCache;
+    }
+
+    private static void getJoinPositions(
+            LookupSource lookupSource,
+            int[] positions,
+            Page page,
+            @Nullable Block probeHashBlock,
+            Page probePage,
+            long[] joinPositionsCache)
+    {
+        long[] hashes = null;
         if (probeHashBlock != null) {
-            long[] hashes = new long[positionCount];
+            int positionCount = page.getPositionCount();
+            hashes = new long[positionCount];
             for (int i = 0; i < positionCount; i++) {
                 hashes[i] = BIGINT.getLong(probeHashBlock, i);
             }
+        }
+
+        if (probePage.getChannelCount() == 1 && probePage.getBlock(0) instanceof DictionaryBlock) {
+            // ORC and Parquet dictionary columns are probed once per dictionary entry
+            lookupSource.getJoinPosition(positions, (DictionaryBlock) probePage.getBlock(0), page, hashes, joinPositionsCache);
+        }
+        else if (hashes != null) {
             lookupSource.getJoinPosition(positions, probePage, page, hashes, joinPositionsCache);
         }
         else {
             lookupSource.getJoinPosition(positions, probePage, page, joinPositionsCache);
         }
-
-        return joinPositionsCache;
     }
 
     private static int getIsNull(List<Block> nullableBlocks, int positionCount, boolean[] isNull)
@@ -14,6 +14,7 @@
 package io.prestosql.operator;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 import io.airlift.log.Logger;
@@ -206,9 +207,13 @@ public class WorkProcessorPipelineSourceOperator
 
             long deltaReadTimeNanos = deltaAndSet(context.readTimeNanos, workProcessorSourceOperator.getReadTime().roundTo(NANOSECONDS));
 
+            long deltaInterpretedPages = deltaAndSet(context.interpretedPages, workProcessorSourceOperator.getInterpretedPages());
+            long deltaCompiledPages = deltaAndSet(context.compiledPages, workProcessorSourceOperator.getCompiledPages());
+
             operatorContext.recordPhysicalInputWithTiming(deltaPhysicalInputDataSize, deltaPhysicalInputPositions, deltaReadTimeNanos);
             operatorContext.recordNetworkInput(deltaInternalNetworkInputDataSize, deltaInternalNetworkInputPositions);
             operatorContext.recordProcessedInput(deltaInputDataSize, deltaInputPositions);
+            operatorContext.recordProcessedPages(deltaInterpretedPages, deltaCompiledPages);
         }
 
         if (state.getType() == FINISHED) {
@@ -325,6 +330,10 @@ public class WorkProcessorPipelineSourceOperator
                         new DataSize(0, BYTE),
                         ZERO_DURATION, ZERO_DURATION,
                         operatorContext.isWaitingForMemory().isDone() ? Optional.empty() : Optional.of(WAITING_FOR_MEMORY),
+                        // the whole fused pipeline runs under the source operator, so its samples are reported there
+                        context == workProcessorOperatorContexts.get(0) ? operatorContext.getStackSamples() : ImmutableMap.of(),
+                        context.interpretedPages.get(),
+                        context.compiledPages.get(),
                         null))
                 .collect(toImmutableList());
     }
@@ -625,6 +634,8 @@ public class WorkProcessorPipelineSourceOperator
         final AtomicLong inputPositions = new AtomicLong();
 
         final AtomicLong readTimeNanos = new AtomicLong();
+        final AtomicLong interpretedPages = new AtomicLong();
+        final AtomicLong compiledPages = new AtomicLong();
 
         final AtomicLong outputDataSize = new AtomicLong();
         final AtomicLong outputPositions = new AtomicLong();
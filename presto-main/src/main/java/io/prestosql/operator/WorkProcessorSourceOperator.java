@@ -63,4 +63,14 @@ public interface WorkProcessorSourceOperator
     {
         return new Duration(0, NANOSECONDS);
     }
+
+    default long getInterpretedPages()
+    {
+        return 0;
+    }
+
+    default long getCompiledPages()
+    {
+        return 0;
+    }
 }
@@ -73,6 +73,8 @@ public class WorkProcessorSourceOperatorAdapter
     private long previousInternalNetworkPositions;
     private long previousInputBytes;
     private long previousInputPositions;
+    private long previousInterpretedPages;
+    private long previousCompiledPages;
     private long previousReadTimeNanos;
 
     private final ReuseExchangeOperator.STRATEGY strategy;
@@ -307,6 +309,17 @@ public class WorkProcessorSourceOperatorAdapter
             previousInputBytes = currentInputBytes;
             previousInputPositions = currentInputPositions;
         }
+
+        long currentInterpretedPages = sourceOperator.getInterpretedPages();
+        long currentCompiledPages = sourceOperator.getCompiledPages();
+        if (currentInterpretedPages != previousInterpretedPages || currentCompiledPages != previousCompiledPages) {
+            operatorContext.recordProcessedPages(
+                    currentInterpretedPages - previousInterpretedPages,
+                    currentCompiledPages - previousCompiledPages);
+
+            previousInterpretedPages = currentInterpretedPages;
+            previousCompiledPages = currentCompiledPages;
+        }
     }
 
     private Page getPage()
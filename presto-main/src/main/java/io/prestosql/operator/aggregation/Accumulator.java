@@ -35,6 +35,24 @@ public interface Accumulator
 
     void addInput(WindowIndex index, List<Integer> channels, int startPosition, int endPosition);
 
+    /**
+     * Whether {@link #removeInput(WindowIndex, List, int, int)} is supported, i.e. the aggregation
+     * declares an inverse of its input function.
+     */
+    default boolean supportsRemoveInput()
+    {
+        return false;
+    }
+
+    /**
+     * Removes rows previously added with {@link #addInput(WindowIndex, List, int, int)}. Rows with a null
+     * argument are skipped, exactly as they are when adding input.
+     */
+    default void removeInput(WindowIndex index, List<Integer> channels, int startPosition, int endPosition)
+    {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support removing input");
+    }
+
     void addIntermediate(Block block);
 
     void evaluateIntermediate(BlockBuilder blockBuilder);
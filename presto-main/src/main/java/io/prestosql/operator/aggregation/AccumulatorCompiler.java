@@ -66,6 +66,7 @@ import static io.airlift.bytecode.expression.BytecodeExpressions.constantFalse;
 import static io.airlift.bytecode.expression.BytecodeExpressions.constantInt;
 import static io.airlift.bytecode.expression.BytecodeExpressions.constantLong;
 import static io.airlift.bytecode.expression.BytecodeExpressions.constantString;
+import static io.airlift.bytecode.expression.BytecodeExpressions.constantTrue;
 import static io.airlift.bytecode.expression.BytecodeExpressions.invokeDynamic;
 import static io.airlift.bytecode.expression.BytecodeExpressions.invokeStatic;
 import static io.airlift.bytecode.expression.BytecodeExpressions.newInstance;
@@ -162,14 +163,27 @@ public class AccumulatorCompiler
                 metadata.getInputFunction(),
                 callSiteBinder,
                 grouped);
-        generateAddInputWindowIndex(
+        generateWindowIndexInput(
                 definition,
+                "addInput",
                 stateFields,
                 metadata.getValueInputMetadata(),
                 metadata.getLambdaInterfaces(),
                 lambdaProviderFields,
                 metadata.getInputFunction(),
                 callSiteBinder);
+        if (!grouped && metadata.getRemoveInputFunction().isPresent()) {
+            generateWindowIndexInput(
+                    definition,
+                    "removeInput",
+                    stateFields,
+                    metadata.getValueInputMetadata(),
+                    metadata.getLambdaInterfaces(),
+                    lambdaProviderFields,
+                    metadata.getRemoveInputFunction().get(),
+                    callSiteBinder);
+            generateSupportsRemoveInput(definition);
+        }
         generateGetEstimatedSize(definition, stateFields);
 
         generateGetIntermediateType(
@@ -330,8 +344,9 @@ public class AccumulatorCompiler
         body.ret();
     }
 
-    private static void generateAddInputWindowIndex(
+    private static void generateWindowIndexInput(
             ClassDefinition definition,
+            String methodName,
             List<FieldDefinition> stateField,
             List<ParameterMetadata> parameterMetadatas,
             List<Class<?>> lambdaInterfaces,
@@ -346,7 +361,7 @@ public class AccumulatorCompiler
         Parameter startPosition = arg("startPosition", int.class);
         Parameter endPosition = arg("endPosition", int.class);
 
-        MethodDefinition method = definition.declareMethod(a(PUBLIC), "addInput", type(void.class), ImmutableList.of(index, channels, startPosition, endPosition));
+        MethodDefinition method = definition.declareMethod(a(PUBLIC), methodName, type(void.class), ImmutableList.of(index, channels, startPosition, endPosition));
         Scope scope = method.getScope();
 
         Variable position = scope.declareVariable(int.class, "position");
@@ -355,7 +370,7 @@ public class AccumulatorCompiler
         BytecodeExpression invokeInputFunction = invokeDynamic(
                 BOOTSTRAP_METHOD,
                 ImmutableList.of(binding.getBindingId()),
-                "input",
+                methodName,
                 binding.getType(),
                 getInvokeFunctionOnWindowIndexParameters(
                         scope,
@@ -379,6 +394,12 @@ public class AccumulatorCompiler
                 .ret();
     }
 
+    private static void generateSupportsRemoveInput(ClassDefinition definition)
+    {
+        MethodDefinition method = definition.declareMethod(a(PUBLIC), "supportsRemoveInput", type(boolean.class));
+        method.getBody().append(constantTrue().ret());
+    }
+
     private static BytecodeExpression anyParametersAreNull(
             List<ParameterMetadata> parameterMetadatas,
             Variable index,
@@ -29,6 +29,7 @@ import io.prestosql.spi.function.BlockPosition;
 import io.prestosql.spi.function.FunctionKind;
 import io.prestosql.spi.function.LongVariableConstraint;
 import io.prestosql.spi.function.OutputFunction;
+import io.prestosql.spi.function.RemoveInputFunction;
 import io.prestosql.spi.function.Signature;
 import io.prestosql.spi.function.SqlType;
 import io.prestosql.spi.function.TypeParameter;
@@ -94,6 +95,7 @@ public class AggregationImplementation
     private final Class<?> definitionClass;
     private final Class<?> stateClass;
     private final MethodHandle inputFunction;
+    private final Optional<MethodHandle> removeInputFunction;
     private final MethodHandle outputFunction;
     private final MethodHandle combineFunction;
     private final Optional<MethodHandle> stateSerializerFactory;
@@ -109,6 +111,7 @@ public class AggregationImplementation
             Class<?> definitionClass,
             Class<?> stateClass,
             MethodHandle inputFunction,
+            Optional<MethodHandle> removeInputFunction,
             MethodHandle outputFunction,
             MethodHandle combineFunction,
             Optional<MethodHandle> stateSerializerFactory,
@@ -123,6 +126,7 @@ public class AggregationImplementation
         this.definitionClass = requireNonNull(definitionClass, "definition class cannot be null");
         this.stateClass = requireNonNull(stateClass, "stateClass cannot be null");
         this.inputFunction = requireNonNull(inputFunction, "inputFunction cannot be null");
+        this.removeInputFunction = requireNonNull(removeInputFunction, "removeInputFunction cannot be null");
         this.outputFunction = requireNonNull(outputFunction, "outputFunction cannot be null");
         this.combineFunction = requireNonNull(combineFunction, "combineFunction cannot be null");
         this.stateSerializerFactory = requireNonNull(stateSerializerFactory, "stateSerializerFactory cannot be null");
@@ -161,6 +165,11 @@ public class AggregationImplementation
         return inputFunction;
     }
 
+    public Optional<MethodHandle> getRemoveInputFunction()
+    {
+        return removeInputFunction;
+    }
+
     public MethodHandle getOutputFunction()
     {
         return outputFunction;
@@ -228,6 +237,7 @@ public class AggregationImplementation
         private final Class<?> aggregationDefinition;
         private final Class<?> stateClass;
         private final MethodHandle inputHandle;
+        private final Optional<MethodHandle> removeInputHandle;
         private final MethodHandle outputHandle;
         private final MethodHandle combineHandle;
         private final Optional<MethodHandle> stateSerializerFactoryHandle;
@@ -299,6 +309,7 @@ public class AggregationImplementation
             }
 
             inputHandle = methodHandle(inputFunction);
+            removeInputHandle = findRemoveInputFunction(aggregationDefinition, inputFunction).map(method -> methodHandle(method));
             combineHandle = methodHandle(combineFunction);
             outputHandle = methodHandle(outputFunction);
         }
@@ -318,6 +329,7 @@ public class AggregationImplementation
                     aggregationDefinition,
                     stateClass,
                     inputHandle,
+                    removeInputHandle,
                     outputHandle,
                     combineHandle,
                     stateSerializerFactoryHandle,
@@ -341,6 +353,22 @@ public class AggregationImplementation
             return new Parser(aggregationDefinition, header, stateClass, inputFunction, outputFunction, combineFunction, stateSerializerFactoryFunction).get();
         }
 
+        private static Optional<Method> findRemoveInputFunction(Class<?> aggregationDefinition, Method inputFunction)
+        {
+            // the remove function takes the same arguments as the input function it reverts, and shares its dependencies
+            List<Method> removeInputFunctions = FunctionsParserHelper.findPublicStaticMethodsWithAnnotation(aggregationDefinition, RemoveInputFunction.class).stream()
+                    .filter(method -> Arrays.equals(method.getParameterTypes(), inputFunction.getParameterTypes()))
+                    .collect(toImmutableList());
+
+            checkArgument(
+                    removeInputFunctions.size() <= 1,
+                    "Expect at most 1 @RemoveInputFunction for input function %s, found %s in %s",
+                    inputFunction.getName(),
+                    removeInputFunctions.size(),
+                    aggregationDefinition.toGenericString());
+            return removeInputFunctions.stream().findFirst();
+        }
+
         private static List<ParameterType> parseParameterMetadataTypes(Method method)
         {
             ImmutableList.Builder<ParameterType> builder = ImmutableList.builder();
@@ -25,6 +25,7 @@ import io.prestosql.spi.type.Type;
 import java.lang.invoke.MethodHandle;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 import static com.google.common.base.Preconditions.checkArgument;
@@ -44,6 +45,7 @@ public class AggregationMetadata
     private final List<ParameterMetadata> valueInputMetadata;
     private final List<Class<?>> lambdaInterfaces;
     private final MethodHandle inputFunction;
+    private final Optional<MethodHandle> removeInputFunction;
     private final MethodHandle combineFunction;
     private final MethodHandle outputFunction;
     private final List<AccumulatorStateDescriptor> accumulatorStateDescriptors;
@@ -78,17 +80,46 @@ public class AggregationMetadata
             List<AccumulatorStateDescriptor> accumulatorStateDescriptors,
             Type outputType,
             List<Class<?>> lambdaInterfaces)
+    {
+        this(
+                name,
+                valueInputMetadata,
+                inputFunction,
+                Optional.empty(),
+                combineFunction,
+                outputFunction,
+                accumulatorStateDescriptors,
+                outputType,
+                lambdaInterfaces);
+    }
+
+    public AggregationMetadata(
+            String name,
+            List<ParameterMetadata> valueInputMetadata,
+            MethodHandle inputFunction,
+            Optional<MethodHandle> removeInputFunction,
+            MethodHandle combineFunction,
+            MethodHandle outputFunction,
+            List<AccumulatorStateDescriptor> accumulatorStateDescriptors,
+            Type outputType,
+            List<Class<?>> lambdaInterfaces)
     {
         this.outputType = requireNonNull(outputType);
         this.valueInputMetadata = ImmutableList.copyOf(requireNonNull(valueInputMetadata, "valueInputMetadata is null"));
         this.name = requireNonNull(name, "name is null");
         this.inputFunction = requireNonNull(inputFunction, "inputFunction is null");
+        this.removeInputFunction = requireNonNull(removeInputFunction, "removeInputFunction is null");
         this.combineFunction = requireNonNull(combineFunction, "combineFunction is null");
         this.outputFunction = requireNonNull(outputFunction, "outputFunction is null");
         this.accumulatorStateDescriptors = requireNonNull(accumulatorStateDescriptors, "accumulatorStateDescriptors is null");
         this.lambdaInterfaces = ImmutableList.copyOf(requireNonNull(lambdaInterfaces, "lambdaInterfaces is null"));
 
         verifyInputFunctionSignature(inputFunction, valueInputMetadata, lambdaInterfaces, accumulatorStateDescriptors);
+        if (removeInputFunction.isPresent()) {
+            verifyInputFunctionSignature(removeInputFunction.get(), valueInputMetadata, lambdaInterfaces, accumulatorStateDescriptors);
+            // rows are only handed to the remove function when none of their arguments is null, so it cannot see null inputs
+            checkArgument(valueInputMetadata.stream().noneMatch(m -> m.getParameterType() == NULLABLE_BLOCK_INPUT_CHANNEL), "Remove input function cannot take nullable inputs");
+        }
         verifyCombineFunction(combineFunction, lambdaInterfaces, accumulatorStateDescriptors);
         verifyExactOutputFunction(outputFunction, accumulatorStateDescriptors);
     }
@@ -118,6 +149,14 @@ public class AggregationMetadata
         return inputFunction;
     }
 
+    /**
+     * Inverse of the input function, present only for aggregations whose state can take a value back out
+     */
+    public Optional<MethodHandle> getRemoveInputFunction()
+    {
+        return removeInputFunction;
+    }
+
     public MethodHandle getCombineFunction()
     {
         return combineFunction;
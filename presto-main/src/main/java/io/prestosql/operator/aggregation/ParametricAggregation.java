@@ -86,6 +86,8 @@ public class ParametricAggregation
 
         // Bind provided dependencies to aggregation method handlers
         MethodHandle inputHandle = bindDependencies(concreteImplementation.getInputFunction(), concreteImplementation.getInputDependencies(), variables, functionAndTypeManager);
+        Optional<MethodHandle> removeInputHandle = concreteImplementation.getRemoveInputFunction()
+                .map(removeInputFunction -> bindDependencies(removeInputFunction, concreteImplementation.getInputDependencies(), variables, functionAndTypeManager));
         MethodHandle combineHandle = bindDependencies(concreteImplementation.getCombineFunction(), concreteImplementation.getCombineDependencies(), variables, functionAndTypeManager);
         MethodHandle outputHandle = bindDependencies(concreteImplementation.getOutputFunction(), concreteImplementation.getOutputDependencies(), variables, functionAndTypeManager);
 
@@ -100,13 +102,15 @@ public class ParametricAggregation
                 aggregationName,
                 parametersMetadata,
                 inputHandle,
+                removeInputHandle,
                 combineHandle,
                 outputHandle,
                 ImmutableList.of(new AccumulatorStateDescriptor(
                         stateClass,
                         stateSerializer,
                         stateFactory)),
-                outputType);
+                outputType,
+                ImmutableList.of());
 
         // Create specialized InternalAggregregationFunction for Presto
         return new InternalAggregationFunction(getSignature().getNameSuffix(),
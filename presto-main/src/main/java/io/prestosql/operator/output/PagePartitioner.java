@@ -36,6 +36,7 @@ import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.ints.IntList;
 
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.OptionalInt;
@@ -52,7 +53,7 @@ import static java.lang.Math.min;
 import static java.util.Objects.requireNonNull;
 
 @RestorableConfig(stateClassName = "PagePartitionerState", uncapturedFields = {"outputBuffer", "sourceTypes", "partitionFunction", "partitionChannels",
-        "partitionConstants", "operatorContext", "pageBuilders"})
+        "partitionConstants", "operatorContext", "pageBuilders", "lookBackDictionary", "dictionaryPartitions", "lastDictionary"})
 public class PagePartitioner
         implements Restorable
 {
@@ -73,6 +74,10 @@ public class PagePartitioner
     private final OperatorContext operatorContext;
     private final PositionsAppenderFactory positionsAppenderFactory;
     private final PositionsAppender[] positionsAppenders;
+    // partitions of the entries of the last dictionary partitioned on, kept for the following pages sharing it
+    private Block lookBackDictionary;
+    private int[] dictionaryPartitions;
+    private Block lastDictionary;
 
     public PagePartitioner(
             String id,
@@ -366,23 +371,44 @@ public class PagePartitioner
             return false;
         }
         DictionaryBlock dictionaryBlock = (DictionaryBlock) block;
+        Block dictionary = dictionaryBlock.getDictionary();
+        if (dictionary == lookBackDictionary) {
+            return true;
+        }
         // if dictionary block positionCount is greater than number of elements in the dictionary
         // it will be faster to compute hash for the dictionary values only once and re-use it
         // instead of recalculating it.
-        return dictionaryBlock.getPositionCount() > dictionaryBlock.getDictionary().getPositionCount();
+        if (dictionaryBlock.getPositionCount() > dictionary.getPositionCount()) {
+            return true;
+        }
+        // ORC and Parquet readers share a dictionary between all pages of a stripe or row group,
+        // so a larger dictionary pays off once it is seen for the second time
+        boolean seenBefore = dictionary == lastDictionary;
+        lastDictionary = dictionary;
+        return seenBefore;
     }
 
     private void partitionBySingleDictionary(Page page, int position, Page partitionFunctionArgs, IntArrayList[] partitionPositions)
     {
         DictionaryBlock dictionaryBlock = (DictionaryBlock) partitionFunctionArgs.getBlock(0);
         Block dictionary = dictionaryBlock.getDictionary();
-        int[] dictionaryPartitions = new int[dictionary.getPositionCount()];
-        Page dictionaryPage = new Page(dictionary);
-        for (int i = 0; i < dictionary.getPositionCount(); i++) {
-            dictionaryPartitions[i] = partitionFunction.getPartition(dictionaryPage, i);
+        if (dictionary != lookBackDictionary) {
+            lookBackDictionary = dictionary;
+            dictionaryPartitions = new int[dictionary.getPositionCount()];
+            Arrays.fill(dictionaryPartitions, -1);
         }
-
-        partitionGeneric(page, position, aPosition -> dictionaryPartitions[dictionaryBlock.getId(aPosition)], partitionPositions);
+        // partitions are computed for the entries the pages refer to only
+        int[] partitions = dictionaryPartitions;
+        Page dictionaryPage = new Page(dictionary);
+        partitionGeneric(page, position, aPosition -> {
+            int id = dictionaryBlock.getId(aPosition);
+            int partition = partitions[id];
+            if (partition == -1) {
+                partition = partitionFunction.getPartition(dictionaryPage, id);
+                partitions[id] = partition;
+            }
+            return partition;
+        }, partitionPositions);
     }
 
     private void partitionGeneric(Page page, int position, IntUnaryOperator partitionFunction, IntArrayList[] partitionPositions)
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2018-2022. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator.project;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import io.prestosql.metadata.Metadata;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.connector.ConnectorSession;
+import io.prestosql.spi.relation.RowExpression;
+import io.prestosql.sql.relational.RowExpressionDeterminismEvaluator;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.util.concurrent.Futures.getDone;
+import static io.airlift.concurrent.MoreFutures.getFutureValue;
+import static io.prestosql.operator.Operator.NOT_BLOCKED;
+import static io.prestosql.operator.project.PageFieldsToInputParametersRewriter.rewritePageFieldsToInputParameters;
+import static io.prestosql.operator.project.PageFilter.positionsArrayToSelectedPositions;
+import static io.prestosql.operator.project.SelectedPositions.positionsRange;
+import static io.prestosql.spi.type.BooleanType.BOOLEAN;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Filter compiled in the background. Until the compiled filter is ready, pages are filtered with the
+ * {@link VectorizedExpressionInterpreter}, and the filter switches to the compiled code between pages.
+ * If the interpreter does not support the expression, {@link #isBlocked()} completes when the compiled
+ * filter is ready, so that operators wait for it without holding a thread.
+ */
+public class DeferredPageFilter
+        implements PageFilter
+{
+    private final ListenableFuture<Supplier<PageFilter>> compiled;
+    private final InputChannels inputChannels;
+    private final boolean deterministic;
+    private final Optional<VectorizedExpressionInterpreter> interpreter;
+    private PageFilter filter;
+    private boolean compilationFailed;
+
+    public DeferredPageFilter(RowExpression filter, Metadata metadata, ListenableFuture<Supplier<PageFilter>> compiled)
+    {
+        requireNonNull(filter, "filter is null");
+        requireNonNull(metadata, "metadata is null");
+        this.compiled = requireNonNull(compiled, "compiled is null");
+        // the compiled filter is derived from the same expression, so it reads the same channels
+        PageFieldsToInputParametersRewriter.Result result = rewritePageFieldsToInputParameters(filter);
+        this.inputChannels = result.getInputChannels();
+        this.interpreter = VectorizedExpressionInterpreter.tryCreate(result.getRewrittenExpression(), metadata);
+        this.deterministic = new RowExpressionDeterminismEvaluator(metadata).isDeterministic(filter);
+    }
+
+    @Override
+    public boolean isDeterministic()
+    {
+        return deterministic;
+    }
+
+    @Override
+    public InputChannels getInputChannels()
+    {
+        return inputChannels;
+    }
+
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        return interpreter.isPresent() ? NOT_BLOCKED : compiled;
+    }
+
+    @Override
+    public boolean isInterpreted()
+    {
+        return getCompiledFilter() == null;
+    }
+
+    @Override
+    public SelectedPositions filter(ConnectorSession session, Page page)
+    {
+        PageFilter compiledFilter = getCompiledFilter();
+        if (compiledFilter != null) {
+            return compiledFilter.filter(session, page);
+        }
+
+        int positionCount = page.getPositionCount();
+        Block result = interpreter.get().evaluate(session, page, positionsRange(0, positionCount));
+        boolean[] selectedPositions = new boolean[positionCount];
+        for (int position = 0; position < positionCount; position++) {
+            selectedPositions[position] = !result.isNull(position) && BOOLEAN.getBoolean(result, position);
+        }
+        return positionsArrayToSelectedPositions(selectedPositions, positionCount);
+    }
+
+    /**
+     * Returns the compiled filter once it is ready, or null while the filter is interpreted.
+     */
+    private PageFilter getCompiledFilter()
+    {
+        if (filter != null || compilationFailed || !compiled.isDone()) {
+            checkState(filter != null || interpreter.isPresent(), "filter is not compiled yet");
+            return filter;
+        }
+        if (!interpreter.isPresent()) {
+            // a compilation failure is thrown as it is when the filter is compiled in the foreground
+            filter = getFutureValue(compiled).get();
+            return filter;
+        }
+        try {
+            filter = getDone(compiled).get();
+        }
+        catch (ExecutionException e) {
+            // the interpreter produces the same result, so the filter keeps interpreting
+            compilationFailed = true;
+        }
+        return filter;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2018-2022. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator.project;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import io.prestosql.metadata.Metadata;
+import io.prestosql.operator.CompletedWork;
+import io.prestosql.operator.DriverYieldSignal;
+import io.prestosql.operator.Work;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.connector.ConnectorSession;
+import io.prestosql.spi.relation.RowExpression;
+import io.prestosql.spi.type.Type;
+import io.prestosql.sql.relational.RowExpressionDeterminismEvaluator;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.util.concurrent.Futures.getDone;
+import static io.airlift.concurrent.MoreFutures.getFutureValue;
+import static io.prestosql.operator.Operator.NOT_BLOCKED;
+import static io.prestosql.operator.project.PageFieldsToInputParametersRewriter.rewritePageFieldsToInputParameters;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Projection compiled in the background. Until the compiled projection is ready, pages are projected with the
+ * {@link VectorizedExpressionInterpreter}, and the projection switches to the compiled code between batches.
+ * If the interpreter does not support the expression, {@link #isBlocked()} completes when the compiled
+ * projection is ready, so that operators wait for it without holding a thread.
+ */
+public class DeferredPageProjection
+        implements PageProjection
+{
+    private final ListenableFuture<Supplier<PageProjection>> compiled;
+    private final Type type;
+    private final InputChannels inputChannels;
+    private final boolean deterministic;
+    private final Optional<VectorizedExpressionInterpreter> interpreter;
+    private PageProjection projection;
+    private boolean compilationFailed;
+
+    public DeferredPageProjection(RowExpression projection, Metadata metadata, ListenableFuture<Supplier<PageProjection>> compiled)
+    {
+        requireNonNull(projection, "projection is null");
+        requireNonNull(metadata, "metadata is null");
+        this.compiled = requireNonNull(compiled, "compiled is null");
+        this.type = projection.getType();
+        // the compiled projection is derived from the same expression, so it reads the same channels
+        PageFieldsToInputParametersRewriter.Result result = rewritePageFieldsToInputParameters(projection);
+        this.inputChannels = result.getInputChannels();
+        this.interpreter = VectorizedExpressionInterpreter.tryCreate(result.getRewrittenExpression(), metadata);
+        this.deterministic = new RowExpressionDeterminismEvaluator(metadata).isDeterministic(projection);
+    }
+
+    @Override
+    public Type getType()
+    {
+        return type;
+    }
+
+    @Override
+    public boolean isDeterministic()
+    {
+        return deterministic;
+    }
+
+    @Override
+    public InputChannels getInputChannels()
+    {
+        return inputChannels;
+    }
+
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        return interpreter.isPresent() ? NOT_BLOCKED : compiled;
+    }
+
+    @Override
+    public boolean isInterpreted()
+    {
+        return getCompiledProjection() == null;
+    }
+
+    @Override
+    public Work<Block> project(ConnectorSession session, DriverYieldSignal yieldSignal, Page page, SelectedPositions selectedPositions)
+    {
+        PageProjection compiledProjection = getCompiledProjection();
+        if (compiledProjection != null) {
+            return compiledProjection.project(session, yieldSignal, page, selectedPositions);
+        }
+        return new CompletedWork<>(interpreter.get().evaluate(session, page, selectedPositions));
+    }
+
+    /**
+     * Returns the compiled projection once it is ready, or null while the projection is interpreted.
+     */
+    private PageProjection getCompiledProjection()
+    {
+        if (projection != null || compilationFailed || !compiled.isDone()) {
+            checkState(projection != null || interpreter.isPresent(), "projection is not compiled yet");
+            return projection;
+        }
+        if (!interpreter.isPresent()) {
+            // a compilation failure is thrown as it is when the projection is compiled in the foreground
+            projection = getFutureValue(compiled).get();
+            return projection;
+        }
+        try {
+            projection = getDone(compiled).get();
+        }
+        catch (ExecutionException e) {
+            // the interpreter produces the same result, so the projection keeps interpreting
+            compilationFailed = true;
+        }
+        return projection;
+    }
+}
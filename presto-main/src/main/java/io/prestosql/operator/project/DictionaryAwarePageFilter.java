@@ -13,6 +13,7 @@
  */
 package io.prestosql.operator.project;
 
+import com.google.common.util.concurrent.ListenableFuture;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.block.Block;
 import io.prestosql.spi.block.DictionaryBlock;
@@ -53,6 +54,18 @@ public class DictionaryAwarePageFilter
         return filter.getInputChannels();
     }
 
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        return filter.isBlocked();
+    }
+
+    @Override
+    public boolean isInterpreted()
+    {
+        return filter.isInterpreted();
+    }
+
     @Override
     public SelectedPositions filter(ConnectorSession session, Page page)
     {
@@ -13,6 +13,7 @@
  */
 package io.prestosql.operator.project;
 
+import com.google.common.util.concurrent.ListenableFuture;
 import io.prestosql.operator.CompletedWork;
 import io.prestosql.operator.DriverYieldSignal;
 import io.prestosql.operator.Work;
@@ -69,6 +70,18 @@ public class DictionaryAwarePageProjection
         return projection.getInputChannels();
     }
 
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        return projection.isBlocked();
+    }
+
+    @Override
+    public boolean isInterpreted()
+    {
+        return projection.isInterpreted();
+    }
+
     @Override
     public Work<Block> project(ConnectorSession session, DriverYieldSignal yieldSignal, Page page, SelectedPositions selectedPositions)
     {
@@ -0,0 +1,297 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator.project;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.slice.Slice;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.connector.ConnectorSession;
+import io.prestosql.spi.relation.CallExpression;
+import io.prestosql.spi.relation.ConstantExpression;
+import io.prestosql.spi.relation.InputReferenceExpression;
+import io.prestosql.spi.relation.RowExpression;
+import io.prestosql.spi.type.VarcharType;
+import io.prestosql.sql.relational.FunctionResolution;
+
+import java.util.List;
+import java.util.Optional;
+
+import static io.airlift.slice.SizeOf.SIZE_OF_LONG;
+import static io.airlift.slice.Slices.EMPTY_SLICE;
+import static io.prestosql.operator.project.PageFilter.positionsArrayToSelectedPositions;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Filter for a LIKE predicate on a varchar column whose constant pattern has no wildcard other than
+ * {@code %}, i.e. a prefix, suffix or contains match, or literals that have to appear in order.
+ * Such patterns are matched by scanning the bytes of each value, eight bytes at a time, for the
+ * first byte of the literal, instead of copying the value and running the regular expression the
+ * pattern would compile to. {@code regexp_like} with a pattern without meta characters is a
+ * contains match and is handled the same way.
+ * <p>
+ * The filter reads a single channel and is deterministic, so {@link PageProcessor} evaluates it
+ * once per dictionary entry for dictionary blocks.
+ */
+public class LikePageFilter
+        implements PageFilter
+{
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
+    private final InputChannels inputChannels;
+    private final Optional<Slice> exact;
+    private final Slice prefix;
+    private final Slice suffix;
+    private final List<Slice> infixes;
+
+    @VisibleForTesting
+    LikePageFilter(int channel, Optional<Slice> exact, Slice prefix, Slice suffix, List<Slice> infixes)
+    {
+        this.inputChannels = new InputChannels(channel);
+        this.exact = requireNonNull(exact, "exact is null");
+        this.prefix = requireNonNull(prefix, "prefix is null");
+        this.suffix = requireNonNull(suffix, "suffix is null");
+        this.infixes = ImmutableList.copyOf(requireNonNull(infixes, "infixes is null"));
+    }
+
+    /**
+     * Returns a filter for {@code filter} if it is a LIKE or {@code regexp_like} predicate this class can match.
+     */
+    public static Optional<PageFilter> tryCreate(RowExpression filter, FunctionResolution functionResolution)
+    {
+        if (!(filter instanceof CallExpression)) {
+            return Optional.empty();
+        }
+        CallExpression call = (CallExpression) filter;
+        if (call.getArguments().size() != 2 || !(call.getArguments().get(0) instanceof InputReferenceExpression)) {
+            return Optional.empty();
+        }
+        InputReferenceExpression value = (InputReferenceExpression) call.getArguments().get(0);
+        if (!(value.getType() instanceof VarcharType) || !(call.getArguments().get(1) instanceof CallExpression)) {
+            return Optional.empty();
+        }
+        CallExpression pattern = (CallExpression) call.getArguments().get(1);
+
+        if (functionResolution.isLikeFunction(call.getFunctionHandle())) {
+            if (functionResolution.isCastFunction(pattern.getFunctionHandle())) {
+                return getVarcharConstant(pattern.getArguments().get(0))
+                        .flatMap(likePattern -> fromLikePattern(value.getField(), likePattern, Optional.empty()));
+            }
+            if (functionResolution.isLikePatternFunction(pattern.getFunctionHandle())) {
+                Optional<Slice> likePattern = getVarcharConstant(pattern.getArguments().get(0));
+                Optional<Slice> escape = getVarcharConstant(pattern.getArguments().get(1));
+                if (likePattern.isPresent() && escape.isPresent()) {
+                    return fromLikePattern(value.getField(), likePattern.get(), escape);
+                }
+            }
+            return Optional.empty();
+        }
+        if (functionResolution.isRegexpLikeFunction(call.getFunctionHandle()) && functionResolution.isCastFunction(pattern.getFunctionHandle())) {
+            return getVarcharConstant(pattern.getArguments().get(0))
+                    .flatMap(regexp -> fromRegexp(value.getField(), regexp));
+        }
+        return Optional.empty();
+    }
+
+    private static Optional<Slice> getVarcharConstant(RowExpression expression)
+    {
+        if (expression instanceof ConstantExpression && expression.getType() instanceof VarcharType) {
+            Object value = ((ConstantExpression) expression).getValue();
+            if (value instanceof Slice) {
+                return Optional.of((Slice) value);
+            }
+        }
+        return Optional.empty();
+    }
+
+    @VisibleForTesting
+    static Optional<PageFilter> fromLikePattern(int channel, Slice pattern, Optional<Slice> escape)
+    {
+        int escapeChar = -1;
+        if (escape.isPresent()) {
+            // the compiled filter reports invalid and multi byte escapes
+            if (escape.get().length() != 1 || (escape.get().getByte(0) & 0x80) != 0) {
+                return Optional.empty();
+            }
+            escapeChar = escape.get().getByte(0);
+        }
+
+        ImmutableList.Builder<Slice> literals = ImmutableList.builder();
+        DynamicSliceOutput literal = new DynamicSliceOutput(pattern.length());
+        boolean escaped = false;
+        for (int i = 0; i < pattern.length(); i++) {
+            byte current = pattern.getByte(i);
+            if (escaped) {
+                if (current != '%' && current != '_' && current != escapeChar) {
+                    return Optional.empty();
+                }
+                literal.writeByte(current);
+                escaped = false;
+            }
+            else if (current == escapeChar) {
+                escaped = true;
+            }
+            else if (current == '_') {
+                return Optional.empty();
+            }
+            else if (current == '%') {
+                literals.add(literal.slice().copy());
+                literal.reset();
+            }
+            else {
+                literal.writeByte(current);
+            }
+        }
+        if (escaped) {
+            return Optional.empty();
+        }
+        literals.add(literal.slice().copy());
+
+        // literals before the first and after the last % are anchored, the others may be anywhere in between
+        List<Slice> parts = literals.build();
+        if (parts.size() == 1) {
+            return Optional.of(new LikePageFilter(channel, Optional.of(parts.get(0)), EMPTY_SLICE, EMPTY_SLICE, ImmutableList.of()));
+        }
+        ImmutableList.Builder<Slice> infixes = ImmutableList.builder();
+        for (Slice part : parts.subList(1, parts.size() - 1)) {
+            if (part.length() > 0) {
+                infixes.add(part);
+            }
+        }
+        return Optional.of(new LikePageFilter(channel, Optional.empty(), parts.get(0), parts.get(parts.size() - 1), infixes.build()));
+    }
+
+    @VisibleForTesting
+    static Optional<PageFilter> fromRegexp(int channel, Slice regexp)
+    {
+        for (int i = 0; i < regexp.length(); i++) {
+            switch (regexp.getByte(i)) {
+                case '\\':
+                case '^':
+                case '$':
+                case '.':
+                case '|':
+                case '?':
+                case '*':
+                case '+':
+                case '(':
+                case ')':
+                case '[':
+                case ']':
+                case '{':
+                case '}':
+                    return Optional.empty();
+                default:
+                    break;
+            }
+        }
+        List<Slice> infixes = regexp.length() == 0 ? ImmutableList.of() : ImmutableList.of(regexp);
+        return Optional.of(new LikePageFilter(channel, Optional.empty(), EMPTY_SLICE, EMPTY_SLICE, infixes));
+    }
+
+    @Override
+    public boolean isDeterministic()
+    {
+        return true;
+    }
+
+    @Override
+    public InputChannels getInputChannels()
+    {
+        return inputChannels;
+    }
+
+    @Override
+    public SelectedPositions filter(ConnectorSession session, Page page)
+    {
+        Block block = page.getBlock(0);
+        int positionCount = page.getPositionCount();
+        boolean[] selectedPositions = new boolean[positionCount];
+        for (int position = 0; position < positionCount; position++) {
+            // a view of the value, the bytes are not copied
+            selectedPositions[position] = !block.isNull(position) && matches(block.getSlice(position, 0, block.getSliceLength(position)));
+        }
+        return positionsArrayToSelectedPositions(selectedPositions, positionCount);
+    }
+
+    @VisibleForTesting
+    boolean matches(Slice value)
+    {
+        if (exact.isPresent()) {
+            return value.equals(exact.get());
+        }
+        int start = prefix.length();
+        int end = value.length() - suffix.length();
+        if (end < start) {
+            return false;
+        }
+        if (start > 0 && !value.equals(0, start, prefix, 0, start)) {
+            return false;
+        }
+        if (suffix.length() > 0 && !value.equals(end, suffix.length(), suffix, 0, suffix.length())) {
+            return false;
+        }
+        // taking the leftmost occurrence of every literal leaves the most room for the following ones
+        for (Slice infix : infixes) {
+            int index = indexOf(value, start, end, infix);
+            if (index < 0) {
+                return false;
+            }
+            start = index + infix.length();
+        }
+        return true;
+    }
+
+    /**
+     * Returns the first index of {@code literal} within {@code value[from, to)}, or -1. Candidates are
+     * found by comparing eight bytes at a time against the first byte of the literal.
+     */
+    @VisibleForTesting
+    static int indexOf(Slice value, int from, int to, Slice literal)
+    {
+        int length = literal.length();
+        int last = to - length;
+        byte first = literal.getByte(0);
+        long pattern = (first & 0xFFL) * ONES;
+
+        int index = from;
+        while (index <= last) {
+            if (index + SIZE_OF_LONG <= to) {
+                long word = value.getLong(index) ^ pattern;
+                long found = (word - ONES) & ~word & HIGH_BITS;
+                if (found == 0) {
+                    index += SIZE_OF_LONG;
+                    continue;
+                }
+                // bytes above the lowest match may be false positives, so only the lowest one is used
+                index += Long.numberOfTrailingZeros(found) >>> 3;
+                if (index > last) {
+                    return -1;
+                }
+            }
+            else if (value.getByte(index) != first) {
+                index++;
+                continue;
+            }
+            if (value.equals(index, length, literal, 0, length)) {
+                return index;
+            }
+            index++;
+        }
+        return -1;
+    }
+}
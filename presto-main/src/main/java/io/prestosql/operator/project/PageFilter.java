@@ -13,9 +13,12 @@
  */
 package io.prestosql.operator.project;
 
+import com.google.common.util.concurrent.ListenableFuture;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.connector.ConnectorSession;
 
+import static io.prestosql.operator.Operator.NOT_BLOCKED;
+
 public interface PageFilter
 {
     boolean isDeterministic();
@@ -24,6 +27,22 @@ public interface PageFilter
 
     SelectedPositions filter(ConnectorSession session, Page page);
 
+    /**
+     * Returns a future which completes once the filter can filter pages, while it is compiled in the background.
+     */
+    default ListenableFuture<?> isBlocked()
+    {
+        return NOT_BLOCKED;
+    }
+
+    /**
+     * Returns true if the next page will be filtered by interpreting the expression instead of running compiled code.
+     */
+    default boolean isInterpreted()
+    {
+        return false;
+    }
+
     static SelectedPositions positionsArrayToSelectedPositions(boolean[] selectedPositions, int size)
     {
         int selectedCount = 0;
@@ -14,6 +14,7 @@
 package io.prestosql.operator.project;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.slice.SizeOf;
 import io.prestosql.array.ReferenceCountMap;
 import io.prestosql.memory.context.LocalMemoryContext;
@@ -43,6 +44,8 @@ import java.util.function.Function;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Verify.verify;
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.prestosql.operator.Operator.NOT_BLOCKED;
+import static io.prestosql.operator.WorkProcessor.ProcessState.blocked;
 import static io.prestosql.operator.WorkProcessor.ProcessState.finished;
 import static io.prestosql.operator.WorkProcessor.ProcessState.ofResult;
 import static io.prestosql.operator.WorkProcessor.ProcessState.yield;
@@ -64,6 +67,9 @@ public class PageProcessor
 
     private int projectBatchSize;
 
+    private long interpretedPages;
+    private long compiledPages;
+
     @VisibleForTesting
     public PageProcessor(Optional<PageFilter> filter, List<? extends PageProjection> projections, OptionalInt initialBatchSize)
     {
@@ -112,6 +118,20 @@ public class PageProcessor
             return WorkProcessor.of();
         }
 
+        ListenableFuture<?> blocked = isBlocked();
+        if (!blocked.isDone()) {
+            // the filter or a projection is compiled in the background, wait for it without holding the thread
+            return WorkProcessor.create(new WaitForCompilation(blocked, page))
+                    .flatMap(compiledPage -> createWorkProcessor(session, yieldSignal, memoryContext, compiledPage));
+        }
+
+        if (isInterpreted()) {
+            interpretedPages++;
+        }
+        else {
+            compiledPages++;
+        }
+
         if (filter.isPresent()) {
             SelectedPositions selectedPositions = filter.get().filter(session, filter.get().getInputChannels().getInputChannels(page));
             if (selectedPositions.isEmpty()) {
@@ -309,6 +329,77 @@ public class PageProcessor
         }
     }
 
+    /**
+     * Returns a future which completes once the filter and the projections can process pages.
+     * Pages added before are held back by the work processor until then.
+     */
+    public ListenableFuture<?> isBlocked()
+    {
+        if (filter.isPresent() && !filter.get().isBlocked().isDone()) {
+            return filter.get().isBlocked();
+        }
+        for (PageProjection projection : projections) {
+            if (!projection.isBlocked().isDone()) {
+                return projection.isBlocked();
+            }
+        }
+        return NOT_BLOCKED;
+    }
+
+    /**
+     * Returns the number of pages processed while the filter or a projection was interpreted.
+     */
+    public long getInterpretedPages()
+    {
+        return interpretedPages;
+    }
+
+    public long getCompiledPages()
+    {
+        return compiledPages;
+    }
+
+    private boolean isInterpreted()
+    {
+        if (filter.isPresent() && filter.get().isInterpreted()) {
+            return true;
+        }
+        for (PageProjection projection : projections) {
+            if (projection.isInterpreted()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @RestorableConfig(unsupported = true)
+    private static class WaitForCompilation
+            implements WorkProcessor.Process<Page>
+    {
+        private final ListenableFuture<?> compiled;
+        private Page page;
+
+        private WaitForCompilation(ListenableFuture<?> compiled, Page page)
+        {
+            this.compiled = compiled;
+            this.page = page;
+        }
+
+        @Override
+        public ProcessState<Page> process()
+        {
+            if (!compiled.isDone()) {
+                return blocked(compiled);
+            }
+            if (page == null) {
+                return finished();
+            }
+            Page result = page;
+            page = null;
+            return ofResult(result);
+        }
+    }
+
     @VisibleForTesting
     public List<PageProjection> getProjections()
     {
@@ -13,6 +13,7 @@
  */
 package io.prestosql.operator.project;
 
+import com.google.common.util.concurrent.ListenableFuture;
 import io.prestosql.operator.DriverYieldSignal;
 import io.prestosql.operator.Work;
 import io.prestosql.spi.Page;
@@ -20,6 +21,8 @@ import io.prestosql.spi.block.Block;
 import io.prestosql.spi.connector.ConnectorSession;
 import io.prestosql.spi.type.Type;
 
+import static io.prestosql.operator.Operator.NOT_BLOCKED;
+
 public interface PageProjection
 {
     Type getType();
@@ -29,4 +32,20 @@ public interface PageProjection
     InputChannels getInputChannels();
 
     Work<Block> project(ConnectorSession session, DriverYieldSignal yieldSignal, Page page, SelectedPositions selectedPositions);
+
+    /**
+     * Returns a future which completes once the projection can project pages, while it is compiled in the background.
+     */
+    default ListenableFuture<?> isBlocked()
+    {
+        return NOT_BLOCKED;
+    }
+
+    /**
+     * Returns true if the next page will be projected by interpreting the expression instead of running compiled code.
+     */
+    default boolean isInterpreted()
+    {
+        return false;
+    }
 }
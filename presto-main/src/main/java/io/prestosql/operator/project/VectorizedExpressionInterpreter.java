@@ -0,0 +1,688 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator.project;
+
+import io.airlift.slice.Slice;
+import io.prestosql.metadata.FunctionAndTypeManager;
+import io.prestosql.metadata.Metadata;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.block.RunLengthEncodedBlock;
+import io.prestosql.spi.connector.ConnectorSession;
+import io.prestosql.spi.function.BuiltInScalarFunctionImplementation.ArgumentProperty;
+import io.prestosql.spi.function.BuiltInScalarFunctionImplementation.ScalarImplementationChoice;
+import io.prestosql.spi.function.FunctionMetadata;
+import io.prestosql.spi.relation.CallExpression;
+import io.prestosql.spi.relation.ConstantExpression;
+import io.prestosql.spi.relation.InputReferenceExpression;
+import io.prestosql.spi.relation.LambdaDefinitionExpression;
+import io.prestosql.spi.relation.RowExpression;
+import io.prestosql.spi.relation.RowExpressionVisitor;
+import io.prestosql.spi.relation.SpecialForm;
+import io.prestosql.spi.relation.VariableReferenceExpression;
+import io.prestosql.spi.type.Type;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.WrongMethodTypeException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static com.google.common.base.Throwables.throwIfUnchecked;
+import static io.prestosql.spi.function.BuiltInScalarFunctionImplementation.ArgumentType.VALUE_TYPE;
+import static io.prestosql.spi.function.FunctionImplementationType.BUILTIN;
+import static io.prestosql.spi.function.FunctionKind.SCALAR;
+import static io.prestosql.spi.type.BooleanType.BOOLEAN;
+import static io.prestosql.spi.type.TypeUtils.readNativeValue;
+import static io.prestosql.spi.type.TypeUtils.writeNativeValue;
+import static io.prestosql.spi.util.Reflection.methodHandle;
+import static io.prestosql.sql.gen.BytecodeUtils.getAllScalarFunctionImplementationChoices;
+import static java.lang.invoke.MethodHandles.collectArguments;
+import static java.lang.invoke.MethodHandles.dropArguments;
+import static java.lang.invoke.MethodHandles.identity;
+import static java.lang.invoke.MethodHandles.insertArguments;
+import static java.lang.invoke.MethodHandles.permuteArguments;
+import static java.lang.invoke.MethodType.methodType;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Evaluates an expression over a page a column at a time: every node of the expression computes the block of its
+ * values for all requested positions before its parent is evaluated. Scalar functions are invoked through method
+ * handles which read their arguments straight from the argument blocks, so primitive values are not boxed.
+ * AND, OR, IF and COALESCE only evaluate an argument for the positions which need it, like the compiled code,
+ * so that it does not fail on positions the compiled code would not evaluate.
+ * <p>
+ * Used for filters and projections while they are compiled in the background. Instances are not thread safe,
+ * because functions with an instance factory keep their state in the interpreter.
+ */
+public final class VectorizedExpressionInterpreter
+{
+    private static final MethodHandle READ_BOOLEAN = methodHandle(VectorizedExpressionInterpreter.class, "readBoolean", Type.class, int.class, Block[].class, int.class);
+    private static final MethodHandle READ_LONG = methodHandle(VectorizedExpressionInterpreter.class, "readLong", Type.class, int.class, Block[].class, int.class);
+    private static final MethodHandle READ_DOUBLE = methodHandle(VectorizedExpressionInterpreter.class, "readDouble", Type.class, int.class, Block[].class, int.class);
+    private static final MethodHandle READ_SLICE = methodHandle(VectorizedExpressionInterpreter.class, "readSlice", Type.class, int.class, Block[].class, int.class);
+    private static final MethodHandle READ_OBJECT = methodHandle(VectorizedExpressionInterpreter.class, "readObject", Type.class, int.class, Block[].class, int.class);
+    private static final MethodHandle READ_BOXED = methodHandle(VectorizedExpressionInterpreter.class, "readBoxed", Type.class, int.class, Block[].class, int.class);
+    private static final MethodHandle READ_NULL_FLAG = methodHandle(VectorizedExpressionInterpreter.class, "readNullFlag", int.class, Block[].class, int.class);
+    private static final MethodHandle READ_BLOCK = methodHandle(VectorizedExpressionInterpreter.class, "readBlock", int.class, Block[].class, int.class);
+
+    private final ColumnEvaluator evaluator;
+
+    private VectorizedExpressionInterpreter(ColumnEvaluator evaluator)
+    {
+        this.evaluator = requireNonNull(evaluator, "evaluator is null");
+    }
+
+    /**
+     * Returns an interpreter of an expression whose input references point to the channels of the pages it evaluates,
+     * or empty if the expression contains lambdas, special forms other than AND, OR, IS_NULL, IF and COALESCE,
+     * or functions which are not built-in scalar functions returning their result.
+     */
+    public static Optional<VectorizedExpressionInterpreter> tryCreate(RowExpression expression, Metadata metadata)
+    {
+        ColumnEvaluator evaluator = expression.accept(new EvaluatorBuilder(metadata.getFunctionAndTypeManager()), null);
+        return Optional.ofNullable(evaluator).map(VectorizedExpressionInterpreter::new);
+    }
+
+    /**
+     * Returns a block with the value of the expression at each selected position of the page.
+     */
+    public Block evaluate(ConnectorSession session, Page page, SelectedPositions selectedPositions)
+    {
+        int[] positions = new int[selectedPositions.size()];
+        if (selectedPositions.isList()) {
+            System.arraycopy(selectedPositions.getPositions(), selectedPositions.getOffset(), positions, 0, positions.length);
+        }
+        else {
+            for (int i = 0; i < positions.length; i++) {
+                positions[i] = selectedPositions.getOffset() + i;
+            }
+        }
+        return evaluator.evaluate(session, page, positions, positions.length);
+    }
+
+    private interface ColumnEvaluator
+    {
+        /**
+         * Returns the values at the given increasing positions of the page. Positions are never empty.
+         */
+        Block evaluate(ConnectorSession session, Page page, int[] positions, int positionCount);
+
+        default boolean isConstant()
+        {
+            return false;
+        }
+    }
+
+    private static class EvaluatorBuilder
+            implements RowExpressionVisitor<ColumnEvaluator, Void>
+    {
+        private final FunctionAndTypeManager functionAndTypeManager;
+
+        private EvaluatorBuilder(FunctionAndTypeManager functionAndTypeManager)
+        {
+            this.functionAndTypeManager = functionAndTypeManager;
+        }
+
+        @Override
+        public ColumnEvaluator visitInputReference(InputReferenceExpression reference, Void context)
+        {
+            return new InputEvaluator(reference.getField());
+        }
+
+        @Override
+        public ColumnEvaluator visitConstant(ConstantExpression literal, Void context)
+        {
+            return new ConstantEvaluator(literal.getType(), literal.getValue());
+        }
+
+        @Override
+        public ColumnEvaluator visitCall(CallExpression call, Void context)
+        {
+            FunctionMetadata functionMetadata = functionAndTypeManager.getFunctionMetadata(call.getFunctionHandle());
+            if (functionMetadata.getFunctionKind() != SCALAR || functionMetadata.getImplementationType() != BUILTIN) {
+                return null;
+            }
+            List<ColumnEvaluator> arguments = visitArguments(call.getArguments());
+            if (arguments == null) {
+                return null;
+            }
+
+            ScalarImplementationChoice choice = getAllScalarFunctionImplementationChoices(functionAndTypeManager.getScalarFunctionImplementation(call.getFunctionHandle())).get(0);
+            MethodHandle method = choice.getMethodHandle();
+            if (choice.getInstanceFactory().isPresent()) {
+                try {
+                    method = method.bindTo(choice.getInstanceFactory().get().invoke());
+                }
+                catch (Throwable throwable) {
+                    throw propagate(throwable);
+                }
+            }
+            if (method.type().parameterCount() == 0 || method.type().parameterType(0) != ConnectorSession.class) {
+                method = dropArguments(method, 0, ConnectorSession.class);
+            }
+
+            // one reader of the argument blocks for each parameter of the method after the session
+            List<MethodHandle> readers = new ArrayList<>();
+            List<Integer> nullOnNullArguments = new ArrayList<>();
+            for (int i = 0; i < arguments.size(); i++) {
+                ArgumentProperty property = choice.getArgumentProperty(i);
+                if (property.getArgumentType() != VALUE_TYPE) {
+                    return null;
+                }
+                Type type = call.getArguments().get(i).getType();
+                switch (property.getNullConvention()) {
+                    case RETURN_NULL_ON_NULL:
+                        nullOnNullArguments.add(i);
+                        readers.add(insertArguments(valueReader(type), 0, type, i));
+                        break;
+                    case USE_BOXED_TYPE:
+                        readers.add(insertArguments(READ_BOXED, 0, type, i));
+                        break;
+                    case USE_NULL_FLAG:
+                        readers.add(insertArguments(valueReader(type), 0, type, i));
+                        readers.add(insertArguments(READ_NULL_FLAG, 0, i));
+                        break;
+                    case BLOCK_AND_POSITION:
+                        readers.add(insertArguments(READ_BLOCK, 0, i));
+                        readers.add(dropArguments(identity(int.class), 0, Block[].class));
+                        break;
+                    default:
+                        return null;
+                }
+            }
+            if (readers.size() != method.type().parameterCount() - 1) {
+                return null;
+            }
+
+            Class<?> returnType = method.type().returnType();
+            if (returnType == void.class || (returnType.isPrimitive() && returnType != boolean.class && returnType != long.class && returnType != double.class)) {
+                // the result is written to a provided block builder
+                return null;
+            }
+            MethodHandle invoker;
+            try {
+                // (session, value of argument 0, ..., value of argument n) becomes (session, blocks, position)
+                for (int parameter = readers.size(); parameter > 0; parameter--) {
+                    MethodHandle reader = readers.get(parameter - 1);
+                    method = collectArguments(method, parameter, reader.asType(reader.type().changeReturnType(method.type().parameterType(parameter))));
+                }
+                int[] reorder = new int[1 + 2 * readers.size()];
+                for (int parameter = 0; parameter < readers.size(); parameter++) {
+                    reorder[1 + 2 * parameter] = 1;
+                    reorder[2 + 2 * parameter] = 2;
+                }
+                invoker = permuteArguments(method, methodType(returnType, ConnectorSession.class, Block[].class, int.class), reorder);
+                if (!returnType.isPrimitive()) {
+                    invoker = invoker.asType(invoker.type().changeReturnType(Object.class));
+                }
+            }
+            catch (IllegalArgumentException | WrongMethodTypeException e) {
+                // the method does not take the native container types of the arguments
+                return null;
+            }
+
+            return new CallEvaluator(
+                    call.getType(),
+                    arguments,
+                    invoker,
+                    nullOnNullArguments.stream().mapToInt(Integer::intValue).toArray(),
+                    functionMetadata.isDeterministic());
+        }
+
+        @Override
+        public ColumnEvaluator visitSpecialForm(SpecialForm specialForm, Void context)
+        {
+            List<ColumnEvaluator> arguments = visitArguments(specialForm.getArguments());
+            if (arguments == null) {
+                return null;
+            }
+            switch (specialForm.getForm()) {
+                case AND:
+                    return logical(true, arguments);
+                case OR:
+                    return logical(false, arguments);
+                case IS_NULL:
+                    return new IsNullEvaluator(arguments.get(0));
+                case IF:
+                    if (arguments.size() != 3) {
+                        return null;
+                    }
+                    return new IfEvaluator(specialForm.getType(), arguments.get(0), arguments.get(1), arguments.get(2));
+                case COALESCE:
+                    ColumnEvaluator coalesce = arguments.get(arguments.size() - 1);
+                    for (int i = arguments.size() - 2; i >= 0; i--) {
+                        coalesce = new CoalesceEvaluator(specialForm.getType(), arguments.get(i), coalesce);
+                    }
+                    return coalesce;
+                default:
+                    return null;
+            }
+        }
+
+        @Override
+        public ColumnEvaluator visitLambda(LambdaDefinitionExpression lambda, Void context)
+        {
+            return null;
+        }
+
+        @Override
+        public ColumnEvaluator visitVariableReference(VariableReferenceExpression reference, Void context)
+        {
+            return null;
+        }
+
+        private List<ColumnEvaluator> visitArguments(List<RowExpression> expressions)
+        {
+            List<ColumnEvaluator> arguments = new ArrayList<>();
+            for (RowExpression expression : expressions) {
+                ColumnEvaluator argument = expression.accept(this, null);
+                if (argument == null) {
+                    return null;
+                }
+                arguments.add(argument);
+            }
+            return arguments;
+        }
+
+        private static ColumnEvaluator logical(boolean and, List<ColumnEvaluator> arguments)
+        {
+            ColumnEvaluator result = arguments.get(arguments.size() - 1);
+            for (int i = arguments.size() - 2; i >= 0; i--) {
+                result = new LogicalEvaluator(and, arguments.get(i), result);
+            }
+            return result;
+        }
+
+        private static MethodHandle valueReader(Type type)
+        {
+            Class<?> javaType = type.getJavaType();
+            if (javaType == boolean.class) {
+                return READ_BOOLEAN;
+            }
+            if (javaType == long.class) {
+                return READ_LONG;
+            }
+            if (javaType == double.class) {
+                return READ_DOUBLE;
+            }
+            if (javaType == Slice.class) {
+                return READ_SLICE;
+            }
+            return READ_OBJECT;
+        }
+    }
+
+    private static class InputEvaluator
+            implements ColumnEvaluator
+    {
+        private final int channel;
+
+        private InputEvaluator(int channel)
+        {
+            this.channel = channel;
+        }
+
+        @Override
+        public Block evaluate(ConnectorSession session, Page page, int[] positions, int positionCount)
+        {
+            Block block = page.getBlock(channel).getLoadedBlock();
+            // the positions are increasing, so they are all the positions of the block
+            if (positionCount == block.getPositionCount() && positions[positionCount - 1] == positionCount - 1) {
+                return block;
+            }
+            return block.getPositions(positions, 0, positionCount);
+        }
+    }
+
+    private static class ConstantEvaluator
+            implements ColumnEvaluator
+    {
+        private final Type type;
+        private final Object value;
+
+        private ConstantEvaluator(Type type, Object value)
+        {
+            this.type = type;
+            this.value = value;
+        }
+
+        @Override
+        public Block evaluate(ConnectorSession session, Page page, int[] positions, int positionCount)
+        {
+            return RunLengthEncodedBlock.create(type, value, positionCount);
+        }
+
+        @Override
+        public boolean isConstant()
+        {
+            return true;
+        }
+    }
+
+    private static class CallEvaluator
+            implements ColumnEvaluator
+    {
+        private final Type type;
+        private final ColumnEvaluator[] arguments;
+        // (ConnectorSession, Block[] arguments, int position) returning the result of the function
+        private final MethodHandle invoker;
+        private final Class<?> resultType;
+        private final int[] nullOnNullArguments;
+        private final boolean constant;
+        private Block constantValue;
+
+        private CallEvaluator(Type type, List<ColumnEvaluator> arguments, MethodHandle invoker, int[] nullOnNullArguments, boolean deterministic)
+        {
+            this.type = type;
+            this.arguments = arguments.toArray(new ColumnEvaluator[0]);
+            this.invoker = invoker;
+            this.resultType = invoker.type().returnType();
+            this.nullOnNullArguments = nullOnNullArguments;
+            this.constant = deterministic && arguments.stream().allMatch(ColumnEvaluator::isConstant);
+        }
+
+        @Override
+        public Block evaluate(ConnectorSession session, Page page, int[] positions, int positionCount)
+        {
+            if (constant) {
+                // a deterministic function of constants, like the cast of a LIKE pattern, is evaluated once
+                if (constantValue == null) {
+                    constantValue = invoke(session, page, positions, 1);
+                }
+                return new RunLengthEncodedBlock(constantValue, positionCount);
+            }
+            return invoke(session, page, positions, positionCount);
+        }
+
+        @Override
+        public boolean isConstant()
+        {
+            return constant;
+        }
+
+        private Block invoke(ConnectorSession session, Page page, int[] positions, int positionCount)
+        {
+            Block[] values = new Block[arguments.length];
+            for (int i = 0; i < arguments.length; i++) {
+                values[i] = arguments[i].evaluate(session, page, positions, positionCount);
+            }
+
+            BlockBuilder output = type.createBlockBuilder(null, positionCount);
+            try {
+                for (int position = 0; position < positionCount; position++) {
+                    if (isNullOnNullInput(values, position)) {
+                        output.appendNull();
+                    }
+                    else if (resultType == long.class) {
+                        type.writeLong(output, (long) invoker.invokeExact(session, values, position));
+                    }
+                    else if (resultType == double.class) {
+                        type.writeDouble(output, (double) invoker.invokeExact(session, values, position));
+                    }
+                    else if (resultType == boolean.class) {
+                        type.writeBoolean(output, (boolean) invoker.invokeExact(session, values, position));
+                    }
+                    else {
+                        writeNativeValue(type, output, (Object) invoker.invokeExact(session, values, position));
+                    }
+                }
+            }
+            catch (Throwable throwable) {
+                throw propagate(throwable);
+            }
+            return output.build();
+        }
+
+        private boolean isNullOnNullInput(Block[] values, int position)
+        {
+            for (int argument : nullOnNullArguments) {
+                if (values[argument].isNull(position)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static class LogicalEvaluator
+            implements ColumnEvaluator
+    {
+        // true for AND, false for OR
+        private final boolean and;
+        private final ColumnEvaluator left;
+        private final ColumnEvaluator right;
+
+        private LogicalEvaluator(boolean and, ColumnEvaluator left, ColumnEvaluator right)
+        {
+            this.and = and;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public Block evaluate(ConnectorSession session, Page page, int[] positions, int positionCount)
+        {
+            Block leftValues = left.evaluate(session, page, positions, positionCount);
+
+            // the right side is only evaluated where the left side does not decide the result
+            int[] rightPositions = new int[positionCount];
+            int rightPositionCount = 0;
+            for (int i = 0; i < positionCount; i++) {
+                if (leftValues.isNull(i) || BOOLEAN.getBoolean(leftValues, i) == and) {
+                    rightPositions[rightPositionCount++] = positions[i];
+                }
+            }
+            Block rightValues = rightPositionCount == 0 ? null : right.evaluate(session, page, rightPositions, rightPositionCount);
+
+            BlockBuilder output = BOOLEAN.createBlockBuilder(null, positionCount);
+            int rightIndex = 0;
+            for (int i = 0; i < positionCount; i++) {
+                boolean leftNull = leftValues.isNull(i);
+                if (!leftNull && BOOLEAN.getBoolean(leftValues, i) != and) {
+                    BOOLEAN.writeBoolean(output, !and);
+                    continue;
+                }
+                boolean rightNull = rightValues.isNull(rightIndex);
+                boolean rightValue = !rightNull && BOOLEAN.getBoolean(rightValues, rightIndex);
+                rightIndex++;
+                if (!rightNull && rightValue != and) {
+                    BOOLEAN.writeBoolean(output, !and);
+                }
+                else if (leftNull || rightNull) {
+                    output.appendNull();
+                }
+                else {
+                    BOOLEAN.writeBoolean(output, and);
+                }
+            }
+            return output.build();
+        }
+    }
+
+    private static class IsNullEvaluator
+            implements ColumnEvaluator
+    {
+        private final ColumnEvaluator argument;
+
+        private IsNullEvaluator(ColumnEvaluator argument)
+        {
+            this.argument = argument;
+        }
+
+        @Override
+        public Block evaluate(ConnectorSession session, Page page, int[] positions, int positionCount)
+        {
+            Block values = argument.evaluate(session, page, positions, positionCount);
+            BlockBuilder output = BOOLEAN.createBlockBuilder(null, positionCount);
+            for (int i = 0; i < positionCount; i++) {
+                BOOLEAN.writeBoolean(output, values.isNull(i));
+            }
+            return output.build();
+        }
+    }
+
+    private static class IfEvaluator
+            implements ColumnEvaluator
+    {
+        private final Type type;
+        private final ColumnEvaluator condition;
+        private final ColumnEvaluator ifTrue;
+        private final ColumnEvaluator ifFalse;
+
+        private IfEvaluator(Type type, ColumnEvaluator condition, ColumnEvaluator ifTrue, ColumnEvaluator ifFalse)
+        {
+            this.type = type;
+            this.condition = condition;
+            this.ifTrue = ifTrue;
+            this.ifFalse = ifFalse;
+        }
+
+        @Override
+        public Block evaluate(ConnectorSession session, Page page, int[] positions, int positionCount)
+        {
+            Block conditions = condition.evaluate(session, page, positions, positionCount);
+
+            boolean[] selected = new boolean[positionCount];
+            int[] truePositions = new int[positionCount];
+            int[] falsePositions = new int[positionCount];
+            int trueCount = 0;
+            int falseCount = 0;
+            for (int i = 0; i < positionCount; i++) {
+                selected[i] = !conditions.isNull(i) && BOOLEAN.getBoolean(conditions, i);
+                if (selected[i]) {
+                    truePositions[trueCount++] = positions[i];
+                }
+                else {
+                    falsePositions[falseCount++] = positions[i];
+                }
+            }
+            Block trueValues = trueCount == 0 ? null : ifTrue.evaluate(session, page, truePositions, trueCount);
+            Block falseValues = falseCount == 0 ? null : ifFalse.evaluate(session, page, falsePositions, falseCount);
+
+            BlockBuilder output = type.createBlockBuilder(null, positionCount);
+            int trueIndex = 0;
+            int falseIndex = 0;
+            for (int i = 0; i < positionCount; i++) {
+                if (selected[i]) {
+                    type.appendTo(trueValues, trueIndex++, output);
+                }
+                else {
+                    type.appendTo(falseValues, falseIndex++, output);
+                }
+            }
+            return output.build();
+        }
+    }
+
+    private static class CoalesceEvaluator
+            implements ColumnEvaluator
+    {
+        private final Type type;
+        private final ColumnEvaluator first;
+        private final ColumnEvaluator rest;
+
+        private CoalesceEvaluator(Type type, ColumnEvaluator first, ColumnEvaluator rest)
+        {
+            this.type = type;
+            this.first = first;
+            this.rest = rest;
+        }
+
+        @Override
+        public Block evaluate(ConnectorSession session, Page page, int[] positions, int positionCount)
+        {
+            Block firstValues = first.evaluate(session, page, positions, positionCount);
+
+            int[] nullPositions = new int[positionCount];
+            int nullCount = 0;
+            for (int i = 0; i < positionCount; i++) {
+                if (firstValues.isNull(i)) {
+                    nullPositions[nullCount++] = positions[i];
+                }
+            }
+            if (nullCount == 0) {
+                return firstValues;
+            }
+            Block restValues = rest.evaluate(session, page, nullPositions, nullCount);
+
+            BlockBuilder output = type.createBlockBuilder(null, positionCount);
+            int restIndex = 0;
+            for (int i = 0; i < positionCount; i++) {
+                if (firstValues.isNull(i)) {
+                    type.appendTo(restValues, restIndex++, output);
+                }
+                else {
+                    type.appendTo(firstValues, i, output);
+                }
+            }
+            return output.build();
+        }
+    }
+
+    public static boolean readBoolean(Type type, int argument, Block[] blocks, int position)
+    {
+        Block block = blocks[argument];
+        return !block.isNull(position) && type.getBoolean(block, position);
+    }
+
+    public static long readLong(Type type, int argument, Block[] blocks, int position)
+    {
+        Block block = blocks[argument];
+        return block.isNull(position) ? 0 : type.getLong(block, position);
+    }
+
+    public static double readDouble(Type type, int argument, Block[] blocks, int position)
+    {
+        Block block = blocks[argument];
+        return block.isNull(position) ? 0 : type.getDouble(block, position);
+    }
+
+    public static Slice readSlice(Type type, int argument, Block[] blocks, int position)
+    {
+        Block block = blocks[argument];
+        return block.isNull(position) ? null : type.getSlice(block, position);
+    }
+
+    public static Object readObject(Type type, int argument, Block[] blocks, int position)
+    {
+        Block block = blocks[argument];
+        return block.isNull(position) ? null : type.getObject(block, position);
+    }
+
+    public static Object readBoxed(Type type, int argument, Block[] blocks, int position)
+    {
+        return readNativeValue(type, blocks[argument], position);
+    }
+
+    public static boolean readNullFlag(int argument, Block[] blocks, int position)
+    {
+        return blocks[argument].isNull(position);
+    }
+
+    public static Block readBlock(int argument, Block[] blocks, int position)
+    {
+        return blocks[argument];
+    }
+
+    private static RuntimeException propagate(Throwable throwable)
+    {
+        if (throwable instanceof InterruptedException) {
+            Thread.currentThread().interrupt();
+        }
+        throwIfUnchecked(throwable);
+        throw new RuntimeException(throwable);
+    }
+}
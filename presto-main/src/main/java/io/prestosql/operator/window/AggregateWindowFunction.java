@@ -28,14 +28,18 @@ import java.io.Serializable;
 import java.util.List;
 import java.util.Optional;
 
+import static java.lang.Math.max;
+import static java.lang.Math.min;
 import static java.util.Objects.requireNonNull;
 
-@RestorableConfig(uncapturedFields = {"argumentChannels", "windowIndex", "accumulatorFactory"})
+@RestorableConfig(uncapturedFields = {"argumentChannels", "windowIndex", "accumulatorFactory", "segmentTree"})
 public class AggregateWindowFunction
         implements WindowFunction
 {
     private final List<Integer> argumentChannels;
     private final AccumulatorFactory accumulatorFactory;
+    private final boolean removeInputSupported;
+    private final boolean segmentTreeSupported;
 
     // Snapshot: all windowIndex operations revolves around pagesIndex which is passed in and captured/restored outside
     // windowIndex fields in all window functions are reset when WindowPartition is created(see WindowPartition line 71)
@@ -44,17 +48,25 @@ public class AggregateWindowFunction
     private Accumulator accumulator;
     private int currentStart;
     private int currentEnd;
+    // number of rows in the current frame with no null argument, tracked only when input can be removed
+    private int currentInputRows;
+    // built lazily from windowIndex, so it is rebuilt rather than captured
+    private WindowSegmentTree segmentTree;
 
     private AggregateWindowFunction(InternalAggregationFunction function, List<Integer> argumentChannels)
     {
         this.argumentChannels = ImmutableList.copyOf(argumentChannels);
         this.accumulatorFactory = function.bind(createArgs(function), Optional.empty());
+        this.removeInputSupported = accumulatorFactory.createAccumulator().supportsRemoveInput();
+        // the tree merges intermediate states out of row order
+        this.segmentTreeSupported = function.isDecomposable() && !function.isOrderSensitive();
     }
 
     @Override
     public void reset(WindowIndex windowIndex)
     {
         this.windowIndex = windowIndex;
+        this.segmentTree = null;
         resetAccumulator();
     }
 
@@ -70,6 +82,19 @@ public class AggregateWindowFunction
             accumulate(currentEnd + 1, frameEnd);
             currentEnd = frameEnd;
         }
+        else if (removeInputSupported && currentStart >= 0 && isCheaperToSlide(frameStart, frameEnd)) {
+            // overlapping frame: take out the rows that left and add the rows that entered
+            slideFrame(frameStart, frameEnd);
+        }
+        else if (!removeInputSupported && segmentTreeSupported && frameEnd - frameStart + 1 >= 2 * WindowSegmentTree.LEAF_SIZE) {
+            // large frame that cannot be slid
+            if (segmentTree == null) {
+                segmentTree = new WindowSegmentTree(accumulatorFactory, windowIndex, argumentChannels);
+            }
+            accumulator = segmentTree.aggregate(frameStart, frameEnd);
+            currentStart = frameStart;
+            currentEnd = frameEnd;
+        }
         else {
             // different frame
             resetAccumulator();
@@ -81,9 +106,72 @@ public class AggregateWindowFunction
         accumulator.evaluateFinal(output);
     }
 
+    private boolean isCheaperToSlide(int frameStart, int frameEnd)
+    {
+        int overlap = min(frameEnd, currentEnd) - max(frameStart, currentStart) + 1;
+        if (overlap <= 0) {
+            return false;
+        }
+        int frameRows = frameEnd - frameStart + 1;
+        int changedRows = (frameRows - overlap) + (currentEnd - currentStart + 1 - overlap);
+        return changedRows < frameRows;
+    }
+
+    private void slideFrame(int frameStart, int frameEnd)
+    {
+        if (currentStart < frameStart) {
+            remove(currentStart, frameStart - 1);
+        }
+        if (frameEnd < currentEnd) {
+            remove(frameEnd + 1, currentEnd);
+        }
+        if (currentInputRows == 0) {
+            // an emptied state is not always equal to a fresh one, e.g. sum must go back to null
+            accumulator = accumulatorFactory.createAccumulator();
+        }
+        if (frameStart < currentStart) {
+            accumulate(frameStart, currentStart - 1);
+        }
+        if (currentEnd < frameEnd) {
+            accumulate(currentEnd + 1, frameEnd);
+        }
+        currentStart = frameStart;
+        currentEnd = frameEnd;
+    }
+
     private void accumulate(int start, int end)
     {
         accumulator.addInput(windowIndex, argumentChannels, start, end);
+        if (removeInputSupported) {
+            currentInputRows += countInputRows(start, end);
+        }
+    }
+
+    private void remove(int start, int end)
+    {
+        accumulator.removeInput(windowIndex, argumentChannels, start, end);
+        currentInputRows -= countInputRows(start, end);
+    }
+
+    private int countInputRows(int start, int end)
+    {
+        int rows = 0;
+        for (int position = start; position <= end; position++) {
+            if (!anyArgumentIsNull(position)) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    private boolean anyArgumentIsNull(int position)
+    {
+        for (int channel : argumentChannels) {
+            if (windowIndex.isNull(channel, position)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     private void resetAccumulator()
@@ -92,6 +180,7 @@ public class AggregateWindowFunction
             accumulator = accumulatorFactory.createAccumulator();
             currentStart = -1;
             currentEnd = -1;
+            currentInputRows = 0;
         }
     }
 
@@ -126,6 +215,7 @@ public class AggregateWindowFunction
         }
         myState.currentStart = currentStart;
         myState.currentEnd = currentEnd;
+        myState.currentInputRows = currentInputRows;
         return myState;
     }
 
@@ -144,6 +234,7 @@ public class AggregateWindowFunction
         }
         this.currentStart = myState.currentStart;
         this.currentEnd = myState.currentEnd;
+        this.currentInputRows = myState.currentInputRows;
     }
 
     private static class AggregateWindowFunctionState
@@ -152,5 +243,6 @@ public class AggregateWindowFunction
         private Object accumulator;
         private int currentStart;
         private int currentEnd;
+        private int currentInputRows;
     }
 }
@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2018-2022. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator.window;
+
+import com.google.common.collect.ImmutableList;
+import io.prestosql.operator.aggregation.Accumulator;
+import io.prestosql.operator.aggregation.AccumulatorFactory;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.function.WindowIndex;
+import io.prestosql.spi.type.Type;
+
+import java.util.List;
+
+import static java.lang.Math.min;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Pre-aggregates a window partition into a tree of intermediate states, so that any frame can be
+ * assembled from O(log n) intermediate states plus the rows of at most two partially covered leaves.
+ * Used for aggregations that cannot take input back out, such as min and max.
+ */
+final class WindowSegmentTree
+{
+    static final int LEAF_SIZE = 64;
+
+    private final AccumulatorFactory accumulatorFactory;
+    private final WindowIndex windowIndex;
+    private final List<Integer> argumentChannels;
+    // levels.get(0) holds one intermediate state per leaf of LEAF_SIZE rows, each level above combines pairs of the level below
+    private final List<Block> levels;
+
+    WindowSegmentTree(AccumulatorFactory accumulatorFactory, WindowIndex windowIndex, List<Integer> argumentChannels)
+    {
+        this.accumulatorFactory = requireNonNull(accumulatorFactory, "accumulatorFactory is null");
+        this.windowIndex = requireNonNull(windowIndex, "windowIndex is null");
+        this.argumentChannels = ImmutableList.copyOf(requireNonNull(argumentChannels, "argumentChannels is null"));
+        this.levels = buildLevels();
+    }
+
+    /**
+     * Returns a new accumulator holding the aggregate of rows {@code start} through {@code end} inclusive.
+     */
+    Accumulator aggregate(int start, int end)
+    {
+        Accumulator accumulator = accumulatorFactory.createAccumulator();
+
+        int firstLeaf = (start + LEAF_SIZE - 1) / LEAF_SIZE;
+        int lastLeaf = (end == windowIndex.size() - 1) ? levels.get(0).getPositionCount() - 1 : (end + 1) / LEAF_SIZE - 1;
+        if (firstLeaf > lastLeaf) {
+            accumulator.addInput(windowIndex, argumentChannels, start, end);
+            return accumulator;
+        }
+
+        int headEnd = firstLeaf * LEAF_SIZE - 1;
+        if (start <= headEnd) {
+            accumulator.addInput(windowIndex, argumentChannels, start, headEnd);
+        }
+
+        int low = firstLeaf;
+        int high = lastLeaf;
+        for (int level = 0; low <= high; level++) {
+            if ((low & 1) == 1) {
+                accumulator.addIntermediate(levels.get(level).getRegion(low, 1));
+                low++;
+            }
+            if ((high & 1) == 0) {
+                accumulator.addIntermediate(levels.get(level).getRegion(high, 1));
+                high--;
+            }
+            low >>= 1;
+            high >>= 1;
+        }
+
+        int tailStart = (lastLeaf + 1) * LEAF_SIZE;
+        if (tailStart <= end) {
+            accumulator.addInput(windowIndex, argumentChannels, tailStart, end);
+        }
+        return accumulator;
+    }
+
+    private List<Block> buildLevels()
+    {
+        Type intermediateType = accumulatorFactory.createAccumulator().getIntermediateType();
+        int rows = windowIndex.size();
+        int leafCount = (rows + LEAF_SIZE - 1) / LEAF_SIZE;
+
+        BlockBuilder leaves = intermediateType.createBlockBuilder(null, leafCount);
+        for (int leafStart = 0; leafStart < rows; leafStart += LEAF_SIZE) {
+            Accumulator accumulator = accumulatorFactory.createAccumulator();
+            accumulator.addInput(windowIndex, argumentChannels, leafStart, min(leafStart + LEAF_SIZE, rows) - 1);
+            accumulator.evaluateIntermediate(leaves);
+        }
+
+        ImmutableList.Builder<Block> levels = ImmutableList.builder();
+        Block level = leaves.build();
+        levels.add(level);
+        while (level.getPositionCount() > 1) {
+            BlockBuilder parents = intermediateType.createBlockBuilder(null, (level.getPositionCount() + 1) / 2);
+            for (int child = 0; child < level.getPositionCount(); child += 2) {
+                Accumulator accumulator = accumulatorFactory.createAccumulator();
+                accumulator.addIntermediate(level.getRegion(child, min(2, level.getPositionCount() - child)));
+                accumulator.evaluateIntermediate(parents);
+            }
+            level = parents.build();
+            levels.add(level);
+        }
+        return levels.build();
+    }
+}
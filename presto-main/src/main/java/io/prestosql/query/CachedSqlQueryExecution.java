@@ -20,6 +20,7 @@ import io.prestosql.Session;
 import io.prestosql.SystemSessionProperties;
 import io.prestosql.cache.CachedDataManager;
 import io.prestosql.cache.CachedDataStorageProvider;
+import io.prestosql.cache.QueryResultCache;
 import io.prestosql.cache.elements.CachedDataKey;
 import io.prestosql.cache.elements.CachedDataStorage;
 import io.prestosql.connector.informationschema.InformationSchemaTransactionHandle;
@@ -156,7 +157,8 @@ public class CachedSqlQueryExecution
                                    PartitionMemoryEstimatorFactory partitionMemoryEstimatorFactory, TaskExecutionStats taskExecutionStats,
                                    QueryResourceManagerService queryResourceManager,
                                    TableExecuteContextManager tableExecuteContextManager,
-                                   CachedDataManager dataCache, boolean isMultiCoordinatorEnabled, String cachingUserName)
+                                   CachedDataManager dataCache, boolean isMultiCoordinatorEnabled, String cachingUserName,
+                                   QueryResultCache queryResultCache)
     {
         super(tableExecuteContextManager, preparedQuery, stateMachine, slug, metadata, cubeManager, accessControl, sqlParser, splitManager,
                 nodePartitioningManager, nodeScheduler, planOptimizers, planFragmenter, remoteTaskFactory, locationFactory,
@@ -164,7 +166,7 @@ public class CachedSqlQueryExecution
                 executionPolicy, schedulerStats, statsCalculator, costCalculator, warningCollector, dynamicFilterService,
                 heuristicIndexerManager, stateStoreProvider, recoveryUtils, exchangeManagerRegistry, coordinatorTaskManager,
                 taskSourceFactory, taskDescriptorStorage, nodeAllocatorService, partitionMemoryEstimatorFactory, taskExecutionStats,
-                queryResourceManager, isMultiCoordinatorEnabled, cachingUserName);
+                queryResourceManager, isMultiCoordinatorEnabled, cachingUserName, queryResultCache);
         this.cache = cache;
         this.dataCache = dataCache;
         this.beginTableWrite = new BeginTableWrite(metadata, cachingUserName);
@@ -38,6 +38,7 @@ import io.prestosql.spi.queryhistory.QueryHistoryEntity;
 import io.prestosql.spi.queryhistory.QueryHistoryResult;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
@@ -240,6 +241,16 @@ public class QueryHistoryService
         return queryHistoryResult;
     }
 
+    public List<QueryHistoryEntity> getRecentFinishedQueries(int limit)
+    {
+        Info info = new Info("", "", "", "", "", "", "", "finished", "", "createTime", "descending");
+        QueryHistoryResult queryHistoryResult = Query(info, 1, limit);
+        if (queryHistoryResult.getQueries() == null) {
+            return ImmutableList.of();
+        }
+        return queryHistoryResult.getQueries();
+    }
+
     // assign queryHistoryCount to currentQueries
     // if queryHistoryCount > 1000, then delete the oldest 100 queryHistory
     public Long getCurrentQueries()
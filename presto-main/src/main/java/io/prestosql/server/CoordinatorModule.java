@@ -36,6 +36,9 @@ import io.prestosql.cost.StatsAndCosts;
 import io.prestosql.cost.StatsCalculatorModule;
 import io.prestosql.cost.TaskCountEstimator;
 import io.prestosql.ctematerialization.CteMaterializationScanner;
+import io.prestosql.cube.CubeAdvisorResource;
+import io.prestosql.cube.CubeAutoRefreshConfig;
+import io.prestosql.cube.CubeAutoRefreshScanner;
 import io.prestosql.discovery.server.HetuEmbeddedDiscoveryModule;
 import io.prestosql.dispatcher.DispatchExecutor;
 import io.prestosql.dispatcher.DispatchManager;
@@ -270,6 +273,9 @@ public class CoordinatorModule
         //QueryHistory Module
         binder.install(new QueryHistoryModule());
 
+        // cube recommendations based on query history
+        jaxrsBinder(binder).bind(CubeAdvisorResource.class);
+
         // resource for serving static content
         jaxrsBinder(binder).bind(WebUiResource.class);
 
@@ -398,6 +404,11 @@ public class CoordinatorModule
                 config -> config.isAutoVacuumEnabled(),
                 binder1 -> binder1.bind(AutoVacuumScanner.class).in(Scopes.SINGLETON)));
 
+        install(installModuleIf(
+                CubeAutoRefreshConfig.class,
+                config -> config.isAutoRefreshEnabled(),
+                binder1 -> binder1.bind(CubeAutoRefreshScanner.class).in(Scopes.SINGLETON)));
+
         install(installModuleIf(
                 HetuConfig.class,
                 config -> config.isCteMaterializationEnabled(),
@@ -48,6 +48,7 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.client.ClientBuilder;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
 
@@ -64,6 +65,8 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Strings.nullToEmpty;
 import static io.prestosql.connector.system.KillQueryProcedure.createKillQueryException;
 import static io.prestosql.connector.system.KillQueryProcedure.createPreemptQueryException;
+import static io.prestosql.execution.StageInfo.getAllStages;
+import static io.prestosql.operator.StackSampleFormatter.formatCollapsedStacks;
 import static java.util.Objects.requireNonNull;
 
 /**
@@ -316,6 +319,37 @@ public class QueryResource
         }
     }
 
+    @GET
+    @Produces(MediaType.TEXT_PLAIN)
+    @Path("{queryId}/flamegraph")
+    public Response getQueryFlameGraph(@PathParam("queryId") QueryId queryId)
+    {
+        try {
+            requireNonNull(queryId, "queryId is null");
+        }
+        catch (Exception ex) {
+            return Response.status(Status.BAD_REQUEST).build();
+        }
+        BasicQueryInfo basicQueryInfo = getBasicQueryInfo(queryId);
+
+        if (basicQueryInfo == null) {
+            return Response.status(Status.GONE).build();
+        }
+
+        if (!isQueryUriLocal(basicQueryInfo)) {
+            // redirect remote query
+            return ClientBuilder.newBuilder().build().target(basicQueryInfo.getSelf()).path("flamegraph").request().get();
+        }
+
+        try {
+            QueryInfo queryInfo = queryManager.getFullQueryInfo(queryId);
+            return Response.ok(formatCollapsedStacks(getAllStages(queryInfo.getOutputStage()))).build();
+        }
+        catch (NoSuchElementException ignored) {
+            return Response.status(Status.GONE).build();
+        }
+    }
+
     @GET
     @Produces("application/json")
     @Path("history_{queryId}")
@@ -34,6 +34,8 @@ import io.prestosql.SystemSessionProperties;
 import io.prestosql.block.BlockJsonSerde;
 import io.prestosql.cache.CacheStorageMonitor;
 import io.prestosql.cache.CachedDataManager;
+import io.prestosql.cache.QueryResultCache;
+import io.prestosql.cache.SplitPageCache;
 import io.prestosql.catalog.CatalogInfo;
 import io.prestosql.catalog.CatalogStoreUtil;
 import io.prestosql.catalog.DynamicCatalogConfig;
@@ -126,6 +128,7 @@ import io.prestosql.spi.block.BlockEncodingSerde;
 import io.prestosql.spi.connector.ConnectorSplit;
 import io.prestosql.spi.relation.DeterminismEvaluator;
 import io.prestosql.spi.relation.DomainTranslator;
+import io.prestosql.spi.relation.RowExpression;
 import io.prestosql.spi.type.Type;
 import io.prestosql.spi.type.TypeManager;
 import io.prestosql.spiller.FileSingleStreamSpillerFactory;
@@ -152,6 +155,7 @@ import io.prestosql.sql.gen.JoinCompiler;
 import io.prestosql.sql.gen.JoinFilterFunctionCompiler;
 import io.prestosql.sql.gen.OrderingCompiler;
 import io.prestosql.sql.gen.PageFunctionCompiler;
+import io.prestosql.sql.gen.PersistentCompilerCache;
 import io.prestosql.sql.parser.SqlParser;
 import io.prestosql.sql.parser.SqlParserOptions;
 import io.prestosql.sql.planner.CompilerConfig;
@@ -373,6 +377,9 @@ public class ServerMainModule
         newExporter(binder).export(MultilevelSplitQueue.class).withGeneratedName();
         binder.bind(LocalExecutionPlanner.class).in(Scopes.SINGLETON);
         configBinder(binder).bindConfig(CompilerConfig.class);
+        binder.bind(PersistentCompilerCache.class).in(Scopes.SINGLETON);
+        newExporter(binder).export(PersistentCompilerCache.class).withGeneratedName();
+        jsonCodecBinder(binder).bindJsonCodec(RowExpression.class);
         binder.bind(ExpressionCompiler.class).in(Scopes.SINGLETON);
         newExporter(binder).export(ExpressionCompiler.class).withGeneratedName();
         binder.bind(PageFunctionCompiler.class).in(Scopes.SINGLETON);
@@ -492,6 +499,10 @@ public class ServerMainModule
         binder.bind(QueryIdGenerator.class).in(Scopes.SINGLETON);
         binder.bind(CacheStorageMonitor.class).in(Scopes.SINGLETON);
         binder.bind(CachedDataManager.class).in(Scopes.SINGLETON);
+        binder.bind(SplitPageCache.class).in(Scopes.SINGLETON);
+        newExporter(binder).export(SplitPageCache.class).withGeneratedName();
+        binder.bind(QueryResultCache.class).in(Scopes.SINGLETON);
+        newExporter(binder).export(QueryResultCache.class).withGeneratedName();
 
         // system connector
         binder.install(new SystemConnectorModule());
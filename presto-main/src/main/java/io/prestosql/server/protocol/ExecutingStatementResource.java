@@ -22,8 +22,10 @@ import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 import io.prestosql.Session;
 import io.prestosql.SystemSessionProperties;
+import io.prestosql.cache.QueryResultCache;
 import io.prestosql.client.QueryResults;
 import io.prestosql.client.QueryStatusInfo;
+import io.prestosql.client.ResultFormat;
 import io.prestosql.exchange.ExchangeId;
 import io.prestosql.execution.QueryManager;
 import io.prestosql.memory.context.SimpleLocalMemoryContext;
@@ -72,6 +74,7 @@ import static io.prestosql.client.PrestoHeaders.PRESTO_ADDED_PREPARE;
 import static io.prestosql.client.PrestoHeaders.PRESTO_CLEAR_SESSION;
 import static io.prestosql.client.PrestoHeaders.PRESTO_CLEAR_TRANSACTION_ID;
 import static io.prestosql.client.PrestoHeaders.PRESTO_DEALLOCATED_PREPARE;
+import static io.prestosql.client.PrestoHeaders.PRESTO_RESULT_FORMAT;
 import static io.prestosql.client.PrestoHeaders.PRESTO_SET_CATALOG;
 import static io.prestosql.client.PrestoHeaders.PRESTO_SET_PATH;
 import static io.prestosql.client.PrestoHeaders.PRESTO_SET_ROLE;
@@ -79,11 +82,13 @@ import static io.prestosql.client.PrestoHeaders.PRESTO_SET_SCHEMA;
 import static io.prestosql.client.PrestoHeaders.PRESTO_SET_SESSION;
 import static io.prestosql.client.PrestoHeaders.PRESTO_STARTED_TRANSACTION_ID;
 import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
+import static java.util.Locale.ENGLISH;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static javax.ws.rs.core.MediaType.TEXT_PLAIN_TYPE;
+import static javax.ws.rs.core.Response.Status.BAD_REQUEST;
 import static javax.ws.rs.core.Response.Status.NOT_FOUND;
 
 @Path("/")
@@ -102,6 +107,7 @@ public class ExecutingStatementResource
     private final BoundedExecutor responseExecutor;
     private final ScheduledExecutorService timeoutExecutor;
     private final RecoveryUtils recoveryUtils;
+    private final QueryResultCache resultCache;
 
     private final ConcurrentMap<QueryId, Query> queries = new ConcurrentHashMap<>();
     private final ScheduledExecutorService queryPurger = newSingleThreadScheduledExecutor(threadsNamed("execution-query-purger"));
@@ -112,6 +118,7 @@ public class ExecutingStatementResource
             ExchangeClientSupplier exchangeClientSupplier,
             BlockEncodingSerde blockEncodingSerde,
             RecoveryUtils recoveryUtils,
+            QueryResultCache resultCache,
             @ForStatementResource BoundedExecutor responseExecutor,
             @ForStatementResource ScheduledExecutorService timeoutExecutor)
     {
@@ -121,6 +128,7 @@ public class ExecutingStatementResource
         this.responseExecutor = requireNonNull(responseExecutor, "responseExecutor is null");
         this.timeoutExecutor = requireNonNull(timeoutExecutor, "timeoutExecutor is null");
         this.recoveryUtils = recoveryUtils;
+        this.resultCache = requireNonNull(resultCache, "resultCache is null");
 
         queryPurger.scheduleWithFixedDelay(
                 () -> {
@@ -161,6 +169,7 @@ public class ExecutingStatementResource
             @QueryParam("maxWait") Duration maxWait,
             @QueryParam("targetResultSize") DataSize targetResultSize,
             @HeaderParam(X_FORWARDED_PROTO) String proto,
+            @HeaderParam(PRESTO_RESULT_FORMAT) String resultFormat,
             @Context UriInfo uriInfo,
             @Suspended AsyncResponse asyncResponse)
     {
@@ -170,7 +179,7 @@ public class ExecutingStatementResource
             tmpProto = uriInfo.getRequestUri().getScheme();
         }
 
-        asyncQueryResults(query, token, maxWait, targetResultSize, uriInfo, tmpProto, asyncResponse);
+        asyncQueryResults(query, token, maxWait, targetResultSize, uriInfo, tmpProto, parseResultFormat(resultFormat), asyncResponse);
     }
 
     protected Query getQuery(QueryId queryId, String slug)
@@ -207,7 +216,8 @@ public class ExecutingStatementResource
                     exchangeClient,
                     responseExecutor,
                     timeoutExecutor,
-                    blockEncodingSerde);
+                    blockEncodingSerde,
+                    resultCache);
         });
         return query;
     }
@@ -219,11 +229,12 @@ public class ExecutingStatementResource
             DataSize targetResultSize,
             UriInfo uriInfo,
             String scheme,
+            ResultFormat resultFormat,
             AsyncResponse asyncResponse)
     {
         Duration wait = WAIT_ORDERING.min(MAX_WAIT_TIME, maxWait);
         DataSize tmpTargetResultSize = targetResultSize == null ? DEFAULT_TARGET_RESULT_SIZE : Ordering.natural().min(targetResultSize, MAX_TARGET_RESULT_SIZE);
-        ListenableFuture<QueryResults> queryResultsFuture = query.waitForResults(token, uriInfo, scheme, wait, tmpTargetResultSize);
+        ListenableFuture<QueryResults> queryResultsFuture = query.waitForResults(token, uriInfo, scheme, wait, tmpTargetResultSize, resultFormat);
 
         ListenableFuture<Response> response = Futures.transform(queryResultsFuture, queryResults -> toResponse(query, queryResults), directExecutor());
 
@@ -306,6 +317,19 @@ public class ExecutingStatementResource
         }
     }
 
+    private static ResultFormat parseResultFormat(String resultFormat)
+    {
+        if (isNullOrEmpty(resultFormat)) {
+            return ResultFormat.JSON;
+        }
+        try {
+            return ResultFormat.valueOf(resultFormat.toUpperCase(ENGLISH));
+        }
+        catch (IllegalArgumentException e) {
+            throw badRequest(BAD_REQUEST, "Invalid " + PRESTO_RESULT_FORMAT + " header: " + resultFormat);
+        }
+    }
+
     private static WebApplicationException badRequest(Status status, String message)
     {
         throw new WebApplicationException(
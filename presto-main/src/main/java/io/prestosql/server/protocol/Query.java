@@ -27,6 +27,7 @@ import io.hetu.core.transport.execution.buffer.PagesSerde;
 import io.hetu.core.transport.execution.buffer.PagesSerdeFactory;
 import io.hetu.core.transport.execution.buffer.SerializedPage;
 import io.prestosql.Session;
+import io.prestosql.cache.QueryResultCache;
 import io.prestosql.client.ClientTypeSignature;
 import io.prestosql.client.ClientTypeSignatureParameter;
 import io.prestosql.client.Column;
@@ -35,11 +36,13 @@ import io.prestosql.client.FailureInfo;
 import io.prestosql.client.NamedClientTypeSignature;
 import io.prestosql.client.QueryError;
 import io.prestosql.client.QueryResults;
+import io.prestosql.client.ResultFormat;
 import io.prestosql.client.RowFieldName;
 import io.prestosql.client.SnapshotStats;
 import io.prestosql.client.StageStats;
 import io.prestosql.client.StatementStats;
 import io.prestosql.client.Warning;
+import io.prestosql.client.protocol.ColumnarQueryData;
 import io.prestosql.execution.ExecutionFailureInfo;
 import io.prestosql.execution.QueryExecution;
 import io.prestosql.execution.QueryInfo;
@@ -126,8 +129,11 @@ public class Query
 
     private final Executor resultsProcessorExecutor;
     private final ScheduledExecutorService timeoutExecutor;
+    private final QueryResultCache resultCache;
 
     private final PagesSerde serde;
+    // always compressing, used to encode pages sent to clients in binary result format
+    private final PagesSerde binaryResultsSerde;
 
     @GuardedBy("this")
     private OptionalLong nextToken = OptionalLong.of(0);
@@ -189,7 +195,20 @@ public class Query
             ScheduledExecutorService timeoutExecutor,
             BlockEncodingSerde blockEncodingSerde)
     {
-        Query result = new Query(session, slug, queryManager, exchangeClient, dataProcessorExecutor, timeoutExecutor, blockEncodingSerde);
+        return create(session, slug, queryManager, exchangeClient, dataProcessorExecutor, timeoutExecutor, blockEncodingSerde, QueryResultCache.disabled());
+    }
+
+    public static Query create(
+            Session session,
+            String slug,
+            QueryManager queryManager,
+            ExchangeClient exchangeClient,
+            Executor dataProcessorExecutor,
+            ScheduledExecutorService timeoutExecutor,
+            BlockEncodingSerde blockEncodingSerde,
+            QueryResultCache resultCache)
+    {
+        Query result = new Query(session, slug, queryManager, exchangeClient, dataProcessorExecutor, timeoutExecutor, blockEncodingSerde, resultCache);
 
         result.queryManager.addOutputInfoListener(result.getQueryId(), result::setQueryOutputInfo);
         result.queryManager.addStateChangeListener(result.getQueryId(), result::updateQueryState);
@@ -198,6 +217,7 @@ public class Query
             if (state.isDone()) {
                 QueryInfo queryInfo = queryManager.getFullQueryInfo(result.getQueryId());
                 result.closeExchangeClientIfNecessary(queryInfo);
+                resultCache.queryFinished(result.getQueryId(), state == QueryState.FINISHED);
             }
         });
 
@@ -211,7 +231,8 @@ public class Query
             ExchangeClient exchangeClient,
             Executor resultsProcessorExecutor,
             ScheduledExecutorService timeoutExecutor,
-            BlockEncodingSerde blockEncodingSerde)
+            BlockEncodingSerde blockEncodingSerde,
+            QueryResultCache resultCache)
     {
         requireNonNull(session, "session is null");
         requireNonNull(slug, "slug is null");
@@ -229,8 +250,10 @@ public class Query
         this.exchangeClient = exchangeClient;
         this.resultsProcessorExecutor = resultsProcessorExecutor;
         this.timeoutExecutor = timeoutExecutor;
+        this.resultCache = requireNonNull(resultCache, "resultCache is null");
 
         serde = new PagesSerdeFactory(blockEncodingSerde, isExchangeCompressionEnabled(session)).createPagesSerde();
+        binaryResultsSerde = new PagesSerdeFactory(blockEncodingSerde, true).createPagesSerde();
     }
 
     public void cancel()
@@ -304,7 +327,7 @@ public class Query
         return clearTransactionId;
     }
 
-    public synchronized ListenableFuture<QueryResults> waitForResults(long token, UriInfo uriInfo, String scheme, Duration wait, DataSize targetResultSize)
+    public synchronized ListenableFuture<QueryResults> waitForResults(long token, UriInfo uriInfo, String scheme, Duration wait, DataSize targetResultSize, ResultFormat resultFormat)
     {
         // before waiting, check if this request has already been processed and cached
         Optional<QueryResults> cachedResult = getCachedResult(token);
@@ -320,7 +343,7 @@ public class Query
                 timeoutExecutor);
 
         // when state changes, fetch the next result
-        return Futures.transform(futureStateChange, ignored -> getNextResult(token, uriInfo, scheme, targetResultSize), resultsProcessorExecutor);
+        return Futures.transform(futureStateChange, ignored -> getNextResult(token, uriInfo, scheme, targetResultSize, resultFormat), resultsProcessorExecutor);
     }
 
     public synchronized ListenableFuture<DataCenterQueryResults> waitForResults(long token, Duration wait, DataSize targetResultSize)
@@ -425,7 +448,7 @@ public class Query
         return Optional.empty();
     }
 
-    private synchronized QueryResults getNextResult(long token, UriInfo uriInfo, String scheme, DataSize targetResultSize)
+    private synchronized QueryResults getNextResult(long token, UriInfo uriInfo, String scheme, DataSize targetResultSize, ResultFormat resultFormat)
     {
         // check if the result for the token have already been created
         Optional<QueryResults> cachedResult = getCachedResult(token);
@@ -447,8 +470,13 @@ public class Query
         // last page is removed.  If another thread observes this state before the response is cached
         // the pages will be lost.
         Iterable<List<Object>> data = null;
+        List<SerializedPage> binaryData = null;
+        // binary results are only sent when the client can decode every column type,
+        // otherwise the rows fall back to JSON encoding
+        boolean binaryResults = resultFormat == ResultFormat.BINARY && columns != null && ColumnarQueryData.isSupported(columns);
         try {
             ImmutableList.Builder<RowIterable> pages = ImmutableList.builder();
+            ImmutableList.Builder<SerializedPage> binaryPages = ImmutableList.builder();
             long bytes = 0;
             long rows = 0;
             long targetResultBytes = targetResultSize.toBytes();
@@ -458,6 +486,14 @@ public class Query
                 if (serializedPage == null) {
                     break;
                 }
+                resultCache.addPage(queryId, serializedPage, serde);
+
+                if (binaryResults) {
+                    binaryPages.add(toBinaryResultPage(serializedPage));
+                    bytes += serializedPage.getUncompressedSizeInBytes();
+                    rows += serializedPage.getPositionCount();
+                    continue;
+                }
 
                 Page page = serde.deserialize(serializedPage);
                 bytes += page.getLogicalSizeInBytes();
@@ -466,9 +502,15 @@ public class Query
             }
             if (rows > 0) {
                 // client implementations do not properly handle empty list of data
-                data = Iterables.concat(pages.build());
+                if (binaryResults) {
+                    binaryData = binaryPages.build();
+                }
+                else {
+                    data = Iterables.concat(pages.build());
+                }
             }
             if (exchangeClient.isFinished()) {
+                resultCache.outputFinished(queryId);
                 exchangeClient.close();
             }
         }
@@ -493,6 +535,13 @@ public class Query
                 }
             }
         }
+        else if ((binaryData != null) && (queryInfo.getUpdateType() != null) && (updateCount == null) &&
+                (columns.size() == 1) && (columns.get(0).getType().equals(StandardTypes.BIGINT))) {
+            Page page = binaryResultsSerde.deserialize(binaryData.get(0));
+            if (page.getPositionCount() > 0 && !page.getBlock(0).isNull(0)) {
+                updateCount = page.getBlock(0).getLong(0, 0);
+            }
+        }
 
         closeExchangeClientIfNecessary(queryInfo);
 
@@ -500,11 +549,13 @@ public class Query
         if ((queryInfo.getState() == QueryState.FINISHED) && !queryInfo.getOutputStage().isPresent()) {
             columns = ImmutableList.of(createColumn("result", BooleanType.BOOLEAN));
             data = ImmutableSet.of(ImmutableList.of(true));
+            binaryData = null;
         }
         else if (queryInfo.isRunningAsync()) {
             columns = ImmutableList.of(createColumn("result", BooleanType.BOOLEAN),
                     createColumn("runningAsync", BooleanType.BOOLEAN));
             data = ImmutableSet.of(ImmutableList.of(true, true));
+            binaryData = null;
         }
 
         // advance next token
@@ -558,6 +609,7 @@ public class Query
                 nextResultsUri,
                 columns,
                 data,
+                binaryData,
                 toStatementStats(queryInfo),
                 toQueryError(queryInfo),
                 mappedCopy(queryInfo.getWarnings(), Query::toClientWarning),
@@ -571,6 +623,20 @@ public class Query
         return queryResults;
     }
 
+    private SerializedPage toBinaryResultPage(SerializedPage serializedPage)
+    {
+        SerializedPage compressedPage = serializedPage;
+        if (!serializedPage.isCompressed()) {
+            compressedPage = binaryResultsSerde.serialize(serde.deserialize(serializedPage));
+        }
+        // copy the page out of the exchange buffer, it is retained until the client acknowledges the token
+        return new SerializedPage(
+                compressedPage.getSlice().getBytes(),
+                compressedPage.getPageCodecMarkers(),
+                compressedPage.getPositionCount(),
+                compressedPage.getUncompressedSizeInBytes());
+    }
+
     private synchronized DataCenterQueryResults getNextResult(long token, DataSize targetResultSize)
     {
         // check if the result for the token have already been created
@@ -606,6 +672,7 @@ public class Query
                 if (serializedPage == null) {
                     break;
                 }
+                resultCache.addPage(queryId, serializedPage, serde);
                 builder.add(new SerializedPage(
                         serializedPage.getSlice().getBytes(),
                         serializedPage.getPageCodecMarkers(),
@@ -618,6 +685,9 @@ public class Query
                 // client implementations do not properly handle empty list of data
                 data = builder.build();
             }
+            if (exchangeClient.isFinished()) {
+                resultCache.outputFinished(queryId);
+            }
         }
         catch (Throwable cause) {
             queryManager.failQuery(queryId, cause);
@@ -0,0 +1,258 @@
+/*
+ * Copyright (C) 2018-2022. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spiller;
+
+import com.google.common.collect.AbstractIterator;
+import io.airlift.compress.Compressor;
+import io.airlift.compress.Decompressor;
+import io.airlift.compress.lz4.Lz4Compressor;
+import io.airlift.compress.lz4.Lz4Decompressor;
+import io.airlift.compress.zstd.ZstdCompressor;
+import io.airlift.compress.zstd.ZstdDecompressor;
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.slice.Slice;
+import io.airlift.slice.SliceInput;
+import io.airlift.slice.SliceOutput;
+import io.airlift.slice.Slices;
+import io.airlift.slice.XxHash64;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockEncodingSerde;
+import io.prestosql.spi.block.VariableWidthBlockEncoding;
+import io.prestosql.spi.snapshot.MarkerPage;
+import io.prestosql.spi.spiller.SpillCipher;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import java.util.Iterator;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.prestosql.spi.StandardErrorCode.CORRUPT_PAGE;
+import static java.lang.Math.toIntExact;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+import static sun.misc.Unsafe.ARRAY_BYTE_BASE_OFFSET;
+
+/**
+ * Column-oriented encoding of spilled pages. Every block of a page is stored separately:
+ * <pre>
+ * page:  positionCount (int), channelCount (int), block * channelCount
+ * block: codec (byte), uncompressedSize (int), storedSize (int), checksum (long), data (storedSize bytes)
+ * </pre>
+ * Variable width blocks are compressed with zstd and all other blocks with LZ4, falling back to
+ * no compression when it does not pay off. The checksum covers the stored (compressed and possibly
+ * encrypted) bytes, so corruption is reported before anything is decompressed. Readers can ask for
+ * a subset of the channels; the remaining blocks are skipped without being decompressed or decoded.
+ */
+@NotThreadSafe
+public final class ColumnarSpillSerde
+{
+    private static final double MINIMUM_COMPRESSION_RATIO = 0.8;
+
+    private static final byte CODEC_NONE = 0;
+    private static final byte CODEC_LZ4 = 1;
+    private static final byte CODEC_ZSTD = 2;
+
+    private final BlockEncodingSerde blockEncodingSerde;
+    private final Optional<SpillCipher> spillCipher;
+
+    private final Compressor lz4Compressor = new Lz4Compressor();
+    private final Decompressor lz4Decompressor = new Lz4Decompressor();
+    private final Compressor zstdCompressor = new ZstdCompressor();
+    private final Decompressor zstdDecompressor = new ZstdDecompressor();
+
+    public ColumnarSpillSerde(BlockEncodingSerde blockEncodingSerde, Optional<SpillCipher> spillCipher)
+    {
+        this.blockEncodingSerde = requireNonNull(blockEncodingSerde, "blockEncodingSerde is null");
+        this.spillCipher = requireNonNull(spillCipher, "spillCipher is null");
+    }
+
+    /**
+     * Writes the page and returns the number of bytes it occupies in the output.
+     */
+    public long writePage(SliceOutput output, Page page)
+    {
+        checkArgument(!(page instanceof MarkerPage), "Marker pages cannot be spilled in columnar format");
+        long startSize = output.size();
+        output.writeInt(page.getPositionCount());
+        output.writeInt(page.getChannelCount());
+        for (int channel = 0; channel < page.getChannelCount(); channel++) {
+            writeBlock(output, page.getBlock(channel));
+        }
+        return output.size() - startSize;
+    }
+
+    /**
+     * Reads all pages from the input, keeping only the given channels, or all channels if {@code channels} is empty.
+     */
+    public Iterator<Page> readPages(SliceInput input, Optional<int[]> channels)
+    {
+        requireNonNull(input, "input is null");
+        requireNonNull(channels, "channels is null");
+        return new AbstractIterator<Page>()
+        {
+            @Override
+            protected Page computeNext()
+            {
+                if (!input.isReadable()) {
+                    return endOfData();
+                }
+                return readPage(input, channels);
+            }
+        };
+    }
+
+    public Page readPage(SliceInput input, Optional<int[]> channels)
+    {
+        int positionCount = input.readInt();
+        int channelCount = input.readInt();
+        if (!channels.isPresent()) {
+            Block[] blocks = new Block[channelCount];
+            for (int channel = 0; channel < channelCount; channel++) {
+                blocks[channel] = readBlock(input, channel);
+            }
+            return new Page(positionCount, blocks);
+        }
+
+        int[] requested = channels.get();
+        Block[] decoded = new Block[channelCount];
+        boolean[] needed = new boolean[channelCount];
+        for (int channel : requested) {
+            checkArgument(channel >= 0 && channel < channelCount, "Invalid channel %s for page with %s channels", channel, channelCount);
+            needed[channel] = true;
+        }
+        for (int channel = 0; channel < channelCount; channel++) {
+            if (needed[channel]) {
+                decoded[channel] = readBlock(input, channel);
+            }
+            else {
+                skipBlock(input);
+            }
+        }
+        Block[] blocks = new Block[requested.length];
+        for (int i = 0; i < requested.length; i++) {
+            blocks[i] = decoded[requested[i]];
+        }
+        return new Page(positionCount, blocks);
+    }
+
+    private void writeBlock(SliceOutput output, Block block)
+    {
+        DynamicSliceOutput serializationBuffer = new DynamicSliceOutput(toIntExact(block.getSizeInBytes() + Integer.BYTES));
+        blockEncodingSerde.writeBlock(serializationBuffer, block);
+        Slice slice = serializationBuffer.slice();
+        int uncompressedSize = slice.length();
+
+        byte codec = CODEC_NONE;
+        Compressor compressor = VariableWidthBlockEncoding.NAME.equals(block.getEncodingName()) ? zstdCompressor : lz4Compressor;
+        byte[] compressed = new byte[compressor.maxCompressedLength(uncompressedSize)];
+        int compressedSize = compressor.compress(
+                (byte[]) slice.getBase(),
+                (int) (slice.getAddress() - ARRAY_BYTE_BASE_OFFSET),
+                uncompressedSize,
+                compressed,
+                0,
+                compressed.length);
+        if ((((double) compressedSize) / uncompressedSize) <= MINIMUM_COMPRESSION_RATIO) {
+            slice = Slices.wrappedBuffer(compressed, 0, compressedSize);
+            codec = compressor == zstdCompressor ? CODEC_ZSTD : CODEC_LZ4;
+        }
+
+        if (spillCipher.isPresent()) {
+            byte[] encrypted = new byte[spillCipher.get().encryptedMaxLength(slice.length())];
+            int encryptedSize = spillCipher.get().encrypt(
+                    (byte[]) slice.getBase(),
+                    (int) (slice.getAddress() - ARRAY_BYTE_BASE_OFFSET),
+                    slice.length(),
+                    encrypted,
+                    0);
+            slice = Slices.wrappedBuffer(encrypted, 0, encryptedSize);
+        }
+
+        output.writeByte(codec);
+        output.writeInt(uncompressedSize);
+        output.writeInt(slice.length());
+        output.writeLong(XxHash64.hash(slice));
+        output.writeBytes(slice);
+    }
+
+    private Block readBlock(SliceInput input, int channel)
+    {
+        byte codec = input.readByte();
+        int uncompressedSize = input.readInt();
+        int storedSize = input.readInt();
+        long checksum = input.readLong();
+        byte[] stored = new byte[storedSize];
+        input.readBytes(stored);
+
+        Slice slice = Slices.wrappedBuffer(stored);
+        if (XxHash64.hash(slice) != checksum) {
+            throw new PrestoException(CORRUPT_PAGE, format("Checksum mismatch in spilled block for channel %s", channel));
+        }
+
+        if (spillCipher.isPresent()) {
+            byte[] decrypted = new byte[spillCipher.get().decryptedMaxLength(slice.length())];
+            int decryptedSize = spillCipher.get().decrypt(stored, 0, stored.length, decrypted, 0);
+            slice = Slices.wrappedBuffer(decrypted, 0, decryptedSize);
+        }
+
+        if (codec != CODEC_NONE) {
+            Decompressor decompressor = getDecompressor(codec, channel);
+            byte[] decompressed = new byte[uncompressedSize];
+            int decompressedSize = decompressor.decompress(
+                    (byte[]) slice.getBase(),
+                    (int) (slice.getAddress() - ARRAY_BYTE_BASE_OFFSET),
+                    slice.length(),
+                    decompressed,
+                    0,
+                    uncompressedSize);
+            if (decompressedSize != uncompressedSize) {
+                throw new PrestoException(CORRUPT_PAGE, format("Spilled block for channel %s decompressed to %s bytes, expected %s", channel, decompressedSize, uncompressedSize));
+            }
+            slice = Slices.wrappedBuffer(decompressed);
+        }
+
+        return blockEncodingSerde.readBlock(slice.getInput());
+    }
+
+    private static void skipBlock(SliceInput input)
+    {
+        input.readByte();
+        input.readInt();
+        long remaining = input.readInt();
+        input.readLong();
+        while (remaining > 0) {
+            long skipped = input.skip(remaining);
+            if (skipped <= 0) {
+                throw new PrestoException(CORRUPT_PAGE, "Spilled page is truncated");
+            }
+            remaining -= skipped;
+        }
+    }
+
+    private Decompressor getDecompressor(byte codec, int channel)
+    {
+        switch (codec) {
+            case CODEC_LZ4:
+                return lz4Decompressor;
+            case CODEC_ZSTD:
+                return zstdDecompressor;
+            default:
+                throw new PrestoException(CORRUPT_PAGE, format("Unknown codec %s in spilled block for channel %s", codec, channel));
+        }
+    }
+}
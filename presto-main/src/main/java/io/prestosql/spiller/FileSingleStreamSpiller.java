@@ -60,9 +60,11 @@ import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static io.hetu.core.transport.execution.buffer.PagesSerdeUtil.writeSerializedPage;
 import static io.prestosql.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
@@ -76,7 +78,7 @@ import static java.util.Objects.requireNonNull;
 
 @RestorableConfig(uncapturedFields = {"closer", "serde",
         "spillerStats", "localSpillContext", "memoryContext", "executor", "spillInProgress", "cipherIV", "spillCipher", "fileSystemClientManager", "fileSystemClient",
-        "spillPath", "output", "oldState", "closed", "outputStream", "sessionTargetFile", "useSessionDirectSerde"})
+        "spillPath", "output", "oldState", "closed", "outputStream", "sessionTargetFile", "useSessionDirectSerde", "diskStats", "ioExecutor", "columnarSerde"})
 public class FileSingleStreamSpiller
         extends FileSingleSessionStreamSpiller
         implements SingleStreamSpiller
@@ -115,6 +117,11 @@ public class FileSingleStreamSpiller
     private long targetFileSize = Long.MAX_VALUE;
     private final boolean isSnapshotEnabled;
 
+    private final SpillDiskStats diskStats;
+    private final Optional<ExecutorService> ioExecutor;
+    private final int ioBufferSize;
+    private final Optional<ColumnarSpillSerde> columnarSerde;
+
     public FileSingleStreamSpiller(
             PagesSerde serde,
             ListeningExecutorService executor,
@@ -133,6 +140,33 @@ public class FileSingleStreamSpiller
             boolean isSingleSessionSpiller,
             boolean isSnapshotEnabled,
             String queryId)
+    {
+        this(serde, executor, spillPath, spillerStats, spillContext, memoryContext, spillCipher, compressionEnabled, useDirectSerde,
+                spillPrefetchReadPages, useKryo, spillToHdfs, spillProfile, fileSystemClientManager, isSingleSessionSpiller, isSnapshotEnabled, queryId,
+                Optional.empty(), 0, Optional.empty());
+    }
+
+    public FileSingleStreamSpiller(
+            PagesSerde serde,
+            ListeningExecutorService executor,
+            Path spillPath,
+            SpillerStats spillerStats,
+            SpillContext spillContext,
+            LocalMemoryContext memoryContext,
+            Optional<SpillCipher> spillCipher,
+            boolean compressionEnabled,
+            boolean useDirectSerde,
+            int spillPrefetchReadPages,
+            boolean useKryo,
+            boolean spillToHdfs,
+            String spillProfile,
+            FileSystemClientManager fileSystemClientManager,
+            boolean isSingleSessionSpiller,
+            boolean isSnapshotEnabled,
+            String queryId,
+            Optional<ExecutorService> ioExecutor,
+            int ioBufferSize,
+            Optional<ColumnarSpillSerde> columnarSerde)
     {
         this.serde = requireNonNull(serde, "serde is null");
         this.executor = requireNonNull(executor, "executor is null");
@@ -149,6 +183,11 @@ public class FileSingleStreamSpiller
         this.isSnapshotEnabled = isSnapshotEnabled;
         this.localSpillContext = spillContext.newLocalSpillContext();
         this.memoryContext = requireNonNull(memoryContext, "memoryContext is null");
+        this.diskStats = spillerStats.getDiskStats(spillPath);
+        this.ioExecutor = requireNonNull(ioExecutor, "ioExecutor is null");
+        this.ioBufferSize = ioBufferSize;
+        this.columnarSerde = requireNonNull(columnarSerde, "columnarSerde is null");
+        checkArgument(!columnarSerde.isPresent() || !isSingleSessionSpiller, "Columnar spill format is not supported by the single session spiller");
         if (requireNonNull(spillCipher, "spillCipher is null").isPresent()) {
             closer.register(spillCipher.get()::close);
         }
@@ -162,7 +201,8 @@ public class FileSingleStreamSpiller
         // This means we start accounting for the memory before the spiller thread allocates it, and we release the memory reservation
         // before/after the spiller thread allocates that memory -- -- whether before or after depends on whether writePages() is in the
         // middle of execution when close() is called (note that this applies to both readPages() and writePages() methods).
-        this.memoryContext.setBytes(BUFFER_SIZE);
+        // With asynchronous I/O the write double buffer and the read prefetch buffers are held for the lifetime of the spiller as well.
+        this.memoryContext.setBytes(BUFFER_SIZE + (ioExecutor.isPresent() ? 2L * ioBufferSize : 0));
         try {
             this.fileSystemClient = getFileSystem(spillPath, spillToHdfs, spillProfile, fileSystemClientManager);
         }
@@ -202,7 +242,10 @@ public class FileSingleStreamSpiller
     {
         requireNonNull(pageIterator, "pageIterator is null");
         checkNoSpillInProgress();
-        if (useDirectSerde) {
+        if (columnarSerde.isPresent()) {
+            spillInProgress = executor.submit(() -> writePagesColumnar(pageIterator));
+        }
+        else if (useDirectSerde) {
             spillInProgress = executor.submit(() -> {
                 if (isSingleSessionSpiller) {
                     Stats stats = super.writePagesDirect(writable, pageIterator, serde);
@@ -249,6 +292,16 @@ public class FileSingleStreamSpiller
         return readPages();
     }
 
+    @Override
+    public Iterator<Page> getSpilledPages(int[] channels)
+    {
+        checkNoSpillInProgress();
+        if (!columnarSerde.isPresent()) {
+            return SingleStreamSpiller.super.getSpilledPages(channels);
+        }
+        return readPagesColumnar(Optional.of(channels));
+    }
+
     @Override
     public ListenableFuture<List<Page>> getAllSpilledPages()
     {
@@ -278,6 +331,28 @@ public class FileSingleStreamSpiller
         }
     }
 
+    private void writePagesColumnar(Iterator<Page> pageIterator)
+    {
+        checkState(writable, "Spilling no longer allowed. The spiller has been made non-writable on first read for subsequent reads to be consistent");
+        // compression and encryption are applied block by block by the columnar serde
+        try (SliceOutput output = new OutputStreamSliceOutput(getOutputStreamBasedOnSpillLocation(), BUFFER_SIZE)) {
+            Stopwatch timer = Stopwatch.createStarted();
+            while (pageIterator.hasNext()) {
+                Page page = pageIterator.next();
+                spilledPagesInMemorySize += page.getSizeInBytes();
+                long pageSize = columnarSerde.get().writePage(output, page);
+                localSpillContext.updateBytes(pageSize);
+                spillerStats.addToTotalSpilledBytes(pageSize);
+                pageSizeList.add(pageSize);
+            }
+            timer.stop();
+            localSpillContext.updateWriteTime(timer.elapsed(TimeUnit.MILLISECONDS));
+        }
+        catch (UncheckedIOException | IOException e) {
+            throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to spill pages", e);
+        }
+    }
+
     protected OutputStream getStreamForWriting(OutputStream outputStream, int bufferSize) throws IOException
     {
         OutputStream tmpOutputStream = outputStream;
@@ -361,13 +436,31 @@ public class FileSingleStreamSpiller
         return (input) -> (!((InputStreamSliceInput) input).isReadable() || ((InputStreamSliceInput) input).position() >= targetFileSize);
     }
 
+    private Iterator<Page> readPagesColumnar(Optional<int[]> channels)
+    {
+        checkState(writable, "Repeated reads are disallowed to prevent potential resource leaks ");
+        writable = false;
+
+        try {
+            InputStream input = closer.register(new SpillDiskInputStream(targetFile.newInputStream(), diskStats, ioExecutor, ioBufferSize));
+            Iterator<Page> pages = columnarSerde.get().readPages(new InputStreamSliceInput(input, BUFFER_SIZE), channels);
+            return closeWhenExhausted(pages, input, localSpillContext);
+        }
+        catch (IOException e) {
+            throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to read spilled pages", e);
+        }
+    }
+
     private Iterator<Page> readPages()
     {
+        if (columnarSerde.isPresent()) {
+            return readPagesColumnar(Optional.empty());
+        }
         checkState(writable, "Repeated reads are disallowed to prevent potential resource leaks ");
         writable = false;
 
         try {
-            InputStream input = closer.register(targetFile.newInputStream());
+            InputStream input = closer.register(new SpillDiskInputStream(targetFile.newInputStream(), diskStats, ioExecutor, ioBufferSize));
             Iterator<Page> pages;
 
             if (useDirectSerde) {
@@ -482,12 +575,14 @@ public class FileSingleStreamSpiller
 
     private OutputStream getOutputStreamBasedOnSpillLocation() throws IOException
     {
+        OutputStream outputStream;
         if (spillToHdfs) {
-            return targetFile.newOutputStream();
+            outputStream = targetFile.newOutputStream();
         }
         else {
-            return targetFile.newOutputStream(APPEND);
+            outputStream = targetFile.newOutputStream(APPEND);
         }
+        return new SpillDiskOutputStream(outputStream, diskStats, ioExecutor, ioBufferSize);
     }
 
     @Override
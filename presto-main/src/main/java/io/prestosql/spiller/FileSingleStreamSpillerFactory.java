@@ -30,6 +30,7 @@ import io.prestosql.spi.block.BlockEncodingSerde;
 import io.prestosql.spi.filesystem.HetuFileSystemClient;
 import io.prestosql.spi.spiller.SpillCipher;
 import io.prestosql.spi.type.Type;
+import io.prestosql.spiller.NodeSpillConfig.SpillFileFormat;
 import io.prestosql.sql.analyzer.FeaturesConfig;
 
 import javax.annotation.PreDestroy;
@@ -39,12 +40,14 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Stream;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.prestosql.spi.StandardErrorCode.OUT_OF_SPILL_SPACE;
+import static java.lang.Math.toIntExact;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.Executors.newFixedThreadPool;
@@ -62,6 +65,7 @@ public class FileSingleStreamSpillerFactory
 
     private final ListeningExecutorService executor;
     private final PagesSerdeFactory serdeFactory;
+    private final BlockEncodingSerde blockEncodingSerde;
     private final List<Path> spillPaths;
     private final SpillerStats spillerStats;
     private final double maxUsedSpaceThreshold;
@@ -69,6 +73,9 @@ public class FileSingleStreamSpillerFactory
     private final boolean spillDirectSerdeEnabled;
     private final boolean useKryo;
     private final boolean spillCompressionEnabled;
+    private final Optional<ExecutorService> ioExecutor;
+    private final int ioBufferSize;
+    private final SpillFileFormat spillFileFormat;
     private int roundRobinIndex;
     private int spillPrefetchReadPages;
     private boolean spillToHdfs;
@@ -94,7 +101,10 @@ public class FileSingleStreamSpillerFactory
                 requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").isSpillUseKryoSerialization(),
                 requireNonNull(featuresConfig, "featuresConfig is null").isSpillToHdfs(),
                 requireNonNull(featuresConfig, "featuresConfig is null").getSpillProfile(),
-                requireNonNull(fileSystemClientManager, "fileSystemClientManager is null"));
+                requireNonNull(fileSystemClientManager, "fileSystemClientManager is null"),
+                requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").isSpillAsyncIoEnabled(),
+                toIntExact(requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").getSpillIoBufferSize().toBytes()),
+                requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").getSpillFileFormat());
     }
 
     @VisibleForTesting
@@ -132,12 +142,37 @@ public class FileSingleStreamSpillerFactory
             boolean spillToHdfs,
             String spillProfile,
             FileSystemClientManager fileSystemClientManager)
+    {
+        this(executor, blockEncodingSerde, spillerStats, spillPaths, maxUsedSpaceThreshold,
+                spillCompressionEnabled, spillEncryptionEnabled, spillDirectSerdeEnabled,
+                spillPrefetchReadPages, useKryo, spillToHdfs, spillProfile, fileSystemClientManager, false, 0, SpillFileFormat.PAGES);
+    }
+
+    @VisibleForTesting
+    public FileSingleStreamSpillerFactory(
+            ListeningExecutorService executor,
+            BlockEncodingSerde blockEncodingSerde,
+            SpillerStats spillerStats,
+            List<Path> spillPaths,
+            double maxUsedSpaceThreshold,
+            boolean spillCompressionEnabled,
+            boolean spillEncryptionEnabled,
+            boolean spillDirectSerdeEnabled,
+            int spillPrefetchReadPages,
+            boolean useKryo,
+            boolean spillToHdfs,
+            String spillProfile,
+            FileSystemClientManager fileSystemClientManager,
+            boolean spillAsyncIoEnabled,
+            int ioBufferSize,
+            SpillFileFormat spillFileFormat)
     {
         checkArgument(!(blockEncodingSerde instanceof KryoBlockEncodingSerde)
                         || (blockEncodingSerde instanceof KryoBlockEncodingSerde && spillDirectSerdeEnabled),
                 "Kryo serialization should enable DirectSpill");
 
         this.serdeFactory = new PagesSerdeFactory(blockEncodingSerde, spillCompressionEnabled);
+        this.blockEncodingSerde = blockEncodingSerde;
         this.executor = requireNonNull(executor, "executor is null");
         this.spillerStats = requireNonNull(spillerStats, "spillerStats can not be null");
         requireNonNull(spillPaths, "spillPaths is null");
@@ -152,6 +187,12 @@ public class FileSingleStreamSpillerFactory
         this.useKryo = useKryo;
         this.fileSystemClientManager = fileSystemClientManager;
         this.spillPaths = ImmutableList.copyOf(spillPaths);
+        // each spill stream has at most one write or prefetch outstanding; two threads per disk let consecutive requests overlap
+        this.ioExecutor = spillAsyncIoEnabled
+                ? Optional.of(newFixedThreadPool(Math.max(2, 2 * this.spillPaths.size()), daemonThreadsNamed("spill-io-%s")))
+                : Optional.empty();
+        this.ioBufferSize = ioBufferSize;
+        this.spillFileFormat = requireNonNull(spillFileFormat, "spillFileFormat is null");
     }
 
     public synchronized void cleanupOldSpillFiles()
@@ -163,6 +204,7 @@ public class FileSingleStreamSpillerFactory
     public void destroy()
     {
         executor.shutdownNow();
+        ioExecutor.ifPresent(ExecutorService::shutdownNow);
     }
 
     private synchronized void cleanupOldSpillFiles(Path path, boolean spillToHdfs, String spillProfile, FileSystemClientManager fileSystemClientManager)
@@ -205,7 +247,13 @@ public class FileSingleStreamSpillerFactory
         else {
             spillPath = isSpillToHdfs ? Paths.get("/tmp/hetu/snapshot") : getNextSpillPath();
         }
-        return new FileSingleStreamSpiller(serde, executor, spillPath, spillerStats, spillContext, memoryContext, spillCipher, spillCompressionEnabled, spillDirectSerdeEnabled, spillPrefetchReadPages, useKryo, isSpillToHdfs, spillProfile, fileSystemClientManager, isSingleSessionSpiller, isSnapshotEnabled, queryId);
+        // The single session spiller appends to a shared stream and snapshot files on HDFS are read back by offset,
+        // both of which rely on the page stream layout, so only regular local spill files use the columnar format.
+        Optional<ColumnarSpillSerde> columnarSerde = Optional.empty();
+        if (spillFileFormat == SpillFileFormat.COLUMNAR && !useKryo && !isSingleSessionSpiller && !isSpillToHdfs) {
+            columnarSerde = Optional.of(new ColumnarSpillSerde(blockEncodingSerde, spillCipher));
+        }
+        return new FileSingleStreamSpiller(serde, executor, spillPath, spillerStats, spillContext, memoryContext, spillCipher, spillCompressionEnabled, spillDirectSerdeEnabled, spillPrefetchReadPages, useKryo, isSpillToHdfs, spillProfile, fileSystemClientManager, isSingleSessionSpiller, isSnapshotEnabled, queryId, isSpillToHdfs ? Optional.empty() : ioExecutor, ioBufferSize, columnarSerde);
     }
 
     private synchronized Path getHdfsSpillPath(Path spillToHdfsPath)
@@ -216,17 +264,32 @@ public class FileSingleStreamSpillerFactory
         throw new PrestoException(OUT_OF_SPILL_SPACE, "No free space available for spill");
     }
 
-    private synchronized Path getNextSpillPath()
+    /**
+     * Picks the spill path with the fewest outstanding I/O requests among those with
+     * enough free space. Ties are broken round-robin so idle disks are filled evenly.
+     */
+    @VisibleForTesting
+    synchronized Path getNextSpillPath()
     {
         int spillPathsCount = spillPaths.size();
+        int selectedIndex = -1;
+        long selectedQueueDepth = Long.MAX_VALUE;
         for (int i = 0; i < spillPathsCount; ++i) {
             int pathIndex = (roundRobinIndex + i) % spillPathsCount;
             Path path = spillPaths.get(pathIndex);
-            if (hasEnoughDiskSpace(path)) {
-                roundRobinIndex = (roundRobinIndex + i + 1) % spillPathsCount;
-                return path;
+            long queueDepth = spillerStats.getDiskStats(path).getQueueDepth();
+            if (queueDepth < selectedQueueDepth && hasEnoughDiskSpace(path)) {
+                selectedIndex = pathIndex;
+                selectedQueueDepth = queueDepth;
+                if (queueDepth == 0) {
+                    break;
+                }
             }
         }
+        if (selectedIndex >= 0) {
+            roundRobinIndex = (selectedIndex + 1) % spillPathsCount;
+            return spillPaths.get(selectedIndex);
+        }
         if (spillPaths.isEmpty()) {
             throw new PrestoException(OUT_OF_SPILL_SPACE, "No spill paths configured");
         }
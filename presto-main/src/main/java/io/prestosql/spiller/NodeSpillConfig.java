@@ -14,7 +14,10 @@
 package io.prestosql.spiller;
 
 import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
 import io.airlift.units.DataSize;
+import io.airlift.units.MaxDataSize;
+import io.airlift.units.MinDataSize;
 
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
@@ -33,6 +36,22 @@ public class NodeSpillConfig
     private int spillPrefetchReadPages = 1;
     private boolean spillUseKryoSerialization;
 
+    private boolean spillAsyncIoEnabled;
+    private DataSize spillIoBufferSize = new DataSize(1, DataSize.Unit.MEGABYTE);
+    private SpillFileFormat spillFileFormat = SpillFileFormat.PAGES;
+
+    public enum SpillFileFormat
+    {
+        /**
+         * Serialized pages in a single, optionally Snappy-framed, stream.
+         */
+        PAGES,
+        /**
+         * Pages stored block by block with a per-block codec and checksum, see {@link ColumnarSpillSerde}.
+         */
+        COLUMNAR
+    }
+
     @NotNull
     public DataSize getMaxSpillPerNode()
     {
@@ -120,4 +139,47 @@ public class NodeSpillConfig
         this.spillUseKryoSerialization = spillUseKryoSerialization;
         return this;
     }
+
+    public boolean isSpillAsyncIoEnabled()
+    {
+        return spillAsyncIoEnabled;
+    }
+
+    @Config("experimental.spill-async-io-enabled")
+    @ConfigDescription("Double-buffer spill writes and prefetch the next chunk on unspill using a dedicated I/O thread pool")
+    public NodeSpillConfig setSpillAsyncIoEnabled(boolean spillAsyncIoEnabled)
+    {
+        this.spillAsyncIoEnabled = spillAsyncIoEnabled;
+        return this;
+    }
+
+    @NotNull
+    @MinDataSize("4kB")
+    @MaxDataSize("64MB")
+    public DataSize getSpillIoBufferSize()
+    {
+        return spillIoBufferSize;
+    }
+
+    @Config("experimental.spill-io-buffer-size")
+    @ConfigDescription("Size of each of the two write buffers and of each prefetched read chunk when asynchronous spill I/O is enabled")
+    public NodeSpillConfig setSpillIoBufferSize(DataSize spillIoBufferSize)
+    {
+        this.spillIoBufferSize = spillIoBufferSize;
+        return this;
+    }
+
+    @NotNull
+    public SpillFileFormat getSpillFileFormat()
+    {
+        return spillFileFormat;
+    }
+
+    @Config("experimental.spill-file-format")
+    @ConfigDescription("Format of spill files: PAGES or COLUMNAR")
+    public NodeSpillConfig setSpillFileFormat(SpillFileFormat spillFileFormat)
+    {
+        this.spillFileFormat = spillFileFormat;
+        return this;
+    }
 }
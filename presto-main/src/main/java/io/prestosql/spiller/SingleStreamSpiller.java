@@ -13,6 +13,7 @@
  */
 package io.prestosql.spiller;
 
+import com.google.common.collect.Iterators;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.snapshot.Restorable;
@@ -50,6 +51,15 @@ public interface SingleStreamSpiller
      */
     Iterator<Page> getSpilledPages();
 
+    /**
+     * Same as {@link #getSpilledPages()}, but every returned page only contains the given channels,
+     * in the given order. Spillers that store channels separately avoid decoding the other channels.
+     */
+    default Iterator<Page> getSpilledPages(int[] channels)
+    {
+        return Iterators.transform(getSpilledPages(), page -> page.getColumns(channels));
+    }
+
     /**
      * Returns estimate size of pages that would be returned by {@link #getAllSpilledPages()}.
      */
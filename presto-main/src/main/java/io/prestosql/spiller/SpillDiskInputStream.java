@@ -0,0 +1,203 @@
+/*
+ * Copyright (C) 2018-2022. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spiller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Throwables.throwIfInstanceOf;
+import static com.google.common.base.Throwables.throwIfUnchecked;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Input stream for a spill file that accounts every read against the disk it comes from.
+ * When an I/O executor is given, the next chunk of the file is read in the background
+ * while the caller deserializes the current one.
+ */
+final class SpillDiskInputStream
+        extends InputStream
+{
+    private final InputStream delegate;
+    private final SpillDiskStats diskStats;
+    private final Optional<ExecutorService> executor;
+
+    private byte[] buffer;
+    private byte[] spareBuffer;
+    private int position;
+    private int limit;
+    private Future<Integer> pendingRead;
+    private boolean finished;
+    private boolean closed;
+
+    SpillDiskInputStream(InputStream delegate, SpillDiskStats diskStats, Optional<ExecutorService> executor, int bufferSize)
+    {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        this.diskStats = requireNonNull(diskStats, "diskStats is null");
+        this.executor = requireNonNull(executor, "executor is null");
+        if (executor.isPresent()) {
+            checkArgument(bufferSize > 0, "bufferSize must be positive");
+            this.buffer = new byte[bufferSize];
+            this.spareBuffer = new byte[bufferSize];
+            prefetch();
+        }
+    }
+
+    @Override
+    public int read()
+            throws IOException
+    {
+        byte[] single = new byte[1];
+        int read = read(single, 0, 1);
+        return read <= 0 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length)
+            throws IOException
+    {
+        if (length == 0) {
+            return 0;
+        }
+        if (!executor.isPresent()) {
+            diskStats.ioStarted();
+            return timedRead(bytes, offset, length);
+        }
+        if (position == limit && !nextChunk()) {
+            return -1;
+        }
+        int chunk = Math.min(length, limit - position);
+        System.arraycopy(buffer, position, bytes, offset, chunk);
+        position += chunk;
+        return chunk;
+    }
+
+    @Override
+    public int available()
+            throws IOException
+    {
+        if (!executor.isPresent()) {
+            return delegate.available();
+        }
+        // callers such as InputStreamSliceInput use available() to detect the end of the stream
+        if (position == limit && !nextChunk()) {
+            return 0;
+        }
+        return limit - position;
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            // never close the file underneath an in-flight read
+            if (pendingRead != null) {
+                awaitPendingRead();
+            }
+        }
+        catch (IOException | RuntimeException ignored) {
+            // the stream is being discarded
+        }
+        finally {
+            delegate.close();
+        }
+    }
+
+    private boolean nextChunk()
+            throws IOException
+    {
+        if (finished) {
+            return false;
+        }
+        int read = awaitPendingRead();
+        pendingRead = null;
+        if (read <= 0) {
+            finished = true;
+            return false;
+        }
+        byte[] filled = spareBuffer;
+        spareBuffer = buffer;
+        buffer = filled;
+        position = 0;
+        limit = read;
+        prefetch();
+        return true;
+    }
+
+    private void prefetch()
+    {
+        byte[] target = spareBuffer;
+        diskStats.ioStarted();
+        pendingRead = executor.get().submit(() -> {
+            long start = System.nanoTime();
+            int total = 0;
+            try {
+                while (total < target.length) {
+                    int read = delegate.read(target, total, target.length - total);
+                    if (read < 0) {
+                        break;
+                    }
+                    total += read;
+                }
+            }
+            finally {
+                diskStats.readFinished(total, System.nanoTime() - start);
+            }
+            return total;
+        });
+    }
+
+    private int timedRead(byte[] bytes, int offset, int length)
+            throws IOException
+    {
+        long start = System.nanoTime();
+        int read = 0;
+        try {
+            read = delegate.read(bytes, offset, length);
+            return read;
+        }
+        finally {
+            diskStats.readFinished(Math.max(read, 0), System.nanoTime() - start);
+        }
+    }
+
+    private int awaitPendingRead()
+            throws IOException
+    {
+        try {
+            return pendingRead.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for spill read");
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throwIfInstanceOf(cause, IOException.class);
+            throwIfUnchecked(cause);
+            throw new IOException(cause);
+        }
+    }
+}
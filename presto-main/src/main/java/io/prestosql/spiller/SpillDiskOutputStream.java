@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2018-2022. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spiller;
+
+import com.google.common.util.concurrent.Futures;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Throwables.throwIfInstanceOf;
+import static com.google.common.base.Throwables.throwIfUnchecked;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Output stream for a spill file that accounts every write against the disk it lands on.
+ * When an I/O executor is given, writes are double-buffered: the caller keeps serializing
+ * into one buffer while the other one is written to disk in the background.
+ */
+final class SpillDiskOutputStream
+        extends OutputStream
+{
+    private final OutputStream delegate;
+    private final SpillDiskStats diskStats;
+    private final Optional<ExecutorService> executor;
+
+    private byte[] buffer;
+    private byte[] spareBuffer;
+    private int position;
+    private Future<?> pendingWrite = Futures.immediateFuture(null);
+    private boolean closed;
+
+    SpillDiskOutputStream(OutputStream delegate, SpillDiskStats diskStats, Optional<ExecutorService> executor, int bufferSize)
+    {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        this.diskStats = requireNonNull(diskStats, "diskStats is null");
+        this.executor = requireNonNull(executor, "executor is null");
+        if (executor.isPresent()) {
+            checkArgument(bufferSize > 0, "bufferSize must be positive");
+            this.buffer = new byte[bufferSize];
+            this.spareBuffer = new byte[bufferSize];
+        }
+    }
+
+    @Override
+    public void write(int b)
+            throws IOException
+    {
+        if (!executor.isPresent()) {
+            write(new byte[] {(byte) b}, 0, 1);
+            return;
+        }
+        if (position == buffer.length) {
+            submitBuffer();
+        }
+        buffer[position++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length)
+            throws IOException
+    {
+        if (!executor.isPresent()) {
+            writeToDisk(bytes, offset, length);
+            return;
+        }
+        while (length > 0) {
+            if (position == buffer.length) {
+                submitBuffer();
+            }
+            int chunk = Math.min(length, buffer.length - position);
+            System.arraycopy(bytes, offset, buffer, position, chunk);
+            position += chunk;
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    @Override
+    public void flush()
+            throws IOException
+    {
+        if (executor.isPresent()) {
+            if (position > 0) {
+                submitBuffer();
+            }
+            awaitPendingWrite();
+        }
+        delegate.flush();
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            flush();
+        }
+        finally {
+            delegate.close();
+        }
+    }
+
+    private void submitBuffer()
+            throws IOException
+    {
+        // the spare buffer is only reusable once the previous background write has finished
+        awaitPendingWrite();
+        byte[] filled = buffer;
+        int length = position;
+        buffer = spareBuffer;
+        spareBuffer = filled;
+        position = 0;
+        diskStats.ioStarted();
+        pendingWrite = executor.get().submit(() -> {
+            timedWrite(filled, 0, length);
+            return null;
+        });
+    }
+
+    private void writeToDisk(byte[] bytes, int offset, int length)
+            throws IOException
+    {
+        diskStats.ioStarted();
+        timedWrite(bytes, offset, length);
+    }
+
+    private void timedWrite(byte[] bytes, int offset, int length)
+            throws IOException
+    {
+        long start = System.nanoTime();
+        try {
+            delegate.write(bytes, offset, length);
+        }
+        finally {
+            diskStats.writeFinished(length, System.nanoTime() - start);
+        }
+    }
+
+    private void awaitPendingWrite()
+            throws IOException
+    {
+        try {
+            pendingWrite.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for spill write");
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throwIfInstanceOf(cause, IOException.class);
+            throwIfUnchecked(cause);
+            throw new IOException(cause);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2018-2022. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spiller;
+
+import org.weakref.jmx.Managed;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * I/O accounting for a single spill path. The queue depth counts chunks that have
+ * been handed to the disk but not yet completed, and is what the spiller factory
+ * uses to steer new spill streams away from busy disks.
+ */
+public class SpillDiskStats
+{
+    private final Path path;
+    private final AtomicLong queueDepth = new AtomicLong();
+    private final AtomicLong bytesWritten = new AtomicLong();
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicLong writeNanos = new AtomicLong();
+    private final AtomicLong readNanos = new AtomicLong();
+    private final AtomicLong writeOperations = new AtomicLong();
+    private final AtomicLong readOperations = new AtomicLong();
+
+    public SpillDiskStats(Path path)
+    {
+        this.path = requireNonNull(path, "path is null");
+    }
+
+    public Path getPath()
+    {
+        return path;
+    }
+
+    void ioStarted()
+    {
+        queueDepth.incrementAndGet();
+    }
+
+    void writeFinished(long bytes, long nanos)
+    {
+        queueDepth.decrementAndGet();
+        bytesWritten.addAndGet(bytes);
+        writeNanos.addAndGet(nanos);
+        writeOperations.incrementAndGet();
+    }
+
+    void readFinished(long bytes, long nanos)
+    {
+        queueDepth.decrementAndGet();
+        bytesRead.addAndGet(bytes);
+        readNanos.addAndGet(nanos);
+        readOperations.incrementAndGet();
+    }
+
+    @Managed
+    public long getQueueDepth()
+    {
+        return queueDepth.get();
+    }
+
+    @Managed
+    public long getBytesWritten()
+    {
+        return bytesWritten.get();
+    }
+
+    @Managed
+    public long getBytesRead()
+    {
+        return bytesRead.get();
+    }
+
+    @Managed
+    public long getWriteTimeMillis()
+    {
+        return NANOSECONDS.toMillis(writeNanos.get());
+    }
+
+    @Managed
+    public long getReadTimeMillis()
+    {
+        return NANOSECONDS.toMillis(readNanos.get());
+    }
+
+    @Managed
+    public double getAverageWriteLatencyMillis()
+    {
+        long operations = writeOperations.get();
+        return operations == 0 ? 0 : NANOSECONDS.toMillis(writeNanos.get()) / (double) operations;
+    }
+
+    @Managed
+    public double getAverageReadLatencyMillis()
+    {
+        long operations = readOperations.get();
+        return operations == 0 ? 0 : NANOSECONDS.toMillis(readNanos.get()) / (double) operations;
+    }
+}
@@ -13,13 +13,19 @@
  */
 package io.prestosql.spiller;
 
+import com.google.common.collect.ImmutableMap;
 import org.weakref.jmx.Managed;
 
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicLong;
 
 public class SpillerStats
 {
     protected final AtomicLong totalSpilledBytes = new AtomicLong();
+    private final ConcurrentMap<Path, SpillDiskStats> diskStats = new ConcurrentHashMap<>();
 
     @Managed
     public long getTotalSpilledBytes()
@@ -31,4 +37,51 @@ public class SpillerStats
     {
         totalSpilledBytes.addAndGet(delta);
     }
+
+    public SpillDiskStats getDiskStats(Path path)
+    {
+        return diskStats.computeIfAbsent(path, SpillDiskStats::new);
+    }
+
+    public Map<Path, SpillDiskStats> getAllDiskStats()
+    {
+        return ImmutableMap.copyOf(diskStats);
+    }
+
+    @Managed
+    public long getTotalDiskBytesWritten()
+    {
+        return diskStats.values().stream().mapToLong(SpillDiskStats::getBytesWritten).sum();
+    }
+
+    @Managed
+    public long getTotalDiskBytesRead()
+    {
+        return diskStats.values().stream().mapToLong(SpillDiskStats::getBytesRead).sum();
+    }
+
+    @Managed
+    public long getMaxDiskQueueDepth()
+    {
+        return diskStats.values().stream().mapToLong(SpillDiskStats::getQueueDepth).max().orElse(0);
+    }
+
+    @Managed
+    public String getDiskStatsSummary()
+    {
+        StringBuilder builder = new StringBuilder();
+        for (SpillDiskStats stats : diskStats.values()) {
+            if (builder.length() > 0) {
+                builder.append(", ");
+            }
+            builder.append(stats.getPath())
+                    .append("={written=").append(stats.getBytesWritten())
+                    .append(", read=").append(stats.getBytesRead())
+                    .append(", writeLatencyMs=").append(stats.getAverageWriteLatencyMillis())
+                    .append(", readLatencyMs=").append(stats.getAverageReadLatencyMillis())
+                    .append(", queueDepth=").append(stats.getQueueDepth())
+                    .append('}');
+        }
+        return builder.toString();
+    }
 }
@@ -342,6 +342,18 @@ public final class ExpressionUtils
         }, expression);
     }
 
+    public static Expression rewriteSymbolReferencesToIdentifiers(Expression expression)
+    {
+        return ExpressionTreeRewriter.rewriteWith(new ExpressionRewriter<Void>()
+        {
+            @Override
+            public Expression rewriteSymbolReference(SymbolReference node, Void context, ExpressionTreeRewriter<Void> treeRewriter)
+            {
+                return new Identifier(node.getName());
+            }
+        }, expression);
+    }
+
     public static Set<Identifier> getIdentifiers(Expression expression)
     {
         ImmutableSet.Builder<Identifier> identifierBuilder = new ImmutableSet.Builder<>();
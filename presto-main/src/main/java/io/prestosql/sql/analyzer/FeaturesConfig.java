@@ -48,6 +48,7 @@ import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.HOURS;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 @DefunctConfig({
         "deprecated.group-by-uses-equal",
@@ -180,6 +181,7 @@ public class FeaturesConfig
     private boolean enableStarTreeIndex;
     private long cubeMetadataCacheSize = 5;
     private Duration cubeMetadataCacheTtl = new Duration(1, HOURS);
+    private boolean cubeIncrementalInsertEnabled;
     private boolean sortBasedAggregationEnabled;
     private int prcntDriversForPartialAggr = 5;
     private boolean skipAttachingStatsWithPlan = true;
@@ -198,6 +200,10 @@ public class FeaturesConfig
     private DataSize cteMaterializationThresholdSize = new DataSize(128, MEGABYTE);
 
     private long joinPartitionedBuildMinRowCount = 1_000_000L;
+    private boolean skewedJoinReplicationEnabled;
+    private double skewedJoinHotKeyFraction = 0.1;
+    private int skewedJoinSampleRows = 100_000;
+    private Duration skewedJoinSampleTimeout = new Duration(1, SECONDS);
 
     @Config("optimizer.transform-self-join-to-window")
     public FeaturesConfig setTransformSelfJoinToWindow(boolean value)
@@ -1481,6 +1487,19 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isCubeIncrementalInsertEnabled()
+    {
+        return cubeIncrementalInsertEnabled;
+    }
+
+    @Config("cube.incremental-insert.enabled")
+    @ConfigDescription("INSERT INTO CUBE without WHERE clause inserts only the source table partitions that are not yet part of the cube. Existing partitions are assumed to be immutable")
+    public FeaturesConfig setCubeIncrementalInsertEnabled(boolean cubeIncrementalInsertEnabled)
+    {
+        this.cubeIncrementalInsertEnabled = cubeIncrementalInsertEnabled;
+        return this;
+    }
+
     public boolean isListBuiltInFunctionsOnly()
     {
         return listBuiltInFunctionsOnly;
@@ -1648,6 +1667,62 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isSkewedJoinReplicationEnabled()
+    {
+        return skewedJoinReplicationEnabled;
+    }
+
+    @Config("optimizer.skewed-join-replication-enabled")
+    @ConfigDescription("Spread hot probe keys of partitioned joins across tasks and replicate the matching build rows")
+    public FeaturesConfig setSkewedJoinReplicationEnabled(boolean skewedJoinReplicationEnabled)
+    {
+        this.skewedJoinReplicationEnabled = skewedJoinReplicationEnabled;
+        return this;
+    }
+
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    public double getSkewedJoinHotKeyFraction()
+    {
+        return skewedJoinHotKeyFraction;
+    }
+
+    @Config("optimizer.skewed-join-hot-key-fraction")
+    @ConfigDescription("Minimum fraction of the probe rows sharing a join key for the key to be considered hot")
+    public FeaturesConfig setSkewedJoinHotKeyFraction(double skewedJoinHotKeyFraction)
+    {
+        this.skewedJoinHotKeyFraction = skewedJoinHotKeyFraction;
+        return this;
+    }
+
+    @Min(1)
+    public int getSkewedJoinSampleRows()
+    {
+        return skewedJoinSampleRows;
+    }
+
+    @Config("optimizer.skewed-join-sample-rows")
+    @ConfigDescription("Number of probe rows sampled to detect hot join keys")
+    public FeaturesConfig setSkewedJoinSampleRows(int skewedJoinSampleRows)
+    {
+        this.skewedJoinSampleRows = skewedJoinSampleRows;
+        return this;
+    }
+
+    @NotNull
+    public Duration getSkewedJoinSampleTimeout()
+    {
+        return skewedJoinSampleTimeout;
+    }
+
+    @Config("optimizer.skewed-join-sample-timeout")
+    @ConfigDescription("Maximum time planning waits for the sample of the probe rows")
+    public FeaturesConfig setSkewedJoinSampleTimeout(Duration skewedJoinSampleTimeout)
+    {
+        this.skewedJoinSampleTimeout = skewedJoinSampleTimeout;
+        return this;
+    }
+
     public boolean isUseExactPartitioning()
     {
         return useExactPartitioning;
@@ -198,7 +198,7 @@ public class QueryExplainer
         PlanNodeIdAllocator idAllocator = new PlanNodeIdAllocator();
 
         // plan statement
-        LogicalPlanner logicalPlanner = new LogicalPlanner(session, planOptimizers, idAllocator, metadata, new TypeAnalyzer(sqlParser, metadata), statsCalculator, costCalculator, warningCollector, CachedDataStorageProvider.NULL_PROVIDER, recoveryUtils.getOrCreateQuerySnapshotManager(session.getQueryId(), session), nodeScheduler);
+        LogicalPlanner logicalPlanner = new LogicalPlanner(session, planOptimizers, idAllocator, metadata, sqlParser, new TypeAnalyzer(sqlParser, metadata), statsCalculator, costCalculator, warningCollector, CachedDataStorageProvider.NULL_PROVIDER, recoveryUtils.getOrCreateQuerySnapshotManager(session.getQueryId(), session), nodeScheduler);
         return logicalPlanner.plan(analysis, false);
     }
 
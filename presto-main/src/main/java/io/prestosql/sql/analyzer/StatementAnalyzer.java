@@ -211,6 +211,7 @@ import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static com.google.common.collect.Iterables.getLast;
 import static com.google.common.collect.Iterables.transform;
 import static io.prestosql.SystemSessionProperties.getMaxGroupingSets;
+import static io.prestosql.SystemSessionProperties.isCubeIncrementalInsertEnabled;
 import static io.prestosql.SystemSessionProperties.isEnableStarTreeIndex;
 import static io.prestosql.cube.CubeManager.STAR_TREE;
 import static io.prestosql.metadata.MetadataUtil.createQualifiedObjectName;
@@ -577,8 +578,11 @@ class StatementAnalyzer
                 throw new SemanticException(TABLE_STATE_INCORRECT, insertCube, "Cannot allow insert into cube. Cube might return incorrect results. Unable to identify last modified of the time source table.");
             }
             // If Original table was updated since Cube was built then We cannot allow any more updates on the Cube.
-            // User must create new cube from the source table and try insert overwrite cube
-            if (!insertCube.isOverwrite() && cubeMetadata.getCubeStatus() == CubeStatus.READY && tableLastModifiedTime.getAsLong() > cubeMetadata.getSourceTableLastUpdatedTime()) {
+            // User must create new cube from the source table and try insert overwrite cube.
+            // With incremental inserts enabled, rows of partitions added since can still be inserted. The planner checks
+            // that the predicate only selects such partitions, once the predicate has been rewritten.
+            boolean incrementalInsert = isCubeIncrementalInsertEnabled(session) && insertCube.getWhere().isPresent();
+            if (!insertCube.isOverwrite() && !incrementalInsert && cubeMetadata.getCubeStatus() == CubeStatus.READY && tableLastModifiedTime.getAsLong() > cubeMetadata.getSourceTableLastUpdatedTime()) {
                 throw new SemanticException(TABLE_STATE_INCORRECT, insertCube, "Cannot insert into cube. Source table has been updated since Cube was last updated. Try INSERT OVERWRITE CUBE or Create new a cube");
             }
 
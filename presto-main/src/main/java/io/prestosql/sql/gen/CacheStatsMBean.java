@@ -17,6 +17,7 @@ import com.google.common.cache.LoadingCache;
 import org.weakref.jmx.Managed;
 
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 public class CacheStatsMBean
 {
@@ -50,4 +51,28 @@ public class CacheStatsMBean
     {
         return loadingCache.stats().requestCount();
     }
+
+    @Managed
+    public long getHitCount()
+    {
+        return loadingCache.stats().hitCount();
+    }
+
+    @Managed
+    public long getMissCount()
+    {
+        return loadingCache.stats().missCount();
+    }
+
+    @Managed
+    public long getTotalCompileTimeMillis()
+    {
+        return NANOSECONDS.toMillis(loadingCache.stats().totalLoadTime());
+    }
+
+    @Managed
+    public double getAverageCompileTimeMillis()
+    {
+        return loadingCache.stats().averageLoadPenalty() / 1_000_000;
+    }
 }
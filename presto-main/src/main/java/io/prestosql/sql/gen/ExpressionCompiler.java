@@ -18,18 +18,28 @@ import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
 import io.airlift.bytecode.ClassDefinition;
 import io.airlift.bytecode.CompilationException;
 import io.prestosql.metadata.Metadata;
 import io.prestosql.operator.project.CursorProcessor;
+import io.prestosql.operator.project.DeferredPageFilter;
+import io.prestosql.operator.project.DeferredPageProjection;
+import io.prestosql.operator.project.LikePageFilter;
 import io.prestosql.operator.project.PageFilter;
 import io.prestosql.operator.project.PageProcessor;
 import io.prestosql.operator.project.PageProjection;
 import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.relation.ConstantExpression;
+import io.prestosql.spi.relation.InputReferenceExpression;
 import io.prestosql.spi.relation.RowExpression;
+import io.prestosql.sql.planner.CompilerConfig;
+import io.prestosql.sql.relational.FunctionResolution;
 import org.weakref.jmx.Managed;
 import org.weakref.jmx.Nested;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 
 import java.util.List;
@@ -40,10 +50,12 @@ import java.util.function.Supplier;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
 import static io.airlift.bytecode.Access.FINAL;
 import static io.airlift.bytecode.Access.PUBLIC;
 import static io.airlift.bytecode.Access.a;
 import static io.airlift.bytecode.ParameterizedType.type;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.prestosql.spi.StandardErrorCode.COMPILER_ERROR;
 import static io.prestosql.spi.type.BooleanType.BOOLEAN;
 import static io.prestosql.sql.gen.BytecodeUtils.invoke;
@@ -51,18 +63,35 @@ import static io.prestosql.sql.relational.Expressions.constant;
 import static io.prestosql.util.CompilerUtils.defineClass;
 import static io.prestosql.util.CompilerUtils.makeClassName;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newFixedThreadPool;
 
 public class ExpressionCompiler
 {
+    private final Metadata metadata;
+    private final FunctionResolution functionResolution;
     private final PageFunctionCompiler pageFunctionCompiler;
     private final LoadingCache<CacheKey, Class<? extends CursorProcessor>> cursorProcessors;
     private final CacheStatsMBean cacheStatsMBean;
+    private final Optional<ListeningExecutorService> backgroundCompilationExecutor;
 
-    @Inject
     public ExpressionCompiler(Metadata metadata, PageFunctionCompiler pageFunctionCompiler)
     {
-        requireNonNull(metadata, "metadata is null");
+        this(metadata, pageFunctionCompiler, new CompilerConfig());
+    }
+
+    @Inject
+    public ExpressionCompiler(Metadata metadata, PageFunctionCompiler pageFunctionCompiler, CompilerConfig config)
+    {
+        this.metadata = requireNonNull(metadata, "metadata is null");
+        this.functionResolution = new FunctionResolution(metadata.getFunctionAndTypeManager());
         this.pageFunctionCompiler = requireNonNull(pageFunctionCompiler, "pageFunctionCompiler is null");
+        requireNonNull(config, "config is null");
+        if (config.isBackgroundCompilationEnabled()) {
+            this.backgroundCompilationExecutor = Optional.of(listeningDecorator(newFixedThreadPool(config.getBackgroundCompilationThreads(), daemonThreadsNamed("background-compiler-%s"))));
+        }
+        else {
+            this.backgroundCompilationExecutor = Optional.empty();
+        }
         this.cursorProcessors = CacheBuilder.newBuilder()
                 .recordStats()
                 .maximumSize(1000)
@@ -70,6 +99,12 @@ public class ExpressionCompiler
         this.cacheStatsMBean = new CacheStatsMBean(cursorProcessors);
     }
 
+    @PreDestroy
+    public void destroy()
+    {
+        backgroundCompilationExecutor.ifPresent(ListeningExecutorService::shutdownNow);
+    }
+
     @Managed
     @Nested
     public CacheStatsMBean getCursorProcessorCache()
@@ -101,9 +136,9 @@ public class ExpressionCompiler
             Optional<String> classNameSuffix,
             OptionalInt initialBatchSize)
     {
-        Optional<Supplier<PageFilter>> filterFunctionSupplier = filter.map(expression -> pageFunctionCompiler.compileFilter(expression, classNameSuffix));
+        Optional<Supplier<PageFilter>> filterFunctionSupplier = filter.map(expression -> compileFilter(expression, classNameSuffix));
         List<Supplier<PageProjection>> pageProjectionSuppliers = projections.stream()
-                .map(projection -> pageFunctionCompiler.compileProjection(projection, classNameSuffix))
+                .map(projection -> compileProjection(projection, classNameSuffix))
                 .collect(toImmutableList());
 
         return () -> {
@@ -115,6 +150,37 @@ public class ExpressionCompiler
         };
     }
 
+    private Supplier<PageFilter> compileFilter(RowExpression filter, Optional<String> classNameSuffix)
+    {
+        Optional<PageFilter> likeFilter = LikePageFilter.tryCreate(filter, functionResolution);
+        if (likeFilter.isPresent()) {
+            // stateless, so it is shared by all processors
+            return likeFilter::get;
+        }
+        if (!backgroundCompilationExecutor.isPresent() || !isCompiledInBackground(filter) || pageFunctionCompiler.isFilterCached(filter)) {
+            return pageFunctionCompiler.compileFilter(filter, classNameSuffix);
+        }
+        // the operators interpret the filter, or wait for it if it cannot be interpreted, until it is compiled
+        ListenableFuture<Supplier<PageFilter>> compiled = backgroundCompilationExecutor.get().submit(() -> pageFunctionCompiler.compileFilter(filter, classNameSuffix));
+        return () -> new DeferredPageFilter(filter, metadata, compiled);
+    }
+
+    private Supplier<PageProjection> compileProjection(RowExpression projection, Optional<String> classNameSuffix)
+    {
+        if (!backgroundCompilationExecutor.isPresent() || !isCompiledInBackground(projection) || pageFunctionCompiler.isProjectionCached(projection)) {
+            return pageFunctionCompiler.compileProjection(projection, classNameSuffix);
+        }
+        // the operators interpret the projection, or wait for it if it cannot be interpreted, until it is compiled
+        ListenableFuture<Supplier<PageProjection>> compiled = backgroundCompilationExecutor.get().submit(() -> pageFunctionCompiler.compileProjection(projection, classNameSuffix));
+        return () -> new DeferredPageProjection(projection, metadata, compiled);
+    }
+
+    private static boolean isCompiledInBackground(RowExpression expression)
+    {
+        // input references and constants are not compiled anyway
+        return !(expression instanceof InputReferenceExpression) && !(expression instanceof ConstantExpression);
+    }
+
     public Supplier<PageProcessor> compilePageProcessor(Optional<RowExpression> filter, List<? extends RowExpression> projections)
     {
         return compilePageProcessor(filter, projections, Optional.empty());
@@ -13,6 +13,8 @@
  */
 package io.prestosql.sql.gen;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
@@ -31,6 +33,7 @@ import io.airlift.bytecode.control.ForLoop;
 import io.airlift.bytecode.control.IfStatement;
 import io.airlift.bytecode.expression.BytecodeExpression;
 import io.airlift.bytecode.instruction.LabelNode;
+import io.airlift.json.JsonCodec;
 import io.airlift.slice.Slice;
 import io.prestosql.Session;
 import io.prestosql.metadata.FunctionAndTypeManager;
@@ -50,7 +53,9 @@ import io.prestosql.spi.function.BuiltInScalarFunctionImplementation;
 import io.prestosql.spi.function.OperatorType;
 import io.prestosql.spi.type.StandardTypes;
 import io.prestosql.spi.type.Type;
+import io.prestosql.spi.type.TypeSignature;
 import io.prestosql.sql.gen.JoinFilterFunctionCompiler.JoinFilterFunctionFactory;
+import io.prestosql.sql.gen.PersistentCompilerCache.Kind;
 import it.unimi.dsi.fastutil.longs.LongArrayList;
 import org.assertj.core.util.VisibleForTesting;
 import org.openjdk.jol.info.ClassLayout;
@@ -84,6 +89,7 @@ import static io.airlift.bytecode.expression.BytecodeExpressions.constantTrue;
 import static io.airlift.bytecode.expression.BytecodeExpressions.getStatic;
 import static io.airlift.bytecode.expression.BytecodeExpressions.newInstance;
 import static io.airlift.bytecode.expression.BytecodeExpressions.notEqual;
+import static io.airlift.json.JsonCodec.jsonCodec;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.sql.analyzer.TypeSignatureProvider.fromTypes;
 import static io.prestosql.sql.gen.InputReferenceCompiler.generateInputReference;
@@ -94,7 +100,10 @@ import static java.util.Objects.requireNonNull;
 
 public class JoinCompiler
 {
+    private static final JsonCodec<PersistedCacheKey> PERSISTED_CACHE_KEY_CODEC = jsonCodec(PersistedCacheKey.class);
+
     private final FunctionAndTypeManager functionAndTypeManager;
+    private final PersistentCompilerCache persistentCache;
 
     private final LoadingCache<CacheKey, LookupSourceSupplierFactory> lookupSourceFactories = CacheBuilder.newBuilder()
             .recordStats()
@@ -114,17 +123,32 @@ public class JoinCompiler
         return compileLookupSourceFactory(types, joinChannels, sortChannel, Optional.empty());
     }
 
-    @Inject
     public JoinCompiler(Metadata metadata)
     {
         this(metadata, true);
     }
 
+    @Inject
+    public JoinCompiler(Metadata metadata, PersistentCompilerCache persistentCache)
+    {
+        this(metadata, true, persistentCache);
+    }
+
     @VisibleForTesting
     public JoinCompiler(Metadata metadata, boolean enableSingleChannelBigintLookupSource)
+    {
+        this(metadata, enableSingleChannelBigintLookupSource, PersistentCompilerCache.disabled());
+    }
+
+    private JoinCompiler(Metadata metadata, boolean enableSingleChannelBigintLookupSource, PersistentCompilerCache persistentCache)
     {
         this.functionAndTypeManager = requireNonNull(metadata, "metadata is null").getFunctionAndTypeManager();
         this.enableSingleChannelBigintLookupSource = enableSingleChannelBigintLookupSource;
+        this.persistentCache = requireNonNull(persistentCache, "persistentCache is null");
+
+        // warm up with the classes most requested before the last restart, without counting them as requests
+        persistentCache.registerLoader(Kind.LOOKUP_SOURCE, key -> lookupSourceFactories.getUnchecked(fromPersistedKey(key)));
+        persistentCache.registerLoader(Kind.HASH_STRATEGY, key -> hashStrategies.getUnchecked(fromPersistedKey(key)));
     }
 
     @Managed
@@ -143,11 +167,13 @@ public class JoinCompiler
 
     public LookupSourceSupplierFactory compileLookupSourceFactory(List<? extends Type> types, List<Integer> joinChannels, Optional<Integer> sortChannel, Optional<List<Integer>> outputChannels)
     {
-        return lookupSourceFactories.getUnchecked(new CacheKey(
+        CacheKey key = new CacheKey(
                 types,
                 outputChannels.orElse(rangeList(types.size())),
                 joinChannels,
-                sortChannel));
+                sortChannel);
+        persistentCache.record(Kind.LOOKUP_SOURCE, key, () -> toPersistedKey(key));
+        return lookupSourceFactories.getUnchecked(key);
     }
 
     public PagesHashStrategyFactory compilePagesHashStrategyFactory(List<Type> types, List<Integer> joinChannels)
@@ -161,11 +187,30 @@ public class JoinCompiler
         requireNonNull(joinChannels, "joinChannels is null");
         requireNonNull(outputChannels, "outputChannels is null");
 
-        return new PagesHashStrategyFactory(hashStrategies.getUnchecked(new CacheKey(
+        CacheKey key = new CacheKey(
                 types,
                 outputChannels.orElse(rangeList(types.size())),
                 joinChannels,
-                Optional.empty())));
+                Optional.empty());
+        persistentCache.record(Kind.HASH_STRATEGY, key, () -> toPersistedKey(key));
+        return new PagesHashStrategyFactory(hashStrategies.getUnchecked(key));
+    }
+
+    private static String toPersistedKey(CacheKey key)
+    {
+        List<TypeSignature> types = key.getTypes().stream()
+                .map(Type::getTypeSignature)
+                .collect(toImmutableList());
+        return PERSISTED_CACHE_KEY_CODEC.toJson(new PersistedCacheKey(types, key.getOutputChannels(), key.getJoinChannels(), key.getSortChannel()));
+    }
+
+    private CacheKey fromPersistedKey(String json)
+    {
+        PersistedCacheKey key = PERSISTED_CACHE_KEY_CODEC.fromJson(json);
+        List<Type> types = key.getTypes().stream()
+                .map(functionAndTypeManager::getType)
+                .collect(toImmutableList());
+        return new CacheKey(types, key.getOutputChannels(), key.getJoinChannels(), key.getSortChannel());
     }
 
     private List<Integer> rangeList(int endExclusive)
@@ -1022,4 +1067,49 @@ public class JoinCompiler
                     Objects.equals(this.sortChannel, other.sortChannel);
         }
     }
+
+    public static final class PersistedCacheKey
+    {
+        private final List<TypeSignature> types;
+        private final List<Integer> outputChannels;
+        private final List<Integer> joinChannels;
+        private final Optional<Integer> sortChannel;
+
+        @JsonCreator
+        public PersistedCacheKey(
+                @JsonProperty("types") List<TypeSignature> types,
+                @JsonProperty("outputChannels") List<Integer> outputChannels,
+                @JsonProperty("joinChannels") List<Integer> joinChannels,
+                @JsonProperty("sortChannel") Optional<Integer> sortChannel)
+        {
+            this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
+            this.outputChannels = ImmutableList.copyOf(requireNonNull(outputChannels, "outputChannels is null"));
+            this.joinChannels = ImmutableList.copyOf(requireNonNull(joinChannels, "joinChannels is null"));
+            this.sortChannel = requireNonNull(sortChannel, "sortChannel is null");
+        }
+
+        @JsonProperty
+        public List<TypeSignature> getTypes()
+        {
+            return types;
+        }
+
+        @JsonProperty
+        public List<Integer> getOutputChannels()
+        {
+            return outputChannels;
+        }
+
+        @JsonProperty
+        public List<Integer> getJoinChannels()
+        {
+            return joinChannels;
+        }
+
+        @JsonProperty
+        public Optional<Integer> getSortChannel()
+        {
+            return sortChannel;
+        }
+    }
 }
@@ -13,6 +13,8 @@
  */
 package io.prestosql.sql.gen;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
@@ -26,7 +28,10 @@ import io.airlift.bytecode.Scope;
 import io.airlift.bytecode.Variable;
 import io.airlift.bytecode.expression.BytecodeExpression;
 import io.airlift.bytecode.instruction.LabelNode;
+import io.airlift.json.JsonCodec;
 import io.airlift.log.Logger;
+import io.prestosql.metadata.FunctionAndTypeManager;
+import io.prestosql.metadata.Metadata;
 import io.prestosql.operator.PageWithPositionComparator;
 import io.prestosql.operator.PagesIndex;
 import io.prestosql.operator.PagesIndexComparator;
@@ -38,14 +43,20 @@ import io.prestosql.spi.Page;
 import io.prestosql.spi.block.Block;
 import io.prestosql.spi.block.SortOrder;
 import io.prestosql.spi.type.Type;
+import io.prestosql.spi.type.TypeSignature;
+import io.prestosql.sql.gen.PersistentCompilerCache.Kind;
 import it.unimi.dsi.fastutil.longs.LongArrayList;
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import org.weakref.jmx.Managed;
 import org.weakref.jmx.Nested;
 
+import javax.inject.Inject;
+
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static io.airlift.bytecode.Access.FINAL;
 import static io.airlift.bytecode.Access.PUBLIC;
 import static io.airlift.bytecode.Access.a;
@@ -54,6 +65,7 @@ import static io.airlift.bytecode.ParameterizedType.type;
 import static io.airlift.bytecode.expression.BytecodeExpressions.constantInt;
 import static io.airlift.bytecode.expression.BytecodeExpressions.getStatic;
 import static io.airlift.bytecode.expression.BytecodeExpressions.invokeStatic;
+import static io.airlift.json.JsonCodec.jsonCodec;
 import static io.prestosql.sql.gen.SqlTypeBytecodeExpression.constantType;
 import static io.prestosql.util.CompilerUtils.defineClass;
 import static io.prestosql.util.CompilerUtils.makeClassName;
@@ -62,6 +74,7 @@ import static java.util.Objects.requireNonNull;
 public class OrderingCompiler
 {
     private static final Logger log = Logger.get(OrderingCompiler.class);
+    private static final JsonCodec<PersistedCacheKey> PERSISTED_CACHE_KEY_CODEC = jsonCodec(PersistedCacheKey.class);
 
     private final LoadingCache<PagesIndexComparatorCacheKey, PagesIndexOrdering> pagesIndexOrderings = CacheBuilder.newBuilder()
             .recordStats()
@@ -73,6 +86,26 @@ public class OrderingCompiler
             .maximumSize(1000)
             .build(CacheLoader.from(key -> internalCompilePageWithPositionComparator(key.getSortTypes(), key.getSortChannels(), key.getSortOrders())));
 
+    private final Optional<FunctionAndTypeManager> functionAndTypeManager;
+    private final PersistentCompilerCache persistentCache;
+
+    public OrderingCompiler()
+    {
+        this.functionAndTypeManager = Optional.empty();
+        this.persistentCache = PersistentCompilerCache.disabled();
+    }
+
+    @Inject
+    public OrderingCompiler(Metadata metadata, PersistentCompilerCache persistentCache)
+    {
+        this.functionAndTypeManager = Optional.of(requireNonNull(metadata, "metadata is null").getFunctionAndTypeManager());
+        this.persistentCache = requireNonNull(persistentCache, "persistentCache is null");
+
+        // warm up with the classes most requested before the last restart, without counting them as requests
+        persistentCache.registerLoader(Kind.PAGES_INDEX_ORDERING, key -> pagesIndexOrderings.getUnchecked(fromPersistedKey(key)));
+        persistentCache.registerLoader(Kind.PAGE_WITH_POSITION_COMPARATOR, key -> pageWithPositionComparators.getUnchecked(fromPersistedKey(key)));
+    }
+
     @Managed
     @Nested
     public CacheStatsMBean getPagesIndexOrderingsStats()
@@ -93,7 +126,9 @@ public class OrderingCompiler
         requireNonNull(sortChannels, "sortChannels is null");
         requireNonNull(sortOrders, "sortOrders is null");
 
-        return pagesIndexOrderings.getUnchecked(new PagesIndexComparatorCacheKey(sortTypes, sortChannels, sortOrders));
+        PagesIndexComparatorCacheKey key = new PagesIndexComparatorCacheKey(sortTypes, sortChannels, sortOrders);
+        persistentCache.record(Kind.PAGES_INDEX_ORDERING, key, () -> toPersistedKey(key));
+        return pagesIndexOrderings.getUnchecked(key);
     }
 
     @VisibleForTesting
@@ -237,7 +272,27 @@ public class OrderingCompiler
         requireNonNull(sortChannels, "sortChannels is null");
         requireNonNull(sortOrders, "sortOrders is null");
 
-        return pageWithPositionComparators.getUnchecked(new PagesIndexComparatorCacheKey(sortTypes, sortChannels, sortOrders));
+        PagesIndexComparatorCacheKey key = new PagesIndexComparatorCacheKey(sortTypes, sortChannels, sortOrders);
+        persistentCache.record(Kind.PAGE_WITH_POSITION_COMPARATOR, key, () -> toPersistedKey(key));
+        return pageWithPositionComparators.getUnchecked(key);
+    }
+
+    private static String toPersistedKey(PagesIndexComparatorCacheKey key)
+    {
+        List<TypeSignature> sortTypes = key.getSortTypes().stream()
+                .map(Type::getTypeSignature)
+                .collect(toImmutableList());
+        return PERSISTED_CACHE_KEY_CODEC.toJson(new PersistedCacheKey(sortTypes, key.getSortChannels(), key.getSortOrders()));
+    }
+
+    private PagesIndexComparatorCacheKey fromPersistedKey(String json)
+    {
+        PersistedCacheKey key = PERSISTED_CACHE_KEY_CODEC.fromJson(json);
+        FunctionAndTypeManager typeManager = functionAndTypeManager.orElseThrow(() -> new IllegalStateException("types cannot be resolved"));
+        List<Type> sortTypes = key.getSortTypes().stream()
+                .map(typeManager::getType)
+                .collect(toImmutableList());
+        return new PagesIndexComparatorCacheKey(sortTypes, key.getSortChannels(), key.getSortOrders());
     }
 
     private PageWithPositionComparator internalCompilePageWithPositionComparator(List<Type> types, List<Integer> sortChannels, List<SortOrder> sortOrders)
@@ -370,4 +425,40 @@ public class OrderingCompiler
                     Objects.equals(this.sortOrders, other.sortOrders);
         }
     }
+
+    public static final class PersistedCacheKey
+    {
+        private final List<TypeSignature> sortTypes;
+        private final List<Integer> sortChannels;
+        private final List<SortOrder> sortOrders;
+
+        @JsonCreator
+        public PersistedCacheKey(
+                @JsonProperty("sortTypes") List<TypeSignature> sortTypes,
+                @JsonProperty("sortChannels") List<Integer> sortChannels,
+                @JsonProperty("sortOrders") List<SortOrder> sortOrders)
+        {
+            this.sortTypes = ImmutableList.copyOf(requireNonNull(sortTypes, "sortTypes is null"));
+            this.sortChannels = ImmutableList.copyOf(requireNonNull(sortChannels, "sortChannels is null"));
+            this.sortOrders = ImmutableList.copyOf(requireNonNull(sortOrders, "sortOrders is null"));
+        }
+
+        @JsonProperty
+        public List<TypeSignature> getSortTypes()
+        {
+            return sortTypes;
+        }
+
+        @JsonProperty
+        public List<Integer> getSortChannels()
+        {
+            return sortChannels;
+        }
+
+        @JsonProperty
+        public List<SortOrder> getSortOrders()
+        {
+            return sortOrders;
+        }
+    }
 }
@@ -30,6 +30,7 @@ import io.airlift.bytecode.Scope;
 import io.airlift.bytecode.Variable;
 import io.airlift.bytecode.control.ForLoop;
 import io.airlift.bytecode.control.IfStatement;
+import io.airlift.json.JsonCodec;
 import io.prestosql.metadata.Metadata;
 import io.prestosql.operator.Work;
 import io.prestosql.operator.project.ConstantPageProjection;
@@ -51,6 +52,7 @@ import io.prestosql.spi.relation.LambdaDefinitionExpression;
 import io.prestosql.spi.relation.RowExpression;
 import io.prestosql.spi.relation.RowExpressionVisitor;
 import io.prestosql.sql.gen.LambdaBytecodeGenerator.CompiledLambda;
+import io.prestosql.sql.gen.PersistentCompilerCache.Kind;
 import io.prestosql.sql.planner.CompilerConfig;
 import io.prestosql.sql.relational.Expressions;
 import io.prestosql.sql.relational.RowExpressionDeterminismEvaluator;
@@ -106,16 +108,31 @@ public class PageFunctionCompiler
     private final CacheStatsMBean projectionCacheStats;
     private final CacheStatsMBean filterCacheStats;
 
+    private final PersistentCompilerCache persistentCache;
+    private final Optional<JsonCodec<RowExpression>> rowExpressionCodec;
+
     @Inject
+    public PageFunctionCompiler(Metadata metadata, CompilerConfig config, PersistentCompilerCache persistentCache, JsonCodec<RowExpression> rowExpressionCodec)
+    {
+        this(metadata, requireNonNull(config, "config is null").getExpressionCacheSize(), persistentCache, Optional.of(rowExpressionCodec));
+    }
+
     public PageFunctionCompiler(Metadata metadata, CompilerConfig config)
     {
         this(metadata, requireNonNull(config, "config is null").getExpressionCacheSize());
     }
 
     public PageFunctionCompiler(Metadata metadata, int expressionCacheSize)
+    {
+        this(metadata, expressionCacheSize, PersistentCompilerCache.disabled(), Optional.empty());
+    }
+
+    private PageFunctionCompiler(Metadata metadata, int expressionCacheSize, PersistentCompilerCache persistentCache, Optional<JsonCodec<RowExpression>> rowExpressionCodec)
     {
         this.metadata = requireNonNull(metadata, "metadata is null");
         this.determinismEvaluator = new RowExpressionDeterminismEvaluator(metadata);
+        this.persistentCache = requireNonNull(persistentCache, "persistentCache is null");
+        this.rowExpressionCodec = requireNonNull(rowExpressionCodec, "rowExpressionCodec is null");
 
         if (expressionCacheSize > 0) {
             projectionCache = CacheBuilder.newBuilder()
@@ -140,6 +157,13 @@ public class PageFunctionCompiler
             filterCache = null;
             filterCacheStats = null;
         }
+
+        // expressions are persisted in their JSON form, which is only possible when they are cached in memory too
+        if (projectionCache != null && rowExpressionCodec.isPresent()) {
+            JsonCodec<RowExpression> codec = rowExpressionCodec.get();
+            persistentCache.registerLoader(Kind.PROJECTION, json -> projectionCache.getUnchecked(codec.fromJson(json)));
+            persistentCache.registerLoader(Kind.FILTER, json -> filterCache.getUnchecked(codec.fromJson(json)));
+        }
     }
 
     @Nullable
@@ -158,11 +182,17 @@ public class PageFunctionCompiler
         return filterCacheStats;
     }
 
+    public boolean isProjectionCached(RowExpression projection)
+    {
+        return projectionCache != null && projectionCache.getIfPresent(projection) != null;
+    }
+
     public Supplier<PageProjection> compileProjection(RowExpression projection, Optional<String> classNameSuffix)
     {
         if (projectionCache == null) {
             return compileProjectionInternal(projection, classNameSuffix);
         }
+        rowExpressionCodec.ifPresent(codec -> persistentCache.record(Kind.PROJECTION, projection, () -> codec.toJson(projection)));
         return projectionCache.getUnchecked(projection);
     }
 
@@ -357,11 +387,17 @@ public class PageFunctionCompiler
         return method;
     }
 
+    public boolean isFilterCached(RowExpression filter)
+    {
+        return filterCache != null && filterCache.getIfPresent(filter) != null;
+    }
+
     public Supplier<PageFilter> compileFilter(RowExpression filter, Optional<String> classNameSuffix)
     {
         if (filterCache == null) {
             return compileFilterInternal(filter, classNameSuffix);
         }
+        rowExpressionCodec.ifPresent(codec -> persistentCache.record(Kind.FILTER, filter, () -> codec.toJson(filter)));
         return filterCache.getUnchecked(filter);
     }
 
@@ -0,0 +1,402 @@
+/*
+ * Copyright (C) 2018-2022. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.sql.gen;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.json.JsonCodec;
+import io.airlift.log.Logger;
+import io.prestosql.client.NodeVersion;
+import io.prestosql.sql.planner.CompilerConfig;
+import org.weakref.jmx.Managed;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.hash.Hashing.sha256;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.json.JsonCodec.listJsonCodec;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+/**
+ * Remembers which classes the compilers generated, and how often each was requested, in a file that
+ * survives restarts. Generated classes are linked to live call site bindings (method handles, constants),
+ * so their bytecode cannot be reloaded on its own. Instead, each entry keeps the canonical form of the
+ * compilation key, and the most requested entries are compiled again in the background as soon as the
+ * owning compiler registers, before queries ask for them.
+ * <p>
+ * Entries are identified by a hash of the engine version, the kind and the key, so entries written by
+ * another version are dropped when the file is loaded.
+ */
+public class PersistentCompilerCache
+{
+    private static final Logger log = Logger.get(PersistentCompilerCache.class);
+    private static final JsonCodec<List<CompiledClassEntry>> ENTRIES_CODEC = listJsonCodec(CompiledClassEntry.class);
+    private static final String FILE_NAME = "compiled-classes.json";
+    private static final int MAX_ENTRIES = 10_000;
+
+    public enum Kind
+    {
+        PROJECTION,
+        FILTER,
+        LOOKUP_SOURCE,
+        HASH_STRATEGY,
+        PAGES_INDEX_ORDERING,
+        PAGE_WITH_POSITION_COMPARATOR,
+    }
+
+    private final boolean enabled;
+    private final Path file;
+    private final int preloadCount;
+    private final String engineVersion;
+
+    // entries read at startup, by hash
+    private final Map<String, CompiledClassEntry> persistedEntries;
+    // requests since startup, by in-memory compilation key
+    private final Map<RecordedKey, RecordedEntry> recordedEntries = new ConcurrentHashMap<>();
+
+    private final ExecutorService preloadExecutor;
+    private final ScheduledExecutorService flushExecutor;
+
+    private final AtomicLong preloadedEntries = new AtomicLong();
+    private final AtomicLong preloadFailures = new AtomicLong();
+
+    @Inject
+    public PersistentCompilerCache(CompilerConfig config, NodeVersion nodeVersion)
+    {
+        requireNonNull(config, "config is null");
+        this.enabled = config.isPersistentCacheEnabled();
+        this.file = Paths.get(config.getPersistentCacheDirectory()).resolve(FILE_NAME);
+        this.preloadCount = config.getPersistentCachePreloadCount();
+        this.engineVersion = requireNonNull(nodeVersion, "nodeVersion is null").getVersion();
+
+        if (enabled) {
+            this.persistedEntries = load();
+            this.preloadExecutor = newSingleThreadExecutor(daemonThreadsNamed("compiler-cache-preload-%s"));
+            this.flushExecutor = newSingleThreadScheduledExecutor(daemonThreadsNamed("compiler-cache-flush-%s"));
+            flushExecutor.scheduleWithFixedDelay(this::flushQuietly, 1, 1, MINUTES);
+        }
+        else {
+            this.persistedEntries = ImmutableMap.of();
+            this.preloadExecutor = null;
+            this.flushExecutor = null;
+        }
+    }
+
+    public static PersistentCompilerCache disabled()
+    {
+        return new PersistentCompilerCache(new CompilerConfig(), NodeVersion.UNKNOWN);
+    }
+
+    @PreDestroy
+    public void stop()
+    {
+        if (!enabled) {
+            return;
+        }
+        preloadExecutor.shutdownNow();
+        flushExecutor.shutdownNow();
+        flushQuietly();
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * Counts a request for a compiled class. The canonical key is only computed the first time an
+     * in-memory key is seen, and must be accepted by the loader registered for the kind.
+     */
+    public void record(Kind kind, Object key, Supplier<String> canonicalKey)
+    {
+        if (!enabled) {
+            return;
+        }
+        RecordedKey recordedKey = new RecordedKey(kind, key);
+        RecordedEntry entry = recordedEntries.get(recordedKey);
+        if (entry == null) {
+            if (recordedEntries.size() >= MAX_ENTRIES) {
+                return;
+            }
+            String canonical;
+            try {
+                canonical = canonicalKey.get();
+            }
+            catch (RuntimeException e) {
+                // not every key can be written, e.g. expressions holding values without a JSON form
+                log.debug(e, "Cannot record %s compilation key", kind);
+                return;
+            }
+            entry = recordedEntries.computeIfAbsent(recordedKey, ignored -> new RecordedEntry(kind, canonical));
+        }
+        entry.requests.incrementAndGet();
+    }
+
+    /**
+     * Registers how to compile entries of the given kind from their canonical key, and compiles the
+     * persisted entries of that kind that rank among the most requested in the background.
+     */
+    public void registerLoader(Kind kind, Consumer<String> loader)
+    {
+        if (!enabled) {
+            return;
+        }
+        List<CompiledClassEntry> entries = getPreloadEntries(kind);
+        if (entries.isEmpty()) {
+            return;
+        }
+        preloadExecutor.execute(() -> {
+            for (CompiledClassEntry entry : entries) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                try {
+                    loader.accept(entry.getKey());
+                    preloadedEntries.incrementAndGet();
+                }
+                catch (RuntimeException e) {
+                    preloadFailures.incrementAndGet();
+                    log.debug(e, "Failed to preload %s %s", kind, entry.getHash());
+                }
+            }
+        });
+    }
+
+    @VisibleForTesting
+    List<CompiledClassEntry> getPreloadEntries(Kind kind)
+    {
+        return persistedEntries.values().stream()
+                .sorted(Comparator.comparingLong(CompiledClassEntry::getRequests).reversed())
+                .limit(preloadCount)
+                .filter(entry -> entry.getKind() == kind)
+                .collect(toImmutableList());
+    }
+
+    @Managed
+    public long getPreloadedEntries()
+    {
+        return preloadedEntries.get();
+    }
+
+    @Managed
+    public long getPreloadFailures()
+    {
+        return preloadFailures.get();
+    }
+
+    @Managed
+    public long getPersistedEntries()
+    {
+        return persistedEntries.size();
+    }
+
+    @Managed
+    public long getRecordedEntries()
+    {
+        return recordedEntries.size();
+    }
+
+    @Managed
+    public synchronized void flush()
+            throws IOException
+    {
+        if (!enabled) {
+            return;
+        }
+        // request counts accumulate across restarts
+        Map<String, CompiledClassEntry> merged = new HashMap<>(persistedEntries);
+        for (RecordedEntry recorded : recordedEntries.values()) {
+            String hash = hash(engineVersion, recorded.kind, recorded.canonicalKey);
+            CompiledClassEntry persisted = merged.get(hash);
+            long requests = recorded.requests.get() + (persisted == null ? 0 : persisted.getRequests());
+            merged.put(hash, new CompiledClassEntry(hash, recorded.kind, recorded.canonicalKey, requests));
+        }
+        List<CompiledClassEntry> entries = merged.values().stream()
+                .sorted(Comparator.comparingLong(CompiledClassEntry::getRequests).reversed())
+                .limit(MAX_ENTRIES)
+                .collect(toImmutableList());
+
+        Files.createDirectories(file.getParent());
+        Path temporaryFile = file.resolveSibling(FILE_NAME + ".tmp");
+        Files.write(temporaryFile, ENTRIES_CODEC.toJsonBytes(entries));
+        Files.move(temporaryFile, file, ATOMIC_MOVE, REPLACE_EXISTING);
+    }
+
+    private void flushQuietly()
+    {
+        try {
+            flush();
+        }
+        catch (IOException | RuntimeException e) {
+            log.warn(e, "Failed to write compiler cache to %s", file);
+        }
+    }
+
+    private Map<String, CompiledClassEntry> load()
+    {
+        if (!Files.exists(file)) {
+            return ImmutableMap.of();
+        }
+        List<CompiledClassEntry> entries;
+        try {
+            entries = ENTRIES_CODEC.fromJson(Files.readAllBytes(file));
+        }
+        catch (IOException | IllegalArgumentException e) {
+            log.warn(e, "Ignoring unreadable compiler cache %s", file);
+            return ImmutableMap.of();
+        }
+
+        ImmutableMap.Builder<String, CompiledClassEntry> result = ImmutableMap.builder();
+        int stale = 0;
+        for (CompiledClassEntry entry : entries) {
+            // entries from another engine version no longer match their hash
+            if (!entry.getHash().equals(hash(engineVersion, entry.getKind(), entry.getKey()))) {
+                stale++;
+                continue;
+            }
+            result.put(entry.getHash(), entry);
+        }
+        log.info("Loaded %s compiler cache entries from %s, dropped %s stale entries", entries.size() - stale, file, stale);
+        return result.build();
+    }
+
+    @VisibleForTesting
+    static String hash(String engineVersion, Kind kind, String canonicalKey)
+    {
+        return sha256().newHasher()
+                .putString(engineVersion, UTF_8)
+                .putString(kind.name(), UTF_8)
+                .putString(canonicalKey, UTF_8)
+                .hash()
+                .toString();
+    }
+
+    public static class CompiledClassEntry
+    {
+        private final String hash;
+        private final Kind kind;
+        private final String key;
+        private final long requests;
+
+        @JsonCreator
+        public CompiledClassEntry(
+                @JsonProperty("hash") String hash,
+                @JsonProperty("kind") Kind kind,
+                @JsonProperty("key") String key,
+                @JsonProperty("requests") long requests)
+        {
+            this.hash = requireNonNull(hash, "hash is null");
+            this.kind = requireNonNull(kind, "kind is null");
+            this.key = requireNonNull(key, "key is null");
+            checkArgument(requests >= 0, "requests is negative");
+            this.requests = requests;
+        }
+
+        @JsonProperty
+        public String getHash()
+        {
+            return hash;
+        }
+
+        @JsonProperty
+        public Kind getKind()
+        {
+            return kind;
+        }
+
+        @JsonProperty
+        public String getKey()
+        {
+            return key;
+        }
+
+        @JsonProperty
+        public long getRequests()
+        {
+            return requests;
+        }
+    }
+
+    private static final class RecordedKey
+    {
+        private final Kind kind;
+        private final Object key;
+
+        private RecordedKey(Kind kind, Object key)
+        {
+            this.kind = requireNonNull(kind, "kind is null");
+            this.key = requireNonNull(key, "key is null");
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            RecordedKey that = (RecordedKey) o;
+            return kind == that.kind && key.equals(that.key);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(kind, key);
+        }
+    }
+
+    private static final class RecordedEntry
+    {
+        private final Kind kind;
+        private final String canonicalKey;
+        private final AtomicLong requests = new AtomicLong();
+
+        private RecordedEntry(Kind kind, String canonicalKey)
+        {
+            this.kind = kind;
+            this.canonicalKey = canonicalKey;
+        }
+    }
+}
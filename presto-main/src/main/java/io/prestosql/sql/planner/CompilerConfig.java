@@ -14,15 +14,22 @@
 package io.prestosql.sql.planner;
 
 import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
 import io.airlift.configuration.DefunctConfig;
 import io.prestosql.spi.function.Description;
 
 import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
 
 @DefunctConfig("compiler.interpreter-enabled")
 public class CompilerConfig
 {
     private int expressionCacheSize = 10_000;
+    private boolean persistentCacheEnabled;
+    private String persistentCacheDirectory = "var/compiler-cache";
+    private int persistentCachePreloadCount = 500;
+    private boolean backgroundCompilationEnabled;
+    private int backgroundCompilationThreads = 2;
 
     @Min(0)
     public int getExpressionCacheSize()
@@ -37,4 +44,72 @@ public class CompilerConfig
         this.expressionCacheSize = expressionCacheSize;
         return this;
     }
+
+    public boolean isPersistentCacheEnabled()
+    {
+        return persistentCacheEnabled;
+    }
+
+    @Config("compiler.persistent-cache.enabled")
+    @ConfigDescription("Remember compiled expressions, join and ordering classes across restarts and compile the most used ones at startup")
+    public CompilerConfig setPersistentCacheEnabled(boolean persistentCacheEnabled)
+    {
+        this.persistentCacheEnabled = persistentCacheEnabled;
+        return this;
+    }
+
+    @NotNull
+    public String getPersistentCacheDirectory()
+    {
+        return persistentCacheDirectory;
+    }
+
+    @Config("compiler.persistent-cache.directory")
+    @ConfigDescription("Directory holding the persistent compiler cache")
+    public CompilerConfig setPersistentCacheDirectory(String persistentCacheDirectory)
+    {
+        this.persistentCacheDirectory = persistentCacheDirectory;
+        return this;
+    }
+
+    @Min(0)
+    public int getPersistentCachePreloadCount()
+    {
+        return persistentCachePreloadCount;
+    }
+
+    @Config("compiler.persistent-cache.preload-count")
+    @ConfigDescription("Number of most used entries of the persistent compiler cache compiled at startup")
+    public CompilerConfig setPersistentCachePreloadCount(int persistentCachePreloadCount)
+    {
+        this.persistentCachePreloadCount = persistentCachePreloadCount;
+        return this;
+    }
+
+    public boolean isBackgroundCompilationEnabled()
+    {
+        return backgroundCompilationEnabled;
+    }
+
+    @Config("compiler.background-compilation.enabled")
+    @ConfigDescription("Compile new filters and projections in the background and interpret them until the compiled code is ready")
+    public CompilerConfig setBackgroundCompilationEnabled(boolean backgroundCompilationEnabled)
+    {
+        this.backgroundCompilationEnabled = backgroundCompilationEnabled;
+        return this;
+    }
+
+    @Min(1)
+    public int getBackgroundCompilationThreads()
+    {
+        return backgroundCompilationThreads;
+    }
+
+    @Config("compiler.background-compilation.threads")
+    @ConfigDescription("Number of threads compiling filters and projections in the background")
+    public CompilerConfig setBackgroundCompilationThreads(int backgroundCompilationThreads)
+    {
+        this.backgroundCompilationThreads = backgroundCompilationThreads;
+        return this;
+    }
 }
@@ -32,6 +32,7 @@ import io.airlift.units.DataSize;
 import io.prestosql.Session;
 import io.prestosql.SystemSessionProperties;
 import io.prestosql.cache.CachedDataManager;
+import io.prestosql.cache.SplitPageCache;
 import io.prestosql.cache.elements.CachedDataStorage;
 import io.prestosql.cube.CubeManager;
 import io.prestosql.dynamicfilter.DynamicFilterCacheManager;
@@ -403,6 +404,7 @@ public class LocalExecutionPlanner
     protected final TableExecuteContextManager tableExecuteContextManager;
     private final PositionsAppenderFactory positionsAppenderFactory = new PositionsAppenderFactory();
     private final CachedDataManager cachedDataManager;
+    private final SplitPageCache splitPageCache;
     private final String userName;
 
     public Metadata getMetadata()
@@ -586,6 +588,7 @@ public class LocalExecutionPlanner
             ExchangeManagerRegistry exchangeManagerRegistry,
             TableExecuteContextManager tableExecuteContextManager,
             CachedDataManager cachedDataManager,
+            SplitPageCache splitPageCache,
             HetuConfig hetuConfig)
     {
         this.explainAnalyzeContext = requireNonNull(explainAnalyzeContext, "explainAnalyzeContext is null");
@@ -623,6 +626,7 @@ public class LocalExecutionPlanner
         this.exchangeManagerRegistry = requireNonNull(exchangeManagerRegistry, "exchangeManagerRegistry is null");
         this.tableExecuteContextManager = requireNonNull(tableExecuteContextManager, "tableExecuteContextManager is null");
         this.cachedDataManager = requireNonNull(cachedDataManager, "cachedDataManager is null");
+        this.splitPageCache = requireNonNull(splitPageCache, "splitPageCache is null");
         this.userName = requireNonNull(hetuConfig, "hetuConfig is null").getCachingUserName();
     }
 
@@ -1823,7 +1827,8 @@ public class LocalExecutionPlanner
                             dynamicFilterCacheManager,
                             getFilterAndProjectMinOutputPageSize(session),
                             getFilterAndProjectMinOutputPageRowCount(session),
-                            strategy, reuseTableScanMappingId, spillEnabled, Optional.of(spillerFactory), spillerThreshold, consumerTableScanNodeCount);
+                            strategy, reuseTableScanMappingId, spillEnabled, Optional.of(spillerFactory), spillerThreshold, consumerTableScanNodeCount,
+                            splitPageCache);
 
                     return new PhysicalOperation(operatorFactory, outputMappings, context, stageExecutionDescriptor.isScanGroupedExecution(sourceNode.getId()) ? GROUPED_EXECUTION : UNGROUPED_EXECUTION);
                 }
@@ -1917,7 +1922,8 @@ public class LocalExecutionPlanner
                     metadata,
                     dynamicFilterCacheManager,
                     getFilterAndProjectMinOutputPageSize(session),
-                    getFilterAndProjectMinOutputPageRowCount(session), node.getStrategy(), node.getReuseTableScanMappingId(), spillEnabled, Optional.of(spillerFactory), spillerThreshold, consumerTableScanNodeCount);
+                    getFilterAndProjectMinOutputPageRowCount(session), node.getStrategy(), node.getReuseTableScanMappingId(), spillEnabled, Optional.of(spillerFactory), spillerThreshold, consumerTableScanNodeCount,
+                    splitPageCache);
             return new PhysicalOperation(operatorFactory, makeLayout(node), context, stageExecutionDescriptor.isScanGroupedExecution(node.getId()) ? GROUPED_EXECUTION : UNGROUPED_EXECUTION);
         }
 
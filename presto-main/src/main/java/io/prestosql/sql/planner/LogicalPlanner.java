@@ -29,6 +29,7 @@ import io.prestosql.cost.CostProvider;
 import io.prestosql.cost.StatsAndCosts;
 import io.prestosql.cost.StatsCalculator;
 import io.prestosql.cost.StatsProvider;
+import io.prestosql.cube.CubeDeltaDetector;
 import io.prestosql.exchange.RetryPolicy;
 import io.prestosql.execution.scheduler.NodeScheduler;
 import io.prestosql.execution.warnings.WarningCollector;
@@ -182,6 +183,7 @@ public class LogicalPlanner
     protected final PlanSymbolAllocator planSymbolAllocator = new PlanSymbolAllocator();
     private final Metadata metadata;
     private final TypeCoercion typeCoercion;
+    private final SqlParser sqlParser;
     private final TypeAnalyzer typeAnalyzer;
     private final StatisticsAggregationPlanner statisticsAggregationPlanner;
     private final StatsCalculator statsCalculator;
@@ -197,19 +199,21 @@ public class LogicalPlanner
                           List<PlanOptimizer> planOptimizers,
                           PlanNodeIdAllocator idAllocator,
                           Metadata metadata,
+                          SqlParser sqlParser,
                           TypeAnalyzer typeAnalyzer,
                           StatsCalculator statsCalculator,
                           CostCalculator costCalculator,
                           WarningCollector warningCollector,
                           CachedDataStorageProvider cachedData)
     {
-        this(session, planOptimizers, DISTRIBUTED_PLAN_SANITY_CHECKER, idAllocator, metadata, typeAnalyzer, statsCalculator, costCalculator, warningCollector, cachedData, null, null);
+        this(session, planOptimizers, DISTRIBUTED_PLAN_SANITY_CHECKER, idAllocator, metadata, sqlParser, typeAnalyzer, statsCalculator, costCalculator, warningCollector, cachedData, null, null);
     }
 
     public LogicalPlanner(Session session,
             List<PlanOptimizer> planOptimizers,
             PlanNodeIdAllocator idAllocator,
             Metadata metadata,
+            SqlParser sqlParser,
             TypeAnalyzer typeAnalyzer,
             StatsCalculator statsCalculator,
             CostCalculator costCalculator,
@@ -218,7 +222,7 @@ public class LogicalPlanner
             QuerySnapshotManager snapshotManager,
             NodeScheduler nodeScheduler)
     {
-        this(session, planOptimizers, DISTRIBUTED_PLAN_SANITY_CHECKER, idAllocator, metadata, typeAnalyzer, statsCalculator, costCalculator, warningCollector, cachedData, snapshotManager, nodeScheduler);
+        this(session, planOptimizers, DISTRIBUTED_PLAN_SANITY_CHECKER, idAllocator, metadata, sqlParser, typeAnalyzer, statsCalculator, costCalculator, warningCollector, cachedData, snapshotManager, nodeScheduler);
     }
 
     public LogicalPlanner(Session session,
@@ -226,6 +230,7 @@ public class LogicalPlanner
                           PlanSanityChecker planSanityChecker,
                           PlanNodeIdAllocator idAllocator,
                           Metadata metadata,
+                          SqlParser sqlParser,
                           TypeAnalyzer typeAnalyzer,
                           StatsCalculator statsCalculator,
                           CostCalculator costCalculator,
@@ -240,6 +245,7 @@ public class LogicalPlanner
         this.idAllocator = requireNonNull(idAllocator, "idAllocator is null");
         this.metadata = requireNonNull(metadata, "metadata is null");
         this.typeCoercion = new TypeCoercion(metadata::getType);
+        this.sqlParser = requireNonNull(sqlParser, "sqlParser is null");
         this.typeAnalyzer = requireNonNull(typeAnalyzer, "typeAnalyzer is null");
         this.statisticsAggregationPlanner = new StatisticsAggregationPlanner(planSymbolAllocator, metadata);
         this.statsCalculator = requireNonNull(statsCalculator, "statsCalculator is null");
@@ -636,10 +642,27 @@ public class LogicalPlanner
             }
         }
         TableHandle sourceTableHandle = insert.getSourceTable();
-        //At this point it has been verified that source table has not been updated
-        //so insert into cube should be allowed
         LongSupplier tableLastModifiedTimeSupplier = metadata.getTableLastModifiedTimeSupplier(session, sourceTableHandle);
         checkState(tableLastModifiedTimeSupplier != null, "Table last modified time is null");
+        CubeDeltaDetector cubeDeltaDetector = new CubeDeltaDetector(metadata, sqlParser);
+        if (!insertCubeStatement.isOverwrite() && rewritten != null && cubeMetadata.getCubeStatus() == CubeStatus.READY && tableLastModifiedTimeSupplier.getAsLong() > cubeMetadata.getSourceTableLastUpdatedTime()
+                && !cubeDeltaDetector.isNewPartitionsPredicate(session, cubeMetadata, sourceTableHandle, rewritten)) {
+            //Source table was updated, which the analyzer only allows for incremental inserts of partitions that are not part of the cube yet
+            throw new PrestoException(QUERY_REJECTED, String.format("Cannot insert into cube. Source table has been updated since Cube was last updated and predicate '%s' does not only select new partitions. Try INSERT OVERWRITE CUBE or Create new a cube",
+                    ExpressionFormatter.formatExpression(insertCubeStatement.getWhere().get(), Optional.empty())));
+        }
+        //At this point it has been verified that source table has not been updated, or only with new partitions
+        //so insert into cube should be allowed
+        String tableDataVersion = null;
+        if (rewritten != null) {
+            //Record the version of all partitions the cube covers after this insert, so later appends to them are detected
+            Expression coveredPredicate = rewritten;
+            CubeFilter cubeFilter = cubeMetadata.getCubeFilter();
+            if (!insertCubeStatement.isOverwrite() && cubeMetadata.getCubeStatus() != CubeStatus.INACTIVE && cubeFilter != null && cubeFilter.getCubePredicate() != null) {
+                coveredPredicate = ExpressionUtils.or(sqlParser.createExpression(cubeFilter.getCubePredicate(), createParsingOptions(session)), rewritten);
+            }
+            tableDataVersion = cubeDeltaDetector.getCoveredDataVersion(session, sourceTableHandle, coveredPredicate).orElse(null);
+        }
         Map<Symbol, Type> predicateColumnsType = predicateColumns.stream()
                 .map(identifier -> new Symbol(identifier.getValue()))
                 .collect(Collectors.toMap(Function.identity(), symbol -> planSymbolAllocator.getTypes().get(symbol), (key1, ignored) -> key1));
@@ -650,6 +673,7 @@ public class LogicalPlanner
                 new CubeUpdateMetadata(
                         tableMetadata.getQualifiedName().toString(),
                         tableLastModifiedTimeSupplier.getAsLong(),
+                        tableDataVersion,
                         rewritten != null ? ExpressionFormatter.formatExpression(rewritten, Optional.empty()) : null,
                         insertCubeStatement.isOverwrite()),
                 predicateColumnsType);
@@ -673,7 +697,6 @@ public class LogicalPlanner
             //Means Cube was created for entire dataset.
             return true;
         }
-        SqlParser sqlParser = new SqlParser();
         Expression cubePredicateAsExpr = sqlParser.createExpression(cubeFilter.getCubePredicate(), createParsingOptions(session));
         cubePredicateAsExpr = ExpressionUtils.rewriteIdentifiersToSymbolReferences(cubePredicateAsExpr);
         ExpressionDomainTranslator.ExtractionResult decomposedCubePredicate = ExpressionDomainTranslator.fromPredicate(metadata, session, cubePredicateAsExpr, types);
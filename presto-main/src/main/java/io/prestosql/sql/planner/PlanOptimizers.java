@@ -154,6 +154,7 @@ import io.prestosql.sql.planner.iterative.rule.RemoveUnreferencedScalarApplyNode
 import io.prestosql.sql.planner.iterative.rule.RemoveUnreferencedScalarLateralNodes;
 import io.prestosql.sql.planner.iterative.rule.RemoveUnsupportedDynamicFilters;
 import io.prestosql.sql.planner.iterative.rule.ReorderJoins;
+import io.prestosql.sql.planner.iterative.rule.ReplicateSkewedJoinKeys;
 import io.prestosql.sql.planner.iterative.rule.RewriteSpatialPartitioningAggregation;
 import io.prestosql.sql.planner.iterative.rule.SimplifyCountOverConstant;
 import io.prestosql.sql.planner.iterative.rule.SimplifyExpressions;
@@ -681,6 +682,12 @@ public class PlanOptimizers
                             // Must run before AddExchanges and after ReplicateSemiJoinInDelete
                             // to avoid temporarily having an invalid plan
                             new DetermineSemiJoinDistributionType(costComparator, taskCountEstimator)))));
+            builder.add(
+                    new IterativeOptimizer(
+                            ruleStats,
+                            statsCalculator,
+                            estimatedExchangesCostCalculator,
+                            ImmutableSet.of(new ReplicateSkewedJoinKeys(metadata, splitManager, pageSourceManager, taskCountEstimator)))); // Must run after DetermineJoinDistributionType and before AddExchanges
             builder.add(
                     new IterativeOptimizer(
                             ruleStats,
@@ -0,0 +1,439 @@
+/*
+ * Copyright (C) 2018-2022. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.sql.planner.iterative.rule;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.log.Logger;
+import io.airlift.slice.Slice;
+import io.airlift.units.Duration;
+import io.prestosql.Session;
+import io.prestosql.cost.PlanNodeStatsEstimate;
+import io.prestosql.cost.SymbolStatsEstimate;
+import io.prestosql.cost.TaskCountEstimator;
+import io.prestosql.execution.Lifespan;
+import io.prestosql.matching.Captures;
+import io.prestosql.matching.Pattern;
+import io.prestosql.metadata.FunctionAndTypeManager;
+import io.prestosql.metadata.Metadata;
+import io.prestosql.metadata.Split;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.connector.ColumnHandle;
+import io.prestosql.spi.connector.ConnectorPageSource;
+import io.prestosql.spi.plan.Assignments;
+import io.prestosql.spi.plan.FilterNode;
+import io.prestosql.spi.plan.JoinNode;
+import io.prestosql.spi.plan.PlanNode;
+import io.prestosql.spi.plan.ProjectNode;
+import io.prestosql.spi.plan.Symbol;
+import io.prestosql.spi.plan.TableScanNode;
+import io.prestosql.spi.relation.RowExpression;
+import io.prestosql.spi.relation.SpecialForm;
+import io.prestosql.spi.relation.VariableReferenceExpression;
+import io.prestosql.spi.type.ArrayType;
+import io.prestosql.spi.type.Type;
+import io.prestosql.split.PageSourceManager;
+import io.prestosql.split.SplitManager;
+import io.prestosql.split.SplitSource;
+import io.prestosql.split.SplitSource.SplitBatch;
+import io.prestosql.sql.planner.TypeProvider;
+import io.prestosql.sql.planner.iterative.Lookup;
+import io.prestosql.sql.planner.iterative.Rule;
+import io.prestosql.sql.planner.plan.UnnestNode;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeoutException;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.prestosql.SystemSessionProperties.getSkewedJoinHotKeyFraction;
+import static io.prestosql.SystemSessionProperties.getSkewedJoinSampleRows;
+import static io.prestosql.SystemSessionProperties.getSkewedJoinSampleTimeout;
+import static io.prestosql.SystemSessionProperties.isSkewedJoinReplicationEnabled;
+import static io.prestosql.spi.connector.ConnectorSplitManager.PLANNING_SPLITS;
+import static io.prestosql.spi.connector.ConnectorSplitManager.SplitSchedulingStrategy.UNGROUPED_SCHEDULING;
+import static io.prestosql.spi.connector.NotPartitionedPartitionHandle.NOT_PARTITIONED;
+import static io.prestosql.spi.plan.JoinNode.DistributionType.PARTITIONED;
+import static io.prestosql.spi.plan.JoinNode.Type.INNER;
+import static io.prestosql.spi.plan.JoinNode.Type.LEFT;
+import static io.prestosql.spi.relation.SpecialForm.Form.IF;
+import static io.prestosql.spi.relation.SpecialForm.Form.IN;
+import static io.prestosql.spi.relation.SpecialForm.Form.IS_NULL;
+import static io.prestosql.spi.relation.SpecialForm.Form.OR;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.BooleanType.BOOLEAN;
+import static io.prestosql.spi.type.TypeUtils.readNativeValue;
+import static io.prestosql.sql.planner.plan.Patterns.join;
+import static io.prestosql.sql.relational.Expressions.call;
+import static io.prestosql.sql.relational.Expressions.constant;
+import static java.lang.Math.max;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Spreads the hot keys of a skewed partitioned join over all join tasks.
+ * <p>
+ * Heavy hitters of the probe key are found by sampling the table the key is read from.
+ * Planning waits for the sample at most {@code skewed_join_sample_timeout}, otherwise the
+ * join is left as is.
+ * Rows of the probe side carrying a hot key get a random salt in {@code [0, n)}, where
+ * {@code n} is the number of hashed tasks, and all other rows get salt {@code 0}.
+ * Build rows carrying a hot key are replicated once per salt value, while all other build
+ * rows get salt {@code 0}. The salt is added to the join criteria, so cold keys keep
+ * their partitioned distribution and hot keys are joined on every task:
+ * <pre>
+ * Join[PARTITIONED](probe.k = build.k)
+ * </pre>
+ * is rewritten to
+ * <pre>
+ * Join[PARTITIONED](probe.k = build.k AND probe_salt = build_salt)
+ *   Project(probe_salt := IF(probe.k IN (hot keys), random(n), 0))
+ *   Unnest(build_salts -> build_salt)
+ *     Project(build_salts := sequence(0, IF(build.k IN (hot keys), n - 1, 0)))
+ * </pre>
+ * For left joins a large fraction of null probe keys, which would otherwise all land on
+ * one task, is spread as well. Null keys never match, so they need no build replicas.
+ */
+public class ReplicateSkewedJoinKeys
+        implements Rule<JoinNode>
+{
+    private static final Logger log = Logger.get(ReplicateSkewedJoinKeys.class);
+
+    private static final Pattern<JoinNode> PATTERN = join().matching(joinNode ->
+            joinNode.getDistributionType().equals(Optional.of(PARTITIONED))
+                    && (joinNode.getType() == INNER || joinNode.getType() == LEFT)
+                    && joinNode.getCriteria().size() == 1);
+
+    private static final int MAX_SAMPLED_SPLITS = 16;
+    private static final int MAX_HOT_KEYS = 64;
+    private static final int MAX_CONCURRENT_SAMPLES = 4;
+    private static final long SAMPLE_RESULT_GRACE_MILLIS = 100;
+
+    private final Metadata metadata;
+    private final SplitManager splitManager;
+    private final PageSourceManager pageSourceManager;
+    private final TaskCountEstimator taskCountEstimator;
+    private final ExecutorService sampleExecutor;
+
+    public ReplicateSkewedJoinKeys(Metadata metadata, SplitManager splitManager, PageSourceManager pageSourceManager, TaskCountEstimator taskCountEstimator)
+    {
+        this.metadata = requireNonNull(metadata, "metadata is null");
+        this.splitManager = requireNonNull(splitManager, "splitManager is null");
+        this.pageSourceManager = requireNonNull(pageSourceManager, "pageSourceManager is null");
+        this.taskCountEstimator = requireNonNull(taskCountEstimator, "taskCountEstimator is null");
+        ThreadPoolExecutor sampleExecutor = new ThreadPoolExecutor(MAX_CONCURRENT_SAMPLES, MAX_CONCURRENT_SAMPLES, 1, MINUTES, new LinkedBlockingQueue<>(), daemonThreadsNamed("skewed-join-sampler-%s"));
+        sampleExecutor.allowCoreThreadTimeOut(true);
+        this.sampleExecutor = sampleExecutor;
+    }
+
+    @Override
+    public Pattern<JoinNode> getPattern()
+    {
+        return PATTERN;
+    }
+
+    @Override
+    public boolean isEnabled(Session session)
+    {
+        return isSkewedJoinReplicationEnabled(session);
+    }
+
+    @Override
+    public Result apply(JoinNode joinNode, Captures captures, Context context)
+    {
+        Session session = context.getSession();
+        int partitionCount = taskCountEstimator.estimateHashedTaskCount(session);
+        if (partitionCount <= 1) {
+            return Result.empty();
+        }
+
+        JoinNode.EquiJoinClause clause = joinNode.getCriteria().get(0);
+        TypeProvider types = context.getSymbolAllocator().getTypes();
+        Type keyType = types.get(clause.getLeft());
+        if (!keyType.equals(types.get(clause.getRight())) || !isSupportedKeyType(keyType)) {
+            return Result.empty();
+        }
+
+        double hotKeyFraction = getSkewedJoinHotKeyFraction(session);
+        PlanNodeStatsEstimate probeStats = context.getStatsProvider().getStats(joinNode.getLeft());
+        SymbolStatsEstimate keyStats = probeStats.getSymbolStatistics(clause.getLeft());
+        boolean spreadNulls = joinNode.getType() == LEFT && keyStats.getNullsFraction() >= hotKeyFraction;
+
+        List<Object> hotKeys = ImmutableList.of();
+        if (mayHaveHotKeys(probeStats.getOutputRowCount(), keyStats, hotKeyFraction)) {
+            hotKeys = findSourceColumn(joinNode.getLeft(), clause.getLeft(), context.getLookup())
+                    .map(source -> sampleHotKeys(session, source, keyType, hotKeyFraction, getSkewedJoinSampleRows(session), getSkewedJoinSampleTimeout(session)))
+                    .orElse(ImmutableList.of());
+        }
+        if (hotKeys.isEmpty() && !spreadNulls) {
+            return Result.empty();
+        }
+
+        FunctionAndTypeManager functionAndTypeManager = metadata.getFunctionAndTypeManager();
+        VariableReferenceExpression probeKey = new VariableReferenceExpression(clause.getLeft().getName(), keyType);
+        VariableReferenceExpression buildKey = new VariableReferenceExpression(clause.getRight().getName(), keyType);
+
+        Optional<RowExpression> isHotProbeKey = hotKeys.isEmpty() ? Optional.empty() : Optional.of(isHotKey(probeKey, hotKeys));
+        if (spreadNulls) {
+            RowExpression isNullProbeKey = new SpecialForm(IS_NULL, BOOLEAN, probeKey);
+            isHotProbeKey = Optional.of(isHotProbeKey
+                    .<RowExpression>map(isHot -> new SpecialForm(OR, BOOLEAN, isHot, isNullProbeKey))
+                    .orElse(isNullProbeKey));
+        }
+        Symbol probeSalt = context.getSymbolAllocator().newSymbol("probe_salt", BIGINT);
+        RowExpression probeSaltExpression = new SpecialForm(
+                IF,
+                BIGINT,
+                isHotProbeKey.get(),
+                call(functionAndTypeManager, "random", BIGINT, constant((long) partitionCount, BIGINT)),
+                constant(0L, BIGINT));
+        PlanNode probe = addProjection(joinNode.getLeft(), probeSalt, probeSaltExpression, context);
+
+        Symbol buildSalt = context.getSymbolAllocator().newSymbol("build_salt", BIGINT);
+        PlanNode build;
+        if (hotKeys.isEmpty()) {
+            build = addProjection(joinNode.getRight(), buildSalt, constant(0L, BIGINT), context);
+        }
+        else {
+            ArrayType saltsType = new ArrayType(BIGINT);
+            Symbol buildSalts = context.getSymbolAllocator().newSymbol("build_salts", saltsType);
+            RowExpression lastSalt = new SpecialForm(IF, BIGINT, isHotKey(buildKey, hotKeys), constant((long) partitionCount - 1, BIGINT), constant(0L, BIGINT));
+            RowExpression buildSaltsExpression = call(functionAndTypeManager, "sequence", saltsType, constant(0L, BIGINT), lastSalt);
+            build = new UnnestNode(
+                    context.getIdAllocator().getNextId(),
+                    addProjection(joinNode.getRight(), buildSalts, buildSaltsExpression, context),
+                    joinNode.getRight().getOutputSymbols(),
+                    ImmutableMap.of(buildSalts, ImmutableList.of(buildSalt)),
+                    Optional.empty());
+        }
+
+        return Result.ofPlanNode(new JoinNode(
+                joinNode.getId(),
+                joinNode.getType(),
+                probe,
+                build,
+                ImmutableList.of(clause, new JoinNode.EquiJoinClause(probeSalt, buildSalt)),
+                joinNode.getOutputSymbols(),
+                joinNode.getFilter(),
+                Optional.empty(),
+                Optional.empty(),
+                joinNode.getDistributionType(),
+                joinNode.isSpillable(),
+                joinNode.getDynamicFilters()));
+    }
+
+    /**
+     * A key can only be hot if the distinct values leave room for one value to cover the
+     * hot key fraction of all rows. Unknown statistics never rule skew out.
+     */
+    @VisibleForTesting
+    static boolean mayHaveHotKeys(double rowCount, SymbolStatsEstimate keyStats, double hotKeyFraction)
+    {
+        double distinctValues = keyStats.getDistinctValuesCount();
+        double nullsFraction = keyStats.getNullsFraction();
+        if (Double.isNaN(rowCount) || Double.isNaN(distinctValues) || Double.isNaN(nullsFraction)) {
+            return true;
+        }
+        double nonNullRows = rowCount * (1 - nullsFraction);
+        return distinctValues <= nonNullRows - hotKeyFraction * rowCount + 1;
+    }
+
+    private static boolean isSupportedKeyType(Type type)
+    {
+        Class<?> javaType = type.getJavaType();
+        return type.isComparable() && (javaType == long.class || javaType == boolean.class || javaType == Slice.class);
+    }
+
+    private static RowExpression isHotKey(VariableReferenceExpression key, List<Object> hotKeys)
+    {
+        ImmutableList.Builder<RowExpression> arguments = ImmutableList.builder();
+        arguments.add(key);
+        for (Object hotKey : hotKeys) {
+            arguments.add(constant(hotKey, key.getType()));
+        }
+        return new SpecialForm(IN, BOOLEAN, arguments.build());
+    }
+
+    private static PlanNode addProjection(PlanNode node, Symbol symbol, RowExpression expression, Context context)
+    {
+        TypeProvider types = context.getSymbolAllocator().getTypes();
+        Assignments.Builder assignments = Assignments.builder();
+        for (Symbol outputSymbol : node.getOutputSymbols()) {
+            assignments.put(outputSymbol, new VariableReferenceExpression(outputSymbol.getName(), types.get(outputSymbol)));
+        }
+        assignments.put(symbol, expression);
+        return new ProjectNode(context.getIdAllocator().getNextId(), node, assignments.build());
+    }
+
+    /**
+     * Follows the symbol through filters and renaming projections down to the table column it is read from.
+     */
+    private static Optional<SourceColumn> findSourceColumn(PlanNode node, Symbol symbol, Lookup lookup)
+    {
+        PlanNode resolved = lookup.resolve(node);
+        if (resolved instanceof TableScanNode) {
+            TableScanNode tableScan = (TableScanNode) resolved;
+            return Optional.ofNullable(tableScan.getAssignments().get(symbol))
+                    .map(column -> new SourceColumn(tableScan, column));
+        }
+        if (resolved instanceof FilterNode) {
+            return findSourceColumn(((FilterNode) resolved).getSource(), symbol, lookup);
+        }
+        if (resolved instanceof ProjectNode) {
+            RowExpression expression = ((ProjectNode) resolved).getAssignments().get(symbol);
+            if (expression instanceof VariableReferenceExpression) {
+                return findSourceColumn(((ProjectNode) resolved).getSource(), new Symbol(((VariableReferenceExpression) expression).getName()), lookup);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Samples the table on a separate thread, so planning waits at most for the sample timeout,
+     * also when the connector blocks. The sample itself stops reading at the deadline and uses
+     * the rows read so far.
+     */
+    private List<Object> sampleHotKeys(Session session, SourceColumn source, Type keyType, double hotKeyFraction, int sampleRows, Duration timeout)
+    {
+        long deadline = System.nanoTime() + timeout.roundTo(NANOSECONDS);
+        Future<List<Object>> sample = sampleExecutor.submit(() -> sampleHotKeys(session, source, keyType, hotKeyFraction, sampleRows, deadline));
+        try {
+            return sample.get(timeout.toMillis() + SAMPLE_RESULT_GRACE_MILLIS, MILLISECONDS);
+        }
+        catch (TimeoutException e) {
+            log.debug("Sampling join keys of %s did not finish within %s", source.getTableScan().getTable(), timeout);
+        }
+        catch (ExecutionException e) {
+            log.debug(e.getCause(), "Failed to sample join keys of %s", source.getTableScan().getTable());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            sample.cancel(true);
+        }
+        return ImmutableList.of();
+    }
+
+    private List<Object> sampleHotKeys(Session session, SourceColumn source, Type keyType, double hotKeyFraction, int sampleRows, long deadline)
+            throws InterruptedException, ExecutionException
+    {
+        Map<Object, Long> counts = new HashMap<>();
+        long sampledRows = 0;
+        try (SplitSource splitSource = splitManager.getSplits(session, source.getTableScan().getTable(), UNGROUPED_SCHEDULING, null, Optional.empty(), ImmutableMap.of(PLANNING_SPLITS, true), ImmutableSet.of(), false, source.getTableScan().getId())) {
+            ListenableFuture<SplitBatch> splitBatch = splitSource.getNextBatch(NOT_PARTITIONED, Lifespan.taskWide(), MAX_SAMPLED_SPLITS);
+            if (!awaitUntil(splitBatch, deadline)) {
+                return ImmutableList.of();
+            }
+            List<Split> splits = splitBatch.get().getSplits();
+            if (splits.isEmpty()) {
+                return ImmutableList.of();
+            }
+            // read the same number of rows from every split, so one large split does not dominate the sample
+            long rowsPerSplit = max(1, sampleRows / splits.size());
+            for (Split split : splits) {
+                if (System.nanoTime() >= deadline) {
+                    break;
+                }
+                long splitRows = 0;
+                try (ConnectorPageSource pageSource = pageSourceManager.createPageSource(session, split, source.getTableScan().getTable(), ImmutableList.of(source.getColumn()), Optional.empty())) {
+                    while (!pageSource.isFinished() && splitRows < rowsPerSplit && awaitUntil(pageSource.isBlocked(), deadline)) {
+                        Page page = pageSource.getNextPage();
+                        if (page == null) {
+                            continue;
+                        }
+                        Block block = page.getBlock(0).getLoadedBlock();
+                        int positions = (int) Math.min(block.getPositionCount(), rowsPerSplit - splitRows);
+                        for (int position = 0; position < positions; position++) {
+                            if (!block.isNull(position)) {
+                                counts.merge(readNativeValue(keyType, block, position), 1L, Long::sum);
+                            }
+                        }
+                        splitRows += positions;
+                    }
+                }
+                catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                sampledRows += splitRows;
+            }
+        }
+
+        long threshold = max(1, (long) Math.ceil(sampledRows * hotKeyFraction));
+        return counts.entrySet().stream()
+                .filter(entry -> entry.getValue() >= threshold)
+                .sorted(Map.Entry.<Object, Long>comparingByValue().reversed())
+                .limit(MAX_HOT_KEYS)
+                .map(Map.Entry::getKey)
+                .collect(toImmutableList());
+    }
+
+    /**
+     * Waits for the future until the deadline, and returns whether it is done.
+     */
+    private static boolean awaitUntil(Future<?> future, long deadline)
+            throws InterruptedException, ExecutionException
+    {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+            return future.isDone();
+        }
+        try {
+            future.get(remaining, NANOSECONDS);
+            return true;
+        }
+        catch (TimeoutException e) {
+            return false;
+        }
+    }
+
+    private static class SourceColumn
+    {
+        private final TableScanNode tableScan;
+        private final ColumnHandle column;
+
+        public SourceColumn(TableScanNode tableScan, ColumnHandle column)
+        {
+            this.tableScan = requireNonNull(tableScan, "tableScan is null");
+            this.column = requireNonNull(column, "column is null");
+        }
+
+        public TableScanNode getTableScan()
+        {
+            return tableScan;
+        }
+
+        public ColumnHandle getColumn()
+        {
+            return column;
+        }
+    }
+}
@@ -32,6 +32,8 @@ import io.prestosql.matching.Pattern;
 import io.prestosql.metadata.Metadata;
 import io.prestosql.metadata.TableMetadata;
 import io.prestosql.spi.PrestoWarning;
+import io.prestosql.spi.connector.Constraint;
+import io.prestosql.spi.connector.QualifiedObjectName;
 import io.prestosql.spi.metadata.TableHandle;
 import io.prestosql.spi.plan.AggregationNode;
 import io.prestosql.spi.plan.FilterNode;
@@ -41,6 +43,7 @@ import io.prestosql.spi.plan.ProjectNode;
 import io.prestosql.spi.plan.Symbol;
 import io.prestosql.spi.plan.TableScanNode;
 import io.prestosql.spi.predicate.TupleDomain;
+import io.prestosql.spi.statistics.Estimate;
 import io.prestosql.sql.ExpressionUtils;
 import io.prestosql.sql.analyzer.FeaturesConfig;
 import io.prestosql.sql.parser.ParsingOptions;
@@ -57,8 +60,10 @@ import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -281,14 +286,43 @@ public class StarTreeAggregationRule
             return Result.empty();
         }
 
-        //If multiple cubes are matching then lets select the recent built cube
-        //so sort the cube based on the last updated time stamp
-        matchedCubeMetadataList.sort(Comparator.comparingLong(CubeMetadata::getLastUpdatedTime).reversed());
-        CubeMetadata matchedCubeMetadata = matchedCubeMetadataList.get(0);
+        //If multiple cubes are matching then lets select the cube that is cheapest to read
+        CubeMetadata matchedCubeMetadata = selectCube(matchedCubeMetadataList, session);
         AggregationRewriteWithCube aggregationRewriteWithCube = new AggregationRewriteWithCube(metadata, session, symbolAllocator, idAllocator, symbolMapping, matchedCubeMetadata);
         return Result.ofPlanNode(aggregationRewriteWithCube.rewrite(aggregationNode, rewriteByRemovingSourceFilter(filterNode, matchedCubeMetadata)));
     }
 
+    /**
+     * Selects the cube with the least estimated number of rows, as the query has to re-aggregate
+     * fewer rows from a cube with fewer or less distinct group columns. The number of group columns
+     * approximates the cube size if the row count of a cube table is unknown, and among cubes of the
+     * same cost the recently built cube is selected.
+     */
+    private CubeMetadata selectCube(List<CubeMetadata> cubeMetadataList, Session session)
+    {
+        if (cubeMetadataList.size() == 1) {
+            return cubeMetadataList.get(0);
+        }
+        Map<CubeMetadata, Double> rowCounts = new IdentityHashMap<>();
+        cubeMetadataList.forEach(cubeMetadata -> rowCounts.put(cubeMetadata, getEstimatedRowCount(cubeMetadata, session)));
+        Comparator<CubeMetadata> costComparator = Comparator.<CubeMetadata>comparingDouble(rowCounts::get)
+                .thenComparingInt(cubeMetadata -> cubeMetadata.getGroup().size())
+                .thenComparing(Comparator.comparingLong(CubeMetadata::getLastUpdatedTime).reversed());
+        CubeMetadata selected = Collections.min(cubeMetadataList, costComparator);
+        LOGGER.debug("Selected cube %s with estimated row count %s out of %d matching cubes", selected.getCubeName(), rowCounts.get(selected), cubeMetadataList.size());
+        return selected;
+    }
+
+    private double getEstimatedRowCount(CubeMetadata cubeMetadata, Session session)
+    {
+        Optional<TableHandle> cubeTableHandle = metadata.getTableHandle(session, QualifiedObjectName.valueOf(cubeMetadata.getCubeName()));
+        if (!cubeTableHandle.isPresent()) {
+            return Double.POSITIVE_INFINITY;
+        }
+        Estimate rowCount = metadata.getTableStatistics(session, cubeTableHandle.get(), Constraint.alwaysTrue(), false).getRowCount();
+        return rowCount.isUnknown() ? Double.POSITIVE_INFINITY : rowCount.getValue();
+    }
+
     private FilterNode rewriteByRemovingSourceFilter(PlanNode filterNode, CubeMetadata matchedCubeMetadata)
     {
         FilterNode rewritten = (FilterNode) filterNode;
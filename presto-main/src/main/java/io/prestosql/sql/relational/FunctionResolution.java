@@ -101,6 +101,16 @@ public final class FunctionResolution
         return functionAndTypeManager.lookupFunction("LIKE_PATTERN", fromTypes(VARCHAR, VARCHAR));
     }
 
+    public boolean isLikePatternFunction(FunctionHandle functionHandle)
+    {
+        return functionAndTypeManager.getFunctionMetadata(functionHandle).getName().equals(QualifiedObjectName.valueOf(DEFAULT_NAMESPACE, "LIKE_PATTERN"));
+    }
+
+    public boolean isRegexpLikeFunction(FunctionHandle functionHandle)
+    {
+        return functionAndTypeManager.getFunctionMetadata(functionHandle).getName().equals(QualifiedObjectName.valueOf(DEFAULT_NAMESPACE, "regexp_like"));
+    }
+
     @Override
     public boolean isCastFunction(FunctionHandle functionHandle)
     {
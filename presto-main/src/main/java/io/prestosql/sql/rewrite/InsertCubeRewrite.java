@@ -18,9 +18,11 @@ package io.prestosql.sql.rewrite;
 import com.google.common.collect.Lists;
 import io.hetu.core.spi.cube.CubeFilter;
 import io.hetu.core.spi.cube.CubeMetadata;
+import io.hetu.core.spi.cube.CubeStatus;
 import io.hetu.core.spi.cube.aggregator.AggregationSignature;
 import io.hetu.core.spi.cube.io.CubeMetaStore;
 import io.prestosql.Session;
+import io.prestosql.cube.CubeDeltaDetector;
 import io.prestosql.cube.CubeManager;
 import io.prestosql.execution.warnings.WarningCollector;
 import io.prestosql.heuristicindex.HeuristicIndexerManager;
@@ -29,6 +31,7 @@ import io.prestosql.security.AccessControl;
 import io.prestosql.spi.PrestoException;
 import io.prestosql.spi.StandardErrorCode;
 import io.prestosql.spi.connector.QualifiedObjectName;
+import io.prestosql.spi.metadata.TableHandle;
 import io.prestosql.sql.ExpressionFormatter;
 import io.prestosql.sql.ExpressionUtils;
 import io.prestosql.sql.ParsingUtil;
@@ -36,6 +39,7 @@ import io.prestosql.sql.analyzer.QueryExplainer;
 import io.prestosql.sql.parser.ParsingOptions;
 import io.prestosql.sql.parser.SqlParser;
 import io.prestosql.sql.tree.AstVisitor;
+import io.prestosql.sql.tree.BooleanLiteral;
 import io.prestosql.sql.tree.Expression;
 import io.prestosql.sql.tree.FunctionCall;
 import io.prestosql.sql.tree.GroupBy;
@@ -61,6 +65,7 @@ import java.util.Set;
 import java.util.TreeSet;
 import java.util.stream.Collectors;
 
+import static io.prestosql.SystemSessionProperties.isCubeIncrementalInsertEnabled;
 import static io.prestosql.cube.CubeManager.STAR_TREE;
 import static io.prestosql.metadata.MetadataUtil.createQualifiedObjectName;
 import static java.util.Objects.requireNonNull;
@@ -80,19 +85,21 @@ public class InsertCubeRewrite
             WarningCollector warningCollector,
             HeuristicIndexerManager heuristicIndexerManager)
     {
-        return (Statement) new Visitor(session, cubeManager, parser).process(node, null);
+        return (Statement) new Visitor(session, metadata, cubeManager, parser).process(node, null);
     }
 
     private static class Visitor
             extends AstVisitor<Node, Void>
     {
         private final Session session;
+        private final Metadata metadata;
         private final CubeManager cubeManager;
         private final SqlParser sqlParser;
 
-        public Visitor(Session session, CubeManager cubeManager, SqlParser parser)
+        public Visitor(Session session, Metadata metadata, CubeManager cubeManager, SqlParser parser)
         {
             this.session = requireNonNull(session, "session is null");
+            this.metadata = requireNonNull(metadata, "metadata is null");
             this.cubeManager = requireNonNull(cubeManager, "cubeManager is null");
             this.sqlParser = parser;
         }
@@ -106,6 +113,11 @@ public class InsertCubeRewrite
             CubeMetadata cubeMetadata = cubeMetaStore.getMetadataFromCubeName(targetCube.toString()).orElseThrow(() -> new PrestoException(StandardErrorCode.CUBE_ERROR, String.format("Cube not found '%s'", targetCube)));
             Set<String> group = cubeMetadata.getGroup();
             if (!node.getWhere().isPresent()) {
+                Optional<Expression> newPartitionsPredicate = getNewPartitionsPredicate(cubeMetadata, node);
+                if (newPartitionsPredicate.isPresent()) {
+                    // validate the generated predicate the same way as a user provided one
+                    return visitInsertCube(withWhere(node, newPartitionsPredicate.get()), context);
+                }
                 return buildCubeInsert(cubeMetadata, node, group);
             }
             Set<String> queryWhereColumns = ExpressionUtils.getIdentifiers(node.getWhere().get())
@@ -136,6 +148,37 @@ public class InsertCubeRewrite
             return buildCubeInsert(cubeMetadata, node, group);
         }
 
+        private Optional<Expression> getNewPartitionsPredicate(CubeMetadata cubeMetadata, InsertCube node)
+        {
+            if (node.isOverwrite() || cubeMetadata.getCubeStatus() != CubeStatus.READY || !isCubeIncrementalInsertEnabled(session)) {
+                return Optional.empty();
+            }
+            QualifiedObjectName sourceTableName = QualifiedObjectName.valueOf(cubeMetadata.getSourceTableName());
+            Optional<TableHandle> sourceTableHandle = metadata.getTableHandle(session, sourceTableName);
+            if (!sourceTableHandle.isPresent()) {
+                // missing source table is reported during analysis
+                return Optional.empty();
+            }
+            CubeDeltaDetector cubeDeltaDetector = new CubeDeltaDetector(metadata, sqlParser);
+            Optional<Expression> newPartitionsPredicate = cubeDeltaDetector.getNewPartitionsPredicate(session, cubeMetadata, sourceTableHandle.get());
+            if (!newPartitionsPredicate.isPresent() && cubeDeltaDetector.isCoveredDataModified(session, cubeMetadata, sourceTableHandle.get())) {
+                throw new PrestoException(StandardErrorCode.CUBE_ERROR, String.format("Partitions of source table '%s' that cube '%s' already contains were modified since the cube was last updated, or their data version is unknown. Use INSERT OVERWRITE CUBE to rebuild the cube",
+                        sourceTableName, cubeMetadata.getCubeName()));
+            }
+            if (newPartitionsPredicate.isPresent() && BooleanLiteral.FALSE_LITERAL.equals(newPartitionsPredicate.get())) {
+                throw new PrestoException(StandardErrorCode.CUBE_ERROR, String.format("Cube '%s' already contains all partitions of source table '%s'", cubeMetadata.getCubeName(), sourceTableName));
+            }
+            return newPartitionsPredicate;
+        }
+
+        private static InsertCube withWhere(InsertCube node, Expression where)
+        {
+            if (node.getLocation().isPresent()) {
+                return new InsertCube(node.getLocation().get(), node.getCubeName(), Optional.of(where), node.isOverwrite());
+            }
+            return new InsertCube(node.getCubeName(), Optional.of(where), node.isOverwrite());
+        }
+
         private InsertCube buildCubeInsert(CubeMetadata cubeMetadata, InsertCube node, Set<String> cubeGroup)
         {
             QualifiedObjectName sourceTableName = QualifiedObjectName.valueOf(cubeMetadata.getSourceTableName());
@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2018-2021. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.statestore;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.airlift.json.ObjectMapperProvider;
+import io.prestosql.protocol.SmileObjectMapperProvider;
+
+import java.io.IOException;
+
+/**
+ * Serializes SharedQueryState values kept in the state store.
+ * Running query states can be replicated as compact Smile records, finished query states
+ * stay in json, and decoding accepts both so coordinators of different versions can coexist
+ *
+ * @since 2022-06-30
+ */
+final class SharedQueryStateCodec
+{
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapperProvider().get();
+    private static final ObjectMapper SMILE_MAPPER = new SmileObjectMapperProvider().get();
+
+    private SharedQueryStateCodec()
+    {
+    }
+
+    static String toJson(SharedQueryState state)
+            throws JsonProcessingException
+    {
+        return JSON_MAPPER.writeValueAsString(state);
+    }
+
+    static byte[] toBinary(SharedQueryState state)
+            throws JsonProcessingException
+    {
+        return SMILE_MAPPER.writeValueAsBytes(state);
+    }
+
+    /**
+     * Decode a state store value written either by {@link #toJson} or {@link #toBinary}
+     *
+     * @param value value read from the state store
+     * @return decoded query state
+     * @throws IOException exception when the value can not be deserialized
+     */
+    static SharedQueryState decode(Object value)
+            throws IOException
+    {
+        if (value instanceof byte[]) {
+            return SMILE_MAPPER.readerFor(SharedQueryState.class).readValue((byte[]) value);
+        }
+        if (value instanceof String) {
+            return JSON_MAPPER.readerFor(SharedQueryState.class).readValue((String) value);
+        }
+        throw new IOException("Unsupported query state value type: " + (value == null ? null : value.getClass().getName()));
+    }
+}
@@ -14,10 +14,7 @@
  */
 package io.prestosql.statestore;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableMap;
-import io.airlift.json.ObjectMapperProvider;
 import io.airlift.log.Logger;
 import io.airlift.units.Duration;
 import io.prestosql.execution.QueryState;
@@ -26,12 +23,14 @@ import io.prestosql.spi.ErrorType;
 import io.prestosql.spi.statestore.StateCollection;
 import io.prestosql.spi.statestore.StateMap;
 import io.prestosql.spi.statestore.StateStore;
+import io.prestosql.statestore.listener.QueryStateChangesListener;
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
 
 import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Optional;
@@ -67,16 +66,36 @@ public class StateFetcher
     private final Duration stateExpireTime;
     private final Set<String> stateCollections = new HashSet<>();
     private final ScheduledExecutorService stateUpdateExecutor;
+    private final boolean deltaReplicationEnabled;
+    // query states replicated through change events, guarded by this
+    private final Map<String, SharedQueryState> replicatedQueryStates = new HashMap<>();
+    private StateMap<String, Object> listenedQueryStates;
+    private QueryStateChangesListener queryStateChangesListener;
+    private long lastFullQueryStatesFetchTime;
     private ScheduledFuture<?> backgroundTask;
 
-    private static final ObjectMapper MAPPER = new ObjectMapperProvider().get();
     private static final int THREAD_POOL_SIZE = 2;
 
     public StateFetcher(StateStoreProvider stateStoreProvider, Duration fetchInterval, Duration stateExpireTime)
+    {
+        this(stateStoreProvider, fetchInterval, stateExpireTime, false);
+    }
+
+    /**
+     * Create a state fetcher
+     *
+     * @param stateStoreProvider state store provider
+     * @param fetchInterval interval between two state fetches
+     * @param stateExpireTime time after which a query state that is not updated is considered expired
+     * @param deltaReplicationEnabled fetch only the query states reported changed by state store events,
+     * falling back to a full fetch once every stateExpireTime
+     */
+    public StateFetcher(StateStoreProvider stateStoreProvider, Duration fetchInterval, Duration stateExpireTime, boolean deltaReplicationEnabled)
     {
         this.stateStoreProvider = stateStoreProvider;
         this.fetchInterval = fetchInterval;
         this.stateExpireTime = stateExpireTime;
+        this.deltaReplicationEnabled = deltaReplicationEnabled;
         this.stateUpdateExecutor = Executors.newScheduledThreadPool(THREAD_POOL_SIZE, threadsNamed("state-fetcher-%s"));
     }
 
@@ -105,6 +124,11 @@ public class StateFetcher
             if (backgroundTask != null) {
                 backgroundTask.cancel(true);
                 stateCollections.clear();
+                if (listenedQueryStates != null) {
+                    listenedQueryStates.removeEntryListener(queryStateChangesListener);
+                    listenedQueryStates = null;
+                }
+                replicatedQueryStates.clear();
             }
         }
     }
@@ -160,7 +184,11 @@ public class StateFetcher
                 }
 
                 if (stateCollection.getType() == StateCollection.Type.MAP) {
-                    Map<String, String> states = ((StateMap<String, String>) stateCollection).getAll();
+                    if (deltaReplicationEnabled && stateCollectionName.equals(QUERY_STATE_COLLECTION_NAME)) {
+                        StateCacheStore.get().setCachedStates(stateCollectionName, fetchQueryStateChanges((StateMap<String, Object>) stateCollection));
+                        continue;
+                    }
+                    Map<String, Object> states = ((StateMap<String, Object>) stateCollection).getAll();
                     StateCacheStore.get().setCachedStates(stateCollectionName, deserializeFetchedStates(states));
                 }
                 else {
@@ -195,8 +223,13 @@ public class StateFetcher
 
             StateCacheStore.get().setCachedStates(CPU_USAGE_STATE_COLLECTION_NAME, ((StateMap) cpuUsageCollection).getAll());
 
-            Map<String, String> states = ((StateMap<String, String>) queryStateCollection).getAll();
-            StateCacheStore.get().setCachedStates(QUERY_STATE_COLLECTION_NAME, deserializeFetchedStates(states));
+            if (deltaReplicationEnabled) {
+                StateCacheStore.get().setCachedStates(QUERY_STATE_COLLECTION_NAME, fetchQueryStateChanges((StateMap<String, Object>) queryStateCollection));
+            }
+            else {
+                Map<String, Object> states = ((StateMap<String, Object>) queryStateCollection).getAll();
+                StateCacheStore.get().setCachedStates(QUERY_STATE_COLLECTION_NAME, deserializeFetchedStates(states));
+            }
 
             long end = System.currentTimeMillis();
             LOG.debug("fetchStates ends at current time milliseconds: %s, at format HH:mm:ss:SSS:%s, total time use: %s",
@@ -206,13 +239,60 @@ public class StateFetcher
         }
     }
 
-    private Map<String, SharedQueryState> deserializeFetchedStates(Map<String, String> states)
-            throws JsonProcessingException
+    /**
+     * Fetch only the query states reported changed by state store events since the last fetch.
+     * All states are fetched again when the listener is first registered and once every stateExpireTime,
+     * so that events lost during a state store reconnection do not leave stale states behind
+     */
+    private Map<String, SharedQueryState> fetchQueryStateChanges(StateMap<String, Object> queryStates)
+            throws IOException
+    {
+        long now = System.currentTimeMillis();
+        if (listenedQueryStates != queryStates) {
+            if (listenedQueryStates != null) {
+                listenedQueryStates.removeEntryListener(queryStateChangesListener);
+            }
+            queryStateChangesListener = new QueryStateChangesListener();
+            queryStates.addEntryListener(queryStateChangesListener);
+            listenedQueryStates = queryStates;
+            lastFullQueryStatesFetchTime = 0;
+        }
+
+        if (now - lastFullQueryStatesFetchTime >= stateExpireTime.toMillis()) {
+            // discard pending events, the full fetch covers them
+            queryStateChangesListener.pollRemovedQueryIds();
+            queryStateChangesListener.pollChangedQueryIds();
+            replicatedQueryStates.clear();
+            replicatedQueryStates.putAll(deserializeFetchedStates(queryStates.getAll()));
+            lastFullQueryStatesFetchTime = now;
+            return ImmutableMap.copyOf(replicatedQueryStates);
+        }
+
+        for (String queryId : queryStateChangesListener.pollRemovedQueryIds()) {
+            replicatedQueryStates.remove(queryId);
+        }
+        Set<String> changedQueryIds = queryStateChangesListener.pollChangedQueryIds();
+        if (!changedQueryIds.isEmpty()) {
+            replicatedQueryStates.putAll(deserializeFetchedStates(queryStates.getAll(changedQueryIds)));
+        }
+
+        // unchanged states still need the expiry check, their owner coordinator may be gone
+        DateTime currentTime = new DateTime(DateTimeZone.UTC);
+        for (SharedQueryState state : ImmutableMap.copyOf(replicatedQueryStates).values()) {
+            if (!changedQueryIds.contains(state.getBasicQueryInfo().getQueryId().getId()) && isStateExpired(state, currentTime)) {
+                handleExpiredQueryState(state);
+            }
+        }
+        return ImmutableMap.copyOf(replicatedQueryStates);
+    }
+
+    private Map<String, SharedQueryState> deserializeFetchedStates(Map<String, Object> states)
+            throws IOException
     {
         DateTime currentTime = new DateTime(DateTimeZone.UTC);
         ImmutableMap.Builder<String, SharedQueryState> queryStatesBuilder = ImmutableMap.builder();
-        for (Map.Entry<String, String> entry : states.entrySet()) {
-            SharedQueryState state = MAPPER.readerFor(SharedQueryState.class).readValue(entry.getValue());
+        for (Map.Entry<String, Object> entry : states.entrySet()) {
+            SharedQueryState state = SharedQueryStateCodec.decode(entry.getValue());
             if (isStateExpired(state, currentTime)) {
                 handleExpiredQueryState(state);
             }
@@ -266,12 +346,12 @@ public class StateFetcher
                 stateCollection = stateStore.getStateCollection(QUERY_STATE_COLLECTION_NAME);
                 StateCollection finishStateCollection = stateStore.getStateCollection(FINISHED_QUERY_STATE_COLLECTION_NAME);
                 if (stateCollection != null && stateCollection.getType().equals(StateCollection.Type.MAP)) {
-                    String queryState = ((StateMap<String, String>) stateCollection).get(state.getBasicQueryInfo().getQueryId().getId());
+                    Object queryState = ((StateMap<String, Object>) stateCollection).get(state.getBasicQueryInfo().getQueryId().getId());
                     if (queryState != null) {
                         BasicQueryInfo oldQueryInfo = state.getBasicQueryInfo();
                         SharedQueryState newState = createExpiredState(oldQueryInfo, state);
 
-                        String stateJson = MAPPER.writeValueAsString(newState);
+                        String stateJson = SharedQueryStateCodec.toJson(newState);
                         ((StateMap) finishStateCollection).put(newState.getBasicQueryInfo().getQueryId().getId(), stateJson);
                         removeState(stateCollection, Optional.of(state.getBasicQueryInfo().getQueryId()), LOG);
                     }
@@ -15,16 +15,16 @@
 package io.prestosql.statestore;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Multimaps;
-import io.airlift.json.ObjectMapperProvider;
 import io.airlift.log.Logger;
 import io.airlift.units.Duration;
 import io.prestosql.dispatcher.DispatchQuery;
 import io.prestosql.execution.ManagedQueryExecution;
 import io.prestosql.execution.QueryState;
+import io.prestosql.server.BasicQueryStats;
+import io.prestosql.spi.ErrorCode;
 import io.prestosql.spi.statestore.StateCollection;
 import io.prestosql.spi.statestore.StateMap;
 import io.prestosql.spi.statestore.StateStore;
@@ -33,7 +33,10 @@ import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
@@ -61,15 +64,33 @@ public class StateUpdater
     private final Duration updateInterval;
     private final Multimap<String, DispatchQuery> registeredQueries = Multimaps.synchronizedMultimap(ArrayListMultimap.create());
     private final ScheduledExecutorService stateUpdateExecutor;
+    private final Duration stateExpireTime;
+    private final boolean deltaReplicationEnabled;
+    private final Map<String, PublishedState> publishedStates = new ConcurrentHashMap<>();
     private ScheduledFuture<?> backgroundTask;
 
-    private static final ObjectMapper MAPPER = new ObjectMapperProvider().get();
     private static final int THREAD_POOL_SIZE = 2;
 
     public StateUpdater(StateStoreProvider stateStoreProvider, Duration updateInterval)
+    {
+        this(stateStoreProvider, updateInterval, new Duration(Long.MAX_VALUE, TimeUnit.MILLISECONDS), false);
+    }
+
+    /**
+     * Create a state updater
+     *
+     * @param stateStoreProvider state store provider
+     * @param updateInterval interval between two state updates
+     * @param stateExpireTime time after which other coordinators treat a query state as expired
+     * @param deltaReplicationEnabled only publish running query states that changed since the last update,
+     * encoded as binary records unless the state collection is encrypted
+     */
+    public StateUpdater(StateStoreProvider stateStoreProvider, Duration updateInterval, Duration stateExpireTime, boolean deltaReplicationEnabled)
     {
         this.stateStoreProvider = stateStoreProvider;
         this.updateInterval = updateInterval;
+        this.stateExpireTime = stateExpireTime;
+        this.deltaReplicationEnabled = deltaReplicationEnabled;
         this.stateUpdateExecutor = Executors.newScheduledThreadPool(THREAD_POOL_SIZE, threadsNamed("state-updater-%s"));
     }
 
@@ -98,6 +119,7 @@ public class StateUpdater
             if (backgroundTask != null) {
                 backgroundTask.cancel(true);
                 registeredQueries.clear();
+                publishedStates.clear();
             }
         }
     }
@@ -132,6 +154,9 @@ public class StateUpdater
         synchronized (registeredQueries) {
             registeredQueries.remove(stateCollectionName, query);
         }
+        if (QUERY_STATE_COLLECTION_NAME.equals(stateCollectionName)) {
+            publishedStates.remove(query.getBasicQueryInfo().getQueryId().getId());
+        }
     }
 
     /**
@@ -157,20 +182,39 @@ public class StateUpdater
         StateCollection queries = stateStore.getStateCollection(QUERY_STATE_COLLECTION_NAME);
 
         List<DispatchQuery> queriesToUnregister = new LinkedList<>();
+        int skippedQueries = 0;
         synchronized (registeredQueries) {
             for (DispatchQuery query : registeredQueries.get(QUERY_STATE_COLLECTION_NAME)) {
                 SharedQueryState state = SharedQueryState.create(query);
-                String stateJson = MAPPER.writeValueAsString(state);
+                String queryId = state.getBasicQueryInfo().getQueryId().getId();
 
                 if (state.getBasicQueryInfo().getState() == QueryState.FINISHED || state.getBasicQueryInfo().getState() == QueryState.FAILED) {
                     // No need to update states for finished queries
                     // also move finished queries to finished-query state collection
                     queriesToUnregister.add(query);
-                    ((StateMap) finishedQueries).put(state.getBasicQueryInfo().getQueryId().getId(), stateJson);
+                    ((StateMap) finishedQueries).put(queryId, SharedQueryStateCodec.toJson(state));
                     continue;
                 }
 
-                ((StateMap) queries).put(state.getBasicQueryInfo().getQueryId().getId(), stateJson);
+                if (!deltaReplicationEnabled) {
+                    ((StateMap) queries).put(queryId, SharedQueryStateCodec.toJson(state));
+                    continue;
+                }
+
+                PublishedState current = new PublishedState(state, start);
+                PublishedState previous = publishedStates.get(queryId);
+                if (previous != null && !current.isChangedFrom(previous) && !isHeartbeatDue(previous, start)) {
+                    skippedQueries++;
+                    continue;
+                }
+                // encrypted collections serialize and encode values again, which the smile encoding gains nothing from
+                if (queries.isEncrypted()) {
+                    ((StateMap) queries).put(queryId, SharedQueryStateCodec.toJson(state));
+                }
+                else {
+                    ((StateMap) queries).put(queryId, SharedQueryStateCodec.toBinary(state));
+                }
+                publishedStates.put(queryId, current);
             }
         }
 
@@ -179,10 +223,20 @@ public class StateUpdater
         }
 
         long end = System.currentTimeMillis();
-        LOG.debug("updateStates ends at current time milliseconds: %s, at format HH:mm:ss:SSS:%s, total time use: %s",
+        LOG.debug("updateStates ends at current time milliseconds: %s, at format HH:mm:ss:SSS:%s, total time use: %s, unchanged queries skipped: %s",
                 end,
                 new SimpleDateFormat("HH:mm:ss:SSS").format(new Date(end)),
-                end - start);
+                end - start,
+                skippedQueries);
+    }
+
+    /**
+     * Unchanged states still have to be republished before other coordinators consider them expired,
+     * since expiry is judged from the state update time carried in the record
+     */
+    private boolean isHeartbeatDue(PublishedState previous, long now)
+    {
+        return now - previous.getPublishTime() >= stateExpireTime.toMillis() / 2;
     }
 
     private void queryFinished(ManagedQueryExecution query)
@@ -210,4 +264,66 @@ public class StateUpdater
         StateCollection stateCollection = stateStore.getStateCollection(stateCollectionName);
         removeState(stateCollection, Optional.of(query.getBasicQueryInfo().getQueryId()), LOG);
     }
+
+    /**
+     * The parts of a published query state that other coordinators act on or show, including the query progress
+     */
+    private static class PublishedState
+    {
+        private final QueryState queryState;
+        private final boolean scheduled;
+        private final Optional<ErrorCode> errorCode;
+        private final long userMemoryReservation;
+        private final long totalMemoryReservation;
+        private final long totalCpuTimeMillis;
+        private final int failedTasks;
+        private final int totalDrivers;
+        private final int queuedDrivers;
+        private final int runningDrivers;
+        private final int completedDrivers;
+        private final long rawInputPositions;
+        private final boolean fullyBlocked;
+        private final long publishTime;
+
+        PublishedState(SharedQueryState state, long publishTime)
+        {
+            BasicQueryStats queryStats = state.getBasicQueryInfo().getQueryStats();
+            this.queryState = state.getBasicQueryInfo().getState();
+            this.scheduled = state.getBasicQueryInfo().isScheduled();
+            this.errorCode = state.getErrorCode();
+            this.userMemoryReservation = state.getUserMemoryReservation().toBytes();
+            this.totalMemoryReservation = state.getTotalMemoryReservation().toBytes();
+            this.totalCpuTimeMillis = state.getTotalCpuTime().toMillis();
+            this.failedTasks = queryStats.getFailedTasks();
+            this.totalDrivers = queryStats.getTotalDrivers();
+            this.queuedDrivers = queryStats.getQueuedDrivers();
+            this.runningDrivers = queryStats.getRunningDrivers();
+            this.completedDrivers = queryStats.getCompletedDrivers();
+            this.rawInputPositions = queryStats.getRawInputPositions();
+            this.fullyBlocked = queryStats.isFullyBlocked();
+            this.publishTime = publishTime;
+        }
+
+        long getPublishTime()
+        {
+            return publishTime;
+        }
+
+        boolean isChangedFrom(PublishedState other)
+        {
+            return queryState != other.queryState
+                    || scheduled != other.scheduled
+                    || userMemoryReservation != other.userMemoryReservation
+                    || totalMemoryReservation != other.totalMemoryReservation
+                    || totalCpuTimeMillis != other.totalCpuTimeMillis
+                    || failedTasks != other.failedTasks
+                    || totalDrivers != other.totalDrivers
+                    || queuedDrivers != other.queuedDrivers
+                    || runningDrivers != other.runningDrivers
+                    || completedDrivers != other.completedDrivers
+                    || rawInputPositions != other.rawInputPositions
+                    || fullyBlocked != other.fullyBlocked
+                    || !Objects.equals(errorCode, other.errorCode);
+        }
+    }
 }
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2018-2022. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.statestore.listener;
+
+import com.google.common.collect.ImmutableSet;
+import io.prestosql.spi.statestore.listener.EntryAddedListener;
+import io.prestosql.spi.statestore.listener.EntryEvent;
+import io.prestosql.spi.statestore.listener.EntryRemovedListener;
+import io.prestosql.spi.statestore.listener.EntryUpdatedListener;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * QueryStateChangesListener records the ids of query states added, updated or removed
+ * in the state store so that only those states need to be fetched again.
+ * Event values are ignored since they may still be encrypted.
+ *
+ * @see EntryAddedListener
+ * @see EntryRemovedListener
+ * @see EntryUpdatedListener
+ */
+public class QueryStateChangesListener
+        implements EntryAddedListener<String, Object>, EntryRemovedListener<String, Object>, EntryUpdatedListener<String, Object>
+{
+    private final Set<String> changedQueryIds = ConcurrentHashMap.newKeySet();
+    private final Set<String> removedQueryIds = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public void entryAdded(EntryEvent<String, Object> event)
+    {
+        queryChanged(event.getKey());
+    }
+
+    @Override
+    public void entryUpdated(EntryEvent<String, Object> event)
+    {
+        queryChanged(event.getKey());
+    }
+
+    @Override
+    public void entryRemoved(EntryEvent<String, Object> event)
+    {
+        changedQueryIds.remove(event.getKey());
+        removedQueryIds.add(event.getKey());
+    }
+
+    private void queryChanged(String queryId)
+    {
+        removedQueryIds.remove(queryId);
+        changedQueryIds.add(queryId);
+    }
+
+    /**
+     * Get and reset the ids of queries added or updated since the last call
+     */
+    public Set<String> pollChangedQueryIds()
+    {
+        return drain(changedQueryIds);
+    }
+
+    /**
+     * Get and reset the ids of queries removed since the last call
+     */
+    public Set<String> pollRemovedQueryIds()
+    {
+        return drain(removedQueryIds);
+    }
+
+    private static Set<String> drain(Set<String> queryIds)
+    {
+        ImmutableSet.Builder<String> builder = ImmutableSet.builder();
+        Iterator<String> iterator = queryIds.iterator();
+        while (iterator.hasNext()) {
+            builder.add(iterator.next());
+            iterator.remove();
+        }
+        return builder.build();
+    }
+}
@@ -29,6 +29,7 @@ import io.prestosql.SystemSessionProperties;
 import io.prestosql.cache.CacheStorageMonitor;
 import io.prestosql.cache.CachedDataManager;
 import io.prestosql.cache.CachedDataStorageProvider;
+import io.prestosql.cache.SplitPageCache;
 import io.prestosql.connector.CatalogConnectorStore;
 import io.prestosql.connector.ConnectorManager;
 import io.prestosql.connector.system.AnalyzePropertiesSystemTable;
@@ -427,7 +428,8 @@ public class LocalQueryRunner
                 heuristicIndexerManager,
                 new RowExpressionDomainTranslator(metadata),
                 new RowExpressionDeterminismEvaluator(metadata),
-                new FilterStatsCalculator(metadata, scalarStatsCalculator, statsNormalizer));
+                new FilterStatsCalculator(metadata, scalarStatsCalculator, statsNormalizer),
+                null);
 
         GlobalSystemConnectorFactory globalSystemConnectorFactory = new GlobalSystemConnectorFactory(ImmutableSet.of(
                 new NodeSystemTable(nodeManager),
@@ -862,6 +864,7 @@ public class LocalQueryRunner
                 exchangeManagerRegistry,
                 tableExecuteContextManager,
                 cachedDataManager,
+                SplitPageCache.disabled(),
                 hetuConfig);
 
         // plan query
@@ -1009,7 +1012,7 @@ public class LocalQueryRunner
                 nodeScheduler);
         Analyzer analyzer = new Analyzer(session, metadata, sqlParser, accessControl, Optional.of(queryExplainer), preparedQuery.getParameters(), warningCollector, heuristicIndexerManager, cubeManager);
 
-        LogicalPlanner logicalPlanner = new LogicalPlanner(session, optimizers, new PlanSanityChecker(true), idAllocator, metadata, new TypeAnalyzer(sqlParser, metadata), statsCalculator, costCalculator, warningCollector, CachedDataStorageProvider.NULL_PROVIDER, null, null);
+        LogicalPlanner logicalPlanner = new LogicalPlanner(session, optimizers, new PlanSanityChecker(true), idAllocator, metadata, sqlParser, new TypeAnalyzer(sqlParser, metadata), statsCalculator, costCalculator, warningCollector, CachedDataStorageProvider.NULL_PROVIDER, null, null);
 
         Analysis analysis = analyzer.analyze(preparedQuery.getStatement());
         return logicalPlanner.plan(analysis, false, stage);
@@ -34,6 +34,7 @@ import java.util.Optional;
 import static io.airlift.joni.constants.MetaChar.INEFFECTIVE_META_CHAR;
 import static io.airlift.joni.constants.SyntaxProperties.OP_ASTERISK_ZERO_INF;
 import static io.airlift.joni.constants.SyntaxProperties.OP_DOT_ANYCHAR;
+import static io.airlift.joni.constants.SyntaxProperties.OP_ESC_AZ_BUF_ANCHOR;
 import static io.airlift.joni.constants.SyntaxProperties.OP_LINE_ANCHOR;
 import static io.airlift.slice.SliceUtf8.getCodePointAt;
 import static io.airlift.slice.SliceUtf8.lengthOfCodePoint;
@@ -45,7 +46,7 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 public final class LikeFunctions
 {
     private static final Syntax SYNTAX = new Syntax(
-            OP_DOT_ANYCHAR | OP_ASTERISK_ZERO_INF | OP_LINE_ANCHOR,
+            OP_DOT_ANYCHAR | OP_ASTERISK_ZERO_INF | OP_LINE_ANCHOR | OP_ESC_AZ_BUF_ANCHOR,
             0,
             0,
             Option.NONE,
@@ -232,7 +233,8 @@ public final class LikeFunctions
             }
         }
         checkEscape(!escaped);
-        regex.append('$');
+        // $ also matches before a newline, the value has to end where the pattern ends
+        regex.append("\\z");
 
         byte[] bytes = regex.toString().getBytes(UTF_8);
         return new Regex(bytes, 0, bytes.length, Option.MULTILINE, NonStrictUTF8Encoding.INSTANCE, SYNTAX);
@@ -29,6 +29,7 @@ import java.util.concurrent.TimeUnit;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static io.airlift.units.DataSize.Unit.GIGABYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 
 /**
  * HetuConfig contains Hetu configurations
@@ -53,6 +54,9 @@ public class HetuConfig
     private Duration stateFetchInterval = new Duration(100, TimeUnit.MILLISECONDS);
     private Duration querySubmitTimeout = new Duration(10, TimeUnit.SECONDS);
     private Duration stateExpireTime = new Duration(60, TimeUnit.SECONDS);
+    private boolean stateDeltaReplicationEnabled;
+    private boolean resourceGroupQuotaLeaseEnabled;
+    private Duration resourceGroupQuotaRebalanceInterval = new Duration(1, TimeUnit.SECONDS);
     private int dataCenterSplits = 5;
     private Duration dataCenterConsumerTimeout = new Duration(10, TimeUnit.MINUTES);
     private boolean executionPlanCacheEnabled;
@@ -60,6 +64,10 @@ public class HetuConfig
     private long executionPlanCacheTimeout = 86400000L;
     private boolean splitCacheMapEnabled = Boolean.FALSE;
     private Duration splitCacheStateUpdateInterval = new Duration(2, TimeUnit.SECONDS);
+    private boolean splitPageCacheEnabled;
+    private DataSize splitPageCacheMaxMemory = new DataSize(1, GIGABYTE);
+    private DataSize splitPageCacheMaxDiskSize = new DataSize(0, GIGABYTE);
+    private String splitPageCacheDiskPath = "/tmp/hetu/split-page-cache";
     private boolean isTraceStackVisible;
 
     private String extensionExecutionPlannerJarPath;
@@ -71,6 +79,12 @@ public class HetuConfig
     private String cachingSchemaName = "cache";
     private String cachingConnectorName = "hive";
     private String cachingUserName = "hive";
+    private boolean queryResultCacheEnabled;
+    private DataSize queryResultCacheMaxSize = new DataSize(1, GIGABYTE);
+    private DataSize queryResultCacheMaxEntrySize = new DataSize(8, MEGABYTE);
+    private Duration queryResultCacheTtl = new Duration(1, TimeUnit.HOURS);
+    private String queryResultCacheFileSystemProfile;
+    private String queryResultCacheDirectory = "/tmp/hetu/query-result-cache";
 
     public HetuConfig()
     {
@@ -348,6 +362,47 @@ public class HetuConfig
         return this;
     }
 
+    public boolean isStateDeltaReplicationEnabled()
+    {
+        return stateDeltaReplicationEnabled;
+    }
+
+    @Config("hetu.multiple-coordinator.state-delta-replication-enabled")
+    @ConfigDescription("Only replicate states of queries that changed, in binary form, and pick them up through state store listeners")
+    public HetuConfig setStateDeltaReplicationEnabled(boolean stateDeltaReplicationEnabled)
+    {
+        this.stateDeltaReplicationEnabled = stateDeltaReplicationEnabled;
+        return this;
+    }
+
+    public boolean isResourceGroupQuotaLeaseEnabled()
+    {
+        return resourceGroupQuotaLeaseEnabled;
+    }
+
+    @Config("hetu.multiple-coordinator.resource-group-quota-lease-enabled")
+    @ConfigDescription("Lease each coordinator a share of every resource group's concurrency and memory quota and admit queries locally without a cluster-wide lock")
+    public HetuConfig setResourceGroupQuotaLeaseEnabled(boolean resourceGroupQuotaLeaseEnabled)
+    {
+        this.resourceGroupQuotaLeaseEnabled = resourceGroupQuotaLeaseEnabled;
+        return this;
+    }
+
+    @NotNull
+    @MinDuration("10ms")
+    public Duration getResourceGroupQuotaRebalanceInterval()
+    {
+        return resourceGroupQuotaRebalanceInterval;
+    }
+
+    @Config("hetu.multiple-coordinator.resource-group-quota-rebalance-interval")
+    @ConfigDescription("Interval at which resource group quota leases are rebalanced among coordinators")
+    public HetuConfig setResourceGroupQuotaRebalanceInterval(Duration resourceGroupQuotaRebalanceInterval)
+    {
+        this.resourceGroupQuotaRebalanceInterval = resourceGroupQuotaRebalanceInterval;
+        return this;
+    }
+
     public int getDataCenterSplits()
     {
         return dataCenterSplits;
@@ -440,6 +495,61 @@ public class HetuConfig
         return this;
     }
 
+    public boolean isSplitPageCacheEnabled()
+    {
+        return splitPageCacheEnabled;
+    }
+
+    @Config("hetu.split-cache-map.page-cache.enabled")
+    @ConfigDescription("Keep the pages read from splits of cached tables on the worker, so later scans of the split skip the connector")
+    public HetuConfig setSplitPageCacheEnabled(boolean splitPageCacheEnabled)
+    {
+        this.splitPageCacheEnabled = splitPageCacheEnabled;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getSplitPageCacheMaxMemory()
+    {
+        return splitPageCacheMaxMemory;
+    }
+
+    @Config("hetu.split-cache-map.page-cache.max-memory")
+    @ConfigDescription("Off-heap memory used by the split page cache of each worker")
+    public HetuConfig setSplitPageCacheMaxMemory(DataSize splitPageCacheMaxMemory)
+    {
+        this.splitPageCacheMaxMemory = splitPageCacheMaxMemory;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getSplitPageCacheMaxDiskSize()
+    {
+        return splitPageCacheMaxDiskSize;
+    }
+
+    @Config("hetu.split-cache-map.page-cache.max-disk-size")
+    @ConfigDescription("Local disk used for split pages evicted from memory, 0 disables the disk tier")
+    public HetuConfig setSplitPageCacheMaxDiskSize(DataSize splitPageCacheMaxDiskSize)
+    {
+        this.splitPageCacheMaxDiskSize = splitPageCacheMaxDiskSize;
+        return this;
+    }
+
+    @NotNull
+    public String getSplitPageCacheDiskPath()
+    {
+        return splitPageCacheDiskPath;
+    }
+
+    @Config("hetu.split-cache-map.page-cache.disk-path")
+    @ConfigDescription("Local directory for split pages evicted from memory")
+    public HetuConfig setSplitPageCacheDiskPath(String splitPageCacheDiskPath)
+    {
+        this.splitPageCacheDiskPath = splitPageCacheDiskPath;
+        return this;
+    }
+
     public boolean isTraceStackVisible()
     {
         return this.isTraceStackVisible;
@@ -531,4 +641,86 @@ public class HetuConfig
         this.cachingUserName = user;
         return this;
     }
+
+    public boolean isQueryResultCacheEnabled()
+    {
+        return queryResultCacheEnabled;
+    }
+
+    @Config("hetu.query-result-cache.enabled")
+    @ConfigDescription("Enable caching of final query results on the coordinator")
+    public HetuConfig setQueryResultCacheEnabled(boolean queryResultCacheEnabled)
+    {
+        this.queryResultCacheEnabled = queryResultCacheEnabled;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getQueryResultCacheMaxSize()
+    {
+        return queryResultCacheMaxSize;
+    }
+
+    @Config("hetu.query-result-cache.max-size")
+    @ConfigDescription("Max total size of the results kept in the query result cache")
+    public HetuConfig setQueryResultCacheMaxSize(DataSize queryResultCacheMaxSize)
+    {
+        this.queryResultCacheMaxSize = queryResultCacheMaxSize;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getQueryResultCacheMaxEntrySize()
+    {
+        return queryResultCacheMaxEntrySize;
+    }
+
+    @Config("hetu.query-result-cache.max-entry-size")
+    @ConfigDescription("Results larger than this size are not cached")
+    public HetuConfig setQueryResultCacheMaxEntrySize(DataSize queryResultCacheMaxEntrySize)
+    {
+        this.queryResultCacheMaxEntrySize = queryResultCacheMaxEntrySize;
+        return this;
+    }
+
+    @NotNull
+    public Duration getQueryResultCacheTtl()
+    {
+        return queryResultCacheTtl;
+    }
+
+    @Config("hetu.query-result-cache.ttl")
+    @ConfigDescription("Time to expire cached query results after they were written")
+    public HetuConfig setQueryResultCacheTtl(Duration queryResultCacheTtl)
+    {
+        this.queryResultCacheTtl = queryResultCacheTtl;
+        return this;
+    }
+
+    public String getQueryResultCacheFileSystemProfile()
+    {
+        return queryResultCacheFileSystemProfile;
+    }
+
+    @Config("hetu.query-result-cache.filesystem.profile")
+    @ConfigDescription("Filesystem profile used to store cached query results, results are kept in memory when not set")
+    public HetuConfig setQueryResultCacheFileSystemProfile(String queryResultCacheFileSystemProfile)
+    {
+        this.queryResultCacheFileSystemProfile = queryResultCacheFileSystemProfile;
+        return this;
+    }
+
+    @NotNull
+    public String getQueryResultCacheDirectory()
+    {
+        return queryResultCacheDirectory;
+    }
+
+    @Config("hetu.query-result-cache.directory")
+    @ConfigDescription("Directory of the cached query results in the configured filesystem")
+    public HetuConfig setQueryResultCacheDirectory(String queryResultCacheDirectory)
+    {
+        this.queryResultCacheDirectory = queryResultCacheDirectory;
+        return this;
+    }
 }
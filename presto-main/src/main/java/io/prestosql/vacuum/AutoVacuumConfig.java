@@ -30,6 +30,7 @@ public class AutoVacuumConfig
     private boolean autoVacuumEnabled;
     private Duration vacuumScanInterval = new Duration(10, TimeUnit.MINUTES);
     private int vacuumScanThreads = 3;
+    private int maxConcurrentVacuums = 3;
 
     @Config("auto-vacuum.enabled")
     @ConfigDescription("Whether to enable auto vacuum.")
@@ -72,4 +73,18 @@ public class AutoVacuumConfig
     {
         return this.vacuumScanThreads;
     }
+
+    @Config("auto-vacuum.max-concurrent-vacuums")
+    @ConfigDescription("Maximum number of vacuums auto vacuum runs at the same time, default number is 3.")
+    public AutoVacuumConfig setMaxConcurrentVacuums(int maxConcurrentVacuums)
+    {
+        this.maxConcurrentVacuums = maxConcurrentVacuums;
+        return this;
+    }
+
+    @Min(1)
+    public int getMaxConcurrentVacuums()
+    {
+        return this.maxConcurrentVacuums;
+    }
 }
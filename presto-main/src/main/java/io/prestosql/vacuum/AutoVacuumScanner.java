@@ -50,6 +50,7 @@ import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.annotation.concurrent.ThreadSafe;
 
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -57,6 +58,7 @@ import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -88,6 +90,9 @@ public class AutoVacuumScanner
     private final BoundedExecutor responseExecutor;
     private final ScheduledExecutorService timeoutExecutor;
     private final Map<String, Long> vacuumInProgressMap;
+    private final int maxConcurrentVacuums;
+    // eligible tables waiting for a free vacuum slot, by catalog qualified table name
+    private final Map<String, PendingVacuum> pendingVacuums = new ConcurrentHashMap<>();
 
     @Inject
     public AutoVacuumScanner(AutoVacuumConfig autoVacuumConfig,
@@ -112,6 +117,7 @@ public class AutoVacuumScanner
         this.responseExecutor = requireNonNull(responseExecutor, "responseExecutor is null");
         this.timeoutExecutor = requireNonNull(timeoutExecutor, "timeoutExecutor is null");
         this.vacuumInProgressMap = new ConcurrentHashMap<>();
+        this.maxConcurrentVacuums = autoVacuumConfig.getMaxConcurrentVacuums();
     }
 
     @PostConstruct
@@ -150,12 +156,7 @@ public class AutoVacuumScanner
                 List<ConnectorVacuumTableInfo> tables = getVacuumTableList(catalog);
                 if (tables != null && 0 != tables.size()) {
                     for (ConnectorVacuumTableInfo vacuumTable : tables) {
-                        try {
-                            startVacuum(catalog, vacuumTable.getSchemaTableName(), vacuumTable.isFull());
-                        }
-                        catch (Exception e) {
-                            log.error("error in start Vacuum %s", e.getMessage());
-                        }
+                        addPendingVacuum(catalog, vacuumTable);
                     }
                 }
             }
@@ -163,6 +164,49 @@ public class AutoVacuumScanner
                 log.error("error in scan %s", e.getMessage());
             }
         }
+        startPendingVacuums();
+    }
+
+    private void addPendingVacuum(Catalog catalog, ConnectorVacuumTableInfo vacuumTable)
+    {
+        PendingVacuum vacuum = new PendingVacuum(catalog, vacuumTable.getSchemaTableName(), vacuumTable.isFull(), vacuumTable.getPriority());
+        // a table reported again takes the latest priority, and a full vacuum covers a minor one
+        pendingVacuums.merge(vacuum.getName(), vacuum, (previous, current) ->
+                new PendingVacuum(current.catalog, current.vacuumTable, previous.isFull || current.isFull, current.priority));
+    }
+
+    /**
+     * Starts the pending vacuums with the highest priority until the concurrency limit is reached,
+     * the others wait for a running vacuum to finish or for the next scan.
+     */
+    synchronized void startPendingVacuums()
+    {
+        while (vacuumInProgressMap.size() < maxConcurrentVacuums && !pendingVacuums.isEmpty()) {
+            PendingVacuum next = pendingVacuums.values().stream()
+                    .max(Comparator.comparingDouble(PendingVacuum::getPriority))
+                    .orElseThrow(NoSuchElementException::new);
+            pendingVacuums.remove(next.getName());
+            try {
+                startVacuum(next.catalog, next.vacuumTable, next.isFull);
+            }
+            catch (Exception e) {
+                log.error("error in start Vacuum %s", e.getMessage());
+            }
+        }
+    }
+
+    private void finishVacuum(String catalogNameVacuumTable)
+    {
+        if (vacuumInProgressMap.remove(catalogNameVacuumTable) == null) {
+            return;
+        }
+        // fill the freed slot without waiting for the next scan
+        try {
+            autoVacuumScanExecutor.execute(this::startPendingVacuums);
+        }
+        catch (RejectedExecutionException e) {
+            log.debug("Auto vacuum scanner is stopped, pending vacuums are not started");
+        }
     }
 
     private void startVacuum(Catalog catalog, String vacuumTable, boolean isFull)
@@ -207,12 +251,12 @@ public class AutoVacuumScanner
 
                         if (state.isDone()) {
                             log.debug("STATUS  %s QueryID %s Query %s", state.name(), queryId.toString(), vacuumQuery);
-                            vacuumInProgressMap.remove(catalogNameVacuumTable);
+                            finishVacuum(catalogNameVacuumTable);
                         }
                     });
                 }
                 catch (Throwable e) {
-                    vacuumInProgressMap.remove(catalogNameVacuumTable);
+                    finishVacuum(catalogNameVacuumTable);
                     log.error("Filed to execute vacuum for table %s QueryID %s", catalogNameVacuumTable, queryId.toString(), e.getMessage());
                 }
             }
@@ -220,7 +264,7 @@ public class AutoVacuumScanner
             @Override
             public void onFailure(Throwable t)
             {
-                vacuumInProgressMap.remove(catalogNameVacuumTable);
+                finishVacuum(catalogNameVacuumTable);
                 log.error("Query %s request to start vacuum scan failed at queryId[%s]: %s ", vacuumQuery, queryId, t.getMessage());
             }
         }, directExecutor());
@@ -279,4 +323,30 @@ public class AutoVacuumScanner
             throw new PrestoException(StandardErrorCode.GENERIC_INTERNAL_ERROR, format("Start vacuum scan failed: %s.", e.getMessage()));
         }
     }
+
+    private static class PendingVacuum
+    {
+        private final Catalog catalog;
+        private final String vacuumTable;
+        private final boolean isFull;
+        private final double priority;
+
+        private PendingVacuum(Catalog catalog, String vacuumTable, boolean isFull, double priority)
+        {
+            this.catalog = catalog;
+            this.vacuumTable = vacuumTable;
+            this.isFull = isFull;
+            this.priority = priority;
+        }
+
+        private String getName()
+        {
+            return catalog.getCatalogName() + "." + vacuumTable;
+        }
+
+        private double getPriority()
+        {
+            return priority;
+        }
+    }
 }
@@ -24,6 +24,7 @@ import org.testng.annotations.Test;
 
 import java.util.Map;
 
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
 
 public class TestAutoVacuumConfig
@@ -32,7 +33,7 @@ public class TestAutoVacuumConfig
     public void testDefaults()
     {
         ConfigAssertions.assertRecordedDefaults(ConfigAssertions.recordDefaults(AutoVacuumConfig.class).setAutoVacuumEnabled(false)
-                .setVacuumScanInterval(Duration.valueOf("10m")).setVacuumScanThreads(3));
+                .setVacuumScanInterval(Duration.valueOf("10m")).setVacuumScanThreads(3).setMaxConcurrentVacuums(3));
     }
 
     @Test
@@ -61,6 +62,13 @@ public class TestAutoVacuumConfig
         catch (Exception e) {
             assertTrue(e.getMessage().contains("Invalid configuration property auto-vacuum.scan.interval"));
         }
+
+        properties = new ImmutableMap.Builder<String, String>()
+                .put("auto-vacuum.enabled", "true")
+                .put("auto-vacuum.scan.interval", "15m")
+                .put("auto-vacuum.scan.threads", "1")
+                .put("auto-vacuum.max-concurrent-vacuums", "5").build();
+        assertEquals(newInstance(expected.getClass(), properties).getMaxConcurrentVacuums(), 5);
     }
 
     private static <T> T newInstance(Class<T> configClass, Map<String, String> properties)
@@ -0,0 +1,278 @@
+/*
+ * Copyright (C) 2018-2022. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.cache;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.DataSize;
+import io.hetu.core.filesystem.HetuLocalFileSystemClient;
+import io.hetu.core.filesystem.LocalConfig;
+import io.hetu.core.transport.execution.buffer.PagesSerde;
+import io.hetu.core.transport.execution.buffer.PagesSerdeFactory;
+import io.prestosql.Session;
+import io.prestosql.cost.StatsAndCosts;
+import io.prestosql.execution.warnings.WarningCollector;
+import io.prestosql.metadata.Metadata;
+import io.prestosql.plugin.tpch.TpchConnectorFactory;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.QueryId;
+import io.prestosql.spi.block.TestingBlockEncodingSerde;
+import io.prestosql.spi.filesystem.HetuFileSystemClient;
+import io.prestosql.spi.plan.PlanNodeId;
+import io.prestosql.spi.plan.PlanNodeIdAllocator;
+import io.prestosql.spi.plan.Symbol;
+import io.prestosql.spi.plan.ValuesNode;
+import io.prestosql.spi.relation.ConstantExpression;
+import io.prestosql.sql.planner.Plan;
+import io.prestosql.sql.planner.TypeProvider;
+import io.prestosql.sql.planner.plan.OutputNode;
+import io.prestosql.testing.LocalQueryRunner;
+import io.prestosql.utils.HetuConfig;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.prestosql.SequencePageBuilder.createSequencePage;
+import static io.prestosql.block.BlockAssertions.createStringsBlock;
+import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
+import static io.prestosql.operator.PageAssertions.assertPageEquals;
+import static io.prestosql.plugin.tpch.TpchMetadata.TINY_SCHEMA_NAME;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.testing.TestingSession.testSessionBuilder;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestQueryResultCache
+{
+    private static final QueryId QUERY_ID = new QueryId("query");
+    private static final String KEY = "key";
+
+    private final TestingBlockEncodingSerde blockEncodingSerde = new TestingBlockEncodingSerde();
+    private final PagesSerde exchangeSerde = new PagesSerdeFactory(blockEncodingSerde, false).createPagesSerde();
+    private Path directory;
+
+    @BeforeMethod
+    public void setUp()
+            throws IOException
+    {
+        directory = Files.createTempDirectory("query-result-cache");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        deleteRecursively(directory, ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testStoresResultOnceDrainedAndFinished()
+    {
+        QueryResultCache cache = createCache(new HetuConfig().setQueryResultCacheEnabled(true), Optional.empty());
+        Page page = createSequencePage(ImmutableList.of(BIGINT), 100);
+
+        cache.registerPending(QUERY_ID, KEY);
+        cache.addPage(QUERY_ID, exchangeSerde.serialize(page), exchangeSerde);
+        cache.outputFinished(QUERY_ID);
+        assertFalse(cache.getResult(KEY).isPresent());
+
+        cache.queryFinished(QUERY_ID, true);
+        assertResult(cache, page);
+        assertEquals(cache.getStoredResults(), 1);
+        assertEquals(cache.getPendingResults(), 0);
+    }
+
+    @Test
+    public void testDiscardsFailedQuery()
+    {
+        QueryResultCache cache = createCache(new HetuConfig().setQueryResultCacheEnabled(true), Optional.empty());
+
+        cache.registerPending(QUERY_ID, KEY);
+        cache.addPage(QUERY_ID, exchangeSerde.serialize(createSequencePage(ImmutableList.of(BIGINT), 100)), exchangeSerde);
+        cache.queryFinished(QUERY_ID, false);
+        cache.outputFinished(QUERY_ID);
+
+        assertFalse(cache.getResult(KEY).isPresent());
+        assertEquals(cache.getPendingResults(), 0);
+    }
+
+    @Test
+    public void testRejectsOversizedResult()
+    {
+        HetuConfig config = new HetuConfig()
+                .setQueryResultCacheEnabled(true)
+                .setQueryResultCacheMaxEntrySize(new DataSize(100, BYTE));
+        QueryResultCache cache = createCache(config, Optional.empty());
+
+        cache.registerPending(QUERY_ID, KEY);
+        cache.addPage(QUERY_ID, exchangeSerde.serialize(createSequencePage(ImmutableList.of(BIGINT), 1000)), exchangeSerde);
+        cache.outputFinished(QUERY_ID);
+        cache.queryFinished(QUERY_ID, true);
+
+        assertFalse(cache.getResult(KEY).isPresent());
+        assertEquals(cache.getRejectedResults(), 1);
+    }
+
+    @Test
+    public void testFileSystemStore()
+    {
+        HetuFileSystemClient client = new HetuLocalFileSystemClient(new LocalConfig(new Properties()), directory);
+        HetuConfig config = new HetuConfig()
+                .setQueryResultCacheEnabled(true)
+                .setQueryResultCacheDirectory(directory.toString());
+        QueryResultCache cache = createCache(config, Optional.of(() -> client));
+        Page page = createSequencePage(ImmutableList.of(BIGINT), 100);
+
+        cache.registerPending(QUERY_ID, KEY);
+        cache.addPage(QUERY_ID, exchangeSerde.serialize(page), exchangeSerde);
+        cache.outputFinished(QUERY_ID);
+        cache.queryFinished(QUERY_ID, true);
+
+        assertTrue(Files.exists(directory.resolve(KEY + ".pages")));
+        assertResult(cache, page);
+    }
+
+    @Test
+    public void testCachedPlanProducesCachedRows()
+    {
+        QueryResultCache cache = createCache(new HetuConfig().setQueryResultCacheEnabled(true), Optional.empty());
+        Page page = createSequencePage(ImmutableList.of(BIGINT), 3, 10);
+        cache.registerPending(QUERY_ID, KEY);
+        cache.addPage(QUERY_ID, exchangeSerde.serialize(page), exchangeSerde);
+        cache.outputFinished(QUERY_ID);
+        cache.queryFinished(QUERY_ID, true);
+
+        Symbol symbol = new Symbol("a");
+        OutputNode output = new OutputNode(
+                new PlanNodeId("output"),
+                new ValuesNode(new PlanNodeId("values"), ImmutableList.of(symbol), ImmutableList.of()),
+                ImmutableList.of("a"),
+                ImmutableList.of(symbol));
+        Plan plan = new Plan(output, TypeProvider.copyOf(ImmutableMap.of(symbol, BIGINT)), StatsAndCosts.empty());
+
+        // values do not scan any table, so there is no version to key the results on
+        assertFalse(cache.getCacheKey(testSessionBuilder().build(), plan).isPresent());
+
+        Optional<Plan> cachedPlan = cache.getCachedPlan(KEY, plan, new PlanNodeIdAllocator());
+        assertTrue(cachedPlan.isPresent());
+        OutputNode root = (OutputNode) cachedPlan.get().getRoot();
+        assertEquals(root.getOutputSymbols(), ImmutableList.of(symbol));
+        ValuesNode values = (ValuesNode) root.getSource();
+        assertEquals(values.getRows(), ImmutableList.of(
+                ImmutableList.of(new ConstantExpression(10L, BIGINT)),
+                ImmutableList.of(new ConstantExpression(11L, BIGINT)),
+                ImmutableList.of(new ConstantExpression(12L, BIGINT))));
+        assertEquals(cache.getHits(), 1);
+        assertFalse(cache.getCachedPlan("missing", plan, new PlanNodeIdAllocator()).isPresent());
+        assertEquals(cache.getMisses(), 1);
+    }
+
+    @Test
+    public void testCacheKeyFollowsTableDataVersion()
+    {
+        Session session = testSessionBuilder()
+                .setCatalog("tpch")
+                .setSchema(TINY_SCHEMA_NAME)
+                .build();
+        try (LocalQueryRunner queryRunner = new LocalQueryRunner(session)) {
+            queryRunner.createCatalog("tpch", new TpchConnectorFactory(1), ImmutableMap.of());
+            AtomicReference<Optional<String>> version = new AtomicReference<>(Optional.of("1"));
+            Metadata metadata = mock(Metadata.class, delegatesTo(queryRunner.getMetadata()));
+            doAnswer(invocation -> version.get()).when(metadata).getTableDataVersion(any(), any());
+            QueryResultCache cache = new QueryResultCache(new HetuConfig().setQueryResultCacheEnabled(true), metadata, blockEncodingSerde, Optional.empty());
+
+            String query = "SELECT name FROM nation WHERE regionkey = 1";
+            Optional<String> key = getCacheKey(queryRunner, cache, query);
+            assertTrue(key.isPresent());
+            assertEquals(getCacheKey(queryRunner, cache, query), key);
+            assertNotEquals(getCacheKey(queryRunner, cache, "SELECT name FROM nation WHERE regionkey = 2"), key);
+
+            // the results of the query are found under its key
+            Plan plan = queryRunner.inTransaction(transactionSession -> queryRunner.createPlan(transactionSession, query, WarningCollector.NOOP));
+            Page page = new Page(createStringsBlock("ARGENTINA", "BRAZIL"));
+            cache.registerPending(QUERY_ID, key.get());
+            cache.addPage(QUERY_ID, exchangeSerde.serialize(page), exchangeSerde);
+            cache.outputFinished(QUERY_ID);
+            cache.queryFinished(QUERY_ID, true);
+            Optional<Plan> cachedPlan = cache.getCachedPlan(key.get(), plan, new PlanNodeIdAllocator());
+            assertTrue(cachedPlan.isPresent());
+            assertEquals(((ValuesNode) ((OutputNode) cachedPlan.get().getRoot()).getSource()).getRows().size(), 2);
+            assertEquals(cache.getHits(), 1);
+
+            // a write to the table changes its data version, so the stored results are not found anymore
+            version.set(Optional.of("2"));
+            Optional<String> newKey = getCacheKey(queryRunner, cache, query);
+            assertTrue(newKey.isPresent());
+            assertNotEquals(newKey, key);
+            assertFalse(cache.getCachedPlan(newKey.get(), plan, new PlanNodeIdAllocator()).isPresent());
+            assertEquals(cache.getMisses(), 1);
+
+            // tables with unknown freshness are not cached
+            version.set(Optional.empty());
+            long uncacheable = cache.getUncacheableQueries();
+            assertFalse(getCacheKey(queryRunner, cache, query).isPresent());
+            assertEquals(cache.getUncacheableQueries(), uncacheable + 1);
+        }
+    }
+
+    private static Optional<String> getCacheKey(LocalQueryRunner queryRunner, QueryResultCache cache, String query)
+    {
+        return queryRunner.inTransaction(transactionSession -> cache.getCacheKey(transactionSession, queryRunner.createPlan(transactionSession, query, WarningCollector.NOOP)));
+    }
+
+    @Test
+    public void testDisabled()
+    {
+        QueryResultCache cache = QueryResultCache.disabled();
+        cache.registerPending(QUERY_ID, KEY);
+        cache.addPage(QUERY_ID, exchangeSerde.serialize(createSequencePage(ImmutableList.of(BIGINT), 10)), exchangeSerde);
+        cache.outputFinished(QUERY_ID);
+        cache.queryFinished(QUERY_ID, true);
+        assertEquals(cache.getPendingResults(), 0);
+        assertEquals(cache.getCachedResults(), 0);
+    }
+
+    private QueryResultCache createCache(HetuConfig config, Optional<Supplier<HetuFileSystemClient>> fileSystemClient)
+    {
+        return new QueryResultCache(config, createTestMetadataManager(), blockEncodingSerde, fileSystemClient);
+    }
+
+    private static void assertResult(QueryResultCache cache, Page expected)
+    {
+        Optional<List<Page>> result = cache.getResult(KEY);
+        assertTrue(result.isPresent());
+        assertEquals(result.get().size(), 1);
+        assertPageEquals(ImmutableList.of(BIGINT), result.get().get(0), expected);
+    }
+}
@@ -0,0 +1,398 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.cache;
+
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.DataSize;
+import io.prestosql.execution.Lifespan;
+import io.prestosql.metadata.Split;
+import io.prestosql.operator.DriverContext;
+import io.prestosql.operator.SourceOperator;
+import io.prestosql.operator.TableScanOperator.TableScanOperatorFactory;
+import io.prestosql.spi.HostAddress;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.TestingBlockEncodingSerde;
+import io.prestosql.spi.connector.CatalogName;
+import io.prestosql.spi.connector.ColumnHandle;
+import io.prestosql.spi.connector.ConnectorSplit;
+import io.prestosql.spi.connector.FixedPageSource;
+import io.prestosql.spi.connector.SchemaTableName;
+import io.prestosql.spi.metadata.TableHandle;
+import io.prestosql.spi.plan.PlanNodeId;
+import io.prestosql.spi.plan.ValuesNode;
+import io.prestosql.split.PageSourceProvider;
+import io.prestosql.testing.TestingMetadata.TestingColumnHandle;
+import io.prestosql.testing.TestingMetadata.TestingTableHandle;
+import io.prestosql.testing.TestingTransactionHandle;
+import io.prestosql.utils.HetuConfig;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static io.prestosql.SequencePageBuilder.createSequencePage;
+import static io.prestosql.SessionTestUtils.TEST_SESSION;
+import static io.prestosql.operator.PageAssertions.assertPageEquals;
+import static io.prestosql.spi.operator.ReuseExchangeOperator.STRATEGY.REUSE_STRATEGY_DEFAULT;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.testing.TestingTaskContext.createTaskContext;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestSplitPageCache
+{
+    private static final TestingTableHandle HOT_TABLE = new TestingTableHandle(new SchemaTableName("schema", "hot"));
+    private static final TestingTableHandle COLD_TABLE = new TestingTableHandle(new SchemaTableName("schema", "cold"));
+    private static final Page PAGE = createSequencePage(ImmutableList.of(BIGINT), 1000);
+    private static final CatalogName CATALOG = new CatalogName("catalog");
+    private static final ColumnHandle COLUMN = new TestingColumnHandle("column");
+
+    private Path directory;
+    private ExecutorService executor;
+    private ScheduledExecutorService scheduledExecutor;
+
+    @BeforeClass
+    public void setUpExecutors()
+    {
+        executor = newCachedThreadPool(daemonThreadsNamed("test-executor-%s"));
+        scheduledExecutor = newScheduledThreadPool(2, daemonThreadsNamed("test-scheduledExecutor-%s"));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDownExecutors()
+    {
+        executor.shutdownNow();
+        scheduledExecutor.shutdownNow();
+    }
+
+    @BeforeMethod
+    public void setUp()
+            throws IOException
+    {
+        directory = Files.createTempDirectory("split-page-cache");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        deleteRecursively(directory, ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testServesRecordedSplit()
+    {
+        SplitPageCache cache = createCache(new DataSize(1, MEGABYTE), new DataSize(0, BYTE));
+        SplitPageCache.Key key = createKey(HOT_TABLE, 0);
+
+        assertFalse(cache.getPages(key).isPresent());
+        SplitPageCache.Recorder recorder = cache.newRecorder(key);
+        recorder.addPage(PAGE);
+        recorder.addPage(PAGE);
+        recorder.finish();
+
+        assertPages(cache, key, 2);
+        assertEquals(cache.getHits(), 1);
+        assertEquals(cache.getMisses(), 1);
+        assertEquals(cache.getStoredSplits(), 1);
+        assertFalse(cache.getPages(createKey(HOT_TABLE, 1)).isPresent());
+    }
+
+    @Test
+    public void testSplitNotReadToTheEnd()
+    {
+        SplitPageCache cache = createCache(new DataSize(1, MEGABYTE), new DataSize(0, BYTE));
+        SplitPageCache.Key key = createKey(HOT_TABLE, 0);
+
+        SplitPageCache.Recorder recorder = cache.newRecorder(key);
+        recorder.addPage(PAGE);
+
+        assertFalse(cache.getPages(key).isPresent());
+        assertEquals(cache.getMemoryBytes(), 0);
+    }
+
+    @Test
+    public void testEvictsLeastReadTableFirst()
+    {
+        SplitPageCache cache = createCache(new DataSize(3 * getEntrySize() - 1, BYTE), new DataSize(0, BYTE));
+        SplitPageCache.Key hot = createKey(HOT_TABLE, 0);
+        SplitPageCache.Key cold = createKey(COLD_TABLE, 0);
+        SplitPageCache.Key newerCold = createKey(COLD_TABLE, 1);
+
+        put(cache, hot);
+        assertPages(cache, hot, 1);
+        put(cache, cold);
+        put(cache, newerCold);
+        assertEquals(cache.getMemoryKeys().size(), 2);
+
+        // the hot table was read before, so the least recently used split of the cold table goes
+        assertTrue(cache.getMemoryKeys().contains(hot));
+        assertTrue(cache.getMemoryKeys().contains(newerCold));
+        assertEquals(cache.getEvictedSplits(), 1);
+
+        // a table that was never read cannot push out the hot table
+        SplitPageCache cache2 = createCache(new DataSize(getEntrySize(), BYTE), new DataSize(0, BYTE));
+        put(cache2, hot);
+        assertPages(cache2, hot, 1);
+        put(cache2, cold);
+        assertEquals(cache2.getMemoryKeys(), ImmutableList.of(hot));
+    }
+
+    @Test
+    public void testSpillsToDisk()
+    {
+        long entrySize = getEntrySize();
+        SplitPageCache cache = createCache(new DataSize(entrySize, BYTE), new DataSize(entrySize, BYTE));
+        SplitPageCache.Key first = createKey(HOT_TABLE, 0);
+        SplitPageCache.Key second = createKey(HOT_TABLE, 1);
+        SplitPageCache.Key third = createKey(HOT_TABLE, 2);
+
+        put(cache, first);
+        put(cache, second);
+        assertEquals(cache.getMemoryKeys(), ImmutableList.of(second));
+        assertEquals(cache.getDiskKeys(), ImmutableList.of(first));
+        assertEquals(cache.getDiskBytes(), entrySize);
+        assertPages(cache, first, 1);
+
+        put(cache, third);
+        assertEquals(cache.getMemoryKeys(), ImmutableList.of(third));
+        assertEquals(cache.getDiskKeys(), ImmutableList.of(second));
+        assertFalse(cache.getPages(first).isPresent());
+        assertEquals(cache.getSpilledSplits(), 2);
+        assertEquals(cache.getEvictedSplits(), 1);
+    }
+
+    @Test
+    public void testTableScanServesCachedSplit()
+    {
+        SplitPageCache cache = createCache(new DataSize(1, MEGABYTE), new DataSize(0, BYTE));
+        TableHandle table = new TableHandle(CATALOG, HOT_TABLE, TestingTransactionHandle.create(), Optional.empty());
+        Split split = new Split(CATALOG, new PageCacheableSplit(), Lifespan.taskWide());
+        AtomicInteger createdPageSources = new AtomicInteger();
+        PageSourceProvider pageSourceProvider = (session, ignoredSplit, ignoredTable, columns, dynamicFilter) -> {
+            createdPageSources.incrementAndGet();
+            return new FixedPageSource(ImmutableList.of(PAGE, PAGE));
+        };
+
+        // the first scan reads the page source and records the pages
+        assertEquals(scan(cache, pageSourceProvider, table, split).size(), 2);
+        assertEquals(createdPageSources.get(), 1);
+        assertEquals(cache.getStoredSplits(), 1);
+
+        // the second scan is served from the cache
+        List<Page> pages = scan(cache, pageSourceProvider, table, split);
+        assertEquals(createdPageSources.get(), 1);
+        assertEquals(cache.getHits(), 1);
+        assertEquals(pages.size(), 2);
+        for (Page page : pages) {
+            assertPageEquals(ImmutableList.of(BIGINT), page, PAGE);
+        }
+    }
+
+    @Test
+    public void testMaxDirectMemory()
+    {
+        HetuConfig config = new HetuConfig()
+                .setSplitCacheMapEnabled(true)
+                .setSplitPageCacheEnabled(true)
+                .setSplitPageCacheMaxMemory(new DataSize(1, MEGABYTE))
+                .setSplitPageCacheDiskPath(directory.toString());
+        assertThatThrownBy(() -> new SplitPageCache(config, new TestingBlockEncodingSerde(), new DataSize(1, MEGABYTE).toBytes()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("must be less than the max direct memory of the JVM");
+        new SplitPageCache(config, new TestingBlockEncodingSerde(), new DataSize(2, MEGABYTE).toBytes());
+    }
+
+    @Test
+    public void testSplitLargerThanMemory()
+    {
+        // splits which do not fit in memory are not recorded, even when they would fit on disk
+        SplitPageCache cache = createCache(new DataSize(getEntrySize() - 1, BYTE), new DataSize(1, MEGABYTE));
+        SplitPageCache.Key key = createKey(HOT_TABLE, 0);
+        put(cache, key);
+        assertFalse(cache.getPages(key).isPresent());
+        assertEquals(cache.getStoredSplits(), 0);
+        assertEquals(cache.getDiskBytes(), 0);
+    }
+
+    @Test
+    public void testDisabled()
+    {
+        SplitPageCache cache = SplitPageCache.disabled();
+        assertEquals(cache.getMemoryBytes(), 0);
+        assertFalse(cache.createKey(null, null, ImmutableList.of()).isPresent());
+    }
+
+    private long getEntrySize()
+    {
+        SplitPageCache cache = createCache(new DataSize(1, MEGABYTE), new DataSize(0, BYTE));
+        put(cache, createKey(HOT_TABLE, 0));
+        return cache.getMemoryBytes();
+    }
+
+    private SplitPageCache createCache(DataSize maxMemory, DataSize maxDiskSize)
+    {
+        HetuConfig config = new HetuConfig()
+                .setSplitCacheMapEnabled(true)
+                .setSplitPageCacheEnabled(true)
+                .setSplitPageCacheMaxMemory(maxMemory)
+                .setSplitPageCacheMaxDiskSize(maxDiskSize)
+                .setSplitPageCacheDiskPath(directory.toString());
+        return new SplitPageCache(config, new TestingBlockEncodingSerde());
+    }
+
+    private List<Page> scan(SplitPageCache cache, PageSourceProvider pageSourceProvider, TableHandle table, Split split)
+    {
+        DriverContext driverContext = createTaskContext(executor, scheduledExecutor, TEST_SESSION)
+                .addPipelineContext(0, true, true, false)
+                .addDriverContext();
+        TableScanOperatorFactory factory = new TableScanOperatorFactory(
+                TEST_SESSION,
+                0,
+                new ValuesNode(new PlanNodeId("0"), ImmutableList.of(), ImmutableList.of()),
+                pageSourceProvider,
+                table,
+                ImmutableList.of(COLUMN),
+                ImmutableList.of(BIGINT),
+                null,
+                null,
+                null,
+                new DataSize(0, BYTE),
+                0,
+                REUSE_STRATEGY_DEFAULT,
+                new UUID(0, 0),
+                false,
+                Optional.empty(),
+                0,
+                0,
+                cache);
+        SourceOperator operator = factory.createOperator(driverContext);
+        operator.addSplit(split);
+        operator.noMoreSplits();
+
+        ImmutableList.Builder<Page> pages = ImmutableList.builder();
+        while (!operator.isFinished()) {
+            Page page = operator.getOutput();
+            if (page != null) {
+                pages.add(page);
+            }
+        }
+        operator.close();
+        return pages.build();
+    }
+
+    private static SplitPageCache.Key createKey(TestingTableHandle table, long start)
+    {
+        return new SplitPageCache.Key(
+                "catalog." + table.getTableName(),
+                "/warehouse/file.orc",
+                start,
+                start + 1,
+                0,
+                table,
+                ImmutableList.of(COLUMN));
+    }
+
+    private static void put(SplitPageCache cache, SplitPageCache.Key key)
+    {
+        SplitPageCache.Recorder recorder = cache.newRecorder(key);
+        recorder.addPage(PAGE);
+        recorder.finish();
+    }
+
+    private static void assertPages(SplitPageCache cache, SplitPageCache.Key key, int pageCount)
+    {
+        Optional<Iterator<Page>> pages = cache.getPages(key);
+        assertTrue(pages.isPresent());
+        List<Page> actual = ImmutableList.copyOf(pages.get());
+        assertEquals(actual.size(), pageCount);
+        for (Page page : actual) {
+            assertPageEquals(ImmutableList.of(BIGINT), page, PAGE);
+        }
+    }
+
+    private static class PageCacheableSplit
+            implements ConnectorSplit
+    {
+        @Override
+        public boolean isRemotelyAccessible()
+        {
+            return true;
+        }
+
+        @Override
+        public List<HostAddress> getAddresses()
+        {
+            return ImmutableList.of();
+        }
+
+        @Override
+        public Object getInfo()
+        {
+            return null;
+        }
+
+        @Override
+        public boolean isPageCacheable()
+        {
+            return true;
+        }
+
+        @Override
+        public String getFilePath()
+        {
+            return "/warehouse/file.orc";
+        }
+
+        @Override
+        public long getStartIndex()
+        {
+            return 0;
+        }
+
+        @Override
+        public long getEndIndex()
+        {
+            return 1;
+        }
+
+        @Override
+        public long getLastModifiedTime()
+        {
+            return 0;
+        }
+    }
+}
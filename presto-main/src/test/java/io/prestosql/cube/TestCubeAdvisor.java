@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2018-2022. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.cube;
+
+import com.google.common.collect.ImmutableList;
+import io.prestosql.spi.queryhistory.QueryHistoryEntity;
+import io.prestosql.sql.parser.SqlParser;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+
+public class TestCubeAdvisor
+{
+    private final CubeAdvisor cubeAdvisor = new CubeAdvisor(new SqlParser());
+
+    @Test
+    public void testRecommendCoveringCubes()
+    {
+        List<CuboidRecommendation> recommendations = cubeAdvisor.recommend(history(), 2, 8);
+        assertEquals(recommendations.size(), 2);
+
+        CuboidRecommendation first = recommendations.get(0);
+        assertEquals(first.getSourceTable(), "hive.tpch.orders");
+        assertEquals(first.getGroup(), ImmutableList.of("orderpriority", "orderstatus"));
+        assertEquals(first.getAggregations(), ImmutableList.of("count(*)", "sum(totalprice)"));
+        assertEquals(first.getCoveredQueries(), 8);
+        assertEquals(first.getCreateCubeStatement(),
+                "CREATE CUBE hive.tpch.orders_cube_1 ON hive.tpch.orders WITH (AGGREGATIONS = (count(*), sum(totalprice)), GROUP = (orderpriority, orderstatus))");
+
+        // count distinct can only be answered by a cube with the exact same group
+        CuboidRecommendation second = recommendations.get(1);
+        assertEquals(second.getGroup(), ImmutableList.of("custkey", "orderdate"));
+        assertEquals(second.getAggregations(), ImmutableList.of("count(DISTINCT orderkey)"));
+        assertEquals(second.getCoveredQueries(), 2);
+    }
+
+    @Test
+    public void testMaxGroupSize()
+    {
+        List<CuboidRecommendation> recommendations = cubeAdvisor.recommend(history(), 3, 1);
+        assertEquals(recommendations.size(), 1);
+        assertEquals(recommendations.get(0).getGroup(), ImmutableList.of("orderstatus"));
+        assertEquals(recommendations.get(0).getCoveredQueries(), 5);
+    }
+
+    @Test
+    public void testIgnoreUnsupportedQueries()
+    {
+        List<QueryHistoryEntity> queries = ImmutableList.of(
+                query("SELECT * FROM orders"),
+                query("SELECT o.orderstatus, sum(l.quantity) FROM orders o JOIN lineitem l ON o.orderkey = l.orderkey GROUP BY o.orderstatus"),
+                query("SELECT orderstatus, approx_percentile(totalprice, 0.5) FROM orders GROUP BY orderstatus"),
+                query("SELECT orderstatus, sum(totalprice) FROM orders WHERE custkey IN (SELECT custkey FROM customer) GROUP BY orderstatus"),
+                query("SHOW TABLES"),
+                query("not a query"));
+        assertEquals(cubeAdvisor.recommend(queries, 3, 8), Collections.emptyList());
+    }
+
+    private static List<QueryHistoryEntity> history()
+    {
+        ImmutableList.Builder<QueryHistoryEntity> queries = ImmutableList.builder();
+        for (int i = 0; i < 5; i++) {
+            queries.add(query("SELECT orderstatus, sum(totalprice) FROM orders GROUP BY orderstatus"));
+        }
+        for (int i = 0; i < 3; i++) {
+            queries.add(query("SELECT orderstatus, orderpriority, count(*) FROM tpch.orders GROUP BY 1, 2"));
+        }
+        for (int i = 0; i < 2; i++) {
+            queries.add(query("SELECT custkey, count(DISTINCT orderkey) FROM hive.tpch.orders WHERE orderdate > DATE '2020-01-01' GROUP BY custkey"));
+        }
+        return queries.build();
+    }
+
+    private static QueryHistoryEntity query(String sql)
+    {
+        return new QueryHistoryEntity.Builder()
+                .setQuery(sql)
+                .setCatalog("hive")
+                .setSchemata("tpch")
+                .build();
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2018-2022. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.cube;
+
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.Duration;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+
+import static io.airlift.configuration.testing.ConfigAssertions.assertFullMapping;
+import static io.airlift.configuration.testing.ConfigAssertions.assertRecordedDefaults;
+import static io.airlift.configuration.testing.ConfigAssertions.recordDefaults;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+public class TestCubeAutoRefreshConfig
+{
+    @Test
+    public void testDefaults()
+    {
+        assertRecordedDefaults(recordDefaults(CubeAutoRefreshConfig.class)
+                .setAutoRefreshEnabled(false)
+                .setAutoRefreshInterval(new Duration(10, MINUTES))
+                .setAutoRefreshUser("openLooKeng"));
+    }
+
+    @Test
+    public void testExplicitPropertyMappings()
+    {
+        Map<String, String> properties = new ImmutableMap.Builder<String, String>()
+                .put("cube.auto-refresh.enabled", "true")
+                .put("cube.auto-refresh.interval", "1h")
+                .put("cube.auto-refresh.user", "cube_admin")
+                .build();
+
+        CubeAutoRefreshConfig expected = new CubeAutoRefreshConfig()
+                .setAutoRefreshEnabled(true)
+                .setAutoRefreshInterval(new Duration(1, HOURS))
+                .setAutoRefreshUser("cube_admin");
+
+        assertFullMapping(properties, expected);
+    }
+}
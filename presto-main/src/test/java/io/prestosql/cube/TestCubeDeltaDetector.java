@@ -0,0 +1,260 @@
+/*
+ * Copyright (C) 2018-2022. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.cube;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.hetu.core.spi.cube.CubeFilter;
+import io.hetu.core.spi.cube.CubeMetadata;
+import io.prestosql.metadata.Metadata;
+import io.prestosql.metadata.TableProperties;
+import io.prestosql.spi.connector.CatalogName;
+import io.prestosql.spi.connector.ColumnHandle;
+import io.prestosql.spi.connector.ColumnMetadata;
+import io.prestosql.spi.connector.ConnectorTableHandle;
+import io.prestosql.spi.connector.ConnectorTableProperties;
+import io.prestosql.spi.connector.Constraint;
+import io.prestosql.spi.connector.ConstraintApplicationResult;
+import io.prestosql.spi.connector.DiscretePredicates;
+import io.prestosql.spi.metadata.TableHandle;
+import io.prestosql.spi.plan.Symbol;
+import io.prestosql.spi.predicate.Domain;
+import io.prestosql.spi.predicate.NullableValue;
+import io.prestosql.spi.predicate.TupleDomain;
+import io.prestosql.sql.ExpressionUtils;
+import io.prestosql.sql.parser.SqlParser;
+import io.prestosql.sql.planner.ExpressionDomainTranslator;
+import io.prestosql.sql.planner.TypeProvider;
+import io.prestosql.sql.tree.Expression;
+import io.prestosql.testing.TestingMetadata.TestingColumnHandle;
+import io.prestosql.testing.TestingMetadata.TestingTableHandle;
+import io.prestosql.testing.TestingTransactionHandle;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+
+import static io.prestosql.SessionTestUtils.TEST_SESSION;
+import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.sql.ParsingUtil.createParsingOptions;
+import static io.prestosql.sql.tree.BooleanLiteral.FALSE_LITERAL;
+import static io.prestosql.sql.tree.BooleanLiteral.TRUE_LITERAL;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestCubeDeltaDetector
+{
+    private static final SqlParser SQL_PARSER = new SqlParser();
+    private static final ColumnHandle REGION_KEY = new TestingColumnHandle("regionkey");
+    private static final TableHandle SOURCE_TABLE = new TableHandle(new CatalogName("test"), new TestingTableHandle(), TestingTransactionHandle.create(), Optional.empty());
+
+    @Test
+    public void testNewPartitionsPredicate()
+    {
+        Metadata metadata = createMetadata(Optional.of(partitions(0, 1, 2, 3, 4)));
+        CubeDeltaDetector detector = new CubeDeltaDetector(metadata, SQL_PARSER);
+        CubeMetadata cube = cube(detector, "regionkey < BIGINT '2'");
+
+        Optional<Expression> predicate = detector.getNewPartitionsPredicate(TEST_SESSION, cube, SOURCE_TABLE);
+        assertTrue(predicate.isPresent());
+        ExpressionDomainTranslator.ExtractionResult decomposedPredicate = ExpressionDomainTranslator.fromPredicate(
+                metadata,
+                TEST_SESSION,
+                ExpressionUtils.rewriteIdentifiersToSymbolReferences(predicate.get()),
+                TypeProvider.copyOf(ImmutableMap.of(new Symbol("regionkey"), BIGINT)));
+        assertEquals(decomposedPredicate.getRemainingExpression(), TRUE_LITERAL);
+        assertEquals(decomposedPredicate.getTupleDomain(), TupleDomain.withColumnDomains(ImmutableMap.of(new Symbol("regionkey"), Domain.multipleValues(BIGINT, ImmutableList.of(2L, 3L, 4L)))));
+
+        // the generated predicate passes the check of the planner
+        assertTrue(detector.isNewPartitionsPredicate(TEST_SESSION, cube, SOURCE_TABLE, predicate.get()));
+    }
+
+    @Test
+    public void testNewPartitionsOnly()
+    {
+        CubeDeltaDetector detector = new CubeDeltaDetector(createMetadata(Optional.of(partitions(0, 1, 2, 3, 4))), SQL_PARSER);
+        CubeMetadata cube = cube(detector, "regionkey < BIGINT '2'");
+
+        assertTrue(isNewPartitionsPredicate(detector, cube, "regionkey = BIGINT '3'"));
+        assertTrue(isNewPartitionsPredicate(detector, cube, "regionkey IN (BIGINT '2', BIGINT '4')"));
+        // partitions which are part of the cube
+        assertFalse(isNewPartitionsPredicate(detector, cube, "regionkey = BIGINT '1'"));
+        assertFalse(isNewPartitionsPredicate(detector, cube, "regionkey IN (BIGINT '1', BIGINT '2')"));
+        // values of partitions which do not exist yet
+        assertFalse(isNewPartitionsPredicate(detector, cube, "regionkey >= BIGINT '2'"));
+        // columns other than the cube predicate column
+        assertFalse(isNewPartitionsPredicate(detector, cube, "regionkey = BIGINT '3' AND nationkey = BIGINT '1'"));
+        assertFalse(isNewPartitionsPredicate(detector, cube, "nationkey = BIGINT '1'"));
+    }
+
+    @Test
+    public void testNoNewPartitions()
+    {
+        CubeDeltaDetector detector = new CubeDeltaDetector(createMetadata(Optional.of(partitions(0, 1, 2))), SQL_PARSER);
+        CubeMetadata cube = cube(detector, "regionkey BETWEEN BIGINT '0' AND BIGINT '2'");
+
+        assertEquals(detector.getNewPartitionsPredicate(TEST_SESSION, cube, SOURCE_TABLE), Optional.of(FALSE_LITERAL));
+        assertFalse(isNewPartitionsPredicate(detector, cube, "regionkey = BIGINT '2'"));
+    }
+
+    @Test
+    public void testAppendToCoveredPartition()
+    {
+        Map<Long, Integer> partitionVersions = new HashMap<>();
+        CubeDeltaDetector detector = new CubeDeltaDetector(createMetadata(Optional.of(partitions(0, 1, 2, 3, 4)), partitionVersions), SQL_PARSER);
+        CubeMetadata cube = cube(detector, "regionkey < BIGINT '2'");
+
+        // rows appended to a partition that is not part of the cube yet
+        partitionVersions.put(3L, 1);
+        assertFalse(detector.isCoveredDataModified(TEST_SESSION, cube, SOURCE_TABLE));
+        assertTrue(detector.getNewPartitionsPredicate(TEST_SESSION, cube, SOURCE_TABLE).isPresent());
+        assertTrue(isNewPartitionsPredicate(detector, cube, "regionkey = BIGINT '3'"));
+
+        // rows appended to a partition that was aggregated into the cube
+        partitionVersions.put(1L, 1);
+        assertTrue(detector.isCoveredDataModified(TEST_SESSION, cube, SOURCE_TABLE));
+        assertEquals(detector.getNewPartitionsPredicate(TEST_SESSION, cube, SOURCE_TABLE), Optional.empty());
+        assertFalse(isNewPartitionsPredicate(detector, cube, "regionkey = BIGINT '3'"));
+
+        // the cube is up to date again once it was rebuilt with the current data
+        CubeMetadata rebuiltCube = cube(detector, "regionkey < BIGINT '2'");
+        assertFalse(detector.isCoveredDataModified(TEST_SESSION, rebuiltCube, SOURCE_TABLE));
+        assertTrue(isNewPartitionsPredicate(detector, rebuiltCube, "regionkey = BIGINT '3'"));
+    }
+
+    @Test
+    public void testUnknownDataVersion()
+    {
+        CubeDeltaDetector detector = new CubeDeltaDetector(createMetadata(Optional.of(partitions(0, 1, 2, 3, 4))), SQL_PARSER);
+        // cube last updated without recording the data version of its partitions
+        CubeMetadata cube = cube("regionkey < BIGINT '2'", null);
+
+        assertTrue(detector.isCoveredDataModified(TEST_SESSION, cube, SOURCE_TABLE));
+        assertEquals(detector.getNewPartitionsPredicate(TEST_SESSION, cube, SOURCE_TABLE), Optional.empty());
+        assertFalse(isNewPartitionsPredicate(detector, cube, "regionkey = BIGINT '3'"));
+    }
+
+    @Test
+    public void testUnsupportedCubes()
+    {
+        CubeDeltaDetector detector = new CubeDeltaDetector(createMetadata(Optional.of(partitions(0, 1, 2))), SQL_PARSER);
+        // cube built on the entire dataset
+        assertEquals(detector.getNewPartitionsPredicate(TEST_SESSION, cube(null, null), SOURCE_TABLE), Optional.empty());
+        assertFalse(detector.isCoveredDataModified(TEST_SESSION, cube(null, null), SOURCE_TABLE));
+        // cube predicate on a column which is not a partition column
+        assertEquals(detector.getNewPartitionsPredicate(TEST_SESSION, cube(detector, "nationkey < BIGINT '2'"), SOURCE_TABLE), Optional.empty());
+        assertFalse(isNewPartitionsPredicate(detector, cube(detector, "nationkey < BIGINT '2'"), "nationkey = BIGINT '3'"));
+
+        // source table without partitions
+        CubeDeltaDetector unpartitioned = new CubeDeltaDetector(createMetadata(Optional.empty()), SQL_PARSER);
+        assertEquals(unpartitioned.getNewPartitionsPredicate(TEST_SESSION, cube(unpartitioned, "regionkey < BIGINT '2'"), SOURCE_TABLE), Optional.empty());
+        assertFalse(isNewPartitionsPredicate(unpartitioned, cube(unpartitioned, "regionkey < BIGINT '2'"), "regionkey = BIGINT '3'"));
+    }
+
+    private static boolean isNewPartitionsPredicate(CubeDeltaDetector detector, CubeMetadata cube, String predicate)
+    {
+        return detector.isNewPartitionsPredicate(TEST_SESSION, cube, SOURCE_TABLE, SQL_PARSER.createExpression(predicate, createParsingOptions(TEST_SESSION)));
+    }
+
+    private static Metadata createMetadata(Optional<DiscretePredicates> partitions)
+    {
+        return createMetadata(partitions, new HashMap<>());
+    }
+
+    /**
+     * @param partitionVersions the number of appends to each partition, partitions without an entry were never appended to
+     */
+    private static Metadata createMetadata(Optional<DiscretePredicates> partitions, Map<Long, Integer> partitionVersions)
+    {
+        Metadata metadata = mock(Metadata.class, delegatesTo(createTestMetadataManager()));
+        TableProperties tableProperties = new TableProperties(
+                new CatalogName("test"),
+                TestingTransactionHandle.create(),
+                new ConnectorTableProperties(TupleDomain.all(), Optional.empty(), Optional.empty(), partitions, ImmutableList.of()));
+        doReturn(tableProperties).when(metadata).getTableProperties(TEST_SESSION, SOURCE_TABLE);
+        doReturn(new ColumnMetadata("regionkey", BIGINT)).when(metadata).getColumnMetadata(TEST_SESSION, SOURCE_TABLE, REGION_KEY);
+        doAnswer(invocation -> {
+            Constraint constraint = (Constraint) invocation.getArguments()[2];
+            TableHandle filtered = new TableHandle(new CatalogName("test"), new PartitionsTableHandle(constraint.getSummary()), TestingTransactionHandle.create(), Optional.empty());
+            return Optional.of(new ConstraintApplicationResult<>(filtered, TupleDomain.all()));
+        }).when(metadata).applyFilter(eq(TEST_SESSION), eq(SOURCE_TABLE), any(Constraint.class));
+        doAnswer(invocation -> {
+            ConnectorTableHandle tableHandle = ((TableHandle) invocation.getArguments()[1]).getConnectorHandle();
+            TupleDomain<ColumnHandle> selected = tableHandle instanceof PartitionsTableHandle ? ((PartitionsTableHandle) tableHandle).getPartitions() : TupleDomain.all();
+            StringJoiner version = new StringJoiner(",");
+            for (TupleDomain<ColumnHandle> partition : partitions.get().getPredicates()) {
+                if (partition.overlaps(selected)) {
+                    long regionKey = (long) partition.getDomains().get().get(REGION_KEY).getSingleValue();
+                    version.add(regionKey + ":" + partitionVersions.getOrDefault(regionKey, 0));
+                }
+            }
+            return Optional.of(version.toString());
+        }).when(metadata).getTableDataVersion(eq(TEST_SESSION), any(TableHandle.class));
+        return metadata;
+    }
+
+    private static DiscretePredicates partitions(long... regionKeys)
+    {
+        ImmutableList.Builder<TupleDomain<ColumnHandle>> partitions = ImmutableList.builder();
+        for (long regionKey : regionKeys) {
+            partitions.add(TupleDomain.fromFixedValues(ImmutableMap.of(REGION_KEY, NullableValue.of(BIGINT, regionKey))));
+        }
+        return new DiscretePredicates(ImmutableList.of(REGION_KEY), partitions.build());
+    }
+
+    /**
+     * Creates a cube that was last updated with the current data of the partitions it covers.
+     */
+    private static CubeMetadata cube(CubeDeltaDetector detector, String cubePredicate)
+    {
+        Optional<String> dataVersion = detector.getCoveredDataVersion(TEST_SESSION, SOURCE_TABLE, SQL_PARSER.createExpression(cubePredicate, createParsingOptions(TEST_SESSION)));
+        return cube(cubePredicate, dataVersion.orElse(null));
+    }
+
+    private static CubeMetadata cube(String cubePredicate, String dataVersion)
+    {
+        CubeMetadata cube = mock(CubeMetadata.class);
+        when(cube.getCubeFilter()).thenReturn(cubePredicate == null ? null : new CubeFilter(null, cubePredicate));
+        when(cube.getSourceTableDataVersion()).thenReturn(dataVersion);
+        return cube;
+    }
+
+    private static class PartitionsTableHandle
+            implements ConnectorTableHandle
+    {
+        private final TupleDomain<ColumnHandle> partitions;
+
+        private PartitionsTableHandle(TupleDomain<ColumnHandle> partitions)
+        {
+            this.partitions = partitions;
+        }
+
+        public TupleDomain<ColumnHandle> getPartitions()
+        {
+            return partitions;
+        }
+    }
+}
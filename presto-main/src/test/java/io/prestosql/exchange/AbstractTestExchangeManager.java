@@ -216,6 +216,65 @@ public abstract class AbstractTestExchangeManager
                 .containsExactlyInAnyOrder(smallPage, mediumPage, largePage, maxPage);
     }
 
+    @Test
+    public void testMultiplePartitionsRoundTrip() throws ExecutionException, InterruptedException
+    {
+        String mediumPage = repeatString("m", toIntExact(new DataSize(66, KILOBYTE).toBytes()));
+
+        Exchange exchange = exchangeManager.createExchange(new ExchangeContext(new QueryId("query"), createRandomExchangeId()), 5);
+        ExchangeSinkHandle sinkHandle0 = exchange.addSink(0);
+        ExchangeSinkHandle sinkHandle1 = exchange.addSink(1);
+        ExchangeSinkHandle sinkHandle2 = exchange.addSink(2);
+        exchange.noMoreSinks();
+
+        // partition 2 is only written by the first sink, partition 4 is not written at all
+        ExchangeSinkInstanceHandle sinkInstanceHandle = exchange.instantiateSink(sinkHandle0, 0);
+        writeData(
+                sinkInstanceHandle,
+                new ImmutableMultimap.Builder<Integer, String>()
+                        .putAll(0, ImmutableList.of("0-0-0", "0-0-1"))
+                        .putAll(1, ImmutableList.of(mediumPage))
+                        .putAll(2, ImmutableList.of("0-2-0"))
+                        .putAll(3, ImmutableList.of("0-3-0"))
+                        .build(),
+                true);
+        exchange.sinkFinished(sinkInstanceHandle);
+
+        sinkInstanceHandle = exchange.instantiateSink(sinkHandle1, 0);
+        writeData(
+                sinkInstanceHandle,
+                new ImmutableMultimap.Builder<Integer, String>()
+                        .putAll(0, ImmutableList.of("1-0-0"))
+                        .putAll(1, ImmutableList.of("1-1-0", "1-1-1"))
+                        .putAll(3, ImmutableList.of(mediumPage, "1-3-0"))
+                        .build(),
+                true);
+        exchange.sinkFinished(sinkInstanceHandle);
+
+        // a sink without any output
+        sinkInstanceHandle = exchange.instantiateSink(sinkHandle2, 0);
+        writeData(sinkInstanceHandle, ImmutableMultimap.of(), true);
+        exchange.sinkFinished(sinkInstanceHandle);
+
+        List<ExchangeSourceHandle> partitionHandles = exchange.getSourceHandles().get();
+        Map<Integer, ExchangeSourceHandle> partitions = partitionHandles.stream()
+                .collect(toImmutableMap(ExchangeSourceHandle::getPartitionId, Function.identity()));
+        assertThat(partitions.keySet()).containsExactlyInAnyOrder(0, 1, 2, 3);
+
+        assertThat(readData(partitions.get(0)))
+                .containsExactlyInAnyOrder("0-0-0", "0-0-1", "1-0-0");
+        assertThat(readData(partitions.get(1)))
+                .containsExactlyInAnyOrder(mediumPage, "1-1-0", "1-1-1");
+        assertThat(readData(partitions.get(2)))
+                .containsExactly("0-2-0");
+        assertThat(readData(partitions.get(3)))
+                .containsExactlyInAnyOrder("0-3-0", mediumPage, "1-3-0");
+        assertThat(readData(partitionHandles))
+                .hasSize(10);
+
+        exchange.close();
+    }
+
     @Test
     public void testMaxOutputPartitionCountCheck()
     {
@@ -0,0 +1,143 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.exchange;
+
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import io.hetu.core.filesystem.HetuLocalFileSystemClient;
+import io.hetu.core.filesystem.LocalConfig;
+import io.prestosql.exchange.FileSystemExchangeConfig.DirectSerialisationType;
+import io.prestosql.exchange.storage.ExchangeStorageReader;
+import io.prestosql.exchange.storage.ExchangeStorageWriter;
+import io.prestosql.exchange.storage.FileSystemExchangeStorage;
+import io.prestosql.exchange.storage.HetuFileSystemExchangeStorage;
+import io.prestosql.exchange.storage.MmapFileSystemExchangeStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static org.openjdk.jmh.annotations.Mode.AverageTime;
+
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(3)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+@BenchmarkMode(AverageTime)
+@SuppressWarnings({"FieldMayBeFinal", "FieldCanBeLocal"})
+public class BenchmarkFileSystemExchangeStorage
+{
+    private static final int PAGE_COUNT = 1024;
+
+    @Param({"CLIENT", "MMAP"})
+    private String storageType = "CLIENT";
+
+    @Param({"4096", "65536"})
+    private int pageSize = 4096;
+
+    @Param({"false", "true"})
+    private boolean compressionEnabled;
+
+    private Path baseDirectory;
+    private FileSystemExchangeStorage storage;
+    private Slice page;
+    private int fileCount;
+
+    @Setup
+    public void setup()
+            throws IOException
+    {
+        baseDirectory = Files.createTempDirectory("exchange-storage-benchmark");
+        if (storageType.equals("MMAP")) {
+            storage = new MmapFileSystemExchangeStorage(new FileSystemExchangeConfig());
+        }
+        else {
+            storage = new HetuFileSystemExchangeStorage();
+            storage.setFileSystemClient(new HetuLocalFileSystemClient(new LocalConfig(new Properties()), baseDirectory));
+        }
+        byte[] bytes = new byte[pageSize];
+        ThreadLocalRandom.current().nextBytes(bytes);
+        page = Slices.wrappedBuffer(bytes);
+    }
+
+    @TearDown
+    public void tearDown()
+            throws IOException
+    {
+        deleteRecursively(baseDirectory, ALLOW_INSECURE);
+    }
+
+    @Benchmark
+    public long writeAndRead()
+            throws Exception
+    {
+        Path file = baseDirectory.resolve((fileCount++) + ".data");
+        ExchangeStorageWriter writer = storage.createExchangeWriter(URI.create(file.toString()), Optional.empty(), compressionEnabled, DirectSerialisationType.OFF, 16 * 1024);
+        Slice length = Slices.wrappedIntArray(page.length());
+        for (int i = 0; i < PAGE_COUNT; i++) {
+            writer.write(length).get();
+            writer.write(page).get();
+        }
+        writer.finish().get();
+
+        long readBytes = 0;
+        ExchangeStorageReader reader = storage.createExchangeReader(
+                new ArrayDeque<>(ImmutableList.of(new ExchangeSourceFile(file.toUri(), Optional.empty(), compressionEnabled, Files.size(file)))),
+                pageSize,
+                DirectSerialisationType.OFF,
+                16 * 1024);
+        for (Slice slice = reader.read(); slice != null; slice = reader.read()) {
+            readBytes += slice.length();
+        }
+        reader.close();
+        return readBytes;
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkFileSystemExchangeStorage.class.getSimpleName() + ".*")
+                .build();
+
+        new Runner(options).run();
+    }
+}
@@ -18,6 +18,7 @@ import io.hetu.core.filesystem.HetuLocalFileSystemClient;
 import io.hetu.core.filesystem.LocalConfig;
 
 import java.nio.file.Paths;
+import java.util.Map;
 import java.util.Properties;
 
 public class LocalFileSystemExchangeManagerTest
@@ -25,14 +26,20 @@ public class LocalFileSystemExchangeManagerTest
 {
     @Override
     protected ExchangeManager createExchangeManager()
+    {
+        return createLocalExchangeManager(ImmutableMap.of());
+    }
+
+    static ExchangeManager createLocalExchangeManager(Map<String, String> extraProperties)
     {
         String baseDirectory1 = System.getProperty("java.io.tmpdir") + "/local-file-system-exchange-manager-1";
         String baseDirectory2 = System.getProperty("java.io.tmpdir") + "/local-file-system-exchange-manager-2";
-        return new FileSystemExchangeManagerFactory().create(ImmutableMap.of(
-                "exchange.base-directories", baseDirectory1 + "," + baseDirectory2,
-                "exchange.sink-max-file-size", "32MB",
-                "exchange.max-page-storage-size", "32MB",
-                "exchange.direct-serialization-type", "OFF"
-        ), new HetuLocalFileSystemClient(new LocalConfig(new Properties()), Paths.get("/")));
+        return new FileSystemExchangeManagerFactory().create(ImmutableMap.<String, String>builder()
+                .put("exchange.base-directories", baseDirectory1 + "," + baseDirectory2)
+                .put("exchange.sink-max-file-size", "32MB")
+                .put("exchange.max-page-storage-size", "32MB")
+                .put("exchange.direct-serialization-type", "OFF")
+                .putAll(extraProperties)
+                .build(), new HetuLocalFileSystemClient(new LocalConfig(new Properties()), Paths.get("/")));
     }
 }
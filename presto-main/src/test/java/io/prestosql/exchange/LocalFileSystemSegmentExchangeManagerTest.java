@@ -0,0 +1,29 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.exchange;
+
+import com.google.common.collect.ImmutableMap;
+
+import static io.prestosql.exchange.LocalFileSystemExchangeManagerTest.createLocalExchangeManager;
+
+public class LocalFileSystemSegmentExchangeManagerTest
+        extends AbstractTestExchangeManager
+{
+    @Override
+    protected ExchangeManager createExchangeManager()
+    {
+        // partitions of up to 1kB go to the segment file of the sink, larger ones to files of their own
+        return createLocalExchangeManager(ImmutableMap.of("exchange.sink-segment-partition-threshold", "1kB"));
+    }
+}
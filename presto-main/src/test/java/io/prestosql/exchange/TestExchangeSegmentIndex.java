@@ -0,0 +1,47 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.exchange;
+
+import com.google.common.collect.ImmutableList;
+import io.prestosql.exchange.ExchangeSegmentIndex.Section;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+
+public class TestExchangeSegmentIndex
+{
+    @Test
+    public void testRoundTrip()
+    {
+        ExchangeSegmentIndex index = new ExchangeSegmentIndex(ImmutableList.of(
+                new Section(0, 4, 120),
+                new Section(3, 124, 17),
+                new Section(7, 141, 4096)));
+
+        List<Section> sections = ExchangeSegmentIndex.deserialize(index.serialize()).getSections();
+        assertEquals(sections.size(), 3);
+        assertEquals(sections.get(1).getPartitionId(), 3);
+        assertEquals(sections.get(1).getOffset(), 124);
+        assertEquals(sections.get(1).getLength(), 17);
+        assertEquals(sections.get(2).toFileStatus("/tmp/partitions.segment"), new FileStatus("/tmp/partitions.segment", 4096, 141));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testSectionAtFileStart()
+    {
+        new Section(0, 0, 10);
+    }
+}
@@ -33,12 +33,18 @@ public class TestFileSystemExchangeConfig
                 .setExchangeSinkBufferPoolMinSize(10)
                 .setExchangeSinkBuffersPerPartition(2)
                 .setExchangeSinkMaxFileSize(new DataSize(1, DataSize.Unit.GIGABYTE))
+                .setExchangeSinkSegmentPartitionThreshold(new DataSize(0, DataSize.Unit.BYTE))
+                .setExchangeSinkSegmentBufferSize(new DataSize(32, DataSize.Unit.MEGABYTE))
                 .setExchangeSourceConcurrentReaders(4)
                 .setMaxOutputPartitionCount(50)
                 .setExchangeFileListingParallelism(50)
                 .setExchangeFilesystemType("local")
                 .setDirectSerializationType(FileSystemExchangeConfig.DirectSerialisationType.JAVA)
-                .setDirectSerialisationBufferSize(new DataSize(16, DataSize.Unit.KILOBYTE)));
+                .setDirectSerialisationBufferSize(new DataSize(16, DataSize.Unit.KILOBYTE))
+                .setExchangeMmapEnabled(false)
+                .setExchangeMmapRegionSize(new DataSize(64, DataSize.Unit.MEGABYTE))
+                .setExchangeMmapMaxDirtySize(new DataSize(512, DataSize.Unit.MEGABYTE))
+                .setExchangeMmapMinFreeSpace(new DataSize(1, DataSize.Unit.GIGABYTE)));
     }
 
     @Test
@@ -52,12 +58,18 @@ public class TestFileSystemExchangeConfig
                 .put("exchange.sink-buffer-pool-min-size", "5")
                 .put("exchange.sink-buffers-per-partition", "4")
                 .put("exchange.sink-max-file-size", "2GB")
+                .put("exchange.sink-segment-partition-threshold", "1MB")
+                .put("exchange.sink-segment-buffer-size", "64MB")
                 .put("exchange.source-concurrent-readers", "5")
                 .put("exchange.max-output-partition-count", "100")
                 .put("exchange.file-listing-parallelism", "60")
                 .put("exchange-filesystem-type", "hdfs")
                 .put("exchange.direct-serialization-type", "KRYO")
                 .put("exchange.direct-serialization-buffer-size", "32kB")
+                .put("exchange.mmap-enabled", "true")
+                .put("exchange.mmap-region-size", "128MB")
+                .put("exchange.mmap-max-dirty-size", "1GB")
+                .put("exchange.mmap-min-free-space", "10GB")
                 .build();
 
         FileSystemExchangeConfig expected = new FileSystemExchangeConfig()
@@ -68,12 +80,18 @@ public class TestFileSystemExchangeConfig
                 .setExchangeSinkBufferPoolMinSize(5)
                 .setExchangeSinkBuffersPerPartition(4)
                 .setExchangeSinkMaxFileSize(new DataSize(2, DataSize.Unit.GIGABYTE))
+                .setExchangeSinkSegmentPartitionThreshold(new DataSize(1, DataSize.Unit.MEGABYTE))
+                .setExchangeSinkSegmentBufferSize(new DataSize(64, DataSize.Unit.MEGABYTE))
                 .setExchangeSourceConcurrentReaders(5)
                 .setMaxOutputPartitionCount(100)
                 .setExchangeFileListingParallelism(60)
                 .setExchangeFilesystemType("hdfs")
                 .setDirectSerializationType(FileSystemExchangeConfig.DirectSerialisationType.KRYO)
-                .setDirectSerialisationBufferSize(new DataSize(32, DataSize.Unit.KILOBYTE));
+                .setDirectSerialisationBufferSize(new DataSize(32, DataSize.Unit.KILOBYTE))
+                .setExchangeMmapEnabled(true)
+                .setExchangeMmapRegionSize(new DataSize(128, DataSize.Unit.MEGABYTE))
+                .setExchangeMmapMaxDirtySize(new DataSize(1, DataSize.Unit.GIGABYTE))
+                .setExchangeMmapMinFreeSpace(new DataSize(10, DataSize.Unit.GIGABYTE));
 
         ConfigAssertions.assertFullMapping(properties, expected);
     }
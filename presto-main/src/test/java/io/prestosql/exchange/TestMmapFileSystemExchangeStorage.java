@@ -0,0 +1,159 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.exchange;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import io.airlift.units.DataSize;
+import io.prestosql.exchange.FileSystemExchangeConfig.DirectSerialisationType;
+import io.prestosql.exchange.storage.ExchangeStorageReader;
+import io.prestosql.exchange.storage.ExchangeStorageWriter;
+import io.prestosql.exchange.storage.MmapFileSystemExchangeStorage;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Optional;
+
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+public class TestMmapFileSystemExchangeStorage
+{
+    private Path baseDirectory;
+    private MmapFileSystemExchangeStorage storage;
+
+    @BeforeMethod
+    public void setUp()
+            throws IOException
+    {
+        baseDirectory = Files.createTempDirectory("mmap-exchange");
+        // small regions, so that writes cross region boundaries
+        storage = new MmapFileSystemExchangeStorage(new FileSystemExchangeConfig()
+                .setExchangeMmapRegionSize(new DataSize(1, KILOBYTE))
+                .setExchangeMmapMaxDirtySize(new DataSize(4, KILOBYTE))
+                .setExchangeMmapMinFreeSpace(new DataSize(0, BYTE)));
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        deleteRecursively(baseDirectory, ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testWriteAndRead()
+            throws Exception
+    {
+        assertRoundTrip(false);
+    }
+
+    @Test
+    public void testWriteAndReadCompressed()
+            throws Exception
+    {
+        assertRoundTrip(true);
+    }
+
+    private void assertRoundTrip(boolean compressionEnabled)
+            throws Exception
+    {
+        Path file = baseDirectory.resolve("0_0.data");
+        List<Slice> pages = ImmutableList.of(page("alice", 300), page("bob", 1000), page("charlie", 10));
+        ExchangeStorageWriter writer = storage.createExchangeWriter(URI.create(file.toString()), Optional.empty(), compressionEnabled, DirectSerialisationType.OFF, 1024);
+        for (Slice page : pages) {
+            writer.write(Slices.wrappedIntArray(page.length())).get();
+            writer.write(page).get();
+        }
+        writer.finish().get();
+
+        List<FileStatus> files = storage.listFilesRecursively(URI.create(baseDirectory.toString())).get();
+        assertEquals(files.size(), 1);
+        // preallocated regions are cut back to the written data
+        assertEquals(files.get(0).getFileSize(), Files.size(file));
+        if (!compressionEnabled) {
+            assertEquals(Files.size(file), pages.stream().mapToLong(page -> Integer.BYTES + page.length()).sum());
+        }
+
+        ExchangeStorageReader reader = storage.createExchangeReader(
+                new ArrayDeque<>(ImmutableList.of(new ExchangeSourceFile(file.toUri(), Optional.empty(), compressionEnabled, Files.size(file)))),
+                1024,
+                DirectSerialisationType.OFF,
+                1024);
+        for (Slice page : pages) {
+            assertEquals(reader.read(), page);
+        }
+        assertNull(reader.read());
+    }
+
+    @Test
+    public void testSegmentFile()
+            throws Exception
+    {
+        URI segmentFile = URI.create(baseDirectory.resolve("partitions.segment").toString());
+        URI indexFile = URI.create(baseDirectory.resolve("partitions.index").toString());
+        Slice first = page("alice", 100);
+        Slice second = page("bob", 2000);
+        storage.writeSegmentFile(
+                segmentFile,
+                indexFile,
+                ImmutableMap.of(2, framed(first), 5, framed(second)),
+                Optional.empty(),
+                true).get();
+
+        List<ExchangeSegmentIndex.Section> sections = ExchangeSegmentIndex.deserialize(storage.readFile(indexFile).get()).getSections();
+        assertEquals(sections.size(), 2);
+        assertEquals(sections.get(1).getPartitionId(), 5);
+
+        FileStatus section = sections.get(1).toFileStatus(baseDirectory.resolve("partitions.segment").toUri().toString());
+        ExchangeStorageReader reader = storage.createExchangeReader(
+                new ArrayDeque<>(ImmutableList.of(new ExchangeSourceFile(URI.create(section.getFilePath()), Optional.empty(), true, section.getFileSize(), section.getOffset()))),
+                1024,
+                DirectSerialisationType.OFF,
+                1024);
+        assertEquals(reader.read(), second);
+        assertNull(reader.read());
+    }
+
+    private static Slice framed(Slice page)
+    {
+        Slice framed = Slices.allocate(Integer.BYTES + page.length());
+        framed.setInt(0, page.length());
+        framed.setBytes(Integer.BYTES, page);
+        return framed;
+    }
+
+    private static Slice page(String value, int repetitions)
+    {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < repetitions; i++) {
+            builder.append(value);
+        }
+        return Slices.copiedBuffer(builder.toString(), UTF_8);
+    }
+}
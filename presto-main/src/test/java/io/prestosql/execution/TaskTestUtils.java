@@ -19,6 +19,7 @@ import io.airlift.json.ObjectMapperProvider;
 import io.airlift.node.NodeInfo;
 import io.prestosql.cache.CacheStorageMonitor;
 import io.prestosql.cache.CachedDataManager;
+import io.prestosql.cache.SplitPageCache;
 import io.prestosql.cost.StatsAndCosts;
 import io.prestosql.cube.CubeManager;
 import io.prestosql.dynamicfilter.DynamicFilterCacheManager;
@@ -189,7 +190,7 @@ public final class TaskTestUtils
                 cubeManager,
                 new ExchangeManagerRegistry(new ExchangeHandleResolver()),
                 tableExecuteContextManager,
-                new CachedDataManager(new HetuConfig(), new CacheStorageMonitor(new HetuConfig(), metadata), metadata, null, new SessionPropertyManager()), new HetuConfig());
+                new CachedDataManager(new HetuConfig(), new CacheStorageMonitor(new HetuConfig(), metadata), metadata, null, new SessionPropertyManager()), SplitPageCache.disabled(), new HetuConfig());
     }
 
     public static TaskInfo updateTask(SqlTask sqlTask, List<TaskSource> taskSources, OutputBuffers outputBuffers)
@@ -68,6 +68,7 @@ public class TestQueryManagerConfig
                 .setFaultTolerantExecutionMinTaskSplitCount(16)
                 .setFaultTolerantExecutionMaxTaskSplitCount(256)
                 .setFaultTolerantExecutionPartitionCount(50)
+                .setFaultTolerantExecutionAdaptiveJoinEnabled(false)
                 .setFaultTolerantExecutionTaskDescriptorStorageMaxMemory(new DataSize(Math.round(AVAILABLE_HEAP_MEMORY * 0.15), DataSize.Unit.BYTE))
                 .setExchangeFilesystemBaseDirectory("/tmp/hetu-exchange-manager")
                 .setExchangeFilesystemType("local")
@@ -112,6 +113,7 @@ public class TestQueryManagerConfig
                 .put("fault-tolerant-execution-min-task-split-count", "17")
                 .put("fault-tolerant-execution-max-task-split-count", "257")
                 .put("fault-tolerant-execution-partition-count", "51")
+                .put("fault-tolerant-execution-adaptive-join-enabled", "true")
                 .put("fault-tolerant-execution-task-descriptor-storage-max-memory", "1GB")
                 .put("exchange-filesystem-base-directory", "/opt/hetu-1.8.0/exchange-base-dir")
                 .put("exchange-filesystem-type", "hdfs")
@@ -153,6 +155,7 @@ public class TestQueryManagerConfig
                 .setFaultTolerantExecutionMinTaskSplitCount(17)
                 .setFaultTolerantExecutionMaxTaskSplitCount(257)
                 .setFaultTolerantExecutionPartitionCount(51)
+                .setFaultTolerantExecutionAdaptiveJoinEnabled(true)
                 .setFaultTolerantExecutionTaskDescriptorStorageMaxMemory(new DataSize(1, DataSize.Unit.GIGABYTE))
                 .setExchangeFilesystemBaseDirectory("/opt/hetu-1.8.0/exchange-base-dir")
                 .setExchangeFilesystemType("hdfs")
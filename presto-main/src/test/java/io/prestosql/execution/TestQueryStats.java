@@ -14,6 +14,7 @@
 package io.prestosql.execution;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import io.airlift.json.JsonCodec;
 import io.airlift.units.DataSize;
@@ -77,6 +78,9 @@ public class TestQueryStats
                     new Duration(133, NANOSECONDS),
                     new Duration(134, NANOSECONDS),
                     Optional.empty(),
+                    ImmutableMap.of(),
+                    0,
+                    0,
                     null),
             new OperatorStats(
                     20,
@@ -117,6 +121,9 @@ public class TestQueryStats
                     new Duration(233, NANOSECONDS),
                     new Duration(234, NANOSECONDS),
                     Optional.empty(),
+                    ImmutableMap.of(),
+                    0,
+                    0,
                     null),
             new OperatorStats(
                     30,
@@ -157,6 +164,9 @@ public class TestQueryStats
                     new Duration(333, NANOSECONDS),
                     new Duration(334, NANOSECONDS),
                     Optional.empty(),
+                    ImmutableMap.of(),
+                    0,
+                    0,
                     null));
 
     public static final QueryStats EXPECTED = new QueryStats(
@@ -26,6 +26,7 @@ import io.airlift.stats.TestingGcMonitor;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 import io.hetu.core.transport.execution.buffer.SerializedPage;
+import io.prestosql.Session;
 import io.prestosql.execution.buffer.BufferResult;
 import io.prestosql.execution.buffer.BufferState;
 import io.prestosql.execution.buffer.OutputBuffer;
@@ -43,6 +44,7 @@ import io.prestosql.operator.Operator;
 import io.prestosql.operator.OperatorContext;
 import io.prestosql.operator.OperatorFactory;
 import io.prestosql.operator.PipelineExecutionStrategy;
+import io.prestosql.operator.PipelineStats;
 import io.prestosql.operator.SinkOperator;
 import io.prestosql.operator.SourceOperator;
 import io.prestosql.operator.SourceOperatorFactory;
@@ -89,7 +91,9 @@ import static io.airlift.concurrent.MoreFutures.getFutureValue;
 import static io.airlift.concurrent.Threads.threadsNamed;
 import static io.airlift.units.DataSize.Unit.GIGABYTE;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static io.prestosql.SessionTestUtils.TEST_SESSION;
 import static io.prestosql.SessionTestUtils.TEST_SNAPSHOT_SESSION;
+import static io.prestosql.SystemSessionProperties.SPLIT_DIVISION_ENABLED;
 import static io.prestosql.block.BlockAssertions.createStringSequenceBlock;
 import static io.prestosql.block.BlockAssertions.createStringsBlock;
 import static io.prestosql.execution.TaskTestUtils.TABLE_SCAN_NODE_ID;
@@ -102,12 +106,14 @@ import static io.prestosql.operator.PipelineExecutionStrategy.UNGROUPED_EXECUTIO
 import static io.prestosql.spi.type.VarcharType.VARCHAR;
 import static io.prestosql.testing.TestingPagesSerdeFactory.TESTING_SERDE_FACTORY;
 import static io.prestosql.testing.TestingRecoveryUtils.NOOP_RECOVERY_UTILS;
+import static java.lang.Math.min;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static java.util.concurrent.TimeUnit.HOURS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
 
 @Test(singleThreaded = true)
 public class TestSqlTaskExecution
@@ -291,6 +297,94 @@ public class TestSqlTaskExecution
         }
     }
 
+    @Test(timeOut = 20_000)
+    public void testSplitDivisionForIdleRunners()
+            throws Exception
+    {
+        ScheduledExecutorService taskNotificationExecutor = newScheduledThreadPool(10, threadsNamed("task-notification-%s"));
+        ScheduledExecutorService driverYieldExecutor = newScheduledThreadPool(2, threadsNamed("driver-yield-%s"));
+        // 5 runner threads and nothing running, so a single split is divided into 5 parts
+        TaskExecutor taskExecutor = new TaskExecutor(5, 10, 3, 4, Ticker.systemTicker());
+        taskExecutor.start();
+
+        try {
+            TaskStateMachine taskStateMachine = new TaskStateMachine(TaskId.valueOf("query.1.1.0"), taskNotificationExecutor);
+            PartitionedOutputBuffer outputBuffer = newTestingOutputBuffer(taskNotificationExecutor);
+            OutputBufferConsumer outputBufferConsumer = new OutputBufferConsumer(outputBuffer, OUTPUT_BUFFER_ID);
+
+            TestingScanOperatorFactory testingScanOperatorFactory = new TestingScanOperatorFactory(0, TABLE_SCAN_NODE_ID, ImmutableList.of(VARCHAR));
+            TaskOutputOperatorFactory taskOutputOperatorFactory = new TaskOutputOperatorFactory(
+                    1,
+                    TABLE_SCAN_NODE_ID,
+                    outputBuffer,
+                    Function.identity());
+            LocalExecutionPlan localExecutionPlan = new LocalExecutionPlan(
+                    ImmutableList.of(new DriverFactory(
+                            0,
+                            true,
+                            true,
+                            ImmutableList.of(testingScanOperatorFactory, taskOutputOperatorFactory),
+                            OptionalInt.empty(),
+                            UNGROUPED_EXECUTION)),
+                    ImmutableList.of(TABLE_SCAN_NODE_ID),
+                    StageExecutionDescriptor.ungroupedExecution(),
+                    Optional.empty());
+            Session session = Session.builder(TEST_SESSION)
+                    .setSystemProperty(SPLIT_DIVISION_ENABLED, "true")
+                    .build();
+            TaskContext taskContext = newTestingTaskContext(taskNotificationExecutor, driverYieldExecutor, taskStateMachine, session);
+            SqlTaskExecution sqlTaskExecution = SqlTaskExecution.createSqlTaskExecution(
+                    taskStateMachine,
+                    taskContext,
+                    outputBuffer,
+                    ImmutableList.of(),
+                    localExecutionPlan,
+                    taskExecutor,
+                    taskNotificationExecutor,
+                    createTestSplitMonitor(), 1);
+
+            sqlTaskExecution.addSources(ImmutableList.of(new TaskSource(
+                    TABLE_SCAN_NODE_ID,
+                    ImmutableSet.of(newScheduledSplit(0, TABLE_SCAN_NODE_ID, Lifespan.taskWide(), 100000, 1000)),
+                    true)));
+
+            // every row of the split is produced exactly once
+            outputBufferConsumer.consume(1000, ASSERT_WAIT_TIMEOUT);
+            outputBufferConsumer.assertBufferComplete(ASSERT_WAIT_TIMEOUT);
+            assertEquals(taskStateMachine.getStateChange(TaskState.RUNNING).get(10, SECONDS), TaskState.FLUSHING);
+
+            // each part was processed by a driver of its own
+            PipelineStats pipelineStats = taskContext.getPipelineContexts().get(0).getPipelineStats();
+            assertEquals(pipelineStats.getCompletedDrivers(), 5);
+
+            outputBufferConsumer.abort();
+            assertEquals(taskStateMachine.getStateChange(TaskState.FLUSHING).get(10, SECONDS), TaskState.FINISHED);
+        }
+        finally {
+            taskExecutor.stop();
+            taskNotificationExecutor.shutdownNow();
+            driverYieldExecutor.shutdown();
+        }
+    }
+
+    @Test
+    public void testSubSplitIdentity()
+    {
+        ScheduledSplit scheduledSplit = newScheduledSplit(7, TABLE_SCAN_NODE_ID, Lifespan.taskWide(), 0, 100);
+        List<Split> parts = scheduledSplit.getSplit().divide(2);
+        assertEquals(parts.size(), 2);
+
+        ScheduledSplit first = scheduledSplit.subSplit(1, parts.get(0));
+        ScheduledSplit second = scheduledSplit.subSplit(2, parts.get(1));
+        // the parts keep the sequence id which is acknowledged to the coordinator, but are different splits
+        assertEquals(first.getSequenceId(), 7);
+        assertEquals(second.getSequenceId(), 7);
+        assertNotEquals(first, second);
+        assertNotEquals(first, scheduledSplit);
+        assertEquals(ImmutableSet.of(scheduledSplit, first, second).size(), 3);
+        assertEquals(first, scheduledSplit.subSplit(1, parts.get(0)));
+    }
+
     @Test(dataProvider = "executionStrategies", timeOut = 20_000)
     public void testMarker(PipelineExecutionStrategy executionStrategy)
             throws Exception
@@ -789,6 +883,11 @@ public class TestSqlTaskExecution
     }
 
     private TaskContext newTestingTaskContext(ScheduledExecutorService taskNotificationExecutor, ScheduledExecutorService driverYieldExecutor, TaskStateMachine taskStateMachine, boolean recoveryEnabled)
+    {
+        return newTestingTaskContext(taskNotificationExecutor, driverYieldExecutor, taskStateMachine, TEST_SNAPSHOT_SESSION);
+    }
+
+    private TaskContext newTestingTaskContext(ScheduledExecutorService taskNotificationExecutor, ScheduledExecutorService driverYieldExecutor, TaskStateMachine taskStateMachine, Session session)
     {
         QueryContext queryContext = new QueryContext(
                 new QueryId("queryid"),
@@ -803,7 +902,7 @@ public class TestSqlTaskExecution
                 NOOP_RECOVERY_UTILS);
         return queryContext.addTaskContext(
                 taskStateMachine,
-                TEST_SNAPSHOT_SESSION,
+                session,
                 false,
                 false,
                 OptionalInt.empty(),
@@ -1550,5 +1649,19 @@ public class TestSqlTaskExecution
         {
             return end;
         }
+
+        @Override
+        public List<ConnectorSplit> divide(int maxParts)
+        {
+            int parts = min(maxParts, end - begin);
+            if (parts <= 1) {
+                return ImmutableList.of(this);
+            }
+            ImmutableList.Builder<ConnectorSplit> result = ImmutableList.builder();
+            for (int i = 0; i < parts; i++) {
+                result.add(new TestingSplit(begin + (end - begin) * i / parts, begin + (end - begin) * (i + 1) / parts));
+            }
+            return result.build();
+        }
     }
 }
@@ -58,7 +58,10 @@ public class TestTaskManagerConfig
                 .setTaskNotificationThreads(5)
                 .setTaskYieldThreads(3)
                 .setLevelTimeMultiplier(new BigDecimal("2"))
-                .setStatisticsCpuTimerEnabled(true));
+                .setStatisticsCpuTimerEnabled(true)
+                .setSplitDivisionEnabled(false)
+                .setProfilerEnabled(false)
+                .setProfilerSamplingInterval(new Duration(10, TimeUnit.MILLISECONDS)));
     }
 
     @Test
@@ -91,6 +94,9 @@ public class TestTaskManagerConfig
                 .put("task.task-yield-threads", "8")
                 .put("task.level-time-multiplier", "2.1")
                 .put("task.statistics-cpu-timer-enabled", "false")
+                .put("task.split-division-enabled", "true")
+                .put("task.profiler.enabled", "true")
+                .put("task.profiler.sampling-interval", "20ms")
                 .build();
 
         TaskManagerConfig expected = new TaskManagerConfig()
@@ -119,7 +125,10 @@ public class TestTaskManagerConfig
                 .setTaskNotificationThreads(13)
                 .setTaskYieldThreads(8)
                 .setLevelTimeMultiplier(new BigDecimal("2.1"))
-                .setStatisticsCpuTimerEnabled(false);
+                .setStatisticsCpuTimerEnabled(false)
+                .setSplitDivisionEnabled(true)
+                .setProfilerEnabled(true)
+                .setProfilerSamplingInterval(new Duration(20, TimeUnit.MILLISECONDS));
 
         assertFullMapping(properties, expected);
     }
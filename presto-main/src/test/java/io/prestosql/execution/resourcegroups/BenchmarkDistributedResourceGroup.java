@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2018-2021. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution.resourcegroups;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableSet;
+import io.airlift.json.ObjectMapperProvider;
+import io.airlift.units.DataSize;
+import io.prestosql.client.NodeVersion;
+import io.prestosql.execution.MockManagedQueryExecution;
+import io.prestosql.metadata.InternalNode;
+import io.prestosql.metadata.InternalNodeManager;
+import io.prestosql.spi.resourcegroups.ResourceGroupId;
+import io.prestosql.spi.statestore.StateCollection;
+import io.prestosql.spi.statestore.StateStore;
+import io.prestosql.statestore.MockStateMap;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures admission in multi-coordinator mode with resource group quota leases enabled.
+ * The rebalance interval is zero so every pass pays for rebalancing across all coordinators.
+ */
+@SuppressWarnings("MethodMayBeStatic")
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class BenchmarkDistributedResourceGroup
+{
+    @Benchmark
+    public Object benchmark(BenchmarkData data)
+    {
+        data.getRoot().processQueuedQueries();
+        return data.getRoot();
+    }
+
+    @SuppressWarnings("FieldMayBeFinal")
+    @State(Scope.Thread)
+    public static class BenchmarkData
+    {
+        private static final ObjectMapper MAPPER = new ObjectMapperProvider().get();
+
+        @Param({"1", "4", "16"})
+        private int coordinators = 1;
+
+        @Param({"100", "1000"})
+        private int children = 100;
+
+        @Param({"100", "1000"})
+        private int queries = 100;
+
+        private final ExecutorService executor = Executors.newSingleThreadExecutor();
+        private DistributedResourceGroupTemp root;
+
+        @Setup
+        public void setup()
+                throws JsonProcessingException
+        {
+            StateStore stateStore = Mockito.mock(StateStore.class);
+            InternalNodeManager nodeManager = Mockito.mock(InternalNodeManager.class);
+            InternalNode localCoordinator = new InternalNode("node0", URI.create("local://127.0.0.1:8080"), NodeVersion.UNKNOWN, true);
+            ImmutableSet.Builder<InternalNode> allCoordinators = ImmutableSet.builder();
+            allCoordinators.add(localCoordinator);
+
+            // every remote coordinator queues the same number of queries in each group
+            Map<String, MockStateMap<String, String>> collections = new HashMap<>();
+            for (int i = 1; i < coordinators; i++) {
+                InternalNode remoteCoordinator = new InternalNode("node" + i, URI.create("local://127.0.0." + (i + 1) + ":8080"), NodeVersion.UNKNOWN, true);
+                allCoordinators.add(remoteCoordinator);
+                Map<String, String> remoteStats = new HashMap<>();
+                remoteStats.put("root", MAPPER.writeValueAsString(new DistributedResourceGroupAggrStats(new ResourceGroupId("root"), 0, queries, 0, 0, 0, 0)));
+                for (int j = 0; j < children; j++) {
+                    ResourceGroupId childId = new ResourceGroupId(new ResourceGroupId("root"), String.valueOf(j));
+                    remoteStats.put(childId.toString(), MAPPER.writeValueAsString(new DistributedResourceGroupAggrStats(childId, 0, queries, 0, 0, 0, 0)));
+                }
+                collections.put(remoteCoordinator.getHostAndPort() + "-resourceaggrstats", new MockStateMap<>(remoteCoordinator.getNodeIdentifier(), remoteStats));
+            }
+            MockStateMap<String, String> localStateMap = new MockStateMap<>(localCoordinator.getNodeIdentifier(), new HashMap<>());
+            when(nodeManager.getCurrentNode()).thenReturn(localCoordinator);
+            when(nodeManager.getCoordinators()).thenReturn(allCoordinators.build());
+            when(stateStore.getOrCreateStateCollection(anyString(), any(StateCollection.Type.class)))
+                    .thenAnswer(invocation -> collections.getOrDefault((String) invocation.getArguments()[0], localStateMap));
+
+            root = new DistributedResourceGroupTemp(Optional.empty(), "root", (group, export) -> {}, executor, stateStore, nodeManager, true, 0);
+            root.setSoftMemoryLimit(new DataSize(1, MEGABYTE));
+            root.setMaxQueuedQueries(queries * coordinators);
+            root.setHardConcurrencyLimit(queries);
+            DistributedResourceGroupTemp group = root;
+            for (int i = 0; i < children; i++) {
+                group = root.getOrCreateSubGroup(String.valueOf(i));
+                group.setSoftMemoryLimit(new DataSize(1, MEGABYTE));
+                group.setMaxQueuedQueries(queries * coordinators);
+                group.setHardConcurrencyLimit(queries);
+            }
+            for (int i = 0; i < queries; i++) {
+                group.run(new MockManagedQueryExecution(10));
+            }
+        }
+
+        @TearDown
+        public void tearDown()
+        {
+            executor.shutdownNow();
+        }
+
+        public DistributedResourceGroupTemp getRoot()
+        {
+            return root;
+        }
+    }
+
+    public static void main(String[] args)
+            throws Throwable
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkDistributedResourceGroup.class.getSimpleName() + ".*")
+                .build();
+        new Runner(options).run();
+    }
+}
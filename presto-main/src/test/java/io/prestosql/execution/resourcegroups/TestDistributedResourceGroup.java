@@ -16,6 +16,7 @@ package io.prestosql.execution.resourcegroups;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import io.airlift.json.ObjectMapperProvider;
 import io.airlift.units.DataSize;
@@ -45,6 +46,7 @@ import java.net.URI;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -67,6 +69,8 @@ import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
@@ -130,6 +134,131 @@ public class TestDistributedResourceGroup
         }
     }
 
+    @Test
+    public void testQuotaLeaseAllocation()
+    {
+        // demands below the fair share are met, the rest is split evenly
+        assertEquals(ResourceGroupQuotaLeases.allocate(10, new long[] {1, 20, 20}), new long[] {1, 4, 5});
+        // quota left once all demands are met is spread over all coordinators
+        assertEquals(ResourceGroupQuotaLeases.allocate(10, new long[] {2, 0, 3}), new long[] {4, 2, 4});
+        assertEquals(ResourceGroupQuotaLeases.allocate(0, new long[] {5, 5}), new long[] {0, 0});
+        assertEquals(ResourceGroupQuotaLeases.allocate(3, new long[] {}), new long[] {});
+    }
+
+    @Test
+    public void testQuotaLeaseAdmission()
+            throws JsonProcessingException
+    {
+        synchronized (lock) {
+            StateStore leaseStateStore = Mockito.mock(StateStore.class);
+            InternalNodeManager leaseNodeManager = Mockito.mock(InternalNodeManager.class);
+            InternalNode localCoordinator = new InternalNode("node1", URI.create("local://127.0.0.1:8080"), NodeVersion.UNKNOWN, true);
+            InternalNode remoteCoordinator = new InternalNode("node2", URI.create("local://127.0.0.2:8080"), NodeVersion.UNKNOWN, true);
+            when(leaseNodeManager.getCurrentNode()).thenReturn(localCoordinator);
+            when(leaseNodeManager.getCoordinators()).thenReturn(ImmutableSet.of(localCoordinator, remoteCoordinator));
+
+            // the remote coordinator runs 1 query and queues 5 in the root group
+            Map<String, String> remoteStats = new HashMap<>();
+            remoteStats.put("root", MAPPER.writeValueAsString(new DistributedResourceGroupAggrStats(new ResourceGroupId("root"), 1, 5, 0, 0, 0, 0)));
+            MockStateMap<String, String> remoteStateMap = new MockStateMap<>("remote", remoteStats);
+            MockStateMap<String, String> localStateMap = new MockStateMap<>("local", new HashMap<>());
+            String remoteCollectionName = remoteCoordinator.getHostAndPort() + "-resourceaggrstats";
+            when(leaseStateStore.getOrCreateStateCollection(anyString(), anyObject()))
+                    .thenAnswer(invocation -> remoteCollectionName.equals(invocation.getArguments()[0]) ? remoteStateMap : localStateMap);
+
+            DistributedResourceGroupTemp root = new DistributedResourceGroupTemp(Optional.empty(), "root", (group, export) -> {}, directExecutor(), leaseStateStore, leaseNodeManager, true, 0);
+            resourceGroupBasicSetUp(root, ONE_MEGABYTE, 4, 10);
+
+            // no local demand yet, the whole quota is leased to the remote coordinator
+            MockManagedQueryExecution query1 = new MockManagedQueryExecution(0);
+            root.run(query1);
+            assertEquals(query1.getState(), QUEUED);
+
+            // one local query queued: local lease is 1 out of 4
+            MockManagedQueryExecution query2 = new MockManagedQueryExecution(0);
+            root.run(query2);
+            assertEquals(query2.getState(), RUNNING);
+
+            // two local queries: local lease grows to the fair share of 2
+            root.processQueuedQueries();
+            assertEquals(query1.getState(), RUNNING);
+
+            MockManagedQueryExecution query3 = new MockManagedQueryExecution(0);
+            root.run(query3);
+            assertEquals(query3.getState(), QUEUED);
+
+            verify(leaseStateStore, never()).getLock(anyString());
+        }
+    }
+
+    @Test
+    public void testQuotaLeasesWithDivergingDemand()
+    {
+        synchronized (lock) {
+            InternalNode coordinator1 = new InternalNode("node1", URI.create("local://127.0.0.1:8080"), NodeVersion.UNKNOWN, true);
+            InternalNode coordinator2 = new InternalNode("node2", URI.create("local://127.0.0.2:8080"), NodeVersion.UNKNOWN, true);
+            // both coordinators publish their stats to the same state store
+            StateStore leaseStateStore = Mockito.mock(StateStore.class);
+            Map<String, MockStateMap<String, String>> collections = new HashMap<>();
+            when(leaseStateStore.getOrCreateStateCollection(anyString(), anyObject()))
+                    .thenAnswer(invocation -> collections.computeIfAbsent((String) invocation.getArguments()[0], name -> new MockStateMap<>(name, new HashMap<>())));
+            DistributedResourceGroupTemp root1 = createQuotaLeaseRootGroup(leaseStateStore, coordinator1, coordinator2);
+            DistributedResourceGroupTemp root2 = createQuotaLeaseRootGroup(leaseStateStore, coordinator2, coordinator1);
+
+            // all the demand is on the second coordinator, which gets the whole quota
+            List<MockManagedQueryExecution> queries2 = runQueries(root2, 4);
+            assertEquals(getRunningQueryCount(queries2), 4);
+
+            // demand on the first coordinator halves the lease of the second one, which still runs queries above it
+            List<MockManagedQueryExecution> queries1 = runQueries(root1, 4);
+            root1.processQueuedQueries();
+            root2.processQueuedQueries();
+            assertEquals(getRunningQueryCount(queries1), 0);
+            assertEquals(getRunningQueryCount(queries2), 4);
+
+            // the first coordinator uses its lease once the queries above the lease of the second one finished
+            queries2.get(0).complete();
+            queries2.get(1).complete();
+            root1.processQueuedQueries();
+            assertEquals(getRunningQueryCount(queries1), 2);
+
+            // new demand on the second coordinator does not take the lease of the first one
+            List<MockManagedQueryExecution> moreQueries2 = runQueries(root2, 2);
+            root2.processQueuedQueries();
+            root1.processQueuedQueries();
+            assertEquals(getRunningQueryCount(moreQueries2), 0);
+            assertEquals(getRunningQueryCount(queries1) + getRunningQueryCount(queries2), 4);
+        }
+    }
+
+    private DistributedResourceGroupTemp createQuotaLeaseRootGroup(StateStore leaseStateStore, InternalNode currentCoordinator, InternalNode otherCoordinator)
+    {
+        InternalNodeManager leaseNodeManager = Mockito.mock(InternalNodeManager.class);
+        when(leaseNodeManager.getCurrentNode()).thenReturn(currentCoordinator);
+        when(leaseNodeManager.getCoordinators()).thenReturn(ImmutableSet.of(currentCoordinator, otherCoordinator));
+        DistributedResourceGroupTemp root = new DistributedResourceGroupTemp(Optional.empty(), "root", (group, export) -> {}, directExecutor(), leaseStateStore, leaseNodeManager, true, 0);
+        resourceGroupBasicSetUp(root, ONE_MEGABYTE, 4, 10);
+        return root;
+    }
+
+    private static List<MockManagedQueryExecution> runQueries(DistributedResourceGroupTemp group, int count)
+    {
+        ImmutableList.Builder<MockManagedQueryExecution> queries = ImmutableList.builder();
+        for (int i = 0; i < count; i++) {
+            MockManagedQueryExecution query = new MockManagedQueryExecution(0);
+            group.run(query);
+            queries.add(query);
+        }
+        return queries.build();
+    }
+
+    private static long getRunningQueryCount(List<MockManagedQueryExecution> queries)
+    {
+        return queries.stream()
+                .filter(query -> query.getState() == RUNNING)
+                .count();
+    }
+
     @Test
     public void testQueueFull()
     {
@@ -0,0 +1,369 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution.scheduler;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableMultiset;
+import com.google.common.collect.ListMultimap;
+import io.airlift.units.DataSize;
+import io.prestosql.cost.StatsAndCosts;
+import io.prestosql.exchange.Exchange;
+import io.prestosql.exchange.ExchangeSinkHandle;
+import io.prestosql.exchange.ExchangeSinkInstanceHandle;
+import io.prestosql.exchange.ExchangeSourceHandle;
+import io.prestosql.exchange.ExchangeSourceSplitter;
+import io.prestosql.exchange.ExchangeSourceStatistics;
+import io.prestosql.exchange.RetryPolicy;
+import io.prestosql.execution.scheduler.StageTaskSourceFactory.HashDistributionTaskSource;
+import io.prestosql.spi.plan.JoinNode;
+import io.prestosql.spi.plan.PlanNode;
+import io.prestosql.spi.plan.PlanNodeId;
+import io.prestosql.spi.plan.Symbol;
+import io.prestosql.sql.planner.Partitioning;
+import io.prestosql.sql.planner.PartitioningScheme;
+import io.prestosql.sql.planner.PlanFragment;
+import io.prestosql.sql.planner.SplitSourceFactory;
+import io.prestosql.sql.planner.plan.PlanFragmentId;
+import io.prestosql.sql.planner.plan.RemoteSourceNode;
+import org.testng.annotations.Test;
+
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableMultiset.toImmutableMultiset;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static io.airlift.concurrent.MoreFutures.getFutureValue;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.GIGABYTE;
+import static io.prestosql.SessionTestUtils.TEST_SESSION;
+import static io.prestosql.operator.StageExecutionDescriptor.ungroupedExecution;
+import static io.prestosql.spi.plan.JoinNode.DistributionType.PARTITIONED;
+import static io.prestosql.spi.plan.JoinNode.Type.FULL;
+import static io.prestosql.spi.plan.JoinNode.Type.INNER;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.sql.planner.SystemPartitioningHandle.FIXED_HASH_DISTRIBUTION;
+import static io.prestosql.sql.planner.plan.ExchangeNode.Type.REPARTITION;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.mockito.Mockito.mock;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestStageTaskSourceFactory
+{
+    private static final PlanNodeId PROBE = new PlanNodeId("probe");
+    private static final PlanNodeId BUILD = new PlanNodeId("build");
+    private static final PlanNodeId REPLICATED = new PlanNodeId("replicated");
+    private static final PlanFragmentId PROBE_FRAGMENT = new PlanFragmentId("1");
+    private static final PlanFragmentId BUILD_FRAGMENT = new PlanFragmentId("2");
+
+    @Test
+    public void testSkewedPartitionIsSplit()
+    {
+        TestingExchange exchange = new TestingExchange();
+        ExchangeSourceHandle probe0 = new TestingExchangeSourceHandle(0, ImmutableMap.of("a0", 30L, "a1", 30L));
+        ExchangeSourceHandle probe1 = new TestingExchangeSourceHandle(1, ImmutableMap.of("s0", 40L, "s1", 40L, "s2", 40L));
+        ExchangeSourceHandle probe1Remainder = new TestingExchangeSourceHandle(1, ImmutableMap.of("s3", 40L, "s4", 40L));
+        ExchangeSourceHandle build0 = new TestingExchangeSourceHandle(0, ImmutableMap.of("b0", 10L));
+        ExchangeSourceHandle build1 = new TestingExchangeSourceHandle(1, ImmutableMap.of("b1", 20L));
+        ExchangeSourceHandle build2 = new TestingExchangeSourceHandle(2, ImmutableMap.of("b2", 5L));
+        ExchangeSourceHandle replicated = new TestingExchangeSourceHandle(0, ImmutableMap.of("r", 5L));
+        ListMultimap<PlanNodeId, ExchangeSourceHandle> partitioned = ImmutableListMultimap.<PlanNodeId, ExchangeSourceHandle>builder()
+                .putAll(PROBE, probe0, probe1, probe1Remainder)
+                .putAll(BUILD, build0, build1, build2)
+                .build();
+
+        IdentityHashMap<ExchangeSourceHandle, Exchange> exchangeForHandle = new IdentityHashMap<>();
+        for (ExchangeSourceHandle handle : ImmutableList.of(probe0, probe1, probe1Remainder, build0, build1, build2, replicated)) {
+            exchangeForHandle.put(handle, exchange);
+        }
+        HashDistributionTaskSource taskSource = new HashDistributionTaskSource(
+                ImmutableMap.of(),
+                exchangeForHandle,
+                partitioned,
+                ImmutableListMultimap.of(REPLICATED, replicated),
+                1,
+                time -> {},
+                new int[] {0, 1, 2},
+                Optional.empty(),
+                Optional.empty(),
+                Long.MAX_VALUE,
+                new DataSize(100, BYTE),
+                new DataSize(1, GIGABYTE),
+                Optional.of(PROBE),
+                directExecutor());
+        List<TaskDescriptor> tasks = getFutureValue(taskSource.getMoreTasks());
+        assertTrue(taskSource.isFinished());
+
+        // partition 1 reads 200 bytes of probe files and is split into tasks of at most 75 bytes of them,
+        // partitions 0 and 2 fit into a single task
+        assertEquals(tasks.size(), 6);
+        assertEquals(tasks.stream().map(TaskDescriptor::getPartitionId).collect(toImmutableList()), ImmutableList.of(0, 1, 2, 3, 4, 5));
+
+        // every probe file is read by exactly one task
+        assertEquals(getFiles(tasks, PROBE), ImmutableMultiset.of("a0", "a1", "s0", "s1", "s2", "s3", "s4"));
+        // the build side of the split partition is read by each of its tasks, the others once
+        assertEquals(getFiles(tasks, BUILD), ImmutableMultiset.<String>builder().add("b0", "b2").addCopies("b1", 5).build());
+        // replicated inputs are read by every task
+        assertEquals(getFiles(tasks, REPLICATED), ImmutableMultiset.<String>builder().addCopies("r", 6).build());
+
+        for (TaskDescriptor task : tasks) {
+            List<String> probeFiles = getFiles(ImmutableList.of(task), PROBE).asList();
+            if (probeFiles.stream().anyMatch(file -> file.startsWith("s"))) {
+                assertEquals(probeFiles.size(), 1);
+                assertEquals(getFiles(ImmutableList.of(task), BUILD), ImmutableMultiset.of("b1"));
+            }
+            else {
+                assertEquals(getFiles(ImmutableList.of(task), BUILD), ImmutableMultiset.of("b0", "b2"));
+            }
+        }
+    }
+
+    @Test
+    public void testBuildSideIsReplicatedUpToMaxBroadcastSize()
+    {
+        // the build side is 20 bytes
+        List<TaskDescriptor> tasks = createAdaptiveJoinTasks(INNER, true, Optional.of(new DataSize(20, BYTE)));
+        assertEquals(tasks.size(), 2);
+        for (TaskDescriptor task : tasks) {
+            assertEquals(getFiles(ImmutableList.of(task), BUILD), ImmutableMultiset.of("b0", "b1"));
+        }
+        assertEquals(getFiles(tasks, PROBE), ImmutableMultiset.of("p0", "p1"));
+    }
+
+    @Test
+    public void testBuildSideStaysPartitionedAboveMaxBroadcastSize()
+    {
+        assertPartitioned(createAdaptiveJoinTasks(INNER, true, Optional.of(new DataSize(19, BYTE))));
+        assertPartitioned(createAdaptiveJoinTasks(INNER, true, Optional.empty()));
+        assertPartitioned(createAdaptiveJoinTasks(INNER, false, Optional.of(new DataSize(20, BYTE))));
+        // the probe side of a full join has to see every build row of its partition
+        assertPartitioned(createAdaptiveJoinTasks(FULL, true, Optional.of(new DataSize(20, BYTE))));
+    }
+
+    @Test
+    public void testFindAdaptivePartitionedJoin()
+    {
+        Optional<AdaptivePartitionedJoin> join = AdaptivePartitionedJoin.find(createJoinFragment(INNER));
+        assertTrue(join.isPresent());
+        assertEquals(join.get().getProbeSource(), PROBE);
+        assertEquals(join.get().getBuildSource(), BUILD);
+
+        assertFalse(AdaptivePartitionedJoin.find(createJoinFragment(FULL)).isPresent());
+    }
+
+    private static void assertPartitioned(List<TaskDescriptor> tasks)
+    {
+        assertEquals(tasks.size(), 2);
+        for (TaskDescriptor task : tasks) {
+            String probeFile = getOnlyFile(task, PROBE);
+            String buildFile = getOnlyFile(task, BUILD);
+            assertEquals(buildFile.substring(1), probeFile.substring(1));
+        }
+    }
+
+    private static List<TaskDescriptor> createAdaptiveJoinTasks(JoinNode.Type joinType, boolean adaptiveJoinEnabled, Optional<DataSize> maxBroadcastSize)
+    {
+        TestingExchange probeExchange = new TestingExchange();
+        TestingExchange buildExchange = new TestingExchange();
+        HashDistributionTaskSource taskSource = HashDistributionTaskSource.create(
+                TEST_SESSION,
+                createJoinFragment(joinType),
+                mock(SplitSourceFactory.class),
+                ImmutableMap.of(PROBE_FRAGMENT, probeExchange, BUILD_FRAGMENT, buildExchange),
+                ImmutableListMultimap.<PlanFragmentId, ExchangeSourceHandle>builder()
+                        .putAll(PROBE_FRAGMENT, new TestingExchangeSourceHandle(0, ImmutableMap.of("p0", 60L)), new TestingExchangeSourceHandle(1, ImmutableMap.of("p1", 60L)))
+                        .putAll(BUILD_FRAGMENT, new TestingExchangeSourceHandle(0, ImmutableMap.of("b0", 10L)), new TestingExchangeSourceHandle(1, ImmutableMap.of("b1", 10L)))
+                        .build(),
+                1,
+                time -> {},
+                new int[] {0, 1},
+                Optional.empty(),
+                Long.MAX_VALUE,
+                new DataSize(100, BYTE),
+                false,
+                adaptiveJoinEnabled,
+                maxBroadcastSize,
+                directExecutor());
+        return getFutureValue(taskSource.getMoreTasks());
+    }
+
+    private static PlanFragment createJoinFragment(JoinNode.Type joinType)
+    {
+        Symbol probeKey = new Symbol("probe_key");
+        Symbol buildKey = new Symbol("build_key");
+        RemoteSourceNode probe = new RemoteSourceNode(PROBE, PROBE_FRAGMENT, ImmutableList.of(probeKey), Optional.empty(), REPARTITION, RetryPolicy.TASK);
+        RemoteSourceNode build = new RemoteSourceNode(BUILD, BUILD_FRAGMENT, ImmutableList.of(buildKey), Optional.empty(), REPARTITION, RetryPolicy.TASK);
+        PlanNode join = new JoinNode(
+                new PlanNodeId("join"),
+                joinType,
+                probe,
+                build,
+                ImmutableList.of(new JoinNode.EquiJoinClause(probeKey, buildKey)),
+                ImmutableList.of(probeKey, buildKey),
+                Optional.empty(),
+                Optional.empty(),
+                Optional.empty(),
+                Optional.of(PARTITIONED),
+                Optional.empty(),
+                ImmutableMap.of());
+        return new PlanFragment(
+                new PlanFragmentId("0"),
+                join,
+                ImmutableMap.of(probeKey, BIGINT, buildKey, BIGINT),
+                FIXED_HASH_DISTRIBUTION,
+                ImmutableList.of(),
+                new PartitioningScheme(Partitioning.create(FIXED_HASH_DISTRIBUTION, ImmutableList.of()), join.getOutputSymbols()),
+                ungroupedExecution(),
+                StatsAndCosts.empty(),
+                Optional.empty(),
+                Optional.empty(),
+                Optional.empty());
+    }
+
+    private static ImmutableMultiset<String> getFiles(List<TaskDescriptor> tasks, PlanNodeId planNodeId)
+    {
+        return tasks.stream()
+                .flatMap(task -> task.getExchangeSourceHandles().get(planNodeId).stream())
+                .flatMap(handle -> ((TestingExchangeSourceHandle) handle).getFiles().keySet().stream())
+                .collect(toImmutableMultiset());
+    }
+
+    private static String getOnlyFile(TaskDescriptor task, PlanNodeId planNodeId)
+    {
+        ImmutableMultiset<String> files = getFiles(ImmutableList.of(task), planNodeId);
+        assertEquals(files.size(), 1);
+        return files.iterator().next();
+    }
+
+    private static class TestingExchange
+            implements Exchange
+    {
+        @Override
+        public ExchangeSinkHandle addSink(int taskPartitionId)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void noMoreSinks()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ExchangeSinkInstanceHandle instantiateSink(ExchangeSinkHandle sinkHandle, int taskAttemptId)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void sinkFinished(ExchangeSinkInstanceHandle handle)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<List<ExchangeSourceHandle>> getSourceHandles()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ExchangeSourceSplitter split(ExchangeSourceHandle handle, long targetSizeInBytes)
+        {
+            // one handle per file, like the file system exchange
+            TestingExchangeSourceHandle sourceHandle = (TestingExchangeSourceHandle) handle;
+            Iterator<Map.Entry<String, Long>> files = sourceHandle.getFiles().entrySet().iterator();
+            return new ExchangeSourceSplitter()
+            {
+                @Override
+                public CompletableFuture<Void> isBlocked()
+                {
+                    return completedFuture(null);
+                }
+
+                @Override
+                public Optional<ExchangeSourceHandle> getNext()
+                {
+                    if (!files.hasNext()) {
+                        return Optional.empty();
+                    }
+                    Map.Entry<String, Long> file = files.next();
+                    return Optional.of(new TestingExchangeSourceHandle(sourceHandle.getPartitionId(), ImmutableMap.of(file.getKey(), file.getValue())));
+                }
+
+                @Override
+                public void close()
+                {
+                }
+            };
+        }
+
+        @Override
+        public ExchangeSourceStatistics getExchangeSourceStatistics(ExchangeSourceHandle handle)
+        {
+            return new ExchangeSourceStatistics(((TestingExchangeSourceHandle) handle).getFiles().values().stream().mapToLong(Long::longValue).sum());
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+
+    private static class TestingExchangeSourceHandle
+            implements ExchangeSourceHandle
+    {
+        private final int partitionId;
+        private final Map<String, Long> files;
+
+        private TestingExchangeSourceHandle(int partitionId, Map<String, Long> files)
+        {
+            this.partitionId = partitionId;
+            this.files = ImmutableMap.copyOf(requireNonNull(files, "files is null"));
+        }
+
+        @Override
+        public int getPartitionId()
+        {
+            return partitionId;
+        }
+
+        @Override
+        public long getRetainedSizeInBytes()
+        {
+            return 0;
+        }
+
+        public Map<String, Long> getFiles()
+        {
+            return files;
+        }
+
+        @Override
+        public String toString()
+        {
+            return partitionId + ":" + files.keySet();
+        }
+    }
+}
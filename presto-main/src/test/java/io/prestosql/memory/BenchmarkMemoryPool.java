@@ -0,0 +1,128 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.memory;
+
+import io.airlift.units.DataSize;
+import io.prestosql.spi.QueryId;
+import io.prestosql.spi.memory.MemoryPoolId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.airlift.units.DataSize.Unit.GIGABYTE;
+
+/**
+ * Measures reserve/free throughput when many threads account memory for many small queries
+ * in the same pool, which is how a worker with many cores and many concurrent queries uses it.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@BenchmarkMode(Mode.Throughput)
+@Fork(2)
+@Threads(32)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+public class BenchmarkMemoryPool
+{
+    private static final String TAG = "BenchmarkOperator";
+
+    @Param({"1", "64"})
+    private int queries = 64;
+
+    private MemoryPool pool;
+    private QueryId[] queryIds;
+    private final AtomicInteger nextThread = new AtomicInteger();
+
+    @Setup
+    public void setup()
+    {
+        pool = new MemoryPool(new MemoryPoolId("test"), new DataSize(100, GIGABYTE));
+        queryIds = new QueryId[queries];
+        for (int i = 0; i < queries; i++) {
+            queryIds[i] = new QueryId("query_" + i);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState
+    {
+        private QueryId queryId;
+
+        @Setup
+        public void setup(BenchmarkMemoryPool benchmark)
+        {
+            queryId = benchmark.queryIds[benchmark.nextThread.getAndIncrement() % benchmark.queryIds.length];
+        }
+    }
+
+    @Benchmark
+    public long reserveAndFree(ThreadState state)
+    {
+        long bytes = ThreadLocalRandom.current().nextInt(1, 64 * 1024);
+        pool.reserve(state.queryId, TAG, bytes);
+        pool.free(state.queryId, TAG, bytes);
+        return bytes;
+    }
+
+    @Benchmark
+    public boolean tryReserveAndFree(ThreadState state)
+    {
+        long bytes = ThreadLocalRandom.current().nextInt(1, 64 * 1024);
+        boolean reserved = pool.tryReserve(state.queryId, TAG, bytes);
+        if (reserved) {
+            pool.free(state.queryId, TAG, bytes);
+        }
+        return reserved;
+    }
+
+    @Benchmark
+    public long reserveAndFreeWithInfo(ThreadState state)
+    {
+        long bytes = ThreadLocalRandom.current().nextInt(1, 64 * 1024);
+        pool.reserve(state.queryId, TAG, bytes);
+        // the memory info endpoint and the low memory killer read the per query reservations concurrently
+        long reserved = pool.getQueryMemoryReservation(state.queryId);
+        pool.free(state.queryId, TAG, bytes);
+        return reserved;
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkMemoryPool.class.getSimpleName() + ".*")
+                .build();
+
+        new Runner(options).run();
+    }
+}
@@ -44,6 +44,11 @@ import org.testng.annotations.Test;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
@@ -57,6 +62,7 @@ import static io.prestosql.testing.TestingRecoveryUtils.NOOP_RECOVERY_UTILS;
 import static io.prestosql.testing.TestingSession.testSessionBuilder;
 import static io.prestosql.testing.TestingTaskContext.createTaskContext;
 import static java.lang.String.format;
+import static java.util.concurrent.Executors.newFixedThreadPool;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNull;
@@ -258,6 +264,50 @@ public class TestMemoryPools
         assertEquals(testPool.getTaggedMemoryAllocations().size(), 0);
     }
 
+    @Test
+    public void testConcurrentReservations()
+            throws Exception
+    {
+        int threads = 8;
+        MemoryPool testPool = new MemoryPool(new MemoryPoolId("test"), new DataSize(500, BYTE));
+        Queue<ListenableFuture<?>> blockedFutures = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = newFixedThreadPool(threads);
+        try {
+            ImmutableList.Builder<Future<?>> tasks = ImmutableList.builder();
+            for (int i = 0; i < threads; i++) {
+                QueryId queryId = new QueryId("query_" + i);
+                tasks.add(executor.submit(() -> {
+                    start.await();
+                    for (int iteration = 0; iteration < 10_000; iteration++) {
+                        ListenableFuture<?> future = testPool.reserve(queryId, "test_tag", 100);
+                        if (!future.isDone()) {
+                            blockedFutures.add(future);
+                        }
+                        testPool.free(queryId, "test_tag", 100);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> task : tasks.build()) {
+                task.get();
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(testPool.getReservedBytes(), 0);
+        assertEquals(testPool.getFreeBytes(), 500);
+        assertEquals(testPool.getTaggedMemoryAllocations().size(), 0);
+        assertEquals(testPool.getInfo().getQueryMemoryReservations().size(), 0);
+        // every blocked reservation must have been released once memory was freed
+        for (ListenableFuture<?> future : blockedFutures) {
+            assertTrue(future.isDone());
+        }
+    }
+
     @Test
     public void testMoveQuery()
     {
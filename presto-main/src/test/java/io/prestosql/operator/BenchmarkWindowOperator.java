@@ -17,9 +17,15 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.primitives.Ints;
 import io.airlift.units.DataSize;
 import io.prestosql.RowPagesBuilder;
+import io.prestosql.metadata.Metadata;
+import io.prestosql.operator.aggregation.InternalAggregationFunction;
+import io.prestosql.operator.window.AggregateWindowFunction;
+import io.prestosql.operator.window.FrameInfo;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.block.BlockBuilder;
 import io.prestosql.spi.block.SortOrder;
+import io.prestosql.spi.connector.QualifiedObjectName;
+import io.prestosql.spi.function.Signature;
 import io.prestosql.spi.type.Type;
 import io.prestosql.testing.TestingTaskContext;
 import org.openjdk.jmh.annotations.Benchmark;
@@ -42,17 +48,25 @@ import org.testng.annotations.Test;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.airlift.units.DataSize.Unit.GIGABYTE;
 import static io.prestosql.SessionTestUtils.TEST_SESSION;
+import static io.prestosql.block.BlockAssertions.createLongRepeatBlock;
 import static io.prestosql.block.BlockAssertions.createLongSequenceBlock;
+import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
 import static io.prestosql.operator.BenchmarkWindowOperator.Context.ROWS_PER_PAGE;
 import static io.prestosql.operator.BenchmarkWindowOperator.Context.TOTAL_PAGES;
 import static io.prestosql.operator.TestWindowOperator.ROW_NUMBER;
 import static io.prestosql.operator.TestWindowOperator.createFactoryUnbounded;
+import static io.prestosql.operator.WindowFunctionDefinition.window;
+import static io.prestosql.spi.function.FunctionKind.AGGREGATE;
+import static io.prestosql.spi.sql.expression.Types.FrameBoundType.CURRENT_ROW;
+import static io.prestosql.spi.sql.expression.Types.FrameBoundType.PRECEDING;
+import static io.prestosql.spi.sql.expression.Types.WindowFrameType.ROWS;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
@@ -227,13 +241,88 @@ public class BenchmarkWindowOperator
         }
     }
 
+    @State(Thread)
+    public static class SlidingFrameContext
+    {
+        private static final int SLIDING_FRAME_PAGES = 20;
+        private static final Metadata METADATA = createTestMetadataManager();
+
+        // sum removes the rows leaving the frame, min is answered from a segment tree
+        @Param({"sum", "min"})
+        public String function = "sum";
+
+        @Param({"10", "1000", "10000"})
+        public int rowsPreceding = 1000;
+
+        private ExecutorService executor;
+        private ScheduledExecutorService scheduledExecutor;
+        private OperatorFactory operatorFactory;
+        private List<Page> pages;
+
+        @Setup
+        public void setup()
+        {
+            executor = newCachedThreadPool(daemonThreadsNamed("test-executor-%s"));
+            scheduledExecutor = newScheduledThreadPool(2, daemonThreadsNamed("test-scheduledExecutor-%s"));
+
+            // <function>(value) OVER (PARTITION BY page ORDER BY position ROWS <rowsPreceding> PRECEDING)
+            Signature signature = new Signature(QualifiedObjectName.valueOfDefaultFunction(function), AGGREGATE, BIGINT.getTypeSignature(), BIGINT.getTypeSignature());
+            InternalAggregationFunction aggregation = METADATA.getFunctionAndTypeManager().getAggregateFunctionImplementation(signature);
+            FrameInfo frame = new FrameInfo(ROWS, PRECEDING, Optional.of(3), CURRENT_ROW, Optional.empty());
+            operatorFactory = createFactoryUnbounded(
+                    ImmutableList.of(BIGINT, BIGINT, BIGINT, BIGINT),
+                    Ints.asList(0, 1, 2),
+                    ImmutableList.of(window(AggregateWindowFunction.supplier(signature, aggregation), BIGINT, frame, 2)),
+                    Ints.asList(0),
+                    Ints.asList(0),
+                    Ints.asList(1),
+                    ImmutableList.of(SortOrder.ASC_NULLS_LAST),
+                    1,
+                    new DummySpillerFactory(),
+                    false);
+
+            RowPagesBuilder pagesBuilder = RowPagesBuilder.rowPagesBuilder(BIGINT, BIGINT, BIGINT, BIGINT);
+            for (int i = 0; i < SLIDING_FRAME_PAGES; i++) {
+                pagesBuilder.addBlocksPage(
+                        createLongRepeatBlock(i, ROWS_PER_PAGE),
+                        createLongSequenceBlock(0, ROWS_PER_PAGE),
+                        createLongSequenceBlock(i, i + ROWS_PER_PAGE),
+                        createLongRepeatBlock(rowsPreceding, ROWS_PER_PAGE));
+            }
+            pages = pagesBuilder.build();
+        }
+
+        @TearDown
+        public void cleanup()
+        {
+            executor.shutdownNow();
+            scheduledExecutor.shutdownNow();
+        }
+
+        public TaskContext createTaskContext()
+        {
+            return TestingTaskContext.createTaskContext(executor, scheduledExecutor, TEST_SESSION, new DataSize(2, GIGABYTE));
+        }
+    }
+
     @Benchmark
     public List<Page> benchmark(BenchmarkWindowOperator.Context context)
     {
-        DriverContext driverContext = context.createTaskContext().addPipelineContext(0, true, true, false).addDriverContext();
-        Operator operator = context.getOperatorFactory().createOperator(driverContext);
+        return runOperator(context.createTaskContext(), context.getOperatorFactory(), context.getPages());
+    }
 
-        Iterator<Page> input = context.getPages().iterator();
+    @Benchmark
+    public List<Page> benchmarkSlidingFrame(SlidingFrameContext context)
+    {
+        return runOperator(context.createTaskContext(), context.operatorFactory, context.pages);
+    }
+
+    private static List<Page> runOperator(TaskContext taskContext, OperatorFactory operatorFactory, List<Page> pages)
+    {
+        DriverContext driverContext = taskContext.addPipelineContext(0, true, true, false).addDriverContext();
+        Operator operator = operatorFactory.createOperator(driverContext);
+
+        Iterator<Page> input = pages.iterator();
         ImmutableList.Builder<Page> outputPages = ImmutableList.builder();
 
         boolean finishing = false;
@@ -306,6 +395,22 @@ public class BenchmarkWindowOperator
         verify(10, 3, true);
     }
 
+    @Test
+    public void verifySlidingFrame()
+    {
+        for (String function : ImmutableList.of("sum", "min")) {
+            SlidingFrameContext context = new SlidingFrameContext();
+            context.function = function;
+            context.rowsPreceding = 1000;
+            context.setup();
+
+            List<Page> outputPages = benchmarkSlidingFrame(context);
+            assertEquals(outputPages.stream().mapToInt(Page::getPositionCount).sum(), SlidingFrameContext.SLIDING_FRAME_PAGES * ROWS_PER_PAGE);
+
+            context.cleanup();
+        }
+    }
+
     private void verify(
             int numberOfRowsPerPartition,
             int numberOfPreGroupedColumns,
@@ -212,6 +212,39 @@ public class TestGroupByHash
         }
     }
 
+    @Test
+    public void testDictionarySharedAcrossPages()
+    {
+        // the dictionary is larger than the pages, so it is only processed once it shows up again
+        Block dictionary = createStringSequenceBlock(0, 100);
+        Block hashDictionary = getHashBlock(ImmutableList.of(VARCHAR), dictionary);
+        DictionaryId dictionaryId = randomDictionaryId();
+        GroupByHash groupByHash = createGroupByHash(ImmutableList.of(VARCHAR), new int[] {0}, Optional.of(1), 100, false, JOIN_COMPILER, UpdateMemory.NOOP);
+
+        assertGroupIds(groupByHash, createDictionaryPage(dictionary, hashDictionary, dictionaryId, 10, 20, 10), 0, 1, 0);
+        assertGroupIds(groupByHash, createDictionaryPage(dictionary, hashDictionary, dictionaryId, 20, 30), 1, 2);
+        assertGroupIds(groupByHash, createDictionaryPage(dictionary, hashDictionary, dictionaryId, 30, 10, 40), 2, 0, 3);
+        assertEquals(groupByHash.getGroupCount(), 4);
+    }
+
+    private static Page createDictionaryPage(Block dictionary, Block hashDictionary, DictionaryId dictionaryId, int... ids)
+    {
+        return new Page(
+                new DictionaryBlock(ids.length, dictionary, ids, dictionaryId),
+                new DictionaryBlock(ids.length, hashDictionary, ids, dictionaryId));
+    }
+
+    private static void assertGroupIds(GroupByHash groupByHash, Page page, long... expectedGroupIds)
+    {
+        Work<GroupByIdBlock> work = groupByHash.getGroupIds(page);
+        assertTrue(work.process());
+        GroupByIdBlock groupIds = work.getResult();
+        assertEquals(groupIds.getPositionCount(), expectedGroupIds.length);
+        for (int position = 0; position < expectedGroupIds.length; position++) {
+            assertEquals(groupIds.getGroupId(position), expectedGroupIds[position]);
+        }
+    }
+
     @Test
     public void testGetGroupNeedRehash()
     {
@@ -39,6 +39,8 @@ import io.prestosql.operator.index.PageBuffer;
 import io.prestosql.operator.index.PageBufferOperator.PageBufferOperatorFactory;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.DictionaryBlock;
 import io.prestosql.spi.plan.PlanNodeId;
 import io.prestosql.spi.snapshot.MarkerPage;
 import io.prestosql.spi.snapshot.RestorableConfig;
@@ -95,6 +97,7 @@ import static io.airlift.units.DataSize.Unit.BYTE;
 import static io.prestosql.RowPagesBuilder.rowPagesBuilder;
 import static io.prestosql.SessionTestUtils.TEST_SESSION;
 import static io.prestosql.SessionTestUtils.TEST_SNAPSHOT_SESSION;
+import static io.prestosql.block.BlockAssertions.createLongsBlock;
 import static io.prestosql.operator.OperatorAssertion.assertOperatorEquals;
 import static io.prestosql.operator.OperatorAssertion.assertOperatorEqualsWithSimpleStateComparison;
 import static io.prestosql.operator.OperatorAssertion.dropChannel;
@@ -105,6 +108,7 @@ import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.spi.type.VarcharType.VARCHAR;
 import static io.prestosql.sql.planner.SystemPartitioningHandle.FIXED_HASH_DISTRIBUTION;
 import static io.prestosql.testing.assertions.Assert.assertEquals;
+import static io.prestosql.type.TypeUtils.getHashPage;
 import static java.lang.String.format;
 import static java.util.Arrays.asList;
 import static java.util.Collections.nCopies;
@@ -752,6 +756,51 @@ public class TestHashJoinOperator
         assertOperatorEquals(joinOperatorFactory, taskContext.addPipelineContext(0, true, true, false).addDriverContext(), probeInput, expected, true, getHashChannels(probePages, buildPages));
     }
 
+    @Test(dataProvider = "hashJoinTestValues")
+    public void testInnerJoinWithDictionaryProbe(boolean parallelBuild, boolean probeHashEnabled, boolean buildHashEnabled)
+    {
+        TaskContext taskContext = createTaskContext();
+
+        // build factory
+        RowPagesBuilder buildPages = rowPagesBuilder(buildHashEnabled, Ints.asList(0), ImmutableList.of(BIGINT))
+                .addSequencePage(10, 0);
+        BuildSideSetup buildSideSetup = setupBuildSide(parallelBuild, taskContext, Ints.asList(0), buildPages, Optional.empty(), false, SINGLE_STREAM_SPILLER_FACTORY);
+        JoinBridgeManager<PartitionedLookupSourceFactory> lookupSourceFactory = buildSideSetup.getLookupSourceFactoryManager();
+
+        // probe factory, both pages share the dictionary as pages of an ORC stripe do
+        List<Type> probeTypes = ImmutableList.of(BIGINT);
+        RowPagesBuilder probePages = rowPagesBuilder(probeHashEnabled, Ints.asList(0), probeTypes);
+        Block dictionary = createLongsBlock(1L, 5L, 20L, null, 9L);
+        List<Page> probeInput = ImmutableList.of(
+                new Page(new DictionaryBlock(dictionary, new int[] {0, 1, 2, 3, 4, 0, 1, 4})),
+                new Page(new DictionaryBlock(dictionary, new int[] {4, 4, 2, 1})));
+        if (probeHashEnabled) {
+            probeInput = probeInput.stream()
+                    .map(page -> getHashPage(page, probeTypes, Ints.asList(0)))
+                    .collect(toImmutableList());
+        }
+        OperatorFactory joinOperatorFactory = innerJoinOperatorFactory(lookupSourceFactory, probePages, PARTITIONING_SPILLER_FACTORY);
+
+        // build drivers and operators
+        instantiateBuildDrivers(buildSideSetup, taskContext);
+        buildLookupSource(buildSideSetup);
+
+        // expected
+        MaterializedResult expected = MaterializedResult.resultBuilder(taskContext.getSession(), concat(probeTypes, buildPages.getTypesWithoutHash()))
+                .row(1L, 1L)
+                .row(5L, 5L)
+                .row(9L, 9L)
+                .row(1L, 1L)
+                .row(5L, 5L)
+                .row(9L, 9L)
+                .row(9L, 9L)
+                .row(9L, 9L)
+                .row(5L, 5L)
+                .build();
+
+        assertOperatorEquals(joinOperatorFactory, taskContext.addPipelineContext(0, true, true, false).addDriverContext(), probeInput, expected, true, getHashChannels(probePages, buildPages));
+    }
+
     @Test(dataProvider = "hashJoinTestValues")
     public void testInnerJoinWithNullBuild(boolean parallelBuild, boolean probeHashEnabled, boolean buildHashEnabled)
     {
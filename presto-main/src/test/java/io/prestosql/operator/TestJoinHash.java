@@ -0,0 +1,88 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.collect.ImmutableList;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.DictionaryBlock;
+import org.testng.annotations.Test;
+
+import java.util.stream.IntStream;
+
+import static io.airlift.slice.SizeOf.sizeOf;
+import static io.prestosql.SessionTestUtils.TEST_SESSION;
+import static io.prestosql.block.BlockAssertions.createStringsBlock;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static io.prestosql.type.TypeUtils.getHashBlock;
+import static org.testng.Assert.assertEquals;
+
+public class TestJoinHash
+{
+    @Test
+    public void testDictionaryProbe()
+    {
+        PagesIndex pagesIndex = new PagesIndex.TestingFactory(false).newPagesIndex(ImmutableList.of(VARCHAR), 10);
+        pagesIndex.addPage(new Page(createStringsBlock("a", "b", "c", "a")));
+        LookupSource lookupSource = pagesIndex.createLookupSourceSupplier(TEST_SESSION, ImmutableList.of(0)).get();
+
+        // the dictionary is larger than the first page, so it is only looked up per entry once it shows up again
+        Block dictionary = createStringsBlock("b", "x", "a", "c", "y");
+        assertJoinPositions(lookupSource, new DictionaryBlock(dictionary, new int[] {2, 1, 2}), false);
+        assertJoinPositions(lookupSource, new DictionaryBlock(dictionary, new int[] {0, 2, 3, 4, 0}), false);
+        assertJoinPositions(lookupSource, new DictionaryBlock(dictionary, new int[] {4, 3, 1}), true);
+        assertJoinPositions(lookupSource, new DictionaryBlock(createStringsBlock("c", "b"), new int[] {1, 0, 1}), true);
+    }
+
+    @Test
+    public void testDictionaryProbeRetainedSize()
+    {
+        PagesIndex pagesIndex = new PagesIndex.TestingFactory(false).newPagesIndex(ImmutableList.of(VARCHAR), 10);
+        pagesIndex.addPage(new Page(createStringsBlock("a", "b", "c", "a")));
+        LookupSource lookupSource = pagesIndex.createLookupSourceSupplier(TEST_SESSION, ImmutableList.of(0)).get();
+        long initialSize = lookupSource.getInMemorySizeInBytes();
+
+        // the cached addresses and the dictionary they belong to are accounted for
+        Block dictionary = createStringsBlock("b", "x", "a", "c", "y");
+        assertJoinPositions(lookupSource, new DictionaryBlock(dictionary, new int[] {2, 1, 2}), false);
+        assertEquals(lookupSource.getInMemorySizeInBytes(), initialSize + dictionary.getRetainedSizeInBytes());
+        assertJoinPositions(lookupSource, new DictionaryBlock(dictionary, new int[] {0, 2, 3, 4, 0}), false);
+        assertEquals(lookupSource.getInMemorySizeInBytes(), initialSize + dictionary.getRetainedSizeInBytes() + sizeOf(new int[dictionary.getPositionCount()]));
+
+        // a new dictionary that is not cached releases the previous cache
+        Block otherDictionary = createStringsBlock("c", "b", "a", "z");
+        assertJoinPositions(lookupSource, new DictionaryBlock(otherDictionary, new int[] {1, 0}), false);
+        assertEquals(lookupSource.getInMemorySizeInBytes(), initialSize + otherDictionary.getRetainedSizeInBytes());
+    }
+
+    private static void assertJoinPositions(LookupSource lookupSource, DictionaryBlock probeBlock, boolean withHashes)
+    {
+        Page probePage = new Page(probeBlock);
+        int[] positions = IntStream.range(0, probeBlock.getPositionCount()).toArray();
+        long[] rawHashes = null;
+        if (withHashes) {
+            Block hashBlock = getHashBlock(ImmutableList.of(VARCHAR), probeBlock);
+            rawHashes = new long[positions.length];
+            for (int position : positions) {
+                rawHashes[position] = hashBlock.getLong(position, 0);
+            }
+        }
+
+        long[] actual = new long[positions.length];
+        lookupSource.getJoinPosition(positions, probeBlock, probePage, rawHashes, actual);
+        for (int position : positions) {
+            assertEquals(actual[position], lookupSource.getJoinPosition(position, probePage, probePage));
+        }
+    }
+}
@@ -30,17 +30,50 @@ public class TestJoinOperatorInfo
                 JoinType.INNER,
                 makeHistogramArray(10, 20, 30, 40, 50, 60, 70, 80),
                 makeHistogramArray(12, 22, 32, 42, 52, 62, 72, 82),
-                Optional.of(1L));
+                Optional.of(1L),
+                1,
+                360);
         JoinOperatorInfo other = new JoinOperatorInfo(
                 JoinType.INNER,
                 makeHistogramArray(11, 21, 31, 41, 51, 61, 71, 81),
                 makeHistogramArray(15, 25, 35, 45, 55, 65, 75, 85),
-                Optional.of(2L));
+                Optional.of(2L),
+                1,
+                368);
 
         JoinOperatorInfo merged = base.mergeWith(other);
         assertEquals(makeHistogramArray(21, 41, 61, 81, 101, 121, 141, 161), merged.getLogHistogramProbes());
         assertEquals(makeHistogramArray(27, 47, 67, 87, 107, 127, 147, 167), merged.getLogHistogramOutput());
         assertEquals(merged.getLookupSourcePositions(), Optional.of(3L));
+        assertEquals(merged.getOperatorCount(), 2);
+        assertEquals(merged.getMaxOperatorProbePositions(), 368);
+        assertEquals(merged.getTotalProbePositions(), 728);
+    }
+
+    @Test
+    public void testProbeSkew()
+    {
+        long[] counters = new long[16];
+        // one operator probing 90 positions, the other 10
+        counters[2] = 90;
+        JoinOperatorInfo hot = JoinOperatorInfo.createJoinOperatorInfo(JoinType.INNER, counters, Optional.empty());
+        counters[2] = 10;
+        JoinOperatorInfo cold = JoinOperatorInfo.createJoinOperatorInfo(JoinType.INNER, counters, Optional.empty());
+
+        assertEquals(hot.getProbeSkew(), 1.0);
+        JoinOperatorInfo merged = hot.mergeWith(cold);
+        assertEquals(merged.getMaxOperatorProbePositions(), 90);
+        assertEquals(merged.getProbeSkew(), 1.8);
+    }
+
+    @Test
+    public void testProbeSkewWithoutOperatorCount()
+    {
+        long[] counters = new long[8];
+        counters[0] = 90;
+        JoinOperatorInfo info = new JoinOperatorInfo(JoinType.INNER, counters, new long[8], Optional.empty(), 0, 0);
+        assertEquals(info.getProbeSkew(), 1.0);
+        assertEquals(info.mergeWith(info).getProbeSkew(), 1.0);
     }
 
     private long[] makeHistogramArray(long... longArray)
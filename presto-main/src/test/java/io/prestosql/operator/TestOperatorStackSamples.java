@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2018-2022. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static io.prestosql.operator.OperatorStackSamples.MAX_DISTINCT_STACKS;
+import static io.prestosql.operator.OperatorStackSamples.OTHER_STACKS;
+import static io.prestosql.operator.OperatorStackSamples.fold;
+import static io.prestosql.operator.OperatorStackSamples.limit;
+import static org.testng.Assert.assertEquals;
+
+public class TestOperatorStackSamples
+{
+    @Test
+    public void testFold()
+    {
+        StackTraceElement[] stackTrace = {
+                new StackTraceElement("io.prestosql.Reader", "read", "Reader.java", 10),
+                new StackTraceElement("io.prestosql.TestOperator", "getOutput", "TestOperator.java", 20),
+                new StackTraceElement(Driver.class.getName(), "processInternal", "Driver.java", 30),
+                new StackTraceElement(Driver.class.getName(), "processFor", "Driver.java", 40),
+                new StackTraceElement("java.lang.Thread", "run", "Thread.java", 50)};
+
+        assertEquals(fold(stackTrace), "io.prestosql.TestOperator.getOutput;io.prestosql.Reader.read");
+    }
+
+    @Test
+    public void testRecord()
+    {
+        OperatorStackSamples samples = new OperatorStackSamples();
+        StackTraceElement[] stackTrace = {new StackTraceElement("io.prestosql.TestOperator", "addInput", "TestOperator.java", 20)};
+        samples.record(stackTrace);
+        samples.record(stackTrace);
+
+        assertEquals(samples.getSamples(), ImmutableMap.of("io.prestosql.TestOperator.addInput", 2L));
+    }
+
+    @Test
+    public void testLimit()
+    {
+        Map<String, Long> samples = new HashMap<>();
+        for (int i = 0; i < MAX_DISTINCT_STACKS + 10; i++) {
+            samples.put("stack" + i, (long) i + 1);
+        }
+
+        Map<String, Long> limited = limit(samples);
+        assertEquals(limited.size(), MAX_DISTINCT_STACKS);
+        assertEquals(limited.values().stream().mapToLong(Long::longValue).sum(), samples.values().stream().mapToLong(Long::longValue).sum());
+        // the 11 least sampled stacks are folded together
+        assertEquals(limited.get(OTHER_STACKS).longValue(), 66L);
+    }
+}
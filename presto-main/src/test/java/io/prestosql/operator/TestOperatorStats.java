@@ -13,6 +13,7 @@
  */
 package io.prestosql.operator;
 
+import com.google.common.collect.ImmutableMap;
 import io.airlift.json.JsonCodec;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
@@ -78,6 +79,9 @@ public class TestOperatorStats
             new Duration(27, NANOSECONDS),
             new Duration(28, NANOSECONDS),
             Optional.empty(),
+            ImmutableMap.of("test.Operator.getOutput;test.Reader.read", 29L),
+            30,
+            31,
             NON_MERGEABLE_INFO);
 
     public static final OperatorStats MERGEABLE = new OperatorStats(
@@ -126,6 +130,9 @@ public class TestOperatorStats
             new Duration(27, NANOSECONDS),
             new Duration(28, NANOSECONDS),
             Optional.empty(),
+            ImmutableMap.of(),
+            30,
+            31,
             MERGEABLE_INFO);
 
     @Test
@@ -182,6 +189,9 @@ public class TestOperatorStats
         assertEquals(actual.getSpilledDataSize(), new DataSize(26, BYTE));
         assertEquals(actual.getSpillReadTime(), new Duration(27, NANOSECONDS));
         assertEquals(actual.getSpillWriteTime(), new Duration(28, NANOSECONDS));
+        assertEquals(actual.getStackSamples(), ImmutableMap.of("test.Operator.getOutput;test.Reader.read", 29L));
+        assertEquals(actual.getInterpretedPages(), 30);
+        assertEquals(actual.getCompiledPages(), 31);
         assertEquals(actual.getInfo().getClass(), SplitOperatorInfo.class);
         assertEquals(((SplitOperatorInfo) actual.getInfo()).getSplitInfo(), NON_MERGEABLE_INFO.getSplitInfo());
     }
@@ -231,6 +241,9 @@ public class TestOperatorStats
         assertEquals(actual.getSpilledDataSize(), new DataSize(3 * 26, BYTE));
         assertEquals(actual.getSpillReadTime(), new Duration(3 * 27, NANOSECONDS));
         assertEquals(actual.getSpillWriteTime(), new Duration(3 * 28, NANOSECONDS));
+        assertEquals(actual.getStackSamples(), ImmutableMap.of("test.Operator.getOutput;test.Reader.read", 3 * 29L));
+        assertEquals(actual.getInterpretedPages(), 3 * 30);
+        assertEquals(actual.getCompiledPages(), 3 * 31);
         assertNull(actual.getInfo());
     }
 
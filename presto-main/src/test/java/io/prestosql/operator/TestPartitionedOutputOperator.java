@@ -24,6 +24,8 @@ import io.prestosql.operator.output.PartitionedOutputOperator;
 import io.prestosql.operator.output.PositionsAppenderFactory;
 import io.prestosql.snapshot.RecoveryUtils;
 import io.prestosql.spi.Page;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.DictionaryBlock;
 import io.prestosql.spi.plan.PlanNodeId;
 import io.prestosql.spi.snapshot.MarkerPage;
 import io.prestosql.spi.snapshot.SnapshotTestUtil;
@@ -39,12 +41,14 @@ import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.airlift.units.DataSize.Unit.GIGABYTE;
 import static io.prestosql.RowPagesBuilder.rowPagesBuilder;
 import static io.prestosql.SessionTestUtils.TEST_SNAPSHOT_SESSION;
+import static io.prestosql.block.BlockAssertions.createLongSequenceBlock;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.testing.assertions.Assert.assertEquals;
 import static java.util.concurrent.Executors.newCachedThreadPool;
@@ -52,6 +56,7 @@ import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -126,6 +131,65 @@ public class TestPartitionedOutputOperator
         assertTrue(((SerializedPage) pages.get(8).get(0)).isMarkerPage());
     }
 
+    @Test
+    public void testDictionaryPartitionsAreReusedAcrossPages()
+    {
+        PartitionedOutputBuffer buffer = mock(PartitionedOutputBuffer.class);
+        LocalPartitionGenerator partitionGenerator = new LocalPartitionGenerator(new InterpretedHashGenerator(ImmutableList.of(BIGINT), new int[] {0}), 4);
+        AtomicInteger partitionCalls = new AtomicInteger();
+        PartitionFunction partitionFunction = new PartitionFunction()
+        {
+            @Override
+            public int getPartitionCount()
+            {
+                return partitionGenerator.getPartitionCount();
+            }
+
+            @Override
+            public int getPartition(Page page, int position)
+            {
+                partitionCalls.incrementAndGet();
+                return partitionGenerator.getPartition(page, position);
+            }
+        };
+        PartitionedOutputOperator operator = createPartitionedOutputOperator(mock(RecoveryUtils.class), buffer, partitionFunction);
+
+        // the dictionary is larger than the pages, as the dictionary of an ORC stripe is
+        Block dictionary = createLongSequenceBlock(0, 100);
+        int[][] pageIds = {
+                {0, 1, 2, 3, 4, 5, 6, 7, 8, 9},
+                {0, 1, 2, 3, 0, 1, 2, 3, 50, 50},
+                {0, 1, 50, 99, 99, 2}};
+        int[] expectedPartitionCalls = {
+                // the dictionary is seen for the first time, so every position is partitioned
+                10,
+                // the dictionary is seen again, so every distinct entry is partitioned once
+                15,
+                // the partitions of the page before are reused for the entries it already had
+                16};
+        int[] expectedRows = new int[partitionFunction.getPartitionCount()];
+        Page dictionaryPage = new Page(dictionary);
+        for (int page = 0; page < pageIds.length; page++) {
+            operator.addInput(new Page(new DictionaryBlock(dictionary, pageIds[page])));
+            assertEquals(partitionCalls.get(), expectedPartitionCalls[page]);
+            for (int id : pageIds[page]) {
+                expectedRows[partitionGenerator.getPartition(dictionaryPage, id)]++;
+            }
+        }
+        operator.finish();
+
+        ArgumentCaptor<Integer> partitionArgument = ArgumentCaptor.forClass(Integer.class);
+        ArgumentCaptor<List> pagesArgument = ArgumentCaptor.forClass(List.class);
+        verify(buffer, atLeastOnce()).enqueue(partitionArgument.capture(), pagesArgument.capture(), anyString());
+        int[] actualRows = new int[partitionFunction.getPartitionCount()];
+        for (int i = 0; i < partitionArgument.getAllValues().size(); i++) {
+            for (Object page : pagesArgument.getAllValues().get(i)) {
+                actualRows[partitionArgument.getAllValues().get(i)] += ((SerializedPage) page).getPositionCount();
+            }
+        }
+        assertEquals(actualRows, expectedRows);
+    }
+
     private Map<String, Object> createExpectedMappingBeforeFinish()
     {
         Map<String, Object> expectedMapping = new HashMap<>();
@@ -155,9 +219,13 @@ public class TestPartitionedOutputOperator
     }
 
     private PartitionedOutputOperator createPartitionedOutputOperator(RecoveryUtils recoveryUtils, PartitionedOutputBuffer buffer)
+    {
+        return createPartitionedOutputOperator(recoveryUtils, buffer, new LocalPartitionGenerator(new InterpretedHashGenerator(ImmutableList.of(BIGINT), new int[] {0}), PARTITION_COUNT));
+    }
+
+    private PartitionedOutputOperator createPartitionedOutputOperator(RecoveryUtils recoveryUtils, PartitionedOutputBuffer buffer, PartitionFunction partitionFunction)
     {
         PositionsAppenderFactory positionsAppenderFactory = new PositionsAppenderFactory();
-        PartitionFunction partitionFunction = new LocalPartitionGenerator(new InterpretedHashGenerator(ImmutableList.of(BIGINT), new int[] {0}), PARTITION_COUNT);
         PartitionedOutputOperator.PartitionedOutputFactory operatorFactory = new PartitionedOutputOperator.PartitionedOutputFactory(
                 partitionFunction,
                 ImmutableList.of(0),
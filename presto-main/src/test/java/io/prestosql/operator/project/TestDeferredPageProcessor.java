@@ -0,0 +1,225 @@
+/*
+ * Copyright (C) 2018-2022. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator.project;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.SettableFuture;
+import io.prestosql.metadata.Metadata;
+import io.prestosql.operator.DriverYieldSignal;
+import io.prestosql.operator.WorkProcessor;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.function.BuiltInFunctionHandle;
+import io.prestosql.spi.function.OperatorType;
+import io.prestosql.spi.relation.RowExpression;
+import io.prestosql.spi.relation.SpecialForm;
+import io.prestosql.spi.type.Type;
+import io.prestosql.sql.gen.PageFunctionCompiler;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.function.Supplier;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.Iterators.getOnlyElement;
+import static io.prestosql.block.BlockAssertions.createLongsBlock;
+import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
+import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
+import static io.prestosql.operator.PageAssertions.assertPageEquals;
+import static io.prestosql.operator.project.PageProcessor.MAX_BATCH_SIZE;
+import static io.prestosql.spi.function.OperatorType.ADD;
+import static io.prestosql.spi.function.OperatorType.DIVIDE;
+import static io.prestosql.spi.function.OperatorType.GREATER_THAN;
+import static io.prestosql.spi.function.OperatorType.NOT_EQUAL;
+import static io.prestosql.spi.function.Signature.internalOperator;
+import static io.prestosql.spi.relation.SpecialForm.Form.AND;
+import static io.prestosql.spi.relation.SpecialForm.Form.COALESCE;
+import static io.prestosql.spi.relation.SpecialForm.Form.IF;
+import static io.prestosql.spi.relation.SpecialForm.Form.IN;
+import static io.prestosql.spi.relation.SpecialForm.Form.IS_NULL;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.BooleanType.BOOLEAN;
+import static io.prestosql.sql.relational.Expressions.call;
+import static io.prestosql.sql.relational.Expressions.constant;
+import static io.prestosql.sql.relational.Expressions.field;
+import static io.prestosql.testing.TestingConnectorSession.SESSION;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
+
+public class TestDeferredPageProcessor
+{
+    private static final Metadata METADATA = createTestMetadataManager();
+
+    private static final RowExpression FILTER = operator(GREATER_THAN, BOOLEAN, field(1, BIGINT), constant(5L, BIGINT));
+    private static final RowExpression PROJECTION = operator(ADD, BIGINT, field(1, BIGINT), constant(10L, BIGINT));
+    // not supported by the interpreter
+    private static final RowExpression IN_FILTER = new SpecialForm(IN, BOOLEAN, field(1, BIGINT), constant(6L, BIGINT), constant(7L, BIGINT));
+
+    @Test
+    public void testInterpretedMatchesCompiled()
+    {
+        // the division is only evaluated where the divisor is not zero, like in the compiled filter
+        RowExpression filter = new SpecialForm(
+                AND,
+                BOOLEAN,
+                operator(NOT_EQUAL, BOOLEAN, field(0, BIGINT), constant(0L, BIGINT)),
+                operator(GREATER_THAN, BOOLEAN, operator(DIVIDE, BIGINT, constant(100L, BIGINT), field(0, BIGINT)), constant(10L, BIGINT)));
+        List<RowExpression> projections = ImmutableList.of(
+                PROJECTION,
+                new SpecialForm(COALESCE, BIGINT, field(1, BIGINT), field(0, BIGINT)),
+                new SpecialForm(
+                        IF,
+                        BIGINT,
+                        new SpecialForm(IS_NULL, BOOLEAN, field(1, BIGINT)),
+                        constant(-1L, BIGINT),
+                        operator(ADD, BIGINT, field(0, BIGINT), field(1, BIGINT))));
+        Page input = new Page(
+                createLongsBlock(1L, 0L, null, 5L, 20L, 3L, 0L, 8L),
+                createLongsBlock(3L, null, 4L, 5L, 6L, null, 7L, 8L));
+
+        PageFunctionCompiler compiler = new PageFunctionCompiler(METADATA, 0);
+        PageProcessor compiled = new PageProcessor(
+                Optional.of(compiler.compileFilter(filter, Optional.empty()).get()),
+                projections.stream()
+                        .map(projection -> compiler.compileProjection(projection, Optional.empty()).get())
+                        .collect(toImmutableList()),
+                OptionalInt.of(MAX_BATCH_SIZE));
+        PageProcessor interpreted = new PageProcessor(
+                Optional.of(new DeferredPageFilter(filter, METADATA, SettableFuture.create())),
+                projections.stream()
+                        .map(projection -> new DeferredPageProjection(projection, METADATA, SettableFuture.create()))
+                        .collect(toImmutableList()),
+                OptionalInt.of(MAX_BATCH_SIZE));
+        assertTrue(interpreted.isBlocked().isDone());
+
+        Page expected = process(compiled, input);
+        assertEquals(expected.getPositionCount(), 4);
+        assertPageEquals(ImmutableList.of(BIGINT, BIGINT, BIGINT), process(interpreted, input), expected);
+        assertEquals(interpreted.getInterpretedPages(), 1);
+        assertEquals(interpreted.getCompiledPages(), 0);
+        assertEquals(compiled.getInterpretedPages(), 0);
+        assertEquals(compiled.getCompiledPages(), 1);
+    }
+
+    @Test
+    public void testSwitchToCompiled()
+    {
+        PageFunctionCompiler compiler = new PageFunctionCompiler(METADATA, 0);
+        SettableFuture<Supplier<PageFilter>> compiledFilter = SettableFuture.create();
+        SettableFuture<Supplier<PageProjection>> compiledProjection = SettableFuture.create();
+        DeferredPageFilter filter = new DeferredPageFilter(FILTER, METADATA, compiledFilter);
+        DeferredPageProjection projection = new DeferredPageProjection(PROJECTION, METADATA, compiledProjection);
+        PageProcessor processor = new PageProcessor(Optional.of(filter), ImmutableList.of(projection), OptionalInt.of(MAX_BATCH_SIZE));
+
+        Page input = new Page(createLongsBlock(1L, 2L, 3L), createLongsBlock(6L, 5L, 7L));
+        Page expected = new Page(createLongsBlock(16L, 17L));
+
+        assertTrue(filter.isInterpreted());
+        assertPageEquals(ImmutableList.of(BIGINT), process(processor, input), expected);
+
+        // the filter is ready first, the page still counts as interpreted
+        compiledFilter.set(compiler.compileFilter(FILTER, Optional.empty()));
+        assertFalse(filter.isInterpreted());
+        assertPageEquals(ImmutableList.of(BIGINT), process(processor, input), expected);
+
+        compiledProjection.set(compiler.compileProjection(PROJECTION, Optional.empty()));
+        assertFalse(projection.isInterpreted());
+        assertPageEquals(ImmutableList.of(BIGINT), process(processor, input), expected);
+
+        assertEquals(processor.getInterpretedPages(), 2);
+        assertEquals(processor.getCompiledPages(), 1);
+    }
+
+    @Test
+    public void testWaitForCompiledFunctions()
+    {
+        PageFunctionCompiler compiler = new PageFunctionCompiler(METADATA, 0);
+        SettableFuture<Supplier<PageFilter>> compiledFilter = SettableFuture.create();
+        SettableFuture<Supplier<PageProjection>> compiledProjection = SettableFuture.create();
+        PageProcessor processor = new PageProcessor(
+                Optional.of(new DeferredPageFilter(IN_FILTER, METADATA, compiledFilter)),
+                ImmutableList.of(new DeferredPageProjection(PROJECTION, METADATA, compiledProjection)),
+                OptionalInt.of(MAX_BATCH_SIZE));
+        assertFalse(processor.isBlocked().isDone());
+
+        WorkProcessor<Page> output = createWorkProcessor(processor, new Page(createLongsBlock(1L, 2L, 3L), createLongsBlock(6L, 5L, 7L)));
+        assertFalse(output.process());
+        assertTrue(output.isBlocked());
+
+        // the filter cannot be interpreted, the processor waits for it and interprets the projection
+        compiledFilter.set(compiler.compileFilter(IN_FILTER, Optional.empty()));
+        assertTrue(processor.isBlocked().isDone());
+        assertTrue(output.process());
+        assertPageEquals(ImmutableList.of(BIGINT), output.getResult(), new Page(createLongsBlock(16L, 17L)));
+        assertTrue(output.process());
+        assertTrue(output.isFinished());
+        assertEquals(processor.getInterpretedPages(), 1);
+    }
+
+    @Test
+    public void testFailedCompilation()
+    {
+        SettableFuture<Supplier<PageFilter>> compiledFilter = SettableFuture.create();
+        PageProcessor processor = new PageProcessor(
+                Optional.of(new DeferredPageFilter(IN_FILTER, METADATA, compiledFilter)),
+                ImmutableList.of(),
+                OptionalInt.of(MAX_BATCH_SIZE));
+        WorkProcessor<Page> output = createWorkProcessor(processor, new Page(createLongsBlock(1L), createLongsBlock(6L)));
+        assertFalse(output.process());
+
+        // the failure is thrown when the page is processed, like a failure of the compilation in the foreground
+        compiledFilter.setException(new RuntimeException("compilation failed"));
+        assertTrue(processor.isBlocked().isDone());
+        assertThrows(RuntimeException.class, output::process);
+    }
+
+    @Test
+    public void testFailedCompilationKeepsInterpreting()
+    {
+        SettableFuture<Supplier<PageProjection>> compiledProjection = SettableFuture.create();
+        DeferredPageProjection projection = new DeferredPageProjection(PROJECTION, METADATA, compiledProjection);
+        PageProcessor processor = new PageProcessor(Optional.empty(), ImmutableList.of(projection), OptionalInt.of(MAX_BATCH_SIZE));
+
+        compiledProjection.setException(new RuntimeException("compilation failed"));
+        assertPageEquals(
+                ImmutableList.of(BIGINT),
+                process(processor, new Page(createLongsBlock(1L), createLongsBlock(2L))),
+                new Page(createLongsBlock(12L)));
+        assertTrue(projection.isInterpreted());
+    }
+
+    private static RowExpression operator(OperatorType operatorType, Type returnType, RowExpression... arguments)
+    {
+        return call(
+                operatorType.getFunctionName().toString(),
+                new BuiltInFunctionHandle(internalOperator(operatorType, returnType, Arrays.stream(arguments).map(RowExpression::getType).collect(toImmutableList()))),
+                returnType,
+                arguments);
+    }
+
+    private static Page process(PageProcessor processor, Page page)
+    {
+        return getOnlyElement(processor.process(SESSION, new DriverYieldSignal(), newSimpleAggregatedMemoryContext().newLocalMemoryContext("test"), page)).get();
+    }
+
+    private static WorkProcessor<Page> createWorkProcessor(PageProcessor processor, Page page)
+    {
+        return processor.createWorkProcessor(SESSION, new DriverYieldSignal(), newSimpleAggregatedMemoryContext().newLocalMemoryContext("test"), page);
+    }
+}
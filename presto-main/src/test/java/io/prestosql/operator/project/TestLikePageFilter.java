@@ -0,0 +1,196 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator.project;
+
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.Slice;
+import io.prestosql.metadata.FunctionAndTypeManager;
+import io.prestosql.metadata.Metadata;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.DictionaryBlock;
+import io.prestosql.spi.relation.RowExpression;
+import io.prestosql.sql.relational.FunctionResolution;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.prestosql.block.BlockAssertions.createStringsBlock;
+import static io.prestosql.metadata.CastType.CAST;
+import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
+import static io.prestosql.operator.scalar.JoniRegexpCasts.joniRegexp;
+import static io.prestosql.operator.scalar.JoniRegexpFunctions.regexpLike;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.BooleanType.BOOLEAN;
+import static io.prestosql.spi.type.LikePatternType.LIKE_PATTERN;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static io.prestosql.sql.relational.Expressions.call;
+import static io.prestosql.sql.relational.Expressions.constant;
+import static io.prestosql.sql.relational.Expressions.field;
+import static io.prestosql.testing.TestingConnectorSession.SESSION;
+import static io.prestosql.type.LikeFunctions.likePattern;
+import static io.prestosql.type.LikeFunctions.likeVarchar;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestLikePageFilter
+{
+    private static final List<String> VALUES = ImmutableList.of(
+            "",
+            "l",
+            "ly",
+            "lyly",
+            "slyly final",
+            "carefully regular deposits",
+            "quickly ironic requests sleep slyly",
+            "regular accounts wake furiously",
+            "x%_y\\z",
+            "名誉 lyly 名",
+            "0123456789abcdefghijklmnopqrstuvwxyz",
+            "ly\n",
+            "\nly",
+            "ly\nly",
+            "slyly\nfinal",
+            "0123\nwxyz");
+
+    private static final List<String> PATTERNS = ImmutableList.of(
+            "%",
+            "%%",
+            "ly%",
+            "%ly",
+            "%ly%",
+            "%ly%ly%",
+            "s%ly",
+            "ly%ly",
+            "l%y",
+            "%ly%ly%ly%",
+            "%requests sleep%",
+            "%名%",
+            "名%名",
+            "%xyz",
+            "%789abcdefg%",
+            "0123%wxyz",
+            "ly",
+            "ly\nly",
+            "%\n%");
+
+    @Test
+    public void testLikePatterns()
+    {
+        for (String pattern : PATTERNS) {
+            LikePageFilter filter = (LikePageFilter) LikePageFilter.fromLikePattern(0, utf8Slice(pattern), Optional.empty()).get();
+            for (String value : VALUES) {
+                assertEquals(filter.matches(utf8Slice(value)), likeVarchar(utf8Slice(value), likePattern(utf8Slice(pattern))), value + " LIKE " + pattern);
+            }
+        }
+    }
+
+    @Test
+    public void testEscapedPatterns()
+    {
+        assertLike("x#%#_y%", "#", "x%_y\\z", true);
+        assertLike("%#%%", "#", "x%_y\\z", true);
+        assertLike("%##%", "#", "x%_y\\z", false);
+        assertLike("%\\\\%", "\\", "x%_y\\z", true);
+        assertLike("%%", "%", "%", true);
+        assertLike("%%", "%", "x%_y\\z", false);
+    }
+
+    @Test
+    public void testUnsupportedPatterns()
+    {
+        assertFalse(LikePageFilter.fromLikePattern(0, utf8Slice("l_y%"), Optional.empty()).isPresent());
+        assertFalse(LikePageFilter.fromLikePattern(0, utf8Slice("ly#"), Optional.of(utf8Slice("#"))).isPresent());
+        assertFalse(LikePageFilter.fromLikePattern(0, utf8Slice("#ly"), Optional.of(utf8Slice("#"))).isPresent());
+        assertFalse(LikePageFilter.fromLikePattern(0, utf8Slice("ly%"), Optional.of(utf8Slice("##"))).isPresent());
+        assertFalse(LikePageFilter.fromLikePattern(0, utf8Slice("ly%"), Optional.of(utf8Slice("名"))).isPresent());
+        assertFalse(LikePageFilter.fromRegexp(0, utf8Slice("\\b[a-z]{5}ly\\b")).isPresent());
+        assertFalse(LikePageFilter.fromRegexp(0, utf8Slice("^ly")).isPresent());
+    }
+
+    @Test
+    public void testRegexp()
+    {
+        for (String regexp : ImmutableList.of("", "ly", "requests sleep", "名", "xyz", "789abcdefg")) {
+            LikePageFilter filter = (LikePageFilter) LikePageFilter.fromRegexp(0, utf8Slice(regexp)).get();
+            for (String value : VALUES) {
+                assertEquals(filter.matches(utf8Slice(value)), regexpLike(utf8Slice(value), joniRegexp(utf8Slice(regexp))), "regexp_like(" + value + ", " + regexp + ")");
+            }
+        }
+    }
+
+    @Test
+    public void testIndexOf()
+    {
+        Slice value = utf8Slice("aaaaaaaaaaaaaaaaabaaaaaaaab");
+        assertEquals(LikePageFilter.indexOf(value, 0, value.length(), utf8Slice("b")), 17);
+        assertEquals(LikePageFilter.indexOf(value, 18, value.length(), utf8Slice("b")), 26);
+        assertEquals(LikePageFilter.indexOf(value, 18, value.length() - 1, utf8Slice("b")), -1);
+        assertEquals(LikePageFilter.indexOf(value, 0, value.length(), utf8Slice("aab")), 15);
+        assertEquals(LikePageFilter.indexOf(value, 0, value.length(), utf8Slice("ba")), 17);
+        assertEquals(LikePageFilter.indexOf(value, 0, value.length(), utf8Slice("bb")), -1);
+        // a match of the first byte above another one is found after the first candidate fails
+        Slice bytes = utf8Slice("\u0001\u0000\u0001\u0001xxxxxxxx");
+        assertEquals(LikePageFilter.indexOf(bytes, 0, bytes.length(), utf8Slice("\u0001\u0001")), 2);
+    }
+
+    @Test
+    public void testFilter()
+    {
+        Metadata metadata = createTestMetadataManager();
+        FunctionAndTypeManager functionAndTypeManager = metadata.getFunctionAndTypeManager();
+        FunctionResolution functionResolution = new FunctionResolution(functionAndTypeManager);
+        RowExpression like = call(
+                "LIKE",
+                functionResolution.likeVarcharFunction(),
+                BOOLEAN,
+                field(1, VARCHAR),
+                call(CAST.name(), functionAndTypeManager.lookupCast(CAST, VARCHAR.getTypeSignature(), LIKE_PATTERN.getTypeSignature()), LIKE_PATTERN, constant(utf8Slice("%ly%ly%"), VARCHAR)));
+
+        Optional<PageFilter> filter = LikePageFilter.tryCreate(like, functionResolution);
+        assertTrue(filter.isPresent());
+        assertEquals(filter.get().getInputChannels().getInputChannels(), ImmutableList.of(1));
+
+        Block block = createStringsBlock("lyly", null, "slyly final", "ly");
+        SelectedPositions selected = filter.get().filter(SESSION, new Page(block));
+        assertEquals(selected.size(), 2);
+        assertEquals(selected.getPositions()[selected.getOffset()], 0);
+        assertEquals(selected.getPositions()[selected.getOffset() + 1], 2);
+
+        // dictionary blocks are filtered once per dictionary entry
+        DictionaryAwarePageFilter dictionaryAwareFilter = new DictionaryAwarePageFilter(filter.get());
+        Block dictionary = new DictionaryBlock(block, new int[] {3, 2, 2, 1, 0});
+        selected = dictionaryAwareFilter.filter(SESSION, new Page(dictionary));
+        assertEquals(selected.size(), 3);
+
+        assertFalse(LikePageFilter.tryCreate(field(0, BIGINT), functionResolution).isPresent());
+        assertFalse(LikePageFilter.tryCreate(call(
+                "LIKE",
+                functionResolution.likeVarcharFunction(),
+                BOOLEAN,
+                field(1, VARCHAR),
+                call(CAST.name(), functionAndTypeManager.lookupCast(CAST, VARCHAR.getTypeSignature(), LIKE_PATTERN.getTypeSignature()), LIKE_PATTERN, field(0, VARCHAR))),
+                functionResolution).isPresent());
+    }
+
+    private static void assertLike(String pattern, String escape, String value, boolean expected)
+    {
+        LikePageFilter filter = (LikePageFilter) LikePageFilter.fromLikePattern(0, utf8Slice(pattern), Optional.of(utf8Slice(escape))).get();
+        assertEquals(filter.matches(utf8Slice(value)), expected);
+        assertEquals(likeVarchar(utf8Slice(value), likePattern(utf8Slice(pattern), utf8Slice(escape))), expected);
+    }
+}
@@ -26,6 +26,8 @@ import io.prestosql.spi.block.BlockEncodingSerde;
 import io.prestosql.spi.type.Type;
 import io.prestosql.spiller.FileSingleStreamSpillerFactory;
 import io.prestosql.spiller.GenericSpillerFactory;
+import io.prestosql.spiller.NodeSpillConfig.SpillFileFormat;
+import io.prestosql.spiller.SingleStreamSpiller;
 import io.prestosql.spiller.Spiller;
 import io.prestosql.spiller.SpillerFactory;
 import io.prestosql.spiller.SpillerStats;
@@ -78,6 +80,7 @@ public class BenchmarkBinaryFileSpiller
     private static final List<Type> TYPES = ImmutableList.of(BIGINT, BIGINT, DOUBLE, createUnboundedVarcharType(), DOUBLE);
     private static final BlockEncodingSerde BLOCK_ENCODING_SERDE = createTestMetadataManager().getFunctionAndTypeManager().getBlockEncodingSerde();
     private static final Path SPILL_PATH = Paths.get(System.getProperty("java.io.tmpdir"), "spills");
+    private static final int[] KEY_CHANNELS = {0};
 
     @Benchmark
     public void writeReadSpill(BenchmarkData data)
@@ -96,6 +99,22 @@ public class BenchmarkBinaryFileSpiller
         }
     }
 
+    @Benchmark
+    public void writeReadSpillKeyChannel(BenchmarkData data)
+            throws ExecutionException, InterruptedException
+    {
+        // reads back only the first channel, like a merge that compares sort keys before it needs the payload
+        try (SingleStreamSpiller spiller = data.createSingleStreamSpiller()) {
+            spiller.spill(data.getPages().iterator()).get();
+
+            Iterator<Page> spill = spiller.getSpilledPages(KEY_CHANNELS);
+            while (spill.hasNext()) {
+                Page next = spill.next();
+                next.getPositionCount();
+            }
+        }
+    }
+
     @State(Scope.Thread)
     public static class BenchmarkData
     {
@@ -119,6 +138,9 @@ public class BenchmarkBinaryFileSpiller
         @Param({"1", "25"})
         private int spillPrefetchReadPages = 1;
 
+        @Param({"PAGES", "COLUMNAR"})
+        private SpillFileFormat spillFileFormat = SpillFileFormat.PAGES;
+
         private List<Page> pages;
 
         private FileSingleStreamSpillerFactory singleStreamSpillerFactory;
@@ -141,8 +163,12 @@ public class BenchmarkBinaryFileSpiller
                     directSerdeEnabled,
                     spillPrefetchReadPages,
                     false,
+                    false,
                     null,
-                    fileSystemClientManager);
+                    fileSystemClientManager,
+                    false,
+                    0,
+                    spillFileFormat);
             spillerFactory = new GenericSpillerFactory(singleStreamSpillerFactory);
             pages = createInputPages();
         }
@@ -187,6 +213,11 @@ public class BenchmarkBinaryFileSpiller
         {
             return spillerFactory.create(TYPES, bytes -> {}, newSimpleAggregatedMemoryContext(), false, "queryId", false);
         }
+
+        public SingleStreamSpiller createSingleStreamSpiller()
+        {
+            return singleStreamSpillerFactory.create(TYPES, bytes -> {}, newSimpleAggregatedMemoryContext().newLocalMemoryContext("benchmark"), false, false, "queryId", false);
+        }
     }
 
     @Test
@@ -195,6 +226,7 @@ public class BenchmarkBinaryFileSpiller
         BenchmarkData ctx = new BenchmarkData();
         ctx.setup();
         writeReadSpill(ctx);
+        writeReadSpillKeyChannel(ctx);
         ctx.tearDown();
     }
 
@@ -19,9 +19,18 @@ import org.testng.annotations.Test;
 
 import static io.prestosql.SessionTestUtils.TEST_SESSION;
 import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.DoubleType.DOUBLE;
 import static io.prestosql.spi.type.IntegerType.INTEGER;
+import static io.prestosql.spi.type.RealType.REAL;
 import static io.prestosql.spi.type.VarcharType.VARCHAR;
 import static io.prestosql.testing.MaterializedResult.resultBuilder;
+import static java.lang.Double.NEGATIVE_INFINITY;
+import static java.lang.Double.NaN;
+import static java.lang.Double.POSITIVE_INFINITY;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.String.format;
+import static org.testng.Assert.assertEquals;
 
 public class TestAggregateWindowFunction
         extends AbstractTestWindowFunction
@@ -530,4 +539,90 @@ public class TestAggregateWindowFunction
                         .row(null, null, null)
                         .build());
     }
+
+    @Test
+    public void testRollingFrameWithNullsOnly()
+    {
+        // the frame of the fourth row holds only nulls, so values removed from the rolling state must not leak into it
+        MaterializedResult actual = queryRunner.execute("SELECT x, " +
+                "sum(v) OVER (ORDER BY x ROWS 2 PRECEDING), " +
+                "avg(v) OVER (ORDER BY x ROWS 2 PRECEDING), " +
+                "count(v) OVER (ORDER BY x ROWS 2 PRECEDING) " +
+                "FROM (VALUES (1, BIGINT '5'), (2, NULL), (3, NULL), (4, NULL), (5, BIGINT '7')) t(x, v) " +
+                "ORDER BY x");
+
+        MaterializedResult expected = resultBuilder(TEST_SESSION, INTEGER, BIGINT, DOUBLE, BIGINT)
+                .row(1, 5L, 5.0, 1L)
+                .row(2, 5L, 5.0, 1L)
+                .row(3, 5L, 5.0, 1L)
+                .row(4, null, null, 0L)
+                .row(5, 7L, 7.0, 1L)
+                .build();
+        assertEquals(actual.getMaterializedRows(), expected.getMaterializedRows());
+    }
+
+    @Test
+    public void testRollingFrameWithNonFiniteDoubles()
+    {
+        // NaN, infinities and large magnitudes leaving the frame must not affect the later frames
+        MaterializedResult actual = queryRunner.execute("SELECT x, " +
+                "sum(v) OVER (ORDER BY x ROWS 2 PRECEDING), " +
+                "avg(v) OVER (ORDER BY x ROWS 2 PRECEDING), " +
+                "sum(CAST(v AS real)) OVER (ORDER BY x ROWS 2 PRECEDING) " +
+                "FROM (VALUES (1, DOUBLE '1'), (2, nan()), (3, DOUBLE '2'), (4, DOUBLE '3'), (5, infinity()), " +
+                "(6, DOUBLE '4'), (7, -infinity()), (8, DOUBLE '5'), (9, DOUBLE '6'), (10, DOUBLE '7'), " +
+                "(11, DOUBLE '1e20'), (12, DOUBLE '1'), (13, DOUBLE '1'), (14, DOUBLE '1'), (15, DOUBLE '1')) t(x, v) " +
+                "ORDER BY x");
+
+        MaterializedResult expected = resultBuilder(TEST_SESSION, INTEGER, DOUBLE, DOUBLE, REAL)
+                .row(1, 1.0, 1.0, 1.0f)
+                .row(2, NaN, NaN, Float.NaN)
+                .row(3, NaN, NaN, Float.NaN)
+                .row(4, NaN, NaN, Float.NaN)
+                .row(5, POSITIVE_INFINITY, POSITIVE_INFINITY, Float.POSITIVE_INFINITY)
+                .row(6, POSITIVE_INFINITY, POSITIVE_INFINITY, Float.POSITIVE_INFINITY)
+                .row(7, NaN, NaN, Float.NaN)
+                .row(8, NEGATIVE_INFINITY, NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY)
+                .row(9, NEGATIVE_INFINITY, NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY)
+                .row(10, 18.0, 6.0, 18.0f)
+                .row(11, 1e20, 1e20 / 3, 1e20f)
+                .row(12, 1e20, 1e20 / 3, 1e20f)
+                .row(13, 1e20, 1e20 / 3, 1e20f)
+                .row(14, 3.0, 1.0, 3.0f)
+                .row(15, 3.0, 1.0, 3.0f)
+                .build();
+        assertEquals(actual.getMaterializedRows(), expected.getMaterializedRows());
+    }
+
+    @Test
+    public void testLargeSlidingFrame()
+    {
+        int rows = 2000;
+        int preceding = 200;
+        int following = 100;
+        MaterializedResult actual = queryRunner.execute(format("SELECT x, " +
+                "min(v) OVER (ORDER BY x ROWS BETWEEN %1$s PRECEDING AND %2$s FOLLOWING), " +
+                "max(v) OVER (ORDER BY x ROWS BETWEEN %1$s PRECEDING AND %2$s FOLLOWING), " +
+                "sum(v) OVER (ORDER BY x ROWS BETWEEN %1$s PRECEDING AND %2$s FOLLOWING) " +
+                "FROM (SELECT x, IF(x %% 10 = 0, NULL, (x * 7919) %% 1000) v FROM UNNEST(sequence(1, %3$s)) t(x)) " +
+                "ORDER BY x", preceding, following, rows));
+
+        MaterializedResult.Builder expected = resultBuilder(TEST_SESSION, BIGINT, BIGINT, BIGINT, BIGINT);
+        for (long x = 1; x <= rows; x++) {
+            Long min = null;
+            Long max = null;
+            Long sum = null;
+            for (long y = max(1, x - preceding); y <= min(rows, x + following); y++) {
+                if (y % 10 == 0) {
+                    continue;
+                }
+                long value = (y * 7919) % 1000;
+                min = (min == null) ? value : min(min, value);
+                max = (max == null) ? value : max(max, value);
+                sum = (sum == null) ? value : sum + value;
+            }
+            expected.row(x, min, max, sum);
+        }
+        assertEquals(actual.getMaterializedRows(), expected.build().getMaterializedRows());
+    }
 }
@@ -0,0 +1,189 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.snapshot;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.prestosql.execution.TaskId;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.snapshot.BlockEncodingSerdeProvider;
+import io.prestosql.spi.snapshot.MarkerPage;
+import org.apache.commons.lang3.tuple.Pair;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.prestosql.SequencePageBuilder.createSequencePage;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.testing.TestingPagesSerdeFactory.TESTING_SERDE_FACTORY;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+import static org.openjdk.jmh.annotations.Mode.AverageTime;
+import static org.openjdk.jmh.annotations.Scope.Thread;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+/**
+ * Measures how long it takes a component with several input channels, e.g. an exchange, to align the markers of
+ * one snapshot: from the first marker, which captures the component, until the marker of the last channel.
+ * Pages that arrive in between on channels that have not sent the marker yet are captured as channel state.
+ * Storing the state is stubbed out; {@link BenchmarkSnapshotCaptureRestore} measures the snapshot store.
+ */
+@State(Thread)
+@OutputTimeUnit(MICROSECONDS)
+@BenchmarkMode(AverageTime)
+@Fork(3)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10, time = 2, timeUnit = SECONDS)
+public class BenchmarkMultiInputSnapshotState
+{
+    private static final TaskId TASK_ID = new TaskId("query", 0, 0, 0);
+    private static final Page PAGE = createSequencePage(ImmutableList.of(BIGINT, BIGINT), 1024);
+
+    @State(Thread)
+    public static class Context
+    {
+        @Param({"2", "8", "32"})
+        public int inputChannels;
+
+        @Param({"0", "4"})
+        public int pagesBeforeMarker;
+
+        private List<String> channels;
+        private MultiInputSnapshotState snapshotState;
+        private long snapshotId;
+
+        @Setup
+        public void setup()
+        {
+            channels = IntStream.range(0, inputChannels)
+                    .mapToObj(channel -> "source" + channel)
+                    .collect(toImmutableList());
+            // only record stubbed calls, so the mock does not grow with the number of snapshots
+            TaskSnapshotManager snapshotManager = mock(TaskSnapshotManager.class, withSettings().stubOnly());
+            snapshotState = new MultiInputSnapshotState(
+                    new TestingRestorable(ImmutableSet.copyOf(channels)),
+                    snapshotManager,
+                    TESTING_SERDE_FACTORY.createPagesSerde(),
+                    id -> new SnapshotStateId(id, TASK_ID));
+        }
+    }
+
+    @Benchmark
+    public int alignMarkers(Context context)
+    {
+        MultiInputSnapshotState snapshotState = context.snapshotState;
+        MarkerPage marker = MarkerPage.snapshotPage(++context.snapshotId);
+        int pages = 0;
+        for (String channel : context.channels) {
+            for (int i = 0; i < context.pagesBeforeMarker; i++) {
+                if (snapshotState.processPage(() -> Pair.of(PAGE, channel)).isPresent()) {
+                    pages++;
+                }
+            }
+            snapshotState.processPage(() -> Pair.<Page, String>of(marker, channel));
+        }
+        // only the marker of the first channel is passed on
+        if (snapshotState.nextMarker() != null) {
+            pages++;
+        }
+        return pages;
+    }
+
+    @Test
+    public void verify()
+    {
+        Context context = new Context();
+        context.inputChannels = 3;
+        context.pagesBeforeMarker = 2;
+        context.setup();
+
+        assertEquals(alignMarkers(context), 3 * 2 + 1);
+        assertEquals(alignMarkers(context), 3 * 2 + 1);
+        assertNull(context.snapshotState.nextMarker());
+    }
+
+    private static class TestingRestorable
+            implements MultiInputRestorable
+    {
+        private final Set<String> inputChannels;
+
+        private TestingRestorable(Set<String> inputChannels)
+        {
+            this.inputChannels = inputChannels;
+        }
+
+        @Override
+        public Object capture(BlockEncodingSerdeProvider serdeProvider)
+        {
+            return 0;
+        }
+
+        @Override
+        public void restore(Object state, BlockEncodingSerdeProvider serdeProvider)
+        {
+        }
+
+        @Override
+        public Optional<Set<String>> getInputChannels()
+        {
+            return Optional.of(inputChannels);
+        }
+
+        @Override
+        public boolean supportsConsolidatedWrites()
+        {
+            return false;
+        }
+
+        @Override
+        public long getUsedMemory()
+        {
+            return 0;
+        }
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkMultiInputSnapshotState.class.getSimpleName() + ".*")
+                .resultFormat(ResultFormatType.JSON)
+                .build();
+
+        new Runner(options).run();
+    }
+}
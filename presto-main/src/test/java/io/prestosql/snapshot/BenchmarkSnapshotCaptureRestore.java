@@ -0,0 +1,321 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.snapshot;
+
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.DataSize;
+import io.hetu.core.filesystem.HetuLocalFileSystemClient;
+import io.hetu.core.filesystem.LocalConfig;
+import io.hetu.core.transport.execution.buffer.PagesSerde;
+import io.prestosql.RowPagesBuilder;
+import io.prestosql.execution.TaskId;
+import io.prestosql.filesystem.FileSystemClientManager;
+import io.prestosql.metadata.Metadata;
+import io.prestosql.operator.DriverContext;
+import io.prestosql.operator.HashAggregationOperator.HashAggregationOperatorFactory;
+import io.prestosql.operator.Operator;
+import io.prestosql.operator.OperatorFactory;
+import io.prestosql.operator.OrderByOperator.OrderByOperatorFactory;
+import io.prestosql.operator.PagesIndex;
+import io.prestosql.operator.aggregation.InternalAggregationFunction;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.connector.QualifiedObjectName;
+import io.prestosql.spi.function.Signature;
+import io.prestosql.spi.plan.AggregationNode;
+import io.prestosql.spi.plan.PlanNodeId;
+import io.prestosql.sql.gen.JoinCompiler;
+import io.prestosql.sql.gen.OrderingCompiler;
+import io.prestosql.testing.TestingTaskContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.units.DataSize.Unit.GIGABYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static io.prestosql.SessionTestUtils.TEST_SNAPSHOT_SESSION;
+import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
+import static io.prestosql.spi.block.SortOrder.DESC_NULLS_LAST;
+import static io.prestosql.spi.function.FunctionKind.AGGREGATE;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.openjdk.jmh.annotations.Mode.AverageTime;
+import static org.openjdk.jmh.annotations.Scope.Thread;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Measures how long the main {@link io.prestosql.spi.snapshot.Restorable} operators take to capture their state
+ * and write it to the snapshot store, and to read it back and restore a new operator from it, with Java and Kryo
+ * serialization. The store is a local file system.
+ */
+@State(Thread)
+@OutputTimeUnit(MILLISECONDS)
+@BenchmarkMode(AverageTime)
+@Fork(3)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10, time = 2, timeUnit = SECONDS)
+public class BenchmarkSnapshotCaptureRestore
+{
+    private static final Metadata metadata = createTestMetadataManager();
+
+    private static final InternalAggregationFunction LONG_SUM = metadata.getFunctionAndTypeManager().getAggregateFunctionImplementation(
+            new Signature(QualifiedObjectName.valueOfDefaultFunction("sum"), AGGREGATE, BIGINT.getTypeSignature(), BIGINT.getTypeSignature()));
+    private static final InternalAggregationFunction COUNT = metadata.getFunctionAndTypeManager().getAggregateFunctionImplementation(
+            new Signature(QualifiedObjectName.valueOfDefaultFunction("count"), AGGREGATE, BIGINT.getTypeSignature()));
+
+    private static final int TOTAL_PAGES = 20;
+    private static final int ROWS_PER_PAGE = 10_000;
+    private static final SnapshotStateId STATE_ID = SnapshotStateId.forOperator(1, new TaskId("query", 0, 0, 0), 0, 0, 0);
+
+    @State(Thread)
+    public static class Context
+    {
+        @Param({"hash_aggregation", "order_by"})
+        public String operatorType;
+
+        @Param({"java", "kryo"})
+        public String serialization;
+
+        private ExecutorService executor;
+        private ScheduledExecutorService scheduledExecutor;
+        private Path directory;
+        private SnapshotFileBasedClient client;
+        private OperatorFactory operatorFactory;
+        private Operator operator;
+
+        @Setup
+        public void setup()
+                throws Exception
+        {
+            executor = newCachedThreadPool(daemonThreadsNamed("test-executor-%s"));
+            scheduledExecutor = newScheduledThreadPool(2, daemonThreadsNamed("test-scheduledExecutor-%s"));
+            directory = Files.createTempDirectory("snapshot-benchmark");
+            client = new SnapshotFileBasedClient(
+                    new HetuLocalFileSystemClient(new LocalConfig(new Properties()), directory),
+                    directory,
+                    new FileSystemClientManager(),
+                    null,
+                    false,
+                    serialization.equalsIgnoreCase("kryo"));
+
+            if (operatorType.equalsIgnoreCase("hash_aggregation")) {
+                operatorFactory = createHashAggregationOperatorFactory();
+            }
+            else {
+                operatorFactory = createOrderByOperatorFactory();
+            }
+
+            // every row is a group of its own, or a row to sort, so the state grows with the input
+            RowPagesBuilder pagesBuilder = RowPagesBuilder.rowPagesBuilder(BIGINT, BIGINT);
+            for (int i = 0; i < TOTAL_PAGES; i++) {
+                pagesBuilder.addSequencePage(ROWS_PER_PAGE, i * ROWS_PER_PAGE, i);
+            }
+
+            operator = operatorFactory.createOperator(createDriverContext());
+            for (Page page : pagesBuilder.build()) {
+                operator.addInput(page);
+            }
+            client.storeState(STATE_ID, operator.capture(getSerde(operator)), null);
+        }
+
+        @TearDown
+        public void cleanup()
+                throws IOException
+        {
+            executor.shutdownNow();
+            scheduledExecutor.shutdownNow();
+            deleteRecursively(directory, ALLOW_INSECURE);
+        }
+
+        private OperatorFactory createHashAggregationOperatorFactory()
+        {
+            return new HashAggregationOperatorFactory(
+                    0,
+                    new PlanNodeId("test"),
+                    ImmutableList.of(BIGINT),
+                    ImmutableList.of(0),
+                    ImmutableList.of(),
+                    AggregationNode.Step.SINGLE,
+                    ImmutableList.of(COUNT.bind(ImmutableList.of(0), Optional.empty()),
+                            LONG_SUM.bind(ImmutableList.of(1), Optional.empty())),
+                    Optional.empty(),
+                    Optional.empty(),
+                    TOTAL_PAGES * ROWS_PER_PAGE,
+                    Optional.of(new DataSize(16, MEGABYTE)),
+                    new JoinCompiler(metadata),
+                    false,
+                    Optional.empty());
+        }
+
+        private OperatorFactory createOrderByOperatorFactory()
+        {
+            return new OrderByOperatorFactory(
+                    0,
+                    new PlanNodeId("test"),
+                    ImmutableList.of(BIGINT, BIGINT),
+                    ImmutableList.of(0, 1),
+                    TOTAL_PAGES * ROWS_PER_PAGE,
+                    ImmutableList.of(1),
+                    ImmutableList.of(DESC_NULLS_LAST),
+                    new PagesIndex.TestingFactory(false),
+                    false,
+                    Optional.empty(),
+                    new OrderingCompiler(),
+                    false,
+                    false);
+        }
+
+        public DriverContext createDriverContext()
+        {
+            // a new task, like the one that is rescheduled to restore a snapshot
+            return TestingTaskContext.createTaskContext(executor, scheduledExecutor, TEST_SNAPSHOT_SESSION, new DataSize(2, GIGABYTE))
+                    .addPipelineContext(0, true, true, false)
+                    .addDriverContext();
+        }
+    }
+
+    @State(Thread)
+    public static class RestoreTarget
+    {
+        private Operator operator;
+
+        // a new operator, and task, for every restore, created outside of the measurement
+        @Setup(Level.Invocation)
+        public void setup(Context context)
+        {
+            operator = context.operatorFactory.createOperator(context.createDriverContext());
+        }
+
+        @TearDown(Level.Invocation)
+        public void cleanup()
+                throws Exception
+        {
+            operator.close();
+        }
+    }
+
+    private static PagesSerde getSerde(Operator operator)
+    {
+        return operator.getOperatorContext().getDriverContext().getSerde();
+    }
+
+    @Benchmark
+    public Object capture(Context context)
+            throws Exception
+    {
+        Object state = context.operator.capture(getSerde(context.operator));
+        context.client.storeState(STATE_ID, state, null);
+        return state;
+    }
+
+    @Benchmark
+    public Operator restore(Context context, RestoreTarget target)
+            throws Exception
+    {
+        Operator operator = target.operator;
+        Object state = context.client.loadState(STATE_ID, null).get();
+        operator.restore(state, getSerde(operator));
+        return operator;
+    }
+
+    @Test
+    public void verifyHashAggregation()
+            throws Exception
+    {
+        verify("hash_aggregation", "java");
+        verify("hash_aggregation", "kryo");
+    }
+
+    @Test
+    public void verifyOrderBy()
+            throws Exception
+    {
+        verify("order_by", "java");
+        verify("order_by", "kryo");
+    }
+
+    private void verify(String operatorType, String serialization)
+            throws Exception
+    {
+        Context context = new Context();
+        context.operatorType = operatorType;
+        context.serialization = serialization;
+        context.setup();
+
+        capture(context);
+        RestoreTarget target = new RestoreTarget();
+        target.setup(context);
+        Operator restored = restore(context, target);
+        assertEquals(getOutputPositions(restored), TOTAL_PAGES * ROWS_PER_PAGE);
+        assertEquals(getOutputPositions(context.operator), TOTAL_PAGES * ROWS_PER_PAGE);
+
+        target.cleanup();
+        context.cleanup();
+    }
+
+    private static long getOutputPositions(Operator operator)
+    {
+        operator.finish();
+        long positions = 0;
+        for (int loops = 0; !operator.isFinished() && loops < 1_000_000; loops++) {
+            Page page = operator.getOutput();
+            if (page != null) {
+                positions += page.getPositionCount();
+            }
+        }
+        assertTrue(operator.isFinished());
+        return positions;
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkSnapshotCaptureRestore.class.getSimpleName() + ".*")
+                .resultFormat(ResultFormatType.JSON)
+                .build();
+
+        new Runner(options).run();
+    }
+}
@@ -31,6 +31,7 @@ import io.prestosql.memory.context.LocalMemoryContext;
 import io.prestosql.operator.PageAssertions;
 import io.prestosql.operator.WorkProcessor;
 import io.prestosql.spi.Page;
+import io.prestosql.spi.PrestoException;
 import io.prestosql.spi.block.BlockBuilder;
 import io.prestosql.spi.type.Type;
 import org.testng.annotations.AfterClass;
@@ -40,6 +41,7 @@ import org.testng.annotations.Test;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.RandomAccessFile;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -64,6 +66,7 @@ import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.spi.type.DoubleType.DOUBLE;
 import static io.prestosql.spi.type.VarbinaryType.VARBINARY;
+import static io.prestosql.spiller.NodeSpillConfig.SpillFileFormat.COLUMNAR;
 import static java.lang.Double.doubleToLongBits;
 import static java.nio.file.Files.createTempDirectory;
 import static java.nio.file.Files.newInputStream;
@@ -159,6 +162,84 @@ public class TestFileSingleStreamSpiller
         assertSpill(true, true, true, "hdfs");
     }
 
+    @Test
+    public void testColumnarSpill()
+            throws Exception
+    {
+        assertColumnarSpill(false);
+        assertColumnarSpill(true);
+    }
+
+    private void assertColumnarSpill(boolean encryption)
+            throws Exception
+    {
+        FileSingleStreamSpillerFactory spillerFactory = createColumnarSpillerFactory(encryption);
+        Page page = buildPage();
+
+        SingleStreamSpiller spiller = spillerFactory.create(TYPES, bytes -> {}, newSimpleAggregatedMemoryContext().newLocalMemoryContext("test"), false, false, "queryId", false);
+        spiller.spill(page).get();
+        spiller.spill(Iterators.forArray(page, page, page)).get();
+        List<Page> spilledPages = ImmutableList.copyOf(spiller.getSpilledPages());
+        assertEquals(spilledPages.size(), 4);
+        for (Page spilledPage : spilledPages) {
+            PageAssertions.assertPageEquals(TYPES, page, spilledPage);
+        }
+        spiller.close();
+
+        // only the requested channels are decoded, in the requested order
+        spiller = spillerFactory.create(TYPES, bytes -> {}, newSimpleAggregatedMemoryContext().newLocalMemoryContext("test"), false, false, "queryId", false);
+        spiller.spill(Iterators.forArray(page, page)).get();
+        List<Page> projectedPages = ImmutableList.copyOf(spiller.getSpilledPages(new int[] {2, 0}));
+        assertEquals(projectedPages.size(), 2);
+        for (Page projectedPage : projectedPages) {
+            PageAssertions.assertPageEquals(ImmutableList.of(VARBINARY, BIGINT), page.getColumns(2, 0), projectedPage);
+        }
+        spiller.close();
+    }
+
+    @Test(expectedExceptions = PrestoException.class, expectedExceptionsMessageRegExp = "Checksum mismatch in spilled block for channel 2")
+    public void testColumnarSpillDetectsCorruption()
+            throws Exception
+    {
+        FileSingleStreamSpillerFactory spillerFactory = createColumnarSpillerFactory(false);
+        SingleStreamSpiller spiller = spillerFactory.create(TYPES, bytes -> {}, newSimpleAggregatedMemoryContext().newLocalMemoryContext("test"), false, false, "queryId", false);
+        try {
+            spiller.spill(buildPage()).get();
+            // flip the last byte of the file, which belongs to the data of the last block
+            try (RandomAccessFile file = new RandomAccessFile(spiller.getFile().toFile(), "rw")) {
+                file.seek(file.length() - 1);
+                int value = file.read();
+                file.seek(file.length() - 1);
+                file.write(value ^ 0xFF);
+            }
+            ImmutableList.copyOf(spiller.getSpilledPages());
+        }
+        finally {
+            spiller.close();
+        }
+    }
+
+    private FileSingleStreamSpillerFactory createColumnarSpillerFactory(boolean encryption)
+    {
+        return new FileSingleStreamSpillerFactory(
+                executor, // executor won't be closed, because we don't call destroy() on the spiller factory
+                createTestMetadataManager().getFunctionAndTypeManager().getBlockEncodingSerde(),
+                new SpillerStats(),
+                ImmutableList.of(spillPath.toPath()),
+                1.0,
+                false,
+                encryption,
+                false,
+                1,
+                false,
+                false,
+                null,
+                fileSystemClientManager,
+                false,
+                0,
+                COLUMNAR);
+    }
+
     private void assertSpill(boolean compression, boolean encryption, boolean spillToHdfs, String spillProfile)
             throws Exception
     {
@@ -48,11 +48,13 @@ import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.spiller.FileSingleStreamSpillerFactory.SPILL_FILE_PREFIX;
 import static io.prestosql.spiller.FileSingleStreamSpillerFactory.SPILL_FILE_SUFFIX;
+import static io.prestosql.spiller.NodeSpillConfig.SpillFileFormat.PAGES;
 import static java.nio.file.Files.createTempDirectory;
 import static java.util.Collections.emptyList;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 @Test(singleThreaded = true)
 public class TestFileSingleStreamSpillerFactory
@@ -135,6 +137,78 @@ public class TestFileSingleStreamSpillerFactory
         assertEquals(listFiles(spillPath2.toPath()).size(), 0);
     }
 
+    @Test
+    public void testPrefersLeastLoadedSpillPath()
+    {
+        List<Path> spillPaths = ImmutableList.of(spillPath1.toPath(), spillPath2.toPath());
+        SpillerStats spillerStats = new SpillerStats();
+        FileSingleStreamSpillerFactory spillerFactory = new FileSingleStreamSpillerFactory(
+                executor, // executor won't be closed, because we don't call destroy() on the spiller factory
+                blockEncodingSerde,
+                spillerStats,
+                spillPaths,
+                1.0,
+                false,
+                false,
+                false,
+                1,
+                false,
+                null,
+                fileSystemClientManager);
+
+        SpillDiskStats busyDisk = spillerStats.getDiskStats(spillPath1.toPath());
+        busyDisk.ioStarted();
+        for (int i = 0; i < 4; ++i) {
+            assertEquals(spillerFactory.getNextSpillPath(), spillPath2.toPath());
+        }
+        busyDisk.writeFinished(0, 0);
+        assertEquals(spillerFactory.getNextSpillPath(), spillPath1.toPath());
+        assertEquals(spillerFactory.getNextSpillPath(), spillPath2.toPath());
+    }
+
+    @Test
+    public void testAsyncIoAccountsPerDisk()
+    {
+        List<Type> types = ImmutableList.of(BIGINT);
+        List<Path> spillPaths = ImmutableList.of(spillPath1.toPath(), spillPath2.toPath());
+        SpillerStats spillerStats = new SpillerStats();
+        FileSingleStreamSpillerFactory spillerFactory = new FileSingleStreamSpillerFactory(
+                executor,
+                blockEncodingSerde,
+                spillerStats,
+                spillPaths,
+                1.0,
+                false,
+                false,
+                false,
+                1,
+                false,
+                false,
+                null,
+                fileSystemClientManager,
+                true,
+                64,
+                PAGES);
+        closer.register(spillerFactory::destroy);
+
+        Page page = buildPage();
+        List<SingleStreamSpiller> spillers = new ArrayList<>();
+        for (int i = 0; i < 4; ++i) {
+            SingleStreamSpiller singleStreamSpiller = spillerFactory.create(types, bytes -> {}, newSimpleAggregatedMemoryContext().newLocalMemoryContext("test"), false, false, "queryId", false, null);
+            getUnchecked(singleStreamSpiller.spill(ImmutableList.of(page, page, page, page).iterator()));
+            assertEquals(ImmutableList.copyOf(singleStreamSpiller.getSpilledPages()).size(), 4);
+            spillers.add(singleStreamSpiller);
+        }
+
+        for (Path spillPath : spillPaths) {
+            SpillDiskStats diskStats = spillerStats.getDiskStats(spillPath);
+            assertTrue(diskStats.getBytesWritten() > 0);
+            assertEquals(diskStats.getBytesRead(), diskStats.getBytesWritten());
+            assertEquals(diskStats.getQueueDepth(), 0);
+        }
+        spillers.forEach(SingleStreamSpiller::close);
+    }
+
     private Page buildPage()
     {
         BlockBuilder col1 = BIGINT.createBlockBuilder(null, 1);
@@ -24,6 +24,8 @@ import static io.airlift.configuration.testing.ConfigAssertions.assertFullMappin
 import static io.airlift.configuration.testing.ConfigAssertions.assertRecordedDefaults;
 import static io.airlift.units.DataSize.Unit.GIGABYTE;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static io.prestosql.spiller.NodeSpillConfig.SpillFileFormat.COLUMNAR;
+import static io.prestosql.spiller.NodeSpillConfig.SpillFileFormat.PAGES;
 
 public class TestNodeSpillConfig
 {
@@ -37,7 +39,10 @@ public class TestNodeSpillConfig
                 .setSpillEncryptionEnabled(false)
                 .setSpillDirectSerdeEnabled(false)
                 .setSpillPrefetchReadPages(1)
-                .setSpillUseKryoSerialization(false));
+                .setSpillUseKryoSerialization(false)
+                .setSpillAsyncIoEnabled(false)
+                .setSpillIoBufferSize(new DataSize(1, MEGABYTE))
+                .setSpillFileFormat(PAGES));
     }
 
     @Test
@@ -51,6 +56,9 @@ public class TestNodeSpillConfig
                 .put("experimental.spill-direct-serde-enabled", "true")
                 .put("experimental.spill-prefetch-read-pages", "25")
                 .put("experimental.spill-use-kryo-serialization", "true")
+                .put("experimental.spill-async-io-enabled", "true")
+                .put("experimental.spill-io-buffer-size", "8MB")
+                .put("experimental.spill-file-format", "COLUMNAR")
                 .build();
 
         NodeSpillConfig expected = new NodeSpillConfig()
@@ -60,7 +68,10 @@ public class TestNodeSpillConfig
                 .setSpillEncryptionEnabled(true)
                 .setSpillDirectSerdeEnabled(true)
                 .setSpillPrefetchReadPages(25)
-                .setSpillUseKryoSerialization(true);
+                .setSpillUseKryoSerialization(true)
+                .setSpillAsyncIoEnabled(true)
+                .setSpillIoBufferSize(new DataSize(8, MEGABYTE))
+                .setSpillFileFormat(COLUMNAR);
 
         assertFullMapping(properties, expected);
     }
@@ -95,6 +95,20 @@ public class TestLikeFunctions
         assertTrue(likeVarchar(utf8Slice("foo\nbar"), regex));
     }
 
+    @Test
+    public void testLikeNewlineAfterMatch()
+    {
+        assertFalse(likeVarchar(utf8Slice("abc\nx"), likePattern(utf8Slice("abc"))));
+        assertFalse(likeVarchar(utf8Slice("abc\n"), likePattern(utf8Slice("abc"))));
+        assertFalse(likeVarchar(utf8Slice("foo\nbar"), likePattern(utf8Slice("%o"))));
+        assertFalse(likeVarchar(utf8Slice("foo\nbar"), likePattern(utf8Slice("f%o"))));
+        assertTrue(likeVarchar(utf8Slice("foo\nbar"), likePattern(utf8Slice("%o%"))));
+        assertTrue(likeVarchar(utf8Slice("foo\n"), likePattern(utf8Slice("foo_"))));
+
+        assertFunction("'abc' || chr(10) || 'x' LIKE 'abc'", BOOLEAN, false);
+        assertFunction("'abc' || chr(10) || 'x' LIKE '%x'", BOOLEAN, true);
+    }
+
     @Test(timeOut = 1000)
     public void testLikeUtf8Pattern()
     {
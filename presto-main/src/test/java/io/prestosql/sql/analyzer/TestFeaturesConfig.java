@@ -149,6 +149,7 @@ public class TestFeaturesConfig
                 .setEnableStarTreeIndex(false)
                 .setCubeMetadataCacheSize(5)
                 .setCubeMetadataCacheTtl(new Duration(1, HOURS))
+                .setCubeIncrementalInsertEnabled(false)
                 .setImplicitConversionEnabled(false)
                 .setLegacyCharToVarcharCoercion(false)
                 .setLegacyDateTimestampToVarcharCoercion(false)
@@ -168,6 +169,10 @@ public class TestFeaturesConfig
                 .setTransformSelfJoinToWindow(true)
                 .setTransformSelfJoinAggregatesToWindow(true)
                 .setJoinPartitionedBuildMinRowCount(1_000_000L)
+                .setSkewedJoinReplicationEnabled(false)
+                .setSkewedJoinHotKeyFraction(0.1)
+                .setSkewedJoinSampleRows(100_000)
+                .setSkewedJoinSampleTimeout(new Duration(1, SECONDS))
                 .setUseExactPartitioning(false)
                 .setCteMaterializationThresholdSize(new DataSize(128, MEGABYTE))
                 .setCTEMaterializationEnabled(false));
@@ -269,6 +274,7 @@ public class TestFeaturesConfig
                 .put("cte.cte-max-prefetch-queue-size", "1024")
                 .put("cube.metadata-cache-size", "10")
                 .put("cube.metadata-cache-ttl", "10m")
+                .put("cube.incremental-insert.enabled", "true")
                 .put("optimizer.enable-star-tree-index", "true")
                 .put("deprecated.legacy-char-to-varchar-coercion", "true")
                 .put("deprecated.legacy-date-timestamp-to-varchar-coercion", "true")
@@ -288,6 +294,10 @@ public class TestFeaturesConfig
                 .put("optimizer.transform-self-join-to-window", "false")
                 .put("optimizer.transform-self-join-aggregates-to-window", "false")
                 .put("optimizer.join-partitioned-build-min-row-count", "100000")
+                .put("optimizer.skewed-join-replication-enabled", "true")
+                .put("optimizer.skewed-join-hot-key-fraction", "0.05")
+                .put("optimizer.skewed-join-sample-rows", "10000")
+                .put("optimizer.skewed-join-sample-timeout", "5s")
                 .put("optimizer.use-exact-partitioning", "true")
                 .put("cte-materialization-threshold-size", "512MB")
                 .put("cte-materialization-enabled", "true")
@@ -388,6 +398,7 @@ public class TestFeaturesConfig
                 .setEnableStarTreeIndex(true)
                 .setCubeMetadataCacheSize(10)
                 .setCubeMetadataCacheTtl(new Duration(10, MINUTES))
+                .setCubeIncrementalInsertEnabled(true)
                 .setLegacyCharToVarcharCoercion(true)
                 .setLegacyDateTimestampToVarcharCoercion(true)
                 .setLegacyMapSubscript(true)
@@ -406,6 +417,10 @@ public class TestFeaturesConfig
                 .setTransformSelfJoinToWindow(false)
                 .setTransformSelfJoinAggregatesToWindow(false)
                 .setJoinPartitionedBuildMinRowCount(1_000_00L)
+                .setSkewedJoinReplicationEnabled(true)
+                .setSkewedJoinHotKeyFraction(0.05)
+                .setSkewedJoinSampleRows(10000)
+                .setSkewedJoinSampleTimeout(new Duration(5, SECONDS))
                 .setUseExactPartitioning(true)
                 .setCteMaterializationThresholdSize(new DataSize(512, MEGABYTE))
                 .setCTEMaterializationEnabled(true);
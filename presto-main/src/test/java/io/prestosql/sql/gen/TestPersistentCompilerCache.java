@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2018-2022. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.sql.gen;
+
+import com.google.common.collect.ImmutableList;
+import io.prestosql.client.NodeVersion;
+import io.prestosql.sql.gen.PersistentCompilerCache.CompiledClassEntry;
+import io.prestosql.sql.gen.PersistentCompilerCache.Kind;
+import io.prestosql.sql.planner.CompilerConfig;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestPersistentCompilerCache
+{
+    private Path directory;
+
+    @BeforeMethod
+    public void setUp()
+            throws IOException
+    {
+        directory = Files.createTempDirectory("compiler-cache");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        deleteRecursively(directory, ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testRequestCountsSurviveRestart()
+    {
+        PersistentCompilerCache cache = createCache("1", 10);
+        for (int i = 0; i < 3; i++) {
+            cache.record(Kind.FILTER, "a", () -> "a");
+        }
+        cache.record(Kind.FILTER, "b", () -> "b");
+        cache.record(Kind.PROJECTION, "c", () -> "c");
+        cache.stop();
+
+        PersistentCompilerCache restarted = createCache("1", 10);
+        assertEquals(restarted.getPersistedEntries(), 3);
+        assertEquals(keys(restarted.getPreloadEntries(Kind.FILTER)), ImmutableList.of("a", "b"));
+        assertEquals(keys(restarted.getPreloadEntries(Kind.PROJECTION)), ImmutableList.of("c"));
+
+        // counts from before the restart are added to the new ones
+        restarted.record(Kind.FILTER, "b", () -> "b");
+        restarted.record(Kind.FILTER, "b", () -> "b");
+        restarted.record(Kind.FILTER, "b", () -> "b");
+        restarted.stop();
+
+        PersistentCompilerCache again = createCache("1", 10);
+        List<CompiledClassEntry> entries = again.getPreloadEntries(Kind.FILTER);
+        assertEquals(keys(entries), ImmutableList.of("b", "a"));
+        assertEquals(entries.get(0).getRequests(), 4);
+        again.stop();
+    }
+
+    @Test
+    public void testPreloadCount()
+    {
+        PersistentCompilerCache cache = createCache("1", 10);
+        cache.record(Kind.FILTER, "a", () -> "a");
+        cache.record(Kind.PROJECTION, "b", () -> "b");
+        cache.record(Kind.PROJECTION, "b", () -> "b");
+        cache.stop();
+
+        PersistentCompilerCache restarted = createCache("1", 1);
+        assertTrue(restarted.getPreloadEntries(Kind.FILTER).isEmpty());
+        assertEquals(keys(restarted.getPreloadEntries(Kind.PROJECTION)), ImmutableList.of("b"));
+        restarted.stop();
+    }
+
+    @Test
+    public void testEntriesFromOtherVersionAreDropped()
+    {
+        PersistentCompilerCache cache = createCache("1", 10);
+        cache.record(Kind.HASH_STRATEGY, "a", () -> "a");
+        cache.stop();
+
+        PersistentCompilerCache upgraded = createCache("2", 10);
+        assertEquals(upgraded.getPersistedEntries(), 0);
+        assertTrue(upgraded.getPreloadEntries(Kind.HASH_STRATEGY).isEmpty());
+        upgraded.stop();
+    }
+
+    @Test
+    public void testUnserializableKeyIsIgnored()
+    {
+        PersistentCompilerCache cache = createCache("1", 10);
+        cache.record(Kind.FILTER, "a", () -> {
+            throw new IllegalArgumentException("no JSON form");
+        });
+        assertEquals(cache.getRecordedEntries(), 0);
+        cache.stop();
+    }
+
+    private PersistentCompilerCache createCache(String version, int preloadCount)
+    {
+        CompilerConfig config = new CompilerConfig()
+                .setPersistentCacheEnabled(true)
+                .setPersistentCacheDirectory(directory.toString())
+                .setPersistentCachePreloadCount(preloadCount);
+        return new PersistentCompilerCache(config, new NodeVersion(version));
+    }
+
+    private static List<String> keys(List<CompiledClassEntry> entries)
+    {
+        return entries.stream()
+                .map(CompiledClassEntry::getKey)
+                .collect(toImmutableList());
+    }
+}
@@ -28,7 +28,12 @@ public class TestCompilerConfig
     public void testDefaults()
     {
         assertRecordedDefaults(recordDefaults(CompilerConfig.class)
-                .setExpressionCacheSize(10_000));
+                .setExpressionCacheSize(10_000)
+                .setPersistentCacheEnabled(false)
+                .setPersistentCacheDirectory("var/compiler-cache")
+                .setPersistentCachePreloadCount(500)
+                .setBackgroundCompilationEnabled(false)
+                .setBackgroundCompilationThreads(2));
     }
 
     @Test
@@ -36,10 +41,20 @@ public class TestCompilerConfig
     {
         Map<String, String> properties = new ImmutableMap.Builder<String, String>()
                 .put("compiler.expression-cache-size", "52")
+                .put("compiler.persistent-cache.enabled", "true")
+                .put("compiler.persistent-cache.directory", "/tmp/compiler-cache")
+                .put("compiler.persistent-cache.preload-count", "20")
+                .put("compiler.background-compilation.enabled", "true")
+                .put("compiler.background-compilation.threads", "4")
                 .build();
 
         CompilerConfig expected = new CompilerConfig()
-                .setExpressionCacheSize(52);
+                .setExpressionCacheSize(52)
+                .setPersistentCacheEnabled(true)
+                .setPersistentCacheDirectory("/tmp/compiler-cache")
+                .setPersistentCachePreloadCount(20)
+                .setBackgroundCompilationEnabled(true)
+                .setBackgroundCompilationThreads(4);
 
         assertFullMapping(properties, expected);
     }
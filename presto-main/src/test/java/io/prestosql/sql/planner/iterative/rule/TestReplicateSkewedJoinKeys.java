@@ -0,0 +1,222 @@
+/*
+ * Copyright (C) 2018-2022. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.sql.planner.iterative.rule;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.prestosql.cost.PlanNodeStatsEstimate;
+import io.prestosql.cost.SymbolStatsEstimate;
+import io.prestosql.cost.TaskCountEstimator;
+import io.prestosql.plugin.tpch.TpchColumnHandle;
+import io.prestosql.plugin.tpch.TpchTableHandle;
+import io.prestosql.plugin.tpch.TpchTransactionHandle;
+import io.prestosql.spi.connector.CatalogName;
+import io.prestosql.spi.metadata.TableHandle;
+import io.prestosql.spi.plan.JoinNode;
+import io.prestosql.spi.plan.PlanNodeId;
+import io.prestosql.spi.plan.ProjectNode;
+import io.prestosql.spi.plan.Symbol;
+import io.prestosql.spi.plan.TableScanNode;
+import io.prestosql.spi.plan.ValuesNode;
+import io.prestosql.sql.planner.iterative.rule.test.PlanBuilder;
+import io.prestosql.sql.planner.iterative.rule.test.RuleAssert;
+import io.prestosql.sql.planner.iterative.rule.test.RuleTester;
+import io.prestosql.sql.planner.plan.UnnestNode;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.Optional;
+
+import static io.prestosql.SystemSessionProperties.SKEWED_JOIN_REPLICATION_ENABLED;
+import static io.prestosql.SystemSessionProperties.SKEWED_JOIN_SAMPLE_TIMEOUT;
+import static io.prestosql.plugin.tpch.TpchMetadata.TINY_SCALE_FACTOR;
+import static io.prestosql.spi.plan.JoinNode.DistributionType.PARTITIONED;
+import static io.prestosql.spi.plan.JoinNode.DistributionType.REPLICATED;
+import static io.prestosql.spi.plan.JoinNode.Type.INNER;
+import static io.prestosql.spi.plan.JoinNode.Type.LEFT;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.VarcharType.createVarcharType;
+import static io.prestosql.sql.planner.assertions.PlanMatchPattern.node;
+import static io.prestosql.sql.planner.iterative.rule.test.RuleTester.CATALOG_ID;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestReplicateSkewedJoinKeys
+{
+    private static final int NODES_COUNT = 4;
+
+    private RuleTester tester;
+
+    @BeforeClass
+    public void setUp()
+    {
+        tester = new RuleTester(ImmutableList.of(), ImmutableMap.of(SKEWED_JOIN_REPLICATION_ENABLED, "true"), Optional.of(NODES_COUNT));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+    {
+        tester.close();
+        tester = null;
+    }
+
+    @Test
+    public void testDoesNotFireWhenDisabled()
+    {
+        assertReplicateSkewedJoinKeys()
+                .setSystemProperty(SKEWED_JOIN_REPLICATION_ENABLED, "false")
+                .overrideStats("valuesA", nullHeavyStats("A1"))
+                .on(p -> join(p, LEFT, Optional.of(PARTITIONED)))
+                .doesNotFire();
+    }
+
+    @Test
+    public void testDoesNotFireForReplicatedJoin()
+    {
+        assertReplicateSkewedJoinKeys()
+                .overrideStats("valuesA", nullHeavyStats("A1"))
+                .on(p -> join(p, LEFT, Optional.of(REPLICATED)))
+                .doesNotFire();
+    }
+
+    @Test
+    public void testDoesNotFireWithoutHotKeys()
+    {
+        // the probe key is not read from a table, so there is nothing to sample
+        assertReplicateSkewedJoinKeys()
+                .on(p -> join(p, INNER, Optional.of(PARTITIONED)))
+                .doesNotFire();
+    }
+
+    @Test
+    public void testDoesNotSpreadNullKeysOfInnerJoin()
+    {
+        assertReplicateSkewedJoinKeys()
+                .overrideStats("valuesA", nullHeavyStats("A1"))
+                .on(p -> join(p, INNER, Optional.of(PARTITIONED)))
+                .doesNotFire();
+    }
+
+    @Test
+    public void testSpreadsNullKeysOfLeftJoin()
+    {
+        assertReplicateSkewedJoinKeys()
+                .overrideStats("valuesA", nullHeavyStats("A1"))
+                .on(p -> join(p, LEFT, Optional.of(PARTITIONED)))
+                .matches(node(
+                        JoinNode.class,
+                        node(ProjectNode.class, node(ValuesNode.class)),
+                        node(ProjectNode.class, node(ValuesNode.class))));
+    }
+
+    @Test
+    public void testReplicatesHotKeys()
+    {
+        // 'F' and 'O' are the status of about half of the orders each
+        assertReplicateSkewedJoinKeys()
+                .setSystemProperty(SKEWED_JOIN_SAMPLE_TIMEOUT, "1m")
+                .on(TestReplicateSkewedJoinKeys::joinOrderStatus)
+                .matches(node(
+                        JoinNode.class,
+                        node(ProjectNode.class, node(TableScanNode.class)),
+                        node(UnnestNode.class, node(ProjectNode.class, node(ValuesNode.class)))));
+    }
+
+    @Test
+    public void testDoesNotWaitForSampleBeyondTimeout()
+    {
+        // the sample cannot be read within a nanosecond, so the join is planned without hot keys
+        assertReplicateSkewedJoinKeys()
+                .setSystemProperty(SKEWED_JOIN_SAMPLE_TIMEOUT, "1ns")
+                .on(TestReplicateSkewedJoinKeys::joinOrderStatus)
+                .doesNotFire();
+    }
+
+    @Test
+    public void testMayHaveHotKeys()
+    {
+        double rows = 1_000_000;
+        assertTrue(ReplicateSkewedJoinKeys.mayHaveHotKeys(rows, SymbolStatsEstimate.unknown(), 0.1));
+        assertTrue(ReplicateSkewedJoinKeys.mayHaveHotKeys(rows, keyStats(0, 1000), 0.1));
+        // a key covering 10% of the rows leaves room for at most 900_001 distinct values
+        assertTrue(ReplicateSkewedJoinKeys.mayHaveHotKeys(rows, keyStats(0, 900_001), 0.1));
+        assertFalse(ReplicateSkewedJoinKeys.mayHaveHotKeys(rows, keyStats(0, 900_002), 0.1));
+        assertFalse(ReplicateSkewedJoinKeys.mayHaveHotKeys(rows, keyStats(0.5, 500_000), 0.1));
+    }
+
+    private static JoinNode join(PlanBuilder p, JoinNode.Type type, Optional<JoinNode.DistributionType> distributionType)
+    {
+        Symbol a1 = p.symbol("A1", BIGINT);
+        Symbol b1 = p.symbol("B1", BIGINT);
+        return p.join(
+                type,
+                p.values(new PlanNodeId("valuesA"), 100, a1),
+                p.values(new PlanNodeId("valuesB"), 100, b1),
+                ImmutableList.of(new JoinNode.EquiJoinClause(a1, b1)),
+                ImmutableList.of(a1, b1),
+                Optional.empty(),
+                Optional.empty(),
+                Optional.empty(),
+                distributionType,
+                ImmutableMap.of());
+    }
+
+    private static JoinNode joinOrderStatus(PlanBuilder p)
+    {
+        Symbol orderStatus = p.symbol("orderstatus", createVarcharType(1));
+        Symbol status = p.symbol("status", createVarcharType(1));
+        return p.join(
+                INNER,
+                p.tableScan(
+                        new TableHandle(
+                                new CatalogName(CATALOG_ID),
+                                new TpchTableHandle("orders", TINY_SCALE_FACTOR),
+                                TpchTransactionHandle.INSTANCE,
+                                Optional.empty()),
+                        ImmutableList.of(orderStatus),
+                        ImmutableMap.of(orderStatus, new TpchColumnHandle("orderstatus", createVarcharType(1)))),
+                p.values(new PlanNodeId("valuesB"), 3, status),
+                ImmutableList.of(new JoinNode.EquiJoinClause(orderStatus, status)),
+                ImmutableList.of(orderStatus, status),
+                Optional.empty(),
+                Optional.empty(),
+                Optional.empty(),
+                Optional.of(PARTITIONED),
+                ImmutableMap.of());
+    }
+
+    private static PlanNodeStatsEstimate nullHeavyStats(String symbol)
+    {
+        return PlanNodeStatsEstimate.builder()
+                .setOutputRowCount(100)
+                .addSymbolStatistics(ImmutableMap.of(new Symbol(symbol), keyStats(0.5, 50)))
+                .build();
+    }
+
+    private static SymbolStatsEstimate keyStats(double nullsFraction, double distinctValuesCount)
+    {
+        return SymbolStatsEstimate.builder()
+                .setNullsFraction(nullsFraction)
+                .setDistinctValuesCount(distinctValuesCount)
+                .build();
+    }
+
+    private RuleAssert assertReplicateSkewedJoinKeys()
+    {
+        return tester.assertThat(new ReplicateSkewedJoinKeys(tester.getMetadata(), tester.getSplitManager(), tester.getPageSourceManager(), new TaskCountEstimator(() -> NODES_COUNT)));
+    }
+}
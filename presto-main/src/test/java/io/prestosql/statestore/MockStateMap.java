@@ -77,7 +77,7 @@ public class MockStateMap<K, V>
     @Override
     public void putAll(Map<K, V> map)
     {
-        map.putAll(map);
+        this.map.putAll(map);
     }
 
     @Override
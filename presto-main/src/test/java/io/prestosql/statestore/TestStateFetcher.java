@@ -15,15 +15,21 @@
 package io.prestosql.statestore;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import io.airlift.json.ObjectMapperProvider;
 import io.airlift.units.Duration;
 import io.prestosql.execution.QueryState;
+import io.prestosql.spi.statestore.Member;
 import io.prestosql.spi.statestore.StateCollection;
 import io.prestosql.spi.statestore.StateMap;
 import io.prestosql.spi.statestore.StateStore;
 import io.prestosql.spi.statestore.StateStoreFactory;
+import io.prestosql.spi.statestore.listener.EntryEvent;
+import io.prestosql.statestore.listener.QueryStateChangesListener;
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.mockito.internal.stubbing.answers.Returns;
 import org.testng.annotations.BeforeMethod;
@@ -43,6 +49,8 @@ import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
@@ -61,6 +69,8 @@ public class TestStateFetcher
     private StateStoreFactory stateStoreFactory;
     private StateStore stateStore;
     private static final String STATES_KEY = "20191120_160018_00000_qtvps";
+    private static final String NEW_STATES_KEY = "20191120_160018_00001_qtvps";
+    private static final Member MEMBER = new Member("localhost", 8080);
     private static final String STATE_STORE_HAZELCAST = "hazelcast";
     private static final String STATE_COLLECTION_QUERY = "query";
     private static final int MINIMUM_FETCH_INTERVAL = 1;
@@ -272,4 +282,58 @@ public class TestStateFetcher
         Thread.sleep(300);
         verify(stateCollection, atLeastOnce()).getAll();
     }
+
+    @Test
+    public void testDeltaFetchOfChangedStates()
+            throws Exception
+    {
+        stateFetcher = new StateFetcher(stateStoreProvider, fetchInterval, stateExpireTime, true);
+        supportCollectionTypeMAP(true);
+        String mockDataPath = this.getClass().getClassLoader().getResource(MOCK_TEST_DATA_RESOURCE_NAME).getPath();
+        String statesValue = loadMockTestData(new File(mockDataPath), true);
+
+        // the first fetch registers the listener and fetches all states
+        stateFetcher.fetchAllStates();
+        ArgumentCaptor<QueryStateChangesListener> listener = ArgumentCaptor.forClass(QueryStateChangesListener.class);
+        verify(stateCollection).addEntryListener(listener.capture());
+        verify(stateCollection, times(1)).getAll();
+        assertEquals(StateCacheStore.get().getCachedStates(STATE_COLLECTION_QUERY).keySet(), ImmutableSet.of(STATES_KEY));
+
+        // nothing is fetched when nothing changed
+        stateFetcher.fetchAllStates();
+        verify(stateCollection, never()).getAll(any());
+        assertEquals(StateCacheStore.get().getCachedStates(STATE_COLLECTION_QUERY).keySet(), ImmutableSet.of(STATES_KEY));
+
+        // only added or updated states are fetched
+        when(stateCollection.getAll(ImmutableSet.of(NEW_STATES_KEY))).then(new Returns(ImmutableMap.of(NEW_STATES_KEY, statesValue)));
+        listener.getValue().entryAdded(new EntryEvent<>(MEMBER, 1, NEW_STATES_KEY, null));
+        stateFetcher.fetchAllStates();
+        verify(stateCollection, times(1)).getAll(ImmutableSet.of(NEW_STATES_KEY));
+        assertEquals(StateCacheStore.get().getCachedStates(STATE_COLLECTION_QUERY).keySet(), ImmutableSet.of(STATES_KEY, NEW_STATES_KEY));
+
+        // removed states are dropped without fetching
+        listener.getValue().entryRemoved(new EntryEvent<>(MEMBER, 2, STATES_KEY, null));
+        stateFetcher.fetchAllStates();
+        assertEquals(StateCacheStore.get().getCachedStates(STATE_COLLECTION_QUERY).keySet(), ImmutableSet.of(NEW_STATES_KEY));
+        verify(stateCollection, times(1)).getAll();
+        verify(stateCollection, times(1)).getAll(any());
+    }
+
+    @Test
+    public void testDeltaFetchOfBinaryStates()
+            throws Exception
+    {
+        stateFetcher = new StateFetcher(stateStoreProvider, fetchInterval, stateExpireTime, true);
+        stateStoreMockData();
+        mockStateCollectionData();
+        when(stateCollection.getType()).then(new Returns(StateCollection.Type.MAP));
+        String mockDataPath = this.getClass().getClassLoader().getResource(MOCK_TEST_DATA_RESOURCE_NAME).getPath();
+        SharedQueryState state = SharedQueryStateCodec.decode(loadMockTestData(new File(mockDataPath), true));
+        when(stateCollection.getAll()).then(new Returns(ImmutableMap.of(STATES_KEY, SharedQueryStateCodec.toBinary(state))));
+
+        stateFetcher.fetchAllStates();
+        SharedQueryState fetched = (SharedQueryState) StateCacheStore.get().getCachedStates(STATE_COLLECTION_QUERY).get(STATES_KEY);
+        assertEquals(fetched.getBasicQueryInfo().getQueryId().getId(), STATES_KEY);
+        assertEquals(fetched.getBasicQueryInfo().getState(), QueryState.PLANNING);
+    }
 }
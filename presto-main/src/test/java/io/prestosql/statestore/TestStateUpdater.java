@@ -41,6 +41,7 @@ import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.io.IOException;
 import java.net.URI;
 import java.util.HashSet;
 import java.util.Optional;
@@ -51,9 +52,15 @@ import static io.prestosql.SessionTestUtils.TEST_SESSION;
 import static io.prestosql.spi.ErrorType.USER_ERROR;
 import static io.prestosql.spi.StandardErrorCode.CLUSTER_OUT_OF_MEMORY;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isA;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotEquals;
@@ -131,10 +138,17 @@ public class TestStateUpdater
         stateUpdater.unregisterQuery(STATE_COLLECTION_QUERY, managedQueryExecution);
     }
 
-    private BasicQueryInfo createBasicQueryInfo()
+    private BasicQueryInfo createBasicQueryInfo(QueryState queryState)
+    {
+        return createBasicQueryInfo(queryState, 0);
+    }
+
+    private BasicQueryInfo createBasicQueryInfo(QueryState queryState, int completedDrivers)
     {
         QueryInfo queryInfo = Mockito.mock(QueryInfo.class);
         when(queryInfo.getQueryStats()).then(new Returns(Mockito.mock(QueryStats.class)));
+        when(queryInfo.getQueryStats().getTotalDrivers()).then(new Returns(100));
+        when(queryInfo.getQueryStats().getCompletedDrivers()).then(new Returns(completedDrivers));
         Duration mockInterval = new Duration(MINIMUM_UPDATE_INTERVAL, MILLISECONDS);
         when(queryInfo.getQueryStats().getQueuedTime()).then(new Returns(mockInterval));
         when(queryInfo.getQueryStats().getElapsedTime()).then(new Returns(mockInterval));
@@ -148,7 +162,7 @@ public class TestStateUpdater
         ResourceGroupId resourceGroupId = new ResourceGroupId(GLOBAL_RESOURCE_ID);
         Optional<ResourceGroupId> optionalResourceGroupId = Optional.of(resourceGroupId);
         when(queryInfo.getResourceGroupId()).then(new Returns(optionalResourceGroupId));
-        when(queryInfo.getState()).then(new Returns(QueryState.FINISHED));
+        when(queryInfo.getState()).then(new Returns(queryState));
         URI mockURI = URI.create(URI_LOCALHOST);
         when(queryInfo.getSelf()).then(new Returns(mockURI));
         String mockQuery = QUERY_STRING;
@@ -166,9 +180,14 @@ public class TestStateUpdater
     }
 
     private DispatchQuery mockDispatchQueryData(boolean userError)
+    {
+        return mockDispatchQueryData(userError, QueryState.FINISHED);
+    }
+
+    private DispatchQuery mockDispatchQueryData(boolean userError, QueryState queryState)
     {
         DispatchQuery dispatchQuery = Mockito.mock(LocalDispatchQuery.class);
-        BasicQueryInfo basicQueryInfo = createBasicQueryInfo();
+        BasicQueryInfo basicQueryInfo = createBasicQueryInfo(queryState);
         when(dispatchQuery.getBasicQueryInfo()).then(new Returns(basicQueryInfo));
         when(dispatchQuery.getSession()).then(new Returns(TEST_SESSION));
         ErrorCode errorCode;
@@ -230,4 +249,63 @@ public class TestStateUpdater
         int numberOfCalls = mockingDetails(stateStoreProvider.getStateStore().getStateCollection(any())).getInvocations().size();
         assertNotEquals(numberOfCalls, ERROR_CODE_VALUE_INDEX_TIME_NO_INVOCATION);
     }
+
+    @Test
+    public void testDeltaUpdateSkipsUnchangedQueries() throws IOException
+    {
+        StateStoreProvider stateStoreProvider = Mockito.mock(LocalStateStoreProvider.class);
+        StateUpdater stateUpdater = new StateUpdater(stateStoreProvider, updateInterval, new Duration(60, SECONDS), true);
+        DispatchQuery dispatchQuery = mockDispatchQueryData(true, QueryState.RUNNING);
+        stateUpdater.registerQuery(STATE_COLLECTION_QUERY, dispatchQuery);
+        StateMap stateMap = Mockito.mock(StateMap.class);
+        when(stateStoreProvider.getStateStore()).then(new Returns(stateStore));
+        when(stateStore.getStateCollection(any())).then(new Returns(stateMap));
+
+        stateUpdater.updateStates();
+        stateUpdater.updateStates();
+        verify(stateMap, times(1)).put(eq(MOCK_QUERY_ID), any(byte[].class));
+
+        SharedQueryState state = SharedQueryState.create(dispatchQuery);
+        SharedQueryState decoded = SharedQueryStateCodec.decode(SharedQueryStateCodec.toBinary(state));
+        assertEquals(decoded.getBasicQueryInfo().getQueryId(), state.getBasicQueryInfo().getQueryId());
+        assertEquals(decoded.getBasicQueryInfo().getState(), QueryState.RUNNING);
+        assertEquals(decoded.getTotalMemoryReservation(), state.getTotalMemoryReservation());
+    }
+
+    @Test
+    public void testDeltaUpdatePublishesProgress() throws IOException
+    {
+        StateStoreProvider stateStoreProvider = Mockito.mock(LocalStateStoreProvider.class);
+        StateUpdater stateUpdater = new StateUpdater(stateStoreProvider, updateInterval, new Duration(60, SECONDS), true);
+        DispatchQuery dispatchQuery = mockDispatchQueryData(true, QueryState.RUNNING);
+        stateUpdater.registerQuery(STATE_COLLECTION_QUERY, dispatchQuery);
+        StateMap stateMap = Mockito.mock(StateMap.class);
+        when(stateStoreProvider.getStateStore()).then(new Returns(stateStore));
+        when(stateStore.getStateCollection(any())).then(new Returns(stateMap));
+
+        stateUpdater.updateStates();
+        BasicQueryInfo progressedQueryInfo = createBasicQueryInfo(QueryState.RUNNING, 50);
+        when(dispatchQuery.getBasicQueryInfo()).then(new Returns(progressedQueryInfo));
+        stateUpdater.updateStates();
+        stateUpdater.updateStates();
+        verify(stateMap, times(2)).put(eq(MOCK_QUERY_ID), isA(byte[].class));
+    }
+
+    @Test
+    public void testDeltaUpdateWritesJsonToEncryptedCollection() throws IOException
+    {
+        StateStoreProvider stateStoreProvider = Mockito.mock(LocalStateStoreProvider.class);
+        StateUpdater stateUpdater = new StateUpdater(stateStoreProvider, updateInterval, new Duration(60, SECONDS), true);
+        DispatchQuery dispatchQuery = mockDispatchQueryData(true, QueryState.RUNNING);
+        stateUpdater.registerQuery(STATE_COLLECTION_QUERY, dispatchQuery);
+        StateMap stateMap = Mockito.mock(StateMap.class);
+        when(stateMap.isEncrypted()).then(new Returns(true));
+        when(stateStoreProvider.getStateStore()).then(new Returns(stateStore));
+        when(stateStore.getStateCollection(any())).then(new Returns(stateMap));
+
+        stateUpdater.updateStates();
+        stateUpdater.updateStates();
+        verify(stateMap, times(1)).put(eq(MOCK_QUERY_ID), isA(String.class));
+        verify(stateMap, never()).put(eq(MOCK_QUERY_ID), isA(byte[].class));
+    }
 }
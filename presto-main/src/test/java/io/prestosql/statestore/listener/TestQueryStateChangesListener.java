@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2018-2022. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.statestore.listener;
+
+import com.google.common.collect.ImmutableSet;
+import io.prestosql.spi.statestore.Member;
+import io.prestosql.spi.statestore.listener.EntryEvent;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Test for QueryStateChangesListener
+ *
+ * @since 2022-06-30
+ */
+public class TestQueryStateChangesListener
+{
+    private static final Member MEMBER = new Member("localhost", 8080);
+
+    @Test
+    public void testPollChanges()
+    {
+        QueryStateChangesListener listener = new QueryStateChangesListener();
+        listener.entryAdded(event("query1"));
+        listener.entryUpdated(event("query2"));
+        listener.entryUpdated(event("query1"));
+        listener.entryRemoved(event("query3"));
+
+        assertEquals(listener.pollChangedQueryIds(), ImmutableSet.of("query1", "query2"));
+        assertEquals(listener.pollRemovedQueryIds(), ImmutableSet.of("query3"));
+        // polling resets the changes
+        assertTrue(listener.pollChangedQueryIds().isEmpty());
+        assertTrue(listener.pollRemovedQueryIds().isEmpty());
+    }
+
+    @Test
+    public void testLatestChangeWins()
+    {
+        QueryStateChangesListener listener = new QueryStateChangesListener();
+        listener.entryAdded(event("query1"));
+        listener.entryRemoved(event("query1"));
+        listener.entryRemoved(event("query2"));
+        listener.entryAdded(event("query2"));
+
+        assertEquals(listener.pollChangedQueryIds(), ImmutableSet.of("query2"));
+        assertEquals(listener.pollRemovedQueryIds(), ImmutableSet.of("query1"));
+    }
+
+    private static EntryEvent<String, Object> event(String queryId)
+    {
+        return new EntryEvent<>(MEMBER, 1, queryId, null);
+    }
+}
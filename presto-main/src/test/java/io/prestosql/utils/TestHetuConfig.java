@@ -24,6 +24,7 @@ import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import static io.airlift.units.DataSize.Unit.GIGABYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 
 public class TestHetuConfig
 {
@@ -49,10 +50,17 @@ public class TestHetuConfig
                 .setStateUpdateInterval(new Duration(100, TimeUnit.MILLISECONDS))
                 .setQuerySubmitTimeout(new Duration(10, TimeUnit.SECONDS))
                 .setStateExpireTime(new Duration(60, TimeUnit.SECONDS))
+                .setStateDeltaReplicationEnabled(false)
+                .setResourceGroupQuotaLeaseEnabled(false)
+                .setResourceGroupQuotaRebalanceInterval(new Duration(1, TimeUnit.SECONDS))
                 .setDataCenterSplits(5)
                 .setDataCenterConsumerTimeout(new Duration(10, TimeUnit.MINUTES))
                 .setSplitCacheMapEnabled(false)
                 .setSplitCacheStateUpdateInterval(new Duration(2, TimeUnit.SECONDS))
+                .setSplitPageCacheEnabled(false)
+                .setSplitPageCacheMaxMemory(new DataSize(1, GIGABYTE))
+                .setSplitPageCacheMaxDiskSize(new DataSize(0, GIGABYTE))
+                .setSplitPageCacheDiskPath("/tmp/hetu/split-page-cache")
                 .setTraceStackVisible(false)
                 .setIndexToPreload("")
                 .setExtensionExecutionPlannerEnabled(false)
@@ -63,7 +71,13 @@ public class TestHetuConfig
                 .setExecutionDataCacheMaxSize(new DataSize(2, GIGABYTE))
                 .setCachingConnectorName("hive")
                 .setCachingSchemaName("cache")
-                .setCachingUserName("hive"));
+                .setCachingUserName("hive")
+                .setQueryResultCacheEnabled(false)
+                .setQueryResultCacheMaxSize(new DataSize(1, GIGABYTE))
+                .setQueryResultCacheMaxEntrySize(new DataSize(8, MEGABYTE))
+                .setQueryResultCacheTtl(new Duration(1, TimeUnit.HOURS))
+                .setQueryResultCacheFileSystemProfile(null)
+                .setQueryResultCacheDirectory("/tmp/hetu/query-result-cache"));
     }
 
     @Test
@@ -86,12 +100,19 @@ public class TestHetuConfig
                 .put("hetu.multiple-coordinator.enabled", "true")
                 .put("hetu.multiple-coordinator.query-submit-timeout", "20s")
                 .put("hetu.multiple-coordinator.state-expire-time", "20s")
+                .put("hetu.multiple-coordinator.state-delta-replication-enabled", "true")
+                .put("hetu.multiple-coordinator.resource-group-quota-lease-enabled", "true")
+                .put("hetu.multiple-coordinator.resource-group-quota-rebalance-interval", "500ms")
                 .put("hetu.multiple-coordinator.state-fetch-interval", "5s")
                 .put("hetu.multiple-coordinator.state-update-interval", "5s")
                 .put("hetu.data.center.split.count", "10")
                 .put("hetu.data.center.consumer.timeout", "5m")
                 .put("hetu.split-cache-map.enabled", "true")
                 .put("hetu.split-cache-map.state-update-interval", "5s")
+                .put("hetu.split-cache-map.page-cache.enabled", "true")
+                .put("hetu.split-cache-map.page-cache.max-memory", "4GB")
+                .put("hetu.split-cache-map.page-cache.max-disk-size", "100GB")
+                .put("hetu.split-cache-map.page-cache.disk-path", "/mnt/ssd/split-page-cache")
                 .put("stack-trace-visible", "true")
                 .put("hetu.heuristicindex.filter.cache.preload-indices", "idx1,idx2")
                 .put("extension_execution_planner_enabled", "true")
@@ -103,6 +124,12 @@ public class TestHetuConfig
                 .put("hetu.execution.cte-materialization.schema-name", "memCache")
                 .put("hetu.execution.cte-materialization.connector-name", "memory")
                 .put("hetu.execution.cte-materialization.user-name", "test")
+                .put("hetu.query-result-cache.enabled", "true")
+                .put("hetu.query-result-cache.max-size", "2GB")
+                .put("hetu.query-result-cache.max-entry-size", "32MB")
+                .put("hetu.query-result-cache.ttl", "10m")
+                .put("hetu.query-result-cache.filesystem.profile", "hdfs-config-default")
+                .put("hetu.query-result-cache.directory", "/hetu/query-result-cache")
                 .build();
 
         HetuConfig expected = new HetuConfig()
@@ -122,12 +149,19 @@ public class TestHetuConfig
                 .setMultipleCoordinatorEnabled(true)
                 .setQuerySubmitTimeout(new Duration(20, TimeUnit.SECONDS))
                 .setStateExpireTime(new Duration(20, TimeUnit.SECONDS))
+                .setStateDeltaReplicationEnabled(true)
+                .setResourceGroupQuotaLeaseEnabled(true)
+                .setResourceGroupQuotaRebalanceInterval(new Duration(500, TimeUnit.MILLISECONDS))
                 .setStateFetchInterval(new Duration(5, TimeUnit.SECONDS))
                 .setStateUpdateInterval(new Duration(5, TimeUnit.SECONDS))
                 .setDataCenterSplits(10)
                 .setDataCenterConsumerTimeout(new Duration(5, TimeUnit.MINUTES))
                 .setSplitCacheMapEnabled(true)
                 .setSplitCacheStateUpdateInterval(new Duration(5, TimeUnit.SECONDS))
+                .setSplitPageCacheEnabled(true)
+                .setSplitPageCacheMaxMemory(new DataSize(4, GIGABYTE))
+                .setSplitPageCacheMaxDiskSize(new DataSize(100, GIGABYTE))
+                .setSplitPageCacheDiskPath("/mnt/ssd/split-page-cache")
                 .setTraceStackVisible(true)
                 .setIndexToPreload("idx1,idx2")
                 .setExtensionExecutionPlannerEnabled(true)
@@ -138,7 +172,13 @@ public class TestHetuConfig
                 .setCteMaterializationEnabled(true)
                 .setCachingConnectorName("memory")
                 .setCachingSchemaName("memCache")
-                .setCachingUserName("test");
+                .setCachingUserName("test")
+                .setQueryResultCacheEnabled(true)
+                .setQueryResultCacheMaxSize(new DataSize(2, GIGABYTE))
+                .setQueryResultCacheMaxEntrySize(new DataSize(32, MEGABYTE))
+                .setQueryResultCacheTtl(new Duration(10, TimeUnit.MINUTES))
+                .setQueryResultCacheFileSystemProfile("hdfs-config-default")
+                .setQueryResultCacheDirectory("/hetu/query-result-cache");
 
         ConfigAssertions.assertFullMapping(properties, expected);
     }
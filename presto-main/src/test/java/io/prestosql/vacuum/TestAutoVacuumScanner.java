@@ -0,0 +1,151 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.vacuum;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.SettableFuture;
+import io.airlift.concurrent.BoundedExecutor;
+import io.prestosql.dispatcher.DispatchManager;
+import io.prestosql.execution.QueryManager;
+import io.prestosql.metadata.Catalog;
+import io.prestosql.metadata.CatalogManager;
+import io.prestosql.metadata.SessionPropertyManager;
+import io.prestosql.operator.ExchangeClientSupplier;
+import io.prestosql.server.SessionContext;
+import io.prestosql.spi.QueryId;
+import io.prestosql.spi.block.BlockEncodingSerde;
+import io.prestosql.spi.connector.CatalogName;
+import io.prestosql.spi.connector.Connector;
+import io.prestosql.spi.connector.ConnectorMetadata;
+import io.prestosql.spi.connector.ConnectorVacuumTableInfo;
+import org.mockito.ArgumentCaptor;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+@Test(singleThreaded = true)
+public class TestAutoVacuumScanner
+{
+    private static final String CATALOG = "hive";
+
+    private DispatchManager dispatchManager;
+    private ConnectorMetadata connectorMetadata;
+    private List<SettableFuture<?>> submissions;
+    private AutoVacuumScanner scanner;
+
+    @BeforeMethod
+    public void setUp()
+    {
+        dispatchManager = mock(DispatchManager.class);
+        AtomicInteger queryIds = new AtomicInteger();
+        when(dispatchManager.createQueryId()).thenAnswer(invocation -> new QueryId("vacuum_" + queryIds.incrementAndGet()));
+        // the submissions stay pending, so the started vacuums keep their slots until the test fails them
+        submissions = new CopyOnWriteArrayList<>();
+        when(dispatchManager.createQuery(any(QueryId.class), anyString(), any(SessionContext.class), anyString())).thenAnswer(invocation -> {
+            SettableFuture<?> submission = SettableFuture.create();
+            submissions.add(submission);
+            return submission;
+        });
+
+        connectorMetadata = mock(ConnectorMetadata.class);
+        Connector connector = mock(Connector.class);
+        when(connector.getConnectorMetadata()).thenReturn(connectorMetadata);
+        CatalogManager catalogManager = new CatalogManager();
+        catalogManager.registerCatalog(new Catalog(
+                CATALOG,
+                new CatalogName(CATALOG),
+                connector,
+                new CatalogName("$info_schema@" + CATALOG),
+                mock(Connector.class),
+                new CatalogName("$system@" + CATALOG),
+                mock(Connector.class)));
+
+        scanner = new AutoVacuumScanner(
+                new AutoVacuumConfig().setMaxConcurrentVacuums(2),
+                catalogManager,
+                dispatchManager,
+                new SessionPropertyManager(),
+                mock(QueryManager.class),
+                mock(ExchangeClientSupplier.class),
+                mock(BlockEncodingSerde.class),
+                new BoundedExecutor(directExecutor(), 1),
+                mock(ScheduledExecutorService.class));
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown()
+    {
+        scanner.stop();
+    }
+
+    @Test
+    public void testStartsHighestPriorityFirst()
+    {
+        when(connectorMetadata.getTablesForVacuum()).thenReturn(ImmutableList.of(
+                new ConnectorVacuumTableInfo("schema.low", false, 1),
+                new ConnectorVacuumTableInfo("schema.high", false, 5),
+                new ConnectorVacuumTableInfo("schema.medium", true, 3)));
+        scanner.scan();
+
+        // only two vacuums may run at once, the table with the lowest priority waits
+        assertEquals(startedVacuums(2), ImmutableList.of(
+                "vacuum table hive.schema.high",
+                "vacuum table hive.schema.medium  full"));
+    }
+
+    @Test
+    public void testFinishedVacuumStartsNextByPriority()
+    {
+        when(connectorMetadata.getTablesForVacuum())
+                .thenReturn(ImmutableList.of(
+                        new ConnectorVacuumTableInfo("schema.first", false, 10),
+                        new ConnectorVacuumTableInfo("schema.second", false, 9),
+                        new ConnectorVacuumTableInfo("schema.low", false, 1)))
+                .thenReturn(ImmutableList.of(new ConnectorVacuumTableInfo("schema.late", false, 2)));
+        scanner.scan();
+        // no slot is free, the table reported by the second scan is queued behind the running vacuums
+        scanner.scan();
+        assertEquals(startedVacuums(2), ImmutableList.of(
+                "vacuum table hive.schema.first",
+                "vacuum table hive.schema.second"));
+
+        // the freed slot goes to the pending table with the highest priority, not to the one queued first
+        submissions.get(0).setException(new RuntimeException("vacuum failed"));
+        assertEquals(startedVacuums(3).get(2), "vacuum table hive.schema.late");
+    }
+
+    private List<String> startedVacuums(int count)
+    {
+        // pending vacuums are started on the scanner executor once a slot is freed
+        verify(dispatchManager, timeout(10_000).times(count)).createQuery(any(QueryId.class), anyString(), any(SessionContext.class), anyString());
+        ArgumentCaptor<String> queries = ArgumentCaptor.forClass(String.class);
+        verify(dispatchManager, times(count)).createQuery(any(QueryId.class), anyString(), any(SessionContext.class), queries.capture());
+        return queries.getAllValues();
+    }
+}
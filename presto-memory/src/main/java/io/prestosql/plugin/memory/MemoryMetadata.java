@@ -767,6 +767,17 @@ public class MemoryMetadata
         }
     }
 
+    @Override
+    public Optional<String> getTableDataVersion(ConnectorSession session, ConnectorTableHandle tableHandle)
+    {
+        TableInfo info = getTableInfo(((MemoryTableHandle) tableHandle).getId());
+        // writes within the same millisecond still change the number of rows
+        long rows = info.getDataFragments().values().stream()
+                .mapToLong(MemoryDataFragment::getRows)
+                .sum();
+        return Optional.of(info.getModificationTime() + ":" + rows);
+    }
+
     /**
      * Get all tables in the given schema (if present) or all tables in memory catalog.
      */
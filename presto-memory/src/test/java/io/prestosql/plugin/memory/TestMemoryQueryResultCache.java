@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2018-2021. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.prestosql.plugin.memory;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Key;
+import io.prestosql.cache.QueryResultCache;
+import io.prestosql.testing.MaterializedRow;
+import io.prestosql.tests.AbstractTestQueryFramework;
+import io.prestosql.tests.DistributedQueryRunner;
+import org.testng.annotations.Test;
+
+import static io.prestosql.testing.assertions.Assert.assertEquals;
+import static java.lang.Thread.sleep;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestMemoryQueryResultCache
+        extends AbstractTestQueryFramework
+{
+    private static final String QUERY = "SELECT count(*), sum(regionkey) FROM test_result_cache";
+
+    public TestMemoryQueryResultCache()
+    {
+        super(() -> MemoryQueryRunner.createQueryRunner(1, ImmutableMap.of("hetu.query-result-cache.enabled", "true"), ImmutableMap.of(), false));
+    }
+
+    @Test
+    public void testInsertInvalidatesCachedResult()
+            throws Exception
+    {
+        QueryResultCache cache = ((DistributedQueryRunner) getQueryRunner()).getCoordinator().getInstance(Key.get(QueryResultCache.class));
+        assertUpdate("CREATE TABLE test_result_cache AS SELECT * FROM tpch.tiny.nation", 25);
+
+        long storedResults = cache.getStoredResults();
+        assertResult(25L, 50L);
+        waitForStoredResults(cache, storedResults + 1);
+
+        long hits = cache.getHits();
+        assertResult(25L, 50L);
+        assertEquals(cache.getHits(), hits + 1);
+
+        // the insert changes the data version of the table, so the stale result is not used
+        assertUpdate("INSERT INTO test_result_cache SELECT * FROM tpch.tiny.nation WHERE nationkey = 0", 1);
+        assertResult(26L, 50L);
+        assertEquals(cache.getHits(), hits + 1);
+
+        assertUpdate("DROP TABLE test_result_cache");
+    }
+
+    private void assertResult(long count, long sum)
+    {
+        MaterializedRow row = computeActual(QUERY).getMaterializedRows().get(0);
+        assertEquals(row.getField(0), count);
+        assertEquals(row.getField(1), sum);
+    }
+
+    private static void waitForStoredResults(QueryResultCache cache, long expected)
+            throws InterruptedException
+    {
+        long deadline = System.nanoTime() + SECONDS.toNanos(10);
+        while (cache.getStoredResults() < expected && System.nanoTime() < deadline) {
+            sleep(100);
+        }
+        assertTrue(cache.getStoredResults() >= expected, "query result was not stored");
+    }
+}
@@ -843,6 +843,12 @@ public class CachedConnectorMetadata
         return this.delegate.getTableModificationTime(session, tableHandle);
     }
 
+    @Override
+    public Optional<String> getTableDataVersion(ConnectorSession session, ConnectorTableHandle tableHandle)
+    {
+        return this.delegate.getTableDataVersion(session, tableHandle);
+    }
+
     @Override
     public boolean isPreAggregationSupported(ConnectorSession session)
     {
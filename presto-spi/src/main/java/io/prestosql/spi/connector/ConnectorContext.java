@@ -24,6 +24,7 @@ import io.prestosql.spi.heuristicindex.IndexClient;
 import io.prestosql.spi.metastore.HetuMetastore;
 import io.prestosql.spi.plan.FilterStatsCalculatorService;
 import io.prestosql.spi.relation.RowExpressionService;
+import io.prestosql.spi.statestore.StateStore;
 import io.prestosql.spi.type.TypeManager;
 
 public interface ConnectorContext
@@ -63,6 +64,14 @@ public interface ConnectorContext
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * State store shared by the coordinators, or null if the cluster has none
+     */
+    default StateStore getStateStore()
+    {
+        throw new UnsupportedOperationException();
+    }
+
     default RowExpressionService getRowExpressionService()
     {
         throw new UnsupportedOperationException();
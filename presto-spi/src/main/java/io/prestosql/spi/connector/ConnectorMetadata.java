@@ -363,6 +363,15 @@ public interface ConnectorMetadata
         throw new PrestoException(NOT_SUPPORTED, "The connector does not support getting table modification time");
     }
 
+    /**
+     * Returns a version of the data read through the table handle, which changes whenever rows are added,
+     * removed or modified. Returns empty if the connector can not detect every change of the data.
+     */
+    default Optional<String> getTableDataVersion(ConnectorSession session, ConnectorTableHandle tableHandle)
+    {
+        return Optional.empty();
+    }
+
     /**
      * Get the physical layout for a new table.
      */
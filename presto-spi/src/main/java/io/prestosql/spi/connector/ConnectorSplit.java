@@ -17,6 +17,7 @@ import io.prestosql.spi.HostAddress;
 import io.prestosql.spi.SplitWeight;
 import sun.reflect.generics.reflectiveObjects.NotImplementedException;
 
+import java.util.Collections;
 import java.util.List;
 
 public interface ConnectorSplit
@@ -55,6 +56,16 @@ public interface ConnectorSplit
         return false;
     }
 
+    /**
+     * Whether the pages read for this split can be kept by the worker and served to later scans
+     * of the same split. The split must be cacheable and its data fully identified by the file path,
+     * range and last modified time, e.g. it must not apply delete deltas that can change underneath.
+     */
+    default boolean isPageCacheable()
+    {
+        return false;
+    }
+
     Object getInfo();
 
     default int getSplitCount()
@@ -76,4 +87,14 @@ public interface ConnectorSplit
     {
         return 0;
     }
+
+    /**
+     * Divides this split into at most {@code maxParts} splits which together read the same data,
+     * so that a large split can be processed by several drivers. Splits which cannot be divided
+     * are returned unchanged.
+     */
+    default List<ConnectorSplit> divide(int maxParts)
+    {
+        return Collections.singletonList(this);
+    }
 }
@@ -25,6 +25,12 @@ import java.util.function.Supplier;
 
 public interface ConnectorSplitManager
 {
+    /**
+     * Query info key present when the splits are enumerated while planning the query,
+     * e.g. to sample the table, rather than to be scheduled.
+     */
+    String PLANNING_SPLITS = "planningSplits";
+
     @Deprecated
     default ConnectorSplitSource getSplits(
             ConnectorTransactionHandle transactionHandle,
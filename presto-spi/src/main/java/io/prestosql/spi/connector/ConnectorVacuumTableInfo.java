@@ -18,11 +18,22 @@ public class ConnectorVacuumTableInfo
 {
     private String schemaTableName;
     private boolean isFull;
+    private double priority;
 
     public ConnectorVacuumTableInfo(String schemaTableName, boolean isFull)
+    {
+        this(schemaTableName, isFull, 0);
+    }
+
+    /**
+     * @param priority estimated read cost, in connector specific units, that queries keep paying
+     * until the table is vacuumed. Tables with a higher priority are vacuumed first.
+     */
+    public ConnectorVacuumTableInfo(String schemaTableName, boolean isFull, double priority)
     {
         this.schemaTableName = schemaTableName;
         this.isFull = isFull;
+        this.priority = priority;
     }
 
     public String getSchemaTableName()
@@ -34,4 +45,9 @@ public class ConnectorVacuumTableInfo
     {
         return isFull;
     }
+
+    public double getPriority()
+    {
+        return priority;
+    }
 }
@@ -24,6 +24,7 @@ public class CubeUpdateMetadata
 {
     private final String cubeName;
     private final long tableLastUpdatedTime;
+    private final String tableDataVersion;
     private final String dataPredicateString;
     private final boolean overwrite;
 
@@ -31,11 +32,13 @@ public class CubeUpdateMetadata
     public CubeUpdateMetadata(
             @JsonProperty("cubeName") String cubeName,
             @JsonProperty("tableLastUpdatedTime") long tableLastUpdatedTime,
+            @JsonProperty("tableDataVersion") String tableDataVersion,
             @JsonProperty("dataPredicate") String dataPredicateString,
             @JsonProperty("overwrite") boolean overwrite)
     {
         this.cubeName = requireNonNull(cubeName, "cubeName is null");
         this.tableLastUpdatedTime = tableLastUpdatedTime;
+        this.tableDataVersion = tableDataVersion;
         this.dataPredicateString = dataPredicateString;
         this.overwrite = overwrite;
     }
@@ -52,6 +55,15 @@ public class CubeUpdateMetadata
         return tableLastUpdatedTime;
     }
 
+    /**
+     * The data version of the source table partitions covered by the cube once the insert is done, null if unknown
+     */
+    @JsonProperty
+    public String getTableDataVersion()
+    {
+        return tableDataVersion;
+    }
+
     @JsonProperty
     public String getDataPredicateString()
     {
@@ -70,6 +82,7 @@ public class CubeUpdateMetadata
         return "CubeUpdateMetadata{" +
                 "cubeName='" + cubeName + '\'' +
                 ", tableLastUpdatedTime=" + tableLastUpdatedTime +
+                ", tableDataVersion='" + tableDataVersion + '\'' +
                 ", dataPredicateString='" + dataPredicateString + '\'' +
                 ", overwrite=" + overwrite +
                 '}';
@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2018-2022. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spi.function;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Marks the inverse of an {@link InputFunction}. The method must take exactly the same
+ * parameters as the input function it reverts, so that window frames can slide by removing
+ * the rows that leave the frame instead of re-aggregating the whole frame. Only declare it when
+ * the state after removing a row is exactly the state of aggregating the remaining rows, which
+ * is not the case for floating point sums.
+ */
+@Retention(RUNTIME)
+@Target(METHOD)
+public @interface RemoveInputFunction
+{
+}
@@ -68,4 +68,15 @@ public interface StateCollection
      * Destroy the state collection
      */
     void destroy();
+
+    /**
+     * Check if the values of the state collection are encrypted before they are stored.
+     * Values of encrypted collections are serialized again and encoded as strings
+     *
+     * @return if the values of the state collection are encrypted
+     */
+    default boolean isEncrypted()
+    {
+        return false;
+    }
 }
@@ -26,7 +26,7 @@ public class TestCubeUpdateMetadata
     @BeforeMethod
     public void setUp() throws Exception
     {
-        cubeUpdateMetadataUnderTest = new CubeUpdateMetadata("cubeName", 0L, "dataPredicateString", false);
+        cubeUpdateMetadataUnderTest = new CubeUpdateMetadata("cubeName", 0L, "tableDataVersion", "dataPredicateString", false);
     }
 
     @Test
@@ -34,6 +34,7 @@ public class TestCubeUpdateMetadata
     {
         assertEquals("cubeName", cubeUpdateMetadataUnderTest.getCubeName());
         assertEquals(0L, cubeUpdateMetadataUnderTest.getTableLastUpdatedTime());
+        assertEquals("tableDataVersion", cubeUpdateMetadataUnderTest.getTableDataVersion());
         assertEquals("cubeName", cubeUpdateMetadataUnderTest.getCubeName());
         assertEquals(false, cubeUpdateMetadataUnderTest.isOverwrite());
     }
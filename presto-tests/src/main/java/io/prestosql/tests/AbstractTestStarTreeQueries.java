@@ -646,6 +646,35 @@ public abstract class AbstractTestStarTreeQueries
         assertUpdate("DROP TABLE nation_table_status_test");
     }
 
+    @Test
+    public void testIncrementalInsertOfNewPartitions()
+    {
+        Session incrementalInsertSession = Session.builder(starTreeDisabledSession)
+                .setSystemProperty(SystemSessionProperties.CUBE_INCREMENTAL_INSERT_ENABLED, "true")
+                .build();
+        assertUpdate("CREATE TABLE nation_incremental_test_table WITH (partitioned_by = ARRAY['regionkey']) AS SELECT nationkey, name, regionkey FROM nation WHERE regionkey < 2", 10);
+        assertUpdate("CREATE CUBE nation_incremental_cube_1 ON nation_incremental_test_table " +
+                "WITH (AGGREGATIONS=(count(*), sum(nationkey)), group=(regionkey), format= 'orc')");
+        assertUpdate(incrementalInsertSession, "INSERT INTO CUBE nation_incremental_cube_1 where regionkey < 2", 2);
+        assertUpdate("INSERT INTO nation_incremental_test_table SELECT nationkey, name, regionkey FROM nation WHERE regionkey >= 2", 15);
+
+        // the source table was updated, so only predicates on partitions that are not part of the cube are accepted
+        assertQueryFails(starTreeDisabledSession, "INSERT INTO CUBE nation_incremental_cube_1 where regionkey = 2", ".*Source table has been updated since Cube was last updated.*");
+        assertQueryFails(incrementalInsertSession, "INSERT INTO CUBE nation_incremental_cube_1 where regionkey >= 2", ".*Source table has been updated since Cube was last updated.*");
+        assertQueryFails(incrementalInsertSession, "INSERT INTO CUBE nation_incremental_cube_1 where regionkey = 5", ".*Source table has been updated since Cube was last updated.*");
+        assertUpdate(incrementalInsertSession, "INSERT INTO CUBE nation_incremental_cube_1 where regionkey = 2", 1);
+
+        // without predicate, the partitions missing from the cube are inserted
+        assertUpdate(incrementalInsertSession, "INSERT INTO CUBE nation_incremental_cube_1", 2);
+        assertQueryFails(incrementalInsertSession, "INSERT INTO CUBE nation_incremental_cube_1", ".*already contains all partitions of source table.*");
+        assertQuery(starTreeDisabledSession,
+                "SELECT regionkey, count(*) FROM nation_incremental_cube_1 GROUP BY regionkey",
+                "SELECT regionkey, 1 FROM region");
+
+        assertUpdate("DROP CUBE nation_incremental_cube_1");
+        assertUpdate("DROP TABLE nation_incremental_test_table");
+    }
+
     @Test
     public void testCubePredicateTimestampType()
     {
@@ -0,0 +1,65 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.tests;
+
+import io.prestosql.Session;
+import io.prestosql.tests.tpch.TpchQueryRunnerBuilder;
+import org.intellij.lang.annotations.Language;
+import org.testng.annotations.Test;
+
+import static io.prestosql.SystemSessionProperties.JOIN_DISTRIBUTION_TYPE;
+import static io.prestosql.SystemSessionProperties.SKEWED_JOIN_REPLICATION_ENABLED;
+import static io.prestosql.SystemSessionProperties.SKEWED_JOIN_SAMPLE_TIMEOUT;
+import static org.testng.Assert.assertTrue;
+
+public class TestSkewedJoinReplication
+        extends AbstractTestQueryFramework
+{
+    public TestSkewedJoinReplication()
+    {
+        super(() -> TpchQueryRunnerBuilder.builder().build());
+    }
+
+    @Test
+    public void testInnerJoinOnHotKeys()
+    {
+        // 'F' and 'O' are the status of about half of the line items each
+        assertSkewedJoin(
+                "SELECT l.linestatus, count(*), sum(o.orders) " +
+                        "FROM lineitem l JOIN (SELECT orderstatus, count(*) orders FROM orders GROUP BY orderstatus) o ON l.linestatus = o.orderstatus " +
+                        "GROUP BY l.linestatus");
+    }
+
+    @Test
+    public void testLeftJoinOnHotKeys()
+    {
+        // the hot key 'O' has no match on the build side
+        assertSkewedJoin(
+                "SELECT l.linestatus, count(*), count(o.orders), sum(o.orders) " +
+                        "FROM lineitem l LEFT JOIN (SELECT orderstatus, count(*) orders FROM orders WHERE orderstatus <> 'O' GROUP BY orderstatus) o ON l.linestatus = o.orderstatus " +
+                        "GROUP BY l.linestatus");
+    }
+
+    private void assertSkewedJoin(@Language("SQL") String sql)
+    {
+        Session session = Session.builder(getSession())
+                .setSystemProperty(SKEWED_JOIN_REPLICATION_ENABLED, "true")
+                .setSystemProperty(SKEWED_JOIN_SAMPLE_TIMEOUT, "1m")
+                .setSystemProperty(JOIN_DISTRIBUTION_TYPE, "PARTITIONED")
+                .build();
+        String plan = (String) computeActual(session, "EXPLAIN (TYPE DISTRIBUTED) " + sql).getOnlyValue();
+        assertTrue(plan.contains("build_salt"), "hot keys are not replicated: " + plan);
+        assertQuery(session, sql);
+    }
+}